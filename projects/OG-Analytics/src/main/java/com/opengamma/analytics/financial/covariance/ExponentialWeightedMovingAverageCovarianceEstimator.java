@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.covariance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Incremental exponentially weighted moving average (EWMA) estimator of the covariance of a set of return series:
+ * $$
+ * \begin{eqnarray*}
+ * \sigma_{xy, t} = \lambda \sigma_{xy, t-1} + (1 - \lambda)x_t y_t
+ * \end{eqnarray*}
+ * $$
+ * where $x_t$ and $y_t$ are the returns of the two series over a single period. The estimate is initialised with the product
+ * of the first returns, so that the volatility of a series is the one computed by
+ * {@link com.opengamma.analytics.financial.covariance.ExponentialWeightedMovingAverageHistoricalVolatilityCalculator} on the same returns.
+ */
+public class ExponentialWeightedMovingAverageCovarianceEstimator extends IncrementalCovarianceEstimator {
+  /** The logger */
+  private static final Logger s_logger = LoggerFactory.getLogger(ExponentialWeightedMovingAverageCovarianceEstimator.class);
+  /** Lambda, the weighting parameter */
+  private final double _lambda;
+  /** Lambda minus one */
+  private final double _lambdaM1;
+  /** The covariances, packed lower triangular */
+  private final double[] _covariances;
+  private int _count;
+
+  /**
+   * Although the weight parameter can take any positive value, for most use the range should be $\lambda < 1$; if a value outside of this range
+   * is used then greater weight will be placed on older return values.
+   * @param nbFactors The number of return series, strictly positive
+   * @param lambda The weight parameter, not negative
+   */
+  public ExponentialWeightedMovingAverageCovarianceEstimator(final int nbFactors, final double lambda) {
+    super(nbFactors);
+    ArgumentChecker.notNegative(lambda, "lambda");
+    if (lambda > 1) {
+      s_logger.warn("Weight for EWMA series is greater than one: this is probably not what was intended");
+    }
+    _lambda = lambda;
+    _lambdaM1 = 1 - lambda;
+    _covariances = new double[getPackedSize()];
+  }
+
+  @Override
+  public void add(final double... returns) {
+    checkObservation(returns);
+    final double lambda = _count == 0 ? 0 : _lambda;
+    final double lambdaM1 = _count == 0 ? 1 : _lambdaM1;
+    int k = 0;
+    for (int i = 0; i < returns.length; i++) {
+      final double weighted = lambdaM1 * returns[i];
+      for (int j = 0; j <= i; j++) {
+        _covariances[k] = lambda * _covariances[k] + weighted * returns[j];
+        k++;
+      }
+    }
+    _count++;
+  }
+
+  @Override
+  public int getNumberOfObservations() {
+    return _count;
+  }
+
+  /**
+   * Gets the weight parameter.
+   * @return Lambda
+   */
+  public double getLambda() {
+    return _lambda;
+  }
+
+  @Override
+  protected double getPackedCovariance(final int index) {
+    ArgumentChecker.isTrue(_count > 0, "need at least one observation");
+    return _covariances[index];
+  }
+
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.covariance;
+
+import static com.opengamma.analytics.financial.timeseries.util.TimeSeriesDataTestUtils.testTimeSeriesDates;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.timeseries.DoubleTimeSeries;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Base class for estimators of the covariance of a set of return series that are updated one observation at a time.
+ * <p>
+ * The estimators keep running statistics for each series and pair of series, so that extending the series by one
+ * observation costs a constant time for each pair rather than a pass over the full history. The statistics of the
+ * pairs are stored in a packed lower triangular array. The estimators are not thread-safe.
+ */
+public abstract class IncrementalCovarianceEstimator {
+  /** The number of return series */
+  private final int _nbFactors;
+
+  /**
+   * @param nbFactors The number of return series, strictly positive
+   */
+  protected IncrementalCovarianceEstimator(final int nbFactors) {
+    ArgumentChecker.isTrue(nbFactors > 0, "number of factors must be positive");
+    _nbFactors = nbFactors;
+  }
+
+  /**
+   * Adds the returns of all the series for one observation date.
+   * @param returns The returns, one for each series, not null
+   */
+  public abstract void add(final double... returns);
+
+  /**
+   * Adds the returns of all the series for each of their dates, in date order.
+   * @param returns The return series, one for each factor, not null. The series must have the same dates.
+   */
+  public void addAll(final DoubleTimeSeries<?>... returns) {
+    ArgumentChecker.notNull(returns, "returns");
+    ArgumentChecker.isTrue(returns.length == _nbFactors, "must have {} time series", _nbFactors);
+    final double[][] values = new double[_nbFactors][];
+    for (int i = 0; i < _nbFactors; i++) {
+      testTimeSeriesDates(returns[0], returns[i]);
+      values[i] = returns[i].valuesArrayFast();
+    }
+    final int n = values[0].length;
+    final double[] observation = new double[_nbFactors];
+    for (int t = 0; t < n; t++) {
+      for (int i = 0; i < _nbFactors; i++) {
+        observation[i] = values[i][t];
+      }
+      add(observation);
+    }
+  }
+
+  /**
+   * Gets the number of observations currently used by the estimate.
+   * @return The number of observations
+   */
+  public abstract int getNumberOfObservations();
+
+  /**
+   * Gets the covariance of two series.
+   * @param i The index of the first series
+   * @param j The index of the second series
+   * @return The covariance
+   */
+  public double getCovariance(final int i, final int j) {
+    checkIndex(i);
+    checkIndex(j);
+    return i >= j ? getPackedCovariance(index(i, j)) : getPackedCovariance(index(j, i));
+  }
+
+  /**
+   * Gets the variance of a series.
+   * @param i The index of the series
+   * @return The variance
+   */
+  public double getVariance(final int i) {
+    return getCovariance(i, i);
+  }
+
+  /**
+   * Gets the volatility of a series, the square root of its variance.
+   * @param i The index of the series
+   * @return The volatility
+   */
+  public double getVolatility(final int i) {
+    return Math.sqrt(getVariance(i));
+  }
+
+  /**
+   * Gets the covariance matrix of the series.
+   * @return The covariance matrix
+   */
+  public DoubleMatrix2D getCovarianceMatrix() {
+    final double[][] covariance = new double[_nbFactors][_nbFactors];
+    for (int i = 0; i < _nbFactors; i++) {
+      final int offset = index(i, 0);
+      for (int j = 0; j <= i; j++) {
+        covariance[i][j] = getPackedCovariance(offset + j);
+        covariance[j][i] = covariance[i][j];
+      }
+    }
+    return new DoubleMatrix2D(covariance);
+  }
+
+  /**
+   * Gets the number of return series.
+   * @return The number of series
+   */
+  public int getNumberOfFactors() {
+    return _nbFactors;
+  }
+
+  /**
+   * Gets the covariance of a pair of series.
+   * @param index The index of the pair in the packed lower triangular array, see {@link #index(int, int)}
+   * @return The covariance
+   */
+  protected abstract double getPackedCovariance(final int index);
+
+  /**
+   * Checks the number of returns of an observation.
+   * @param returns The returns
+   */
+  protected void checkObservation(final double[] returns) {
+    ArgumentChecker.notNull(returns, "returns");
+    ArgumentChecker.isTrue(returns.length == _nbFactors, "must have {} returns", _nbFactors);
+  }
+
+  /**
+   * Gets the size of a packed lower triangular array of the pairs of series.
+   * @return The size
+   */
+  protected int getPackedSize() {
+    return index(_nbFactors, 0);
+  }
+
+  /**
+   * The index of a pair of series in a packed lower triangular array.
+   * @param i The index of the first series
+   * @param j The index of the second series, not greater than i
+   * @return The index of the pair
+   */
+  protected static int index(final int i, final int j) {
+    return i * (i + 1) / 2 + j;
+  }
+
+  private void checkIndex(final int i) {
+    ArgumentChecker.isTrue(i >= 0 && i < _nbFactors, "index {} out of range", i);
+  }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.covariance;
+
+import static com.opengamma.analytics.financial.timeseries.util.TimeSeriesDataTestUtils.testTimeSeriesDates;
+import static com.opengamma.analytics.financial.timeseries.util.TimeSeriesDataTestUtils.testTimeSeriesSize;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.opengamma.analytics.math.function.Function;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.timeseries.DoubleTimeSeries;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.ForkJoinUtils;
+
+/**
+ * Calculates the sample covariance matrix of a large number of return series, as {@link RunningCovarianceEstimator} would over all the observations.
+ * <p>
+ * The series are first centred on their means. The lower triangle of the matrix is then split into square blocks of series, and the
+ * covariances of each block are computed as dot products of the centred series, in parallel when a fork/join pool is provided. The blocks
+ * keep the series they use small enough to stay in the processor cache.
+ */
+public class ParallelCovarianceMatrixCalculator implements Function<DoubleTimeSeries<?>, DoubleMatrix2D> {
+  /** The default number of series in a block */
+  private static final int DEFAULT_BLOCK_SIZE = 64;
+  private final ForkJoinPool _pool;
+  private final int _blockSize;
+
+  /**
+   * @param pool The fork/join pool used to compute the blocks in parallel, null for sequential calculation
+   */
+  public ParallelCovarianceMatrixCalculator(final ForkJoinPool pool) {
+    this(pool, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * @param pool The fork/join pool used to compute the blocks in parallel, null for sequential calculation
+   * @param blockSize The number of series in a block, strictly positive
+   */
+  public ParallelCovarianceMatrixCalculator(final ForkJoinPool pool, final int blockSize) {
+    ArgumentChecker.isTrue(blockSize > 0, "block size must be positive");
+    _pool = pool;
+    _blockSize = blockSize;
+  }
+
+  /**
+   * Calculates a covariance matrix given an array of return series. The ordering of the elements is determined by the order of the array
+   * @param x An array of {@link DoubleTimeSeries} with the same dates, not null or empty
+   * @return The covariance matrix
+   */
+  @Override
+  public DoubleMatrix2D evaluate(final DoubleTimeSeries<?>... x) {
+    ArgumentChecker.notEmpty(x, "x");
+    final double[][] returns = new double[x.length][];
+    for (int i = 0; i < x.length; i++) {
+      testTimeSeriesSize(x[i], 2);
+      testTimeSeriesDates(x[0], x[i]);
+      returns[i] = x[i].valuesArrayFast();
+    }
+    return evaluate(returns);
+  }
+
+  /**
+   * Calculates a covariance matrix given the returns of the series.
+   * @param returns The returns, by series then observation, not null or empty. All the series must have the same number of observations, at least two.
+   * @return The covariance matrix
+   */
+  public DoubleMatrix2D evaluate(final double[][] returns) {
+    ArgumentChecker.notEmpty(returns, "returns");
+    final int nbFactors = returns.length;
+    final int nbObservations = returns[0].length;
+    ArgumentChecker.isTrue(nbObservations > 1, "need at least two observations");
+    final double[][] centred = new double[nbFactors][nbObservations];
+    for (int i = 0; i < nbFactors; i++) {
+      ArgumentChecker.isTrue(returns[i].length == nbObservations, "series {} has {} observations, expected {}", i, returns[i].length, nbObservations);
+      double mean = 0;
+      for (int t = 0; t < nbObservations; t++) {
+        mean += returns[i][t];
+      }
+      mean /= nbObservations;
+      for (int t = 0; t < nbObservations; t++) {
+        centred[i][t] = returns[i][t] - mean;
+      }
+    }
+    final double[][] covariance = new double[nbFactors][nbFactors];
+    final int nbBlocks = (nbFactors + _blockSize - 1) / _blockSize;
+    if (_pool == null || nbBlocks == 1) {
+      for (int loopb1 = 0; loopb1 < nbBlocks; loopb1++) {
+        for (int loopb2 = 0; loopb2 <= loopb1; loopb2++) {
+          computeBlock(centred, covariance, loopb1, loopb2);
+        }
+      }
+      return new DoubleMatrix2D(covariance);
+    }
+    final int nbPairs = nbBlocks * (nbBlocks + 1) / 2;
+    final int[] blocks1 = new int[nbPairs];
+    final int[] blocks2 = new int[nbPairs];
+    int pair = 0;
+    for (int loopb1 = 0; loopb1 < nbBlocks; loopb1++) {
+      for (int loopb2 = 0; loopb2 <= loopb1; loopb2++) {
+        blocks1[pair] = loopb1;
+        blocks2[pair++] = loopb2;
+      }
+    }
+    ForkJoinUtils.invokeAll(_pool, nbPairs, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int index) {
+        computeBlock(centred, covariance, blocks1[index], blocks2[index]);
+      }
+    });
+    return new DoubleMatrix2D(covariance);
+  }
+
+  /**
+   * Gets the number of series in a block.
+   * @return The block size
+   */
+  public int getBlockSize() {
+    return _blockSize;
+  }
+
+  /**
+   * Computes the covariances of the series of a block of rows with the series of a block of columns, on or below the diagonal,
+   * and their symmetric entries.
+   */
+  private void computeBlock(final double[][] centred, final double[][] covariance, final int block1, final int block2) {
+    final int nbFactors = centred.length;
+    final int nbObservations = centred[0].length;
+    final int start1 = block1 * _blockSize;
+    final int end1 = Math.min(start1 + _blockSize, nbFactors);
+    final int start2 = block2 * _blockSize;
+    final int end2 = Math.min(start2 + _blockSize, nbFactors);
+    for (int i = start1; i < end1; i++) {
+      final double[] x = centred[i];
+      for (int j = start2; j < Math.min(end2, i + 1); j++) {
+        final double[] y = centred[j];
+        double sum = 0;
+        for (int t = 0; t < nbObservations; t++) {
+          sum += x[t] * y[t];
+        }
+        covariance[i][j] = sum / (nbObservations - 1);
+        covariance[j][i] = covariance[i][j];
+      }
+    }
+  }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.covariance;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Incremental estimator of the sample covariance of a set of return series:
+ * $$
+ * \begin{eqnarray*}
+ * \frac{1}{n-1}\sum\limits_{i=1}^n (x_i - \overline{x})(y_i - \overline{y})
+ * \end{eqnarray*}
+ * $$
+ * The means and the sums of the products of the deviations from the means are updated with Welford's algorithm, which is
+ * numerically stable. The estimate is either over all the observations or over a rolling window of the latest observations;
+ * in the latter case the observations of the window are kept and the oldest one is removed by reversing its update when
+ * a new one is added.
+ */
+public class RunningCovarianceEstimator extends IncrementalCovarianceEstimator {
+  /** The means of the series */
+  private final double[] _means;
+  /** The sums of the products of the deviations from the means, packed lower triangular */
+  private final double[] _coMoments;
+  /** The observations of the window, null if all the observations are used */
+  private final double[][] _window;
+  /** The index of the oldest observation in the window */
+  private int _oldest;
+  private int _count;
+
+  /**
+   * Creates an estimator over all the observations.
+   * @param nbFactors The number of return series, strictly positive
+   */
+  public RunningCovarianceEstimator(final int nbFactors) {
+    super(nbFactors);
+    _means = new double[nbFactors];
+    _coMoments = new double[getPackedSize()];
+    _window = null;
+  }
+
+  /**
+   * Creates an estimator over a rolling window of the latest observations.
+   * @param nbFactors The number of return series, strictly positive
+   * @param windowSize The number of observations in the window, greater than one
+   */
+  public RunningCovarianceEstimator(final int nbFactors, final int windowSize) {
+    super(nbFactors);
+    ArgumentChecker.isTrue(windowSize > 1, "window size must be greater than one");
+    _means = new double[nbFactors];
+    _coMoments = new double[getPackedSize()];
+    _window = new double[windowSize][];
+  }
+
+  @Override
+  public void add(final double... returns) {
+    checkObservation(returns);
+    if (_window == null) {
+      update(returns);
+      return;
+    }
+    final double[] observation;
+    if (_count == _window.length) {
+      observation = _window[_oldest];
+      remove(observation);
+      System.arraycopy(returns, 0, observation, 0, returns.length);
+    } else {
+      observation = returns.clone();
+    }
+    _window[_oldest] = observation;
+    _oldest = (_oldest + 1) % _window.length;
+    update(observation);
+  }
+
+  @Override
+  public int getNumberOfObservations() {
+    return _count;
+  }
+
+  /**
+   * Gets the mean of a series.
+   * @param i The index of the series
+   * @return The mean
+   */
+  public double getMean(final int i) {
+    ArgumentChecker.isTrue(i >= 0 && i < _means.length, "index {} out of range", i);
+    return _means[i];
+  }
+
+  /**
+   * Gets the size of the rolling window.
+   * @return The number of observations in the window, or zero if all the observations are used
+   */
+  public int getWindowSize() {
+    return _window == null ? 0 : _window.length;
+  }
+
+  @Override
+  protected double getPackedCovariance(final int index) {
+    ArgumentChecker.isTrue(_count > 1, "need at least two observations");
+    return _coMoments[index] / (_count - 1);
+  }
+
+  private void update(final double[] returns) {
+    _count++;
+    final int n = _means.length;
+    final double[] deviations = new double[n];
+    for (int i = 0; i < n; i++) {
+      deviations[i] = returns[i] - _means[i];
+      _means[i] += deviations[i] / _count;
+    }
+    // the product of the deviations from the old and the new means
+    int k = 0;
+    for (int i = 0; i < n; i++) {
+      final double newDeviation = returns[i] - _means[i];
+      for (int j = 0; j <= i; j++) {
+        _coMoments[k++] += newDeviation * deviations[j];
+      }
+    }
+  }
+
+  /**
+   * Reverses the update of an observation: the means before the update are recovered from the current ones.
+   */
+  private void remove(final double[] returns) {
+    final int n = _means.length;
+    final double[] newDeviations = new double[n];
+    for (int i = 0; i < n; i++) {
+      newDeviations[i] = returns[i] - _means[i];
+      _means[i] -= newDeviations[i] / (_count - 1);
+    }
+    int k = 0;
+    for (int i = 0; i < n; i++) {
+      final double deviation = returns[i] - _means[i];
+      for (int j = 0; j <= i; j++) {
+        _coMoments[k++] -= deviation * newDeviations[j];
+      }
+    }
+    _count--;
+  }
+
+}
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew;
 
+import java.util.Arrays;
+
 import org.threeten.bp.LocalDate;
 import org.threeten.bp.Period;
 import org.threeten.bp.temporal.JulianFields;
@@ -149,7 +151,7 @@ public class CDSAnalytic {
 
     _lgd = 1 - recoveryRate;
 
-    final ISDAPremiumLegSchedule fullPaymentSchedule = new ISDAPremiumLegSchedule(startDate, endDate, paymentInterval, stubType, businessdayAdjustmentConvention, calendar, protectStart);
+    final ISDAPremiumLegSchedule fullPaymentSchedule = ISDAPremiumLegSchedule.of(startDate, endDate, paymentInterval, stubType, businessdayAdjustmentConvention, calendar, protectStart);
     final ISDAPremiumLegSchedule paymentSchedule = ISDAPremiumLegSchedule.truncateSchedule(stepinDate, fullPaymentSchedule);
 
     _nPayments = paymentSchedule.getNumPayments();
@@ -326,4 +328,73 @@ public class CDSAnalytic {
         _protectionFromStartOfDay, _accrued, _accruedDays);
   }
 
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    final CDSAnalytic that = (CDSAnalytic) o;
+
+    if (_nPayments != that._nPayments) {
+      return false;
+    }
+    if (_accruedDays != that._accruedDays) {
+      return false;
+    }
+    if (_payAccOnDefault != that._payAccOnDefault) {
+      return false;
+    }
+    if (_protectionFromStartOfDay != that._protectionFromStartOfDay) {
+      return false;
+    }
+    if (Double.compare(_lgd, that._lgd) != 0 || Double.compare(_stepin, that._stepin) != 0 || Double.compare(_protectionStart, that._protectionStart) != 0
+        || Double.compare(_protectionEnd, that._protectionEnd) != 0 || Double.compare(_valuationTime, that._valuationTime) != 0 || Double.compare(_accrued, that._accrued) != 0) {
+      return false;
+    }
+    if (!Arrays.equals(_paymentTimes, that._paymentTimes)) {
+      return false;
+    }
+    if (!Arrays.equals(_accFractions, that._accFractions)) {
+      return false;
+    }
+    if (!Arrays.equals(_accStart, that._accStart)) {
+      return false;
+    }
+    if (!Arrays.equals(_accEnd, that._accEnd)) {
+      return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result;
+    long temp;
+    result = _nPayments;
+    result = 31 * result + Arrays.hashCode(_paymentTimes);
+    result = 31 * result + Arrays.hashCode(_accFractions);
+    result = 31 * result + Arrays.hashCode(_accStart);
+    result = 31 * result + Arrays.hashCode(_accEnd);
+    temp = Double.doubleToLongBits(_lgd);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits(_stepin);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits(_protectionStart);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits(_protectionEnd);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits(_valuationTime);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits(_accrued);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    result = 31 * result + (_payAccOnDefault ? 1 : 0);
+    result = 31 * result + (_protectionFromStartOfDay ? 1 : 0);
+    result = 31 * result + _accruedDays;
+    return result;
+  }
 }
@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.Period;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.opengamma.analytics.financial.credit.StubType;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.ForkJoinUtils;
+
+/**
+ * A credit curve builder that memoises the curves calibrated by another builder.
+ * <p>
+ * The curves are keyed by the calibration CDSs, their quotes and the yield curve, all compared by value, so that the trades referencing
+ * the same name with the same quotes share a single bootstrap, as do the bumped curves of their spread sensitivities. A curve requested
+ * by several threads at once is calibrated only once. The least recently used curves are evicted when the cache is full.
+ * <p>
+ * The calibrations from dates are not memoised and are delegated to the underlying builder.
+ */
+public class CachingCreditCurveBuilder implements ISDACompliantCreditCurveBuilder {
+  /** The default maximum number of curves kept */
+  private static final int DEFAULT_MAXIMUM_SIZE = 10000;
+  private final ISDACompliantCreditCurveBuilder _underlying;
+  private final Cache<Key, ISDACompliantCreditCurve> _curves;
+  private final ForkJoinPool _pool;
+
+  /**
+   * Creates a builder calibrating several curves sequentially.
+   * @param underlying The builder calibrating the curves, not null
+   */
+  public CachingCreditCurveBuilder(final ISDACompliantCreditCurveBuilder underlying) {
+    this(underlying, DEFAULT_MAXIMUM_SIZE, null);
+  }
+
+  /**
+   * @param underlying The builder calibrating the curves, not null
+   * @param maximumSize The maximum number of curves kept, strictly positive
+   * @param pool The fork/join pool used to calibrate several curves in parallel, null for sequential calibration
+   */
+  public CachingCreditCurveBuilder(final ISDACompliantCreditCurveBuilder underlying, final int maximumSize, final ForkJoinPool pool) {
+    ArgumentChecker.notNull(underlying, "underlying");
+    ArgumentChecker.isTrue(maximumSize > 0, "maximum size must be positive");
+    _underlying = underlying;
+    _curves = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    _pool = pool;
+  }
+
+  @Override
+  public ISDACompliantCreditCurve calibrateCreditCurve(final CDSAnalytic calibrationCDS, final CDSQuoteConvention marketQuote, final ISDACompliantYieldCurve yieldCurve) {
+    return get(new Key(yieldCurve, calibrationCDS, marketQuote), new Callable<ISDACompliantCreditCurve>() {
+      @Override
+      public ISDACompliantCreditCurve call() {
+        return _underlying.calibrateCreditCurve(calibrationCDS, marketQuote, yieldCurve);
+      }
+    });
+  }
+
+  @Override
+  public ISDACompliantCreditCurve calibrateCreditCurve(final CDSAnalytic[] calibrationCDSs, final CDSQuoteConvention[] marketQuotes, final ISDACompliantYieldCurve yieldCurve) {
+    return get(new Key(yieldCurve, calibrationCDSs, marketQuotes), new Callable<ISDACompliantCreditCurve>() {
+      @Override
+      public ISDACompliantCreditCurve call() {
+        return _underlying.calibrateCreditCurve(calibrationCDSs, marketQuotes, yieldCurve);
+      }
+    });
+  }
+
+  @Override
+  public ISDACompliantCreditCurve calibrateCreditCurve(final CDSAnalytic cds, final double parSpread, final ISDACompliantYieldCurve yieldCurve) {
+    return get(new Key(yieldCurve, cds, parSpread), new Callable<ISDACompliantCreditCurve>() {
+      @Override
+      public ISDACompliantCreditCurve call() {
+        return _underlying.calibrateCreditCurve(cds, parSpread, yieldCurve);
+      }
+    });
+  }
+
+  @Override
+  public ISDACompliantCreditCurve calibrateCreditCurve(final CDSAnalytic cds, final double premium, final ISDACompliantYieldCurve yieldCurve, final double pointsUpfront) {
+    return get(new Key(yieldCurve, cds, premium, pointsUpfront), new Callable<ISDACompliantCreditCurve>() {
+      @Override
+      public ISDACompliantCreditCurve call() {
+        return _underlying.calibrateCreditCurve(cds, premium, yieldCurve, pointsUpfront);
+      }
+    });
+  }
+
+  @Override
+  public ISDACompliantCreditCurve calibrateCreditCurve(final CDSAnalytic[] calibrationCDSs, final double[] parSpreads, final ISDACompliantYieldCurve yieldCurve) {
+    return get(new Key(yieldCurve, calibrationCDSs, parSpreads), new Callable<ISDACompliantCreditCurve>() {
+      @Override
+      public ISDACompliantCreditCurve call() {
+        return _underlying.calibrateCreditCurve(calibrationCDSs, parSpreads, yieldCurve);
+      }
+    });
+  }
+
+  @Override
+  public ISDACompliantCreditCurve calibrateCreditCurve(final CDSAnalytic[] calibrationCDSs, final double[] premiums, final ISDACompliantYieldCurve yieldCurve, final double[] pointsUpfront) {
+    return get(new Key(yieldCurve, calibrationCDSs, premiums, pointsUpfront), new Callable<ISDACompliantCreditCurve>() {
+      @Override
+      public ISDACompliantCreditCurve call() {
+        return _underlying.calibrateCreditCurve(calibrationCDSs, premiums, yieldCurve, pointsUpfront);
+      }
+    });
+  }
+
+  @Override
+  public ISDACompliantCreditCurve calibrateCreditCurve(final LocalDate today, final LocalDate stepinDate, final LocalDate valueDate, final LocalDate startDate, final LocalDate endDate,
+      final double fractionalParSpread, final boolean payAccOnDefault, final Period tenor, final StubType stubType, final boolean protectStart, final ISDACompliantYieldCurve yieldCurve,
+      final double recoveryRate) {
+    return _underlying.calibrateCreditCurve(today, stepinDate, valueDate, startDate, endDate, fractionalParSpread, payAccOnDefault, tenor, stubType, protectStart, yieldCurve,
+        recoveryRate);
+  }
+
+  @Override
+  public ISDACompliantCreditCurve calibrateCreditCurve(final LocalDate today, final LocalDate stepinDate, final LocalDate valueDate, final LocalDate startDate, final LocalDate[] endDates,
+      final double[] fractionalParSpreads, final boolean payAccOnDefault, final Period tenor, final StubType stubType, final boolean protectStart, final ISDACompliantYieldCurve yieldCurve,
+      final double recoveryRate) {
+    return _underlying.calibrateCreditCurve(today, stepinDate, valueDate, startDate, endDates, fractionalParSpreads, payAccOnDefault, tenor, stubType, protectStart, yieldCurve,
+        recoveryRate);
+  }
+
+  /**
+   * Calibrates the credit curves of several sets of par spreads on the same CDSs, such as the base and bumped spreads of a
+   * bucketed sensitivity, in parallel if a fork/join pool is provided.
+   * @param calibrationCDSs The market CDSs, not null
+   * @param parSpreads The <b>fractional</b> par spreads of the market CDSs, for each curve, not null
+   * @param yieldCurve The yield (or discount) curve, not null
+   * @return The credit curves, one for each set of par spreads
+   */
+  public ISDACompliantCreditCurve[] calibrateCreditCurves(final CDSAnalytic[] calibrationCDSs, final double[][] parSpreads, final ISDACompliantYieldCurve yieldCurve) {
+    ArgumentChecker.noNulls(parSpreads, "parSpreads");
+    final ISDACompliantCreditCurve[] curves = new ISDACompliantCreditCurve[parSpreads.length];
+    ForkJoinUtils.invokeAll(_pool, parSpreads.length, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int curve) {
+        curves[curve] = calibrateCreditCurve(calibrationCDSs, parSpreads[curve], yieldCurve);
+      }
+    });
+    return curves;
+  }
+
+  /**
+   * Calibrates the credit curves of several sets of quotes on the same CDSs, such as the base and bumped quotes of a
+   * bucketed sensitivity, in parallel if a fork/join pool is provided.
+   * @param calibrationCDSs The market CDSs, not null
+   * @param marketQuotes The market quotes of the CDSs, for each curve, not null
+   * @param yieldCurve The yield (or discount) curve, not null
+   * @return The credit curves, one for each set of quotes
+   */
+  public ISDACompliantCreditCurve[] calibrateCreditCurves(final CDSAnalytic[] calibrationCDSs, final CDSQuoteConvention[][] marketQuotes, final ISDACompliantYieldCurve yieldCurve) {
+    ArgumentChecker.noNulls(marketQuotes, "marketQuotes");
+    final ISDACompliantCreditCurve[] curves = new ISDACompliantCreditCurve[marketQuotes.length];
+    ForkJoinUtils.invokeAll(_pool, marketQuotes.length, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int curve) {
+        curves[curve] = calibrateCreditCurve(calibrationCDSs, marketQuotes[curve], yieldCurve);
+      }
+    });
+    return curves;
+  }
+
+  /**
+   * Gets the number of curves currently kept.
+   * @return The number of curves
+   */
+  public long size() {
+    return _curves.size();
+  }
+
+  /**
+   * Discards all the curves.
+   */
+  public void clear() {
+    _curves.invalidateAll();
+  }
+
+  private ISDACompliantCreditCurve get(final Key key, final Callable<ISDACompliantCreditCurve> calibration) {
+    try {
+      return _curves.get(key, calibration);
+    } catch (final ExecutionException | UncheckedExecutionException ex) {
+      throw Throwables.propagate(ex.getCause());
+    }
+  }
+
+  /**
+   * The inputs of a calibration, compared by value. Arrays are compared element by element.
+   */
+  private static final class Key {
+    private final Object[] _inputs;
+    private final int _hashCode;
+
+    Key(final ISDACompliantYieldCurve yieldCurve, final Object... inputs) {
+      ArgumentChecker.notNull(yieldCurve, "yieldCurve");
+      _inputs = new Object[inputs.length + 1];
+      _inputs[0] = yieldCurve;
+      for (int i = 0; i < inputs.length; i++) {
+        ArgumentChecker.notNull(inputs[i], "calibration input");
+        _inputs[i + 1] = inputs[i] instanceof Object[] ? ((Object[]) inputs[i]).clone() : inputs[i] instanceof double[] ? ((double[]) inputs[i]).clone() : inputs[i];
+      }
+      _hashCode = Arrays.deepHashCode(_inputs);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return _hashCode == other._hashCode && Arrays.deepEquals(_inputs, other._inputs);
+    }
+  }
+
+}
@@ -90,7 +90,7 @@ public class ISDACompliantPresentValueCreditDefaultSwap {
     ArgumentChecker.isFalse(valueDate.isBefore(today), "Require valueDate >= today");
     ArgumentChecker.isFalse(stepinDate.isBefore(today), "Require stepin >= today");
 
-    final ISDAPremiumLegSchedule paymentSchedule = new ISDAPremiumLegSchedule(startDate, endDate, tenor, stubType, _businessdayAdjustmentConvention, _calandar, protectStart);
+    final ISDAPremiumLegSchedule paymentSchedule = ISDAPremiumLegSchedule.of(startDate, endDate, tenor, stubType, _businessdayAdjustmentConvention, _calandar, protectStart);
     final int nPayments = paymentSchedule.getNumPayments();
 
     // these are potentially different from startDate and endDate
@@ -13,7 +13,10 @@ import org.threeten.bp.LocalDate;
 import org.threeten.bp.Period;
 import org.threeten.bp.temporal.JulianFields;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.opengamma.analytics.financial.credit.StubType;
+import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
 import com.opengamma.financial.convention.businessday.BusinessDayConvention;
 import com.opengamma.financial.convention.calendar.Calendar;
 import com.opengamma.util.ArgumentChecker;
@@ -23,6 +26,14 @@ import com.opengamma.util.ArgumentChecker;
  * hold the payment amounts with depends on the day-count (normally ACT/360) and the spread.
  */
 public class ISDAPremiumLegSchedule {
+  /** The maximum number of schedules interned by {@link #of} */
+  private static final int MAX_INTERNED_SCHEDULES = 10000;
+  /**
+   * The schedules interned by {@link #of}, keyed by their start and end dates, step, stub type, business day convention, calendar and
+   * protection start flag. The schedules are immutable so can be shared by all the CDSs with the same terms. Only the schedules
+   * adjusted with the calendars accepted by {@link ScheduleCalculator#getInternKey} are interned.
+   */
+  private static final Cache<List<Object>, ISDAPremiumLegSchedule> SCHEDULES = CacheBuilder.newBuilder().maximumSize(MAX_INTERNED_SCHEDULES).build();
 
   private final int _nPayments;
   private final LocalDate[] _accStartDates;
@@ -128,6 +139,41 @@ public class ISDAPremiumLegSchedule {
 
   }
 
+  /**
+   * Gets the schedule of a CDS, reusing the schedule previously generated with the same terms if any. Standard (IMM-rolled) CDSs
+   * share a small number of distinct schedules, so this avoids regenerating them for each CDS. The schedule is only reused if the
+   * calendar is a compiled calendar, see {@link ScheduleCalculator#getInternKey}.
+   * @param startDate The protection start date
+   * @param endDate The protection end date
+   * @param step The period or frequency at which payments are made (e.g. every three months)
+   * @param stubType Options are FRONTSHORT, FRONTLONG, BACKSHORT, BACKLONG or NONE - <b>Note</b> in this code NONE is not allowed
+   * @param businessdayAdjustmentConvention options are 'following' or 'proceeding'
+   * @param calendar A holiday calendar
+   * @param protectionStart If true, protection starts are the beginning rather than end of day (protection still ends at end of day).
+   * @return The (shared) schedule
+   */
+  public static ISDAPremiumLegSchedule of(final LocalDate startDate, final LocalDate endDate, final Period step, final StubType stubType,
+      final BusinessDayConvention businessdayAdjustmentConvention, final Calendar calendar, final boolean protectionStart) {
+    final Object conventionKey = ScheduleCalculator.getInternKey(businessdayAdjustmentConvention, calendar);
+    if (conventionKey == null) {
+      return new ISDAPremiumLegSchedule(startDate, endDate, step, stubType, businessdayAdjustmentConvention, calendar, protectionStart);
+    }
+    final List<Object> key = Arrays.<Object>asList(startDate, endDate, step, stubType, conventionKey, protectionStart);
+    ISDAPremiumLegSchedule schedule = SCHEDULES.getIfPresent(key);
+    if (schedule == null) {
+      schedule = new ISDAPremiumLegSchedule(startDate, endDate, step, stubType, businessdayAdjustmentConvention, calendar, protectionStart);
+      SCHEDULES.put(key, schedule);
+    }
+    return schedule;
+  }
+
+  /**
+   * Discards the schedules interned by {@link #of}.
+   */
+  public static void clearInternedSchedules() {
+    SCHEDULES.invalidateAll();
+  }
+
   public static ISDAPremiumLegSchedule truncateSchedule(final LocalDate stepin, final ISDAPremiumLegSchedule schedule) {
     return schedule.truncateSchedule(stepin);
   }
@@ -99,7 +99,7 @@ public class MultiCDSAnalytic {
       _protectionEnd[i] = curveDayCount.getDayCountFraction(tradeDate, maturities[i], calendar);
     }
 
-    final ISDAPremiumLegSchedule fullPaymentSchedule = new ISDAPremiumLegSchedule(startDate, maturities[_nMaturities - 1], period, stubType, businessdayAdjustmentConvention, calendar, protectStart);
+    final ISDAPremiumLegSchedule fullPaymentSchedule = ISDAPremiumLegSchedule.of(startDate, maturities[_nMaturities - 1], period, stubType, businessdayAdjustmentConvention, calendar, protectStart);
     final ISDAPremiumLegSchedule paymentSchedule = fullPaymentSchedule.truncateSchedule(stepinDate);
 
     _totalPayments = paymentSchedule.getNumPayments();
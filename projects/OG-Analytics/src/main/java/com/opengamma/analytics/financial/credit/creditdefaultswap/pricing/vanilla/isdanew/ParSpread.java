@@ -25,4 +25,21 @@ public class ParSpread implements CDSQuoteConvention {
     return _parSpread;
   }
 
+  @Override
+  public int hashCode() {
+    final long temp = Double.doubleToLongBits(_parSpread);
+    return (int) (temp ^ (temp >>> 32));
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final ParSpread that = (ParSpread) o;
+    return Double.compare(_parSpread, that._parSpread) == 0;
+  }
 }
@@ -33,4 +33,26 @@ public class PointsUpFront implements CDSQuoteConvention {
     return _puf;
   }
 
+  @Override
+  public int hashCode() {
+    int result = 1;
+    long temp;
+    temp = Double.doubleToLongBits(_coupon);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits(_puf);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final PointsUpFront that = (PointsUpFront) o;
+    return Double.compare(_coupon, that._coupon) == 0 && Double.compare(_puf, that._puf) == 0;
+  }
 }
@@ -35,4 +35,26 @@ public class QuotedSpread implements CDSQuoteConvention {
     return _quotedSpread;
   }
 
+  @Override
+  public int hashCode() {
+    int result = 1;
+    long temp;
+    temp = Double.doubleToLongBits(_coupon);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits(_quotedSpread);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final QuotedSpread that = (QuotedSpread) o;
+    return Double.compare(_coupon, that._coupon) == 0 && Double.compare(_quotedSpread, that._quotedSpread) == 0;
+  }
 }
@@ -41,6 +41,20 @@ public class SpreadSensitivityCalculator {
     _pricer = new AnalyticCDSPricer(useCorrectAccOnDefaultFormula);
   }
 
+  /**
+   * Uses a given credit curve builder, for example a {@link CachingCreditCurveBuilder} shared with the pricing, so that the base and bumped
+   * curves are calibrated once for all the trades referencing the same name. The bumped curves are calibrated in parallel by a
+   * {@link CachingCreditCurveBuilder} with a fork/join pool.
+   * @param curveBuilder The credit curve builder, not null
+   * @param useCorrectAccOnDefaultFormula Set to true to use correct accrual on default formulae, as in the curve builder.
+   */
+  public SpreadSensitivityCalculator(final ISDACompliantCreditCurveBuilder curveBuilder, final boolean useCorrectAccOnDefaultFormula) {
+    ArgumentChecker.notNull(curveBuilder, "curveBuilder");
+    _pufConverter = new PointsUpFrontConverter(useCorrectAccOnDefaultFormula);
+    _curveBuilder = curveBuilder;
+    _pricer = new AnalyticCDSPricer(useCorrectAccOnDefaultFormula);
+  }
+
   // private static final ISDACompliantCreditCurveBuild BUILDER = new ISDACompliantCreditCurveBuild();
 
   //***************************************************************************************************************
@@ -235,11 +249,14 @@ public class SpreadSensitivityCalculator {
 
     final ISDACompliantCreditCurve baseCurve = _curveBuilder.calibrateCreditCurve(marketCDSs, quotes, yieldCurve);
     final double basePrice = _pricer.pv(cds, yieldCurve, baseCurve, cdsCoupon);
+    final CDSQuoteConvention[][] bumpedQuotes = new CDSQuoteConvention[n][];
+    for (int i = 0; i < n; i++) {
+      bumpedQuotes[i] = bumpQuoteAtIndex(marketCDSs, quotes, yieldCurve, fracBumpAmount, i);
+    }
+    final ISDACompliantCreditCurve[] bumpedCurves = calibrateCreditCurves(marketCDSs, bumpedQuotes, yieldCurve);
     final double[] res = new double[n];
     for (int i = 0; i < n; i++) {
-      final CDSQuoteConvention[] bumpedQuotes = bumpQuoteAtIndex(marketCDSs, quotes, yieldCurve, fracBumpAmount, i);
-      final ISDACompliantCreditCurve bumpedCurve = _curveBuilder.calibrateCreditCurve(marketCDSs, bumpedQuotes, yieldCurve);
-      final double price = _pricer.pv(cds, yieldCurve, bumpedCurve, cdsCoupon);
+      final double price = _pricer.pv(cds, yieldCurve, bumpedCurves[i], cdsCoupon);
       res[i] = (price - basePrice) / fracBumpAmount;
     }
     return res;
@@ -276,11 +293,14 @@ public class SpreadSensitivityCalculator {
     final ISDACompliantCreditCurve baseCurve = _curveBuilder.calibrateCreditCurve(marketCDSs, marketParSpreads, yieldCurve);
     final double basePrice = _pricer.pv(cds, yieldCurve, baseCurve, cdsCoupon, priceType);
 
+    final double[][] bumpedSpreads = new double[n][];
+    for (int i = 0; i < n; i++) {
+      bumpedSpreads[i] = makeBumpedSpreads(marketParSpreads, fracBumpAmount, bumpType, i);
+    }
+    final ISDACompliantCreditCurve[] bumpedCurves = calibrateCreditCurves(marketCDSs, bumpedSpreads, yieldCurve);
     final double[] res = new double[n];
     for (int i = 0; i < n; i++) {
-      final double[] temp = makeBumpedSpreads(marketParSpreads, fracBumpAmount, bumpType, i);
-      final ISDACompliantCreditCurve bumpedCurve = _curveBuilder.calibrateCreditCurve(marketCDSs, temp, yieldCurve);
-      final double price = _pricer.pv(cds, yieldCurve, bumpedCurve, cdsCoupon, priceType);
+      final double price = _pricer.pv(cds, yieldCurve, bumpedCurves[i], cdsCoupon, priceType);
       res[i] = (price - basePrice) / fracBumpAmount;
     }
 
@@ -448,11 +468,14 @@ public class SpreadSensitivityCalculator {
     //build a new curve from the implied spreads
     final ISDACompliantCreditCurve baseCurve = _curveBuilder.calibrateCreditCurve(bucketCDSs, impSpreads, yieldCurve);
     final double basePrice = _pricer.pv(cds, yieldCurve, baseCurve, cdsCoupon);
+    final double[][] bumpedSpreads = new double[n][];
+    for (int i = 0; i < n; i++) {
+      bumpedSpreads[i] = makeBumpedSpreads(impSpreads, fracBumpAmount, BumpType.ADDITIVE, i);
+    }
+    final ISDACompliantCreditCurve[] bumpedCurves = calibrateCreditCurves(bucketCDSs, bumpedSpreads, yieldCurve);
     final double[] res = new double[n];
     for (int i = 0; i < n; i++) {
-      final double[] bumpedSpreads = makeBumpedSpreads(impSpreads, fracBumpAmount, BumpType.ADDITIVE, i);
-      final ISDACompliantCreditCurve bumpedCurve = _curveBuilder.calibrateCreditCurve(bucketCDSs, bumpedSpreads, yieldCurve);
-      final double price = _pricer.pv(cds, yieldCurve, bumpedCurve, cdsCoupon);
+      final double price = _pricer.pv(cds, yieldCurve, bumpedCurves[i], cdsCoupon);
       res[i] = (price - basePrice) / fracBumpAmount;
     }
     return res;
@@ -611,6 +634,30 @@ public class SpreadSensitivityCalculator {
     return mid - down;
   }
 
+  private ISDACompliantCreditCurve[] calibrateCreditCurves(final CDSAnalytic[] calibrationCDSs, final double[][] parSpreads, final ISDACompliantYieldCurve yieldCurve) {
+    if (_curveBuilder instanceof CachingCreditCurveBuilder) {
+      return ((CachingCreditCurveBuilder) _curveBuilder).calibrateCreditCurves(calibrationCDSs, parSpreads, yieldCurve);
+    }
+    final int n = parSpreads.length;
+    final ISDACompliantCreditCurve[] res = new ISDACompliantCreditCurve[n];
+    for (int i = 0; i < n; i++) {
+      res[i] = _curveBuilder.calibrateCreditCurve(calibrationCDSs, parSpreads[i], yieldCurve);
+    }
+    return res;
+  }
+
+  private ISDACompliantCreditCurve[] calibrateCreditCurves(final CDSAnalytic[] calibrationCDSs, final CDSQuoteConvention[][] quotes, final ISDACompliantYieldCurve yieldCurve) {
+    if (_curveBuilder instanceof CachingCreditCurveBuilder) {
+      return ((CachingCreditCurveBuilder) _curveBuilder).calibrateCreditCurves(calibrationCDSs, quotes, yieldCurve);
+    }
+    final int n = quotes.length;
+    final ISDACompliantCreditCurve[] res = new ISDACompliantCreditCurve[n];
+    for (int i = 0; i < n; i++) {
+      res[i] = _curveBuilder.calibrateCreditCurve(calibrationCDSs, quotes[i], yieldCurve);
+    }
+    return res;
+  }
+
   private double bumpedSpread(final double spread, final double amount, final BumpType bumpType) {
     if (bumpType == BumpType.ADDITIVE) {
       return spread + amount;
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.finitedifference;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * The tri-diagonal system of one line (fixed x or fixed y) of an implicit sweep of a 2D ADI scheme. The workspace is allocated once and
+ * reused for all the lines and time steps, and the system is solved directly by the Thomas algorithm.
+ * <p>
+ * The boundary rows follow the {@link BoundaryCondition2D} convention: the coefficients of the lower boundary apply to the nodes 0, 1, ...
+ * and those of the upper boundary to the nodes n, n - 1, ... Boundary conditions with three points are handled within the elimination.
+ */
+final class ADITridiagonalSystem {
+  private final int _steps;
+  private final double[] _lower;
+  private final double[] _diag;
+  private final double[] _upper;
+  private final double[] _rhs;
+  private final double[] _x;
+  private final double[] _work;
+  private double[] _lowerBoundary;
+  private double[] _upperBoundary;
+
+  /**
+   * @param steps The number of steps, i.e. the number of nodes less one
+   */
+  ADITridiagonalSystem(final int steps) {
+    ArgumentChecker.isTrue(steps > 1, "need at least two steps");
+    _steps = steps;
+    _lower = new double[steps];
+    _diag = new double[steps + 1];
+    _upper = new double[steps];
+    _rhs = new double[steps + 1];
+    _x = new double[steps + 1];
+    _work = new double[steps + 1];
+  }
+
+  /**
+   * Sets an interior row.
+   * @param i The node, 1 to steps - 1
+   * @param lower The coefficient of node i - 1
+   * @param diag The coefficient of node i
+   * @param upper The coefficient of node i + 1
+   * @param rhs The right hand side
+   */
+  void setRow(final int i, final double lower, final double diag, final double upper, final double rhs) {
+    _lower[i - 1] = lower;
+    _diag[i] = diag;
+    _upper[i] = upper;
+    _rhs[i] = rhs;
+  }
+
+  /**
+   * Sets the row of the lower boundary.
+   * @param leftMatrix The coefficients of the nodes 0, 1, ... (at most three)
+   * @param rhs The right hand side
+   */
+  void setLowerBoundary(final double[] leftMatrix, final double rhs) {
+    ArgumentChecker.isTrue(leftMatrix.length > 0 && leftMatrix.length < 4, "Boundary condition means that system is not tri-diagonal");
+    _lowerBoundary = leftMatrix;
+    _rhs[0] = rhs;
+  }
+
+  /**
+   * Sets the row of the upper boundary.
+   * @param leftMatrix The coefficients of the nodes n, n - 1, ... (at most three)
+   * @param rhs The right hand side
+   */
+  void setUpperBoundary(final double[] leftMatrix, final double rhs) {
+    ArgumentChecker.isTrue(leftMatrix.length > 0 && leftMatrix.length < 4, "Boundary condition means that system is not tri-diagonal");
+    _upperBoundary = leftMatrix;
+    _rhs[_steps] = rhs;
+  }
+
+  /**
+   * Solves the system.
+   * @return The solution. The array is reused by the next call.
+   */
+  double[] solve() {
+    final int n = _steps;
+    double[] temp = _lowerBoundary;
+    _diag[0] = temp[0];
+    _upper[0] = temp.length > 1 ? temp[1] : 0.0;
+    final double lowerExtra = temp.length > 2 ? temp[2] : 0.0; // coefficient of node 2 in row 0
+    temp = _upperBoundary;
+    _diag[n] = temp[0];
+    _lower[n - 1] = temp.length > 1 ? temp[1] : 0.0;
+    final double upperExtra = temp.length > 2 ? temp[2] : 0.0; // coefficient of node n - 2 in row n
+
+    // forward elimination; _work holds the modified diagonal and _x the modified right hand side. The coefficient of node 2 in row 0 fills
+    // the upper coefficient of row 1, and the coefficient of node n - 2 in row n is eliminated with row n - 2 before the last step.
+    final double[] w = _work;
+    final double[] x = _x;
+    w[0] = _diag[0];
+    x[0] = _rhs[0];
+    double upper1 = _upper[1];
+    for (int i = 1; i <= n; i++) {
+      double lower = _lower[i - 1];
+      double diag = _diag[i];
+      double rhs = _rhs[i];
+      if (i == n && upperExtra != 0.0) {
+        final double m = upperExtra / w[n - 2];
+        lower -= m * (n - 2 == 1 ? upper1 : _upper[n - 2]);
+        rhs -= m * x[n - 2];
+        if (n == 2) {
+          diag -= m * lowerExtra;
+        }
+      }
+      final double m = lower / w[i - 1];
+      w[i] = diag - m * (i - 1 == 1 ? upper1 : _upper[i - 1]);
+      x[i] = rhs - m * x[i - 1];
+      if (i == 1) {
+        upper1 -= m * lowerExtra;
+      }
+    }
+
+    // back substitution
+    x[n] = x[n] / w[n];
+    for (int i = n - 1; i > 0; i--) {
+      x[i] = (x[i] - (i == 1 ? upper1 : _upper[i]) * x[i + 1]) / w[i];
+    }
+    x[0] = (x[0] - _upper[0] * x[1] - lowerExtra * x[2]) / w[0];
+    return x;
+  }
+
+}
@@ -10,9 +10,8 @@ import java.util.Arrays;
 import org.apache.commons.lang.Validate;
 
 import com.opengamma.analytics.math.linearalgebra.Decomposition;
-import com.opengamma.analytics.math.linearalgebra.DecompositionResult;
+import com.opengamma.analytics.math.MathException;
 import com.opengamma.analytics.math.linearalgebra.LUDecompositionCommons;
-import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 import com.opengamma.analytics.math.surface.Surface;
 import com.opengamma.util.ArgumentChecker;
 
@@ -71,7 +70,7 @@ public class CoupledFiniteDifference {
     final int tNodes = grid.getNumTimeNodes();
     final int xNodes = grid.getNumSpaceNodes();
 
-    double[] f = new double[2 * xNodes];
+    final double[] f = new double[2 * xNodes];
     double[][] full1 = null;
     double[][] full2 = null;
     if (_showFullResults) {
@@ -79,14 +78,14 @@ public class CoupledFiniteDifference {
       full2 = new double[tNodes][xNodes];
     }
     final double[] q = new double[2 * xNodes];
-    final double[][] m = new double[2 * xNodes][2 * xNodes];
+    final CoupledSystem m = new CoupledSystem(xNodes);
 
     double[][] a1 = new double[2][xNodes - 2];
-    final double[][] a2 = new double[2][xNodes - 2];
+    double[][] a2 = new double[2][xNodes - 2];
     double[][] b1 = new double[2][xNodes - 2];
-    final double[][] b2 = new double[2][xNodes - 2];
+    double[][] b2 = new double[2][xNodes - 2];
     double[][] c1 = new double[2][xNodes - 2];
-    final double[][] c2 = new double[2][xNodes - 2];
+    double[][] c2 = new double[2][xNodes - 2];
 
     //    final double omega = 1.5;
     //    final int oldCount = 0;
@@ -116,9 +115,6 @@ public class CoupledFiniteDifference {
       c1[1][i] = coeff2.getC(0, x);
     }
 
-    final boolean first = true;
-    DecompositionResult decompRes = null;
-
     for (int n = 1; n < tNodes; n++) {
 
       t1 = grid.getTimeNode(n - 1);
@@ -151,38 +147,23 @@ public class CoupledFiniteDifference {
         b2[1][i - 1] = coeff2.getB(t2, x);
         c2[1][i - 1] = coeff2.getC(t2, x);
 
-        m[i][i - 1] = _theta * dt * (x2nd[0] * a2[0][i - 1] + x1st[0] * b2[0][i - 1]);
-        m[i][i] = 1 + _theta * dt * (x2nd[1] * a2[0][i - 1] + x1st[1] * b2[0][i - 1] + c2[0][i - 1]);
-        m[i][i + 1] = _theta * dt * (x2nd[2] * a2[0][i - 1] + x1st[2] * b2[0][i - 1]);
-        m[i][i + xNodes] = dt * _theta * lambda1;
-
-        m[xNodes + i][xNodes + i - 1] = _theta * dt * (x2nd[0] * a2[1][i - 1] + x1st[0] * b2[1][i - 1]);
-        m[xNodes + i][xNodes + i] = 1 + _theta * dt * (x2nd[1] * a2[1][i - 1] + x1st[1] * b2[1][i - 1] + c2[1][i - 1]);
-        m[xNodes + i][xNodes + i + 1] = _theta * dt * (x2nd[2] * a2[1][i - 1] + x1st[2] * b2[1][i - 1]);
-        m[xNodes + i][i] = dt * _theta * lambda2;
-      }
-
-      double[] temp = lower1.getLeftMatrixCondition(pdeData1.getCoefficients(), grid, t2);
-      for (int k = 0; k < temp.length; k++) {
-        m[0][k] = temp[k];
-      }
-
-      temp = upper1.getLeftMatrixCondition(pdeData1.getCoefficients(), grid, t2);
-      for (int k = 0; k < temp.length; k++) {
-        m[xNodes - 1][xNodes - temp.length + k] = temp[k];
-      }
+        m.setRow(0, i, _theta * dt * (x2nd[0] * a2[0][i - 1] + x1st[0] * b2[0][i - 1]),
+            1 + _theta * dt * (x2nd[1] * a2[0][i - 1] + x1st[1] * b2[0][i - 1] + c2[0][i - 1]),
+            _theta * dt * (x2nd[2] * a2[0][i - 1] + x1st[2] * b2[0][i - 1]),
+            dt * _theta * lambda1);
 
-      temp = lower2.getLeftMatrixCondition(pdeData2.getCoefficients(), grid, t2);
-      for (int k = 0; k < temp.length; k++) {
-        m[xNodes][xNodes + k] = temp[k];
+        m.setRow(1, i, _theta * dt * (x2nd[0] * a2[1][i - 1] + x1st[0] * b2[1][i - 1]),
+            1 + _theta * dt * (x2nd[1] * a2[1][i - 1] + x1st[1] * b2[1][i - 1] + c2[1][i - 1]),
+            _theta * dt * (x2nd[2] * a2[1][i - 1] + x1st[2] * b2[1][i - 1]),
+            dt * _theta * lambda2);
       }
 
-      temp = upper2.getLeftMatrixCondition(pdeData2.getCoefficients(), grid, t2);
-      for (int k = 0; k < temp.length; k++) {
-        m[2 * xNodes - 1][2 * xNodes - temp.length + k] = temp[k];
-      }
+      m.setLowerBoundary(0, lower1.getLeftMatrixCondition(pdeData1.getCoefficients(), grid, t2));
+      m.setUpperBoundary(0, upper1.getLeftMatrixCondition(pdeData1.getCoefficients(), grid, t2));
+      m.setLowerBoundary(1, lower2.getLeftMatrixCondition(pdeData2.getCoefficients(), grid, t2));
+      m.setUpperBoundary(1, upper2.getLeftMatrixCondition(pdeData2.getCoefficients(), grid, t2));
 
-      temp = lower1.getRightMatrixCondition(pdeData1.getCoefficients(), grid, t1);
+      double[] temp = lower1.getRightMatrixCondition(pdeData1.getCoefficients(), grid, t1);
       double sum = 0;
       for (int k = 0; k < temp.length; k++) {
         sum += temp[k] * f[k];
@@ -212,6 +193,8 @@ public class CoupledFiniteDifference {
 
       q[2 * xNodes - 1] = sum + upper2.getConstant(pdeData2.getCoefficients(), t2);
 
+      m.solve(q, f);
+
       //TODO work out why SOR does not converge here
       //      final DoubleMatrix2D mM = new DoubleMatrix2D(m);
       //      final DecompositionResult res = DCOMP.evaluate(mM);
@@ -231,18 +214,15 @@ public class CoupledFiniteDifference {
       //      }
       //      oldCount = count;
 
-      if (first) {
-        final DoubleMatrix2D mM = new DoubleMatrix2D(m);
-        decompRes = DCOMP.evaluate(mM);
-
-        // first = false;
-      }
-
-      f = decompRes.solve(q);
-
+      double[][] swap = a1;
       a1 = a2;
+      a2 = swap;
+      swap = b1;
       b1 = b2;
+      b2 = swap;
+      swap = c1;
       c1 = c2;
+      c2 = swap;
 
       if (_showFullResults) {
         if (full1 != null && full2 != null) {
@@ -296,4 +276,217 @@ public class CoupledFiniteDifference {
     return count;
   }
 
+
+  /**
+   * The linear system of two coupled PDEs at one time step, with a workspace allocated once for all the time steps.
+   * <p>
+   * The two functions are coupled only through the value at the same space node, so ordering the unknowns by space node makes the system
+   * block tri-diagonal with 2x2 blocks. It is solved by the block Thomas algorithm in order n operations, rather than the order n^3 of a dense
+   * decomposition. Boundary conditions with three points are handled within the elimination.
+   */
+  static final class CoupledSystem {
+    private final int _xNodes;
+    // rows of the system, indexed by 2 * (space node) + (PDE index)
+    private final double[] _lower;
+    private final double[] _diag;
+    private final double[] _upper;
+    private final double[] _coupling;
+    private final double[][] _lowerBoundary = new double[2][];
+    private final double[][] _upperBoundary = new double[2][];
+    // workspace: 2x2 blocks (row-major) indexed by 4 * (space node)
+    private final double[] _a;
+    private final double[] _b;
+    private final double[] _c;
+    private final double[] _inv;
+    private final double[] _lowerExtra = new double[4]; // block of node 2 in the rows of node 0
+    private final double[] _upperExtra = new double[4]; // block of node n - 3 in the rows of node n - 1
+    private final double[] _m = new double[4];
+    private final double[] _y;
+    private final double[] _x;
+
+    CoupledSystem(final int xNodes) {
+      ArgumentChecker.isTrue(xNodes > 2, "need at least three space nodes");
+      _xNodes = xNodes;
+      _lower = new double[2 * xNodes];
+      _diag = new double[2 * xNodes];
+      _upper = new double[2 * xNodes];
+      _coupling = new double[2 * xNodes];
+      _a = new double[4 * xNodes];
+      _b = new double[4 * xNodes];
+      _c = new double[4 * xNodes];
+      _inv = new double[4 * xNodes];
+      _y = new double[2 * xNodes];
+      _x = new double[2 * xNodes];
+    }
+
+    /**
+     * Sets an interior row of the system.
+     * @param pde the index of the PDE, 0 or 1
+     * @param i the space node, 1 to xNodes - 2
+     * @param lower the coefficient of node i - 1
+     * @param diag the coefficient of node i
+     * @param upper the coefficient of node i + 1
+     * @param coupling the coefficient of node i of the other PDE
+     */
+    void setRow(final int pde, final int i, final double lower, final double diag, final double upper, final double coupling) {
+      final int index = 2 * i + pde;
+      _lower[index] = lower;
+      _diag[index] = diag;
+      _upper[index] = upper;
+      _coupling[index] = coupling;
+    }
+
+    /**
+     * Sets the row of the lower boundary.
+     * @param pde the index of the PDE, 0 or 1
+     * @param leftMatrix the coefficients of the nodes 0, 1 ... (at most three)
+     */
+    void setLowerBoundary(final int pde, final double[] leftMatrix) {
+      ArgumentChecker.isTrue(leftMatrix.length > 0 && leftMatrix.length < 4, "Boundary condition means that system is not tri-diagonal");
+      _lowerBoundary[pde] = leftMatrix;
+    }
+
+    /**
+     * Sets the row of the upper boundary.
+     * @param pde the index of the PDE, 0 or 1
+     * @param leftMatrix the coefficients of the nodes ..., xNodes - 2, xNodes - 1 (at most three)
+     */
+    void setUpperBoundary(final int pde, final double[] leftMatrix) {
+      ArgumentChecker.isTrue(leftMatrix.length > 0 && leftMatrix.length < 4, "Boundary condition means that system is not tri-diagonal");
+      _upperBoundary[pde] = leftMatrix;
+    }
+
+    /**
+     * Solves the system.
+     * @param q the right hand side, the values for the first PDE followed by the values for the second PDE. Not modified.
+     * @param f array filled with the solution, in the same order as q
+     */
+    void solve(final double[] q, final double[] f) {
+      final int n = _xNodes;
+      Arrays.fill(_a, 0.0);
+      Arrays.fill(_b, 0.0);
+      Arrays.fill(_c, 0.0);
+      Arrays.fill(_lowerExtra, 0.0);
+      Arrays.fill(_upperExtra, 0.0);
+      for (int i = 1; i < n - 1; i++) {
+        for (int k = 0; k < 2; k++) {
+          final int row = 2 * i + k;
+          final int p = 4 * i + 3 * k; // row k, column k of the block
+          _a[p] = _lower[row];
+          _b[p] = _diag[row];
+          _b[4 * i + k + 1] = _coupling[row]; // row k, column 1 - k
+          _c[p] = _upper[row];
+        }
+      }
+      final int last = 4 * (n - 1);
+      for (int k = 0; k < 2; k++) {
+        double[] temp = _lowerBoundary[k];
+        _b[3 * k] = temp[0];
+        _c[3 * k] = temp.length > 1 ? temp[1] : 0.0;
+        _lowerExtra[3 * k] = temp.length > 2 ? temp[2] : 0.0;
+        temp = _upperBoundary[k];
+        final int len = temp.length;
+        _b[last + 3 * k] = temp[len - 1];
+        _a[last + 3 * k] = len > 1 ? temp[len - 2] : 0.0;
+        _upperExtra[3 * k] = len > 2 ? temp[len - 3] : 0.0;
+        _y[k] = q[k * n];
+        _y[2 * (n - 1) + k] = q[k * n + n - 1];
+      }
+      for (int i = 1; i < n - 1; i++) {
+        _y[2 * i] = q[i];
+        _y[2 * i + 1] = q[n + i];
+      }
+
+      // forward elimination; _inv holds the inverse of the modified diagonal blocks, _y the modified right hand side. The block of node 2
+      // in the rows of node 0 fills the upper block of node 1, and the block of node n - 3 in the rows of node n - 1 is eliminated with the
+      // rows of node n - 3 before the last step.
+      invert(_b, 0);
+      for (int i = 1; i < n; i++) {
+        final int p = 4 * i;
+        if (i == n - 1 && (_upperExtra[0] != 0.0 || _upperExtra[3] != 0.0)) {
+          multiply(_upperExtra, 0, _inv, 4 * (n - 3), _m);
+          subtractProduct(_m, _c, 4 * (n - 3), _a, p);
+          if (n == 3) {
+            subtractProduct(_m, _lowerExtra, 0, _b, p);
+          }
+          subtractProductVector(_m, 2 * (n - 3), 2 * i);
+        }
+        multiply(_a, p, _inv, p - 4, _m);
+        subtractProduct(_m, _c, p - 4, _b, p);
+        subtractProductVector(_m, 2 * (i - 1), 2 * i);
+        if (i == 1) {
+          subtractProduct(_m, _lowerExtra, 0, _c, p);
+        }
+        invert(_b, p);
+      }
+
+      // back substitution
+      for (int i = n - 1; i >= 0; i--) {
+        final int r = 2 * i;
+        double z0 = _y[r];
+        double z1 = _y[r + 1];
+        if (i < n - 1) {
+          final int p = 4 * i;
+          z0 -= _c[p] * _x[r + 2] + _c[p + 1] * _x[r + 3];
+          z1 -= _c[p + 2] * _x[r + 2] + _c[p + 3] * _x[r + 3];
+        }
+        if (i == 0) {
+          z0 -= _lowerExtra[0] * _x[4];
+          z1 -= _lowerExtra[3] * _x[5];
+        }
+        final int p = 4 * i;
+        _x[r] = _inv[p] * z0 + _inv[p + 1] * z1;
+        _x[r + 1] = _inv[p + 2] * z0 + _inv[p + 3] * z1;
+      }
+      for (int i = 0; i < n; i++) {
+        f[i] = _x[2 * i];
+        f[n + i] = _x[2 * i + 1];
+      }
+    }
+
+    /**
+     * Inverts the block of _b at p into _inv at p.
+     */
+    private void invert(final double[] b, final int p) {
+      final double det = b[p] * b[p + 3] - b[p + 1] * b[p + 2];
+      if (det == 0.0) {
+        throw new MathException("Singular block in coupled PDE system");
+      }
+      _inv[p] = b[p + 3] / det;
+      _inv[p + 1] = -b[p + 1] / det;
+      _inv[p + 2] = -b[p + 2] / det;
+      _inv[p + 3] = b[p] / det;
+    }
+
+    /**
+     * res = x * y for the blocks of x at px and y at py.
+     */
+    private static void multiply(final double[] x, final int px, final double[] y, final int py, final double[] res) {
+      res[0] = x[px] * y[py] + x[px + 1] * y[py + 2];
+      res[1] = x[px] * y[py + 1] + x[px + 1] * y[py + 3];
+      res[2] = x[px + 2] * y[py] + x[px + 3] * y[py + 2];
+      res[3] = x[px + 2] * y[py + 1] + x[px + 3] * y[py + 3];
+    }
+
+    /**
+     * z -= m * y for the blocks of y at py and z at pz.
+     */
+    private static void subtractProduct(final double[] m, final double[] y, final int py, final double[] z, final int pz) {
+      z[pz] -= m[0] * y[py] + m[1] * y[py + 2];
+      z[pz + 1] -= m[0] * y[py + 1] + m[1] * y[py + 3];
+      z[pz + 2] -= m[2] * y[py] + m[3] * y[py + 2];
+      z[pz + 3] -= m[2] * y[py + 1] + m[3] * y[py + 3];
+    }
+
+    /**
+     * Subtracts m times the pair of the right hand side at from, from the pair at to.
+     */
+    private void subtractProductVector(final double[] m, final int from, final int to) {
+      final double y0 = _y[from];
+      final double y1 = _y[from + 1];
+      _y[to] -= m[0] * y0 + m[1] * y1;
+      _y[to + 1] -= m[2] * y0 + m[3] * y1;
+    }
+  }
+
 }
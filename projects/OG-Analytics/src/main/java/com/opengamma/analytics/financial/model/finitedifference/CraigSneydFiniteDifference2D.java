@@ -5,12 +5,10 @@
  */
 package com.opengamma.analytics.financial.model.finitedifference;
 
-import org.apache.commons.lang.Validate;
-
 import com.opengamma.analytics.math.cube.Cube;
 
 /**
- * Craig-Sneyd splitting
+ * Craig-Sneyd splitting. The implicit sweeps are solved directly by the Thomas algorithm, with a workspace allocated once for all the time steps.
  * <b>Note</b> this is for testing purposes and is not recommended for actual use
  *
  */
@@ -46,10 +44,8 @@ public class CraigSneydFiniteDifference2D implements ConvectionDiffusionPDESolve
     final double[] x = new double[xSteps + 1];
     final double[] y = new double[ySteps + 1];
 
-    final double[] q = new double[xSteps + 1];
-    final double[] r = new double[ySteps + 1];
-    final double[][] mx = new double[xSteps + 1][xSteps + 1];
-    final double[][] my = new double[ySteps + 1][ySteps + 1];
+    final ADITridiagonalSystem mx = new ADITridiagonalSystem(xSteps);
+    final ADITridiagonalSystem my = new ADITridiagonalSystem(ySteps);
     initializeMatrices(pdeData, xSteps, ySteps, xLowerBoundary, yLowerBoundary, dx, dy, v, x, y);
 
     double t = 0.0;
@@ -150,40 +146,27 @@ public class CraigSneydFiniteDifference2D implements ConvectionDiffusionPDESolve
           b = pdeData.getB(t, x[i], y[j]);
           c = pdeData.getC(t, x[i], y[j]);
 
-          mx[i][i - 1] = THETA * (dtdx2 * a - 0.5 * dtdx * b);
-          mx[i][i] = 1 + THETA * (-2 * dtdx2 * a + 0.5 * dt * c);
-          mx[i][i + 1] = THETA * (dtdx2 * a + 0.5 * dtdx * b);
-
-          q[i] = vt[i][j];
-        }
-
-        double[] temp = xLowerBoundary.getLeftMatrixCondition(t, y[j]);
-        for (int k = 0; k < temp.length; k++) {
-          mx[0][k] = temp[k];
-        }
-        temp = xUpperBoundary.getLeftMatrixCondition(t, y[j]);
-        for (int k = 0; k < temp.length; k++) {
-          mx[xSteps][xSteps - k] = temp[k];
+          mx.setRow(i, THETA * (dtdx2 * a - 0.5 * dtdx * b), 1 + THETA * (-2 * dtdx2 * a + 0.5 * dt * c), THETA * (dtdx2 * a + 0.5 * dtdx * b), vt[i][j]);
         }
 
-        temp = xLowerBoundary.getRightMatrixCondition(t, y[j]);
+        double[] temp = xLowerBoundary.getRightMatrixCondition(t, y[j]);
         double sum = 0;
         for (int k = 0; k < temp.length; k++) {
           sum += temp[k] * v[k][j];
         }
-        q[0] = sum + xLowerBoundary.getConstant(t, y[j], dx);
+        mx.setLowerBoundary(xLowerBoundary.getLeftMatrixCondition(t, y[j]), sum + xLowerBoundary.getConstant(t, y[j], dx));
 
         temp = xUpperBoundary.getRightMatrixCondition(t, y[j]);
         sum = 0;
         for (int k = 0; k < temp.length; k++) {
           sum += temp[k] * v[xSteps - k][j];
         }
-        q[xSteps] = sum + xUpperBoundary.getConstant(t, y[j], dx);
+        mx.setUpperBoundary(xUpperBoundary.getLeftMatrixCondition(t, y[j]), sum + xUpperBoundary.getConstant(t, y[j], dx));
 
-        // SOR
-        final double omega = 1.5;
-        final int count = sor(xSteps, vt, q, mx, j, omega);
-        Validate.isTrue(count < 1000, "SOR exceeded max iterations");
+        final double[] sol = mx.solve();
+        for (int i = 0; i <= xSteps; i++) {
+          vt[i][j] = sol[i];
+        }
       }
 
       // stag 3 explicit in y
@@ -254,64 +237,24 @@ public class CraigSneydFiniteDifference2D implements ConvectionDiffusionPDESolve
           // my[j][j] = 1 + THETA * (-2 * dtdy2 * d - dtdy * f + 0.5 * dt * c);
           // my[j][j + 1] = THETA * (dtdy2 * d + dtdy * f);
           // }
-          my[j][j - 1] = THETA * (dtdy2 * d - 0.5 * dtdy * f);
-          my[j][j] = 1 + THETA * (-2 * dtdy2 * d + 0.5 * dt * c);
-          my[j][j + 1] = THETA * (dtdy2 * d + 0.5 * dtdy * f);
-
-          r[j] = vt[i][j];
+          my.setRow(j, THETA * (dtdy2 * d - 0.5 * dtdy * f), 1 + THETA * (-2 * dtdy2 * d + 0.5 * dt * c), THETA * (dtdy2 * d + 0.5 * dtdy * f), vt[i][j]);
         }
 
-        double[] temp = yLowerBoundary.getLeftMatrixCondition(t, x[i]);
-        for (int k = 0; k < temp.length; k++) {
-          my[0][k] = temp[k];
-        }
-        temp = yUpperBoundary.getLeftMatrixCondition(t, x[i]);
-        for (int k = 0; k < temp.length; k++) {
-          my[ySteps][ySteps - k] = temp[k];
-        }
-
-        temp = yLowerBoundary.getRightMatrixCondition(t, x[i]);
+        double[] temp = yLowerBoundary.getRightMatrixCondition(t, x[i]);
         double sum = 0;
         for (int k = 0; k < temp.length; k++) {
           sum += temp[k] * v[i][k];
         }
-        r[0] = sum + yLowerBoundary.getConstant(t, x[i], dy);
+        my.setLowerBoundary(yLowerBoundary.getLeftMatrixCondition(t, x[i]), sum + yLowerBoundary.getConstant(t, x[i], dy));
 
         temp = yUpperBoundary.getRightMatrixCondition(t, x[i]);
         sum = 0;
         for (int k = 0; k < temp.length; k++) {
           sum += temp[k] * v[i][ySteps - k];
         }
-        r[ySteps] = sum + yUpperBoundary.getConstant(t, x[i], dy);
-
-        // SOR
-        final double omega = 1.5;
-        double scale = 1.0;
-        double errorSqr = Double.POSITIVE_INFINITY;
-        int count = 0;
-        while (errorSqr / (scale + 1e-10) > 1e-18 && count < 1000) {
-          errorSqr = 0.0;
-          scale = 0.0;
-          int min, max;
-          for (int l = 0; l <= ySteps; l++) {
-            min = (l == ySteps ? 0 : Math.max(0, l - 1));
-            max = (l == 0 ? ySteps : Math.min(ySteps, l + 1));
-            sum = 0;
-            // for (int k = 0; k <= ySteps; k++) {
-            for (int k = min; k <= max; k++) {
-              sum += my[l][k] * v[i][k];
-            }
-            final double correction = omega / my[l][l] * (r[l] - sum);
-            // if (freeBoundary != null) {
-            // correction = Math.max(correction, freeBoundary.getZValue(t, x[j]) - f[j]);
-            // }
-            errorSqr += correction * correction;
-            v[i][l] += correction;
-            scale += v[i][l] * v[i][l];
-          }
-          count++;
-        }
-        Validate.isTrue(count < 1000, "SOR exceeded max interations");
+        my.setUpperBoundary(yUpperBoundary.getLeftMatrixCondition(t, x[i]), sum + yUpperBoundary.getConstant(t, x[i], dy));
+
+        System.arraycopy(my.solve(), 0, v[i], 0, ySteps + 1);
       }
 
     } // time loop
@@ -319,38 +262,6 @@ public class CraigSneydFiniteDifference2D implements ConvectionDiffusionPDESolve
 
   }
 
-  // TODO there is almost identical code lines 297-319
-  private int sor(final int steps, final double[][] v, final double[] q, final double[][] mx, final int j, final double omega) {
-    double sum;
-    int min;
-    int max;
-    int count = 0;
-    double scale = 1.0;
-    double errorSqr = Double.POSITIVE_INFINITY;
-    while (errorSqr / (scale + 1e-10) > 1e-18 && count < 1000) {
-      errorSqr = 0.0;
-      scale = 0.0;
-      for (int l = 0; l <= steps; l++) {
-        min = (l == steps ? 0 : Math.max(0, l - 1));
-        max = (l == 0 ? steps : Math.min(steps, l + 1));
-        sum = 0;
-        // for (int k = 0; k <= xSteps; k++) {
-        for (int k = min; k <= max; k++) { // mx is tri-diagonal so only need 3 steps here
-          sum += mx[l][k] * v[k][j];
-        }
-        final double correction = omega / mx[l][l] * (q[l] - sum);
-        // if (freeBoundary != null) {
-        // correction = Math.max(correction, freeBoundary.getZValue(t, x[j]) - f[j]);
-        // }
-        errorSqr += correction * correction;
-        v[l][j] += correction;
-        scale += v[l][j] * v[l][j];
-      }
-      count++;
-    }
-    return count;
-  }
-
   private void initializeMatrices(final ConvectionDiffusion2DPDEDataBundle pdeData, final int xSteps, final int ySteps, final BoundaryCondition2D xLowerBoundary,
       final BoundaryCondition2D yLowerBoundary, final double dx, final double dy, final double[][] v, final double[] x, final double[] y) {
     double currentX = 0;
@@ -369,5 +280,4 @@ public class CraigSneydFiniteDifference2D implements ConvectionDiffusionPDESolve
     }
   }
 
-  // private double[][] solveSOR(double[][] m, double[][] v)
 }
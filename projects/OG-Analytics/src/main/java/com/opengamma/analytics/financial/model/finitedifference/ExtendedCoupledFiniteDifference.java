@@ -9,9 +9,6 @@ import java.util.Arrays;
 
 import org.apache.commons.lang.Validate;
 
-import com.opengamma.analytics.math.linearalgebra.Decomposition;
-import com.opengamma.analytics.math.linearalgebra.DecompositionResult;
-import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 import com.opengamma.analytics.math.surface.Surface;
 
 /**
@@ -33,25 +30,24 @@ public class ExtendedCoupledFiniteDifference extends CoupledFiniteDifference {
     final int tNodes = grid.getNumTimeNodes();
     final int xNodes = grid.getNumSpaceNodes();
     final double theta = getTheta();
-    final Decomposition<?> dcomp = getDecomposition();
 
-    double[] f = new double[2 * xNodes];
+    final double[] f = new double[2 * xNodes];
     final double[][] full1 = new double[tNodes][xNodes];
     final double[][] full2 = new double[tNodes][xNodes];
 
     final double[] q = new double[2 * xNodes];
-    final double[][] m = new double[2 * xNodes][2 * xNodes];
-
-    final double[][] a1 = new double[2][xNodes - 2];
-    final double[][] a2 = new double[2][xNodes - 2];
-    final double[][] b1 = new double[2][xNodes - 2];
-    final double[][] b2 = new double[2][xNodes - 2];
-    final double[][] c1 = new double[2][xNodes - 2];
-    final double[][] c2 = new double[2][xNodes - 2];
-    final double[][] alpha1 = new double[2][xNodes];
-    final double[][] alpha2 = new double[2][xNodes];
-    final double[][] beta1 = new double[2][xNodes];
-    final double[][] beta2 = new double[2][xNodes];
+    final CoupledSystem m = new CoupledSystem(xNodes);
+
+    double[][] a1 = new double[2][xNodes - 2];
+    double[][] a2 = new double[2][xNodes - 2];
+    double[][] b1 = new double[2][xNodes - 2];
+    double[][] b2 = new double[2][xNodes - 2];
+    double[][] c1 = new double[2][xNodes - 2];
+    double[][] c2 = new double[2][xNodes - 2];
+    double[][] alpha1 = new double[2][xNodes];
+    double[][] alpha2 = new double[2][xNodes];
+    double[][] beta1 = new double[2][xNodes];
+    double[][] beta2 = new double[2][xNodes];
 
     final double lambda1 = pdeData1.getCoupling();
     final double lambda2 = pdeData2.getCoupling();
@@ -91,9 +87,6 @@ public class ExtendedCoupledFiniteDifference extends CoupledFiniteDifference {
       beta1[1][i] = pdeData2.getBeta(0, x);
     }
 
-    final boolean first = true;
-    DecompositionResult decompRes = null;
-
     for (int n = 1; n < tNodes; n++) {
 
       t1 = grid.getTimeNode(n - 1);
@@ -132,38 +125,23 @@ public class ExtendedCoupledFiniteDifference extends CoupledFiniteDifference {
         b2[1][i - 1] = pdeData2.getB(t2, x);
         c2[1][i - 1] = pdeData2.getC(t2, x);
 
-        m[i][i - 1] = theta * dt * (x2nd[0] * a2[0][i - 1] * alpha2[0][i - 1] + x1st[0] * b2[0][i - 1] * beta2[0][i - 1]);
-        m[i][i] = 1 + theta * dt * (x2nd[1] * a2[0][i - 1] * alpha2[0][i] + x1st[1] * b2[0][i - 1] * beta2[0][i] + c2[0][i - 1]);
-        m[i][i + 1] = theta * dt * (x2nd[2] * a2[0][i - 1] * alpha2[0][i + 1] + x1st[2] * b2[0][i - 1] * beta2[0][i + 1]);
-        m[i][i + xNodes] = dt * theta * lambda1;
+        m.setRow(0, i, theta * dt * (x2nd[0] * a2[0][i - 1] * alpha2[0][i - 1] + x1st[0] * b2[0][i - 1] * beta2[0][i - 1]),
+            1 + theta * dt * (x2nd[1] * a2[0][i - 1] * alpha2[0][i] + x1st[1] * b2[0][i - 1] * beta2[0][i] + c2[0][i - 1]),
+            theta * dt * (x2nd[2] * a2[0][i - 1] * alpha2[0][i + 1] + x1st[2] * b2[0][i - 1] * beta2[0][i + 1]),
+            dt * theta * lambda1);
 
-        m[xNodes + i][xNodes + i - 1] = theta * dt * (x2nd[0] * a2[1][i - 1] * alpha2[1][i - 1] + x1st[0] * b2[1][i - 1] * beta2[1][i - 1]);
-        m[xNodes + i][xNodes + i] = 1 + theta * dt * (x2nd[1] * a2[1][i - 1] * alpha2[1][i] + x1st[1] * b2[1][i - 1] * beta2[1][i] + c2[1][i - 1]);
-        m[xNodes + i][xNodes + i + 1] = theta * dt * (x2nd[2] * a2[1][i - 1] * alpha2[1][i + 1] + x1st[2] * b2[1][i - 1] * beta2[1][i + 1]);
-        m[xNodes + i][i] = dt * theta * lambda2;
+        m.setRow(1, i, theta * dt * (x2nd[0] * a2[1][i - 1] * alpha2[1][i - 1] + x1st[0] * b2[1][i - 1] * beta2[1][i - 1]),
+            1 + theta * dt * (x2nd[1] * a2[1][i - 1] * alpha2[1][i] + x1st[1] * b2[1][i - 1] * beta2[1][i] + c2[1][i - 1]),
+            theta * dt * (x2nd[2] * a2[1][i - 1] * alpha2[1][i + 1] + x1st[2] * b2[1][i - 1] * beta2[1][i + 1]),
+            dt * theta * lambda2);
       }
 
-      double[] temp = lowerBoundary1.getLeftMatrixCondition(null, grid, t2);
-      for (int k = 0; k < temp.length; k++) {
-        m[0][k] = temp[k];
-      }
+      m.setLowerBoundary(0, lowerBoundary1.getLeftMatrixCondition(null, grid, t2));
+      m.setUpperBoundary(0, upperBoundary1.getLeftMatrixCondition(null, grid, t2));
+      m.setLowerBoundary(1, lowerBoundary2.getLeftMatrixCondition(null, grid, t2));
+      m.setUpperBoundary(1, upperBoundary2.getLeftMatrixCondition(null, grid, t2));
 
-      temp = upperBoundary1.getLeftMatrixCondition(null, grid, t2);
-      for (int k = 0; k < temp.length; k++) {
-        m[xNodes - 1][xNodes - temp.length + k] = temp[k];
-      }
-
-      temp = lowerBoundary2.getLeftMatrixCondition(null, grid, t2);
-      for (int k = 0; k < temp.length; k++) {
-        m[xNodes][xNodes + k] = temp[k];
-      }
-
-      temp = upperBoundary2.getLeftMatrixCondition(null, grid, t2);
-      for (int k = 0; k < temp.length; k++) {
-        m[2 * xNodes - 1][2 * xNodes - temp.length + k] = temp[k];
-      }
-
-      temp = lowerBoundary1.getRightMatrixCondition(null, grid, t1);
+      double[] temp = lowerBoundary1.getRightMatrixCondition(null, grid, t1);
       double sum = 0;
       for (int k = 0; k < temp.length; k++) {
         sum += temp[k] * f[k];
@@ -193,23 +171,23 @@ public class ExtendedCoupledFiniteDifference extends CoupledFiniteDifference {
 
       q[2 * xNodes - 1] = sum + upperBoundary2.getConstant(null, t2);
 
-      if (first) {
-        final DoubleMatrix2D mM = new DoubleMatrix2D(m);
-        decompRes = dcomp.evaluate(mM);
-        // first = false;
-      }
-      f = decompRes.solve(q);
-
-      a1[0] = Arrays.copyOf(a2[0], xNodes - 2);
-      b1[0] = Arrays.copyOf(b2[0], xNodes - 2);
-      c1[0] = Arrays.copyOf(c2[0], xNodes - 2);
-      alpha1[0] = Arrays.copyOf(alpha2[0], xNodes);
-      beta1[0] = Arrays.copyOf(beta2[0], xNodes);
-      a1[1] = Arrays.copyOf(a2[1], xNodes - 2);
-      b1[1] = Arrays.copyOf(b2[1], xNodes - 2);
-      c1[1] = Arrays.copyOf(c2[1], xNodes - 2);
-      alpha1[1] = Arrays.copyOf(alpha2[1], xNodes);
-      beta1[1] = Arrays.copyOf(beta2[1], xNodes);
+      m.solve(q, f);
+
+      double[][] swap = a1;
+      a1 = a2;
+      a2 = swap;
+      swap = b1;
+      b1 = b2;
+      b2 = swap;
+      swap = c1;
+      c1 = c2;
+      c2 = swap;
+      swap = alpha1;
+      alpha1 = alpha2;
+      alpha2 = swap;
+      swap = beta1;
+      beta1 = beta2;
+      beta2 = swap;
 
       full1[n] = Arrays.copyOfRange(f, 0, xNodes);
       full2[n] = Arrays.copyOfRange(f, xNodes, 2 * xNodes);
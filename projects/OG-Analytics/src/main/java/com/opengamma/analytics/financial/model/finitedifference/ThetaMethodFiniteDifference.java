@@ -8,6 +8,8 @@ package com.opengamma.analytics.financial.model.finitedifference;
 import static com.opengamma.analytics.math.linearalgebra.TridiagonalSolver.solvTriDag;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.lang.NotImplementedException;
 
@@ -19,6 +21,7 @@ import com.opengamma.analytics.math.linearalgebra.TridiagonalMatrix;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 import com.opengamma.analytics.math.surface.Surface;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.ForkJoinUtils;
 
 /**
  * A theta (i.e. weighted between explicit and implicit time stepping) scheme using SOR algorithm to solve the matrix system at each time step
@@ -71,6 +74,42 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
     throw new IllegalArgumentException(coeff.getClass() + " not handled");
   }
 
+  /**
+   * Solves a batch of PDEs sharing the same grid. The quantities that depend only on the grid are computed once for the whole batch, and the
+   * PDEs are solved in parallel if a fork/join pool is given. Each PDE gives exactly the same result as {@link #solve(PDE1DDataBundle)}.
+   * @param pdeData The PDE data, not null. All the data bundles must use the same grid object.
+   * @param pool The fork/join pool used to solve the PDEs in parallel. May be null, in which case they are solved sequentially.
+   * @return The results, in the same order as the PDE data
+   */
+  public PDEResults1D[] solve(final List<PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>> pdeData, final ForkJoinPool pool) {
+    ArgumentChecker.noNulls(pdeData, "pde data");
+    final int nPDEs = pdeData.size();
+    final PDEResults1D[] res = new PDEResults1D[nPDEs];
+    if (nPDEs == 0) {
+      return res;
+    }
+    final PDEGrid1D grid = pdeData.get(0).getGrid();
+    for (final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> data : pdeData) {
+      ArgumentChecker.isTrue(grid == data.getGrid(), "grids must be same object");
+    }
+    final GridData gridData = new GridData(grid);
+    ForkJoinUtils.invokeAll(pool, nPDEs, new ForkJoinUtils.IndexedTask() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void execute(final int index) {
+        res[index] = solve(pdeData.get(index), gridData);
+      }
+    });
+    return res;
+  }
+
+  private PDEResults1D solve(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData, final GridData gridData) {
+    if (pdeData.getCoefficients() instanceof ConvectionDiffusionPDE1DStandardCoefficients) {
+      return new SolverImpl(convertPDE1DDataBundle(pdeData), gridData).solve();
+    }
+    return solve(pdeData);
+  }
+
   private static PDE1DDataBundle<ConvectionDiffusionPDE1DStandardCoefficients> convertPDE1DDataBundle(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData) {
     if (pdeData.getFreeBoundary() == null) {
       return new PDE1DDataBundle<>(
@@ -88,6 +127,37 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
     psor;
   }
 
+  /**
+   * The quantities that depend only on the grid. They are computed once and can be shared by the solvers of several PDEs on the same grid.
+   */
+  private static final class GridData {
+    private final PDEGrid1D _grid;
+    private final double[][] _x1st;
+    private final double[][] _x2nd;
+    private final double[] _dx;
+    private final double[] _dt;
+
+    GridData(final PDEGrid1D grid) {
+      _grid = grid;
+      final int nNodesX = grid.getNumSpaceNodes();
+      final int nNodesT = grid.getNumTimeNodes();
+      _x1st = new double[nNodesX - 2][];
+      _x2nd = new double[nNodesX - 2][];
+      for (int ii = 0; ii < nNodesX - 2; ii++) {
+        _x1st[ii] = grid.getFirstDerivativeCoefficients(ii + 1);
+        _x2nd[ii] = grid.getSecondDerivativeCoefficients(ii + 1);
+      }
+      _dx = new double[nNodesX - 1];
+      for (int ii = 0; ii < nNodesX - 1; ii++) {
+        _dx[ii] = grid.getSpaceStep(ii);
+      }
+      _dt = new double[nNodesT - 1];
+      for (int jj = 0; jj < nNodesT - 1; jj++) {
+        _dt[jj] = grid.getTimeStep(jj);
+      }
+    }
+  }
+
   class SolverImpl {
 
     // grid
@@ -109,9 +179,14 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
     private final Surface<Double, Double, Double> _freeB;
 
     public SolverImpl(final PDE1DDataBundle<ConvectionDiffusionPDE1DStandardCoefficients> pdeData) {
+      this(pdeData, new GridData(pdeData.getGrid()));
+    }
+
+    @SuppressWarnings("synthetic-access")
+    SolverImpl(final PDE1DDataBundle<ConvectionDiffusionPDE1DStandardCoefficients> pdeData, final GridData gridData) {
 
       //unpack pdeData
-      _grid = pdeData.getGrid();
+      _grid = gridData._grid;
       _coeff = pdeData.getCoefficients();
       _lower = pdeData.getLowerBoundary();
       _upper = pdeData.getUpperBoundary();
@@ -119,22 +194,12 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
       _nNodesX = _grid.getNumSpaceNodes();
       _nNodesT = _grid.getNumTimeNodes();
 
-      _x1st = new double[_nNodesX - 2][];
-      _x2nd = new double[_nNodesX - 2][];
-      for (int ii = 0; ii < _nNodesX - 2; ii++) {
-        _x1st[ii] = _grid.getFirstDerivativeCoefficients(ii + 1);
-        _x2nd[ii] = _grid.getSecondDerivativeCoefficients(ii + 1);
-      }
-      _dx = new double[_nNodesX - 1];
-      for (int ii = 0; ii < _nNodesX - 1; ii++) {
-        _dx[ii] = _grid.getSpaceStep(ii);
-      }
+      _x1st = gridData._x1st;
+      _x2nd = gridData._x2nd;
+      _dx = gridData._dx;
+      _dt = gridData._dt;
 
       _initial = pdeData.getInitialCondition();
-      _dt = new double[_nNodesT - 1];
-      for (int jj = 0; jj < _nNodesT - 1; jj++) {
-        _dt[jj] = _grid.getTimeStep(jj);
-      }
 
       //free boundary
       _freeB = pdeData.getFreeBoundary();
@@ -150,10 +215,19 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
 
       double[][] full = null;
       if (_showFullResults) {
-        full = new double[_nNodesT][_nNodesX];
+        full = new double[_nNodesT][];
         full[0] = _initial;
       }
-      double[] h = _initial;
+
+      // workspace, allocated once and reused at each time step
+      double[] h = Arrays.copyOf(_initial, _nNodesX);
+      double[] hNew = new double[_nNodesX];
+      final double[] y = new double[_nNodesX]; //RHS of system
+      final double[] d = new double[_nNodesX]; //main diag
+      final double[] u = new double[_nNodesX - 1]; //upper
+      final double[] l = new double[_nNodesX - 1]; //lower
+      final double[] work = new double[_nNodesX];
+      final double[] free = _mode == SolverMode.psor ? new double[_nNodesX] : null;
 
       double t = _grid.getTimeNode(0);
 
@@ -175,8 +249,6 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
       for (int jj = 0; jj < _nNodesT - 1; jj++) {
         final double dt = _dt[jj];
 
-        //RHS of system
-        final double[] y = new double[_nNodesX];
         //main part of RHS
         for (int ii = 1; ii < _nNodesX - 1; ii++) { //tri-diagonal form
           y[ii] = (1 - (1 - _theta) * dt * cDag[ii - 1]) * h[ii] - (1 - _theta) * dt * (lDag[ii - 1] * h[ii - 1] + +uDag[ii - 1] * h[ii + 1]);
@@ -188,13 +260,11 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
         y[_nNodesX - 1] = _upper.getConstant(_coeff, t);
 
         //put the LHS of system in tri-diagonal form
-        final double[] d = new double[_nNodesX]; //main diag
-        final double[] u = new double[_nNodesX - 1]; //upper
-        final double[] l = new double[_nNodesX - 1]; //lower
         //lower boundary conditions
         topRow = _lower.getLeftMatrixCondition(_coeff, _grid, t);
         final int p2 = topRow.length;
         d[0] = topRow[0];
+        u[0] = 0.0;
         if (p2 > 1) {
           u[0] = topRow[1];
           //Review do we need this?
@@ -203,6 +273,7 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
         bottomRow = _upper.getLeftMatrixCondition(_coeff, _grid, t);
         final int q2 = bottomRow.length;
         d[_nNodesX - 1] = bottomRow[q2 - 1];
+        l[_nNodesX - 2] = 0.0;
         if (q2 > 1) {
           l[_nNodesX - 2] = bottomRow[q2 - 2];
           ArgumentChecker.isFalse(q2 > 2, "Boundary condition means that system is not tri-diagonal");
@@ -220,34 +291,34 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
           uDag[ii] = _x2nd[ii][2] * a + _x1st[ii][2] * b;
         }
 
-
         for (int ii = 1; ii < _nNodesX - 1; ii++) {
           d[ii] = 1 + _theta * dt * cDag[ii - 1];
           u[ii] = _theta * dt * uDag[ii - 1];
           l[ii - 1] = _theta * dt * lDag[ii - 1];
         }
-        final TridiagonalMatrix lhs = new TridiagonalMatrix(d, u, l);
 
         //solve the system (update h)
         switch (_mode) {
           case tridiagonal:
-            h = solvTriDag(lhs, y);
+            solvTriDag(l, d, u, y, hNew, work);
             break;
           case luDecomp:
-            h = solveLU(lhs, y);
+            System.arraycopy(solveLU(new TridiagonalMatrix(d, u, l), y), 0, hNew, 0, _nNodesX);
             break;
           case psor:
-            h = solvTriDag(lhs, y);
-            final double[] free = new double[_nNodesX];
+            solvTriDag(l, d, u, y, hNew, work);
             for (int ii = 0; ii < _nNodesX; ii++) {
               final double x = _grid.getSpaceNode(ii);
               free[ii] = _freeB.getZValue(t, x);
             }
-            h = solvePSOR(lhs, y, h, free);
+            solvePSOR(l, d, u, y, hNew, free, work);
             break;
           default:
             throw new NotImplementedException("SolverMode " + _mode.toString() + " not implemented");
         }
+        final double[] temp = h;
+        h = hNew;
+        hNew = temp;
 
         if (_showFullResults && full != null) {
           full[jj + 1] = Arrays.copyOf(h, _nNodesX);
@@ -268,15 +339,13 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
       return res.solve(y);
     }
 
-    private double[] solvePSOR(final TridiagonalMatrix lM, final double[] b, final double[] x, final double[] minVal) {
-
-      final double[] d = lM.getDiagonalData();
-      final double[] u = lM.getUpperSubDiagonalData();
-      final double[] l = lM.getLowerSubDiagonalData();
+    /**
+     * Projected SOR. The solution x is updated in place.
+     */
+    private void solvePSOR(final double[] l, final double[] d, final double[] u, final double[] b, final double[] x, final double[] minVal, final double[] invD) {
 
       final int maxInt = 100000;
       final double omega = 1.0;
-      final double[] invD = new double[_nNodesX];
       for (int ii = 0; ii < _nNodesX; ii++) {
         if (d[ii] == 0.0) {
           throw new MathException("Cannot solve by PSOR - zero on diagonal");
@@ -317,7 +386,6 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
       if (count == maxInt) {
         throw new MathException("PSOR failed to converge");
       }
-      return x;
     }
 
     /**
@@ -227,7 +227,7 @@ public class FFTPricer {
     return z;
   }
 
-  private double getReducedPrice(final ComplexNumber x, final double alpha, final double delta, final double k, final double a, final boolean isCall) {
+  static double getReducedPrice(final ComplexNumber x, final double alpha, final double delta, final double k, final double a, final boolean isCall) {
     final ComplexNumber temp = ComplexMathUtils.multiply(ComplexMathUtils.exp(new ComplexNumber(-alpha * k, -k * a)), x);
     final double y = delta * temp.getReal() / 2 / Math.PI;
     if (isCall) {
@@ -0,0 +1,268 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.option.pricing.fourier;
+
+import static com.opengamma.analytics.math.number.ComplexNumber.ZERO;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.lang.Validate;
+
+import com.opengamma.analytics.math.ComplexMathUtils;
+import com.opengamma.analytics.math.fft.JTransformsWrapper;
+import com.opengamma.analytics.math.function.Function1D;
+import com.opengamma.analytics.math.interpolation.DoubleQuadraticInterpolator1D;
+import com.opengamma.analytics.math.number.ComplexNumber;
+import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
+import com.opengamma.analytics.math.statistics.distribution.ProbabilityDistribution;
+import com.opengamma.util.ForkJoinUtils;
+
+/**
+ * Prices European options on a full strike by expiry surface with a FFT, as the {@link FFTPricer} does for a single expiry.
+ * <p>
+ * All the expiries share one {@link Grid}: the sampling points of the Fourier integrand, the part of the integrand that does not depend
+ * on the characteristic exponent and the size of the transform, whose plan is cached by the {@link JTransformsWrapper}. The grid is
+ * set up for the most demanding expiry and strike range of the surface; a calibration that reprices the same surface with different
+ * model parameters can compute it once with {@link #getGrid} and pass it to each repricing. Each expiry then only evaluates the
+ * characteristic exponent on the grid, takes one transform and interpolates the prices at its strikes. The expiries are priced in
+ * parallel when a fork/join pool is provided.
+ */
+public class FFTSurfacePricer {
+  private static final ProbabilityDistribution<Double> NORMAL = new NormalDistribution(0, 1);
+  private static final IntegralLimitCalculator LIMIT_CALCULATOR = new IntegralLimitCalculator();
+  private static final DoubleQuadraticInterpolator1D INTERPOLATOR = new DoubleQuadraticInterpolator1D();
+  /** The number of transform strikes kept on each side of the requested strikes for the interpolation. */
+  private static final int STRIKE_PADDING = 2;
+  private final ForkJoinPool _pool;
+
+  /**
+   * Creates a pricer valuing the expiries sequentially.
+   */
+  public FFTSurfacePricer() {
+    this(null);
+  }
+
+  /**
+   * @param pool The fork/join pool used to price the expiries in parallel, null for sequential pricing
+   */
+  public FFTSurfacePricer(final ForkJoinPool pool) {
+    _pool = pool;
+  }
+
+  /**
+   * Sets up the grid shared by the expiries of a surface.
+   * @param forwards The forward value of the underlying for each expiry
+   * @param expiries The times to expiry
+   * @param strikes The strikes of each expiry
+   * @param ce The Characteristic Exponent (log of characteristic function) of the returns of the underlying
+   * @param maxDeltaMoneyness Gives the (maximum) step size of the transform strikes in moneyness m = ln(K/F). The prices are interpolated
+   * between the transform strikes, so the step should be small compared to the standard deviation of the returns at the shortest expiry
+   * @param limitSigma An estimate of the implied vol used to calculate limits in the numerical routines
+   * @param alpha Regularization factor. Values of 0 or -1 are not allowed. -0.5 is recommended
+   * @param tol Tolerance - smaller values give higher accuracy
+   * @return The grid
+   */
+  public Grid getGrid(final double[] forwards, final double[] expiries, final double[][] strikes, final MartingaleCharacteristicExponent ce,
+      final double maxDeltaMoneyness, final double limitSigma, final double alpha, final double tol) {
+    validate(forwards, forwards, expiries, strikes, ce);
+    Validate.isTrue(maxDeltaMoneyness > 0, "need max delta moneyness > 0");
+    Validate.isTrue(limitSigma > 0.0, "need limitSigma > 0");
+    Validate.isTrue(alpha != 0.0 && alpha != -1.0, "alpha cannot be -1 or 0");
+    Validate.isTrue(tol > 0.0, "need tol > 0");
+    final EuropeanCallFourierTransform psi = new EuropeanCallFourierTransform(ce);
+    double kMax = 0;
+    double xMax = 0;
+    double maxMoneyness = 0;
+    for (int i = 0; i < expiries.length; i++) {
+      final double atm = NORMAL.getCDF(limitSigma * Math.sqrt(expiries[i]) / 2.0);
+      if (alpha > 0) {
+        kMax = Math.max(kMax, -Math.log((2 * atm - 1) * tol) / alpha);
+      } else if (alpha < -1.0) {
+        kMax = Math.max(kMax, Math.log((2 * atm - 1) * tol) / (1 + alpha));
+      } else {
+        kMax = Math.max(kMax, -Math.log(2 * (1 - atm) * tol) * Math.max(-1.0 / alpha, 1 / (1 + alpha)));
+      }
+      xMax = Math.max(xMax, LIMIT_CALCULATOR.solve(psi.getFunction(expiries[i]), alpha, tol));
+      for (final double strike : strikes[i]) {
+        maxMoneyness = Math.max(maxMoneyness, Math.abs(Math.log(strike / forwards[i])));
+      }
+    }
+    final double deltaK = Math.min(maxDeltaMoneyness, Math.PI / xMax);
+    final double minSize = Math.max(kMax / deltaK, 2 * (maxMoneyness / deltaK + STRIKE_PADDING + 1));
+    final int n = (int) Math.pow(2, Math.ceil(Math.log(minSize) / Math.log(2)));
+    final double delta = 2 * Math.PI / n / deltaK;
+    final int m = (int) (xMax / delta);
+    return new Grid(alpha, delta, n, m);
+  }
+
+  /**
+   * Prices European options on a strike by expiry surface.
+   * @param forwards The forward value of the underlying for each expiry
+   * @param discountFactors The discount factor of each expiry
+   * @param expiries The times to expiry
+   * @param strikes The strikes of each expiry
+   * @param isCall true for calls
+   * @param ce The Characteristic Exponent (log of characteristic function) of the returns of the underlying
+   * @param maxDeltaMoneyness Gives the (maximum) step size of the transform strikes in moneyness m = ln(K/F)
+   * @param limitSigma An estimate of the implied vol used to calculate limits in the numerical routines
+   * @param alpha Regularization factor. Values of 0 or -1 are not allowed. -0.5 is recommended
+   * @param tol Tolerance - smaller values give higher accuracy
+   * @return The prices, by expiry then strike
+   */
+  public double[][] price(final double[] forwards, final double[] discountFactors, final double[] expiries, final double[][] strikes, final boolean isCall,
+      final MartingaleCharacteristicExponent ce, final double maxDeltaMoneyness, final double limitSigma, final double alpha, final double tol) {
+    final Grid grid = getGrid(forwards, expiries, strikes, ce, maxDeltaMoneyness, limitSigma, alpha, tol);
+    return price(grid, forwards, discountFactors, expiries, strikes, isCall, ce);
+  }
+
+  /**
+   * Prices European options on a strike by expiry surface with a given grid.
+   * @param grid The grid, see {@link #getGrid}
+   * @param forwards The forward value of the underlying for each expiry
+   * @param discountFactors The discount factor of each expiry
+   * @param expiries The times to expiry
+   * @param strikes The strikes of each expiry, within the range of the grid
+   * @param isCall true for calls
+   * @param ce The Characteristic Exponent (log of characteristic function) of the returns of the underlying
+   * @return The prices, by expiry then strike
+   */
+  public double[][] price(final Grid grid, final double[] forwards, final double[] discountFactors, final double[] expiries, final double[][] strikes,
+      final boolean isCall, final MartingaleCharacteristicExponent ce) {
+    Validate.notNull(grid, "grid");
+    validate(forwards, discountFactors, expiries, strikes, ce);
+    final int nExpiries = expiries.length;
+    final double[][] result = new double[nExpiries][];
+    ForkJoinUtils.invokeAll(_pool, nExpiries, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int expiry) {
+        result[expiry] = grid.price(forwards[expiry], discountFactors[expiry], expiries[expiry], strikes[expiry], isCall, ce);
+      }
+    });
+    return result;
+  }
+
+  private static void validate(final double[] forwards, final double[] discountFactors, final double[] expiries, final double[][] strikes,
+      final MartingaleCharacteristicExponent ce) {
+    Validate.notNull(forwards, "forwards");
+    Validate.notNull(discountFactors, "discount factors");
+    Validate.notNull(expiries, "expiries");
+    Validate.notNull(strikes, "strikes");
+    Validate.notNull(ce, "characteristic exponent");
+    final int nExpiries = expiries.length;
+    Validate.isTrue(nExpiries > 0, "need at least one expiry");
+    Validate.isTrue(forwards.length == nExpiries, "need one forward per expiry");
+    Validate.isTrue(discountFactors.length == nExpiries, "need one discount factor per expiry");
+    Validate.isTrue(strikes.length == nExpiries, "need strikes for each expiry");
+    for (int i = 0; i < nExpiries; i++) {
+      Validate.notNull(strikes[i], "strikes");
+      Validate.isTrue(strikes[i].length > 0, "need at least one strike per expiry");
+    }
+  }
+
+  /**
+   * The sampling grid of the Fourier integrand shared by the expiries of a surface.
+   */
+  public static final class Grid {
+    private final double _alpha;
+    private final double _delta;
+    private final int _n;
+    private final int _m;
+    private final int _halfN;
+    private final double _deltaK;
+    /** The sampling points of the integrand. */
+    private final ComplexNumber[] _u;
+    /** The factor of the integrand independent of the characteristic exponent, -1 / (u (u + i)). */
+    private final ComplexNumber[] _factors;
+
+    /**
+     * @param alpha Regularization factor. Values of 0 or -1 are not allowed
+     * @param delta The spacing for sampling the function
+     * @param n The (zero padded) array of sample values. <b>Use a power of 2</b>
+     * @param m The actual number of samples. Need n >= 2m-1
+     */
+    public Grid(final double alpha, final double delta, final int n, final int m) {
+      Validate.isTrue(alpha != 0.0 && alpha != -1.0, "alpha cannot be -1 or 0");
+      Validate.isTrue(delta > 0.0, "need delta > 0");
+      Validate.isTrue(m > 0, "need m > 0");
+      Validate.isTrue(n >= 2 * m - 1, "need n > 2m-1");
+      _alpha = alpha;
+      _delta = delta;
+      _n = n;
+      _m = m;
+      _halfN = n % 2 == 0 ? n / 2 : (n + 1) / 2;
+      _deltaK = 2 * Math.PI / delta / n;
+      _u = new ComplexNumber[m];
+      _factors = new ComplexNumber[m];
+      for (int i = 0; i < m; i++) {
+        _u[i] = new ComplexNumber(i * delta, -(1 + alpha));
+        _factors[i] = ComplexMathUtils.divide(-1.0, ComplexMathUtils.multiply(_u[i], ComplexMathUtils.add(_u[i], ComplexNumber.I)));
+      }
+    }
+
+    public double getAlpha() {
+      return _alpha;
+    }
+
+    public double getDelta() {
+      return _delta;
+    }
+
+    public int getN() {
+      return _n;
+    }
+
+    public int getM() {
+      return _m;
+    }
+
+    /**
+     * Gets the step of the transform strikes in moneyness m = ln(K/F).
+     * @return The step
+     */
+    public double getDeltaK() {
+      return _deltaK;
+    }
+
+    private double[] price(final double forward, final double discountFactor, final double t, final double[] strikes, final boolean isCall,
+        final MartingaleCharacteristicExponent ce) {
+      final Function1D<ComplexNumber, ComplexNumber> function = ce.getFunction(t);
+      final ComplexNumber[] z = new ComplexNumber[_n];
+      final int offset = _halfN - 1;
+      for (int i = 0; i < _n; i++) {
+        z[i] = ZERO;
+      }
+      for (int i = 0; i < _m; i++) {
+        final ComplexNumber f = ComplexMathUtils.multiply(ComplexMathUtils.exp(function.evaluate(_u[i])), _factors[i]);
+        z[offset + i] = f;
+        if (i > 0) {
+          z[offset - i] = ComplexMathUtils.conjugate(f);
+        }
+      }
+      final ComplexNumber[] x = JTransformsWrapper.transform1DComplex(z);
+      double minMoneyness = 0;
+      double maxMoneyness = 0;
+      for (final double strike : strikes) {
+        final double k = Math.log(strike / forward);
+        minMoneyness = Math.min(minMoneyness, k);
+        maxMoneyness = Math.max(maxMoneyness, k);
+      }
+      final int nLowStrikes = Math.min(_halfN, (int) Math.ceil(-minMoneyness / _deltaK) + STRIKE_PADDING);
+      final int nHighStrikes = Math.min(_n - _halfN, (int) Math.ceil(maxMoneyness / _deltaK) + STRIKE_PADDING);
+      final int p = 1 + nLowStrikes + nHighStrikes;
+      final double a = -(_halfN - 1) * _delta;
+      final double[] gridStrikes = new double[p];
+      final double[] gridPrices = new double[p];
+      for (int i = 0; i < p; i++) {
+        final double k = (i - nLowStrikes) * _deltaK;
+        final ComplexNumber transform = i < nLowStrikes ? x[i + _n - nLowStrikes] : x[i - nLowStrikes];
+        gridStrikes[i] = forward * Math.exp(k);
+        gridPrices[i] = discountFactor * forward * FFTPricer.getReducedPrice(transform, _alpha, _delta, k, a, isCall);
+      }
+      return INTERPOLATOR.interpolateValues(INTERPOLATOR.getDataBundleFromSortedArrays(gridStrikes, gridPrices), strikes);
+    }
+  }
+
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.option.pricing.tree;
+
+import java.util.Arrays;
+
+import com.google.common.primitives.Doubles;
+import com.opengamma.analytics.financial.greeks.Greek;
+import com.opengamma.analytics.financial.greeks.GreekResultCollection;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Prices vanilla options on many strikes with a single binomial tree, giving the same values as {@link BinomialTreeOptionPricingModel} with
+ * {@link EuropeanVanillaOptionFunctionProvider}, {@link AmericanVanillaOptionFunctionProvider} or {@link BermudanOptionFunctionProvider}.
+ * <p>
+ * The lattice parameters and the asset prices on the nodes are computed once for all the strikes, as powers of the down factor by time step
+ * and of the up over down factor by node. The backward induction of each strike is done in place in a single buffer of (number of steps + 1)
+ * values, shared by the strikes, and only the values of the first three time steps are kept for the greeks.
+ * <p>
+ * The lattice is shared by all the strikes, so lattice specifications depending on the strike, such as {@link LeisenReimerLatticeSpecification},
+ * cannot be used.
+ */
+public class BinomialTreeVanillaOptionBatchPricer {
+  private final LatticeSpecification _lattice;
+  private final int _nSteps;
+
+  /**
+   * @param lattice The lattice specification, not null
+   * @param nSteps The number of steps, greater than 2
+   */
+  public BinomialTreeVanillaOptionBatchPricer(final LatticeSpecification lattice, final int nSteps) {
+    ArgumentChecker.notNull(lattice, "lattice");
+    ArgumentChecker.isFalse(lattice instanceof LeisenReimerLatticeSpecification, "The lattice should not depend on the strike");
+    ArgumentChecker.isTrue(nSteps > 2, "The number of steps should be greater than 2");
+    _lattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
+    _nSteps = nSteps;
+  }
+
+  /**
+   * Computes the prices of European or American options.
+   * @param spot Spot price of underlying
+   * @param volatility Volatility
+   * @param interestRate Interest rate
+   * @param dividend Dividend
+   * @param timeToExpiry Time to expiry
+   * @param strikes The strikes
+   * @param isCall True for the calls, false for the puts, one for each strike
+   * @param isAmerican True if the options can be exercised at any time, false if only at expiry
+   * @return The option prices, one for each strike
+   */
+  public double[] getPrices(final double spot, final double volatility, final double interestRate, final double dividend, final double timeToExpiry,
+      final double[] strikes, final boolean[] isCall, final boolean isAmerican) {
+    final Tree tree = new Tree(spot, volatility, interestRate, dividend, timeToExpiry);
+    final boolean[] exercise = new boolean[_nSteps];
+    Arrays.fill(exercise, isAmerican);
+    return getPrices(tree, strikes, isCall, exercise);
+  }
+
+  /**
+   * Computes the prices of Bermudan options.
+   * @param spot Spot price of underlying
+   * @param volatility Volatility
+   * @param interestRate Interest rate
+   * @param dividend Dividend
+   * @param timeToExpiry Time to expiry
+   * @param strikes The strikes
+   * @param isCall True for the calls, false for the puts, one for each strike
+   * @param exerciseTimes The times on which the options can be exercised, see {@link BermudanOptionFunctionProvider}
+   * @return The option prices, one for each strike
+   */
+  public double[] getPrices(final double spot, final double volatility, final double interestRate, final double dividend, final double timeToExpiry,
+      final double[] strikes, final boolean[] isCall, final double[] exerciseTimes) {
+    final Tree tree = new Tree(spot, volatility, interestRate, dividend, timeToExpiry);
+    return getPrices(tree, strikes, isCall, getExercise(timeToExpiry, exerciseTimes));
+  }
+
+  /**
+   * Computes the price, delta, gamma and theta of European or American options.
+   * @param spot Spot price of underlying
+   * @param volatility Volatility
+   * @param interestRate Interest rate
+   * @param dividend Dividend
+   * @param timeToExpiry Time to expiry
+   * @param strikes The strikes
+   * @param isCall True for the calls, false for the puts, one for each strike
+   * @param isAmerican True if the options can be exercised at any time, false if only at expiry
+   * @return The option Greeks, one {@link GreekResultCollection} for each strike
+   */
+  public GreekResultCollection[] getGreeks(final double spot, final double volatility, final double interestRate, final double dividend, final double timeToExpiry,
+      final double[] strikes, final boolean[] isCall, final boolean isAmerican) {
+    final Tree tree = new Tree(spot, volatility, interestRate, dividend, timeToExpiry);
+    final boolean[] exercise = new boolean[_nSteps];
+    Arrays.fill(exercise, isAmerican);
+    return getGreeks(tree, strikes, isCall, exercise);
+  }
+
+  /**
+   * Computes the price, delta, gamma and theta of Bermudan options.
+   * @param spot Spot price of underlying
+   * @param volatility Volatility
+   * @param interestRate Interest rate
+   * @param dividend Dividend
+   * @param timeToExpiry Time to expiry
+   * @param strikes The strikes
+   * @param isCall True for the calls, false for the puts, one for each strike
+   * @param exerciseTimes The times on which the options can be exercised, see {@link BermudanOptionFunctionProvider}
+   * @return The option Greeks, one {@link GreekResultCollection} for each strike
+   */
+  public GreekResultCollection[] getGreeks(final double spot, final double volatility, final double interestRate, final double dividend, final double timeToExpiry,
+      final double[] strikes, final boolean[] isCall, final double[] exerciseTimes) {
+    final Tree tree = new Tree(spot, volatility, interestRate, dividend, timeToExpiry);
+    return getGreeks(tree, strikes, isCall, getExercise(timeToExpiry, exerciseTimes));
+  }
+
+  /**
+   * Access number of steps
+   * @return _nSteps
+   */
+  public int getNumberOfSteps() {
+    return _nSteps;
+  }
+
+  private double[] getPrices(final Tree tree, final double[] strikes, final boolean[] isCall, final boolean[] exercise) {
+    validate(strikes, isCall);
+    final int nStrikes = strikes.length;
+    final double[] values = new double[_nSteps + 1];
+    final double[] res = new double[nStrikes];
+    for (int k = 0; k < nStrikes; ++k) {
+      res[k] = tree.backwardInduction(strikes[k], isCall[k] ? 1. : -1., exercise, values, null);
+    }
+    return res;
+  }
+
+  private GreekResultCollection[] getGreeks(final Tree tree, final double[] strikes, final boolean[] isCall, final boolean[] exercise) {
+    validate(strikes, isCall);
+    final int nStrikes = strikes.length;
+    final double[] values = new double[_nSteps + 1];
+    final double[] greeks = new double[4];
+    final GreekResultCollection[] res = new GreekResultCollection[nStrikes];
+    for (int k = 0; k < nStrikes; ++k) {
+      tree.backwardInduction(strikes[k], isCall[k] ? 1. : -1., exercise, values, greeks);
+      final GreekResultCollection collection = new GreekResultCollection();
+      collection.put(Greek.FAIR_PRICE, greeks[0]);
+      collection.put(Greek.DELTA, greeks[1]);
+      collection.put(Greek.GAMMA, greeks[2]);
+      collection.put(Greek.THETA, greeks[3]);
+      res[k] = collection;
+    }
+    return res;
+  }
+
+  private void validate(final double[] strikes, final boolean[] isCall) {
+    ArgumentChecker.notNull(strikes, "strikes");
+    ArgumentChecker.notNull(isCall, "isCall");
+    ArgumentChecker.isTrue(strikes.length == isCall.length, "strikes and isCall should have the same length");
+    for (final double strike : strikes) {
+      ArgumentChecker.isTrue(strike > 0., "strike should be positive");
+      ArgumentChecker.isTrue(Doubles.isFinite(strike), "strike should be finite");
+    }
+  }
+
+  /**
+   * The time steps on which Bermudan options can be exercised, with the same rounding of the exercise times as {@link BermudanOptionFunctionProvider}.
+   */
+  private boolean[] getExercise(final double timeToExpiry, final double[] exerciseTimes) {
+    ArgumentChecker.isTrue(timeToExpiry > 0., "timeToExpiry should be positive");
+    final int[] exerciseSteps = new BermudanOptionFunctionProvider(1., timeToExpiry, _nSteps, true, exerciseTimes).getExerciseSteps();
+    final boolean[] exercise = new boolean[_nSteps];
+    for (final int step : exerciseSteps) {
+      if (step < _nSteps) {
+        exercise[step] = true;
+      }
+    }
+    return exercise;
+  }
+
+  /**
+   * The lattice parameters and asset prices shared by the strikes.
+   */
+  private final class Tree {
+    private final double _spot;
+    private final double _volatility;
+    private final double _interestRate;
+    private final double _dividend;
+    private final double _dt;
+    private final double _discount;
+    private final double _upProbability;
+    private final double _downProbability;
+    /** The powers of the down factor, by time step. */
+    private final double[] _downPowers;
+    /** The powers of the up over down factor, by node. */
+    private final double[] _upOverDownPowers;
+
+    Tree(final double spot, final double volatility, final double interestRate, final double dividend, final double timeToExpiry) {
+      ArgumentChecker.isTrue(spot > 0., "Spot should be positive");
+      ArgumentChecker.isTrue(Doubles.isFinite(spot), "Spot should be finite");
+      ArgumentChecker.isTrue(volatility > 0., "volatility should be positive");
+      ArgumentChecker.isTrue(Doubles.isFinite(volatility), "volatility should be finite");
+      ArgumentChecker.isTrue(Doubles.isFinite(interestRate), "interestRate should be finite");
+      ArgumentChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
+      ArgumentChecker.isTrue(timeToExpiry > 0., "timeToExpiry should be positive");
+      ArgumentChecker.isTrue(Doubles.isFinite(timeToExpiry), "timeToExpiry should be finite");
+      _spot = spot;
+      _volatility = volatility;
+      _interestRate = interestRate;
+      _dividend = dividend;
+      _dt = timeToExpiry / _nSteps;
+      _discount = Math.exp(-interestRate * _dt);
+      final double[] params = _lattice.getParameters(spot, spot, timeToExpiry, volatility, interestRate - dividend, _nSteps, _dt);
+      final double downFactor = params[1];
+      final double upOverDown = params[0] / downFactor;
+      _upProbability = params[2];
+      _downProbability = params[3];
+      ArgumentChecker.isTrue(_upProbability > 0., "upProbability should be greater than 0.");
+      ArgumentChecker.isTrue(_upProbability < 1., "upProbability should be smaller than 1.");
+      _downPowers = new double[_nSteps + 1];
+      _upOverDownPowers = new double[_nSteps + 1];
+      _downPowers[0] = 1.;
+      _upOverDownPowers[0] = 1.;
+      for (int i = 1; i <= _nSteps; ++i) {
+        _downPowers[i] = _downPowers[i - 1] * downFactor;
+        _upOverDownPowers[i] = _upOverDownPowers[i - 1] * upOverDown;
+      }
+    }
+
+    /**
+     * Rolls the option values back through the tree, in place.
+     * @param strike The strike
+     * @param sign +1 for a call, -1 for a put
+     * @param exercise Whether the option can be exercised, by time step
+     * @param values The buffer, of size number of steps + 1
+     * @param greeks The buffer receiving {price, delta, gamma, theta}, null if not required
+     * @return The option price
+     */
+    double backwardInduction(final double strike, final double sign, final boolean[] exercise, final double[] values, final double[] greeks) {
+      double lowestPrice = _spot * _downPowers[_nSteps];
+      for (int j = 0; j <= _nSteps; ++j) {
+        values[j] = Math.max(sign * (lowestPrice * _upOverDownPowers[j] - strike), 0.);
+      }
+      for (int i = _nSteps - 1; i > -1; --i) {
+        if (exercise[i]) {
+          lowestPrice = _spot * _downPowers[i];
+          for (int j = 0; j <= i; ++j) {
+            values[j] = Math.max(_discount * (_upProbability * values[j + 1] + _downProbability * values[j]), sign * (lowestPrice * _upOverDownPowers[j] - strike));
+          }
+        } else {
+          for (int j = 0; j <= i; ++j) {
+            values[j] = _discount * (_upProbability * values[j + 1] + _downProbability * values[j]);
+          }
+        }
+        if (greeks != null) {
+          if (i == 2) {
+            final double down = _spot * _downPowers[2];
+            final double middle = down * _upOverDownPowers[1];
+            final double up = down * _upOverDownPowers[2];
+            greeks[2] = 2. * ((values[2] - values[1]) / (up - middle) - (values[1] - values[0]) / (middle - down)) / (up - down);
+            greeks[3] = values[1];
+          }
+          if (i == 1) {
+            final double down = _spot * _downPowers[1];
+            greeks[1] = (values[1] - values[0]) / (down * _upOverDownPowers[1] - down);
+          }
+        }
+      }
+      if (greeks != null) {
+        greeks[0] = values[0];
+        greeks[3] = _lattice.getTheta(_spot, _volatility, _interestRate, _dividend, _dt, greeks);
+      }
+      return values[0];
+    }
+  }
+
+}
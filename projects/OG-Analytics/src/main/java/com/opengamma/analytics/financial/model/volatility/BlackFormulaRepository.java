@@ -9,6 +9,8 @@ import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import cern.jet.stat.Probability;
+
 import com.opengamma.analytics.math.MathException;
 import com.opengamma.analytics.math.function.Function1D;
 import com.opengamma.analytics.math.rootfinding.BisectionSingleRootFinder;
@@ -35,6 +37,9 @@ public abstract class BlackFormulaRepository {
   private static final double EPS = 1e-15;
   private static final int MAX_ITERATIONS = 15; // something's wrong if Newton-Raphson taking longer than this
   private static final double VOL_TOL = 1e-9; // 1 part in 100,000 basis points will do for implied vol
+  private static final int BULK_ITERATIONS = 6; // Householder steps from the initial guess; in practice at most five are needed
+  private static final double BULK_TOL = 1e-12; // relative tolerance on the total volatility
+  private static final double ROOT_TWO_PI = Math.sqrt(2 * Math.PI);
 
   /**
    * The <b>forward</b> price of an option using the Black formula
@@ -962,6 +967,53 @@ public abstract class BlackFormulaRepository {
     return impliedVolatility(price / data.getDiscountFactor(), data.getForward(), data.getStrike(), data.getTimeToExpiry(), data.isCall());
   }
 
+  /**
+   * Get the log-normal (Black) implied volatilities of a set of European options, typically a whole option chain.
+   * <p>
+   * Each price is converted to the price of the out-the-money option and normalised by sqrt(forward * strike). The total volatility is
+   * found by a fixed maximum number of third order Householder steps, on the logarithm of the price below the inflection point of the
+   * normalised Black function and on the price above it, from a closed-form initial guess exact at the inflection point (P. Jaeckel,
+   * "By Implication", Wilmott 2006). The few options that do not converge are solved by {@link #impliedVolatility(double, double, double, double, double)}.
+   * <p>
+   * No exception is thrown for an individual option: if its price is not consistent with any volatility (or its data is invalid),
+   * the implied volatility is NaN and the failure flag is set.
+   * @param prices The <b>forward</b> prices, not null
+   * @param forwards The forwards, not null, same length as the prices
+   * @param strikes The strikes, not null, same length as the prices
+   * @param timesToExpiry The times to expiry, not null, same length as the prices
+   * @param isCall True for a call, false for a put, not null, same length as the prices
+   * @param impliedVols An array, the same length as the prices, filled with the implied volatilities. NaN for the failures.
+   * @param failed An array, the same length as the prices, filled with the failure flags
+   * @return The number of failures
+   */
+  public static int impliedVolatilities(final double[] prices, final double[] forwards, final double[] strikes, final double[] timesToExpiry, final boolean[] isCall,
+      final double[] impliedVols, final boolean[] failed) {
+    ArgumentChecker.notNull(prices, "prices");
+    ArgumentChecker.notNull(forwards, "forwards");
+    ArgumentChecker.notNull(strikes, "strikes");
+    ArgumentChecker.notNull(timesToExpiry, "timesToExpiry");
+    ArgumentChecker.notNull(isCall, "isCall");
+    ArgumentChecker.notNull(impliedVols, "impliedVols");
+    ArgumentChecker.notNull(failed, "failed");
+    final int n = prices.length;
+    ArgumentChecker.isTrue(forwards.length == n, "forwards length {} does not match prices length {}", forwards.length, n);
+    ArgumentChecker.isTrue(strikes.length == n, "strikes length {} does not match prices length {}", strikes.length, n);
+    ArgumentChecker.isTrue(timesToExpiry.length == n, "timesToExpiry length {} does not match prices length {}", timesToExpiry.length, n);
+    ArgumentChecker.isTrue(isCall.length == n, "isCall length {} does not match prices length {}", isCall.length, n);
+    ArgumentChecker.isTrue(impliedVols.length == n, "impliedVols length {} does not match prices length {}", impliedVols.length, n);
+    ArgumentChecker.isTrue(failed.length == n, "failed length {} does not match prices length {}", failed.length, n);
+    int nFailed = 0;
+    for (int i = 0; i < n; i++) {
+      final double vol = impliedVolatilityOrNaN(prices[i], forwards[i], strikes[i], timesToExpiry[i], isCall[i]);
+      impliedVols[i] = vol;
+      failed[i] = Double.isNaN(vol);
+      if (failed[i]) {
+        nFailed++;
+      }
+    }
+    return nFailed;
+  }
+
   /**
    * Find the single volatility for a portfolio of European options such that the sum of Black prices of the options (with that volatility)
    * equals the (market) price of the portfolio - this is the implied volatility of the portfolio. A concrete example is a cap (floor) which
@@ -1087,6 +1139,100 @@ public abstract class BlackFormulaRepository {
     return strike;
   }
 
+  /**
+   * The implied volatility of one option of {@link #impliedVolatilities}, NaN if there is none.
+   */
+  private static double impliedVolatilityOrNaN(final double price, final double forward, final double strike, final double timeToExpiry, final boolean isCall) {
+    if (!(price > 0.0 && forward > 0.0 && strike > 0.0 && timeToExpiry >= 0.0) || Double.isInfinite(forward) || Double.isInfinite(strike) || Double.isInfinite(timeToExpiry)) {
+      return Double.NaN;
+    }
+    final double otmPrice = price - Math.max(0., (isCall ? 1 : -1) * (forward - strike));
+    if (otmPrice == 0.0) {
+      return 0.0;
+    }
+    if (!(otmPrice > 0.0 && otmPrice < Math.min(forward, strike)) || timeToExpiry == 0.0) {
+      return Double.NaN;
+    }
+    final double rootT = Math.sqrt(timeToExpiry);
+    if (forward == strike) {
+      return NORMAL.getInverseCDF(0.5 * (otmPrice / forward + 1)) * 2 / rootT;
+    }
+    final double x = -Math.abs(Math.log(forward / strike));
+    final double sigmaRootT = normalisedImpliedVolatility(otmPrice / Math.sqrt(forward * strike), x);
+    if (!Double.isNaN(sigmaRootT)) {
+      return sigmaRootT / rootT;
+    }
+    try {
+      return impliedVolatility(otmPrice, forward, strike, timeToExpiry, 0.3);
+    } catch (final IllegalArgumentException | MathException e) {
+      s_logger.debug("No implied volatility for price {}, forward {}, strike {}, timeToExpiry {}: {}", new Object[] {price, forward, strike, timeToExpiry, e.getMessage() });
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * The total implied volatility of an out-the-money option from its normalised price.
+   * @param beta The normalised price, i.e. the out-the-money price divided by sqrt(forward * strike)
+   * @param x Minus the absolute value of the log-moneyness, negative
+   * @return The total volatility, NaN if the Householder steps have not converged
+   */
+  private static double normalisedImpliedVolatility(final double beta, final double x) {
+    final double sc = Math.sqrt(-2 * x); // inflection point of the normalised price
+    final double bc = normalisedPrice(x, sc);
+    final boolean lower = beta < bc;
+    double s;
+    if (lower) {
+      s = Math.sqrt(2 * x * x / (-x - 4 * Math.log(beta / bc)));
+    } else {
+      final double bMax = Math.exp(x / 2);
+      s = -2 * Probability.normalInverse((bMax - beta) / (bMax - bc) * Probability.normal(-sc / 2));
+    }
+    for (int i = 0; i < BULK_ITERATIONS; i++) {
+      if (!(s > 0.0) || Double.isInfinite(s)) {
+        return Double.NaN;
+      }
+      final double b = normalisedPrice(x, s);
+      final double vega = Math.exp(-x * x / (2 * s * s) - s * s / 8) / ROOT_TWO_PI;
+      final double vommaRatio = x * x / (s * s * s) - s / 4; // second derivative over vega
+      final double ultimaRatio = vommaRatio * vommaRatio - 3 * x * x / (s * s * s * s) - 0.25; // third derivative over vega
+      final double newton;
+      final double h2;
+      final double h3;
+      if (lower) {
+        // objective ln(b) - ln(beta)
+        final double d1 = vega / b;
+        final double d2 = d1 * vommaRatio - d1 * d1;
+        final double d3 = d1 * ultimaRatio - 3 * d1 * d1 * vommaRatio + 2 * d1 * d1 * d1;
+        newton = -Math.log(b / beta) / d1;
+        h2 = d2 / d1;
+        h3 = d3 / d1;
+      } else {
+        newton = -(b - beta) / vega;
+        h2 = vommaRatio;
+        h3 = ultimaRatio;
+      }
+      double ds = newton * (1 + 0.5 * h2 * newton) / (1 + h2 * newton + h3 * newton * newton / 6);
+      if (!(Math.abs(ds) < 10 * s)) {
+        ds = newton;
+      }
+      s += ds;
+      if (Math.abs(ds) < BULK_TOL * Math.max(1.0, s)) {
+        return s > 0.0 ? s : Double.NaN;
+      }
+    }
+    return Double.NaN;
+  }
+
+  /**
+   * The normalised Black price of an out-the-money call, i.e. the price divided by sqrt(forward * strike).
+   * @param x The log-moneyness, negative
+   * @param s The total volatility
+   * @return The normalised price
+   */
+  private static double normalisedPrice(final double x, final double s) {
+    return Math.exp(x / 2) * Probability.normal(x / s + s / 2) - Math.exp(-x / 2) * Probability.normal(x / s - s / 2);
+  }
+
   private static double[] priceAndVega(final double forward, final double strike, final double timeToExpiry, final double lognormalVol, final boolean isCall) {
     final double[] res = new double[2];
     res[0] = price(forward, strike, timeToExpiry, lognormalVol, isCall);
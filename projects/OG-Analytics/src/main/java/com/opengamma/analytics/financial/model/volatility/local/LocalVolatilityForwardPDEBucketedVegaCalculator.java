@@ -5,6 +5,12 @@
  */
 package com.opengamma.analytics.financial.model.volatility.local;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.analytics.financial.model.finitedifference.ConvectionDiffusionPDE1DCoefficients;
+import com.opengamma.analytics.financial.model.finitedifference.PDE1DDataBundle;
+import com.opengamma.analytics.financial.model.finitedifference.PDEGrid1D;
 import com.opengamma.analytics.financial.model.finitedifference.PDETerminalResults1D;
 import com.opengamma.analytics.financial.model.interestrate.curve.ForwardCurve;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
@@ -36,61 +42,39 @@ public class LocalVolatilityForwardPDEBucketedVegaCalculator {
 
   public double[][] getResult(final LocalVolatilitySurfaceMoneyness localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option,
       final StandardSmileSurfaceDataBundle marketData) {
+    final PDEGrid1D grid = _pdeCalculator.getPDEGrid(option);
+    return getResult(_pdeCalculator.getPDEData(localVolatility, option, grid), forwardCurve, option, marketData, grid);
+  }
+
+  public double[][] getResult(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option,
+      final StandardSmileSurfaceDataBundle marketData) {
+    final PDEGrid1D grid = _pdeCalculator.getPDEGrid(option);
+    return getResult(_pdeCalculator.getPDEData(localVolatility, forwardCurve, option, grid), forwardCurve, option, marketData, grid);
+  }
+
+  /**
+   * The base PDE and the PDEs of all the bumped surfaces are built on the same grid and solved as one batch.
+   */
+  private double[][] getResult(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> basePDE, final ForwardCurve forwardCurve,
+      final EuropeanVanillaOption option, final StandardSmileSurfaceDataBundle marketData, final PDEGrid1D grid) {
     final int n = marketData.getNumExpiries();
     final double[][] strikes = marketData.getStrikes();
-    final double expiry = option.getTimeToExpiry();
-    final double forward = forwardCurve.getForward(expiry);
-    final double x = option.getStrike() / forward;
-    final PDETerminalResults1D pdeGrid = _pdeCalculator.runPDESolver(localVolatility, option);
-    final int spaceSteps = _pdeCalculator.getNSpaceSteps();
-    final double[] xNodes = pdeGrid.getGrid().getSpaceNodes();
-    int index = SurfaceArrayUtils.getLowerBoundIndex(xNodes, x);
-    if (index >= 1) {
-      index--;
-    }
-    if (index >= spaceSteps - 1) {
-      index--;
-      if (index >= spaceSteps - 1) {
-        index--;
-      }
-    }
-    final double[] vols = new double[4];
-    final double[] moneyness = new double[4];
-    System.arraycopy(xNodes, index, moneyness, 0, 4);
-    for (int i = 0; i < 4; i++) {
-      vols[i] = BlackFormulaRepository.impliedVolatility(pdeGrid.getFunctionValue(index + i), 1.0, moneyness[i],
-          expiry, option.isCall());
-    }
-    Interpolator1DDataBundle db = _interpolator.getDataBundle(moneyness, vols);
-    final double exampleVol = _interpolator.interpolate(db, x);
-    final double[][] res = new double[n][];
+    final List<PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>> pdeData = new ArrayList<>();
+    pdeData.add(basePDE);
     for (int i = 0; i < n; i++) {
       final int m = strikes[i].length;
-      res[i] = new double[m];
       for (int j = 0; j < m; j++) {
         final BlackVolatilitySurfaceMoneyness bumpedSurface = _surfaceInterpolator.getBumpedVolatilitySurface(marketData, i, j, SHIFT);
         final LocalVolatilitySurfaceMoneyness bumpedLV = _dupireCalculator.getLocalVolatility(bumpedSurface);
-        final PDETerminalResults1D pdeResBumped = _pdeCalculator.runPDESolver(bumpedLV, option);
-        for (int k = 0; k < 4; k++) {
-          vols[k] = BlackFormulaRepository.impliedVolatility(pdeResBumped.getFunctionValue(index + k), 1.0, moneyness[k],
-              expiry, option.isCall());
-        }
-        db = _interpolator.getDataBundle(moneyness, vols);
-        final double vol = _interpolator.interpolate(db, x);
-        res[i][j] = (vol - exampleVol) / SHIFT;
+        pdeData.add(_pdeCalculator.getPDEData(bumpedLV, option, grid));
       }
     }
-    return res;
-  }
+    final PDETerminalResults1D[] pdeRes = _pdeCalculator.runPDESolvers(pdeData);
 
-  public double[][] getResult(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option,
-      final StandardSmileSurfaceDataBundle marketData) {
-    final int n = marketData.getNumExpiries();
-    final double[][] strikes = marketData.getStrikes();
     final double expiry = option.getTimeToExpiry();
     final double forward = forwardCurve.getForward(expiry);
     final double x = option.getStrike() / forward;
-    final PDETerminalResults1D pdeGrid = _pdeCalculator.runPDESolver(localVolatility, forwardCurve, option);
+    final PDETerminalResults1D pdeGrid = pdeRes[0];
     final int spaceSteps = _pdeCalculator.getNSpaceSteps();
     final double[] xNodes = pdeGrid.getGrid().getSpaceNodes();
     int index = SurfaceArrayUtils.getLowerBoundIndex(xNodes, x);
@@ -113,13 +97,12 @@ public class LocalVolatilityForwardPDEBucketedVegaCalculator {
     Interpolator1DDataBundle db = _interpolator.getDataBundle(moneyness, vols);
     final double exampleVol = _interpolator.interpolate(db, x);
     final double[][] res = new double[n][];
+    int bump = 1;
     for (int i = 0; i < n; i++) {
       final int m = strikes[i].length;
       res[i] = new double[m];
       for (int j = 0; j < m; j++) {
-        final BlackVolatilitySurfaceMoneyness bumpedSurface = _surfaceInterpolator.getBumpedVolatilitySurface(marketData, i, j, SHIFT);
-        final LocalVolatilitySurfaceMoneyness bumpedLV = _dupireCalculator.getLocalVolatility(bumpedSurface);
-        final PDETerminalResults1D pdeResBumped = _pdeCalculator.runPDESolver(bumpedLV, option);
+        final PDETerminalResults1D pdeResBumped = pdeRes[bump++];
         for (int k = 0; k < 4; k++) {
           vols[k] = BlackFormulaRepository.impliedVolatility(pdeResBumped.getFunctionValue(index + k), 1.0, moneyness[k],
               expiry, option.isCall());
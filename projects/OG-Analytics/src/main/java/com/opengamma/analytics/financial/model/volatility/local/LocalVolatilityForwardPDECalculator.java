@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.model.volatility.local;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.analytics.financial.model.finitedifference.BoundaryCondition;
 import com.opengamma.analytics.financial.model.finitedifference.ConvectionDiffusionPDE1DCoefficients;
 import com.opengamma.analytics.financial.model.finitedifference.DirichletBoundaryCondition;
@@ -32,7 +34,12 @@ public class LocalVolatilityForwardPDECalculator extends LocalVolatilityPDECalcu
 
   public LocalVolatilityForwardPDECalculator(final double theta, final int nTimeSteps, final int nSpaceSteps, final double timeMeshLambda, final double spaceMeshBunching,
       final double maxProxyDelta, final double centreMoneyness) {
-    super(theta);
+    this(theta, nTimeSteps, nSpaceSteps, timeMeshLambda, spaceMeshBunching, maxProxyDelta, centreMoneyness, null);
+  }
+
+  public LocalVolatilityForwardPDECalculator(final double theta, final int nTimeSteps, final int nSpaceSteps, final double timeMeshLambda, final double spaceMeshBunching,
+      final double maxProxyDelta, final double centreMoneyness, final ForkJoinPool pool) {
+    super(theta, pool);
     _nTimeSteps = nTimeSteps;
     _nSpaceSteps = nSpaceSteps;
     _timeMeshLambda = timeMeshLambda;
@@ -43,32 +50,48 @@ public class LocalVolatilityForwardPDECalculator extends LocalVolatilityPDECalcu
 
   @Override
   public PDETerminalResults1D runPDESolver(final LocalVolatilitySurfaceMoneyness localVolatility, final EuropeanVanillaOption option) {
-    final boolean isCall = option.isCall();
-    final double expiry = option.getTimeToExpiry();
-    final double minMoneyness = Math.exp(-_maxProxyDelta * Math.sqrt(expiry));
-    final double maxMoneyness = 1.0 / minMoneyness;
-    final PDEGrid1D grid = getGrid(getTimeMesh(expiry), getSpaceMesh(minMoneyness, maxMoneyness));
-    final BoundaryCondition lower = getLowerBoundaryCondition(option, minMoneyness);
-    final BoundaryCondition upper = getUpperBoundaryCondition(option, maxMoneyness);
-    final ConvectionDiffusionPDE1DCoefficients pde = getPDEProvider().getForwardLocalVol(localVolatility);
-    final Function1D<Double, Double> intCond = getInitialConditionProvider().getForwardCallPut(isCall);
-    final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> db = new PDE1DDataBundle<>(pde, intCond, lower, upper, grid);
-    return (PDETerminalResults1D) getSolver().solve(db);
+    return (PDETerminalResults1D) getSolver().solve(getPDEData(localVolatility, option, getPDEGrid(option)));
   }
 
   @Override
   public PDETerminalResults1D runPDESolver(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option) {
-    final boolean isCall = option.isCall();
+    return (PDETerminalResults1D) getSolver().solve(getPDEData(localVolatility, forwardCurve, option, getPDEGrid(option)));
+  }
+
+  /**
+   * The grid of the forward PDE for an option. PDEs built on the same grid object can be solved together by {@link #runPDESolvers}.
+   * @param option The option
+   * @return The grid
+   */
+  public PDEGrid1D getPDEGrid(final EuropeanVanillaOption option) {
     final double expiry = option.getTimeToExpiry();
-    final double minMoneyness = Math.exp(-_maxProxyDelta * Math.sqrt(expiry));
-    final double maxMoneyness = 1.0 / minMoneyness;
-    final PDEGrid1D grid = getGrid(getTimeMesh(expiry), getSpaceMesh(minMoneyness, maxMoneyness));
-    final BoundaryCondition lower = getLowerBoundaryCondition(option, minMoneyness);
-    final BoundaryCondition upper = getUpperBoundaryCondition(option, maxMoneyness);
-    final ConvectionDiffusionPDE1DCoefficients pde = getPDEProvider().getForwardLocalVol(forwardCurve, localVolatility);
-    final Function1D<Double, Double> intCond = getInitialConditionProvider().getForwardCallPut(isCall);
-    final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> db = new PDE1DDataBundle<>(pde, intCond, lower, upper, grid);
-    return (PDETerminalResults1D) getSolver().solve(db);
+    final double minMoneyness = getMinMoneyness(expiry);
+    return getGrid(getTimeMesh(expiry), getSpaceMesh(minMoneyness, 1.0 / minMoneyness));
+  }
+
+  /**
+   * The forward PDE for a local volatility surface parameterised by moneyness.
+   * @param localVolatility The local volatility surface
+   * @param option The option
+   * @param grid The grid, see {@link #getPDEGrid}
+   * @return The PDE data
+   */
+  public PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> getPDEData(final LocalVolatilitySurfaceMoneyness localVolatility, final EuropeanVanillaOption option,
+      final PDEGrid1D grid) {
+    return getPDEData(getPDEProvider().getForwardLocalVol(localVolatility), option, grid);
+  }
+
+  /**
+   * The forward PDE for a local volatility surface parameterised by strike.
+   * @param localVolatility The local volatility surface
+   * @param forwardCurve The forward curve
+   * @param option The option
+   * @param grid The grid, see {@link #getPDEGrid}
+   * @return The PDE data
+   */
+  public PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> getPDEData(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve,
+      final EuropeanVanillaOption option, final PDEGrid1D grid) {
+    return getPDEData(getPDEProvider().getForwardLocalVol(forwardCurve, localVolatility), option, grid);
   }
 
   public int getNTimeSteps() {
@@ -95,6 +118,20 @@ public class LocalVolatilityForwardPDECalculator extends LocalVolatilityPDECalcu
     return _centreMoneyness;
   }
 
+  private PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> getPDEData(final ConvectionDiffusionPDE1DCoefficients pde, final EuropeanVanillaOption option,
+      final PDEGrid1D grid) {
+    final double minMoneyness = getMinMoneyness(option.getTimeToExpiry());
+    final double maxMoneyness = 1.0 / minMoneyness;
+    final BoundaryCondition lower = getLowerBoundaryCondition(option, minMoneyness);
+    final BoundaryCondition upper = getUpperBoundaryCondition(option, maxMoneyness);
+    final Function1D<Double, Double> intCond = getInitialConditionProvider().getForwardCallPut(option.isCall());
+    return new PDE1DDataBundle<>(pde, intCond, lower, upper, grid);
+  }
+
+  private double getMinMoneyness(final double expiry) {
+    return Math.exp(-_maxProxyDelta * Math.sqrt(expiry));
+  }
+
   private MeshingFunction getTimeMesh(final double maxTime) {
     return new ExponentialMeshing(0.0, maxTime, _nTimeSteps, _timeMeshLambda);
   }
@@ -5,6 +5,12 @@
  */
 package com.opengamma.analytics.financial.model.volatility.local;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.analytics.financial.model.finitedifference.ConvectionDiffusionPDE1DCoefficients;
+import com.opengamma.analytics.financial.model.finitedifference.PDE1DDataBundle;
+import com.opengamma.analytics.financial.model.finitedifference.PDEGrid1D;
 import com.opengamma.analytics.financial.model.finitedifference.PDETerminalResults1D;
 import com.opengamma.analytics.financial.model.interestrate.curve.ForwardCurve;
 import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
@@ -35,13 +41,18 @@ public abstract class LocalVolatilityForwardPDEVolatilityGreeksGridCalculator im
     final LocalVolatilitySurfaceStrike localVolatilityDown = new LocalVolatilitySurfaceStrike(SurfaceShiftFunctionFactory.getShiftedSurface(lvStrike.getSurface(), -VOL_SHIFT, true));
     final ForwardCurve forwardCurveUp = forwardCurve.withFractionalShift(FWD_SHIFT);
     final ForwardCurve forwardCurveDown = forwardCurve.withFractionalShift(-FWD_SHIFT);
-    final PDETerminalResults1D pdeGrid = _pdeCalculator.runPDESolver(localVolatility, option);
-    final PDETerminalResults1D pdeGridUp = _pdeCalculator.runPDESolver(localVolatilityUp, forwardCurve, option);
-    final PDETerminalResults1D pdeGridDown = _pdeCalculator.runPDESolver(localVolatilityDown, forwardCurve, option);
-    final PDETerminalResults1D pdeGridUpUp = _pdeCalculator.runPDESolver(localVolatilityUp, forwardCurveUp, option);
-    final PDETerminalResults1D pdeGridUpDown = _pdeCalculator.runPDESolver(localVolatilityDown, forwardCurveUp, option);
-    final PDETerminalResults1D pdeGridDownUp = _pdeCalculator.runPDESolver(localVolatilityUp, forwardCurveDown, option);
-    final PDETerminalResults1D pdeGridDownDown = _pdeCalculator.runPDESolver(localVolatilityDown, forwardCurveDown, option);
+    final PDEGrid1D grid = _pdeCalculator.getPDEGrid(option);
+    final List<PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>> pdeData = new ArrayList<>(7);
+    pdeData.add(_pdeCalculator.getPDEData(localVolatility, option, grid));
+    addBumpedPDEData(pdeData, localVolatilityUp, localVolatilityDown, forwardCurve, forwardCurveUp, forwardCurveDown, option, grid);
+    final PDETerminalResults1D[] res = _pdeCalculator.runPDESolvers(pdeData);
+    final PDETerminalResults1D pdeGrid = res[0];
+    final PDETerminalResults1D pdeGridUp = res[1];
+    final PDETerminalResults1D pdeGridDown = res[2];
+    final PDETerminalResults1D pdeGridUpUp = res[3];
+    final PDETerminalResults1D pdeGridUpDown = res[4];
+    final PDETerminalResults1D pdeGridDownUp = res[5];
+    final PDETerminalResults1D pdeGridDownDown = res[6];
     final int n = pdeGrid.getNumberSpaceNodes();
     final double expiry = option.getTimeToExpiry();
     final double forward = forwardCurve.getForward(expiry);
@@ -70,13 +81,18 @@ public abstract class LocalVolatilityForwardPDEVolatilityGreeksGridCalculator im
     final LocalVolatilitySurfaceStrike localVolatilityDown = new LocalVolatilitySurfaceStrike(SurfaceShiftFunctionFactory.getShiftedSurface(localVolatility.getSurface(), -VOL_SHIFT, true));
     final ForwardCurve forwardCurveUp = forwardCurve.withFractionalShift(FWD_SHIFT);
     final ForwardCurve forwardCurveDown = forwardCurve.withFractionalShift(-FWD_SHIFT);
-    final PDETerminalResults1D pdeGrid = _pdeCalculator.runPDESolver(localVolatility, forwardCurve, option);
-    final PDETerminalResults1D pdeGridUp = _pdeCalculator.runPDESolver(localVolatilityUp, forwardCurve, option);
-    final PDETerminalResults1D pdeGridDown = _pdeCalculator.runPDESolver(localVolatilityDown, forwardCurve, option);
-    final PDETerminalResults1D pdeGridUpUp = _pdeCalculator.runPDESolver(localVolatilityUp, forwardCurveUp, option);
-    final PDETerminalResults1D pdeGridUpDown = _pdeCalculator.runPDESolver(localVolatilityDown, forwardCurveUp, option);
-    final PDETerminalResults1D pdeGridDownUp = _pdeCalculator.runPDESolver(localVolatilityUp, forwardCurveDown, option);
-    final PDETerminalResults1D pdeGridDownDown = _pdeCalculator.runPDESolver(localVolatilityDown, forwardCurveDown, option);
+    final PDEGrid1D grid = _pdeCalculator.getPDEGrid(option);
+    final List<PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>> pdeData = new ArrayList<>(7);
+    pdeData.add(_pdeCalculator.getPDEData(localVolatility, forwardCurve, option, grid));
+    addBumpedPDEData(pdeData, localVolatilityUp, localVolatilityDown, forwardCurve, forwardCurveUp, forwardCurveDown, option, grid);
+    final PDETerminalResults1D[] res = _pdeCalculator.runPDESolvers(pdeData);
+    final PDETerminalResults1D pdeGrid = res[0];
+    final PDETerminalResults1D pdeGridUp = res[1];
+    final PDETerminalResults1D pdeGridDown = res[2];
+    final PDETerminalResults1D pdeGridUpUp = res[3];
+    final PDETerminalResults1D pdeGridUpDown = res[4];
+    final PDETerminalResults1D pdeGridDownUp = res[5];
+    final PDETerminalResults1D pdeGridDownDown = res[6];
     final int n = pdeGrid.getNumberSpaceNodes();
     final double expiry = option.getTimeToExpiry();
     final double forward = forwardCurve.getForward(expiry);
@@ -90,6 +106,20 @@ public abstract class LocalVolatilityForwardPDEVolatilityGreeksGridCalculator im
     return _interpolator.getDataBundleFromSortedArrays(strikes, greeks);
   }
 
+  /**
+   * Adds the six bumped PDEs (up, down, up-up, up-down, down-up, down-down) on the base grid, so that they are solved with the base PDE as one batch.
+   */
+  private void addBumpedPDEData(final List<PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>> pdeData, final LocalVolatilitySurfaceStrike localVolatilityUp,
+      final LocalVolatilitySurfaceStrike localVolatilityDown, final ForwardCurve forwardCurve, final ForwardCurve forwardCurveUp, final ForwardCurve forwardCurveDown,
+      final EuropeanVanillaOption option, final PDEGrid1D grid) {
+    pdeData.add(_pdeCalculator.getPDEData(localVolatilityUp, forwardCurve, option, grid));
+    pdeData.add(_pdeCalculator.getPDEData(localVolatilityDown, forwardCurve, option, grid));
+    pdeData.add(_pdeCalculator.getPDEData(localVolatilityUp, forwardCurveUp, option, grid));
+    pdeData.add(_pdeCalculator.getPDEData(localVolatilityDown, forwardCurveUp, option, grid));
+    pdeData.add(_pdeCalculator.getPDEData(localVolatilityUp, forwardCurveDown, option, grid));
+    pdeData.add(_pdeCalculator.getPDEData(localVolatilityDown, forwardCurveDown, option, grid));
+  }
+
   protected abstract double getResultForMoneyness(final PDETerminalResults1D pdeGrid, final PDETerminalResults1D pdeGridUp, final PDETerminalResults1D pdeGridDown,
       final PDETerminalResults1D pdeGridUpUp, final PDETerminalResults1D pdeGridUpDown, final PDETerminalResults1D pdeGridDownUp, final PDETerminalResults1D pdeGridDownDown,
       final int index, final double forward, final EuropeanVanillaOption option);
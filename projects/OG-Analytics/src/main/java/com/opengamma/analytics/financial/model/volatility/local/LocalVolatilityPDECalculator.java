@@ -5,8 +5,14 @@
  */
 package com.opengamma.analytics.financial.model.volatility.local;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.opengamma.analytics.financial.model.finitedifference.ConvectionDiffusionPDE1DCoefficients;
 import com.opengamma.analytics.financial.model.finitedifference.MeshingFunction;
+import com.opengamma.analytics.financial.model.finitedifference.PDE1DDataBundle;
 import com.opengamma.analytics.financial.model.finitedifference.PDEGrid1D;
+import com.opengamma.analytics.financial.model.finitedifference.PDEResults1D;
 import com.opengamma.analytics.financial.model.finitedifference.PDETerminalResults1D;
 import com.opengamma.analytics.financial.model.finitedifference.ThetaMethodFiniteDifference;
 import com.opengamma.analytics.financial.model.finitedifference.applications.InitialConditionsProvider;
@@ -21,17 +27,41 @@ public abstract class LocalVolatilityPDECalculator {
   private final PDE1DCoefficientsProvider _pdeProvider;
   private final InitialConditionsProvider _initialCondProvider;
   private final ThetaMethodFiniteDifference _solver;
+  private final ForkJoinPool _pool;
 
   public LocalVolatilityPDECalculator(final double theta) {
+    this(theta, null);
+  }
+
+  /**
+   * @param theta The theta of the finite difference scheme
+   * @param pool The fork/join pool used to solve batches of PDEs in parallel, null to solve them sequentially
+   */
+  public LocalVolatilityPDECalculator(final double theta, final ForkJoinPool pool) {
     _pdeProvider = new PDE1DCoefficientsProvider();
     _initialCondProvider = new InitialConditionsProvider();
     _solver = new ThetaMethodFiniteDifference(theta, false);
+    _pool = pool;
   }
 
   public abstract PDETerminalResults1D runPDESolver(final LocalVolatilitySurfaceMoneyness localVolatility, final EuropeanVanillaOption option);
 
   public abstract PDETerminalResults1D runPDESolver(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option);
 
+  /**
+   * Solves a batch of PDEs sharing the same grid (typically a base and bumped scenarios), in parallel if a fork/join pool was provided.
+   * @param pdeData The PDEs, all on the same {@link PDEGrid1D} object
+   * @return The terminal results, in the order of the PDEs
+   */
+  public PDETerminalResults1D[] runPDESolvers(final List<PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>> pdeData) {
+    final PDEResults1D[] res = _solver.solve(pdeData, _pool);
+    final PDETerminalResults1D[] terminal = new PDETerminalResults1D[res.length];
+    for (int i = 0; i < res.length; i++) {
+      terminal[i] = (PDETerminalResults1D) res[i];
+    }
+    return terminal;
+  }
+
   protected PDEGrid1D getGrid(final MeshingFunction timeMesh, final MeshingFunction spaceMesh) {
     return new PDEGrid1D(timeMesh, spaceMesh);
   }
@@ -47,4 +77,8 @@ public abstract class LocalVolatilityPDECalculator {
   protected InitialConditionsProvider getInitialConditionProvider() {
     return _initialCondProvider;
   }
+
+  protected ForkJoinPool getPool() {
+    return _pool;
+  }
 }
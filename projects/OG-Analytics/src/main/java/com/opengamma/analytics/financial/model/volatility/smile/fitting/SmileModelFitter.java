@@ -38,6 +38,9 @@ public abstract class SmileModelFitter<T extends SmileModelData> {
   };
 
   private final VolatilityFunctionProvider<T> _model;
+  private final double _forward;
+  private final double[] _strikes;
+  private final double _timeToExpiry;
   private final Function1D<T, double[]> _volFunc;
   private final Function1D<T, double[][]> _volAdjointFunc;
   private final DoubleMatrix1D _marketValues;
@@ -63,6 +66,9 @@ public abstract class SmileModelFitter<T extends SmileModelData> {
     Validate.isTrue(n == impliedVols.length, "vols not the same length as strikes");
     Validate.isTrue(n == error.length, "errors not the same length as strikes");
 
+    _forward = forward;
+    _strikes = strikes.clone();
+    _timeToExpiry = timeToExpiry;
     _marketValues = new DoubleMatrix1D(impliedVols);
     _errors = new DoubleMatrix1D(error);
 
@@ -149,4 +155,24 @@ public abstract class SmileModelFitter<T extends SmileModelData> {
     return _model;
   }
 
+  public double getForward() {
+    return _forward;
+  }
+
+  public double[] getStrikes() {
+    return _strikes;
+  }
+
+  public double getTimeToExpiry() {
+    return _timeToExpiry;
+  }
+
+  public DoubleMatrix1D getMarketValues() {
+    return _marketValues;
+  }
+
+  public DoubleMatrix1D getErrors() {
+    return _errors;
+  }
+
 }
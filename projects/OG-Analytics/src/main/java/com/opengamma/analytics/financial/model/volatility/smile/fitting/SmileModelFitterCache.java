@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.volatility.smile.fitting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+
+import com.opengamma.analytics.math.MathException;
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.analytics.math.statistics.leastsquare.LeastSquareResultsWithTransform;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.ForkJoinUtils;
+
+/**
+ * Fits smiles with a {@link SmileModelFitter}, keeping the last calibrated parameters of each smile (for example each expiry/tenor node of
+ * a swaption cube) with the market data they were fitted to.
+ * <p>
+ * When a smile is fitted again with the same strikes, expiry, errors and fixed parameters, and with a forward and implied volatilities which
+ * have moved by less than the tolerances since the last fit, the cached result is returned without fitting. Otherwise the fit starts from the
+ * last calibrated parameters (warm start), the fixed parameters being taken from the caller's start; if the warm-started fit fails, it is
+ * attempted again from the caller's start.
+ * <p>
+ * The smiles of a batch are independent and are fitted in parallel when a fork/join pool is provided. The class is thread-safe.
+ * @param <K> The type of the key identifying a smile
+ */
+public class SmileModelFitterCache<K> {
+  /**
+   * The maximum absolute change of each implied volatility for which the fit is skipped.
+   */
+  private final double _volTolerance;
+  /**
+   * The maximum relative change of the forward for which the fit is skipped.
+   */
+  private final double _forwardTolerance;
+  /**
+   * The pool used to fit batches of smiles in parallel. Null for sequential fitting.
+   */
+  private final ForkJoinPool _pool;
+  /**
+   * The last fit of each smile.
+   */
+  private final ConcurrentMap<K, CachedFit> _fits = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a cache fitting the smiles sequentially.
+   * @param volTolerance The maximum absolute change of each implied volatility for which the fit is skipped, not negative
+   * @param forwardTolerance The maximum relative change of the forward for which the fit is skipped, not negative
+   */
+  public SmileModelFitterCache(final double volTolerance, final double forwardTolerance) {
+    this(volTolerance, forwardTolerance, null);
+  }
+
+  /**
+   * @param volTolerance The maximum absolute change of each implied volatility for which the fit is skipped, not negative
+   * @param forwardTolerance The maximum relative change of the forward for which the fit is skipped, not negative
+   * @param pool The fork/join pool used to fit batches of smiles in parallel, null to fit them sequentially
+   */
+  public SmileModelFitterCache(final double volTolerance, final double forwardTolerance, final ForkJoinPool pool) {
+    ArgumentChecker.notNegative(volTolerance, "vol tolerance");
+    ArgumentChecker.notNegative(forwardTolerance, "forward tolerance");
+    _volTolerance = volTolerance;
+    _forwardTolerance = forwardTolerance;
+    _pool = pool;
+  }
+
+  /**
+   * Fits one smile.
+   * @param key The key of the smile, not null
+   * @param fitter The fitter, holding the market data of the smile, not null
+   * @param start The start of a fit without cached parameters, and the values of the fixed parameters, not null
+   * @param fixed The parameters fixed to their start values, not null
+   * @return The result of the fit
+   */
+  public LeastSquareResultsWithTransform solve(final K key, final SmileModelFitter<?> fitter, final DoubleMatrix1D start, final BitSet fixed) {
+    ArgumentChecker.notNull(key, "key");
+    ArgumentChecker.notNull(fitter, "fitter");
+    ArgumentChecker.notNull(start, "start");
+    ArgumentChecker.notNull(fixed, "fixed");
+    final CachedFit cached = _fits.get(key);
+    if (cached != null && cached.isCompatible(fitter, start, fixed)) {
+      if (cached.isWithinTolerance(fitter, _volTolerance, _forwardTolerance)) {
+        return cached.getResult();
+      }
+      final double[] warmStart = cached.getResult().getModelParameters().toArray();
+      for (int i = fixed.nextSetBit(0); i >= 0; i = fixed.nextSetBit(i + 1)) {
+        warmStart[i] = start.getEntry(i);
+      }
+      try {
+        return fit(key, fitter, new DoubleMatrix1D(warmStart), start, fixed);
+      } catch (final MathException e) {
+        // fall through to the caller's start
+      }
+    }
+    return fit(key, fitter, start, start, fixed);
+  }
+
+  /**
+   * Fits a batch of independent smiles, in parallel if a fork/join pool was provided.
+   * @param fitters The fitters by smile key, not null
+   * @param start The start of a fit without cached parameters, and the values of the fixed parameters, not null
+   * @param fixed The parameters fixed to their start values, not null
+   * @return The results of the fits, in the iteration order of the fitters
+   */
+  public Map<K, LeastSquareResultsWithTransform> solve(final Map<K, ? extends SmileModelFitter<?>> fitters, final DoubleMatrix1D start, final BitSet fixed) {
+    return solve(fitters, start, fixed, _pool);
+  }
+
+  /**
+   * Fits a batch of independent smiles, in parallel if a fork/join pool is provided.
+   * @param fitters The fitters by smile key, not null
+   * @param start The start of a fit without cached parameters, and the values of the fixed parameters, not null
+   * @param fixed The parameters fixed to their start values, not null
+   * @param pool The fork/join pool used to fit the smiles in parallel, null to fit them sequentially
+   * @return The results of the fits, in the iteration order of the fitters
+   */
+  public Map<K, LeastSquareResultsWithTransform> solve(final Map<K, ? extends SmileModelFitter<?>> fitters, final DoubleMatrix1D start, final BitSet fixed,
+      final ForkJoinPool pool) {
+    ArgumentChecker.notNull(fitters, "fitters");
+    final List<K> keys = new ArrayList<>(fitters.keySet());
+    final int n = keys.size();
+    final LeastSquareResultsWithTransform[] results = new LeastSquareResultsWithTransform[n];
+    ForkJoinUtils.invokeAll(pool, n, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int index) {
+        results[index] = solve(keys.get(index), fitters.get(keys.get(index)), start, fixed);
+      }
+    });
+    final Map<K, LeastSquareResultsWithTransform> res = new LinkedHashMap<>();
+    for (int i = 0; i < n; i++) {
+      res.put(keys.get(i), results[i]);
+    }
+    return res;
+  }
+
+  /**
+   * Removes the cached fit of a smile.
+   * @param key The key of the smile
+   */
+  public void remove(final K key) {
+    _fits.remove(key);
+  }
+
+  /**
+   * Removes all the cached fits.
+   */
+  public void clear() {
+    _fits.clear();
+  }
+
+  /**
+   * Gets the number of cached fits.
+   * @return The number of smiles with a cached fit
+   */
+  public int size() {
+    return _fits.size();
+  }
+
+  private LeastSquareResultsWithTransform fit(final K key, final SmileModelFitter<?> fitter, final DoubleMatrix1D fitStart, final DoubleMatrix1D start, final BitSet fixed) {
+    final LeastSquareResultsWithTransform result = fitter.solve(fitStart, fixed);
+    _fits.put(key, new CachedFit(fitter, start, fixed, result));
+    return result;
+  }
+
+  /**
+   * The result of a fit with the data it was fitted to.
+   */
+  private static final class CachedFit {
+    private final Class<?> _fitterClass;
+    private final double _forward;
+    private final double[] _strikes;
+    private final double _timeToExpiry;
+    private final double[] _vols;
+    private final double[] _errors;
+    private final double[] _start;
+    private final BitSet _fixed;
+    private final LeastSquareResultsWithTransform _result;
+
+    CachedFit(final SmileModelFitter<?> fitter, final DoubleMatrix1D start, final BitSet fixed, final LeastSquareResultsWithTransform result) {
+      _fitterClass = fitter.getClass();
+      _forward = fitter.getForward();
+      _strikes = fitter.getStrikes().clone();
+      _timeToExpiry = fitter.getTimeToExpiry();
+      _vols = fitter.getMarketValues().toArray();
+      _errors = fitter.getErrors().toArray();
+      _start = start.toArray();
+      _fixed = (BitSet) fixed.clone();
+      _result = result;
+    }
+
+    LeastSquareResultsWithTransform getResult() {
+      return _result;
+    }
+
+    /**
+     * The same model, strikes, expiry, errors and fixed parameters: the cached parameters can be used as a start.
+     */
+    boolean isCompatible(final SmileModelFitter<?> fitter, final DoubleMatrix1D start, final BitSet fixed) {
+      if (fitter.getClass() != _fitterClass || fitter.getTimeToExpiry() != _timeToExpiry || start.getNumberOfElements() != _start.length || !fixed.equals(_fixed)
+          || !Arrays.equals(fitter.getStrikes(), _strikes) || !Arrays.equals(fitter.getErrors().getData(), _errors)) {
+        return false;
+      }
+      for (int i = fixed.nextSetBit(0); i >= 0; i = fixed.nextSetBit(i + 1)) {
+        if (start.getEntry(i) != _start[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * The forward and the implied volatilities have moved by less than the tolerances: the cached result can be used.
+     */
+    boolean isWithinTolerance(final SmileModelFitter<?> fitter, final double volTolerance, final double forwardTolerance) {
+      if (!(Math.abs(fitter.getForward() - _forward) <= forwardTolerance * Math.abs(_forward))) {
+        return false;
+      }
+      final double[] vols = fitter.getMarketValues().getData();
+      for (int i = 0; i < vols.length; i++) {
+        if (!(Math.abs(vols[i] - _vols[i]) <= volTolerance)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+}
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.montecarlo.provider;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.model.interestrate.G2ppPiecewiseConstantModel;
 import com.opengamma.analytics.financial.model.interestrate.definition.G2ppPiecewiseConstantParameters;
@@ -51,18 +53,35 @@ public class G2ppMonteCarloMethod extends MonteCarloMethod {
    */
   private static final int BLOCK_SIZE = 1000;
 
+  /**
+   * Flag indicating if the present value uses the underlying of the first decision date as control variate.
+   */
+  private final boolean _controlVariate;
+
   /**
    * @param numberGenerator The random number generator.
    * @param nbPath The number of paths.
    */
   public G2ppMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath) {
-    super(numberGenerator, nbPath);
+    this(numberGenerator, nbPath, null, false);
+  }
+
+  /**
+   * @param numberGenerator The random number generator.
+   * @param nbPath The number of paths.
+   * @param pool The fork/join pool used to compute the blocks of paths in parallel. Only used if the generator provides substreams. May be null.
+   * @param controlVariate Flag indicating if the present value uses the underlying of the first decision date as control variate.
+   */
+  public G2ppMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final ForkJoinPool pool, final boolean controlVariate) {
+    super(numberGenerator, nbPath, pool);
+    _controlVariate = controlVariate;
   }
 
   /**
    * Computes the present value in the G2++ two factors model by Monte-Carlo.
    * Implementation note: The total number of paths is divided in blocks of maximum size BLOCK_SIZE=1000. The Monte Carlo is run on each block and the average of each
-   * block price is the total price. 
+   * block price is the total price. The blocks are computed in parallel if the generator provides substreams and a pool is available.
+   * With the control variate, the simulated value of the underlying of the first decision date (whose expectation is known) is used as control.
    * @param instrument The swaption.
    * @param ccy The currency
    * @param g2Data The G2++ data (curves and G2++ parameters).
@@ -119,43 +138,43 @@ public class G2ppMonteCarloMethod extends MonteCarloMethod {
     final CholeskyDecompositionCommons cd = new CholeskyDecompositionCommons();
     final CholeskyDecompositionResult cdr = cd.evaluate(new DoubleMatrix2D(cov));
     final double[][] covCD = cdr.getL().getData();
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
     final double[][] impactAmount = decision.getImpactAmount();
-    double pv = 0;
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(2 * nbJump, nbPath2[loopblock]);
-      final double[][] y = new double[2 * nbJump][nbPath2[loopblock]]; // jump/path
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-        for (int i = 0; i < 2 * nbJump; i++) {
-          for (int j = 0; j < 2 * nbJump; j++) {
-            y[i][looppath] += x[j][looppath] * covCD[i][j];
+    final double[][] blockResults = evaluateBlocks(new BlockCalculator() {
+      @Override
+      public double[] evaluate(final RandomNumberGenerator numberGenerator, final int nbPath) {
+        final double[][] x = getNormalArray(numberGenerator, 2 * nbJump, nbPath);
+        final double[][] y = new double[2 * nbJump][nbPath]; // jump/path
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          for (int i = 0; i < 2 * nbJump; i++) {
+            for (int j = 0; j < 2 * nbJump; j++) {
+              y[i][looppath] += x[j][looppath] * covCD[i][j];
+            }
           }
         }
+        final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, tau2);
+        final double pvBlock = instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath;
+        if (!_controlVariate) {
+          return new double[] {pvBlock };
+        }
+        return new double[] {pvBlock, underlyingSum(pD, impactAmount[0]) };
       }
-      final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, tau2);
-      pv += instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath2[loopblock];
+    }, BLOCK_SIZE);
+    double pv;
+    if (_controlVariate) {
+      pv = sumBlocksControlVariate(blockResults, getBlockNbPath(BLOCK_SIZE), underlyingExpectation(pDI[0], impactAmount[0]));
+    } else {
+      pv = sumBlocks(blockResults);
     }
     pv *= pDN / getNbPath(); // Multiply by the numeraire.
     return MultipleCurrencyAmount.of(ccy, pv);
   }
 
   /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
-   * @param nbPath The number of paths.
-   * @return The array of variables.
+   * Gets the flag indicating if the present value uses a control variate.
+   * @return The flag.
    */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
-    }
-    return result;
+  public boolean isControlVariate() {
+    return _controlVariate;
   }
 
   /**
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.model.interestrate.HullWhiteOneFactorPiecewiseConstantInterestRateModel;
@@ -61,18 +62,35 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
    */
   private static final int BLOCK_SIZE = 1000;
 
+  /**
+   * Flag indicating if the present value uses the underlying of the first decision date as control variate.
+   */
+  private final boolean _controlVariate;
+
   /**
    * @param numberGenerator The random number generator.
    * @param nbPath The number of paths.
    */
   public HullWhiteMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath) {
-    super(numberGenerator, nbPath);
+    this(numberGenerator, nbPath, null, false);
+  }
+
+  /**
+   * @param numberGenerator The random number generator.
+   * @param nbPath The number of paths.
+   * @param pool The fork/join pool used to compute the blocks of paths in parallel. Only used if the generator provides substreams. May be null.
+   * @param controlVariate Flag indicating if the present value uses the underlying of the first decision date as control variate.
+   */
+  public HullWhiteMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final ForkJoinPool pool, final boolean controlVariate) {
+    super(numberGenerator, nbPath, pool);
+    _controlVariate = controlVariate;
   }
 
   /**
    * Computes the present value in the Hull-White one factor model by Monte-Carlo.
    * Implementation note: The total number of paths is divided in blocks of maximum size BLOCK_SIZE=1000. The Monte Carlo is run on each block and the average of each
-   * block price is the total price.
+   * block price is the total price. The blocks are computed in parallel if the generator provides substreams and a pool is available.
+   * With the control variate, the simulated value of the underlying of the first decision date (whose expectation is known) is used as control.
    * @param instrument The swaption.
    * @param ccy The currency.
    * @param hwData The Hull-White data (curves and Hull-White parameters).
@@ -136,31 +154,45 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
         covCD[loopjump + nbZero][loopjump2 + nbZero] = covCD2[loopjump][loopjump2];
       }
     }
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
     final double[][] impactAmount = decision.getImpactAmount();
-    double pv = 0;
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(nbJump, nbPath2[loopblock]);
-      final double[][] y = new double[nbJump][nbPath2[loopblock]]; // jump/path
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-        for (int i = 0; i < nbJump; i++) {
-          for (int j = 0; j < nbJump; j++) {
-            y[i][looppath] += x[j][looppath] * covCD[i][j];
+    final double[][] blockResults = evaluateBlocks(new BlockCalculator() {
+      @Override
+      public double[] evaluate(final RandomNumberGenerator numberGenerator, final int nbPath) {
+        final double[][] x = getNormalArray(numberGenerator, nbJump, nbPath);
+        final double[][] y = new double[nbJump][nbPath]; // jump/path
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          for (int i = 0; i < nbJump; i++) {
+            for (int j = 0; j < nbJump; j++) {
+              y[i][looppath] += x[j][looppath] * covCD[i][j];
+            }
           }
         }
+        final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, h2, gamma);
+        final double pvBlock = instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath;
+        if (!_controlVariate) {
+          return new double[] {pvBlock };
+        }
+        return new double[] {pvBlock, underlyingSum(pD, impactAmount[0]) };
       }
-      final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, h2, gamma);
-      pv += instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath2[loopblock];
+    }, BLOCK_SIZE);
+    double pv;
+    if (_controlVariate) {
+      pv = sumBlocksControlVariate(blockResults, getBlockNbPath(BLOCK_SIZE), underlyingExpectation(pDI[0], impactAmount[0]));
+    } else {
+      pv = sumBlocks(blockResults);
     }
     pv *= pDN / getNbPath(); // Multiply by the numeraire.
     return MultipleCurrencyAmount.of(ccy, pv);
   }
 
+  /**
+   * Gets the flag indicating if the present value uses a control variate.
+   * @return The flag.
+   */
+  public boolean isControlVariate() {
+    return _controlVariate;
+  }
+
   /**
    * Computes the present value curve sensitivity in the Hull-White one factor model by Monte-Carlo. The sensitivity is computed by Adjoint Algorithmic Differentiation.
    * Implementation note: The total number of paths is divided in blocks of maximum size BLOCK_SIZE=1000. The Monte Carlo is run on each block and the average of each
@@ -228,12 +260,8 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
         covCD[loopjump + nbZero][loopjump2 + nbZero] = covCD2[loopjump][loopjump2];
       }
     }
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
+    final int[] nbPath2 = getBlockNbPath(BLOCK_SIZE);
+    final int nbBlock = nbPath2.length;
     final double[][] impactAmount = decision.getImpactAmount();
     double pv = 0;
     final double[] pvBlock = new double[nbBlock];
@@ -253,7 +281,7 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
       pDIBar[loopjump] = new double[impactAmount[loopjump].length];
     }
     for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(nbJump, nbPath2[loopblock]);
+      final double[][] x = getNormalArray(getBlockNumberGenerator(loopblock, BLOCK_SIZE), nbJump, nbPath2[loopblock]);
       final double[][] y = new double[nbJump][nbPath2[loopblock]]; // jump/path
       for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
         for (int i = 0; i < nbJump; i++) {
@@ -320,20 +348,6 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
     return MultipleCurrencyMulticurveSensitivity.of(ccy, result);
   }
 
-  /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
-   * @param nbPath The number of paths.
-   * @return The array of variables.
-   */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
-    }
-    return result;
-  }
-
   /**
    * Construct the discount factors on the simulated paths from the random variables and the model constants.
    * @param initDiscountFactor The initial discount factors.
@@ -6,6 +6,7 @@
 package com.opengamma.analytics.financial.montecarlo.provider;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.model.interestrate.definition.LiborMarketModelDisplacedDiffusionParameters;
@@ -64,10 +65,30 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
    * @param maxJump The maximum length of a jump in the path generation.
    */
   public LiborMarketModelMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final double maxJump) {
-    super(numberGenerator, nbPath);
+    this(numberGenerator, nbPath, maxJump, null);
+  }
+
+  /**
+   * Constructor.
+   * @param numberGenerator The random number generator. Generate Normally distributed numbers.
+   * @param nbPath The number of paths.
+   * @param maxJump The maximum length of a jump in the path generation.
+   * @param pool The fork/join pool used to compute the blocks of paths in parallel. Only used if the generator provides substreams. May be null.
+   */
+  public LiborMarketModelMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final double maxJump, final ForkJoinPool pool) {
+    super(numberGenerator, nbPath, pool);
     _maxJump = maxJump;
   }
 
+  /**
+   * Computes the present value in the Libor Market Model by Monte-Carlo.
+   * Implementation note: The total number of paths is divided in blocks of maximum size BLOCK_SIZE=1000. The blocks are computed in parallel
+   * if the generator provides substreams and a pool is available.
+   * @param instrument The instrument.
+   * @param ccy The currency.
+   * @param lmmData The LMM data (curves and LMM parameters).
+   * @return The present value.
+   */
   public MultipleCurrencyAmount presentValue(final InstrumentDerivative instrument, final Currency ccy, final LiborMarketModelDisplacedDiffusionProvider lmmData) {
     final MulticurveProviderInterface multicurves = lmmData.getMulticurveProvider();
     final LiborMarketModelDisplacedDiffusionParameters parameters = lmmData.getLMMParameters();
@@ -86,24 +107,25 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
       initL[loopper] = (dfL[loopper] / dfL[loopper + 1] - 1.0) / deltaLMM[loopper];
     }
 
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
+    // The rate covariance does not depend on the path: computed once for all blocks.
+    final DoubleMatrix2D gammaLMM = new DoubleMatrix2D(parameters.getVolatility());
+    final MatrixAlgebra algebra = new CommonsMatrixAlgebra();
+    final DoubleMatrix2D s = (DoubleMatrix2D) algebra.multiply(gammaLMM, algebra.getTranspose(gammaLMM));
 
-    double price = 0.0;
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] initLPath = new double[nbPeriodLMM][nbPath2[loopblock]];
-      for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
-        for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-          initLPath[loopper][looppath] = initL[loopper];
+    final double[][] blockResults = evaluateBlocks(new BlockCalculator() {
+      @Override
+      public double[] evaluate(final RandomNumberGenerator numberGenerator, final int nbPath) {
+        final double[][] initLPath = new double[nbPeriodLMM][nbPath];
+        for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
+          for (int looppath = 0; looppath < nbPath; looppath++) {
+            initLPath[loopper][looppath] = initL[loopper];
+          }
         }
+        final double[][][] pathIbor = pathgeneratorlibor(numberGenerator, decision.getDecisionTime(), initLPath, parameters, gammaLMM, s);
+        return new double[] {instrument.accept(MCC, new MonteCarloIborRateDataBundle(pathIbor, deltaLMM, decision.getImpactAmount(), impactIndex)) };
       }
-      final double[][][] pathIbor = pathgeneratorlibor(decision.getDecisionTime(), initLPath, parameters);
-      price += instrument.accept(MCC, new MonteCarloIborRateDataBundle(pathIbor, deltaLMM, decision.getImpactAmount(), impactIndex));
-    }
+    }, BLOCK_SIZE);
+    double price = sumBlocks(blockResults);
     price *= multicurves.getDiscountFactor(ccy, parameters.getIborTime()[parameters.getIborTime().length - 1]) / getNbPath();
     return MultipleCurrencyAmount.of(ccy, price);
   }
@@ -121,18 +143,20 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
 
   /**
    * Create one step in the LMM diffusion. The step is done through several jump times. The diffusion is approximated with a predictor-corrector approach.
+   * @param numberGenerator The random number generator.
    * @param jumpTime The jump times.
    * @param initIbor Rate at the start of the period. Size: nbPeriodLMM x nbPath.
+   * @param lmm The LMM parameters.
+   * @param gammaLMM The LMM volatilities. Size: nbPeriodLMM x nbFactorLMM.
+   * @param s The rate covariance, gammaLMM x gammaLMM^T.
    * @return The Ibor rates at the end of the jump period. Size: nbPeriodLMM x nbPath.
    */
-  private double[][] stepPC(final double[] jumpTime, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm) {
+  private double[][] stepPC(final RandomNumberGenerator numberGenerator, final double[] jumpTime, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm,
+      final DoubleMatrix2D gammaLMM, final DoubleMatrix2D s) {
     final double amr = lmm.getMeanReversion();
     final double[] iborTime = lmm.getIborTime();
     final double[] almm = lmm.getDisplacement();
     final double[] deltalmm = lmm.getAccrualFactor();
-    final DoubleMatrix2D gammaLMM = new DoubleMatrix2D(lmm.getVolatility());
-    final MatrixAlgebra algebra = new CommonsMatrixAlgebra();
-    final DoubleMatrix2D s = (DoubleMatrix2D) algebra.multiply(gammaLMM, algebra.getTranspose(gammaLMM));
     final int nbJump = jumpTime.length - 1;
     final int nbPath = initIbor[0].length;
     final int nbPeriodLMM = lmm.getNbPeriod();
@@ -164,7 +188,7 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
       }
       final DoubleMatrix2D salpha2 = new DoubleMatrix2D(salpha2Array);
       // Random seed
-      final double[][] dw = getNormalArray(nbFactorLMM, nbPath);
+      final double[][] dw = getNormalArray(numberGenerator, nbFactorLMM, nbPath);
       // Common figures
       final double[] dr1 = new double[nI];
       for (int loopn = 0; loopn < nI; loopn++) {
@@ -214,12 +238,16 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
 
   /**
    *
+   * @param numberGenerator The random number generator.
    * @param jumpTime The time of the mandatory jumps.
    * @param initIbor The Ibor rates at the start. nbPeriodLMM x nbPath
    * @param lmm The LMM parameters.
+   * @param gammaLMM The LMM volatilities. Size: nbPeriodLMM x nbFactorLMM.
+   * @param s The rate covariance, gammaLMM x gammaLMM^T.
    * @return The paths. Size: nbJump x nbPeriodLMM x nbPath
    */
-  private double[][][] pathgeneratorlibor(final double[] jumpTime, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm) {
+  private double[][][] pathgeneratorlibor(final RandomNumberGenerator numberGenerator, final double[] jumpTime, final double[][] initIbor,
+      final LiborMarketModelDisplacedDiffusionParameters lmm, final DoubleMatrix2D gammaLMM, final DoubleMatrix2D s) {
     final int nbPeriod = initIbor.length;
     final int nbPath = initIbor[0].length;
     final int nbJump = jumpTime.length;
@@ -246,7 +274,7 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
           jumpIn[loopJumpIn] = jumpTimeA[loopjump] + loopJumpIn * jump / nbJumpIn;
         }
       }
-      initTmp = stepPC(jumpIn, initTmp, lmm);
+      initTmp = stepPC(numberGenerator, jumpIn, initTmp, lmm, gammaLMM, s);
       for (int loop1 = 0; loop1 < nbPeriod; loop1++) {
         System.arraycopy(initTmp[loop1], 0, result[loopjump][loop1], 0, nbPath);
       }
@@ -254,18 +282,4 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
     return result;
   }
 
-  /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
-   * @param nbPath The number of paths.
-   * @return The array of variables.
-   */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
-    }
-    return result;
-  }
-
 }
@@ -1,14 +1,24 @@
 /**
  * Copyright (C) 2011 - present by OpenGamma Inc. and the OpenGamma group of companies
- * 
+ *
  * Please see distribution for license.
  */
 package com.opengamma.analytics.financial.montecarlo.provider;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.SubstreamRandomNumberGenerator;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.ForkJoinUtils;
 
 /**
  * Generic Monte-Carlo pricing method.
+ * <p>
+ * The paths are simulated in blocks. If the random number generator is a {@link SubstreamRandomNumberGenerator}, each block
+ * draws its numbers from its own substream; the blocks are then independent and are computed in parallel when a fork/join pool
+ * is provided. The block results are always aggregated in the block order, so the result does not depend on the number of threads.
+ * With any other generator, the blocks are computed sequentially from the shared generator.
  */
 public abstract class MonteCarloMethod {
 
@@ -20,6 +30,10 @@ public abstract class MonteCarloMethod {
    * The number of paths.
    */
   private final int _nbPath;
+  /**
+   * The pool used to compute the blocks in parallel. Null for sequential computation.
+   */
+  private final ForkJoinPool _pool;
 
   /**
    * Constructor.
@@ -27,8 +41,19 @@ public abstract class MonteCarloMethod {
    * @param nbPath The number of paths.
    */
   public MonteCarloMethod(RandomNumberGenerator numberGenerator, int nbPath) {
+    this(numberGenerator, nbPath, null);
+  }
+
+  /**
+   * Constructor.
+   * @param numberGenerator The random number generator.
+   * @param nbPath The number of paths.
+   * @param pool The fork/join pool used to compute the blocks of paths in parallel. Only used if the generator provides substreams. May be null.
+   */
+  public MonteCarloMethod(RandomNumberGenerator numberGenerator, int nbPath, ForkJoinPool pool) {
     _numberGenerator = numberGenerator;
     _nbPath = nbPath;
+    _pool = pool;
   }
 
   /**
@@ -47,4 +72,188 @@ public abstract class MonteCarloMethod {
     return _nbPath;
   }
 
+  /**
+   * Gets the fork/join pool.
+   * @return The pool, null if the computation is sequential.
+   */
+  public ForkJoinPool getPool() {
+    return _pool;
+  }
+
+  /**
+   * Returns true if the blocks use independent substreams of the random number generator.
+   * @return The flag.
+   */
+  public boolean hasSubstreams() {
+    return _numberGenerator instanceof SubstreamRandomNumberGenerator;
+  }
+
+  /**
+   * Computes the number of paths in each block.
+   * @param blockSize The maximum number of paths in a block.
+   * @return The number of paths in each block.
+   */
+  protected int[] getBlockNbPath(final int blockSize) {
+    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) blockSize)));
+    final int[] nbPathBlock = new int[nbBlock];
+    for (int i = 0; i < nbBlock - 1; i++) {
+      nbPathBlock[i] = blockSize;
+    }
+    nbPathBlock[nbBlock - 1] = getNbPath() - (nbBlock - 1) * blockSize;
+    return nbPathBlock;
+  }
+
+  /**
+   * Returns the random number generator to use for one block.
+   * @param blockIndex The block index.
+   * @param blockSize The maximum number of paths in a block.
+   * @return The generator. The substream of the block if the generator provides substreams, the shared generator otherwise.
+   */
+  protected RandomNumberGenerator getBlockNumberGenerator(final int blockIndex, final int blockSize) {
+    if (hasSubstreams()) {
+      return ((SubstreamRandomNumberGenerator) _numberGenerator).getSubstream(blockIndex, blockSize);
+    }
+    return _numberGenerator;
+  }
+
+  /**
+   * Gets a 2D-array of independent normally distributed variables.
+   * @param numberGenerator The generator.
+   * @param nbJump The number of jumps.
+   * @param nbPath The number of paths.
+   * @return The array of variables. jump/path
+   */
+  protected static double[][] getNormalArray(final RandomNumberGenerator numberGenerator, final int nbJump, final int nbPath) {
+    final double[][] result = new double[nbJump][];
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      result[loopjump] = numberGenerator.getVector(nbPath);
+    }
+    return result;
+  }
+
+  /**
+   * Computes all the blocks of paths.
+   * @param calculator The block calculator.
+   * @param blockSize The maximum number of paths in a block.
+   * @return The results of each block, in the block order.
+   */
+  protected double[][] evaluateBlocks(final BlockCalculator calculator, final int blockSize) {
+    ArgumentChecker.notNull(calculator, "calculator");
+    final int[] nbPathBlock = getBlockNbPath(blockSize);
+    final int nbBlock = nbPathBlock.length;
+    final double[][] result = new double[nbBlock][];
+    if (!hasSubstreams()) {
+      for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+        result[loopblock] = calculator.evaluate(getBlockNumberGenerator(loopblock, blockSize), nbPathBlock[loopblock]);
+      }
+      return result;
+    }
+    ForkJoinUtils.invokeAll(_pool, nbBlock, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int block) {
+        result[block] = calculator.evaluate(getBlockNumberGenerator(block, blockSize), nbPathBlock[block]);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Sums the first element of the block results, in the block order.
+   * @param blockResults The block results.
+   * @return The sum.
+   */
+  protected static double sumBlocks(final double[][] blockResults) {
+    double sum = 0.0;
+    for (final double[] blockResult : blockResults) {
+      sum += blockResult[0];
+    }
+    return sum;
+  }
+
+  /**
+   * Sums the first element of the block results, adjusted by a control variate.
+   * <p>
+   * The second element of each block result is the sum over the block paths of a control variable with known expectation.
+   * The control coefficient is estimated by regression of the block averages (batch means). With less than two blocks or
+   * a control without variance, no adjustment is made.
+   * @param blockResults The block results: sum over the paths of the quantity and of the control.
+   * @param nbPathBlock The number of paths in each block.
+   * @param controlExpectation The expectation of the control variable (for one path).
+   * @return The adjusted sum.
+   */
+  protected static double sumBlocksControlVariate(final double[][] blockResults, final int[] nbPathBlock, final double controlExpectation) {
+    final int nbBlock = blockResults.length;
+    double sumY = 0.0;
+    double sumC = 0.0;
+    int nbPath = 0;
+    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+      sumY += blockResults[loopblock][0];
+      sumC += blockResults[loopblock][1];
+      nbPath += nbPathBlock[loopblock];
+    }
+    if (nbBlock < 2) {
+      return sumY;
+    }
+    final double meanY = sumY / nbPath;
+    final double meanC = sumC / nbPath;
+    double covYC = 0.0;
+    double varC = 0.0;
+    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+      final double dY = blockResults[loopblock][0] / nbPathBlock[loopblock] - meanY;
+      final double dC = blockResults[loopblock][1] / nbPathBlock[loopblock] - meanC;
+      covYC += nbPathBlock[loopblock] * dY * dC;
+      varC += nbPathBlock[loopblock] * dC * dC;
+    }
+    if (varC <= 0.0) {
+      return sumY;
+    }
+    final double beta = covYC / varC;
+    return sumY - beta * (sumC - nbPath * controlExpectation);
+  }
+
+  /**
+   * Computes the sum over the paths of the value (rebased by the numeraire) of the cash flows of one decision date.
+   * @param pD The discount factor paths (path/jump/cf).
+   * @param impactAmount The cash flow amounts of the first decision date.
+   * @return The sum.
+   */
+  protected static double underlyingSum(final Double[][][] pD, final double[] impactAmount) {
+    double sum = 0.0;
+    for (final Double[][] pDPath : pD) {
+      for (int loopcf = 0; loopcf < impactAmount.length; loopcf++) {
+        sum += impactAmount[loopcf] * pDPath[0][loopcf];
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Computes the expected value (rebased by the numeraire) of the cash flows of the first decision date. The rebased discount factors are martingales.
+   * @param initDiscountFactor The initial rebased discount factors of the first decision date.
+   * @param impactAmount The cash flow amounts of the first decision date.
+   * @return The expected value.
+   */
+  protected static double underlyingExpectation(final double[] initDiscountFactor, final double[] impactAmount) {
+    double expectation = 0.0;
+    for (int loopcf = 0; loopcf < impactAmount.length; loopcf++) {
+      expectation += impactAmount[loopcf] * initDiscountFactor[loopcf];
+    }
+    return expectation;
+  }
+
+  /**
+   * The computation on one block of paths.
+   */
+  protected interface BlockCalculator {
+
+    /**
+     * Computes the result of one block.
+     * @param numberGenerator The random number generator to use for the block.
+     * @param nbPath The number of paths in the block.
+     * @return The block result (typically the sum over the block paths of the discounted payoff).
+     */
+    double[] evaluate(RandomNumberGenerator numberGenerator, int nbPath);
+
+  }
+
 }
@@ -0,0 +1,574 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.calculator.discounting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.instrument.index.IndexON;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorSameValueAdapter;
+import com.opengamma.analytics.financial.interestrate.annuity.derivative.Annuity;
+import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponFixed;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponFixed;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIbor;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIborGearing;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIborSpread;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponON;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponONSpread;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.Payment;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.PaymentFixed;
+import com.opengamma.analytics.financial.interestrate.swap.derivative.Swap;
+import com.opengamma.analytics.financial.interestrate.swap.derivative.SwapFixedCoupon;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.ForkJoinUtils;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.money.MultipleCurrencyAmount;
+import com.opengamma.util.tuple.Triple;
+
+/**
+ * A portfolio of linear interest rate instruments compiled to arrays of cash flows, for the fast present value by discounting
+ * of many instruments in many curve scenarios.
+ * <p>
+ * The fixed payments and coupons, the Ibor coupons (with spread and gearing) and the overnight coupons, alone or in annuities and
+ * swaps, are flattened by currency into fixed cash flows and by currency and index into projected cash flows. The present value of a
+ * projected cash flow is its amount times P(start) / P(end) - 1, where P are the discount factors of the forward curve, discounted on
+ * the currency curve. The flows with the same times are aggregated and the discount factors of each curve are computed once on the
+ * grid of all its times, so the present value is a few array loops. The results are the ones of the
+ * {@link PresentValueDiscountingCalculator} up to rounding.
+ * <p>
+ * The other instruments are kept as they are and valued with the {@link PresentValueDiscountingCalculator}.
+ * <p>
+ * The compiled portfolio is for one valuation date: the derivatives and their times are seen from that date.
+ */
+public final class CompiledCashFlowPortfolio {
+
+  /**
+   * The calculator used for the instruments which are not compiled.
+   */
+  private static final PresentValueDiscountingCalculator PVDC = PresentValueDiscountingCalculator.getInstance();
+  /**
+   * The visitor collecting the cash flows of the instruments.
+   */
+  private static final FlowCollector COLLECTOR = new FlowCollector();
+  /**
+   * The visitor checking whether the cash flows of an instrument can be collected.
+   */
+  private static final SupportChecker SUPPORT_CHECKER = new SupportChecker();
+
+  /**
+   * The currencies of the compiled cash flows.
+   */
+  private final Currency[] _currencies;
+  /**
+   * The times on the discounting curve, by currency, sorted and without duplicates.
+   */
+  private final double[][] _discountTimes;
+  /**
+   * The fixed amounts paid at each discounting time, by currency.
+   */
+  private final double[][] _fixedAmounts;
+  /**
+   * The projected cash flows, by currency and index.
+   */
+  private final ProjectedFlows[][] _projectedFlows;
+  /**
+   * The instruments which are not compiled.
+   */
+  private final InstrumentDerivative[] _residuals;
+  /**
+   * The number of compiled instruments.
+   */
+  private final int _nbCompiled;
+
+  private CompiledCashFlowPortfolio(final Currency[] currencies, final double[][] discountTimes, final double[][] fixedAmounts, final ProjectedFlows[][] projectedFlows,
+      final InstrumentDerivative[] residuals, final int nbCompiled) {
+    _currencies = currencies;
+    _discountTimes = discountTimes;
+    _fixedAmounts = fixedAmounts;
+    _projectedFlows = projectedFlows;
+    _residuals = residuals;
+    _nbCompiled = nbCompiled;
+  }
+
+  /**
+   * Compiles a portfolio of instruments.
+   * @param instruments The instruments, not null
+   * @return The compiled portfolio
+   */
+  public static CompiledCashFlowPortfolio of(final InstrumentDerivative... instruments) {
+    ArgumentChecker.notNull(instruments, "instruments");
+    return of(Arrays.asList(instruments));
+  }
+
+  /**
+   * Compiles a portfolio of instruments.
+   * @param instruments The instruments, not null
+   * @return The compiled portfolio
+   */
+  public static CompiledCashFlowPortfolio of(final Collection<? extends InstrumentDerivative> instruments) {
+    ArgumentChecker.noNulls(instruments, "instruments");
+    final Map<Currency, CurrencyFlowsBuilder> builders = new LinkedHashMap<>();
+    final List<InstrumentDerivative> residuals = new ArrayList<>();
+    int nbCompiled = 0;
+    for (final InstrumentDerivative instrument : instruments) {
+      if (!instrument.accept(SUPPORT_CHECKER)) {
+        // not a linear instrument, or not all its payments are; valued with the calculator
+        residuals.add(instrument);
+        continue;
+      }
+      final InstrumentFlows flows = new InstrumentFlows();
+      instrument.accept(COLLECTOR, flows);
+      for (final FixedFlow flow : flows._fixed) {
+        getBuilder(builders, flow._currency).addFixed(flow._time, flow._amount);
+      }
+      for (final ProjectedFlow flow : flows._projected) {
+        getBuilder(builders, flow._currency).addProjected(flow);
+      }
+      nbCompiled++;
+    }
+    final int nbCurrency = builders.size();
+    final Currency[] currencies = new Currency[nbCurrency];
+    final double[][] discountTimes = new double[nbCurrency][];
+    final double[][] fixedAmounts = new double[nbCurrency][];
+    final ProjectedFlows[][] projectedFlows = new ProjectedFlows[nbCurrency][];
+    int loopccy = 0;
+    for (final Map.Entry<Currency, CurrencyFlowsBuilder> entry : builders.entrySet()) {
+      currencies[loopccy] = entry.getKey();
+      final CurrencyFlowsBuilder builder = entry.getValue();
+      discountTimes[loopccy] = toArray(builder._discountTimes);
+      fixedAmounts[loopccy] = new double[discountTimes[loopccy].length];
+      for (final Map.Entry<Double, Double> fixed : builder._fixedAmounts.entrySet()) {
+        fixedAmounts[loopccy][Arrays.binarySearch(discountTimes[loopccy], fixed.getKey())] = fixed.getValue();
+      }
+      projectedFlows[loopccy] = new ProjectedFlows[builder._projected.size()];
+      int loopindex = 0;
+      for (final Map.Entry<Object, Map<Triple<Double, Double, Double>, Double>> projected : builder._projected.entrySet()) {
+        projectedFlows[loopccy][loopindex++] = ProjectedFlows.of(projected.getKey(), projected.getValue(), discountTimes[loopccy]);
+      }
+      loopccy++;
+    }
+    return new CompiledCashFlowPortfolio(currencies, discountTimes, fixedAmounts, projectedFlows, residuals.toArray(new InstrumentDerivative[residuals.size()]), nbCompiled);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of instruments compiled to cash flows.
+   * @return The number of instruments
+   */
+  public int getNumberOfCompiledInstruments() {
+    return _nbCompiled;
+  }
+
+  /**
+   * Gets the instruments which are not compiled and are valued with the {@link PresentValueDiscountingCalculator}.
+   * @return The instruments, not null
+   */
+  public List<InstrumentDerivative> getResiduals() {
+    return Collections.unmodifiableList(Arrays.asList(_residuals));
+  }
+
+  /**
+   * Computes the present value of the portfolio.
+   * @param multicurve The multi-curve provider, not null
+   * @return The present value
+   */
+  public MultipleCurrencyAmount presentValue(final MulticurveProviderDiscount multicurve) {
+    ArgumentChecker.notNull(multicurve, "multicurve");
+    final double[] amounts = new double[_currencies.length];
+    for (int loopccy = 0; loopccy < _currencies.length; loopccy++) {
+      amounts[loopccy] = presentValue(multicurve, loopccy);
+    }
+    MultipleCurrencyAmount pv = MultipleCurrencyAmount.of(_currencies, amounts);
+    for (final InstrumentDerivative residual : _residuals) {
+      pv = pv.plus(residual.accept(PVDC, multicurve));
+    }
+    return pv;
+  }
+
+  /**
+   * Computes the present value of the portfolio in each of a set of curve scenarios.
+   * @param scenarios The multi-curve providers of the scenarios, not null
+   * @param pool The fork/join pool used to value the scenarios in parallel, null for sequential valuation
+   * @return The present values, in the scenario order
+   */
+  public MultipleCurrencyAmount[] presentValue(final MulticurveProviderDiscount[] scenarios, final ForkJoinPool pool) {
+    ArgumentChecker.noNulls(scenarios, "scenarios");
+    final int nbScenario = scenarios.length;
+    final MultipleCurrencyAmount[] result = new MultipleCurrencyAmount[nbScenario];
+    ForkJoinUtils.invokeAll(pool, nbScenario, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int scenario) {
+        result[scenario] = presentValue(scenarios[scenario]);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Computes the present value of the portfolio in each of a set of curve scenarios, converted in one currency with the exchange
+   * rates of each scenario.
+   * @param scenarios The multi-curve providers of the scenarios, not null
+   * @param ccy The currency of the results, not null
+   * @param pool The fork/join pool used to value the scenarios in parallel, null for sequential valuation
+   * @return The present values, in the scenario order
+   */
+  public double[] presentValue(final MulticurveProviderDiscount[] scenarios, final Currency ccy, final ForkJoinPool pool) {
+    ArgumentChecker.notNull(ccy, "currency");
+    final MultipleCurrencyAmount[] pv = presentValue(scenarios, pool);
+    final double[] result = new double[pv.length];
+    for (int loopsc = 0; loopsc < pv.length; loopsc++) {
+      result[loopsc] = scenarios[loopsc].getFxRates().convert(pv[loopsc], ccy).getAmount();
+    }
+    return result;
+  }
+
+  /**
+   * Computes the present value of the compiled cash flows in one currency.
+   * @param multicurve The multi-curve provider
+   * @param ccyIndex The index of the currency
+   * @return The present value
+   */
+  private double presentValue(final MulticurveProviderDiscount multicurve, final int ccyIndex) {
+    final double[] df = getDiscountFactors(multicurve.getCurve(_currencies[ccyIndex]), _discountTimes[ccyIndex]);
+    final double[] fixedAmounts = _fixedAmounts[ccyIndex];
+    double pv = 0.0;
+    for (int loopt = 0; loopt < df.length; loopt++) {
+      pv += fixedAmounts[loopt] * df[loopt];
+    }
+    for (final ProjectedFlows projected : _projectedFlows[ccyIndex]) {
+      final YieldAndDiscountCurve forwardCurve = projected._iborIndex != null ? multicurve.getCurve(projected._iborIndex) : multicurve.getCurve(projected._indexON);
+      final double[] dfForward = getDiscountFactors(forwardCurve, projected._forwardTimes);
+      final int[] payIndex = projected._payIndex;
+      final int[] startIndex = projected._startIndex;
+      final int[] endIndex = projected._endIndex;
+      final double[] amounts = projected._amounts;
+      for (int loopcf = 0; loopcf < amounts.length; loopcf++) {
+        pv += amounts[loopcf] * (dfForward[startIndex[loopcf]] / dfForward[endIndex[loopcf]] - 1.0) * df[payIndex[loopcf]];
+      }
+    }
+    return pv;
+  }
+
+  private static double[] getDiscountFactors(final YieldAndDiscountCurve curve, final double[] times) {
+    final double[] df = new double[times.length];
+    for (int loopt = 0; loopt < times.length; loopt++) {
+      df[loopt] = curve.getDiscountFactor(times[loopt]);
+    }
+    return df;
+  }
+
+  private static CurrencyFlowsBuilder getBuilder(final Map<Currency, CurrencyFlowsBuilder> builders, final Currency ccy) {
+    CurrencyFlowsBuilder builder = builders.get(ccy);
+    if (builder == null) {
+      builder = new CurrencyFlowsBuilder();
+      builders.put(ccy, builder);
+    }
+    return builder;
+  }
+
+  private static double[] toArray(final Set<Double> times) {
+    final double[] result = new double[times.size()];
+    int loopt = 0;
+    for (final Double time : times) {
+      result[loopt++] = time;
+    }
+    return result;
+  }
+
+  private static <K> void add(final Map<K, Double> flows, final K key, final double amount) {
+    final Double previous = flows.get(key);
+    flows.put(key, previous == null ? amount : previous + amount);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The projected cash flows of one currency and one index.
+   */
+  private static final class ProjectedFlows {
+    private final IborIndex _iborIndex;
+    private final IndexON _indexON;
+    private final double[] _forwardTimes;
+    private final int[] _payIndex;
+    private final int[] _startIndex;
+    private final int[] _endIndex;
+    private final double[] _amounts;
+
+    private ProjectedFlows(final IborIndex iborIndex, final IndexON indexON, final double[] forwardTimes, final int[] payIndex, final int[] startIndex,
+        final int[] endIndex, final double[] amounts) {
+      _iborIndex = iborIndex;
+      _indexON = indexON;
+      _forwardTimes = forwardTimes;
+      _payIndex = payIndex;
+      _startIndex = startIndex;
+      _endIndex = endIndex;
+      _amounts = amounts;
+    }
+
+    private static ProjectedFlows of(final Object index, final Map<Triple<Double, Double, Double>, Double> flows, final double[] discountTimes) {
+      final Set<Double> forwardTimeSet = new TreeSet<>();
+      for (final Triple<Double, Double, Double> key : flows.keySet()) {
+        forwardTimeSet.add(key.getSecond());
+        forwardTimeSet.add(key.getThird());
+      }
+      final double[] forwardTimes = toArray(forwardTimeSet);
+      final int nbFlow = flows.size();
+      final int[] payIndex = new int[nbFlow];
+      final int[] startIndex = new int[nbFlow];
+      final int[] endIndex = new int[nbFlow];
+      final double[] amounts = new double[nbFlow];
+      int loopcf = 0;
+      for (final Map.Entry<Triple<Double, Double, Double>, Double> flow : flows.entrySet()) {
+        payIndex[loopcf] = Arrays.binarySearch(discountTimes, flow.getKey().getFirst());
+        startIndex[loopcf] = Arrays.binarySearch(forwardTimes, flow.getKey().getSecond());
+        endIndex[loopcf] = Arrays.binarySearch(forwardTimes, flow.getKey().getThird());
+        amounts[loopcf] = flow.getValue();
+        loopcf++;
+      }
+      if (index instanceof IborIndex) {
+        return new ProjectedFlows((IborIndex) index, null, forwardTimes, payIndex, startIndex, endIndex, amounts);
+      }
+      return new ProjectedFlows(null, (IndexON) index, forwardTimes, payIndex, startIndex, endIndex, amounts);
+    }
+  }
+
+  /**
+   * The cash flows of one currency, while compiling.
+   */
+  private static final class CurrencyFlowsBuilder {
+    private final Set<Double> _discountTimes = new TreeSet<>();
+    private final Map<Double, Double> _fixedAmounts = new TreeMap<>();
+    private final Map<Object, Map<Triple<Double, Double, Double>, Double>> _projected = new LinkedHashMap<>();
+
+    private void addFixed(final double time, final double amount) {
+      _discountTimes.add(time);
+      add(_fixedAmounts, time, amount);
+    }
+
+    private void addProjected(final ProjectedFlow flow) {
+      _discountTimes.add(flow._paymentTime);
+      Map<Triple<Double, Double, Double>, Double> flows = _projected.get(flow._index);
+      if (flows == null) {
+        flows = new LinkedHashMap<>();
+        _projected.put(flow._index, flows);
+      }
+      final Triple<Double, Double, Double> key = Triple.of(flow._paymentTime, flow._startTime, flow._endTime);
+      add(flows, key, flow._amount);
+    }
+  }
+
+  /**
+   * The cash flows of one instrument.
+   */
+  private static final class InstrumentFlows {
+    private final List<FixedFlow> _fixed = new ArrayList<>();
+    private final List<ProjectedFlow> _projected = new ArrayList<>();
+
+    private void addFixed(final Currency ccy, final double time, final double amount) {
+      _fixed.add(new FixedFlow(ccy, time, amount));
+    }
+
+    private void addProjected(final Currency ccy, final Object index, final double paymentTime, final double startTime, final double endTime, final double amount) {
+      _projected.add(new ProjectedFlow(ccy, index, paymentTime, startTime, endTime, amount));
+    }
+  }
+
+  private static final class FixedFlow {
+    private final Currency _currency;
+    private final double _time;
+    private final double _amount;
+
+    private FixedFlow(final Currency currency, final double time, final double amount) {
+      _currency = currency;
+      _time = time;
+      _amount = amount;
+    }
+  }
+
+  private static final class ProjectedFlow {
+    private final Currency _currency;
+    private final Object _index;
+    private final double _paymentTime;
+    private final double _startTime;
+    private final double _endTime;
+    private final double _amount;
+
+    private ProjectedFlow(final Currency currency, final Object index, final double paymentTime, final double startTime, final double endTime, final double amount) {
+      _currency = currency;
+      _index = index;
+      _paymentTime = paymentTime;
+      _startTime = startTime;
+      _endTime = endTime;
+      _amount = amount;
+    }
+  }
+
+  /**
+   * Checks that an instrument and all its payments are supported by the {@link FlowCollector}.
+   */
+  private static final class SupportChecker extends InstrumentDerivativeVisitorSameValueAdapter<Void, Boolean> {
+
+    private SupportChecker() {
+      super(false);
+    }
+
+    @Override
+    public Boolean visitFixedPayment(final PaymentFixed payment) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitCouponFixed(final CouponFixed coupon) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitCouponIbor(final CouponIbor coupon) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitCouponIborSpread(final CouponIborSpread coupon) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitCouponIborGearing(final CouponIborGearing coupon) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitCouponOIS(final CouponON coupon) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitCouponONSpread(final CouponONSpread coupon) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitGenericAnnuity(final Annuity<? extends Payment> annuity) {
+      for (final Payment payment : annuity.getPayments()) {
+        if (!payment.accept(this)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public Boolean visitFixedCouponAnnuity(final AnnuityCouponFixed annuity) {
+      return visitGenericAnnuity(annuity);
+    }
+
+    @Override
+    public Boolean visitSwap(final Swap<?, ?> swap) {
+      return swap.getFirstLeg().accept(this) && swap.getSecondLeg().accept(this);
+    }
+
+    @Override
+    public Boolean visitFixedCouponSwap(final SwapFixedCoupon<?> swap) {
+      return visitSwap(swap);
+    }
+  }
+
+  /**
+   * Collects the cash flows of the instruments accepted by the {@link SupportChecker}.
+   */
+  private static final class FlowCollector extends InstrumentDerivativeVisitorAdapter<InstrumentFlows, Void> {
+
+    @Override
+    public Void visitFixedPayment(final PaymentFixed payment, final InstrumentFlows flows) {
+      flows.addFixed(payment.getCurrency(), payment.getPaymentTime(), payment.getAmount());
+      return null;
+    }
+
+    @Override
+    public Void visitCouponFixed(final CouponFixed coupon, final InstrumentFlows flows) {
+      flows.addFixed(coupon.getCurrency(), coupon.getPaymentTime(), coupon.getAmount());
+      return null;
+    }
+
+    @Override
+    public Void visitCouponIbor(final CouponIbor coupon, final InstrumentFlows flows) {
+      flows.addProjected(coupon.getCurrency(), coupon.getIndex(), coupon.getPaymentTime(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(),
+          coupon.getNotional() * coupon.getPaymentYearFraction() / coupon.getFixingAccrualFactor());
+      return null;
+    }
+
+    @Override
+    public Void visitCouponIborSpread(final CouponIborSpread coupon, final InstrumentFlows flows) {
+      flows.addProjected(coupon.getCurrency(), coupon.getIndex(), coupon.getPaymentTime(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(),
+          coupon.getNotional() * coupon.getPaymentYearFraction() / coupon.getFixingAccrualFactor());
+      flows.addFixed(coupon.getCurrency(), coupon.getPaymentTime(), coupon.getSpreadAmount());
+      return null;
+    }
+
+    @Override
+    public Void visitCouponIborGearing(final CouponIborGearing coupon, final InstrumentFlows flows) {
+      flows.addProjected(coupon.getCurrency(), coupon.getIndex(), coupon.getPaymentTime(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(),
+          coupon.getNotional() * coupon.getPaymentYearFraction() * coupon.getFactor() / coupon.getFixingAccrualFactor());
+      flows.addFixed(coupon.getCurrency(), coupon.getPaymentTime(), coupon.getSpreadAmount());
+      return null;
+    }
+
+    @Override
+    public Void visitCouponOIS(final CouponON coupon, final InstrumentFlows flows) {
+      flows.addProjected(coupon.getCurrency(), coupon.getIndex(), coupon.getPaymentTime(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(),
+          coupon.getNotionalAccrued());
+      flows.addFixed(coupon.getCurrency(), coupon.getPaymentTime(), coupon.getNotionalAccrued() - coupon.getNotional());
+      return null;
+    }
+
+    @Override
+    public Void visitCouponONSpread(final CouponONSpread coupon, final InstrumentFlows flows) {
+      flows.addProjected(coupon.getCurrency(), coupon.getIndex(), coupon.getPaymentTime(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(),
+          coupon.getNotionalAccrued());
+      flows.addFixed(coupon.getCurrency(), coupon.getPaymentTime(), coupon.getNotionalAccrued() + coupon.getSpreadAmount() - coupon.getNotional());
+      return null;
+    }
+
+    @Override
+    public Void visitGenericAnnuity(final Annuity<? extends Payment> annuity, final InstrumentFlows flows) {
+      for (final Payment payment : annuity.getPayments()) {
+        payment.accept(this, flows);
+      }
+      return null;
+    }
+
+    @Override
+    public Void visitFixedCouponAnnuity(final AnnuityCouponFixed annuity, final InstrumentFlows flows) {
+      return visitGenericAnnuity(annuity, flows);
+    }
+
+    @Override
+    public Void visitSwap(final Swap<?, ?> swap, final InstrumentFlows flows) {
+      swap.getFirstLeg().accept(this, flows);
+      swap.getSecondLeg().accept(this, flows);
+      return null;
+    }
+
+    @Override
+    public Void visitFixedCouponSwap(final SwapFixedCoupon<?> swap, final InstrumentFlows flows) {
+      return visitSwap(swap, flows);
+    }
+  }
+
+}
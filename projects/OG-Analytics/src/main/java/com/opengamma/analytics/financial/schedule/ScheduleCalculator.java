@@ -15,12 +15,17 @@ import org.threeten.bp.Period;
 import org.threeten.bp.ZonedDateTime;
 import org.threeten.bp.temporal.TemporalAdjusters;
 
+import com.google.common.base.Equivalence;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.opengamma.analytics.financial.instrument.index.GeneratorDeposit;
 import com.opengamma.analytics.financial.instrument.index.IborIndex;
 import com.opengamma.financial.convention.businessday.BusinessDayConvention;
 import com.opengamma.financial.convention.businessday.FollowingBusinessDayConvention;
 import com.opengamma.financial.convention.businessday.PrecedingBusinessDayConvention;
 import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.CompiledCalendar;
+import com.opengamma.financial.convention.calendar.ExceptionCalendar;
 import com.opengamma.financial.convention.daycount.DayCount;
 import com.opengamma.financial.convention.frequency.Frequency;
 import com.opengamma.financial.convention.frequency.PeriodFrequency;
@@ -37,6 +42,23 @@ public final class ScheduleCalculator {
    * A singleton empty array.
    */
   private static final ZonedDateTime[] EMPTY_ARRAY = new ZonedDateTime[0];
+  /**
+   * The maximum number of schedules interned.
+   */
+  private static final int MAX_INTERNED_SCHEDULES = 10000;
+  /**
+   * The schedules already generated, keyed by the kind of schedule and the arguments used to generate it. Swaps with the same terms
+   * share the same schedules, so they are generated once and a copy of the interned array is returned to each caller.
+   * The adjusted schedules are only interned for the calendars accepted by {@link #getInternKey}.
+   */
+  private static final Cache<List<Object>, ZonedDateTime[]> SCHEDULES = CacheBuilder.newBuilder().maximumSize(MAX_INTERNED_SCHEDULES).build();
+
+  /**
+   * The kinds of schedules interned.
+   */
+  private enum ScheduleType {
+    UNADJUSTED, ADJUSTED, ADJUSTED_FORWARD
+  }
 
   /**
    * Restricted constructor.
@@ -44,6 +66,31 @@ public final class ScheduleCalculator {
   private ScheduleCalculator() {
   }
 
+  /**
+   * Discards the interned schedules.
+   */
+  public static void clearInternedSchedules() {
+    SCHEDULES.invalidateAll();
+  }
+
+  /**
+   * Gets the key identifying the business day convention and calendar of an interned adjusted schedule.
+   * <p>
+   * Only the schedules adjusted with a {@link CompiledCalendar} are interned. A compiled calendar is replaced, not modified, when its
+   * holidays change, so it is identified by instance: the schedules adjusted with the previous holidays are no longer looked up and
+   * are evicted as the least recently used. Other calendars, such as an {@link ExceptionCalendar}, can be modified after the schedule
+   * is generated, so their schedules are always generated. The business day convention is identified by its name.
+   * @param convention The business day convention.
+   * @param calendar The calendar.
+   * @return The key, null if the schedule must not be interned.
+   */
+  public static Object getInternKey(final BusinessDayConvention convention, final Calendar calendar) {
+    if (convention == null || !(calendar instanceof CompiledCalendar)) {
+      return null;
+    }
+    return Arrays.<Object>asList(convention.getConventionName(), Equivalence.identity().wrap(calendar));
+  }
+
   // Already reviewed
 
   /**
@@ -59,6 +106,9 @@ public final class ScheduleCalculator {
   public static ZonedDateTime getAdjustedDate(final ZonedDateTime date, final int shiftDays, final Calendar calendar) {
     ArgumentChecker.notNull(date, "date");
     ArgumentChecker.notNull(calendar, "calendar");
+    if (calendar instanceof CompiledCalendar) {
+      return date.with(((CompiledCalendar) calendar).addWorkingDays(date.toLocalDate(), shiftDays));
+    }
     ZonedDateTime result = date;
     while (!calendar.isWorkingDay(result.toLocalDate())) {
       result = result.plusDays(1);
@@ -129,6 +179,9 @@ public final class ScheduleCalculator {
   public static LocalDate getAdjustedDate(final LocalDate date, final int shiftDays, final Calendar calendar) {
     ArgumentChecker.notNull(date, "date");
     ArgumentChecker.notNull(calendar, "calendar");
+    if (calendar instanceof CompiledCalendar) {
+      return ((CompiledCalendar) calendar).addWorkingDays(date, shiftDays);
+    }
     LocalDate result = date;
     while (!calendar.isWorkingDay(result)) {
       result = result.plusDays(1);
@@ -260,6 +313,25 @@ public final class ScheduleCalculator {
    */
   public static ZonedDateTime[] getUnadjustedDateSchedule(final ZonedDateTime startDate, final ZonedDateTime endDate, final Period tenorPeriod, final boolean stubShort,
       final boolean fromEnd) {
+    return unadjustedDateSchedule(startDate, endDate, tenorPeriod, stubShort, fromEnd).clone();
+  }
+
+  /**
+   * Gets the interned unadjusted schedule, generating it if necessary. The returned array is shared and must not be modified.
+   */
+  private static ZonedDateTime[] unadjustedDateSchedule(final ZonedDateTime startDate, final ZonedDateTime endDate, final Period tenorPeriod, final boolean stubShort,
+      final boolean fromEnd) {
+    final List<Object> key = Arrays.<Object>asList(ScheduleType.UNADJUSTED, startDate, endDate, tenorPeriod, stubShort, fromEnd);
+    ZonedDateTime[] schedule = SCHEDULES.getIfPresent(key);
+    if (schedule == null) {
+      schedule = generateUnadjustedDateSchedule(startDate, endDate, tenorPeriod, stubShort, fromEnd);
+      SCHEDULES.put(key, schedule);
+    }
+    return schedule;
+  }
+
+  private static ZonedDateTime[] generateUnadjustedDateSchedule(final ZonedDateTime startDate, final ZonedDateTime endDate, final Period tenorPeriod, final boolean stubShort,
+      final boolean fromEnd) {
     ArgumentChecker.notNull(startDate, "Start date");
     ArgumentChecker.notNull(endDate, "End date");
     ArgumentChecker.notNull(tenorPeriod, "Period tenor");
@@ -331,7 +403,22 @@ public final class ScheduleCalculator {
    */
   public static ZonedDateTime[] getAdjustedDateSchedule(final ZonedDateTime startDate, final ZonedDateTime endDate, final Period schedulePeriod, final boolean stubShort,
       final boolean fromEnd, final BusinessDayConvention convention, final Calendar calendar, final boolean eomRule) {
-    final ZonedDateTime[] unadjustedDateSchedule = getUnadjustedDateSchedule(startDate, endDate, schedulePeriod, stubShort, fromEnd);
+    final Object conventionKey = getInternKey(convention, calendar);
+    if (conventionKey == null) {
+      return generateAdjustedDateSchedule(startDate, endDate, schedulePeriod, stubShort, fromEnd, convention, calendar, eomRule);
+    }
+    final List<Object> key = Arrays.<Object>asList(ScheduleType.ADJUSTED, startDate, endDate, schedulePeriod, stubShort, fromEnd, conventionKey, eomRule);
+    ZonedDateTime[] schedule = SCHEDULES.getIfPresent(key);
+    if (schedule == null) {
+      schedule = generateAdjustedDateSchedule(startDate, endDate, schedulePeriod, stubShort, fromEnd, convention, calendar, eomRule);
+      SCHEDULES.put(key, schedule);
+    }
+    return schedule.clone();
+  }
+
+  private static ZonedDateTime[] generateAdjustedDateSchedule(final ZonedDateTime startDate, final ZonedDateTime endDate, final Period schedulePeriod,
+      final boolean stubShort, final boolean fromEnd, final BusinessDayConvention convention, final Calendar calendar, final boolean eomRule) {
+    final ZonedDateTime[] unadjustedDateSchedule = unadjustedDateSchedule(startDate, endDate, schedulePeriod, stubShort, fromEnd);
     final boolean eomApply = (eomRule && (getAdjustedDate(startDate, 1, calendar).getMonth() != startDate.getMonth()));
     return getAdjustedDateSchedule(unadjustedDateSchedule, convention, calendar, eomApply);
   }
@@ -605,6 +692,21 @@ public final class ScheduleCalculator {
    */
   public static ZonedDateTime[] getAdjustedDateSchedule(final ZonedDateTime startDate, final ZonedDateTime endDate, final Period period,
       final BusinessDayConvention businessDayConvention, final Calendar calendar, final boolean isEOM, final boolean stubShort) {
+    final Object conventionKey = getInternKey(businessDayConvention, calendar);
+    if (conventionKey == null) {
+      return generateAdjustedDateSchedule(startDate, endDate, period, businessDayConvention, calendar, isEOM, stubShort);
+    }
+    final List<Object> key = Arrays.<Object>asList(ScheduleType.ADJUSTED_FORWARD, startDate, endDate, period, conventionKey, isEOM, stubShort);
+    ZonedDateTime[] schedule = SCHEDULES.getIfPresent(key);
+    if (schedule == null) {
+      schedule = generateAdjustedDateSchedule(startDate, endDate, period, businessDayConvention, calendar, isEOM, stubShort);
+      SCHEDULES.put(key, schedule);
+    }
+    return schedule.clone();
+  }
+
+  private static ZonedDateTime[] generateAdjustedDateSchedule(final ZonedDateTime startDate, final ZonedDateTime endDate, final Period period,
+      final BusinessDayConvention businessDayConvention, final Calendar calendar, final boolean isEOM, final boolean stubShort) {
     boolean eomApply = false;
     if (isEOM) {
       final BusinessDayConvention following = new FollowingBusinessDayConvention();
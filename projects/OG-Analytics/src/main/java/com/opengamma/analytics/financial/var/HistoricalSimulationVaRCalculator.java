@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.var;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.opengamma.analytics.math.function.Function1D;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.ForkJoinUtils;
+
+/**
+ * Historical simulation value at risk by full revaluation.
+ * <p>
+ * The profit and loss function revalues the portfolio in the scenario of a given index, typically by building the market data
+ * shifted by the historical moves of that date. The scenarios are revalued in parallel in blocks of consecutive indices and their
+ * profits and losses are streamed into a {@link HistoricalVaREstimator} for each block, so that neither the scenarios nor the full
+ * profit and loss vector are kept in memory.
+ */
+public class HistoricalSimulationVaRCalculator {
+  /** The number of blocks of scenarios for each thread of the pool. */
+  private static final int BLOCKS_PER_THREAD = 4;
+  private final ForkJoinPool _pool;
+
+  /**
+   * @param pool The fork/join pool used to revalue the scenarios in parallel, null for sequential revaluation
+   */
+  public HistoricalSimulationVaRCalculator(final ForkJoinPool pool) {
+    _pool = pool;
+  }
+
+  /**
+   * Computes the value at risk and expected shortfall of the scenarios.
+   * @param parameters The VaR parameters, not null
+   * @param nbScenarios The number of scenarios, strictly positive
+   * @param pnl The function computing the profit and loss of the scenario of a given index, not null. Called from several threads.
+   * @return The result
+   */
+  public HistoricalVaRCalculationResult evaluate(final EmpiricalDistributionVaRParameters parameters, final int nbScenarios, final Function1D<Integer, Double> pnl) {
+    ArgumentChecker.notNull(parameters, "parameters");
+    ArgumentChecker.isTrue(nbScenarios > 0, "number of scenarios must be positive");
+    ArgumentChecker.notNull(pnl, "profit and loss function");
+    final HistoricalVaREstimator estimator = new HistoricalVaREstimator(parameters, nbScenarios);
+    if (_pool == null || nbScenarios < 2) {
+      for (int loopsc = 0; loopsc < nbScenarios; loopsc++) {
+        estimator.add(pnl.evaluate(loopsc));
+      }
+      return estimator.getResult();
+    }
+    final int nbBlocks = Math.min(nbScenarios, _pool.getParallelism() * BLOCKS_PER_THREAD);
+    final HistoricalVaREstimator[] blocks = new HistoricalVaREstimator[nbBlocks];
+    ForkJoinUtils.invokeAll(_pool, nbBlocks, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int block) {
+        final int start = (int) ((long) nbScenarios * block / nbBlocks);
+        final int end = (int) ((long) nbScenarios * (block + 1) / nbBlocks);
+        final HistoricalVaREstimator blockEstimator = new HistoricalVaREstimator(parameters, nbScenarios);
+        for (int loopsc = start; loopsc < end; loopsc++) {
+          blockEstimator.add(pnl.evaluate(loopsc));
+        }
+        blocks[block] = blockEstimator;
+      }
+    });
+    for (final HistoricalVaREstimator block : blocks) {
+      estimator.addAll(block);
+    }
+    return estimator.getResult();
+  }
+
+}
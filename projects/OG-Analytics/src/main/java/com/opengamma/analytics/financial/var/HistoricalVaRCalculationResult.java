@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.var;
+
+/**
+ * The result of a historical simulation: the value at risk, the standard deviation of the profit and loss and the
+ * expected shortfall, the average loss beyond the value at risk.
+ */
+public class HistoricalVaRCalculationResult extends VaRCalculationResult {
+  private final double _expectedShortfall;
+  private final int _nbScenarios;
+
+  public HistoricalVaRCalculationResult(final double varValue, final double stdDev, final double expectedShortfall, final int nbScenarios) {
+    super(varValue, stdDev);
+    _expectedShortfall = expectedShortfall;
+    _nbScenarios = nbScenarios;
+  }
+
+  public double getExpectedShortfall() {
+    return _expectedShortfall;
+  }
+
+  public int getNumberOfScenarios() {
+    return _nbScenarios;
+  }
+
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.var;
+
+import java.util.Arrays;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Incremental estimator of the historical value at risk and expected shortfall of a profit and loss distribution.
+ * <p>
+ * The scenario profits and losses are added one at a time and are not stored: the estimator only keeps the mean and variance
+ * of the distribution and, in a bounded heap, the lowest values needed by the quantile. With the number of scenarios known in
+ * advance, the value at risk is the same as the one of {@link EmpiricalDistributionVaRCalculator} on the full distribution.
+ * The expected shortfall is the average of the profits and losses strictly below the quantile, or the value at risk if there
+ * are none. Both are scaled to the horizon of the parameters.
+ * <p>
+ * The estimators of subsets of the scenarios can be combined, so that each thread of a parallel simulation has its own.
+ * This class is not thread-safe.
+ */
+public class HistoricalVaREstimator {
+  private final EmpiricalDistributionVaRParameters _parameters;
+  private final int _nbScenarios;
+  /** The lowest profits and losses, as a max-heap. */
+  private final double[] _lowest;
+  private int _nbLowest;
+  private int _count;
+  private double _mean;
+  private double _sumSquares;
+
+  /**
+   * @param parameters The VaR parameters, not null
+   * @param nbScenarios The total number of scenarios, strictly positive
+   */
+  public HistoricalVaREstimator(final EmpiricalDistributionVaRParameters parameters, final int nbScenarios) {
+    ArgumentChecker.notNull(parameters, "parameters");
+    ArgumentChecker.isTrue(nbScenarios > 0, "number of scenarios must be positive");
+    _parameters = parameters;
+    _nbScenarios = nbScenarios;
+    final int nbLowest = (int) Math.floor((1 - parameters.getQuantile()) * (nbScenarios - 1)) + 2;
+    _lowest = new double[Math.min(nbLowest, nbScenarios)];
+  }
+
+  /**
+   * Adds the profit and loss of one scenario.
+   * @param pnl The profit and loss
+   */
+  public void add(final double pnl) {
+    ArgumentChecker.isTrue(_count < _nbScenarios, "more than {} scenarios", _nbScenarios);
+    _count++;
+    final double delta = pnl - _mean;
+    _mean += delta / _count;
+    _sumSquares += delta * (pnl - _mean);
+    addLowest(pnl);
+  }
+
+  /**
+   * Adds the scenarios of another estimator with the same parameters.
+   * @param other The other estimator, not null
+   */
+  public void addAll(final HistoricalVaREstimator other) {
+    ArgumentChecker.notNull(other, "other");
+    ArgumentChecker.isTrue(_parameters.equals(other._parameters), "estimators have different parameters");
+    ArgumentChecker.isTrue(_count + other._count <= _nbScenarios, "more than {} scenarios", _nbScenarios);
+    if (other._count == 0) {
+      return;
+    }
+    final int count = _count + other._count;
+    final double delta = other._mean - _mean;
+    _mean += delta * other._count / count;
+    _sumSquares += other._sumSquares + delta * delta * _count * other._count / count;
+    _count = count;
+    for (int loopl = 0; loopl < other._nbLowest; loopl++) {
+      addLowest(other._lowest[loopl]);
+    }
+  }
+
+  /**
+   * Gets the number of scenarios added.
+   * @return The number of scenarios
+   */
+  public int getNumberOfScenarios() {
+    return _count;
+  }
+
+  /**
+   * Computes the value at risk and expected shortfall once all the scenarios have been added.
+   * @return The result
+   */
+  public HistoricalVaRCalculationResult getResult() {
+    ArgumentChecker.isTrue(_count == _nbScenarios, "{} scenarios added, expected {}", _count, _nbScenarios);
+    final double[] lowest = Arrays.copyOf(_lowest, _nbLowest);
+    Arrays.sort(lowest);
+    final double quantile = quantile(lowest);
+    double sum = 0;
+    int nbBelow = 0;
+    while (nbBelow < lowest.length && lowest[nbBelow] < quantile) {
+      sum += lowest[nbBelow++];
+    }
+    final double mult = _parameters.getMult();
+    final double var = -mult * quantile;
+    final double expectedShortfall = nbBelow == 0 ? var : -mult * sum / nbBelow;
+    final double stdDev = _count > 1 ? mult * Math.sqrt(_sumSquares / (_count - 1)) : 0;
+    return new HistoricalVaRCalculationResult(var, stdDev, expectedShortfall, _count);
+  }
+
+  /**
+   * The percentile of the full distribution, as computed by the {@link com.opengamma.analytics.math.statistics.descriptive.PercentileCalculator},
+   * from its lowest values.
+   * @param lowest The lowest values, sorted
+   * @return The percentile
+   */
+  private double quantile(final double[] lowest) {
+    if (lowest.length == _count) {
+      return _parameters.getPercentileCalculator().evaluate(lowest);
+    }
+    final double n = (1 - _parameters.getQuantile()) * (_count - 1) + 1;
+    if (Math.round(n) == 1) {
+      return lowest[0];
+    }
+    final double d = n % 1;
+    final int k = (int) Math.round(n - d);
+    return lowest[k - 1] + d * (lowest[k] - lowest[k - 1]);
+  }
+
+  private void addLowest(final double pnl) {
+    if (_nbLowest < _lowest.length) {
+      int child = _nbLowest++;
+      while (child > 0) {
+        final int parent = (child - 1) / 2;
+        if (_lowest[parent] >= pnl) {
+          break;
+        }
+        _lowest[child] = _lowest[parent];
+        child = parent;
+      }
+      _lowest[child] = pnl;
+    } else if (pnl < _lowest[0]) {
+      int parent = 0;
+      while (true) {
+        int child = 2 * parent + 1;
+        if (child >= _nbLowest) {
+          break;
+        }
+        if (child + 1 < _nbLowest && _lowest[child + 1] > _lowest[child]) {
+          child++;
+        }
+        if (_lowest[child] <= pnl) {
+          break;
+        }
+        _lowest[parent] = _lowest[child];
+        parent = child;
+      }
+      _lowest[parent] = pnl;
+    }
+  }
+
+}
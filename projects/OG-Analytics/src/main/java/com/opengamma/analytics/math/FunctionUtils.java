@@ -143,4 +143,36 @@ public final class FunctionUtils {
     return index;
   }
 
+  /**
+   * Find the indices of a <b>sorted</b> set that are less than or equal to several values, as {@link #getLowerBoundIndex(double[], double)}.
+   * If the values are sorted, the indices are found in a single pass over the set, starting each search from the previous index;
+   * otherwise each index is found by binary search.
+   * @param set a <b>sorted</b> array of numbers.
+   * @param values The values to search for, sorted or not
+   * @return indices in the array
+   */
+  public static int[] getLowerBoundIndices(final double[] set, final double[] values) {
+    final int n = set.length;
+    final int m = values.length;
+    final int[] result = new int[m];
+    boolean sorted = true;
+    for (int i = 1; i < m && sorted; i++) {
+      sorted = values[i - 1] <= values[i];
+    }
+    if (!sorted) {
+      for (int i = 0; i < m; i++) {
+        result[i] = getLowerBoundIndex(set, values[i]);
+      }
+      return result;
+    }
+    int index = 0;
+    for (int i = 0; i < m; i++) {
+      while (index < n - 1 && set[index + 1] <= values[i]) {
+        index++;
+      }
+      result[i] = index;
+    }
+    return result;
+  }
+
 }
@@ -5,6 +5,9 @@
  */
 package com.opengamma.analytics.math.curve;
 
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.Validate;
+
 /**
  * Parent class for a family of curves that have real <i>x</i> and <i>y</i> values.
  */
@@ -32,6 +35,35 @@ public abstract class DoublesCurve extends Curve<Double, Double> {
    */
   public abstract Double[] getYValueParameterSensitivity(Double x);
 
+  /**
+   * Computes the y values of the curve at several x values. This implementation evaluates each value in turn.
+   * @param x The x values, sorted or not
+   * @return The y values, in the order of the x values
+   */
+  public double[] getYValues(final double[] x) {
+    Validate.notNull(x, "x");
+    final double[] result = new double[x.length];
+    for (int i = 0; i < x.length; i++) {
+      result[i] = getYValue(x[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Computes the sensitivities of the y values at several x values with respect to the curve parameters.
+   * This implementation computes each sensitivity in turn.
+   * @param x The x values, sorted or not
+   * @return The sensitivities, one row for each x value
+   */
+  public double[][] getYValueParameterSensitivities(final double[] x) {
+    Validate.notNull(x, "x");
+    final double[][] result = new double[x.length][];
+    for (int i = 0; i < x.length; i++) {
+      result[i] = ArrayUtils.toPrimitive(getYValueParameterSensitivity(x[i]));
+    }
+    return result;
+  }
+
   /**
    * Compute the first derivative of the curve, $\frac{dy}{dx}$ 
    * @param x The value at which the derivative is taken 
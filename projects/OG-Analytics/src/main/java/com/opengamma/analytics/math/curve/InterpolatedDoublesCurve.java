@@ -518,6 +518,26 @@ public class InterpolatedDoublesCurve extends ArraysDoublesCurve {
     return ArrayUtils.toObject(_interpolator.getNodeSensitivitiesForValue(_dataBundle, x));
   }
 
+  /**
+   * {@inheritDoc}
+   * The values are computed by the interpolator on primitive arrays, sorted values being located in the data in a single pass.
+   */
+  @Override
+  public double[] getYValues(final double[] x) {
+    Validate.notNull(x, "x");
+    return _interpolator.interpolateValues(_dataBundle, x);
+  }
+
+  /**
+   * {@inheritDoc}
+   * The sensitivities are computed by the interpolator on primitive arrays, sorted values being located in the data in a single pass.
+   */
+  @Override
+  public double[][] getYValueParameterSensitivities(final double[] x) {
+    Validate.notNull(x, "x");
+    return _interpolator.getNodeSensitivitiesForValues(_dataBundle, x);
+  }
+
   public Interpolator1D getInterpolator() {
     return _interpolator;
   }
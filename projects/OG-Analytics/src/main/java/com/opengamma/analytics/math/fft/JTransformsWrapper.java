@@ -6,8 +6,8 @@
 package com.opengamma.analytics.math.fft;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.opengamma.analytics.math.number.ComplexNumber;
 import com.opengamma.util.ArgumentChecker;
@@ -18,8 +18,10 @@ import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
  * Class wrapping the 1D FFT methods of the JTransforms library.
  */
 public class JTransformsWrapper {
-  // TODO this needs to be changed
-  private static final Map<Integer, DoubleFFT_1D> CACHE_1D = new HashMap<>();
+  /**
+   * The FFT plans, keyed by size. A plan only holds precomputed tables and can be shared by concurrent transforms.
+   */
+  private static final ConcurrentMap<Integer, DoubleFFT_1D> CACHE_1D = new ConcurrentHashMap<>();
 
   /**
    * The forward discrete Fourier transform. *Note:* In this definition $-i$
@@ -43,11 +45,7 @@ public class JTransformsWrapper {
     ArgumentChecker.notNull(z, "array of complex number");
     final int n = z.length;
     final double[] a = packFull(z);
-    DoubleFFT_1D fft = CACHE_1D.get(n);
-    if (fft == null) {
-      fft = new DoubleFFT_1D(n);
-      CACHE_1D.put(n, fft);
-    }
+    final DoubleFFT_1D fft = getPlan(n);
     fft.complexForward(a);
     return unpackFull(a);
   }
@@ -75,11 +73,7 @@ public class JTransformsWrapper {
     ArgumentChecker.notNull(z, "array of complex number");
     final int n = z.length;
     final double[] a = packFull(z);
-    DoubleFFT_1D fft = CACHE_1D.get(n);
-    if (fft == null) {
-      fft = new DoubleFFT_1D(n);
-      CACHE_1D.put(n, fft);
-    }
+    final DoubleFFT_1D fft = getPlan(n);
     fft.complexInverse(a, scale);
     return unpackFull(a);
   }
@@ -109,11 +103,7 @@ public class JTransformsWrapper {
     ArgumentChecker.notEmpty(h, "array of doubles");
     final int n = h.length;
     final double[] a = Arrays.copyOf(h, 2 * n);
-    DoubleFFT_1D fft = CACHE_1D.get(n);
-    if (fft == null) {
-      fft = new DoubleFFT_1D(n);
-      CACHE_1D.put(n, fft);
-    }
+    final DoubleFFT_1D fft = getPlan(n);
     fft.realForwardFull(a);
     return unpackFull(a);
   }
@@ -144,11 +134,7 @@ public class JTransformsWrapper {
     ArgumentChecker.notEmpty(x, "array of doubles");
     final int n = x.length;
     final double[] a = Arrays.copyOf(x, 2 * n);
-    DoubleFFT_1D fft = CACHE_1D.get(n);
-    if (fft == null) {
-      fft = new DoubleFFT_1D(n);
-      CACHE_1D.put(n, fft);
-    }
+    final DoubleFFT_1D fft = getPlan(n);
     fft.realInverseFull(a, scale);
     return unpackFull(a);
   }
@@ -173,11 +159,7 @@ public class JTransformsWrapper {
     ArgumentChecker.notEmpty(h, "array of doubles");
     final int n = h.length;
     final double[] a = Arrays.copyOf(h, n);
-    DoubleFFT_1D fft = CACHE_1D.get(n);
-    if (fft == null) {
-      fft = new DoubleFFT_1D(n);
-      CACHE_1D.put(n, fft);
-    }
+    final DoubleFFT_1D fft = getPlan(n);
     fft.realForward(a);
     return unpack(a);
   }
@@ -204,11 +186,7 @@ public class JTransformsWrapper {
     ArgumentChecker.notEmpty(x, "array of doubles");
     final int n = x.length;
     final double[] a = Arrays.copyOf(x, n);
-    DoubleFFT_1D fft = CACHE_1D.get(n);
-    if (fft == null) {
-      fft = new DoubleFFT_1D(n);
-      CACHE_1D.put(n, fft);
-    }
+    final DoubleFFT_1D fft = getPlan(n);
     fft.realInverse(a, scale);
     return unpack(a);
   }
@@ -259,4 +237,16 @@ public class JTransformsWrapper {
 
   }
 
+  private static DoubleFFT_1D getPlan(final int n) {
+    DoubleFFT_1D fft = CACHE_1D.get(n);
+    if (fft == null) {
+      fft = new DoubleFFT_1D(n);
+      final DoubleFFT_1D existing = CACHE_1D.putIfAbsent(n, fft);
+      if (existing != null) {
+        fft = existing;
+      }
+    }
+    return fft;
+  }
+
 }
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.math.interpolation;
 
+import java.util.Arrays;
+
 import org.apache.commons.lang.Validate;
 
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
@@ -81,6 +83,83 @@ public class CombinedInterpolatorExtrapolator extends Interpolator1D {
     return _interpolator.interpolate(data, value);
   }
 
+  /**
+   * {@inheritDoc}
+   * The points inside the data range are interpolated together by the interpolator, the others are extrapolated one at a time.
+   */
+  @Override
+  public double[] interpolateValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(data, "data");
+    Validate.notNull(values, "values");
+    final int[] inside = getInside(data, values);
+    if (inside == null) {
+      return _interpolator.interpolateValues(data, values);
+    }
+    final double[] result = new double[values.length];
+    final double[] interpolated = _interpolator.interpolateValues(data, getValues(values, inside));
+    int next = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (next < inside.length && inside[next] == i) {
+        result[i] = interpolated[next++];
+      } else {
+        result[i] = interpolate(data, values[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   * The points inside the data range are handled together by the interpolator, the others are extrapolated one at a time.
+   */
+  @Override
+  public double[][] getNodeSensitivitiesForValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(data, "data");
+    Validate.notNull(values, "values");
+    final int[] inside = getInside(data, values);
+    if (inside == null) {
+      return _interpolator.getNodeSensitivitiesForValues(data, values);
+    }
+    final double[][] result = new double[values.length][];
+    final double[][] interpolated = _interpolator.getNodeSensitivitiesForValues(data, getValues(values, inside));
+    int next = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (next < inside.length && inside[next] == i) {
+        result[i] = interpolated[next++];
+      } else {
+        result[i] = getNodeSensitivitiesForValue(data, values[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets the indices of the values handled by the interpolator, in increasing order.
+   * @param data The data
+   * @param values The values
+   * @return The indices, null if all the values are handled by the interpolator
+   */
+  private int[] getInside(final Interpolator1DDataBundle data, final double[] values) {
+    final double first = data.firstKey();
+    final double last = data.lastKey();
+    final int[] inside = new int[values.length];
+    int count = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (!(values[i] < first && _leftExtrapolator != null) && !(values[i] > last && _rightExtrapolator != null)) {
+        inside[count++] = i;
+      }
+    }
+    return count == values.length ? null : Arrays.copyOf(inside, count);
+  }
+
+  private static double[] getValues(final double[] values, final int[] indices) {
+    final double[] result = new double[indices.length];
+    for (int i = 0; i < indices.length; i++) {
+      result[i] = values[indices[i]];
+    }
+    return result;
+  }
+
   @Override
   public double firstDerivative(final Interpolator1DDataBundle data, final Double value) {
     Validate.notNull(data, "data");
@@ -61,6 +61,35 @@ public class DoubleQuadraticInterpolator1D extends Interpolator1D {
     return res;
   }
 
+  @Override
+  public double[] interpolateValues(final Interpolator1DDataBundle data, final double[] values) {
+    ArgumentChecker.notNull(values, "values");
+    ArgumentChecker.notNull(data, "data bundle");
+    ArgumentChecker.isTrue(data instanceof Interpolator1DDoubleQuadraticDataBundle, "data bundle is of wrong type");
+    final Interpolator1DDoubleQuadraticDataBundle quadraticData = (Interpolator1DDoubleQuadraticDataBundle) data;
+    final int n = data.size() - 1;
+    final double[] xData = data.getKeys();
+    final double[] yData = data.getValues();
+    final int[] indices = getLowerBoundIndices(data, values);
+    final double[] result = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final double value = values[i];
+      final int low = indices[i];
+      final int high = low + 1;
+      if (low == n) {
+        result[i] = yData[n];
+      } else if (low == 0) {
+        result[i] = quadraticData.getQuadratic(0).evaluate(value - xData[1]);
+      } else if (high == n) {
+        result[i] = quadraticData.getQuadratic(n - 2).evaluate(value - xData[n - 1]);
+      } else {
+        final double w = _weightFunction.getWeight((xData[high] - value) / (xData[high] - xData[low]));
+        result[i] = w * quadraticData.getQuadratic(low - 1).evaluate(value - xData[low]) + (1 - w) * quadraticData.getQuadratic(high - 1).evaluate(value - xData[high]);
+      }
+    }
+    return result;
+  }
+
   @Override
   public double firstDerivative(final Interpolator1DDataBundle data, final Double value) {
     ArgumentChecker.notNull(value, "value");
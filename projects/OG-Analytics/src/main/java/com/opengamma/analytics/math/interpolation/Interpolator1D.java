@@ -12,6 +12,7 @@ import java.util.SortedMap;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.Validate;
 
+import com.opengamma.analytics.math.FunctionUtils;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 
 /**
@@ -20,11 +21,65 @@ import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 public abstract class Interpolator1D implements Interpolator<Interpolator1DDataBundle, Double>, Serializable {
 
   private static final long serialVersionUID = 1L;
-  private static final double EPS = 1e-6;
+  /** The shift used by the finite difference sensitivities */
+  protected static final double EPS = 1e-6;
 
   @Override
   public abstract Double interpolate(Interpolator1DDataBundle data, Double value);
 
+  /**
+   * Computes the interpolated values at several points. The points do not need to be sorted, but sorted points are located in the data
+   * in a single pass. This implementation interpolates each point in turn; interpolators with a primitive kernel override it.
+   * @param data The interpolation data.
+   * @param values The values for which the interpolation is computed.
+   * @return The interpolated values, in the order of the points.
+   */
+  public double[] interpolateValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(data, "data");
+    Validate.notNull(values, "values");
+    final double[] result = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = interpolate(data, values[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Computes the sensitivities of the interpolated values at several points to the input data y.
+   * @param data The interpolation data.
+   * @param values The values for which the interpolation is computed.
+   * @return The sensitivities, one row for each point.
+   */
+  public double[][] getNodeSensitivitiesForValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(data, "data");
+    Validate.notNull(values, "values");
+    final double[][] result = new double[values.length][];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = getNodeSensitivitiesForValue(data, values[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Finds the lower bound indices of several values in the data, as {@link Interpolator1DDataBundle#getLowerBoundIndex(Double)}.
+   * @param data The interpolation data.
+   * @param values The values.
+   * @return The indices.
+   */
+  protected static int[] getLowerBoundIndices(final Interpolator1DDataBundle data, final double[] values) {
+    final double[] keys = data.getKeys();
+    final int n = keys.length;
+    for (final double value : values) {
+      if (value < keys[0]) {
+        throw new IllegalArgumentException("Could not get lower bound index for " + value + ": lowest x-value is " + keys[0]);
+      }
+      if (value > keys[n - 1]) {
+        throw new IllegalArgumentException("Could not get lower bound index for " + value + ": highest x-value is " + keys[n - 1]);
+      }
+    }
+    return FunctionUtils.getLowerBoundIndices(keys, values);
+  }
+
   public double firstDerivative(final Interpolator1DDataBundle data, final Double value) {
     final double vm = value - EPS;
     final double vp = value + EPS;
@@ -72,6 +72,47 @@ public class LinearInterpolator1D extends Interpolator1D {
     return result;
   }
 
+  @Override
+  public double[] interpolateValues(final Interpolator1DDataBundle model, final double[] values) {
+    Validate.notNull(values, "Values to be interpolated must not be null");
+    Validate.notNull(model, "Data bundle must not be null");
+    final double[] xData = model.getKeys();
+    final double[] yData = model.getValues();
+    final int n = xData.length;
+    final int[] indices = getLowerBoundIndices(model, values);
+    final double[] result = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final int low = indices[i];
+      if (low == n - 1) {
+        result[i] = yData[n - 1];
+      } else {
+        result[i] = yData[low] + (values[i] - xData[low]) / (xData[low + 1] - xData[low]) * (yData[low + 1] - yData[low]);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public double[][] getNodeSensitivitiesForValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(values, "values");
+    Validate.notNull(data, "data");
+    final double[] xData = data.getKeys();
+    final int n = xData.length;
+    final int[] indices = getLowerBoundIndices(data, values);
+    final double[][] result = new double[values.length][n];
+    for (int i = 0; i < values.length; i++) {
+      final int low = indices[i];
+      if (low == n - 1) {
+        result[i][n - 1] = 1.0;
+      } else {
+        final double a = (xData[low + 1] - values[i]) / (xData[low + 1] - xData[low]);
+        result[i][low] = a;
+        result[i][low + 1] = 1 - a;
+      }
+    }
+    return result;
+  }
+
   @Override
   public Interpolator1DDataBundle getDataBundle(final double[] x, final double[] y) {
     return new ArrayInterpolator1DDataBundle(x, y);
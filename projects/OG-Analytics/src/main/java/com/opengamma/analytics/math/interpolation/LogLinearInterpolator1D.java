@@ -55,6 +55,61 @@ public class LogLinearInterpolator1D extends Interpolator1D {
     return Math.pow(y2 / y1, (value - x1) / (x2 - x1)) * y1 * Math.log(y2 / y1) / (x2 - x1);
   }
 
+  @Override
+  public double[] interpolateValues(final Interpolator1DDataBundle model, final double[] values) {
+    Validate.notNull(values, "values");
+    Validate.notNull(model, "data bundle");
+    final double[] xData = model.getKeys();
+    final double[] yData = model.getValues();
+    final int n = xData.length;
+    final int[] indices = getLowerBoundIndices(model, values);
+    final double[] result = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final int low = indices[i];
+      if (low == n - 1) {
+        result[i] = yData[n - 1];
+      } else {
+        result[i] = interpolate(xData[low], yData[low], xData[low + 1], yData[low + 1], values[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The sensitivities are the central finite differences of {@link #getNodeSensitivitiesForValue}, computed only for the two nodes
+   * bounding each point, as bumping any other node leaves the interpolated value unchanged.
+   */
+  @Override
+  public double[][] getNodeSensitivitiesForValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(values, "values");
+    Validate.notNull(data, "data bundle");
+    final double[] xData = data.getKeys();
+    final double[] yData = data.getValues();
+    final int n = xData.length;
+    final int[] indices = getLowerBoundIndices(data, values);
+    final double[][] result = new double[values.length][n];
+    for (int i = 0; i < values.length; i++) {
+      final int low = indices[i];
+      if (low == n - 1) {
+        result[i][n - 1] = ((yData[n - 1] + EPS) - (yData[n - 1] - EPS)) / 2 / EPS;
+      } else {
+        final double x1 = xData[low];
+        final double x2 = xData[low + 1];
+        final double y1 = yData[low];
+        final double y2 = yData[low + 1];
+        result[i][low] = (interpolate(x1, y1 + EPS, x2, y2, values[i]) - interpolate(x1, y1 - EPS, x2, y2, values[i])) / 2 / EPS;
+        result[i][low + 1] = (interpolate(x1, y1, x2, y2 + EPS, values[i]) - interpolate(x1, y1, x2, y2 - EPS, values[i])) / 2 / EPS;
+      }
+    }
+    return result;
+  }
+
+  private static double interpolate(final double x1, final double y1, final double x2, final double y2, final double value) {
+    return Math.pow(y2 / y1, (value - x1) / (x2 - x1)) * y1;
+  }
+
   @Override
   public Interpolator1DDataBundle getDataBundle(final double[] x, final double[] y) {
     return new ArrayInterpolator1DDataBundle(x, y);
@@ -7,6 +7,7 @@ package com.opengamma.analytics.math.interpolation;
 
 import org.apache.commons.lang.Validate;
 
+import com.opengamma.analytics.math.FunctionUtils;
 import com.opengamma.analytics.math.function.PiecewisePolynomialFunction1D;
 import com.opengamma.analytics.math.interpolation.data.ArrayInterpolator1DDataBundle;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
@@ -71,6 +72,67 @@ public class MonotoneConvexSplineInterpolator1D extends PiecewisePolynomialInter
     return res;
   }
 
+  @Override
+  public double[] interpolateValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(values, "values");
+    Validate.notNull(data, "data bundle");
+    Validate.isTrue(data instanceof Interpolator1DPiecewisePoynomialWithExtraKnotsDataBundle);
+    for (final double value : values) {
+      Validate.isTrue(!Double.isNaN(value) && !Double.isInfinite(value), "values containing NaN or Infinity");
+    }
+    return evaluate(((Interpolator1DPiecewisePoynomialWithExtraKnotsDataBundle) data).getPiecewisePolynomialResult(), values);
+  }
+
+  @Override
+  public double[][] getNodeSensitivitiesForValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(values, "values");
+    Validate.notNull(data, "data bundle");
+    Validate.isTrue(data instanceof Interpolator1DPiecewisePoynomialWithExtraKnotsDataBundle);
+    for (final double value : values) {
+      Validate.isTrue(!Double.isNaN(value) && !Double.isInfinite(value), "values containing NaN or Infinity");
+    }
+    final Interpolator1DPiecewisePoynomialWithExtraKnotsDataBundle polyData = (Interpolator1DPiecewisePoynomialWithExtraKnotsDataBundle) data;
+    final int nData = polyData.size();
+    final double[][] res = new double[values.length][nData];
+    final double eps = polyData.getEps();
+    final double small = polyData.getSmall();
+    for (int i = 0; i < nData; ++i) {
+      final double den = Math.abs(polyData.getValues()[i]) < small ? eps : polyData.getValues()[i] * eps;
+      final double[] up = evaluate(polyData.getPiecewisePolynomialResultUp()[i], values);
+      final double[] dw = evaluate(polyData.getPiecewisePolynomialResultDw()[i], values);
+      for (int j = 0; j < values.length; j++) {
+        res[j][i] = 0.5 * (up[j] - dw[j]) / den;
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Evaluates a piecewise polynomial at several points, locating the points in a single pass when they are sorted.
+   * The last knot is evaluated on the last interval, as {@link PiecewisePolynomialFunction1D}.
+   * @param pp The piecewise polynomial
+   * @param values The points, within the knots
+   * @return The values of the polynomial
+   */
+  private static double[] evaluate(final PiecewisePolynomialResult pp, final double[] values) {
+    final double[] knots = pp.getKnots().getData();
+    final double[][] coefs = pp.getCoefMatrix().getData();
+    final int nKnots = knots.length;
+    final int[] indices = FunctionUtils.getLowerBoundIndices(knots, values);
+    final double[] result = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final int interval = indices[i] == nKnots - 1 ? nKnots - 2 : indices[i];
+      final double[] coef = coefs[interval];
+      final double s = values[i] - knots[interval];
+      double value = coef[0];
+      for (int j = 1; j < coef.length; j++) {
+        value = value * s + coef[j];
+      }
+      result[i] = value;
+    }
+    return result;
+  }
+
   @Override
   public Interpolator1DDataBundle getDataBundle(final double[] x, final double[] y) {
     return new Interpolator1DPiecewisePoynomialWithExtraKnotsDataBundle(new ArrayInterpolator1DDataBundle(x, y, false), this._baseMethod);
@@ -103,6 +103,71 @@ public class NaturalCubicSplineInterpolator1D extends Interpolator1D {
     return result;
   }
 
+  @Override
+  public double[] interpolateValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(values, "values");
+    Validate.notNull(data, "data bundle");
+    Validate.isTrue(data instanceof Interpolator1DCubicSplineDataBundle);
+    final Interpolator1DCubicSplineDataBundle splineData = (Interpolator1DCubicSplineDataBundle) data;
+    final double[] xData = data.getKeys();
+    final double[] yData = data.getValues();
+    final double[] y2 = splineData.getSecondDerivatives();
+    final int n = data.size() - 1;
+    final int[] indices = getLowerBoundIndices(data, values);
+    final double[] result = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final int low = indices[i];
+      if (low == n) {
+        result[i] = yData[n];
+        continue;
+      }
+      final int high = low + 1;
+      final double delta = xData[high] - xData[low];
+      if (Math.abs(delta) < _eps) {
+        throw new MathException("x data points were not distinct");
+      }
+      final double a = (xData[high] - values[i]) / delta;
+      final double b = (values[i] - xData[low]) / delta;
+      result[i] = a * yData[low] + b * yData[high] + (a * (a * a - 1) * y2[low] + b * (b * b - 1) * y2[high]) * delta * delta / 6.;
+    }
+    return result;
+  }
+
+  @Override
+  public double[][] getNodeSensitivitiesForValues(final Interpolator1DDataBundle data, final double[] values) {
+    Validate.notNull(values, "values");
+    Validate.notNull(data, "data");
+    Validate.isTrue(data instanceof Interpolator1DCubicSplineDataBundle);
+    final Interpolator1DCubicSplineDataBundle cubicData = (Interpolator1DCubicSplineDataBundle) data;
+    final double[] xData = cubicData.getKeys();
+    final int n = cubicData.size();
+    final int[] indices = getLowerBoundIndices(data, values);
+    final double[][] result = new double[values.length][n];
+    double[][] y2Sensitivities = null;
+    for (int i = 0; i < values.length; i++) {
+      final int low = indices[i];
+      if (low == n - 1) {
+        result[i][n - 1] = 1.0;
+        continue;
+      }
+      if (y2Sensitivities == null) {
+        y2Sensitivities = cubicData.getSecondDerivativesSensitivities();
+      }
+      final int high = low + 1;
+      final double delta = xData[high] - xData[low];
+      final double a = (xData[high] - values[i]) / delta;
+      final double b = (values[i] - xData[low]) / delta;
+      final double c = a * (a * a - 1) * delta * delta / 6.;
+      final double d = b * (b * b - 1) * delta * delta / 6.;
+      for (int j = 0; j < n; j++) {
+        result[i][j] = c * y2Sensitivities[low][j] + d * y2Sensitivities[high][j];
+      }
+      result[i][low] += a;
+      result[i][high] += b;
+    }
+    return result;
+  }
+
   @Override
   public Interpolator1DDataBundle getDataBundle(final double[] x, final double[] y) {
     return new Interpolator1DCubicSplineDataBundle(new ArrayInterpolator1DDataBundle(x, y));
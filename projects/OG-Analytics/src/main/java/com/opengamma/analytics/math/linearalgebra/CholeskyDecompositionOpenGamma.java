@@ -11,6 +11,8 @@ import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 
 /**
  * OpenGamma implementation of the Cholesky decomposition and its differentiation.
+ * <p>
+ * The factor L is computed row by row in a contiguous row-major array.
  */
 public class CholeskyDecompositionOpenGamma extends Decomposition<CholeskyDecompositionResult> {
 
@@ -45,32 +47,34 @@ public class CholeskyDecompositionOpenGamma extends Decomposition<CholeskyDecomp
     int nbRow = matrix.getNumberOfRows();
     int nbCol = matrix.getNumberOfColumns();
     Validate.isTrue(nbRow == nbCol, "Matrix not square");
-    double[][] l = new double[nbRow][nbRow];
-    // Check symmetry and initial fill of _lTArray
     double[][] matrixData = matrix.getData();
+    // Check symmetry
     for (int looprow = 0; looprow < nbRow; looprow++) {
-      for (int loopcol = 0; loopcol <= looprow; loopcol++) {
+      for (int loopcol = 0; loopcol < looprow; loopcol++) {
         double maxValue = Math.max(Math.abs(matrixData[looprow][loopcol]), Math.abs(matrixData[loopcol][looprow]));
         double diff = Math.abs(matrixData[looprow][loopcol] - matrixData[loopcol][looprow]);
         Validate.isTrue(diff <= maxValue * symmetryThreshold, "Matrix not symmetrical");
-        l[looprow][loopcol] = matrixData[looprow][loopcol];
       }
     }
-    // The decomposition
-    for (int loopcol = 0; loopcol < nbCol; loopcol++) {
-      Validate.isTrue(l[loopcol][loopcol] > positivityThreshold, "Matrix not positive");
-      l[loopcol][loopcol] = Math.sqrt(l[loopcol][loopcol]); // Pivot
-      double lInverse = 1.0 / l[loopcol][loopcol];
-      for (int looprow = loopcol + 1; looprow < nbRow; looprow++) { // Current column
-        l[looprow][loopcol] *= lInverse;
-      }
-      for (int j = loopcol + 1; j < nbRow; j++) { // Other columns
-        for (int i = j; i < nbRow; i++) {
-          l[i][j] -= l[i][loopcol] * l[j][loopcol];
+    // The decomposition, row by row, in a packed row-major array: the inner products run over contiguous rows of L
+    final double[] l = new double[nbRow * nbRow];
+    for (int looprow = 0; looprow < nbRow; looprow++) {
+      final int row = looprow * nbRow;
+      for (int loopcol = 0; loopcol <= looprow; loopcol++) {
+        final int col = loopcol * nbRow;
+        double sum = matrixData[looprow][loopcol];
+        for (int k = 0; k < loopcol; k++) {
+          sum -= l[row + k] * l[col + k];
+        }
+        if (loopcol == looprow) {
+          Validate.isTrue(sum > positivityThreshold, "Matrix not positive");
+          l[row + looprow] = Math.sqrt(sum); // Pivot
+        } else {
+          l[row + loopcol] = sum / l[col + loopcol];
         }
       }
     }
-    return new CholeskyDecompositionOpenGammaResult(l);
+    return new CholeskyDecompositionOpenGammaResult(l, nbRow);
   }
 
 }
@@ -19,9 +19,13 @@ public class CholeskyDecompositionOpenGammaResult implements CholeskyDecompositi
 
   private static final MatrixAlgebra ALGEBRA = new OGMatrixAlgebra();
   /**
-   * The array that store the data.
+   * The array that store the data: the matrix L packed in row-major order.
    */
-  private final double[][] _lArray;
+  private final double[] _lArray;
+  /**
+   * The dimension of the matrix.
+   */
+  private final int _dim;
   /**
    * The matrix L, result of the decomposition.
    */
@@ -40,38 +44,52 @@ public class CholeskyDecompositionOpenGammaResult implements CholeskyDecompositi
    * @param lArray The matrix L as an array of doubles.
    */
   public CholeskyDecompositionOpenGammaResult(final double[][] lArray) {
+    this(RowMajorStorage.pack(new DoubleMatrix2D(lArray)), lArray.length);
+  }
+
+  /**
+   * Constructor.
+   * @param lArray The matrix L packed in row-major order.
+   * @param dim The dimension of the matrix.
+   */
+  CholeskyDecompositionOpenGammaResult(final double[] lArray, final int dim) {
     _lArray = lArray;
-    _l = new DoubleMatrix2D(_lArray);
-    _lT = ALGEBRA.getTranspose(_l);
+    _dim = dim;
+    _l = dim == 0 ? DoubleMatrix2D.EMPTY_MATRIX : RowMajorStorage.unpack(_lArray, dim, dim);
+    _lT = dim == 0 ? DoubleMatrix2D.EMPTY_MATRIX : ALGEBRA.getTranspose(_l);
     _determinant = 1.0;
-    for (int loopdiag = 0; loopdiag < _lArray.length; ++loopdiag) {
-      _determinant *= _lArray[loopdiag][loopdiag] * _lArray[loopdiag][loopdiag];
+    for (int loopdiag = 0; loopdiag < dim; ++loopdiag) {
+      final double diag = _lArray[loopdiag * dim + loopdiag];
+      _determinant *= diag * diag;
     }
   }
 
   @Override
   public DoubleMatrix1D solve(DoubleMatrix1D b) {
-    return new DoubleMatrix1D(b.getData());
+    return new DoubleMatrix1D(solve(b.getData()));
   }
 
   @Override
   public double[] solve(double[] b) {
     int dim = b.length;
-    Validate.isTrue(dim == _lArray.length, "b array of incorrect size");
+    Validate.isTrue(dim == _dim, "b array of incorrect size");
     final double[] x = new double[dim];
     System.arraycopy(b, 0, x, 0, dim);
     // L y = b (y stored in x array)
     for (int looprow = 0; looprow < dim; looprow++) {
-      x[looprow] /= _lArray[looprow][looprow];
-      for (int j = looprow + 1; j < dim; j++) {
-        x[j] -= x[looprow] * _lArray[j][looprow];
+      final int row = looprow * dim;
+      double sum = x[looprow];
+      for (int j = 0; j < looprow; j++) {
+        sum -= _lArray[row + j] * x[j];
       }
+      x[looprow] = sum / _lArray[row + looprow];
     }
     // L^T x = y
-    for (int looprow = dim - 1; looprow >= -0; looprow--) {
-      x[looprow] /= _lArray[looprow][looprow];
+    for (int looprow = dim - 1; looprow >= 0; looprow--) {
+      final int row = looprow * dim;
+      x[looprow] /= _lArray[row + looprow];
       for (int j = 0; j < looprow; j++) {
-        x[j] -= x[looprow] * _lArray[looprow][j];
+        x[j] -= x[looprow] * _lArray[row + j];
       }
     }
     return x;
@@ -81,31 +99,45 @@ public class CholeskyDecompositionOpenGammaResult implements CholeskyDecompositi
   public DoubleMatrix2D solve(DoubleMatrix2D b) {
     int nbRow = b.getNumberOfRows();
     int nbCol = b.getNumberOfColumns();
-    Validate.isTrue(nbRow == _lArray.length, "b array of incorrect size");
+    Validate.isTrue(nbRow == _dim, "b array of incorrect size");
     double[][] bArray = b.getData();
-    final double[][] x = new double[nbRow][nbCol];
+    final double[] x = new double[nbRow * nbCol];
     for (int looprow = 0; looprow < nbRow; looprow++) {
-      System.arraycopy(bArray[looprow], 0, x[looprow], 0, nbCol);
+      System.arraycopy(bArray[looprow], 0, x, looprow * nbCol, nbCol);
     }
-    // L Y = B (Y stored in x array)
-    for (int loopcol = 0; loopcol < nbCol; loopcol++) {
-      for (int looprow = 0; looprow < nbRow; looprow++) {
-        x[looprow][loopcol] /= _lArray[looprow][looprow];
-        for (int j = looprow + 1; j < nbRow; j++) {
-          x[j][loopcol] -= x[looprow][loopcol] * _lArray[j][looprow];
+    // L Y = B (Y stored in x array), by whole rows of Y
+    for (int looprow = 0; looprow < nbRow; looprow++) {
+      final int row = looprow * nbRow;
+      final int xRow = looprow * nbCol;
+      for (int j = 0; j < looprow; j++) {
+        final double l = _lArray[row + j];
+        final int xRowJ = j * nbCol;
+        for (int loopcol = 0; loopcol < nbCol; loopcol++) {
+          x[xRow + loopcol] -= l * x[xRowJ + loopcol];
         }
       }
+      final double lInverse = 1.0 / _lArray[row + looprow];
+      for (int loopcol = 0; loopcol < nbCol; loopcol++) {
+        x[xRow + loopcol] *= lInverse;
+      }
     }
-    // L^T X = Y
-    for (int loopcol = 0; loopcol < nbCol; loopcol++) {
-      for (int looprow = nbRow - 1; looprow >= -0; looprow--) {
-        x[looprow][loopcol] /= _lArray[looprow][looprow];
-        for (int j = 0; j < looprow; j++) {
-          x[j][loopcol] -= x[looprow][loopcol] * _lArray[looprow][j];
+    // L^T X = Y, by whole rows of X
+    for (int looprow = nbRow - 1; looprow >= 0; looprow--) {
+      final int row = looprow * nbRow;
+      final int xRow = looprow * nbCol;
+      final double lInverse = 1.0 / _lArray[row + looprow];
+      for (int loopcol = 0; loopcol < nbCol; loopcol++) {
+        x[xRow + loopcol] *= lInverse;
+      }
+      for (int j = 0; j < looprow; j++) {
+        final double l = _lArray[row + j];
+        final int xRowJ = j * nbCol;
+        for (int loopcol = 0; loopcol < nbCol; loopcol++) {
+          x[xRowJ + loopcol] -= l * x[xRow + loopcol];
         }
       }
     }
-    return new DoubleMatrix2D(x);
+    return RowMajorStorage.unpack(x, nbRow, nbCol);
   }
 
   @Override
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * OpenGamma implementation of the LU decomposition with partial (row) pivoting.
+ * <p>
+ * The matrix is copied once into a contiguous row-major array and the factors are computed in place, $\mathbf{L}$ (unit diagonal)
+ * below the diagonal and $\mathbf{U}$ on and above it. The elimination is row-oriented so that the inner loops run over contiguous
+ * memory, and the result solves directly on the packed factors.
+ */
+public class LUDecompositionOpenGamma extends Decomposition<LUDecompositionResult> {
+
+  /**
+   * The default absolute threshold under which a pivot is considered to be zero (the same as the Commons implementation).
+   */
+  public static final double DEFAULT_SINGULARITY_THRESHOLD = 1.0E-11;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public LUDecompositionResult evaluate(final DoubleMatrix2D x) {
+    return evaluate(x, DEFAULT_SINGULARITY_THRESHOLD);
+  }
+
+  /**
+   * Performs the decomposition with a given singularity threshold.
+   * @param matrix The matrix to decompose, not null, square
+   * @param singularityThreshold The absolute threshold under which a pivot is considered to be zero. With a zero threshold, singular
+   * matrices are decomposed (with a zero determinant) but cannot be used to solve systems.
+   * @return The LU decomposition
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  public LUDecompositionResult evaluate(final DoubleMatrix2D matrix, final double singularityThreshold) {
+    ArgumentChecker.notNull(matrix, "matrix");
+    final int n = matrix.getNumberOfRows();
+    ArgumentChecker.isTrue(n == matrix.getNumberOfColumns(), "Matrix not square");
+    final double[] lu = RowMajorStorage.pack(matrix);
+    final int[] pivot = new int[n];
+    for (int i = 0; i < n; i++) {
+      pivot[i] = i;
+    }
+    boolean even = true;
+    for (int k = 0; k < n; k++) {
+      // pivot search in column k
+      int p = k;
+      double max = Math.abs(lu[k * n + k]);
+      for (int i = k + 1; i < n; i++) {
+        final double abs = Math.abs(lu[i * n + k]);
+        if (abs > max) {
+          max = abs;
+          p = i;
+        }
+      }
+      ArgumentChecker.isTrue(max >= singularityThreshold, "Matrix is singular; could not perform LU decomposition");
+      if (max == 0.0) {
+        // only with a zero threshold: the column is already eliminated and the determinant is zero
+        continue;
+      }
+      if (p != k) {
+        RowMajorStorage.swapRows(lu, n, p, k);
+        final int temp = pivot[p];
+        pivot[p] = pivot[k];
+        pivot[k] = temp;
+        even = !even;
+      }
+      // elimination of the rows below the pivot, by whole (contiguous) rows
+      final int rowK = k * n;
+      final double pivotInverse = 1.0 / lu[rowK + k];
+      for (int i = k + 1; i < n; i++) {
+        final int rowI = i * n;
+        final double l = lu[rowI + k] * pivotInverse;
+        lu[rowI + k] = l;
+        for (int j = k + 1; j < n; j++) {
+          lu[rowI + j] -= l * lu[rowK + j];
+        }
+      }
+    }
+    return new LUDecompositionOpenGammaResult(lu, n, pivot, even);
+  }
+
+}
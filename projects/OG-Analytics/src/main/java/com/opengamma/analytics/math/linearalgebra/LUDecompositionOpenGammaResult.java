@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Results of the OpenGamma implementation of the LU decomposition ({@link LUDecompositionOpenGamma}).
+ * <p>
+ * The factors are kept packed in a single row-major array; the matrices $\mathbf{L}$, $\mathbf{U}$ and $\mathbf{P}$ are only
+ * created when requested.
+ */
+public class LUDecompositionOpenGammaResult implements LUDecompositionResult {
+
+  /**
+   * The packed factors: L below the diagonal (unit diagonal not stored), U on and above the diagonal.
+   */
+  private final double[] _lu;
+  /**
+   * The dimension of the matrix.
+   */
+  private final int _n;
+  /**
+   * The row permutation: row i of PA is row _pivot[i] of A.
+   */
+  private final int[] _pivot;
+  /**
+   * The determinant of the original matrix.
+   */
+  private final double _determinant;
+
+  /**
+   * Constructor.
+   * @param lu The packed factors, row-major, not null
+   * @param n The dimension of the matrix
+   * @param pivot The row permutation, not null
+   * @param evenPermutation True if the permutation is even
+   */
+  LUDecompositionOpenGammaResult(final double[] lu, final int n, final int[] pivot, final boolean evenPermutation) {
+    _lu = lu;
+    _n = n;
+    _pivot = pivot;
+    double determinant = evenPermutation ? 1.0 : -1.0;
+    for (int i = 0; i < n; i++) {
+      determinant *= lu[i * n + i];
+    }
+    _determinant = determinant;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix1D solve(final DoubleMatrix1D b) {
+    ArgumentChecker.notNull(b, "b");
+    return new DoubleMatrix1D(solve(b.getData()));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double[] solve(final double[] b) {
+    ArgumentChecker.notNull(b, "b");
+    final int n = _n;
+    ArgumentChecker.isTrue(b.length == n, "b array of incorrect size");
+    final double[] lu = _lu;
+    final double[] x = new double[n];
+    // L y = P b
+    for (int i = 0; i < n; i++) {
+      final int rowI = i * n;
+      double sum = b[_pivot[i]];
+      for (int k = 0; k < i; k++) {
+        sum -= lu[rowI + k] * x[k];
+      }
+      x[i] = sum;
+    }
+    // U x = y
+    for (int i = n - 1; i >= 0; i--) {
+      final int rowI = i * n;
+      double sum = x[i];
+      for (int k = i + 1; k < n; k++) {
+        sum -= lu[rowI + k] * x[k];
+      }
+      x[i] = sum / lu[rowI + i];
+    }
+    return x;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D solve(final DoubleMatrix2D b) {
+    ArgumentChecker.notNull(b, "b");
+    final int n = _n;
+    ArgumentChecker.isTrue(b.getNumberOfRows() == n, "b matrix of incorrect size");
+    final int m = b.getNumberOfColumns();
+    final double[][] bData = b.getData();
+    final double[] lu = _lu;
+    final double[] x = new double[n * m];
+    for (int i = 0; i < n; i++) {
+      System.arraycopy(bData[_pivot[i]], 0, x, i * m, m);
+    }
+    // L Y = P B, row by row
+    for (int i = 0; i < n; i++) {
+      final int rowI = i * m;
+      for (int k = 0; k < i; k++) {
+        final double l = lu[i * n + k];
+        final int rowK = k * m;
+        for (int j = 0; j < m; j++) {
+          x[rowI + j] -= l * x[rowK + j];
+        }
+      }
+    }
+    // U X = Y, row by row
+    for (int i = n - 1; i >= 0; i--) {
+      final int rowI = i * m;
+      for (int k = i + 1; k < n; k++) {
+        final double u = lu[i * n + k];
+        final int rowK = k * m;
+        for (int j = 0; j < m; j++) {
+          x[rowI + j] -= u * x[rowK + j];
+        }
+      }
+      final double diagInverse = 1.0 / lu[i * n + i];
+      for (int j = 0; j < m; j++) {
+        x[rowI + j] *= diagInverse;
+      }
+    }
+    return RowMajorStorage.unpack(x, n, m);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getL() {
+    final int n = _n;
+    final DoubleMatrix2D l = new DoubleMatrix2D(n, n);
+    final double[][] data = l.getData();
+    for (int i = 0; i < n; i++) {
+      System.arraycopy(_lu, i * n, data[i], 0, i);
+      data[i][i] = 1.0;
+    }
+    return l;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getU() {
+    final int n = _n;
+    final DoubleMatrix2D u = new DoubleMatrix2D(n, n);
+    final double[][] data = u.getData();
+    for (int i = 0; i < n; i++) {
+      System.arraycopy(_lu, i * n + i, data[i], i, n - i);
+    }
+    return u;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getP() {
+    final int n = _n;
+    final DoubleMatrix2D p = new DoubleMatrix2D(n, n);
+    final double[][] data = p.getData();
+    for (int i = 0; i < n; i++) {
+      data[i][_pivot[i]] = 1.0;
+    }
+    return p;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int[] getPivot() {
+    return _pivot.clone();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getDeterminant() {
+    return _determinant;
+  }
+
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * OpenGamma implementation of the QR decomposition by Householder reflections.
+ * <p>
+ * The transpose of the matrix is copied once into a contiguous row-major array, so that each column of the original matrix - and
+ * each Householder vector built from it - is contiguous in memory. The reflections are applied in place and the result solves
+ * directly on the packed reflectors, without forming $\mathbf{Q}$.
+ */
+public class QRDecompositionOpenGamma extends Decomposition<QRDecompositionResult> {
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public QRDecompositionResult evaluate(final DoubleMatrix2D x) {
+    ArgumentChecker.notNull(x, "x");
+    final int m = x.getNumberOfRows();
+    final int n = x.getNumberOfColumns();
+    final double[] qrt = RowMajorStorage.packTranspose(x);
+    final int p = Math.min(m, n);
+    final double[] rDiag = new double[p];
+    for (int minor = 0; minor < p; minor++) {
+      final int colMinor = minor * m;
+      double xNormSqr = 0.0;
+      for (int row = minor; row < m; row++) {
+        final double c = qrt[colMinor + row];
+        xNormSqr += c * c;
+      }
+      final double a = qrt[colMinor + minor] > 0 ? -Math.sqrt(xNormSqr) : Math.sqrt(xNormSqr);
+      rDiag[minor] = a;
+      if (a != 0.0) {
+        // the Householder vector v = x - a e_minor is stored in place of x; H = I - v v^T / (-a v_minor)
+        qrt[colMinor + minor] -= a;
+        final double scale = a * qrt[colMinor + minor];
+        for (int col = minor + 1; col < n; col++) {
+          final int colCol = col * m;
+          double alpha = 0.0;
+          for (int row = minor; row < m; row++) {
+            alpha -= qrt[colCol + row] * qrt[colMinor + row];
+          }
+          alpha /= scale;
+          for (int row = minor; row < m; row++) {
+            qrt[colCol + row] -= alpha * qrt[colMinor + row];
+          }
+        }
+      }
+    }
+    return new QRDecompositionOpenGammaResult(qrt, m, n, rDiag);
+  }
+
+}
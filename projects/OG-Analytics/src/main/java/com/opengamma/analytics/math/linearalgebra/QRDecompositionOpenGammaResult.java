@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.matrix.DoubleMatrixUtils;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Results of the OpenGamma implementation of the QR decomposition ({@link QRDecompositionOpenGamma}).
+ * <p>
+ * The solver computes the least-squares solution when the matrix has more rows than columns. The matrices $\mathbf{Q}$,
+ * $\mathbf{R}$ and $\mathbf{H}$ are only created when requested.
+ */
+public class QRDecompositionOpenGammaResult implements QRDecompositionResult {
+
+  /**
+   * The transpose of the packed decomposition: row j holds the Householder vector j below the diagonal and the column j of R above it.
+   */
+  private final double[] _qrt;
+  /**
+   * The number of rows of the original matrix.
+   */
+  private final int _m;
+  /**
+   * The number of columns of the original matrix.
+   */
+  private final int _n;
+  /**
+   * The diagonal of R.
+   */
+  private final double[] _rDiag;
+
+  /**
+   * Constructor.
+   * @param qrt The transpose of the packed decomposition, row-major, not null
+   * @param m The number of rows of the original matrix
+   * @param n The number of columns of the original matrix
+   * @param rDiag The diagonal of R, not null
+   */
+  QRDecompositionOpenGammaResult(final double[] qrt, final int m, final int n, final double[] rDiag) {
+    _qrt = qrt;
+    _m = m;
+    _n = n;
+    _rDiag = rDiag;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getR() {
+    final DoubleMatrix2D r = new DoubleMatrix2D(_m, _n);
+    final double[][] data = r.getData();
+    for (int row = 0; row < Math.min(_m, _n); row++) {
+      data[row][row] = _rDiag[row];
+      for (int col = row + 1; col < _n; col++) {
+        data[row][col] = _qrt[col * _m + row];
+      }
+    }
+    return r;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getQ() {
+    return DoubleMatrixUtils.getTranspose(getQT());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getQT() {
+    final int m = _m;
+    final int p = Math.min(m, _n);
+    final DoubleMatrix2D qt = new DoubleMatrix2D(m, m);
+    final double[][] data = qt.getData();
+    for (int minor = m - 1; minor >= p; minor--) {
+      data[minor][minor] = 1.0;
+    }
+    // Q^T = H_(p-1) ... H_0, accumulated backwards from the identity
+    for (int minor = p - 1; minor >= 0; minor--) {
+      final int colMinor = minor * m;
+      data[minor][minor] = 1.0;
+      if (_qrt[colMinor + minor] != 0.0) {
+        final double scale = _rDiag[minor] * _qrt[colMinor + minor];
+        for (int col = minor; col < m; col++) {
+          final double[] qtCol = data[col];
+          double alpha = 0.0;
+          for (int row = minor; row < m; row++) {
+            alpha -= qtCol[row] * _qrt[colMinor + row];
+          }
+          alpha /= scale;
+          for (int row = minor; row < m; row++) {
+            qtCol[row] -= alpha * _qrt[colMinor + row];
+          }
+        }
+      }
+    }
+    return qt;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getH() {
+    final DoubleMatrix2D h = new DoubleMatrix2D(_m, _n);
+    final double[][] data = h.getData();
+    for (int i = 0; i < _m; i++) {
+      for (int j = 0; j < Math.min(i + 1, _n); j++) {
+        data[i][j] = _qrt[j * _m + i] / -_rDiag[j];
+      }
+    }
+    return h;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix1D solve(final DoubleMatrix1D b) {
+    ArgumentChecker.notNull(b, "b");
+    return new DoubleMatrix1D(solve(b.getData()));
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  @Override
+  public double[] solve(final double[] b) {
+    ArgumentChecker.notNull(b, "b");
+    ArgumentChecker.isTrue(b.length == _m, "b array of incorrect size");
+    checkNonSingular();
+    final double[] y = b.clone();
+    return solveInPlace(y);
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  @Override
+  public DoubleMatrix2D solve(final DoubleMatrix2D b) {
+    ArgumentChecker.notNull(b, "b");
+    ArgumentChecker.isTrue(b.getNumberOfRows() == _m, "b matrix of incorrect size");
+    checkNonSingular();
+    final double[][] bData = b.getData();
+    final int columns = b.getNumberOfColumns();
+    final DoubleMatrix2D x = new DoubleMatrix2D(_n, columns);
+    final double[][] xData = x.getData();
+    final double[] y = new double[_m];
+    for (int col = 0; col < columns; col++) {
+      for (int row = 0; row < _m; row++) {
+        y[row] = bData[row][col];
+      }
+      final double[] xCol = solveInPlace(y);
+      for (int row = 0; row < _n; row++) {
+        xData[row][col] = xCol[row];
+      }
+    }
+    return x;
+  }
+
+  private void checkNonSingular() {
+    for (final double r : _rDiag) {
+      ArgumentChecker.isTrue(r != 0.0, "Matrix is singular");
+    }
+  }
+
+  /**
+   * Computes Q^T b in place, then solves R x = Q^T b by back substitution.
+   * @param y The right hand side b, overwritten
+   * @return The solution x
+   */
+  private double[] solveInPlace(final double[] y) {
+    final int m = _m;
+    final int p = Math.min(m, _n);
+    for (int minor = 0; minor < p; minor++) {
+      final int colMinor = minor * m;
+      double dotProduct = 0.0;
+      for (int row = minor; row < m; row++) {
+        dotProduct += y[row] * _qrt[colMinor + row];
+      }
+      dotProduct /= _rDiag[minor] * _qrt[colMinor + minor];
+      for (int row = minor; row < m; row++) {
+        y[row] += dotProduct * _qrt[colMinor + row];
+      }
+    }
+    final double[] x = new double[_n];
+    for (int row = p - 1; row >= 0; row--) {
+      y[row] /= _rDiag[row];
+      final double yRow = y[row];
+      final int colRow = row * m;
+      x[row] = yRow;
+      for (int i = 0; i < row; i++) {
+        y[i] -= yRow * _qrt[colRow + i];
+      }
+    }
+    return x;
+  }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+
+/**
+ * Utilities for the decompositions working on matrices stored in a single row-major array: the element (i, j) of a matrix with
+ * n columns is at the index i * n + j.
+ */
+final class RowMajorStorage {
+
+  private RowMajorStorage() {
+  }
+
+  /**
+   * Copies a matrix into a row-major array.
+   * @param matrix The matrix
+   * @return The packed array
+   */
+  static double[] pack(final DoubleMatrix2D matrix) {
+    final double[][] data = matrix.getData();
+    final int rows = matrix.getNumberOfRows();
+    final int columns = matrix.getNumberOfColumns();
+    final double[] packed = new double[rows * columns];
+    for (int i = 0; i < rows; i++) {
+      System.arraycopy(data[i], 0, packed, i * columns, columns);
+    }
+    return packed;
+  }
+
+  /**
+   * Copies the transpose of a matrix into a row-major array, i.e. the matrix in column-major order.
+   * @param matrix The matrix
+   * @return The packed array
+   */
+  static double[] packTranspose(final DoubleMatrix2D matrix) {
+    final double[][] data = matrix.getData();
+    final int rows = matrix.getNumberOfRows();
+    final int columns = matrix.getNumberOfColumns();
+    final double[] packed = new double[rows * columns];
+    for (int i = 0; i < rows; i++) {
+      final double[] row = data[i];
+      for (int j = 0; j < columns; j++) {
+        packed[j * rows + i] = row[j];
+      }
+    }
+    return packed;
+  }
+
+  /**
+   * Creates a matrix from a row-major array.
+   * @param packed The packed array
+   * @param rows The number of rows
+   * @param columns The number of columns
+   * @return The matrix
+   */
+  static DoubleMatrix2D unpack(final double[] packed, final int rows, final int columns) {
+    final DoubleMatrix2D matrix = new DoubleMatrix2D(rows, columns);
+    final double[][] data = matrix.getData();
+    for (int i = 0; i < rows; i++) {
+      System.arraycopy(packed, i * columns, data[i], 0, columns);
+    }
+    return matrix;
+  }
+
+  /**
+   * Swaps two rows in place.
+   * @param packed The packed array
+   * @param columns The number of columns
+   * @param i1 The first row
+   * @param i2 The second row
+   */
+  static void swapRows(final double[] packed, final int columns, final int i1, final int i2) {
+    final int row1 = i1 * columns;
+    final int row2 = i2 * columns;
+    for (int j = 0; j < columns; j++) {
+      final double temp = packed[row1 + j];
+      packed[row1 + j] = packed[row2 + j];
+      packed[row2 + j] = temp;
+    }
+  }
+
+}
@@ -5,8 +5,6 @@
  */
 package com.opengamma.analytics.math.linearalgebra;
 
-import java.util.Arrays;
-
 import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
 import com.opengamma.util.ArgumentChecker;
 
@@ -26,28 +24,39 @@ public class TridiagonalSolver {
 
     ArgumentChecker.notNull(aM, "null matrix");
     ArgumentChecker.notNull(b, "null vector");
-    final double[] d = aM.getDiagonal(); //b is modified, so get copy of diagonal
+    final double[] d = aM.getDiagonalData();
     final int n = d.length;
     ArgumentChecker.isTrue(n == b.length, "vector y wrong length for matrix");
-    final double[] y = Arrays.copyOf(b, n);
-
-    final double[] l = aM.getLowerSubDiagonalData();
-    final double[] u = aM.getUpperSubDiagonalData();
-
     final double[] x = new double[n];
+    solvTriDag(aM.getLowerSubDiagonalData(), d, aM.getUpperSubDiagonalData(), b, x, new double[n]);
+    return x;
+  }
+
+  /**
+   * Solves the system Ax = b for the unknown vector x, where A is a tridiagonal matrix given by its three diagonals (Thomas algorithm). Nothing is allocated, so
+   * this can be used repeatedly (e.g. at each time step of a finite difference scheme) with preallocated arrays. The matrix and b are not modified.
+   * @param l the lower sub-diagonal (length n-1)
+   * @param d the main diagonal (length n)
+   * @param u the upper sub-diagonal (length n-1)
+   * @param b known vector (length n)
+   * @param x array (length n) that is filled with the solution. This can be the same array as b, in which case b is overwritten.
+   * @param work work array (length n), overwritten
+   */
+  public static void solvTriDag(final double[] l, final double[] d, final double[] u, final double[] b, final double[] x, final double[] work) {
+    final int n = d.length;
+    work[0] = d[0];
+    x[0] = b[0];
     for (int i = 1; i < n; i++) {
-      final double m = l[i - 1] / d[i - 1];
-      d[i] = d[i] - m * u[i - 1];
-      y[i] = y[i] - m * y[i - 1];
+      final double m = l[i - 1] / work[i - 1];
+      work[i] = d[i] - m * u[i - 1];
+      x[i] = b[i] - m * x[i - 1];
     }
 
-    x[n - 1] = y[n - 1] / d[n - 1];
+    x[n - 1] = x[n - 1] / work[n - 1];
 
     for (int i = n - 2; i >= 0; i--) {
-      x[i] = (y[i] - u[i] * x[i + 1]) / d[i];
+      x[i] = (x[i] - u[i] * x[i + 1]) / work[i];
     }
-
-    return x;
   }
 
   /**
@@ -0,0 +1,323 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.matrix;
+
+import com.opengamma.analytics.math.linearalgebra.LUDecompositionOpenGamma;
+import com.opengamma.analytics.math.linearalgebra.LUDecompositionResult;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Matrix algebra working directly on the row arrays of the matrices, without conversion to Colt or Commons objects.
+ * <p>
+ * The matrix product is cache-blocked and ordered so that the innermost loop runs along contiguous rows of the second matrix
+ * and of the result. The inverse and the determinant use {@link LUDecompositionOpenGamma}, which works on a packed row-major copy
+ * of the matrix. The condition number and the matrix 2-norm use the singular values from a one-sided Jacobi orthogonalisation
+ * of the rows of a copy of the matrix (or of its transpose, whichever has fewer rows). Non-integer powers are not implemented;
+ * use {@link ColtMatrixAlgebra} or {@link CommonsMatrixAlgebra}.
+ */
+public class RowMajorMatrixAlgebra extends OGMatrixAlgebra {
+
+  /**
+   * The size of the blocks of the matrix product (the block of the second matrix, BLOCK_SIZE x BLOCK_SIZE doubles, fits in the L2 cache).
+   */
+  private static final int BLOCK_SIZE = 64;
+  /**
+   * The LU decomposition.
+   */
+  private static final LUDecompositionOpenGamma LU = new LUDecompositionOpenGamma();
+  /**
+   * The relative tolerance below which two rows are taken as orthogonal by the Jacobi orthogonalisation.
+   */
+  private static final double JACOBI_TOLERANCE = 1e-15;
+  /**
+   * The maximum number of sweeps of the Jacobi orthogonalisation.
+   */
+  private static final int MAX_SWEEPS = 100;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getDeterminant(final Matrix<?> m) {
+    ArgumentChecker.notNull(m, "m");
+    if (m instanceof DoubleMatrix2D) {
+      // no singularity threshold: a singular matrix has a zero pivot and a zero determinant
+      return LU.evaluate((DoubleMatrix2D) m, 0.0).getDeterminant();
+    }
+    throw new IllegalArgumentException("Can only find determinant of DoubleMatrix2D; have " + m.getClass());
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  @Override
+  public DoubleMatrix2D getInverse(final Matrix<?> m) {
+    ArgumentChecker.notNull(m, "m");
+    if (m instanceof DoubleMatrix2D) {
+      final LUDecompositionResult lu = LU.evaluate((DoubleMatrix2D) m);
+      return lu.solve(DoubleMatrixUtils.getIdentityMatrix2D(((DoubleMatrix2D) m).getNumberOfRows()));
+    }
+    throw new IllegalArgumentException("Can only find inverse of DoubleMatrix2D; have " + m.getClass());
+  }
+
+  /**
+   * {@inheritDoc}
+   * For a vector, the sum of the absolute values of the elements; for a matrix, the maximum absolute column sum.
+   */
+  @Override
+  public double getNorm1(final Matrix<?> m) {
+    ArgumentChecker.notNull(m, "m");
+    if (m instanceof DoubleMatrix1D) {
+      double sum = 0.0;
+      for (final double x : ((DoubleMatrix1D) m).getData()) {
+        sum += Math.abs(x);
+      }
+      return sum;
+    } else if (m instanceof DoubleMatrix2D) {
+      final DoubleMatrix2D matrix = (DoubleMatrix2D) m;
+      final double[] columnSum = new double[matrix.getNumberOfColumns()];
+      for (final double[] row : matrix.getData()) {
+        for (int j = 0; j < columnSum.length; j++) {
+          columnSum[j] += Math.abs(row[j]);
+        }
+      }
+      double max = 0.0;
+      for (final double sum : columnSum) {
+        max = Math.max(max, sum);
+      }
+      return max;
+    }
+    throw new IllegalArgumentException("Can only find norm1 of DoubleMatrix1D or DoubleMatrix2D; have " + m.getClass());
+  }
+
+  /**
+   * {@inheritDoc}
+   * For a vector, the maximum absolute value of the elements; for a matrix, the maximum absolute row sum.
+   */
+  @Override
+  public double getNormInfinity(final Matrix<?> m) {
+    ArgumentChecker.notNull(m, "m");
+    if (m instanceof DoubleMatrix1D) {
+      double max = 0.0;
+      for (final double x : ((DoubleMatrix1D) m).getData()) {
+        max = Math.max(max, Math.abs(x));
+      }
+      return max;
+    } else if (m instanceof DoubleMatrix2D) {
+      double max = 0.0;
+      for (final double[] row : ((DoubleMatrix2D) m).getData()) {
+        double sum = 0.0;
+        for (final double x : row) {
+          sum += Math.abs(x);
+        }
+        max = Math.max(max, sum);
+      }
+      return max;
+    }
+    throw new IllegalArgumentException("Can only find normInfinity of DoubleMatrix1D or DoubleMatrix2D; have " + m.getClass());
+  }
+
+  /**
+   * {@inheritDoc}
+   * The power is computed by repeated squaring; negative powers are powers of the inverse.
+   */
+  @Override
+  public DoubleMatrix2D getPower(final Matrix<?> m, final int p) {
+    ArgumentChecker.notNull(m, "m");
+    if (m instanceof DoubleMatrix2D) {
+      final DoubleMatrix2D matrix = (DoubleMatrix2D) m;
+      ArgumentChecker.isTrue(matrix.getNumberOfRows() == matrix.getNumberOfColumns(), "Matrix not square");
+      if (p == 1) {
+        return new DoubleMatrix2D(matrix.getData());
+      }
+      DoubleMatrix2D base = p < 0 ? getInverse(matrix) : matrix;
+      DoubleMatrix2D result = null;
+      long e = Math.abs((long) p);
+      while (e > 0) {
+        if ((e & 1L) != 0) {
+          result = result == null ? base : multiply(result, base);
+        }
+        e >>>= 1;
+        if (e > 0) {
+          base = multiply(base, base);
+        }
+      }
+      return result == null ? DoubleMatrixUtils.getIdentityMatrix2D(matrix.getNumberOfRows()) : result;
+    }
+    throw new IllegalArgumentException("Can only find powers of DoubleMatrix2D; have " + m.getClass());
+  }
+
+  /**
+   * {@inheritDoc}
+   * The 2-norm condition number, the ratio of the largest to the smallest singular value; infinite for a singular matrix.
+   */
+  @Override
+  public double getCondition(final Matrix<?> m) {
+    ArgumentChecker.notNull(m, "m");
+    if (m instanceof DoubleMatrix2D) {
+      final double[] singularValues = getSingularValues((DoubleMatrix2D) m);
+      double max = 0.0;
+      double min = Double.POSITIVE_INFINITY;
+      for (final double sv : singularValues) {
+        max = Math.max(max, sv);
+        min = Math.min(min, sv);
+      }
+      return max / min;
+    }
+    throw new IllegalArgumentException("Can only find condition number of DoubleMatrix2D; have " + m.getClass());
+  }
+
+  /**
+   * {@inheritDoc}
+   * For a matrix, the largest singular value.
+   */
+  @Override
+  public double getNorm2(final Matrix<?> m) {
+    ArgumentChecker.notNull(m, "m");
+    if (m instanceof DoubleMatrix2D) {
+      double max = 0.0;
+      for (final double sv : getSingularValues((DoubleMatrix2D) m)) {
+        max = Math.max(max, sv);
+      }
+      return max;
+    }
+    return super.getNorm2(m);
+  }
+
+  /**
+   * Computes the singular values by one-sided Jacobi rotations. The rows of a copy of the matrix, or of its transpose if it has
+   * more rows than columns, are rotated in pairs until they are mutually orthogonal; the singular values are then their norms.
+   * @param matrix The matrix
+   * @return The singular values, in no particular order
+   */
+  private static double[] getSingularValues(final DoubleMatrix2D matrix) {
+    final int rows = matrix.getNumberOfRows();
+    final int columns = matrix.getNumberOfColumns();
+    final double[][] data = matrix.getData();
+    final double[][] u;
+    if (rows <= columns) {
+      u = new double[rows][];
+      for (int i = 0; i < rows; i++) {
+        u[i] = data[i].clone();
+      }
+    } else {
+      u = new double[columns][rows];
+      for (int i = 0; i < rows; i++) {
+        final double[] row = data[i];
+        for (int j = 0; j < columns; j++) {
+          u[j][i] = row[j];
+        }
+      }
+    }
+    final int k = u.length;
+    boolean rotated = true;
+    for (int sweep = 0; rotated && sweep < MAX_SWEEPS; sweep++) {
+      rotated = false;
+      for (int p = 0; p < k - 1; p++) {
+        final double[] up = u[p];
+        for (int q = p + 1; q < k; q++) {
+          final double[] uq = u[q];
+          double alpha = 0.0;
+          double beta = 0.0;
+          double gamma = 0.0;
+          for (int i = 0; i < up.length; i++) {
+            alpha += up[i] * up[i];
+            beta += uq[i] * uq[i];
+            gamma += up[i] * uq[i];
+          }
+          if (gamma == 0.0 || Math.abs(gamma) <= JACOBI_TOLERANCE * Math.sqrt(alpha * beta)) {
+            continue;
+          }
+          rotated = true;
+          final double zeta = (beta - alpha) / (2.0 * gamma);
+          final double t = (zeta >= 0.0 ? 1.0 : -1.0) / (Math.abs(zeta) + Math.sqrt(1.0 + zeta * zeta));
+          final double c = 1.0 / Math.sqrt(1.0 + t * t);
+          final double s = c * t;
+          for (int i = 0; i < up.length; i++) {
+            final double x = up[i];
+            final double y = uq[i];
+            up[i] = c * x - s * y;
+            uq[i] = s * x + c * y;
+          }
+        }
+      }
+    }
+    final double[] singularValues = new double[k];
+    for (int i = 0; i < k; i++) {
+      double sum = 0.0;
+      for (final double x : u[i]) {
+        sum += x * x;
+      }
+      singularValues[i] = Math.sqrt(sum);
+    }
+    return singularValues;
+  }
+
+  /**
+   * {@inheritDoc}
+   * The products of two 2-D matrices and of a 1-D matrix by a 2-D matrix are computed by rows of the second matrix; the other
+   * combinations are those of {@link OGMatrixAlgebra}.
+   */
+  @Override
+  public Matrix<?> multiply(final Matrix<?> m1, final Matrix<?> m2) {
+    ArgumentChecker.notNull(m1, "m1");
+    ArgumentChecker.notNull(m2, "m2");
+    if (m1 instanceof DoubleMatrix2D && m2 instanceof DoubleMatrix2D) {
+      return multiply((DoubleMatrix2D) m1, (DoubleMatrix2D) m2);
+    } else if (m1 instanceof DoubleMatrix1D && m2 instanceof DoubleMatrix2D) {
+      return multiply((DoubleMatrix1D) m1, (DoubleMatrix2D) m2);
+    }
+    return super.multiply(m1, m2);
+  }
+
+  private DoubleMatrix2D multiply(final DoubleMatrix2D m1, final DoubleMatrix2D m2) {
+    final int m = m1.getNumberOfRows();
+    final int p = m1.getNumberOfColumns();
+    final int n = m2.getNumberOfColumns();
+    ArgumentChecker.isTrue(p == m2.getNumberOfRows(), "Matrix size mismatch. m1 is {} by {}, but m2 is {} by {}", m, p, m2.getNumberOfRows(), n);
+    final double[][] a = m1.getData();
+    final double[][] b = m2.getData();
+    final DoubleMatrix2D result = new DoubleMatrix2D(m, n);
+    final double[][] c = result.getData();
+    // blocked i-k-j product: a block of rows of B is reused for all the rows of A while it is in cache
+    for (int kk = 0; kk < p; kk += BLOCK_SIZE) {
+      final int kEnd = Math.min(kk + BLOCK_SIZE, p);
+      for (int jj = 0; jj < n; jj += BLOCK_SIZE) {
+        final int jEnd = Math.min(jj + BLOCK_SIZE, n);
+        for (int i = 0; i < m; i++) {
+          final double[] aRow = a[i];
+          final double[] cRow = c[i];
+          for (int k = kk; k < kEnd; k++) {
+            final double aik = aRow[k];
+            final double[] bRow = b[k];
+            for (int j = jj; j < jEnd; j++) {
+              cRow[j] += aik * bRow[j];
+            }
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private DoubleMatrix1D multiply(final DoubleMatrix1D vector, final DoubleMatrix2D matrix) {
+    final double[] a = vector.getData();
+    final double[][] b = matrix.getData();
+    final int n = a.length;
+    ArgumentChecker.isTrue(matrix.getNumberOfRows() == n, "Matrix/vector size mismatch");
+    final double[] res = new double[matrix.getNumberOfColumns()];
+    for (int k = 0; k < n; k++) {
+      final double ak = a[k];
+      final double[] bRow = b[k];
+      for (int j = 0; j < res.length; j++) {
+        res[j] += ak * bRow[j];
+      }
+    }
+    return new DoubleMatrix1D(res);
+  }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Decorator producing antithetic pairs from a generator of symmetric (e.g. standard normal) numbers.
+ * <p>
+ * A vector of size n is made of the first (n+1)/2 numbers of the underlying generator followed by the opposite of the first n/2 of them.
+ * When the Monte Carlo methods draw one vector per dimension with one number per path, the paths i and i+(n+1)/2 are antithetic.
+ * In the same way, {@link #getVectors(int, int)} returns (n+1)/2 vectors from the underlying generator followed by the opposite of the first n/2.
+ * <p>
+ * See {@link AntitheticSubstreamRandomNumberGenerator} for a decorator which also provides substreams.
+ */
+public class AntitheticRandomNumberGenerator implements RandomNumberGenerator {
+
+  /**
+   * The underlying generator.
+   */
+  private final RandomNumberGenerator _generator;
+
+  /**
+   * Constructor.
+   * @param generator The underlying generator, producing numbers with a distribution symmetric around 0, not null.
+   */
+  public AntitheticRandomNumberGenerator(final RandomNumberGenerator generator) {
+    ArgumentChecker.notNull(generator, "generator");
+    _generator = generator;
+  }
+
+  /**
+   * Gets the underlying generator.
+   * @return The generator
+   */
+  public RandomNumberGenerator getGenerator() {
+    return _generator;
+  }
+
+  @Override
+  public double[] getVector(final int dimension) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    final int nbDraw = (dimension + 1) / 2;
+    final double[] draw = _generator.getVector(nbDraw);
+    final double[] result = new double[dimension];
+    System.arraycopy(draw, 0, result, 0, nbDraw);
+    for (int i = nbDraw; i < dimension; i++) {
+      result[i] = -draw[i - nbDraw];
+    }
+    return result;
+  }
+
+  @Override
+  public List<double[]> getVectors(final int dimension, final int n) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    ArgumentChecker.notNegative(n, "n");
+    final int nbDraw = (n + 1) / 2;
+    final List<double[]> draw = _generator.getVectors(dimension, nbDraw);
+    final List<double[]> result = new ArrayList<>(n);
+    result.addAll(draw);
+    for (int i = nbDraw; i < n; i++) {
+      final double[] x = draw.get(i - nbDraw);
+      final double[] antithetic = new double[dimension];
+      for (int j = 0; j < dimension; j++) {
+        antithetic[j] = -x[j];
+      }
+      result.add(antithetic);
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+/**
+ * Antithetic decorator of a generator providing substreams. Each substream is itself antithetic.
+ */
+public class AntitheticSubstreamRandomNumberGenerator extends AntitheticRandomNumberGenerator implements SubstreamRandomNumberGenerator {
+
+  /**
+   * Constructor.
+   * @param generator The underlying generator, producing numbers with a distribution symmetric around 0, not null.
+   */
+  public AntitheticSubstreamRandomNumberGenerator(final SubstreamRandomNumberGenerator generator) {
+    super(generator);
+  }
+
+  /**
+   * {@inheritDoc}
+   * The underlying substream is sized for the numbers actually drawn, (size+1)/2.
+   */
+  @Override
+  public RandomNumberGenerator getSubstream(final int index, final int size) {
+    return new AntitheticRandomNumberGenerator(((SubstreamRandomNumberGenerator) getGenerator()).getSubstream(index, (size + 1) / 2));
+  }
+
+}
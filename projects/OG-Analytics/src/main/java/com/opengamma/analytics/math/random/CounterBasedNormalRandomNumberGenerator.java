@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cern.jet.stat.Probability;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Counter-based generator of standard normally distributed numbers.
+ * <p>
+ * The i-th number of the substream s is a pure function of (seed, s, i): the triplet is hashed with the SplitMix64 finalizer
+ * to a uniform number in (0,1) which is transformed by the inverse cumulative normal distribution. There is no state other
+ * than the counter, so substreams can be created in any order and skipping ahead is free.
+ * <p>
+ * The generator itself is substream 0. Instances are not thread-safe; use one substream per thread.
+ */
+public class CounterBasedNormalRandomNumberGenerator implements SubstreamRandomNumberGenerator {
+
+  /**
+   * The increment of the Weyl sequence used by SplitMix64 (2^64 / golden ratio).
+   */
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  /**
+   * 2^-53.
+   */
+  private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+  /**
+   * The seed.
+   */
+  private final long _seed;
+  /**
+   * The substream index.
+   */
+  private final long _stream;
+  /**
+   * The key derived from the seed and the substream index.
+   */
+  private final long _key;
+  /**
+   * The index of the next number in the substream.
+   */
+  private long _counter;
+
+  /**
+   * Constructor.
+   * @param seed The seed.
+   */
+  public CounterBasedNormalRandomNumberGenerator(final long seed) {
+    this(seed, 0);
+  }
+
+  private CounterBasedNormalRandomNumberGenerator(final long seed, final long stream) {
+    _seed = seed;
+    _stream = stream;
+    _key = mix64(seed ^ mix64((stream + 1) * GOLDEN_GAMMA));
+    _counter = 0;
+  }
+
+  @Override
+  public RandomNumberGenerator getSubstream(final int index, final int size) {
+    ArgumentChecker.notNegative(index, "index");
+    return new CounterBasedNormalRandomNumberGenerator(_seed, index);
+  }
+
+  @Override
+  public double[] getVector(final int dimension) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    final double[] result = new double[dimension];
+    for (int i = 0; i < dimension; i++) {
+      result[i] = nextNormal();
+    }
+    return result;
+  }
+
+  @Override
+  public List<double[]> getVectors(final int dimension, final int n) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    ArgumentChecker.notNegative(n, "n");
+    final List<double[]> result = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      result.add(getVector(dimension));
+    }
+    return result;
+  }
+
+  /**
+   * Moves the counter of the substream forward without generating the numbers.
+   * @param n The number of draws to skip, not negative.
+   */
+  public void skip(final long n) {
+    ArgumentChecker.notNegative(n, "n");
+    _counter += n;
+  }
+
+  /**
+   * Gets the substream index.
+   * @return The substream index
+   */
+  public long getStream() {
+    return _stream;
+  }
+
+  private double nextNormal() {
+    final long bits = mix64(_key + GOLDEN_GAMMA * ++_counter);
+    // 53 random bits, shifted by half a unit so that the result is strictly inside (0,1)
+    final double u = ((bits >>> 11) + 0.5) * DOUBLE_UNIT;
+    return Probability.normalInverse(u);
+  }
+
+  /**
+   * The SplitMix64 finalizer (variant 13 of D. Stafford's mixers).
+   * @param z The input.
+   * @return The mixed bits.
+   */
+  private static long mix64(final long z) {
+    long x = z;
+    x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+    x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+    return x ^ (x >>> 31);
+  }
+
+}
@@ -0,0 +1,308 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import cern.jet.stat.Probability;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Quasi-random generator of standard normally distributed numbers based on the Sobol low-discrepancy sequence. The uniform
+ * Sobol coordinates are transformed with the inverse cumulative normal distribution.
+ * <p>
+ * The generator is "dimension-major", which is the way the Monte Carlo methods consume normal variables: the n paths of a
+ * block are n consecutive Sobol points, and each call to {@link #getVector(int)} returns the next coordinate (dimension) of
+ * these n points. {@link #getVectors(int, int)} returns n whole points and moves the generator to the following points.
+ * The point 0 (all coordinates equal to 0) is skipped.
+ * <p>
+ * The first 21 dimensions use the primitive polynomials and the initial direction numbers tabulated by
+ * S. Joe and F. Y. Kuo, "Constructing Sobol sequences with better two-dimensional projections", SIAM J. Sci. Comput. 30 (2008).
+ * The higher dimensions use the next primitive polynomials by degree, with initial direction numbers drawn by a fixed-seed
+ * generator (the "regularity breaking" initialisation of P. Jaeckel, "Monte Carlo Methods in Finance", 2002).
+ * <p>
+ * Instances are not thread-safe; in parallel use one substream per thread.
+ */
+public class SobolNormalRandomNumberGenerator implements SubstreamRandomNumberGenerator {
+
+  /**
+   * The number of bits of the direction numbers. The sequence can produce up to 2^BITS points.
+   */
+  private static final int BITS = 32;
+  /**
+   * 2^-BITS.
+   */
+  private static final double SCALE = 1.0 / (1L << BITS);
+  /**
+   * The tabulated degree, polynomial coefficients and initial direction numbers for the dimensions 2 to 21.
+   */
+  private static final int[][] JOE_KUO = new int[][] {
+    {1, 0, 1 },
+    {2, 1, 1, 3 },
+    {3, 1, 1, 3, 1 },
+    {3, 2, 1, 1, 1 },
+    {4, 1, 1, 1, 3, 3 },
+    {4, 4, 1, 3, 5, 13 },
+    {5, 2, 1, 1, 5, 5, 17 },
+    {5, 4, 1, 1, 5, 5, 5 },
+    {5, 7, 1, 1, 7, 11, 19 },
+    {5, 11, 1, 1, 5, 1, 1 },
+    {5, 13, 1, 1, 1, 3, 11 },
+    {5, 14, 1, 3, 5, 5, 31 },
+    {6, 1, 1, 3, 3, 9, 7, 49 },
+    {6, 13, 1, 1, 1, 15, 21, 21 },
+    {6, 16, 1, 3, 1, 13, 27, 49 },
+    {6, 19, 1, 1, 1, 15, 7, 5 },
+    {6, 22, 1, 3, 1, 15, 13, 25 },
+    {6, 25, 1, 1, 5, 5, 19, 61 },
+    {7, 1, 1, 3, 7, 11, 23, 15, 103 },
+    {7, 4, 1, 3, 7, 13, 13, 15, 69 } };
+  /**
+   * The seed of the generator of the initial direction numbers above the tabulated dimensions.
+   */
+  private static final long DIRECTION_SEED = 20130901L;
+
+  /**
+   * The direction numbers. Dimension x bit.
+   */
+  private final long[][] _direction;
+  /**
+   * The index of the first point not yet used.
+   */
+  private long _firstPoint;
+  /**
+   * The next dimension returned by {@link #getVector(int)}.
+   */
+  private int _nextDimension;
+
+  /**
+   * Constructor.
+   * @param maxDimension The maximum dimension of the points (number of normal variables by path).
+   */
+  public SobolNormalRandomNumberGenerator(final int maxDimension) {
+    ArgumentChecker.notNegativeOrZero(maxDimension, "maximum dimension");
+    _direction = directionNumbers(maxDimension);
+    _firstPoint = 1;
+  }
+
+  private SobolNormalRandomNumberGenerator(final long[][] direction, final long firstPoint) {
+    _direction = direction;
+    _firstPoint = firstPoint;
+  }
+
+  /**
+   * {@inheritDoc}
+   * The substream i starts at the point 1 + i * size of the Sobol sequence.
+   */
+  @Override
+  public RandomNumberGenerator getSubstream(final int index, final int size) {
+    ArgumentChecker.notNegative(index, "index");
+    ArgumentChecker.notNegativeOrZero(size, "size");
+    final long firstPoint = 1 + ((long) index) * size;
+    ArgumentChecker.isTrue(firstPoint + size <= (1L << BITS), "Substream beyond the length of the Sobol sequence");
+    return new SobolNormalRandomNumberGenerator(_direction, firstPoint);
+  }
+
+  /**
+   * Returns the next coordinate of the n current points.
+   * @param dimension The number of points (n).
+   * @return The normally distributed coordinates.
+   */
+  @Override
+  public double[] getVector(final int dimension) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    ArgumentChecker.isTrue(_nextDimension < _direction.length, "Sobol generator constructed with maximum dimension {}", _direction.length);
+    final long[] v = _direction[_nextDimension++];
+    final double[] result = new double[dimension];
+    long x = pointCoordinate(v, _firstPoint);
+    for (int i = 0; i < dimension; i++) {
+      if (i > 0) {
+        x ^= v[Long.numberOfTrailingZeros(~(_firstPoint + i - 1))];
+      }
+      result[i] = Probability.normalInverse(x * SCALE);
+    }
+    return result;
+  }
+
+  @Override
+  public List<double[]> getVectors(final int dimension, final int n) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    ArgumentChecker.notNegative(n, "n");
+    ArgumentChecker.isTrue(dimension <= _direction.length, "Sobol generator constructed with maximum dimension {}", _direction.length);
+    final List<double[]> result = new ArrayList<>(n);
+    final long[] x = new long[dimension];
+    for (int loopdim = 0; loopdim < dimension; loopdim++) {
+      x[loopdim] = pointCoordinate(_direction[loopdim], _firstPoint);
+    }
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        final int bit = Long.numberOfTrailingZeros(~(_firstPoint + i - 1));
+        for (int loopdim = 0; loopdim < dimension; loopdim++) {
+          x[loopdim] ^= _direction[loopdim][bit];
+        }
+      }
+      final double[] point = new double[dimension];
+      for (int loopdim = 0; loopdim < dimension; loopdim++) {
+        point[loopdim] = Probability.normalInverse(x[loopdim] * SCALE);
+      }
+      result.add(point);
+    }
+    _firstPoint += n;
+    _nextDimension = 0;
+    return result;
+  }
+
+  /**
+   * Computes one coordinate of a point directly from its Gray code.
+   * @param v The direction numbers of the dimension.
+   * @param index The index of the point.
+   * @return The coordinate, scaled by 2^BITS.
+   */
+  private static long pointCoordinate(final long[] v, final long index) {
+    long gray = index ^ (index >>> 1);
+    long x = 0;
+    int bit = 0;
+    while (gray != 0) {
+      if ((gray & 1L) != 0) {
+        x ^= v[bit];
+      }
+      gray >>>= 1;
+      bit++;
+    }
+    return x;
+  }
+
+  /**
+   * Computes the direction numbers.
+   * @param maxDimension The number of dimensions.
+   * @return The direction numbers, dimension x bit.
+   */
+  private static long[][] directionNumbers(final int maxDimension) {
+    final long[][] direction = new long[maxDimension][BITS];
+    for (int loopbit = 0; loopbit < BITS; loopbit++) {
+      direction[0][loopbit] = 1L << (BITS - 1 - loopbit);
+    }
+    int dim = 1;
+    for (int looptab = 0; looptab < JOE_KUO.length && dim < maxDimension; looptab++, dim++) {
+      final int degree = JOE_KUO[looptab][0];
+      final int[] m = new int[degree];
+      System.arraycopy(JOE_KUO[looptab], 2, m, 0, degree);
+      direction[dim] = directionNumbers(degree, JOE_KUO[looptab][1], m);
+    }
+    if (dim < maxDimension) {
+      // Next primitive polynomials, by degree, after the tabulated ones.
+      final Random initial = new Random(DIRECTION_SEED);
+      final int[] last = JOE_KUO[JOE_KUO.length - 1];
+      int degree = last[0];
+      int coefficient = last[1] + 1;
+      while (dim < maxDimension) {
+        if (coefficient >= 1 << (degree - 1)) {
+          degree++;
+          coefficient = 0;
+        }
+        if (isPrimitive(degree, coefficient)) {
+          final int[] m = new int[degree];
+          for (int loopm = 0; loopm < degree; loopm++) {
+            m[loopm] = 2 * initial.nextInt(1 << loopm) + 1; // odd and below 2^(loopm+1)
+          }
+          direction[dim++] = directionNumbers(degree, coefficient, m);
+        }
+        coefficient++;
+      }
+    }
+    return direction;
+  }
+
+  /**
+   * Computes the direction numbers of one dimension.
+   * @param degree The degree of the primitive polynomial.
+   * @param coefficient The interior coefficients of the polynomial, as bits (the leading and constant terms are implicit).
+   * @param m The initial direction numbers, odd with m[k] < 2^(k+1).
+   * @return The direction numbers.
+   */
+  private static long[] directionNumbers(final int degree, final int coefficient, final int[] m) {
+    final long[] v = new long[BITS];
+    for (int loopbit = 0; loopbit < Math.min(degree, BITS); loopbit++) {
+      v[loopbit] = ((long) m[loopbit]) << (BITS - 1 - loopbit);
+    }
+    for (int loopbit = degree; loopbit < BITS; loopbit++) {
+      v[loopbit] = v[loopbit - degree] ^ (v[loopbit - degree] >>> degree);
+      for (int k = 1; k < degree; k++) {
+        if (((coefficient >>> (degree - 1 - k)) & 1) != 0) {
+          v[loopbit] ^= v[loopbit - k];
+        }
+      }
+    }
+    return v;
+  }
+
+  /**
+   * Checks if x^degree + a_1 x^(degree-1) + ... + a_(degree-1) x + 1 is primitive over GF(2).
+   * @param degree The degree.
+   * @param coefficient The coefficients a_1 to a_(degree-1), as bits.
+   * @return True if the polynomial is primitive.
+   */
+  private static boolean isPrimitive(final int degree, final int coefficient) {
+    final long poly = (1L << degree) | (((long) coefficient) << 1) | 1L;
+    final long order = (1L << degree) - 1;
+    if (powerOfX(order, poly, degree) != 1L) {
+      return false;
+    }
+    long remainder = order;
+    for (long factor = 2; factor * factor <= remainder; factor++) {
+      if (remainder % factor == 0) {
+        if (powerOfX(order / factor, poly, degree) == 1L) {
+          return false;
+        }
+        while (remainder % factor == 0) {
+          remainder /= factor;
+        }
+      }
+    }
+    if (remainder > 1 && powerOfX(order / remainder, poly, degree) == 1L) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Computes x^exponent modulo the polynomial over GF(2).
+   */
+  private static long powerOfX(final long exponent, final long poly, final int degree) {
+    long result = 1L;
+    long base = 2L; // x
+    long e = exponent;
+    while (e > 0) {
+      if ((e & 1L) != 0) {
+        result = multiplyMod(result, base, poly, degree);
+      }
+      base = multiplyMod(base, base, poly, degree);
+      e >>>= 1;
+    }
+    return result;
+  }
+
+  private static long multiplyMod(final long a, final long b, final long poly, final int degree) {
+    long result = 0;
+    long x = a;
+    long y = b;
+    while (y != 0) {
+      if ((y & 1L) != 0) {
+        result ^= x;
+      }
+      y >>>= 1;
+      x <<= 1;
+      if ((x & (1L << degree)) != 0) {
+        x ^= poly;
+      }
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,26 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+/**
+ * A random number generator that can be split into independent substreams.
+ * <p>
+ * The numbers produced by a substream depend only on the generator and the substream index, not on the numbers drawn from
+ * any other substream. Work split in blocks (e.g. blocks of Monte Carlo paths) can then be computed in any order or in parallel
+ * and still reproduce exactly the same result.
+ */
+public interface SubstreamRandomNumberGenerator extends RandomNumberGenerator {
+
+  /**
+   * Returns the generator for one substream.
+   * @param index The substream index, not negative.
+   * @param size The maximum number of draws of each dimension taken from one substream (e.g. the number of paths in a block).
+   * Generators which can skip ahead in a single sequence use it to locate the start of the substream; others may ignore it.
+   * @return The generator of the substream, not shared with any other substream.
+   */
+  RandomNumberGenerator getSubstream(int index, int size);
+
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.convention.calendar;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * A calendar materialising the working days of another calendar as one bitset per year.
+ * <p>
+ * The bitset of a year is built on first use, with one call to the underlying calendar per day of the year; all the later checks in
+ * that year are a bit test. Dates outside the compiled range of years are delegated to the underlying calendar.
+ * <p>
+ * A union of compiled calendars is a date where any of the calendars is a holiday; its bitsets are the union of the bitsets of the
+ * calendars. The calendar also provides fast moves to the next or previous working day, by whole words of the bitsets.
+ * <p>
+ * This class is thread-safe if the underlying calendars are.
+ */
+public final class CompiledCalendar implements Calendar, Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The number of longs in the bitset of a year.
+   */
+  private static final int WORDS_PER_YEAR = (366 + 63) / 64;
+
+  /**
+   * The underlying calendar, null for a union.
+   */
+  private final Calendar _underlying;
+  /**
+   * The calendars of a union, null otherwise.
+   */
+  private final CompiledCalendar[] _components;
+  /**
+   * The first compiled year.
+   */
+  private final int _firstYear;
+  /**
+   * The last compiled year.
+   */
+  private final int _lastYear;
+  /**
+   * The non-working days of each year, bit (day of year - 1) set for a non-working day. Built on first use.
+   */
+  private final AtomicReferenceArray<long[]> _holidays;
+
+  /**
+   * Creates an instance.
+   * @param underlying  the calendar to compile, not null
+   * @param firstYear  the first year to compile
+   * @param lastYear  the last year to compile, not before the first year
+   */
+  public CompiledCalendar(final Calendar underlying, final int firstYear, final int lastYear) {
+    this(underlying, null, firstYear, lastYear);
+    ArgumentChecker.notNull(underlying, "underlying");
+  }
+
+  private CompiledCalendar(final Calendar underlying, final CompiledCalendar[] components, final int firstYear, final int lastYear) {
+    ArgumentChecker.isTrue(firstYear <= lastYear, "first year {} after last year {}", firstYear, lastYear);
+    _underlying = underlying;
+    _components = components;
+    _firstYear = firstYear;
+    _lastYear = lastYear;
+    _holidays = new AtomicReferenceArray<>(lastYear - firstYear + 1);
+  }
+
+  /**
+   * Creates the union of compiled calendars: a day is a working day if it is a working day in all the calendars.
+   * The union is compiled on the years compiled in all the calendars.
+   * @param calendars  the calendars, not null or empty
+   * @return the union, not null
+   */
+  public static CompiledCalendar union(final CompiledCalendar... calendars) {
+    ArgumentChecker.notEmpty(calendars, "calendars");
+    ArgumentChecker.noNulls(calendars, "calendars");
+    if (calendars.length == 1) {
+      return calendars[0];
+    }
+    int firstYear = Integer.MIN_VALUE;
+    int lastYear = Integer.MAX_VALUE;
+    for (final CompiledCalendar calendar : calendars) {
+      firstYear = Math.max(firstYear, calendar._firstYear);
+      lastYear = Math.min(lastYear, calendar._lastYear);
+    }
+    ArgumentChecker.isTrue(firstYear <= lastYear, "calendars have no compiled year in common");
+    return new CompiledCalendar(null, calendars.clone(), firstYear, lastYear);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the underlying calendar.
+   * @return the underlying calendar, null for a union
+   */
+  public Calendar getUnderlying() {
+    return _underlying;
+  }
+
+  /**
+   * Gets the first compiled year.
+   * @return the year
+   */
+  public int getFirstYear() {
+    return _firstYear;
+  }
+
+  /**
+   * Gets the last compiled year.
+   * @return the year
+   */
+  public int getLastYear() {
+    return _lastYear;
+  }
+
+  @Override
+  public boolean isWorkingDay(final LocalDate date) {
+    final int year = date.getYear();
+    if (year < _firstYear || year > _lastYear) {
+      return isWorkingDayNotCompiled(date);
+    }
+    final int day = date.getDayOfYear() - 1;
+    return (getHolidays(year)[day >>> 6] & (1L << day)) == 0;
+  }
+
+  /**
+   * Returns the first working day strictly after a date.
+   * @param date  the date, not null
+   * @return the next working day, not null
+   */
+  public LocalDate getNextWorkingDay(final LocalDate date) {
+    ArgumentChecker.notNull(date, "date");
+    LocalDate result = date.plusDays(1);
+    while (true) {
+      final int year = result.getYear();
+      if (year < _firstYear || year > _lastYear) {
+        if (isWorkingDayNotCompiled(result)) {
+          return result;
+        }
+        result = result.plusDays(1);
+        continue;
+      }
+      final long[] holidays = getHolidays(year);
+      final int length = result.lengthOfYear();
+      int day = result.getDayOfYear() - 1;
+      while (day < length) {
+        final int word = day >>> 6;
+        final long working = ~holidays[word] & (-1L << day);
+        if (working != 0) {
+          final int found = (word << 6) + Long.numberOfTrailingZeros(working);
+          if (found < length) {
+            return LocalDate.ofYearDay(year, found + 1);
+          }
+          break;
+        }
+        day = (word + 1) << 6;
+      }
+      result = LocalDate.of(year + 1, 1, 1);
+    }
+  }
+
+  /**
+   * Returns the last working day strictly before a date.
+   * @param date  the date, not null
+   * @return the previous working day, not null
+   */
+  public LocalDate getPreviousWorkingDay(final LocalDate date) {
+    ArgumentChecker.notNull(date, "date");
+    LocalDate result = date.minusDays(1);
+    while (true) {
+      final int year = result.getYear();
+      if (year < _firstYear || year > _lastYear) {
+        if (isWorkingDayNotCompiled(result)) {
+          return result;
+        }
+        result = result.minusDays(1);
+        continue;
+      }
+      final long[] holidays = getHolidays(year);
+      int day = result.getDayOfYear() - 1;
+      while (day >= 0) {
+        final int word = day >>> 6;
+        final long working = ~holidays[word] & (-1L >>> (63 - (day & 63)));
+        if (working != 0) {
+          return LocalDate.ofYearDay(year, (word << 6) + 64 - Long.numberOfLeadingZeros(working));
+        }
+        day = (word << 6) - 1;
+      }
+      result = LocalDate.of(year - 1, 12, 31);
+    }
+  }
+
+  /**
+   * Shifts a date by a number of working days. The date is first moved to the next working day if it is not a working day, then
+   * moved by one working day as many times as the absolute value of the shift, to the future for a positive shift and to the past
+   * for a negative shift. This is the convention of {@code ScheduleCalculator.getAdjustedDate}.
+   * @param date  the date, not null
+   * @param shiftDays  the number of working days
+   * @return the shifted date, not null
+   */
+  public LocalDate addWorkingDays(final LocalDate date, final int shiftDays) {
+    ArgumentChecker.notNull(date, "date");
+    LocalDate result = isWorkingDay(date) ? date : getNextWorkingDay(date);
+    for (int loopday = 0; loopday < shiftDays; loopday++) {
+      result = getNextWorkingDay(result);
+    }
+    for (int loopday = 0; loopday < -shiftDays; loopday++) {
+      result = getPreviousWorkingDay(result);
+    }
+    return result;
+  }
+
+  @Override
+  public String getConventionName() {
+    if (_underlying != null) {
+      return _underlying.getConventionName();
+    }
+    final StringBuilder name = new StringBuilder();
+    for (final CompiledCalendar component : _components) {
+      if (name.length() > 0) {
+        name.append(", ");
+      }
+      name.append(component.getConventionName());
+    }
+    return name.toString();
+  }
+
+  //-------------------------------------------------------------------------
+  private boolean isWorkingDayNotCompiled(final LocalDate date) {
+    if (_underlying != null) {
+      return _underlying.isWorkingDay(date);
+    }
+    for (final CompiledCalendar component : _components) {
+      if (!component.isWorkingDay(date)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the bitset of a compiled year, building it if needed. Concurrent builds of the same year produce the same bitset.
+   * @param year  the year, in the compiled range
+   * @return the non-working days of the year
+   */
+  private long[] getHolidays(final int year) {
+    final int index = year - _firstYear;
+    long[] holidays = _holidays.get(index);
+    if (holidays == null) {
+      holidays = new long[WORDS_PER_YEAR];
+      if (_underlying != null) {
+        final LocalDate start = LocalDate.of(year, 1, 1);
+        final int length = start.lengthOfYear();
+        LocalDate date = start;
+        for (int day = 0; day < length; day++) {
+          if (!_underlying.isWorkingDay(date)) {
+            holidays[day >>> 6] |= 1L << day;
+          }
+          date = date.plusDays(1);
+        }
+      } else {
+        for (final CompiledCalendar component : _components) {
+          final long[] componentHolidays = component.getHolidays(year);
+          for (int word = 0; word < WORDS_PER_YEAR; word++) {
+            holidays[word] |= componentHolidays[word];
+          }
+        }
+      }
+      _holidays.compareAndSet(index, null, holidays);
+    }
+    return holidays;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof CompiledCalendar)) {
+      return false;
+    }
+    final CompiledCalendar other = (CompiledCalendar) obj;
+    return _firstYear == other._firstYear && _lastYear == other._lastYear && (_underlying != null ? _underlying.equals(other._underlying) : other._underlying == null)
+        && Arrays.equals(_components, other._components);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = _underlying != null ? _underlying.hashCode() : Arrays.hashCode(_components);
+    result = 31 * result + _firstYear;
+    result = 31 * result + _lastYear;
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "CompiledCalendar[" + getConventionName() + ", " + _firstYear + "-" + _lastYear + "]";
+  }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.covariance;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.analytics.financial.timeseries.returns.ContinuouslyCompoundedTimeSeriesReturnCalculator;
+import com.opengamma.analytics.financial.timeseries.returns.TimeSeriesReturnCalculator;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.util.CalculationMode;
+
+/**
+ *
+ */
+public class ExponentialWeightedMovingAverageCovarianceEstimatorTest {
+  private static final LocalDate[] T = new LocalDate[12];
+  static {
+    for (int i = 0; i < T.length; i++) {
+      T[i] = LocalDate.ofEpochDay(i + 1);
+    }
+  }
+  private static final LocalDateDoubleTimeSeries CLOSE_TS = ImmutableLocalDateDoubleTimeSeries.of(T,
+      new double[] {132.5, 133.5, 135., 133., 133., 137., 135., 135., 142.5, 143., 144.5, 145. });
+  private static final LocalDateDoubleTimeSeries HIGH_TS = ImmutableLocalDateDoubleTimeSeries.of(T,
+      new double[] {132.5, 134., 136., 137., 136., 137., 136.5, 136., 143.5, 145., 147., 147.5 });
+  private static final LocalDateDoubleTimeSeries LOW_TS = ImmutableLocalDateDoubleTimeSeries.of(T,
+      new double[] {131., 131., 134., 133., 133., 133., 135., 135., 137., 142., 142., 145. });
+  private static final TimeSeriesReturnCalculator RETURN_CALCULATOR = new ContinuouslyCompoundedTimeSeriesReturnCalculator(CalculationMode.LENIENT);
+  private static final double LAMBDA = 0.94;
+  private static final HistoricalVolatilityCalculator CALCULATOR = new ExponentialWeightedMovingAverageHistoricalVolatilityCalculator(LAMBDA, RETURN_CALCULATOR);
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNegativeLambda() {
+    new ExponentialWeightedMovingAverageCovarianceEstimator(2, -0.94);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNoObservation() {
+    new ExponentialWeightedMovingAverageCovarianceEstimator(2, LAMBDA).getCovariance(0, 1);
+  }
+
+  @Test
+  public void testVolatility() {
+    final LocalDateDoubleTimeSeries closeReturns = RETURN_CALCULATOR.evaluate(CLOSE_TS);
+    final LocalDateDoubleTimeSeries highReturns = RETURN_CALCULATOR.evaluate(HIGH_TS);
+    final ExponentialWeightedMovingAverageCovarianceEstimator estimator = new ExponentialWeightedMovingAverageCovarianceEstimator(2, LAMBDA);
+    estimator.addAll(closeReturns, highReturns);
+    assertEquals(closeReturns.size(), estimator.getNumberOfObservations());
+    assertEquals(CALCULATOR.evaluate(CLOSE_TS), estimator.getVolatility(0), 1e-15);
+    assertEquals(CALCULATOR.evaluate(HIGH_TS), estimator.getVolatility(1), 1e-15);
+  }
+
+  @Test
+  public void testCovariance() {
+    final double[] x = RETURN_CALCULATOR.evaluate(CLOSE_TS).valuesArrayFast();
+    final double[] y = RETURN_CALCULATOR.evaluate(LOW_TS).valuesArrayFast();
+    final ExponentialWeightedMovingAverageCovarianceEstimator estimator = new ExponentialWeightedMovingAverageCovarianceEstimator(2, LAMBDA);
+    double covariance = x[0] * y[0];
+    estimator.add(x[0], y[0]);
+    assertEquals(covariance, estimator.getCovariance(0, 1), 1e-15);
+    for (int t = 1; t < x.length; t++) {
+      covariance = LAMBDA * covariance + (1 - LAMBDA) * x[t] * y[t];
+      estimator.add(x[t], y[t]);
+      assertEquals(covariance, estimator.getCovariance(0, 1), 1e-15);
+      assertEquals(covariance, estimator.getCovariance(1, 0), 1e-15);
+      assertEquals(covariance, estimator.getCovarianceMatrix().getEntry(1, 0), 1e-15);
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.covariance;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import cern.jet.random.engine.MersenneTwister;
+import cern.jet.random.engine.MersenneTwister64;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.timeseries.DoubleTimeSeries;
+import com.opengamma.timeseries.precise.instant.ImmutableInstantDoubleTimeSeries;
+
+/**
+ *
+ */
+public class ParallelCovarianceMatrixCalculatorTest {
+  private static final int NB_FACTORS = 37;
+  private static final int NB_OBSERVATIONS = 50;
+  private static final double[][] RETURNS = new double[NB_FACTORS][NB_OBSERVATIONS];
+  static {
+    final MersenneTwister engine = new MersenneTwister64(MersenneTwister.DEFAULT_SEED);
+    for (int t = 0; t < NB_OBSERVATIONS; t++) {
+      final double common = engine.nextDouble() - 0.5;
+      for (int i = 0; i < NB_FACTORS; i++) {
+        RETURNS[i][t] = 0.01 * (common + engine.nextDouble() - 0.5) + 0.001 * i;
+      }
+    }
+  }
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+  private static final double EPS = 1e-15;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBlockSize() {
+    new ParallelCovarianceMatrixCalculator(POOL, 0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testEmpty() {
+    new ParallelCovarianceMatrixCalculator(POOL).evaluate(new double[0][]);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testDifferentLengths() {
+    new ParallelCovarianceMatrixCalculator(POOL).evaluate(new double[][] {{1, 2, 3 }, {1, 2 } });
+  }
+
+  @Test
+  public void test() {
+    final RunningCovarianceEstimator estimator = new RunningCovarianceEstimator(NB_FACTORS);
+    final double[] observation = new double[NB_FACTORS];
+    for (int t = 0; t < NB_OBSERVATIONS; t++) {
+      for (int i = 0; i < NB_FACTORS; i++) {
+        observation[i] = RETURNS[i][t];
+      }
+      estimator.add(observation);
+    }
+    final DoubleMatrix2D expected = estimator.getCovarianceMatrix();
+    final DoubleMatrix2D sequential = new ParallelCovarianceMatrixCalculator(null).evaluate(RETURNS);
+    final DoubleMatrix2D parallel = new ParallelCovarianceMatrixCalculator(POOL, 5).evaluate(RETURNS);
+    for (int i = 0; i < NB_FACTORS; i++) {
+      for (int j = 0; j < NB_FACTORS; j++) {
+        assertEquals(expected.getEntry(i, j), sequential.getEntry(i, j), EPS);
+        assertEquals(sequential.getEntry(i, j), parallel.getEntry(i, j), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testTimeSeries() {
+    final long[] times = new long[NB_OBSERVATIONS];
+    for (int t = 0; t < NB_OBSERVATIONS; t++) {
+      times[t] = t + 1;
+    }
+    final DoubleTimeSeries<?>[] ts = new DoubleTimeSeries<?>[NB_FACTORS];
+    for (int i = 0; i < NB_FACTORS; i++) {
+      ts[i] = ImmutableInstantDoubleTimeSeries.of(times, RETURNS[i]);
+    }
+    final ParallelCovarianceMatrixCalculator calculator = new ParallelCovarianceMatrixCalculator(POOL, 8);
+    final DoubleMatrix2D fromSeries = calculator.evaluate(ts);
+    final DoubleMatrix2D fromArrays = calculator.evaluate(RETURNS);
+    for (int i = 0; i < NB_FACTORS; i++) {
+      for (int j = 0; j < NB_FACTORS; j++) {
+        assertEquals(fromArrays.getEntry(i, j), fromSeries.getEntry(i, j), 0);
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    POOL.shutdown();
+  }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.covariance;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+import cern.jet.random.engine.MersenneTwister;
+import cern.jet.random.engine.MersenneTwister64;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.timeseries.DoubleTimeSeries;
+import com.opengamma.timeseries.precise.instant.ImmutableInstantDoubleTimeSeries;
+
+/**
+ *
+ */
+public class RunningCovarianceEstimatorTest {
+  private static final int NB_FACTORS = 4;
+  private static final int NB_OBSERVATIONS = 200;
+  private static final double[][] RETURNS = new double[NB_OBSERVATIONS][NB_FACTORS];
+  static {
+    final MersenneTwister engine = new MersenneTwister64(MersenneTwister.DEFAULT_SEED);
+    for (int t = 0; t < NB_OBSERVATIONS; t++) {
+      final double common = engine.nextDouble() - 0.5;
+      for (int i = 0; i < NB_FACTORS; i++) {
+        RETURNS[t][i] = 0.01 * (i + 1) * (common + engine.nextDouble() - 0.5) + 0.05;
+      }
+    }
+  }
+  private static final double EPS = 1e-12;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNoFactors() {
+    new RunningCovarianceEstimator(0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testWindowSize() {
+    new RunningCovarianceEstimator(NB_FACTORS, 1);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testWrongNumberOfReturns() {
+    new RunningCovarianceEstimator(NB_FACTORS).add(new double[NB_FACTORS + 1]);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testOneObservation() {
+    final RunningCovarianceEstimator estimator = new RunningCovarianceEstimator(NB_FACTORS);
+    estimator.add(RETURNS[0]);
+    estimator.getCovariance(0, 1);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testIndex() {
+    final RunningCovarianceEstimator estimator = new RunningCovarianceEstimator(NB_FACTORS);
+    estimator.add(RETURNS[0]);
+    estimator.add(RETURNS[1]);
+    estimator.getCovariance(0, NB_FACTORS);
+  }
+
+  @Test
+  public void testAllObservations() {
+    final RunningCovarianceEstimator estimator = new RunningCovarianceEstimator(NB_FACTORS);
+    for (int t = 0; t < NB_OBSERVATIONS; t++) {
+      estimator.add(RETURNS[t]);
+      if (t > 0) {
+        assertCovariance(estimator, 0, t + 1);
+      }
+    }
+    assertEquals(NB_OBSERVATIONS, estimator.getNumberOfObservations());
+    assertEquals(0, estimator.getWindowSize());
+  }
+
+  @Test
+  public void testRollingWindow() {
+    final int window = 20;
+    final RunningCovarianceEstimator estimator = new RunningCovarianceEstimator(NB_FACTORS, window);
+    for (int t = 0; t < NB_OBSERVATIONS; t++) {
+      estimator.add(RETURNS[t]);
+      final int start = Math.max(0, t + 1 - window);
+      assertEquals(t + 1 - start, estimator.getNumberOfObservations());
+      if (t > 0) {
+        assertCovariance(estimator, start, t + 1);
+      }
+    }
+  }
+
+  @Test
+  public void testTimeSeries() {
+    final long[] times = new long[NB_OBSERVATIONS];
+    for (int t = 0; t < NB_OBSERVATIONS; t++) {
+      times[t] = t + 1;
+    }
+    final DoubleTimeSeries<?>[] ts = new DoubleTimeSeries<?>[NB_FACTORS];
+    for (int i = 0; i < NB_FACTORS; i++) {
+      final double[] values = new double[NB_OBSERVATIONS];
+      for (int t = 0; t < NB_OBSERVATIONS; t++) {
+        values[t] = RETURNS[t][i];
+      }
+      ts[i] = ImmutableInstantDoubleTimeSeries.of(times, values);
+    }
+    final RunningCovarianceEstimator estimator = new RunningCovarianceEstimator(NB_FACTORS);
+    estimator.addAll(ts);
+    assertCovariance(estimator, 0, NB_OBSERVATIONS);
+    final CovarianceCalculator calculator = new HistoricalCovarianceCalculator();
+    final DoubleTimeSeries<?> centred = ts[0].add(-estimator.getMean(0));
+    assertEquals(calculator.evaluate(centred, centred), estimator.getVariance(0), EPS);
+  }
+
+  private static void assertCovariance(final IncrementalCovarianceEstimator estimator, final int start, final int end) {
+    final int n = end - start;
+    final double[] means = new double[NB_FACTORS];
+    for (int t = start; t < end; t++) {
+      for (int i = 0; i < NB_FACTORS; i++) {
+        means[i] += RETURNS[t][i] / n;
+      }
+    }
+    final DoubleMatrix2D matrix = estimator.getCovarianceMatrix();
+    for (int i = 0; i < NB_FACTORS; i++) {
+      for (int j = 0; j < NB_FACTORS; j++) {
+        double expected = 0;
+        for (int t = start; t < end; t++) {
+          expected += (RETURNS[t][i] - means[i]) * (RETURNS[t][j] - means[j]);
+        }
+        expected /= n - 1;
+        assertEquals(expected, estimator.getCovariance(i, j), EPS);
+        assertEquals(expected, matrix.getEntry(i, j), EPS);
+      }
+      assertEquals(Math.sqrt(estimator.getVariance(i)), estimator.getVolatility(i), EPS);
+    }
+  }
+
+}
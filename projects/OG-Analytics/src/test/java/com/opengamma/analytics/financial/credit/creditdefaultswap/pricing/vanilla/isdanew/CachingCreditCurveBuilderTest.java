@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew;
+
+import static com.opengamma.financial.convention.businessday.BusinessDayDateUtils.addWorkDays;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.Period;
+
+import com.opengamma.analytics.financial.credit.StubType;
+import com.opengamma.analytics.financial.model.BumpType;
+import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.MondayToFridayCalendar;
+
+/**
+ *
+ */
+public class CachingCreditCurveBuilderTest {
+  private static final ISDACompliantCreditCurveBuilder BUILDER = new FastCreditCurveBuilder();
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+  private static final Calendar DEFAULT_CALENDAR = new MondayToFridayCalendar("Weekend_Only");
+
+  private static final LocalDate TODAY = LocalDate.of(2013, 4, 21);
+  private static final LocalDate EFFECTIVE_DATE = TODAY.plusDays(1);
+  private static final LocalDate CASH_SETTLE_DATE = addWorkDays(TODAY, 3, DEFAULT_CALENDAR);
+  private static final double RECOVERY_RATE = 0.4;
+  private static final double DEAL_SPREAD = 0.0101;
+  private static final LocalDate[] PAR_SPD_DATES = new LocalDate[] {LocalDate.of(2013, 6, 20), LocalDate.of(2013, 9, 20), LocalDate.of(2014, 3, 20), LocalDate.of(2015, 3, 20),
+    LocalDate.of(2016, 3, 20), LocalDate.of(2018, 3, 20), LocalDate.of(2023, 3, 20) };
+  private static final double[] PAR_SPREADS = new double[] {0.0050, 0.0070, 0.0080, 0.0095, 0.0100, 0.0095, 0.0080 };
+  private static final int NUM_MARKET_CDS = PAR_SPD_DATES.length;
+  private static final CDSAnalytic[] MARKET_CDS = new CDSAnalytic[NUM_MARKET_CDS];
+  private static final CDSAnalytic CDS;
+  private static final ISDACompliantYieldCurve YIELD_CURVE = new ISDACompliantYieldCurve(new double[] {20.0 }, new double[] {0.05 });
+
+  static {
+    final Period tenor = Period.ofMonths(3);
+    CDS = new CDSAnalytic(TODAY, EFFECTIVE_DATE, CASH_SETTLE_DATE, LocalDate.of(2013, 2, 3), LocalDate.of(2018, 3, 20), true, tenor, StubType.FRONTSHORT, true, RECOVERY_RATE);
+    for (int i = 0; i < NUM_MARKET_CDS; i++) {
+      MARKET_CDS[i] = new CDSAnalytic(TODAY, EFFECTIVE_DATE, CASH_SETTLE_DATE, TODAY, PAR_SPD_DATES[i], true, tenor, StubType.FRONTSHORT, true, RECOVERY_RATE);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNullUnderlying() {
+    new CachingCreditCurveBuilder(null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testMaximumSize() {
+    new CachingCreditCurveBuilder(BUILDER, 0, POOL);
+  }
+
+  @Test
+  public void testMemoised() {
+    final CachingCreditCurveBuilder builder = new CachingCreditCurveBuilder(BUILDER);
+    final ISDACompliantCreditCurve curve = builder.calibrateCreditCurve(MARKET_CDS, PAR_SPREADS, YIELD_CURVE);
+    assertEquals(BUILDER.calibrateCreditCurve(MARKET_CDS, PAR_SPREADS, YIELD_CURVE), curve);
+    assertSame(curve, builder.calibrateCreditCurve(MARKET_CDS, PAR_SPREADS.clone(), YIELD_CURVE));
+    final CDSQuoteConvention[] quotes = new CDSQuoteConvention[NUM_MARKET_CDS];
+    for (int i = 0; i < NUM_MARKET_CDS; i++) {
+      quotes[i] = new ParSpread(PAR_SPREADS[i]);
+    }
+    final ISDACompliantCreditCurve fromQuotes = builder.calibrateCreditCurve(MARKET_CDS, quotes, YIELD_CURVE);
+    assertSame(fromQuotes, builder.calibrateCreditCurve(MARKET_CDS, quotes.clone(), YIELD_CURVE));
+    assertEquals(2, builder.size());
+    final double[] bumped = PAR_SPREADS.clone();
+    bumped[3] += 1e-4;
+    assertNotSame(curve, builder.calibrateCreditCurve(MARKET_CDS, bumped, YIELD_CURVE));
+    assertEquals(3, builder.size());
+    builder.clear();
+    assertEquals(0, builder.size());
+  }
+
+  @Test
+  public void testEviction() {
+    final CachingCreditCurveBuilder builder = new CachingCreditCurveBuilder(BUILDER, 1, null);
+    final ISDACompliantCreditCurve curve = builder.calibrateCreditCurve(MARKET_CDS[0], PAR_SPREADS[0], YIELD_CURVE);
+    builder.calibrateCreditCurve(MARKET_CDS[1], PAR_SPREADS[1], YIELD_CURVE);
+    assertEquals(1, builder.size());
+    final ISDACompliantCreditCurve recalibrated = builder.calibrateCreditCurve(MARKET_CDS[0], PAR_SPREADS[0], YIELD_CURVE);
+    assertNotSame(curve, recalibrated);
+    assertEquals(curve, recalibrated);
+  }
+
+  @Test
+  public void testParallelCalibration() {
+    final double[][] spreads = new double[NUM_MARKET_CDS][];
+    for (int i = 0; i < NUM_MARKET_CDS; i++) {
+      spreads[i] = PAR_SPREADS.clone();
+      spreads[i][i] += 1e-4;
+    }
+    final ISDACompliantCreditCurve[] sequential = new CachingCreditCurveBuilder(BUILDER).calibrateCreditCurves(MARKET_CDS, spreads, YIELD_CURVE);
+    final ISDACompliantCreditCurve[] parallel = new CachingCreditCurveBuilder(BUILDER, 100, POOL).calibrateCreditCurves(MARKET_CDS, spreads, YIELD_CURVE);
+    for (int i = 0; i < NUM_MARKET_CDS; i++) {
+      assertEquals(BUILDER.calibrateCreditCurve(MARKET_CDS, spreads[i], YIELD_CURVE), sequential[i]);
+      assertEquals(sequential[i], parallel[i]);
+    }
+  }
+
+  @Test
+  public void testSpreadSensitivity() {
+    final SpreadSensitivityCalculator calculator = new SpreadSensitivityCalculator();
+    final SpreadSensitivityCalculator cachingCalculator = new SpreadSensitivityCalculator(new CachingCreditCurveBuilder(BUILDER, 100, POOL), false);
+    final double[] expected = calculator.bucketedCS01FromParSpreads(CDS, DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-4, BumpType.ADDITIVE);
+    final double[] actual = cachingCalculator.bucketedCS01FromParSpreads(CDS, DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-4, BumpType.ADDITIVE);
+    final double[] again = cachingCalculator.bucketedCS01FromParSpreads(CDS, DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-4, BumpType.ADDITIVE);
+    for (int i = 0; i < NUM_MARKET_CDS; i++) {
+      assertEquals(expected[i], actual[i], 1e-12);
+      assertEquals(actual[i], again[i], 0);
+    }
+  }
+
+}
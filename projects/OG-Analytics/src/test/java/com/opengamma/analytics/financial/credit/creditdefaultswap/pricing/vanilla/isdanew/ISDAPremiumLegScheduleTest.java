@@ -8,6 +8,8 @@ package com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanil
 import static com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.IMMDateLogic.getNextIMMDate;
 import static com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.IMMDateLogic.getPrevIMMDate;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.LocalDate;
@@ -20,6 +22,7 @@ import com.opengamma.analytics.financial.credit.StubType;
 import com.opengamma.financial.convention.businessday.BusinessDayConvention;
 import com.opengamma.financial.convention.businessday.BusinessDayConventionFactory;
 import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.CompiledCalendar;
 import com.opengamma.financial.convention.calendar.MondayToFridayCalendar;
 import com.opengamma.financial.convention.daycount.DayCount;
 import com.opengamma.financial.convention.daycount.DayCountFactory;
@@ -47,6 +50,35 @@ public class ISDAPremiumLegScheduleTest {
     final ISDAPremiumLegSchedule schedule = new ISDAPremiumLegSchedule(startDate, endDate, step, stubType, FOLLOWING, CALENDAR, protectionStart);
   }
 
+  @Test
+  public void internedScheduleTest() {
+    final LocalDate startDate = LocalDate.of(2013, 3, 20);
+    final LocalDate endDate = LocalDate.of(2018, 6, 20);
+    final Period step = Period.ofMonths(3);
+    final Calendar compiled = new CompiledCalendar(CALENDAR, 2000, 2030);
+    final ISDAPremiumLegSchedule schedule = ISDAPremiumLegSchedule.of(startDate, endDate, step, StubType.FRONTSHORT, FOLLOWING, compiled, true);
+    assertSame(schedule, ISDAPremiumLegSchedule.of(LocalDate.of(2013, 3, 20), endDate, Period.ofMonths(3), StubType.FRONTSHORT,
+        BusinessDayConventionFactory.INSTANCE.getBusinessDayConvention("Following"), compiled, true));
+    assertNotSame(schedule, ISDAPremiumLegSchedule.of(startDate, endDate, step, StubType.FRONTSHORT, FOLLOWING, compiled, false));
+    assertNotSame(schedule, ISDAPremiumLegSchedule.of(startDate, endDate, step, StubType.FRONTSHORT, FOLLOWING, new CompiledCalendar(CALENDAR, 2000, 2030), true));
+    // calendars that can be modified are not interned
+    assertNotSame(ISDAPremiumLegSchedule.of(startDate, endDate, step, StubType.FRONTSHORT, FOLLOWING, CALENDAR, true),
+        ISDAPremiumLegSchedule.of(startDate, endDate, step, StubType.FRONTSHORT, FOLLOWING, CALENDAR, true));
+
+    final ISDAPremiumLegSchedule expected = new ISDAPremiumLegSchedule(startDate, endDate, step, StubType.FRONTSHORT, FOLLOWING, CALENDAR, true);
+    final int n = expected.getNumPayments();
+    assertEquals(n, schedule.getNumPayments());
+    for (int i = 0; i < n; i++) {
+      assertEquals(expected.getAccStartDate(i), schedule.getAccStartDate(i));
+      assertEquals(expected.getAccEndDate(i), schedule.getAccEndDate(i));
+      assertEquals(expected.getPaymentDate(i), schedule.getPaymentDate(i));
+      assertEquals(expected.getNominalPaymentDate(i), schedule.getNominalPaymentDate(i));
+    }
+
+    ISDAPremiumLegSchedule.clearInternedSchedules();
+    assertNotSame(schedule, ISDAPremiumLegSchedule.of(startDate, endDate, step, StubType.FRONTSHORT, FOLLOWING, compiled, true));
+  }
+
   /**
    * short front stub and end on a weekend at EoM 
    */
@@ -8,7 +8,9 @@ package com.opengamma.analytics.financial.interestrate.swaption.provider;
 import static org.testng.AssertJUnit.assertEquals;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 import org.threeten.bp.Period;
 import org.threeten.bp.ZonedDateTime;
@@ -49,7 +51,9 @@ import com.opengamma.analytics.financial.provider.sensitivity.multicurve.Multipl
 import com.opengamma.analytics.financial.provider.sensitivity.parameter.ParameterSensitivityParameterCalculator;
 import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
 import com.opengamma.analytics.financial.util.AssertSensivityObjects;
+import com.opengamma.analytics.math.random.CounterBasedNormalRandomNumberGenerator;
 import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+import com.opengamma.analytics.math.random.SobolNormalRandomNumberGenerator;
 import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
 import com.opengamma.analytics.math.statistics.distribution.ProbabilityDistribution;
 import com.opengamma.financial.convention.calendar.Calendar;
@@ -115,6 +119,7 @@ public class SwaptionPhysicalFixedIborHullWhiteMethodTest {
   private static final SwaptionPhysicalFixedIborHullWhiteNumericalIntegrationMethod METHOD_HW_INTEGRATION = SwaptionPhysicalFixedIborHullWhiteNumericalIntegrationMethod.getInstance();
   private static final SwaptionPhysicalFixedIborHullWhiteApproximationMethod METHOD_HW_APPROXIMATION = SwaptionPhysicalFixedIborHullWhiteApproximationMethod.getInstance();
   private static final int NB_PATH = 12500;
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
   private static final HullWhiteMonteCarloMethod METHOD_HW_MONTECARLO = new HullWhiteMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0), NB_PATH);
 
   private static final HullWhiteOneFactorPiecewiseConstantInterestRateModel MODEL = new HullWhiteOneFactorPiecewiseConstantInterestRateModel();
@@ -269,6 +274,25 @@ public class SwaptionPhysicalFixedIborHullWhiteMethodTest {
     assertEquals("Swaption physical - Hull-White - Monte Carlo - payer/receiver/swap parity", pvReceiverLongMC.getAmount(EUR) + pvPayerShortMC.getAmount(EUR), pvSwap.getAmount(EUR), 1.0E+5);
   }
 
+  @Test
+  /**
+   * Tests that the Monte-Carlo with substreams does not depend on the number of threads and the quasi-random/control variate version.
+   */
+  public void presentValueMonteCarloSubstreams() {
+    final HullWhiteMonteCarloMethod methodSequential = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0), NB_PATH);
+    final HullWhiteMonteCarloMethod methodParallel = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0), NB_PATH, POOL, false);
+    final double pvSequential = methodSequential.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR);
+    final double pvParallel = methodParallel.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - reproducible", pvSequential, pvParallel, 0.0);
+    final double pvPayerLongExplicit = METHOD_HW.presentValue(SWAPTION_LONG_PAYER, HW_MULTICURVES).getAmount(EUR);
+    final HullWhiteMonteCarloMethod methodControl = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0), NB_PATH, POOL, true);
+    final double pvControl = methodControl.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - control variate", pvPayerLongExplicit, pvControl, 1.0E+4);
+    final HullWhiteMonteCarloMethod methodSobol = new HullWhiteMonteCarloMethod(new SobolNormalRandomNumberGenerator(1), NB_PATH, POOL, true);
+    final double pvSobol = methodSobol.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - Sobol and control variate", pvPayerLongExplicit, pvSobol, 5.0E+3);
+  }
+
   @Test
   /**
    * Tests the Hull-White parameters sensitivity for the explicit formula.
@@ -519,4 +543,9 @@ public class SwaptionPhysicalFixedIborHullWhiteMethodTest {
 
   }
 
+  @AfterClass
+  public void tearDown() {
+    POOL.shutdown();
+  }
+
 }
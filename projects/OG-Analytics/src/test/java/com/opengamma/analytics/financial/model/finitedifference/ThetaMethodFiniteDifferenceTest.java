@@ -5,10 +5,19 @@
  */
 package com.opengamma.analytics.financial.model.finitedifference;
 
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 
+import com.opengamma.analytics.financial.model.finitedifference.applications.InitialConditionsProvider;
+import com.opengamma.analytics.financial.model.finitedifference.applications.PDE1DCoefficientsProvider;
+import com.opengamma.analytics.math.function.Function1D;
 import com.opengamma.util.monitor.OperationTimer;
 
 /**
@@ -114,4 +123,50 @@ public class ThetaMethodFiniteDifferenceTest {
     TESTER.testAmericanPrice(SOLVER, timeSteps, priceSteps, lowerMoneyness, upperMoneyness, print);
   }
 
+  /**
+   * A batch of PDEs sharing one grid gives the same results, in parallel or not, as solving the PDEs one by one
+   */
+  @Test
+  public void testBatchSolve() {
+    final PDE1DCoefficientsProvider pdeProvider = new PDE1DCoefficientsProvider();
+    final InitialConditionsProvider initialCondProvider = new InitialConditionsProvider();
+    final double strike = 100;
+    final PDEGrid1D grid = new PDEGrid1D(new ExponentialMeshing(0, 2.0, 50, 5.0), new HyperbolicMeshing(0, 400, strike, 200, 0.1));
+    final List<PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>> pdeData = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      final boolean isCall = i % 2 == 0;
+      final ConvectionDiffusionPDE1DCoefficients pde = pdeProvider.getBlackScholes(0.03, 0.01, 0.2 + 0.05 * i);
+      final BoundaryCondition lower = isCall ? new DirichletBoundaryCondition(0, 0) : new DirichletBoundaryCondition(strike, 0);
+      final BoundaryCondition upper = new NeumannBoundaryCondition(isCall ? 1.0 : 0.0, 400, false);
+      pdeData.add(new PDE1DDataBundle<>(pde, initialCondProvider.getEuropeanPayoff(strike, isCall), lower, upper, grid));
+    }
+    final ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      final PDEResults1D[] sequential = SOLVER.solve(pdeData, null);
+      final PDEResults1D[] parallel = SOLVER.solve(pdeData, pool);
+      for (int i = 0; i < pdeData.size(); i++) {
+        final PDEResults1D single = SOLVER.solve(pdeData.get(i));
+        for (int j = 0; j < grid.getNumSpaceNodes(); j++) {
+          assertEquals(single.getFunctionValue(j), sequential[i].getFunctionValue(j), 0);
+          assertEquals(single.getFunctionValue(j), parallel[i].getFunctionValue(j), 0);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBatchSolveDifferentGrids() {
+    final PDE1DCoefficientsProvider pdeProvider = new PDE1DCoefficientsProvider();
+    final ConvectionDiffusionPDE1DCoefficients pde = pdeProvider.getBlackScholes(0.03, 0.01, 0.2);
+    final Function1D<Double, Double> payoff = new InitialConditionsProvider().getEuropeanPayoff(100, true);
+    final BoundaryCondition lower = new DirichletBoundaryCondition(0, 0);
+    final BoundaryCondition upper = new NeumannBoundaryCondition(1.0, 400, false);
+    final List<PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>> pdeData = new ArrayList<>();
+    pdeData.add(new PDE1DDataBundle<>(pde, payoff, lower, upper, new PDEGrid1D(10, 50, 1.0, 0, 400)));
+    pdeData.add(new PDE1DDataBundle<>(pde, payoff, lower, upper, new PDEGrid1D(10, 50, 1.0, 0, 400)));
+    SOLVER.solve(pdeData, null);
+  }
+
 }
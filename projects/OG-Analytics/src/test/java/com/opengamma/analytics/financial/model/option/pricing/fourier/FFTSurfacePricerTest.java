@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.option.pricing.fourier;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.BlackFunctionData;
+import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
+import com.opengamma.analytics.financial.model.volatility.BlackImpliedVolatilityFormula;
+
+/**
+ * Tests {@link FFTSurfacePricer}.
+ */
+public class FFTSurfacePricerTest {
+  private static final double SIGMA = 0.2;
+  private static final double[] EXPIRIES = new double[] {1 / 52.0, 0.25, 0.5, 1, 2, 5 };
+  private static final double[] FORWARDS = new double[] {100, 101, 102, 103, 105, 110 };
+  private static final double[] DFS = new double[] {0.999, 0.99, 0.98, 0.96, 0.92, 0.8 };
+  private static final double[][] STRIKES = new double[EXPIRIES.length][];
+  static {
+    for (int i = 0; i < EXPIRIES.length; i++) {
+      final int nStrikes = 11;
+      STRIKES[i] = new double[nStrikes];
+      for (int j = 0; j < nStrikes; j++) {
+        // unsorted strikes, within two standard deviations
+        final double z = 2.0 * ((j * 7) % nStrikes - nStrikes / 2) / (nStrikes / 2);
+        STRIKES[i][j] = FORWARDS[i] * Math.exp(z * SIGMA * Math.sqrt(EXPIRIES[i]));
+      }
+    }
+  }
+  private static final BlackImpliedVolatilityFormula BLACK_IMPLIED_VOL = new BlackImpliedVolatilityFormula();
+  private static final MartingaleCharacteristicExponent GAUSSIAN = new GaussianMartingaleCharacteristicExponent(SIGMA);
+  private static final MartingaleCharacteristicExponent HESTON = new HestonCharacteristicExponent(1.2, 0.04, 0.05, 0.4, -0.5);
+  private static final FFTSurfacePricer PRICER = new FFTSurfacePricer();
+  private static final double MAX_DELTA_MONEYNESS = 0.002;
+  private static final double ALPHA = -0.5;
+  private static final double TOL = 1e-10;
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNullCharacteristicExponent() {
+    PRICER.price(FORWARDS, DFS, EXPIRIES, STRIKES, true, null, MAX_DELTA_MONEYNESS, SIGMA, ALPHA, TOL);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testWrongNumberOfForwards() {
+    PRICER.price(new double[] {100 }, DFS, EXPIRIES, STRIKES, true, GAUSSIAN, MAX_DELTA_MONEYNESS, SIGMA, ALPHA, TOL);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testZeroAlpha() {
+    PRICER.price(FORWARDS, DFS, EXPIRIES, STRIKES, true, GAUSSIAN, MAX_DELTA_MONEYNESS, SIGMA, 0, TOL);
+  }
+
+  @Test
+  public void testBlack() {
+    for (final boolean isCall : new boolean[] {true, false }) {
+      final double[][] prices = PRICER.price(FORWARDS, DFS, EXPIRIES, STRIKES, isCall, GAUSSIAN, MAX_DELTA_MONEYNESS, SIGMA, ALPHA, TOL);
+      for (int i = 0; i < EXPIRIES.length; i++) {
+        assertEquals("FFTSurfacePricer: strikes", STRIKES[i].length, prices[i].length);
+        final BlackFunctionData data = new BlackFunctionData(FORWARDS[i], DFS[i], SIGMA);
+        for (int j = 0; j < STRIKES[i].length; j++) {
+          final EuropeanVanillaOption option = new EuropeanVanillaOption(STRIKES[i][j], EXPIRIES[i], isCall);
+          assertEquals("FFTSurfacePricer: implied volatility", SIGMA, BLACK_IMPLIED_VOL.getImpliedVolatility(data, option, prices[i][j]), 1e-5);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testHeston() {
+    final FourierPricer fourierPricer = new FourierPricer();
+    final double[][] prices = PRICER.price(FORWARDS, DFS, EXPIRIES, STRIKES, true, HESTON, MAX_DELTA_MONEYNESS, SIGMA, ALPHA, TOL);
+    for (int i = 0; i < EXPIRIES.length; i++) {
+      final BlackFunctionData data = new BlackFunctionData(FORWARDS[i], DFS[i], SIGMA);
+      for (int j = 0; j < STRIKES[i].length; j++) {
+        final double expected = fourierPricer.price(data, new EuropeanVanillaOption(STRIKES[i][j], EXPIRIES[i], true), HESTON, ALPHA, 1e-10);
+        assertEquals("FFTSurfacePricer: Heston price", expected, prices[i][j], 1e-4 * FORWARDS[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testGridReuseAndParallel() {
+    final FFTSurfacePricer.Grid grid = PRICER.getGrid(FORWARDS, EXPIRIES, STRIKES, HESTON, MAX_DELTA_MONEYNESS, SIGMA, ALPHA, TOL);
+    final double[][] expected = PRICER.price(FORWARDS, DFS, EXPIRIES, STRIKES, true, HESTON, MAX_DELTA_MONEYNESS, SIGMA, ALPHA, TOL);
+    final double[][] withGrid = PRICER.price(grid, FORWARDS, DFS, EXPIRIES, STRIKES, true, HESTON);
+    final double[][] parallel = new FFTSurfacePricer(POOL).price(grid, FORWARDS, DFS, EXPIRIES, STRIKES, true, HESTON);
+    for (int i = 0; i < EXPIRIES.length; i++) {
+      for (int j = 0; j < STRIKES[i].length; j++) {
+        assertEquals("FFTSurfacePricer: grid", expected[i][j], withGrid[i][j], 0);
+        assertEquals("FFTSurfacePricer: parallel", expected[i][j], parallel[i][j], 0);
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    POOL.shutdown();
+  }
+
+}
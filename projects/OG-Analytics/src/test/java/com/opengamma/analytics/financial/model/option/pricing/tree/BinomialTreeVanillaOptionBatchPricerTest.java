@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.option.pricing.tree;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.financial.greeks.Greek;
+import com.opengamma.analytics.financial.greeks.GreekResultCollection;
+
+/**
+ *
+ */
+public class BinomialTreeVanillaOptionBatchPricerTest {
+  private static final BinomialTreeOptionPricingModel _model = new BinomialTreeOptionPricingModel();
+  private static final LatticeSpecification[] LATTICES = new LatticeSpecification[] {new CoxRossRubinsteinLatticeSpecification(), new JarrowRuddLatticeSpecification(),
+      new TrigeorgisLatticeSpecification(), new TianLatticeSpecification() };
+  private static final double SPOT = 105.;
+  private static final double[] STRIKES = new double[] {81., 97., 105., 105.1, 114., 138. };
+  private static final boolean[] IS_CALL = new boolean[] {false, true, false, true, false, true };
+  private static final double TIME = 4.2;
+  private static final double[] INTERESTS = new double[] {-0.01, 0.005, 0.05 };
+  private static final double[] VOLS = new double[] {0.1, 0.5 };
+  private static final double DIVIDEND = 0.02;
+  private static final double[] EXERCISE_TIMES = new double[] {1.1, 2.3, 3.5 };
+  private static final int STEPS = 151;
+  private static final double EPS = 1.e-12;
+
+  /**
+   *
+   */
+  @Test
+  public void europeanAmericanTest() {
+    for (final LatticeSpecification lattice : LATTICES) {
+      final BinomialTreeVanillaOptionBatchPricer pricer = new BinomialTreeVanillaOptionBatchPricer(lattice, STEPS);
+      for (final double interest : INTERESTS) {
+        for (final double vol : VOLS) {
+          final double[] european = pricer.getPrices(SPOT, vol, interest, DIVIDEND, TIME, STRIKES, IS_CALL, false);
+          final double[] american = pricer.getPrices(SPOT, vol, interest, DIVIDEND, TIME, STRIKES, IS_CALL, true);
+          for (int k = 0; k < STRIKES.length; ++k) {
+            final double refEuropean = _model.getPrice(lattice, new EuropeanVanillaOptionFunctionProvider(STRIKES[k], TIME, STEPS, IS_CALL[k]), SPOT, vol, interest, DIVIDEND);
+            final double refAmerican = _model.getPrice(lattice, new AmericanVanillaOptionFunctionProvider(STRIKES[k], TIME, STEPS, IS_CALL[k]), SPOT, vol, interest, DIVIDEND);
+            assertEquals(european[k], refEuropean, Math.max(refEuropean, 1.) * EPS);
+            assertEquals(american[k], refAmerican, Math.max(refAmerican, 1.) * EPS);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   *
+   */
+  @Test
+  public void bermudanTest() {
+    for (final LatticeSpecification lattice : LATTICES) {
+      final BinomialTreeVanillaOptionBatchPricer pricer = new BinomialTreeVanillaOptionBatchPricer(lattice, STEPS);
+      for (final double interest : INTERESTS) {
+        for (final double vol : VOLS) {
+          final double[] prices = pricer.getPrices(SPOT, vol, interest, DIVIDEND, TIME, STRIKES, IS_CALL, EXERCISE_TIMES);
+          for (int k = 0; k < STRIKES.length; ++k) {
+            final double ref = _model.getPrice(lattice, new BermudanOptionFunctionProvider(STRIKES[k], TIME, STEPS, IS_CALL[k], EXERCISE_TIMES), SPOT, vol, interest, DIVIDEND);
+            assertEquals(prices[k], ref, Math.max(ref, 1.) * EPS);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   *
+   */
+  @Test
+  public void greeksTest() {
+    final Greek[] greeks = new Greek[] {Greek.FAIR_PRICE, Greek.DELTA, Greek.GAMMA, Greek.THETA };
+    for (final LatticeSpecification lattice : LATTICES) {
+      final BinomialTreeVanillaOptionBatchPricer pricer = new BinomialTreeVanillaOptionBatchPricer(lattice, STEPS);
+      for (final double interest : INTERESTS) {
+        for (final double vol : VOLS) {
+          final GreekResultCollection[] american = pricer.getGreeks(SPOT, vol, interest, DIVIDEND, TIME, STRIKES, IS_CALL, true);
+          final GreekResultCollection[] bermudan = pricer.getGreeks(SPOT, vol, interest, DIVIDEND, TIME, STRIKES, IS_CALL, EXERCISE_TIMES);
+          for (int k = 0; k < STRIKES.length; ++k) {
+            final GreekResultCollection refAmerican = _model.getGreeks(lattice, new AmericanVanillaOptionFunctionProvider(STRIKES[k], TIME, STEPS, IS_CALL[k]), SPOT, vol, interest, DIVIDEND);
+            final GreekResultCollection refBermudan = _model.getGreeks(lattice, new BermudanOptionFunctionProvider(STRIKES[k], TIME, STEPS, IS_CALL[k], EXERCISE_TIMES), SPOT, vol, interest,
+                DIVIDEND);
+            for (final Greek greek : greeks) {
+              assertEquals(american[k].get(greek), refAmerican.get(greek), Math.max(Math.abs(refAmerican.get(greek)), 1.) * 1.e-10);
+              assertEquals(bermudan[k].get(greek), refBermudan.get(greek), Math.max(Math.abs(refBermudan.get(greek)), 1.) * 1.e-10);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   *
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void strikeDependentLatticeTest() {
+    new BinomialTreeVanillaOptionBatchPricer(new LeisenReimerLatticeSpecification(), STEPS);
+  }
+
+  /**
+   *
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongLengthTest() {
+    new BinomialTreeVanillaOptionBatchPricer(LATTICES[0], STEPS).getPrices(SPOT, 0.1, 0.01, DIVIDEND, TIME, STRIKES, new boolean[] {true }, true);
+  }
+
+  /**
+   *
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void negativeStrikeTest() {
+    new BinomialTreeVanillaOptionBatchPricer(LATTICES[0], STEPS).getPrices(SPOT, 0.1, 0.01, DIVIDEND, TIME, new double[] {-1. }, new boolean[] {true }, true);
+  }
+
+  /**
+   *
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void negativeVolTest() {
+    new BinomialTreeVanillaOptionBatchPricer(LATTICES[0], STEPS).getPrices(SPOT, -0.1, 0.01, DIVIDEND, TIME, STRIKES, IS_CALL, true);
+  }
+
+}
@@ -147,6 +147,88 @@ public class BlackFormulaRepositoryTest {
     }
   }
 
+  @Test
+  public void impliedVolatilitiesTest() {
+    final double[] expiries = new double[] {0.02, 0.5, TIME_TO_EXPIRY, 20.0 };
+    final int m = STRIKES_INPUT.length;
+    final int size = 2 * expiries.length * m * VOLS.length;
+    final double[] prices = new double[size];
+    final double[] forwards = new double[size];
+    final double[] strikes = new double[size];
+    final double[] times = new double[size];
+    final boolean[] isCall = new boolean[size];
+    final double[] vols = new double[size];
+    int k = 0;
+    for (final double t : expiries) {
+      for (int i = 0; i < m; i++) {
+        for (final double vol : VOLS) {
+          for (int c = 0; c < 2; c++) {
+            forwards[k] = FORWARD;
+            strikes[k] = STRIKES_INPUT[i];
+            times[k] = t;
+            isCall[k] = c == 0;
+            vols[k] = vol;
+            prices[k] = BlackFormulaRepository.price(FORWARD, STRIKES_INPUT[i], t, vol, isCall[k]);
+            k++;
+          }
+        }
+      }
+    }
+    final double[] impliedVols = new double[size];
+    final boolean[] failed = new boolean[size];
+    final int nFailed = BlackFormulaRepository.impliedVolatilities(prices, forwards, strikes, times, isCall, impliedVols, failed);
+    int expectedFailed = 0;
+    for (int i = 0; i < size; i++) {
+      double expected;
+      try {
+        expected = BlackFormulaRepository.impliedVolatility(prices[i], forwards[i], strikes[i], times[i], isCall[i]);
+      } catch (final IllegalArgumentException e) {
+        expected = Double.NaN; // price too small to be distinguished from the intrinsic value
+      }
+      if (Double.isNaN(expected)) {
+        expectedFailed++;
+        assertTrue(failed[i]);
+        assertTrue(Double.isNaN(impliedVols[i]));
+      } else {
+        assertTrue(!failed[i]);
+        assertEquals(expected, impliedVols[i], 1e-8);
+        final double otmPrice = prices[i] - Math.max(0, (isCall[i] ? 1 : -1) * (forwards[i] - strikes[i]));
+        if (otmPrice > 1e-8 * forwards[i]) {
+          assertEquals(vols[i], impliedVols[i], 1e-8);
+        }
+      }
+    }
+    assertEquals(expectedFailed, nFailed);
+  }
+
+  @Test
+  public void impliedVolatilitiesFailureTest() {
+    final double forward = 100;
+    final double strike = 110;
+    final double t = 1.0;
+    final double call = BlackFormulaRepository.price(forward, strike, t, 0.25, true);
+    final double[] prices = new double[] {call, -1.0, forward + 1, 5.0, call, Double.NaN };
+    final double[] forwards = new double[] {forward, forward, forward, forward, -forward, forward };
+    final double[] strikes = new double[] {strike, strike, strike, strike, strike, strike };
+    final double[] times = new double[] {t, t, t, t, t, t };
+    final boolean[] isCall = new boolean[] {true, true, true, false, true, true };
+    final double[] impliedVols = new double[prices.length];
+    final boolean[] failed = new boolean[prices.length];
+    // negative price, price above the forward, put below its intrinsic value, negative forward, NaN price
+    assertEquals(5, BlackFormulaRepository.impliedVolatilities(prices, forwards, strikes, times, isCall, impliedVols, failed));
+    assertEquals(0.25, impliedVols[0], 1e-12);
+    assertTrue(!failed[0]);
+    for (int i = 1; i < prices.length; i++) {
+      assertTrue(failed[i]);
+      assertTrue(Double.isNaN(impliedVols[i]));
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void impliedVolatilitiesLengthTest() {
+    BlackFormulaRepository.impliedVolatilities(new double[2], new double[2], new double[1], new double[2], new boolean[2], new double[2], new boolean[2]);
+  }
+
   @Test
   /**
    * Tests the strikes in a range of strikes, volatilities and call/put.
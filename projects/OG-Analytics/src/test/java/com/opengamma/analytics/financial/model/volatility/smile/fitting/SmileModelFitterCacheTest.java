@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.volatility.smile.fitting;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
+import com.opengamma.analytics.financial.model.volatility.smile.function.SABRFormulaData;
+import com.opengamma.analytics.financial.model.volatility.smile.function.SABRHaganVolatilityFunction;
+import com.opengamma.analytics.financial.model.volatility.smile.function.VolatilityFunctionProvider;
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.analytics.math.statistics.leastsquare.LeastSquareResultsWithTransform;
+
+/**
+ * Tests {@link SmileModelFitterCache}
+ */
+public class SmileModelFitterCacheTest {
+  private static final VolatilityFunctionProvider<SABRFormulaData> SABR = new SABRHaganVolatilityFunction();
+  private static final double[] STRIKES = new double[] {0.005, 0.01, 0.02, 0.03, 0.04, 0.05, 0.07 };
+  private static final double[] ERRORS = new double[STRIKES.length];
+  private static final DoubleMatrix1D START = new DoubleMatrix1D(0.1, 0.5, 0.0, 0.3);
+  private static final BitSet FIXED = new BitSet();
+
+  static {
+    Arrays.fill(ERRORS, 0.0001);
+    FIXED.set(1);
+  }
+
+  private static SABRModelFitter getFitter(final double forward, final double expiry, final double volShift) {
+    final SABRFormulaData data = new SABRFormulaData(0.05, 0.5, -0.3, 0.2);
+    final double[] vols = new double[STRIKES.length];
+    for (int i = 0; i < STRIKES.length; i++) {
+      vols[i] = SABR.getVolatilityFunction(new EuropeanVanillaOption(STRIKES[i], expiry, true), forward).evaluate(data) + volShift;
+    }
+    return new SABRModelFitter(forward, STRIKES, expiry, vols, ERRORS, SABR);
+  }
+
+  @Test
+  public void testSkipWithinTolerance() {
+    final SmileModelFitterCache<String> cache = new SmileModelFitterCache<>(1e-4, 1e-4);
+    final LeastSquareResultsWithTransform first = cache.solve("5Yx10Y", getFitter(0.03, 5.0, 0.0), START, FIXED);
+    assertEquals(1, cache.size());
+    assertSame(first, cache.solve("5Yx10Y", getFitter(0.03, 5.0, 5e-5), START, FIXED));
+    assertSame(first, cache.solve("5Yx10Y", getFitter(0.030001, 5.0, 0.0), START, FIXED));
+    assertNotSame(first, cache.solve("5Yx10Y", getFitter(0.03, 5.0, 2e-4), START, FIXED));
+    // the fixed parameters have changed
+    assertNotSame(first, cache.solve("5Yx10Y", getFitter(0.03, 5.0, 2e-4), new DoubleMatrix1D(0.1, 0.6, 0.0, 0.3), FIXED));
+  }
+
+  @Test
+  public void testWarmStart() {
+    final SmileModelFitterCache<String> cache = new SmileModelFitterCache<>(0, 0);
+    cache.solve("5Yx10Y", getFitter(0.03, 5.0, 0.0), START, FIXED);
+    final SABRModelFitter moved = getFitter(0.031, 5.0, 0.001);
+    final LeastSquareResultsWithTransform warm = cache.solve("5Yx10Y", moved, START, FIXED);
+    final LeastSquareResultsWithTransform cold = moved.solve(START, FIXED);
+    assertEquals(cold.getChiSq(), warm.getChiSq(), 1e-6);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(cold.getModelParameters().getEntry(i), warm.getModelParameters().getEntry(i), 1e-5);
+    }
+    assertEquals(0.5, warm.getModelParameters().getEntry(1), 0);
+    cache.remove("5Yx10Y");
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testParallelBatch() {
+    final Map<String, SABRModelFitter> fitters = new LinkedHashMap<>();
+    for (int i = 1; i <= 6; i++) {
+      fitters.put(i + "Y", getFitter(0.02 + 0.002 * i, i, 0.0));
+    }
+    final ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      final Map<String, LeastSquareResultsWithTransform> parallel = new SmileModelFitterCache<String>(1e-4, 1e-4, pool).solve(fitters, START, FIXED);
+      final Map<String, LeastSquareResultsWithTransform> sequential = new SmileModelFitterCache<String>(1e-4, 1e-4).solve(fitters, START, FIXED);
+      assertEquals(fitters.keySet().toString(), parallel.keySet().toString());
+      for (final String key : fitters.keySet()) {
+        assertEquals(sequential.get(key).getModelParameters(), parallel.get(key).getModelParameters());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.calculator.discounting;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.threeten.bp.Period;
+import org.threeten.bp.ZonedDateTime;
+
+import com.opengamma.analytics.financial.instrument.cash.CashDefinition;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIbor;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIborMaster;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedON;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedONMaster;
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedONDefinition;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountAddZeroSpreadCurve;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldCurve;
+import com.opengamma.analytics.financial.provider.description.MulticurveProviderDiscountDataSets;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.math.curve.ConstantDoublesCurve;
+import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.money.MultipleCurrencyAmount;
+import com.opengamma.util.time.DateUtils;
+
+/**
+ * Tests {@link CompiledCashFlowPortfolio} against the {@link PresentValueDiscountingCalculator}.
+ */
+public class CompiledCashFlowPortfolioTest {
+
+  private static final MulticurveProviderDiscount MULTICURVES = MulticurveProviderDiscountDataSets.createMulticurveEurUsd();
+  private static final IborIndex[] INDEX_LIST = MulticurveProviderDiscountDataSets.getIndexesIborMulticurveEurUsd();
+  private static final IborIndex EURIBOR6M = INDEX_LIST[1];
+  private static final IborIndex USDLIBOR3M = INDEX_LIST[2];
+  private static final Currency EUR = Currency.EUR;
+  private static final Currency USD = Currency.USD;
+  private static final Calendar EUR_CALENDAR = MulticurveProviderDiscountDataSets.getEURCalendar();
+  private static final Calendar USD_CALENDAR = MulticurveProviderDiscountDataSets.getUSDCalendar();
+  private static final GeneratorSwapFixedIbor EUR1YEURIBOR6M = GeneratorSwapFixedIborMaster.getInstance().getGenerator("EUR1YEURIBOR6M", EUR_CALENDAR);
+  private static final GeneratorSwapFixedIbor USD6MLIBOR3M = GeneratorSwapFixedIborMaster.getInstance().getGenerator("USD6MLIBOR3M", USD_CALENDAR);
+  private static final GeneratorSwapFixedON EUR1YEONIA = GeneratorSwapFixedONMaster.getInstance().getGenerator("EUR1YEONIA", EUR_CALENDAR);
+
+  private static final ZonedDateTime REFERENCE_DATE = DateUtils.getUTCDate(2012, 11, 5);
+  private static final ZonedDateTime SETTLEMENT_DATE = DateUtils.getUTCDate(2012, 11, 7);
+  private static final double NOTIONAL = 100000000.0;
+  private static final InstrumentDerivative[] PORTFOLIO;
+  static {
+    final List<InstrumentDerivative> portfolio = new ArrayList<>();
+    for (int loopyear = 1; loopyear <= 10; loopyear++) {
+      final Period tenor = Period.ofYears(loopyear);
+      final boolean isPayer = loopyear % 2 == 0;
+      portfolio.add(SwapFixedIborDefinition.from(SETTLEMENT_DATE, tenor, EUR1YEURIBOR6M, NOTIONAL, 0.02, isPayer).toDerivative(REFERENCE_DATE));
+      portfolio.add(SwapFixedIborDefinition.from(SETTLEMENT_DATE, tenor, USD6MLIBOR3M, NOTIONAL, 0.015, !isPayer).toDerivative(REFERENCE_DATE));
+      portfolio.add(SwapFixedONDefinition.from(SETTLEMENT_DATE, tenor, NOTIONAL, EUR1YEONIA, 0.01, isPayer).toDerivative(REFERENCE_DATE));
+    }
+    portfolio.add(new CashDefinition(EUR, SETTLEMENT_DATE, DateUtils.getUTCDate(2013, 2, 7), NOTIONAL, 0.01, 0.25).toDerivative(REFERENCE_DATE));
+    PORTFOLIO = portfolio.toArray(new InstrumentDerivative[portfolio.size()]);
+  }
+
+  private static final PresentValueDiscountingCalculator PVDC = PresentValueDiscountingCalculator.getInstance();
+  private static final double TOLERANCE_PV = 1.0E-4;
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  private static MultipleCurrencyAmount presentValueCalculator(final MulticurveProviderDiscount multicurve) {
+    MultipleCurrencyAmount pv = PORTFOLIO[0].accept(PVDC, multicurve);
+    for (int loopins = 1; loopins < PORTFOLIO.length; loopins++) {
+      pv = pv.plus(PORTFOLIO[loopins].accept(PVDC, multicurve));
+    }
+    return pv;
+  }
+
+  private static MulticurveProviderDiscount[] scenarios(final int nbScenario) {
+    final MulticurveProviderDiscount[] scenarios = new MulticurveProviderDiscount[nbScenario];
+    for (int loopsc = 0; loopsc < nbScenario; loopsc++) {
+      final double shift = (loopsc - nbScenario / 2) * 1.0E-4;
+      final YieldCurve spread = YieldCurve.from(ConstantDoublesCurve.from(shift));
+      scenarios[loopsc] = MULTICURVES.copy();
+      scenarios[loopsc].getFxRates().addCurrency(EUR, USD, 1.30 + shift);
+      scenarios[loopsc].replaceCurve(EUR, new YieldAndDiscountAddZeroSpreadCurve("EUR Dsc", false, MULTICURVES.getCurve(EUR), spread));
+      scenarios[loopsc].replaceCurve(EURIBOR6M, new YieldAndDiscountAddZeroSpreadCurve("EUR 6M", false, MULTICURVES.getCurve(EURIBOR6M), spread));
+      scenarios[loopsc].replaceCurve(USDLIBOR3M, new YieldAndDiscountAddZeroSpreadCurve("USD 3M", true, MULTICURVES.getCurve(USDLIBOR3M), spread));
+    }
+    return scenarios;
+  }
+
+  @Test
+  public void compile() {
+    final CompiledCashFlowPortfolio compiled = CompiledCashFlowPortfolio.of(PORTFOLIO);
+    assertEquals("CompiledCashFlowPortfolio: compiled instruments", PORTFOLIO.length - 1, compiled.getNumberOfCompiledInstruments());
+    assertEquals("CompiledCashFlowPortfolio: residual instruments", 1, compiled.getResiduals().size());
+    assertEquals("CompiledCashFlowPortfolio: residual instruments", PORTFOLIO[PORTFOLIO.length - 1], compiled.getResiduals().get(0));
+  }
+
+  @Test
+  public void presentValue() {
+    final CompiledCashFlowPortfolio compiled = CompiledCashFlowPortfolio.of(PORTFOLIO);
+    final MultipleCurrencyAmount pvExpected = presentValueCalculator(MULTICURVES);
+    final MultipleCurrencyAmount pvComputed = compiled.presentValue(MULTICURVES);
+    assertEquals("CompiledCashFlowPortfolio: present value", pvExpected.getAmount(EUR), pvComputed.getAmount(EUR), TOLERANCE_PV);
+    assertEquals("CompiledCashFlowPortfolio: present value", pvExpected.getAmount(USD), pvComputed.getAmount(USD), TOLERANCE_PV);
+  }
+
+  @Test
+  public void presentValueEachInstrument() {
+    for (final InstrumentDerivative instrument : PORTFOLIO) {
+      final MultipleCurrencyAmount pvExpected = instrument.accept(PVDC, MULTICURVES);
+      final MultipleCurrencyAmount pvComputed = CompiledCashFlowPortfolio.of(instrument).presentValue(MULTICURVES);
+      assertEquals("CompiledCashFlowPortfolio: present value", pvExpected.size(), pvComputed.size());
+      final Currency ccy = pvExpected.getCurrencyAmounts()[0].getCurrency();
+      assertEquals("CompiledCashFlowPortfolio: present value", pvExpected.getAmount(ccy), pvComputed.getAmount(ccy), TOLERANCE_PV);
+    }
+  }
+
+  @Test
+  public void presentValueScenarios() {
+    final CompiledCashFlowPortfolio compiled = CompiledCashFlowPortfolio.of(PORTFOLIO);
+    final MulticurveProviderDiscount[] scenarios = scenarios(11);
+    final MultipleCurrencyAmount[] pvSequential = compiled.presentValue(scenarios, null);
+    final MultipleCurrencyAmount[] pvParallel = compiled.presentValue(scenarios, POOL);
+    final double[] pvUsd = compiled.presentValue(scenarios, USD, null);
+    for (int loopsc = 0; loopsc < scenarios.length; loopsc++) {
+      final MultipleCurrencyAmount pvExpected = presentValueCalculator(scenarios[loopsc]);
+      assertEquals("CompiledCashFlowPortfolio: scenario " + loopsc, pvExpected.getAmount(EUR), pvSequential[loopsc].getAmount(EUR), TOLERANCE_PV);
+      assertEquals("CompiledCashFlowPortfolio: scenario " + loopsc, pvExpected.getAmount(USD), pvSequential[loopsc].getAmount(USD), TOLERANCE_PV);
+      assertEquals("CompiledCashFlowPortfolio: scenario " + loopsc, pvSequential[loopsc], pvParallel[loopsc]);
+      assertEquals("CompiledCashFlowPortfolio: scenario " + loopsc, scenarios[loopsc].getFxRates().convert(pvExpected, USD).getAmount(), pvUsd[loopsc], TOLERANCE_PV);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    POOL.shutdown();
+  }
+
+}
@@ -6,6 +6,8 @@
 package com.opengamma.analytics.financial.schedule;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
 import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
 
 import org.testng.annotations.Test;
@@ -24,6 +26,7 @@ import com.opengamma.financial.convention.businessday.FollowingBusinessDayConven
 import com.opengamma.financial.convention.businessday.ModifiedFollowingBusinessDayConvention;
 import com.opengamma.financial.convention.businessday.PrecedingBusinessDayConvention;
 import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.CompiledCalendar;
 import com.opengamma.financial.convention.calendar.MondayToFridayCalendar;
 import com.opengamma.financial.convention.daycount.DayCount;
 import com.opengamma.financial.convention.daycount.DayCountFactory;
@@ -614,6 +617,63 @@ public class ScheduleCalculatorTest {
     }
   }
 
+  @Test
+  /**
+   * Tests that the interned schedules are equal to the generated ones and are copied for each caller.
+   */
+  public void internedSchedules() {
+    ScheduleCalculator.clearInternedSchedules();
+    final ZonedDateTime endDate = SETTLEMENT_DATE.plus(ANNUITY_TENOR);
+    final ZonedDateTime[] unadjusted = ScheduleCalculator.getUnadjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false);
+    final ZonedDateTime[] adjusted = ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false, MOD_FOL, CALENDAR, IS_EOM);
+    final ZonedDateTime[] forward = ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, MOD_FOL, CALENDAR, IS_EOM, SHORT_STUB);
+    final ZonedDateTime[] unadjustedCopy = unadjusted.clone();
+    unadjusted[0] = null;
+    adjusted[0] = null;
+    forward[0] = null;
+    final ZonedDateTime[] unadjustedInterned = ScheduleCalculator.getUnadjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false);
+    assertNotSame(unadjusted, unadjustedInterned);
+    assertArrayEquals(unadjustedCopy, unadjustedInterned);
+    final ZonedDateTime[] adjustedInterned = ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false, MOD_FOL, CALENDAR, IS_EOM);
+    final ZonedDateTime[] forwardInterned = ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, MOD_FOL, CALENDAR, IS_EOM, SHORT_STUB);
+    ScheduleCalculator.clearInternedSchedules();
+    assertArrayEquals(ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false, MOD_FOL, CALENDAR, IS_EOM), adjustedInterned);
+    assertArrayEquals(ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, MOD_FOL, CALENDAR, IS_EOM, SHORT_STUB), forwardInterned);
+  }
+
+  @Test
+  /**
+   * Tests that the schedules are only interned for compiled calendars, which are not modified.
+   */
+  public void internedSchedulesCalendars() {
+    final ZonedDateTime endDate = SETTLEMENT_DATE.plus(ANNUITY_TENOR);
+    final Calendar compiled = new CompiledCalendar(CALENDAR, 2000, 2030);
+    final ZonedDateTime[] interned = ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false, MOD_FOL, compiled, IS_EOM);
+    assertSame(interned[0], ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false,
+        BusinessDayConventionFactory.INSTANCE.getBusinessDayConvention("Modified Following"), compiled, IS_EOM)[0]);
+    assertNotSame(interned[0], ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false, MOD_FOL,
+        new CompiledCalendar(CALENDAR, 2000, 2030), IS_EOM)[0]);
+    final ModifiableCalendar modifiable = new ModifiableCalendar();
+    final ZonedDateTime[] adjusted = ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false, MOD_FOL, modifiable, IS_EOM);
+    final ZonedDateTime[] forward = ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, MOD_FOL, modifiable, IS_EOM, SHORT_STUB);
+    modifiable.addNonWorkingDay(adjusted[0].toLocalDate());
+    assertEquals(adjusted[0].plusDays(1), ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, SHORT_STUB, false, MOD_FOL, modifiable, IS_EOM)[0]);
+    assertEquals(forward[0].plusDays(1), ScheduleCalculator.getAdjustedDateSchedule(SETTLEMENT_DATE, endDate, PAYMENT_TENOR, MOD_FOL, modifiable, IS_EOM, SHORT_STUB)[0]);
+  }
+
+  private static class ModifiableCalendar extends MondayToFridayCalendar {
+    private static final long serialVersionUID = 1L;
+
+    ModifiableCalendar() {
+      super("Modifiable");
+    }
+
+    @Override
+    public void addNonWorkingDay(final LocalDate date) {
+      super.addNonWorkingDay(date);
+    }
+  }
+
   private static class WeekendCalendar implements Calendar {
 
     @Override
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.var;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.math.function.Function1D;
+
+/**
+ * Tests {@link HistoricalSimulationVaRCalculator}.
+ */
+public class HistoricalSimulationVaRCalculatorTest {
+  private static final EmpiricalDistributionVaRParameters PARAMETERS = new EmpiricalDistributionVaRParameters(1, 1, 0.99);
+  private static final double[] PNL = new double[1000];
+  static {
+    final Random random = new Random(54321);
+    for (int i = 0; i < PNL.length; i++) {
+      PNL[i] = 1000000 * random.nextGaussian();
+    }
+  }
+  private static final Function1D<Integer, Double> PNL_FUNCTION = new Function1D<Integer, Double>() {
+    @Override
+    public Double evaluate(final Integer scenario) {
+      return PNL[scenario];
+    }
+  };
+  private static final double EPS = 1e-7;
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNullParameters() {
+    new HistoricalSimulationVaRCalculator(null).evaluate(null, PNL.length, PNL_FUNCTION);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNullFunction() {
+    new HistoricalSimulationVaRCalculator(null).evaluate(PARAMETERS, PNL.length, null);
+  }
+
+  @Test
+  public void testParallel() {
+    final HistoricalVaRCalculationResult sequential = new HistoricalSimulationVaRCalculator(null).evaluate(PARAMETERS, PNL.length, PNL_FUNCTION);
+    final HistoricalVaRCalculationResult parallel = new HistoricalSimulationVaRCalculator(POOL).evaluate(PARAMETERS, PNL.length, PNL_FUNCTION);
+    final HistoricalVaREstimator estimator = new HistoricalVaREstimator(PARAMETERS, PNL.length);
+    for (final double pnl : PNL) {
+      estimator.add(pnl);
+    }
+    final HistoricalVaRCalculationResult expected = estimator.getResult();
+    assertEquals("HistoricalSimulationVaRCalculator: VaR", expected.getVaRValue(), sequential.getVaRValue(), EPS);
+    assertEquals("HistoricalSimulationVaRCalculator: VaR", expected.getVaRValue(), parallel.getVaRValue(), EPS);
+    assertEquals("HistoricalSimulationVaRCalculator: expected shortfall", expected.getExpectedShortfall(), parallel.getExpectedShortfall(), EPS);
+    assertEquals("HistoricalSimulationVaRCalculator: standard deviation", expected.getStdDev(), parallel.getStdDev(), EPS);
+    assertEquals("HistoricalSimulationVaRCalculator: scenarios", PNL.length, parallel.getNumberOfScenarios());
+  }
+
+  @AfterClass
+  public void tearDown() {
+    POOL.shutdown();
+  }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.var;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.timeseries.precise.instant.ImmutableInstantDoubleTimeSeries;
+
+/**
+ * Tests {@link HistoricalVaREstimator} against the {@link EmpiricalDistributionVaRCalculator}.
+ */
+public class HistoricalVaREstimatorTest {
+  private static final double HORIZON = 10;
+  private static final double PERIODS = 250;
+  private static final EmpiricalDistributionVaRCalculator CALCULATOR = new EmpiricalDistributionVaRCalculator();
+  private static final double[] PNL = new double[500];
+  static {
+    final Random random = new Random(12345);
+    for (int i = 0; i < PNL.length; i++) {
+      PNL[i] = 1000000 * random.nextGaussian();
+    }
+  }
+  private static final double EPS = 1e-7;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNullParameters() {
+    new HistoricalVaREstimator(null, 10);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testTooManyScenarios() {
+    final HistoricalVaREstimator estimator = new HistoricalVaREstimator(new EmpiricalDistributionVaRParameters(HORIZON, PERIODS, 0.99), 1);
+    estimator.add(1);
+    estimator.add(2);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testMissingScenarios() {
+    final HistoricalVaREstimator estimator = new HistoricalVaREstimator(new EmpiricalDistributionVaRParameters(HORIZON, PERIODS, 0.99), 2);
+    estimator.add(1);
+    estimator.getResult();
+  }
+
+  @Test
+  public void testVaR() {
+    for (final double quantile : new double[] {0.5, 0.9, 0.95, 0.99, 0.999 }) {
+      for (final int n : new int[] {1, 2, 10, 99, PNL.length }) {
+        final double[] pnl = new double[n];
+        System.arraycopy(PNL, 0, pnl, 0, n);
+        final EmpiricalDistributionVaRParameters parameters = new EmpiricalDistributionVaRParameters(HORIZON, PERIODS, quantile);
+        final HistoricalVaREstimator estimator = new HistoricalVaREstimator(parameters, n);
+        for (final double value : pnl) {
+          estimator.add(value);
+        }
+        final double expected = CALCULATOR.evaluate(parameters, timeSeries(pnl)).getVaRValue();
+        final HistoricalVaRCalculationResult result = estimator.getResult();
+        assertEquals("HistoricalVaREstimator: VaR", expected, result.getVaRValue(), EPS);
+        assertEquals("HistoricalVaREstimator: scenarios", n, result.getNumberOfScenarios());
+      }
+    }
+  }
+
+  @Test
+  public void testExpectedShortfallAndStdDev() {
+    final EmpiricalDistributionVaRParameters parameters = new EmpiricalDistributionVaRParameters(HORIZON, PERIODS, 0.95);
+    final HistoricalVaREstimator estimator = new HistoricalVaREstimator(parameters, PNL.length);
+    double mean = 0;
+    for (final double value : PNL) {
+      estimator.add(value);
+      mean += value / PNL.length;
+    }
+    final HistoricalVaRCalculationResult result = estimator.getResult();
+    final double quantile = -result.getVaRValue() / parameters.getMult();
+    double sum = 0;
+    int count = 0;
+    double variance = 0;
+    for (final double value : PNL) {
+      if (value < quantile) {
+        sum += value;
+        count++;
+      }
+      variance += (value - mean) * (value - mean) / (PNL.length - 1);
+    }
+    assertEquals("HistoricalVaREstimator: expected shortfall", -parameters.getMult() * sum / count, result.getExpectedShortfall(), EPS);
+    assertEquals("HistoricalVaREstimator: standard deviation", parameters.getMult() * Math.sqrt(variance), result.getStdDev(), EPS);
+  }
+
+  @Test
+  public void testAddAll() {
+    final EmpiricalDistributionVaRParameters parameters = new EmpiricalDistributionVaRParameters(HORIZON, PERIODS, 0.99);
+    final HistoricalVaREstimator estimator = new HistoricalVaREstimator(parameters, PNL.length);
+    final HistoricalVaREstimator[] blocks = new HistoricalVaREstimator[3];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = new HistoricalVaREstimator(parameters, PNL.length);
+    }
+    for (int i = 0; i < PNL.length; i++) {
+      estimator.add(PNL[i]);
+      blocks[i % blocks.length].add(PNL[i]);
+    }
+    final HistoricalVaREstimator combined = new HistoricalVaREstimator(parameters, PNL.length);
+    for (final HistoricalVaREstimator block : blocks) {
+      combined.addAll(block);
+    }
+    final HistoricalVaRCalculationResult expected = estimator.getResult();
+    final HistoricalVaRCalculationResult result = combined.getResult();
+    assertEquals("HistoricalVaREstimator: VaR", expected.getVaRValue(), result.getVaRValue(), EPS);
+    assertEquals("HistoricalVaREstimator: expected shortfall", expected.getExpectedShortfall(), result.getExpectedShortfall(), EPS);
+    assertEquals("HistoricalVaREstimator: standard deviation", expected.getStdDev(), result.getStdDev(), EPS);
+  }
+
+  private static ImmutableInstantDoubleTimeSeries timeSeries(final double[] pnl) {
+    final long[] t = new long[pnl.length];
+    for (int i = 0; i < t.length; i++) {
+      t[i] = i;
+    }
+    return ImmutableInstantDoubleTimeSeries.of(t, pnl);
+  }
+
+}
@@ -95,4 +95,18 @@ public class FunctionUtilsTest {
     final int[] dimensions = new int[] {5, 7, 3};
     toTensorIndex(indices, dimensions);
   }
+
+  @Test
+  public void testLowerBoundIndices() {
+    final double[] set = new double[] {1, 2, 3, 5, 8, 13};
+    final double[] sorted = new double[] {0, 1, 1.5, 2, 2, 4.9, 8, 13, 14};
+    final double[] unsorted = new double[] {14, 2, 0, 4.9, 13, 1, 8, 1.5, 2};
+    for (final double[] values : new double[][] {sorted, unsorted }) {
+      final int[] indices = FunctionUtils.getLowerBoundIndices(set, values);
+      assertEquals(values.length, indices.length);
+      for (int i = 0; i < values.length; i++) {
+        assertEquals(FunctionUtils.getLowerBoundIndex(set, values[i]), indices[i]);
+      }
+    }
+  }
 }
@@ -242,4 +242,19 @@ public class InterpolatedDoublesCurveTest extends DoublesCurveTestCase {
     }
   }
 
+  @Test
+  public void testGetYValues() {
+    final InterpolatedDoublesCurve curve = InterpolatedDoublesCurve.from(MAP, LINEAR, NAME1);
+    final double[] x = new double[] {5.5, 0, 2.5, 3, 0.1, 5 };
+    final double[] y = curve.getYValues(x);
+    final double[][] sensitivities = curve.getYValueParameterSensitivities(x);
+    for (int i = 0; i < x.length; i++) {
+      assertEquals(curve.getYValue(x[i]), y[i], EPS);
+      final Double[] sensitivity = curve.getYValueParameterSensitivity(x[i]);
+      for (int j = 0; j < sensitivity.length; j++) {
+        assertEquals(sensitivity[j], sensitivities[i][j], EPS);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.interpolation;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
+
+/**
+ * Tests the evaluation of {@link Interpolator1D} on arrays of values against the evaluation value by value.
+ */
+public class Interpolator1DValuesTest {
+  private static final double[] X = new double[] {0.25, 0.5, 1, 2, 3, 5, 7, 10, 20, 30 };
+  private static final double[] Y = new double[] {0.010, 0.012, 0.014, 0.017, 0.019, 0.022, 0.024, 0.026, 0.028, 0.027 };
+  private static final double[] SORTED = new double[41];
+  private static final double[] UNSORTED = new double[41];
+  static {
+    for (int i = 0; i < SORTED.length; i++) {
+      SORTED[i] = 0.25 + i * 29.75 / (SORTED.length - 1);
+      UNSORTED[i] = 0.25 + ((i * 17) % SORTED.length) * 29.75 / (SORTED.length - 1);
+    }
+  }
+  private static final double[] EXTRAPOLATED = new double[] {35, 0.1, 5, 40, 0, 2.5, 30 };
+  private static final Interpolator1D[] INTERPOLATORS = new Interpolator1D[] {new LinearInterpolator1D(), new LogLinearInterpolator1D(),
+    new NaturalCubicSplineInterpolator1D(), new MonotoneConvexSplineInterpolator1D(), new StepInterpolator1D(), new DoubleQuadraticInterpolator1D() };
+  private static final double TOLERANCE = 1.0E-14;
+
+  @Test
+  public void interpolateValues() {
+    for (final Interpolator1D interpolator : INTERPOLATORS) {
+      final Interpolator1DDataBundle data = interpolator.getDataBundleFromSortedArrays(X, Y);
+      for (final double[] values : new double[][] {SORTED, UNSORTED, X }) {
+        assertValues(interpolator, data, values);
+      }
+    }
+  }
+
+  @Test
+  public void nodeSensitivities() {
+    for (final Interpolator1D interpolator : INTERPOLATORS) {
+      final Interpolator1DDataBundle data = interpolator.getDataBundleFromSortedArrays(X, Y);
+      for (final double[] values : new double[][] {SORTED, UNSORTED, X }) {
+        assertSensitivities(interpolator, data, values);
+      }
+    }
+  }
+
+  @Test
+  public void extrapolation() {
+    for (final Interpolator1D interpolator : INTERPOLATORS) {
+      final Interpolator1D combined = new CombinedInterpolatorExtrapolator(interpolator, new FlatExtrapolator1D(), new LinearExtrapolator1D(interpolator));
+      final Interpolator1DDataBundle data = combined.getDataBundleFromSortedArrays(X, Y);
+      assertValues(combined, data, EXTRAPOLATED);
+      assertValues(combined, data, SORTED);
+      assertSensitivities(combined, data, EXTRAPOLATED);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void outOfRange() {
+    final Interpolator1D interpolator = new LinearInterpolator1D();
+    interpolator.interpolateValues(interpolator.getDataBundleFromSortedArrays(X, Y), EXTRAPOLATED);
+  }
+
+  private static void assertValues(final Interpolator1D interpolator, final Interpolator1DDataBundle data, final double[] values) {
+    final double[] computed = interpolator.interpolateValues(data, values);
+    assertEquals("Interpolator1D: values", values.length, computed.length);
+    for (int i = 0; i < values.length; i++) {
+      assertEquals("Interpolator1D: value " + interpolator + " " + values[i], interpolator.interpolate(data, values[i]), computed[i], TOLERANCE);
+    }
+  }
+
+  private static void assertSensitivities(final Interpolator1D interpolator, final Interpolator1DDataBundle data, final double[] values) {
+    final double[][] computed = interpolator.getNodeSensitivitiesForValues(data, values);
+    assertEquals("Interpolator1D: sensitivities", values.length, computed.length);
+    for (int i = 0; i < values.length; i++) {
+      final double[] expected = interpolator.getNodeSensitivitiesForValue(data, values[i]);
+      assertEquals("Interpolator1D: sensitivities", expected.length, computed[i].length);
+      for (int j = 0; j < expected.length; j++) {
+        assertEquals("Interpolator1D: sensitivity " + interpolator + " " + values[i], expected[j], computed[i][j], TOLERANCE);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+import org.testng.internal.junit.ArrayAsserts;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.matrix.MatrixAlgebra;
+import com.opengamma.analytics.math.matrix.OGMatrixAlgebra;
+
+/**
+ * Tests the LU decomposition OpenGamma implementation.
+ */
+public class LUDecompositionOpenGammaTest {
+  private static final MatrixAlgebra ALGEBRA = new OGMatrixAlgebra();
+  private static final Decomposition<LUDecompositionResult> LU = new LUDecompositionOpenGamma();
+  private static final Decomposition<LUDecompositionResult> LU_COMMONS = new LUDecompositionCommons();
+  private static final DoubleMatrix2D A = new DoubleMatrix2D(new double[][] {new double[] {1, 2, -1}, new double[] {4, 3, 1}, new double[] {2, 2, 3}});
+  private static final DoubleMatrix2D A5 = new DoubleMatrix2D(new double[][] {new double[] {1.0, 2.0, -1.0, 1.0, 1.0}, new double[] {2.0, 5.0, -2.0, 0.5, 0.5},
+    new double[] {-1.0, -2.0, 15.0, 1.0, 0.5}, new double[] {1.0, 0.5, 1.0, 10.0, -1.0}, new double[] {8.0, 0.5, 0.5, -1.0, 2.0}});
+  private static final double EPS = 1e-9;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNullObjectMatrix() {
+    LU.evaluate((DoubleMatrix2D) null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testSingular() {
+    LU.evaluate(new DoubleMatrix2D(new double[][] {new double[] {1, 2}, new double[] {2, 4}}));
+  }
+
+  @Test
+  public void testRecoverOrginal() {
+    final LUDecompositionResult lu = LU.evaluate(A);
+    final DoubleMatrix2D a = (DoubleMatrix2D) ALGEBRA.multiply(lu.getL(), lu.getU());
+    checkEquals((DoubleMatrix2D) ALGEBRA.multiply(lu.getP(), A), a);
+  }
+
+  @Test
+  public void compareCommons() {
+    final LUDecompositionResult lu = LU.evaluate(A5);
+    final LUDecompositionResult luCommons = LU_COMMONS.evaluate(A5);
+    checkEquals(luCommons.getL(), lu.getL());
+    checkEquals(luCommons.getU(), lu.getU());
+    checkEquals(luCommons.getP(), lu.getP());
+    ArrayAsserts.assertArrayEquals(luCommons.getPivot(), lu.getPivot());
+    assertEquals(luCommons.getDeterminant(), lu.getDeterminant(), EPS * Math.abs(luCommons.getDeterminant()));
+    final double[] b = new double[] {1.0, 2.0, 3.0, 4.0, -1.0};
+    ArrayAsserts.assertArrayEquals(luCommons.solve(b), lu.solve(b), EPS);
+    final DoubleMatrix2D bMatrix = new DoubleMatrix2D(new double[][] { {1.0, 2.0}, {2.0, 3.0}, {3.0, 4.0}, {4.0, -2.0}, {-1.0, -1.0}});
+    checkEquals(luCommons.solve(bMatrix), lu.solve(bMatrix));
+  }
+
+  private void checkEquals(final DoubleMatrix2D x, final DoubleMatrix2D y) {
+    final int n = x.getNumberOfRows();
+    final int m = x.getNumberOfColumns();
+    assertEquals(n, y.getNumberOfRows());
+    assertEquals(m, y.getNumberOfColumns());
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < m; j++) {
+        assertEquals(x.getEntry(i, j), y.getEntry(i, j), EPS);
+      }
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+import org.testng.internal.junit.ArrayAsserts;
+
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.matrix.MatrixAlgebra;
+import com.opengamma.analytics.math.matrix.OGMatrixAlgebra;
+
+/**
+ * Tests the QR decomposition OpenGamma implementation.
+ */
+public class QRDecompositionOpenGammaTest {
+  private static final MatrixAlgebra ALGEBRA = new OGMatrixAlgebra();
+  private static final Decomposition<QRDecompositionResult> QR = new QRDecompositionOpenGamma();
+  private static final Decomposition<QRDecompositionResult> QR_COMMONS = new QRDecompositionCommons();
+  private static final DoubleMatrix2D A = new DoubleMatrix2D(new double[][] {new double[] {1, 2, 3}, new double[] {4, 5, 6}, new double[] {7, 8, 9}});
+  /** More rows than columns: least-squares problem */
+  private static final DoubleMatrix2D B = new DoubleMatrix2D(new double[][] {new double[] {1, 2, 3}, new double[] {4, -5, 6}, new double[] {7, 8, 10}, new double[] {-1, 0.5, 2},
+    new double[] {0.2, 1, -3}});
+  private static final double EPS = 1e-9;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNullObjectMatrix() {
+    QR.evaluate((DoubleMatrix2D) null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testSolveSingular() {
+    QR.evaluate(new DoubleMatrix2D(new double[][] {new double[] {1, 2}, new double[] {0, 0}})).solve(new double[] {1, 1});
+  }
+
+  @Test
+  public void testRecoverOrginal() {
+    final QRDecompositionResult qr = QR.evaluate(A);
+    checkEquals(A, (DoubleMatrix2D) ALGEBRA.multiply(qr.getQ(), qr.getR()));
+    final QRDecompositionResult qrB = QR.evaluate(B);
+    checkEquals(B, (DoubleMatrix2D) ALGEBRA.multiply(qrB.getQ(), qrB.getR()));
+  }
+
+  @Test
+  public void compareCommons() {
+    final QRDecompositionResult qr = QR.evaluate(B);
+    final QRDecompositionResult qrCommons = QR_COMMONS.evaluate(B);
+    checkEquals(qrCommons.getQ(), qr.getQ());
+    checkEquals(qrCommons.getQT(), qr.getQT());
+    checkEquals(qrCommons.getR(), qr.getR());
+    checkEquals(qrCommons.getH(), qr.getH());
+    final double[] b = new double[] {1.0, 2.0, 3.0, 4.0, -1.0};
+    ArrayAsserts.assertArrayEquals(qrCommons.solve(b), qr.solve(b), EPS);
+    final DoubleMatrix2D bMatrix = new DoubleMatrix2D(new double[][] { {1.0, 2.0}, {2.0, 3.0}, {3.0, 4.0}, {4.0, -2.0}, {-1.0, -1.0}});
+    checkEquals(qrCommons.solve(bMatrix), qr.solve(bMatrix));
+  }
+
+  private void checkEquals(final DoubleMatrix2D x, final DoubleMatrix2D y) {
+    final int n = x.getNumberOfRows();
+    final int m = x.getNumberOfColumns();
+    assertEquals(n, y.getNumberOfRows());
+    assertEquals(m, y.getNumberOfColumns());
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < m; j++) {
+        assertEquals(x.getEntry(i, j), y.getEntry(i, j), EPS);
+      }
+    }
+  }
+}
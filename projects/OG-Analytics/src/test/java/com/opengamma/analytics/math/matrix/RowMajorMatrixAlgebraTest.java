@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.matrix;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+
+import org.testng.annotations.Test;
+import org.testng.internal.junit.ArrayAsserts;
+
+import cern.jet.random.engine.MersenneTwister;
+
+import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
+import com.opengamma.analytics.math.statistics.distribution.ProbabilityDistribution;
+
+/**
+ * Tests the row-major matrix algebra against the Colt implementation.
+ */
+public class RowMajorMatrixAlgebraTest {
+  private static final ProbabilityDistribution<Double> RANDOM = new NormalDistribution(0, 1, new MersenneTwister(MersenneTwister.DEFAULT_SEED));
+  private static final MatrixAlgebra ALGEBRA = MatrixAlgebraFactory.getMatrixAlgebra(MatrixAlgebraFactory.ROW_MAJOR);
+  private static final MatrixAlgebra COLT = MatrixAlgebraFactory.COLT_ALGEBRA;
+  private static final DoubleMatrix2D A = new DoubleMatrix2D(new double[][] { {1., 2., 3. }, {-1., 1., 0. }, {-2., 1., -2. } });
+  private static final DoubleMatrix2D B = new DoubleMatrix2D(new double[][] { {1, 1 }, {2, -2 }, {3, 1 } });
+  private static final DoubleMatrix1D E = new DoubleMatrix1D(new double[] {-1, 2, 3 });
+  private static final double EPS = 1e-10;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testMatrixSizeMismatch() {
+    ALGEBRA.multiply(B, A);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testSingularInverse() {
+    ALGEBRA.getInverse(new DoubleMatrix2D(new double[][] { {1, 2 }, {2, 4 } }));
+  }
+
+  @Test
+  public void testMultiply() {
+    checkEquals(COLT.multiply(A, B), ALGEBRA.multiply(A, B));
+    checkEquals(COLT.multiply(E, A), ALGEBRA.multiply(E, A));
+    checkEquals(COLT.multiply(A, E), ALGEBRA.multiply(A, E));
+    // larger than the block size
+    final DoubleMatrix2D x = randomMatrix(150, 70);
+    final DoubleMatrix2D y = randomMatrix(70, 130);
+    checkEquals(COLT.multiply(x, y), ALGEBRA.multiply(x, y));
+  }
+
+  @Test
+  public void testInverseAndDeterminant() {
+    final DoubleMatrix2D x = randomMatrix(40, 40);
+    checkEquals(COLT.getInverse(x), ALGEBRA.getInverse(x));
+    assertEquals(COLT.getDeterminant(x), ALGEBRA.getDeterminant(x), EPS * Math.abs(COLT.getDeterminant(x)));
+    assertEquals(COLT.getDeterminant(A), ALGEBRA.getDeterminant(A), EPS);
+    assertEquals(0.0, ALGEBRA.getDeterminant(new DoubleMatrix2D(new double[][] { {1, 2 }, {2, 4 } })), 0.0);
+  }
+
+  @Test
+  public void testNorms() {
+    assertEquals(COLT.getNorm1(A), ALGEBRA.getNorm1(A), EPS);
+    assertEquals(COLT.getNormInfinity(A), ALGEBRA.getNormInfinity(A), EPS);
+    assertEquals(COLT.getNorm1(E), ALGEBRA.getNorm1(E), EPS);
+    assertEquals(COLT.getNormInfinity(E), ALGEBRA.getNormInfinity(E), EPS);
+    assertEquals(COLT.getTrace(A), ALGEBRA.getTrace(A), EPS);
+    checkEquals(COLT.getTranspose(B), ALGEBRA.getTranspose(B));
+  }
+
+  @Test
+  public void testPower() {
+    checkEquals(COLT.getPower(A, 5), ALGEBRA.getPower(A, 5));
+    checkEquals(COLT.getPower(A, -3), ALGEBRA.getPower(A, -3));
+    checkEquals(DoubleMatrixUtils.getIdentityMatrix2D(3), ALGEBRA.getPower(A, 0));
+    final DoubleMatrix2D power = ALGEBRA.getPower(A, 1);
+    checkEquals(A, power);
+    assertNotSame(A, power);
+    assertNotSame(A.getData()[0], power.getData()[0]);
+  }
+
+  @Test
+  public void testConditionAndNorm2() {
+    assertEquals(COLT.getCondition(A), ALGEBRA.getCondition(A), EPS * COLT.getCondition(A));
+    assertEquals(COLT.getNorm2(A), ALGEBRA.getNorm2(A), EPS);
+    assertEquals(COLT.getNorm2(E), ALGEBRA.getNorm2(E), EPS);
+    final DoubleMatrix2D x = randomMatrix(30, 30);
+    assertEquals(COLT.getCondition(x), ALGEBRA.getCondition(x), 1e-8 * COLT.getCondition(x));
+    assertEquals(COLT.getNorm2(x), ALGEBRA.getNorm2(x), 1e-8);
+    final DoubleMatrix2D tall = randomMatrix(25, 8);
+    assertEquals(COLT.getCondition(tall), ALGEBRA.getCondition(tall), 1e-8 * COLT.getCondition(tall));
+    assertEquals(COLT.getCondition(tall), ALGEBRA.getCondition(ALGEBRA.getTranspose(tall)), 1e-8 * COLT.getCondition(tall));
+    assertEquals(Double.POSITIVE_INFINITY, ALGEBRA.getCondition(new DoubleMatrix2D(new double[][] { {1, 2 }, {2, 4 } })), 0.0);
+  }
+
+  private static DoubleMatrix2D randomMatrix(final int rows, final int columns) {
+    final double[][] data = new double[rows][columns];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        data[i][j] = RANDOM.nextRandom();
+      }
+    }
+    return new DoubleMatrix2D(data);
+  }
+
+  private static void checkEquals(final Matrix<?> expected, final Matrix<?> actual) {
+    if (expected instanceof DoubleMatrix1D) {
+      ArrayAsserts.assertArrayEquals(((DoubleMatrix1D) expected).getData(), ((DoubleMatrix1D) actual).getData(), EPS);
+      return;
+    }
+    final DoubleMatrix2D x = (DoubleMatrix2D) expected;
+    final DoubleMatrix2D y = (DoubleMatrix2D) actual;
+    assertEquals(x.getNumberOfRows(), y.getNumberOfRows());
+    assertEquals(x.getNumberOfColumns(), y.getNumberOfColumns());
+    for (int i = 0; i < x.getNumberOfRows(); i++) {
+      ArrayAsserts.assertArrayEquals(x.getData()[i], y.getData()[i], EPS);
+    }
+  }
+}
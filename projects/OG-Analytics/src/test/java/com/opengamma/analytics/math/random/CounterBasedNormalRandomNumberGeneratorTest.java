@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests related to the counter-based normal generator and the antithetic decorator.
+ */
+public class CounterBasedNormalRandomNumberGeneratorTest {
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadDimension() {
+    new CounterBasedNormalRandomNumberGenerator(0).getVector(-1);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadSubstream() {
+    new CounterBasedNormalRandomNumberGenerator(0).getSubstream(-1, 10);
+  }
+
+  @Test
+  /**
+   * Tests that the numbers depend only on the seed, the substream and the counter.
+   */
+  public void reproducible() {
+    final CounterBasedNormalRandomNumberGenerator generator1 = new CounterBasedNormalRandomNumberGenerator(1234);
+    final CounterBasedNormalRandomNumberGenerator generator2 = new CounterBasedNormalRandomNumberGenerator(1234);
+    final double[] x1 = generator1.getVector(10);
+    generator2.skip(5);
+    final double[] x2 = generator2.getVector(5);
+    for (int loop = 0; loop < 5; loop++) {
+      assertEquals("Counter based generator - skip", x1[5 + loop], x2[loop], 0.0);
+    }
+    final RandomNumberGenerator substream = generator1.getSubstream(3, 1);
+    generator2.getVector(1000);
+    final double[] y1 = substream.getVector(10);
+    final double[] y2 = generator2.getSubstream(3, 1).getVector(10);
+    for (int loop = 0; loop < 10; loop++) {
+      assertEquals("Counter based generator - substream", y1[loop], y2[loop], 0.0);
+    }
+    assertFalse("Counter based generator - substream", y1[0] == generator1.getSubstream(4, 1).getVector(1)[0]);
+  }
+
+  @Test
+  /**
+   * Tests the first two moments.
+   */
+  public void moments() {
+    final int nbDraw = 100000;
+    final double[] x = new CounterBasedNormalRandomNumberGenerator(0).getVector(nbDraw);
+    double sum = 0.0;
+    double sum2 = 0.0;
+    for (final double element : x) {
+      sum += element;
+      sum2 += element * element;
+    }
+    assertEquals("Counter based generator - mean", 0.0, sum / nbDraw, 1.0E-2);
+    assertEquals("Counter based generator - variance", 1.0, sum2 / nbDraw, 2.0E-2);
+  }
+
+  @Test
+  public void antithetic() {
+    final RandomNumberGenerator antithetic = new AntitheticSubstreamRandomNumberGenerator(new CounterBasedNormalRandomNumberGenerator(0)).getSubstream(2, 9);
+    final double[] x = antithetic.getVector(9);
+    final double[] expected = new CounterBasedNormalRandomNumberGenerator(0).getSubstream(2, 5).getVector(5);
+    for (int loop = 0; loop < 5; loop++) {
+      assertEquals("Antithetic generator", expected[loop], x[loop], 0.0);
+    }
+    for (int loop = 0; loop < 4; loop++) {
+      assertEquals("Antithetic generator", -expected[loop], x[5 + loop], 0.0);
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import cern.jet.stat.Probability;
+
+/**
+ * Tests related to the Sobol quasi-random generator.
+ */
+public class SobolNormalRandomNumberGeneratorTest {
+
+  private static final double TOLERANCE = 1.0E-10;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadMaxDimension() {
+    new SobolNormalRandomNumberGenerator(0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testDimensionAboveMax() {
+    new SobolNormalRandomNumberGenerator(3).getVectors(4, 10);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testTooManyCoordinates() {
+    final SobolNormalRandomNumberGenerator generator = new SobolNormalRandomNumberGenerator(1);
+    generator.getVector(10);
+    generator.getVector(10);
+  }
+
+  @Test
+  /**
+   * Tests the first points against the known Sobol sequence (uniform coordinates).
+   */
+  public void firstPoints() {
+    final double[][] expected = new double[][] { {0.5, 0.5, 0.5 }, {0.75, 0.25, 0.25 }, {0.25, 0.75, 0.75 }, {0.375, 0.375, 0.625 }, {0.875, 0.875, 0.125 } };
+    final List<double[]> points = new SobolNormalRandomNumberGenerator(3).getVectors(3, expected.length);
+    for (int looppt = 0; looppt < expected.length; looppt++) {
+      for (int loopdim = 0; loopdim < 3; loopdim++) {
+        assertEquals("Sobol point " + looppt, expected[looppt][loopdim], Probability.normal(points.get(looppt)[loopdim]), TOLERANCE);
+      }
+    }
+  }
+
+  @Test
+  /**
+   * Tests the stratification of each dimension (including those above the tabulated direction numbers): the coordinates of the first
+   * 2^k-1 points (the point 0 is skipped) are distinct multiples of 2^-k.
+   */
+  public void stratification() {
+    final int nbDim = 40;
+    final int nbInterval = 1024;
+    final List<double[]> points = new SobolNormalRandomNumberGenerator(nbDim).getVectors(nbDim, nbInterval - 1);
+    for (int loopdim = 0; loopdim < nbDim; loopdim++) {
+      final boolean[] used = new boolean[nbInterval];
+      for (final double[] point : points) {
+        final int interval = (int) Math.round(Probability.normal(point[loopdim]) * nbInterval);
+        assertEquals("Sobol stratification - dimension " + loopdim, false, used[interval]);
+        used[interval] = true;
+      }
+    }
+  }
+
+  @Test
+  /**
+   * Tests that a substream is the same sequence as the whole generator, read by coordinate.
+   */
+  public void substream() {
+    final int size = 100;
+    final List<double[]> points = new SobolNormalRandomNumberGenerator(5).getVectors(2, 4 * size);
+    final RandomNumberGenerator substream = new SobolNormalRandomNumberGenerator(5).getSubstream(3, size);
+    final double[] dim0 = substream.getVector(size);
+    final double[] dim1 = substream.getVector(size);
+    for (int looppt = 0; looppt < size; looppt++) {
+      assertEquals("Sobol substream", points.get(3 * size + looppt)[0], dim0[looppt], TOLERANCE);
+      assertEquals("Sobol substream", points.get(3 * size + looppt)[1], dim1[looppt], TOLERANCE);
+    }
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.convention.calendar;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test {@link CompiledCalendar}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class CompiledCalendarTest {
+
+  private static final Calendar UK = CalendarFactory.INSTANCE.getCalendar("UK Bank Holidays");
+  private static final MondayToFridayCalendar OTHER = new MondayToFridayCalendar("Other");
+  static {
+    OTHER.addNonWorkingDay(LocalDate.of(2010, 12, 29));
+    OTHER.addNonWorkingDay(LocalDate.of(2010, 12, 30));
+    OTHER.addNonWorkingDay(LocalDate.of(2010, 12, 31));
+    OTHER.addNonWorkingDay(LocalDate.of(2011, 1, 4));
+    OTHER.addNonWorkingDay(LocalDate.of(2012, 2, 29));
+  }
+  private static final CompiledCalendar UK_COMPILED = new CompiledCalendar(UK, 2009, 2011);
+  private static final CompiledCalendar OTHER_COMPILED = new CompiledCalendar(OTHER, 2010, 2013);
+  private static final CompiledCalendar UNION = CompiledCalendar.union(UK_COMPILED, OTHER_COMPILED);
+  private static final LocalDate START = LocalDate.of(2008, 11, 1);
+  private static final LocalDate END = LocalDate.of(2014, 2, 1);
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testYears() {
+    new CompiledCalendar(UK, 2011, 2010);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testUnionNoCommonYear() {
+    CompiledCalendar.union(new CompiledCalendar(UK, 2001, 2002), OTHER_COMPILED);
+  }
+
+  @Test
+  public void testWorkingDays() {
+    for (LocalDate date = START; date.isBefore(END); date = date.plusDays(1)) {
+      assertEquals(date.toString(), UK.isWorkingDay(date), UK_COMPILED.isWorkingDay(date));
+      assertEquals(date.toString(), OTHER.isWorkingDay(date), OTHER_COMPILED.isWorkingDay(date));
+      assertEquals(date.toString(), UK.isWorkingDay(date) && OTHER.isWorkingDay(date), UNION.isWorkingDay(date));
+    }
+    assertEquals("UK Bank Holidays, Other", UNION.getConventionName());
+  }
+
+  @Test
+  public void testNextPreviousWorkingDay() {
+    for (LocalDate date = START; date.isBefore(END); date = date.plusDays(1)) {
+      for (final CompiledCalendar calendar : new CompiledCalendar[] {UK_COMPILED, OTHER_COMPILED, UNION }) {
+        LocalDate next = date.plusDays(1);
+        while (!calendar.isWorkingDay(next)) {
+          next = next.plusDays(1);
+        }
+        assertEquals(date.toString(), next, calendar.getNextWorkingDay(date));
+        LocalDate previous = date.minusDays(1);
+        while (!calendar.isWorkingDay(previous)) {
+          previous = previous.minusDays(1);
+        }
+        assertEquals(date.toString(), previous, calendar.getPreviousWorkingDay(date));
+      }
+    }
+  }
+
+  @Test
+  public void testAddWorkingDays() {
+    for (LocalDate date = START; date.isBefore(END); date = date.plusDays(3)) {
+      for (int shift = -5; shift <= 5; shift++) {
+        assertEquals(date.toString(), ScheduleCalculator.getAdjustedDate(date, shift, UK), UK_COMPILED.addWorkingDays(date, shift));
+        assertEquals(date.toString(), ScheduleCalculator.getAdjustedDate(date, shift, UK), ScheduleCalculator.getAdjustedDate(date, shift, UK_COMPILED));
+      }
+    }
+  }
+
+}
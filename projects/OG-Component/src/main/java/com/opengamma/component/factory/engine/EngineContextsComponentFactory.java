@@ -7,6 +7,7 @@ package com.opengamma.component.factory.engine;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.joda.beans.BeanBuilder;
 import org.joda.beans.BeanDefinition;
@@ -18,6 +19,9 @@ import org.joda.beans.impl.direct.DirectBeanBuilder;
 import org.joda.beans.impl.direct.DirectMetaProperty;
 import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.CachingCreditCurveBuilder;
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.FastCreditCurveBuilder;
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurveBuilder;
 import com.opengamma.component.ComponentInfo;
 import com.opengamma.component.ComponentRepository;
 import com.opengamma.component.factory.AbstractComponentFactory;
@@ -39,6 +43,7 @@ import com.opengamma.engine.marketdata.OverrideOperationCompiler;
 import com.opengamma.engine.view.ViewProcessor;
 import com.opengamma.financial.OpenGammaCompilationContext;
 import com.opengamma.financial.OpenGammaExecutionContext;
+import com.opengamma.financial.analytics.conversion.InstrumentConversionCache;
 import com.opengamma.financial.analytics.ircurve.InterpolatedYieldCurveDefinitionSource;
 import com.opengamma.financial.analytics.ircurve.InterpolatedYieldCurveSpecificationBuilder;
 import com.opengamma.financial.analytics.model.pnl.DefaultPnLRequirementsGatherer;
@@ -60,6 +65,11 @@ import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesResolver;
 @BeanDefinition
 public class EngineContextsComponentFactory extends AbstractComponentFactory {
 
+  /**
+   * The maximum number of credit curves kept by the shared credit curve builder.
+   */
+  private static final int MAX_CREDIT_CURVES = 10000;
+
   /**
    * The classifier that the factory should publish under.
    */
@@ -193,9 +203,10 @@ public class EngineContextsComponentFactory extends AbstractComponentFactory {
   @Override
   public void init(final ComponentRepository repo, final LinkedHashMap<String, String> configuration) {
     initPnlRequirementsGatherer();
-    initFunctionCompilationContext(repo, configuration);
+    final ForkJoinPool pool = initForkJoinPool(repo);
+    initFunctionCompilationContext(repo, configuration, pool);
     final OverrideOperationCompiler ooc = initOverrideOperationCompiler(repo, configuration);
-    initFunctionExecutionContext(repo, configuration, ooc);
+    initFunctionExecutionContext(repo, configuration, ooc, pool);
   }
 
   protected void initPnlRequirementsGatherer() {
@@ -230,7 +241,7 @@ public class EngineContextsComponentFactory extends AbstractComponentFactory {
   }
 
 
-  protected void initFunctionCompilationContext(final ComponentRepository repo, final LinkedHashMap<String, String> configuration) {
+  protected void initFunctionCompilationContext(final ComponentRepository repo, final LinkedHashMap<String, String> configuration, final ForkJoinPool pool) {
     final FunctionCompilationContext context = new FunctionCompilationContext();
     OpenGammaCompilationContext.setConfigSource(context, getConfigSource());
     OpenGammaCompilationContext.setRegionSource(context, getRegionSource());
@@ -266,6 +277,8 @@ public class EngineContextsComponentFactory extends AbstractComponentFactory {
     if (getRiskFactorsGatherer() != null) {
       OpenGammaCompilationContext.setRiskFactorsGatherer(context, getRiskFactorsGatherer());
     }
+    OpenGammaCompilationContext.setCreditCurveBuilder(context, initCreditCurveBuilder(pool));
+    OpenGammaCompilationContext.setInstrumentConversionCache(context, initInstrumentConversionCache(repo));
     final ComponentInfo info = new ComponentInfo(FunctionCompilationContext.class, getClassifier());
     repo.registerComponent(info, context);
   }
@@ -277,7 +290,8 @@ public class EngineContextsComponentFactory extends AbstractComponentFactory {
     return ooc;
   }
 
-  protected void initFunctionExecutionContext(final ComponentRepository repo, final LinkedHashMap<String, String> configuration, final OverrideOperationCompiler ooc) {
+  protected void initFunctionExecutionContext(final ComponentRepository repo, final LinkedHashMap<String, String> configuration, final OverrideOperationCompiler ooc,
+      final ForkJoinPool pool) {
     final FunctionExecutionContext context = new FunctionExecutionContext();
     OpenGammaExecutionContext.setHistoricalTimeSeriesSource(context, getHistoricalTimeSeriesSource());
     OpenGammaExecutionContext.setRegionSource(context, getRegionSource());
@@ -297,10 +311,52 @@ public class EngineContextsComponentFactory extends AbstractComponentFactory {
     if (getViewProcessor() != null) {
       OpenGammaExecutionContext.setViewProcessor(context, getViewProcessor());
     }
+    OpenGammaExecutionContext.setForkJoinPool(context, pool);
     final ComponentInfo info = new ComponentInfo(FunctionExecutionContext.class, getClassifier());
     repo.registerComponent(info, context);
   }
 
+  /**
+   * Creates the fork/join pool that functions use to split their own work, shut down when the repository stops.
+   * The pool is shared by the compilation and execution contexts.
+   *
+   * @param repo  the component repository, not null
+   * @return the pool, not null
+   */
+  protected ForkJoinPool initForkJoinPool(final ComponentRepository repo) {
+    final ForkJoinPool pool = new ForkJoinPool();
+    repo.registerLifecycleStop(pool, "shutdown");
+    return pool;
+  }
+
+  /**
+   * Creates the credit curve builder shared by the credit functions.
+   * The calibrated curves are memoised, so that trades on the same name share their bootstraps within and across cycles.
+   *
+   * @param pool  the fork/join pool calibrating the bumped curves of the spread sensitivities, not null
+   * @return the builder, not null
+   */
+  protected ISDACompliantCreditCurveBuilder initCreditCurveBuilder(final ForkJoinPool pool) {
+    return new CachingCreditCurveBuilder(new FastCreditCurveBuilder(), MAX_CREDIT_CURVES, pool);
+  }
+
+  /**
+   * Creates the instrument conversion cache shared by the fixed income functions, unsubscribed from the sources when the repository stops.
+   *
+   * @param repo  the component repository, not null
+   * @return the cache, not null
+   */
+  protected InstrumentConversionCache initInstrumentConversionCache(final ComponentRepository repo) {
+    final InstrumentConversionCache cache = new InstrumentConversionCache();
+    cache.subscribeSecurities(getSecuritySource());
+    cache.subscribe(getHolidaySource());
+    cache.subscribe(getRegionSource());
+    cache.subscribe(getConventionSource());
+    cache.subscribe(getConventionBundleSource());
+    repo.registerLifecycleStop(cache, "shutdown");
+    return cache;
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   ///CLOVER:OFF
   /**
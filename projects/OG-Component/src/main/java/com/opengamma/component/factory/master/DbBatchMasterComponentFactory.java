@@ -51,6 +51,11 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
 
   @PropertyDefinition(validate = "notNull")
   private ComputationTargetResolver _computationTargetResolver;
+  /**
+   * The number of threads writing risk values, zero to write on the calling thread (default zero).
+   */
+  @PropertyDefinition
+  private int _writerThreads;
 
   //-------------------------------------------------------------------------
   @Override
@@ -62,6 +67,8 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
     if (getUniqueIdScheme() != null) {
       master.setUniqueIdScheme(getUniqueIdScheme());
     }
+    master.setWriterThreads(getWriterThreads());
+    repo.registerLifecycleStop(master, "shutdown");
     checkSchema(master.getSchemaVersion(), "rsk");
     
     // register
@@ -106,6 +113,8 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
         return getUniqueIdScheme();
       case 1562222174:  // computationTargetResolver
         return getComputationTargetResolver();
+      case -472428618:  // writerThreads
+        return getWriterThreads();
     }
     return super.propertyGet(propertyName, quiet);
   }
@@ -125,6 +134,9 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
       case 1562222174:  // computationTargetResolver
         setComputationTargetResolver((ComputationTargetResolver) newValue);
         return;
+      case -472428618:  // writerThreads
+        setWriterThreads((Integer) newValue);
+        return;
     }
     super.propertySet(propertyName, newValue, quiet);
   }
@@ -147,6 +159,7 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
           JodaBeanUtils.equal(isPublishRest(), other.isPublishRest()) &&
           JodaBeanUtils.equal(getUniqueIdScheme(), other.getUniqueIdScheme()) &&
           JodaBeanUtils.equal(getComputationTargetResolver(), other.getComputationTargetResolver()) &&
+          JodaBeanUtils.equal(getWriterThreads(), other.getWriterThreads()) &&
           super.equals(obj);
     }
     return false;
@@ -159,6 +172,7 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
     hash += hash * 31 + JodaBeanUtils.hashCode(isPublishRest());
     hash += hash * 31 + JodaBeanUtils.hashCode(getUniqueIdScheme());
     hash += hash * 31 + JodaBeanUtils.hashCode(getComputationTargetResolver());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getWriterThreads());
     return hash ^ super.hashCode();
   }
 
@@ -264,6 +278,31 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
     return metaBean().computationTargetResolver().createProperty(this);
   }
 
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the number of threads writing risk values, zero to write on the calling thread (default zero).
+   * @return the value of the property
+   */
+  public int getWriterThreads() {
+    return _writerThreads;
+  }
+
+  /**
+   * Sets the number of threads writing risk values, zero to write on the calling thread (default zero).
+   * @param writerThreads  the new value of the property
+   */
+  public void setWriterThreads(int writerThreads) {
+    this._writerThreads = writerThreads;
+  }
+
+  /**
+   * Gets the the {@code writerThreads} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> writerThreads() {
+    return metaBean().writerThreads().createProperty(this);
+  }
+
   //-----------------------------------------------------------------------
   /**
    * The meta-bean for {@code DbBatchMasterComponentFactory}.
@@ -294,6 +333,11 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
      */
     private final MetaProperty<ComputationTargetResolver> _computationTargetResolver = DirectMetaProperty.ofReadWrite(
         this, "computationTargetResolver", DbBatchMasterComponentFactory.class, ComputationTargetResolver.class);
+    /**
+     * The meta-property for the {@code writerThreads} property.
+     */
+    private final MetaProperty<Integer> _writerThreads = DirectMetaProperty.ofReadWrite(
+        this, "writerThreads", DbBatchMasterComponentFactory.class, Integer.TYPE);
     /**
      * The meta-properties.
      */
@@ -302,7 +346,8 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
         "classifier",
         "publishRest",
         "uniqueIdScheme",
-        "computationTargetResolver");
+        "computationTargetResolver",
+        "writerThreads");
 
     /**
      * Restricted constructor.
@@ -321,6 +366,8 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
           return _uniqueIdScheme;
         case 1562222174:  // computationTargetResolver
           return _computationTargetResolver;
+        case -472428618:  // writerThreads
+          return _writerThreads;
       }
       return super.metaPropertyGet(propertyName);
     }
@@ -373,6 +420,14 @@ public class DbBatchMasterComponentFactory extends AbstractDbMasterComponentFact
       return _computationTargetResolver;
     }
 
+    /**
+     * The meta-property for the {@code writerThreads} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> writerThreads() {
+      return _writerThreads;
+    }
+
   }
 
   ///CLOVER:ON
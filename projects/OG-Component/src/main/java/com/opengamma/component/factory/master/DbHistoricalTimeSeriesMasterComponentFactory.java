@@ -65,6 +65,11 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
    */
   @PropertyDefinition
   private Integer _maxRetries;
+  /**
+   * The flag determining whether the data points are stored as compressed chunks rather than rows (default false).
+   */
+  @PropertyDefinition
+  private boolean _chunkedDataPoints;
 
   //-------------------------------------------------------------------------
   @Override
@@ -72,7 +77,7 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
     ComponentInfo info = new ComponentInfo(HistoricalTimeSeriesMaster.class, getClassifier());
     
     // create
-    DbHistoricalTimeSeriesMaster master = new DbHistoricalTimeSeriesMaster(getDbConnector());
+    DbHistoricalTimeSeriesMaster master = new DbHistoricalTimeSeriesMaster(getDbConnector(), isChunkedDataPoints());
     master.registerMetrics(OpenGammaMetricRegistry.getSummaryInstance(), OpenGammaMetricRegistry.getDetailedInstance(), "DbHistoricalTimeSeriesMaster" + getClassifier());
     if (getUniqueIdScheme() != null) {
       master.setUniqueIdScheme(getUniqueIdScheme());
@@ -137,6 +142,8 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
         return getUniqueIdScheme();
       case -2022653118:  // maxRetries
         return getMaxRetries();
+      case -1807931879:  // chunkedDataPoints
+        return isChunkedDataPoints();
     }
     return super.propertyGet(propertyName, quiet);
   }
@@ -162,6 +169,9 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
       case -2022653118:  // maxRetries
         setMaxRetries((Integer) newValue);
         return;
+      case -1807931879:  // chunkedDataPoints
+        setChunkedDataPoints((Boolean) newValue);
+        return;
     }
     super.propertySet(propertyName, newValue, quiet);
   }
@@ -185,6 +195,7 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
           JodaBeanUtils.equal(getJmsChangeManagerTopic(), other.getJmsChangeManagerTopic()) &&
           JodaBeanUtils.equal(getUniqueIdScheme(), other.getUniqueIdScheme()) &&
           JodaBeanUtils.equal(getMaxRetries(), other.getMaxRetries()) &&
+          JodaBeanUtils.equal(isChunkedDataPoints(), other.isChunkedDataPoints()) &&
           super.equals(obj);
     }
     return false;
@@ -199,6 +210,7 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
     hash += hash * 31 + JodaBeanUtils.hashCode(getJmsChangeManagerTopic());
     hash += hash * 31 + JodaBeanUtils.hashCode(getUniqueIdScheme());
     hash += hash * 31 + JodaBeanUtils.hashCode(getMaxRetries());
+    hash += hash * 31 + JodaBeanUtils.hashCode(isChunkedDataPoints());
     return hash ^ super.hashCode();
   }
 
@@ -353,6 +365,31 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
     return metaBean().maxRetries().createProperty(this);
   }
 
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the flag determining whether the data points are stored as compressed chunks rather than rows (default false).
+   * @return the value of the property
+   */
+  public boolean isChunkedDataPoints() {
+    return _chunkedDataPoints;
+  }
+
+  /**
+   * Sets the flag determining whether the data points are stored as compressed chunks rather than rows (default false).
+   * @param chunkedDataPoints  the new value of the property
+   */
+  public void setChunkedDataPoints(boolean chunkedDataPoints) {
+    this._chunkedDataPoints = chunkedDataPoints;
+  }
+
+  /**
+   * Gets the the {@code chunkedDataPoints} property.
+   * @return the property, not null
+   */
+  public final Property<Boolean> chunkedDataPoints() {
+    return metaBean().chunkedDataPoints().createProperty(this);
+  }
+
   //-----------------------------------------------------------------------
   /**
    * The meta-bean for {@code DbHistoricalTimeSeriesMasterComponentFactory}.
@@ -393,6 +430,11 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
      */
     private final MetaProperty<Integer> _maxRetries = DirectMetaProperty.ofReadWrite(
         this, "maxRetries", DbHistoricalTimeSeriesMasterComponentFactory.class, Integer.class);
+    /**
+     * The meta-property for the {@code chunkedDataPoints} property.
+     */
+    private final MetaProperty<Boolean> _chunkedDataPoints = DirectMetaProperty.ofReadWrite(
+        this, "chunkedDataPoints", DbHistoricalTimeSeriesMasterComponentFactory.class, Boolean.TYPE);
     /**
      * The meta-properties.
      */
@@ -403,7 +445,8 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
         "jmsConnector",
         "jmsChangeManagerTopic",
         "uniqueIdScheme",
-        "maxRetries");
+        "maxRetries",
+        "chunkedDataPoints");
 
     /**
      * Restricted constructor.
@@ -426,6 +469,8 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
           return _uniqueIdScheme;
         case -2022653118:  // maxRetries
           return _maxRetries;
+        case -1807931879:  // chunkedDataPoints
+          return _chunkedDataPoints;
       }
       return super.metaPropertyGet(propertyName);
     }
@@ -494,6 +539,14 @@ public class DbHistoricalTimeSeriesMasterComponentFactory extends AbstractDbMast
       return _maxRetries;
     }
 
+    /**
+     * The meta-property for the {@code chunkedDataPoints} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Boolean> chunkedDataPoints() {
+      return _chunkedDataPoints;
+    }
+
   }
 
   ///CLOVER:ON
@@ -26,6 +26,7 @@ import com.opengamma.core.holiday.HolidaySource;
 import com.opengamma.core.holiday.impl.CachedHolidaySource;
 import com.opengamma.core.holiday.impl.DataHolidaySourceResource;
 import com.opengamma.core.holiday.impl.RemoteHolidaySource;
+import com.opengamma.financial.analytics.conversion.CalendarUtils;
 import com.opengamma.master.holiday.HolidayMaster;
 import com.opengamma.master.holiday.impl.MasterHolidaySource;
 
@@ -64,6 +65,8 @@ public class HolidaySourceComponentFactory extends AbstractComponentFactory {
   @Override
   public void init(ComponentRepository repo, LinkedHashMap<String, String> configuration) {
     HolidaySource source = createHolidaySource(repo);
+    // the calendars compiled from the holiday source are discarded when the holidays change
+    CalendarUtils.getCompiledCalendarCache().subscribe(source);
     
     ComponentInfo info = new ComponentInfo(HolidaySource.class, getClassifier());
     info.addAttribute(ComponentInfoAttributes.LEVEL, 1);
@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.historicaltimeseries.impl;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.threeten.bp.LocalDate;
+
+import com.google.common.collect.Maps;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.DummyChangeManager;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeries;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
+import com.opengamma.core.historicaltimeseries.impl.MappedHistoricalTimeSeriesStore.IndexEntry;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateToIntConverter;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.tuple.ObjectsPair;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * A {@code HistoricalTimeSeriesSource} that serves read-only history from a {@link MappedHistoricalTimeSeriesStore}.
+ * <p>
+ * The time-series returned are views of the memory-mapped store, so repeated lookups neither
+ * query a database nor copy data points onto the heap.
+ * The store is a snapshot, typically built by a loader from a time-series master, so:
+ * <ul>
+ *   <li>Version corrections are not supported; the snapshot is always returned.</li>
+ *   <li>The identifier validity date is ignored, as the store holds plain identifier bundles.</li>
+ *   <li>Resolution keys are ignored; the first series in the store with a matching
+ *       identifier and data field is returned.</li>
+ *   <li>Changes are never notified.</li>
+ * </ul>
+ * Series not in the store are returned as null, in line with other sources.
+ */
+public class MappedHistoricalTimeSeriesSource implements HistoricalTimeSeriesSource {
+
+  /**
+   * The underlying store.
+   */
+  private final MappedHistoricalTimeSeriesStore _store;
+
+  /**
+   * Creates an instance.
+   *
+   * @param store  the store, not null
+   */
+  public MappedHistoricalTimeSeriesSource(MappedHistoricalTimeSeriesStore store) {
+    ArgumentChecker.notNull(store, "store");
+    _store = store;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the underlying store.
+   *
+   * @return the store, not null
+   */
+  public MappedHistoricalTimeSeriesStore getStore() {
+    return _store;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(UniqueId uniqueId) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    return doGetHistoricalTimeSeries(_store.get(uniqueId.getObjectId()), null, true, null, true, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(UniqueId uniqueId, LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    return doGetHistoricalTimeSeries(_store.get(uniqueId.getObjectId()), start, includeStart, end, includeEnd, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(UniqueId uniqueId, LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd, int maxPoints) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    return doGetHistoricalTimeSeries(_store.get(uniqueId.getObjectId()), start, includeStart, end, includeEnd, maxPoints);
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(UniqueId uniqueId) {
+    return toLatestDataPoint(getHistoricalTimeSeries(uniqueId));
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(UniqueId uniqueId, LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return toLatestDataPoint(getHistoricalTimeSeries(uniqueId, start, includeStart, end, includeEnd));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(ExternalIdBundle identifierBundle, String dataSource, String dataProvider, String dataField) {
+    return findHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, null, true, null, true, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(ExternalIdBundle identifierBundle, String dataSource, String dataProvider, String dataField,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return findHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, start, includeStart, end, includeEnd, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(ExternalIdBundle identifierBundle, String dataSource, String dataProvider, String dataField,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd, int maxPoints) {
+    return findHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, start, includeStart, end, includeEnd, maxPoints);
+  }
+
+  private HistoricalTimeSeries findHistoricalTimeSeries(ExternalIdBundle identifierBundle, String dataSource, String dataProvider, String dataField,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd, Integer maxPoints) {
+    ArgumentChecker.notNull(identifierBundle, "identifierBundle");
+    return doGetHistoricalTimeSeries(find(identifierBundle, dataSource, dataProvider, dataField), start, includeStart, end, includeEnd, maxPoints);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String dataSource,
+      String dataProvider, String dataField) {
+    return findHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, null, true, null, true, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String dataSource,
+      String dataProvider, String dataField, LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return findHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, start, includeStart, end, includeEnd, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String dataSource,
+      String dataProvider, String dataField, LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd, int maxPoints) {
+    return getHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, start, includeStart, end, includeEnd, maxPoints);
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String dataSource,
+      String dataProvider, String dataField) {
+    return toLatestDataPoint(getHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField));
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String dataSource,
+      String dataProvider, String dataField, LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return toLatestDataPoint(getHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, start, includeStart, end, includeEnd));
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(ExternalIdBundle identifierBundle, String dataSource, String dataProvider, String dataField) {
+    return toLatestDataPoint(getHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField));
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(ExternalIdBundle identifierBundle, String dataSource, String dataProvider, String dataField,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return toLatestDataPoint(getHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, start, includeStart, end, includeEnd));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(String dataField, ExternalIdBundle identifierBundle, String resolutionKey) {
+    return getHistoricalTimeSeries(null, null, dataField, identifierBundle, null, true, null, true, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(String dataField, ExternalIdBundle identifierBundle, String resolutionKey,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return getHistoricalTimeSeries(null, null, dataField, identifierBundle, start, includeStart, end, includeEnd, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(String dataField, ExternalIdBundle identifierBundle, String resolutionKey,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd, int maxPoints) {
+    return getHistoricalTimeSeries(null, null, dataField, identifierBundle, start, includeStart, end, includeEnd, maxPoints);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(String dataField, ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String resolutionKey) {
+    return getHistoricalTimeSeries(null, null, dataField, identifierBundle, null, true, null, true, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(String dataField, ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String resolutionKey,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return getHistoricalTimeSeries(null, null, dataField, identifierBundle, start, includeStart, end, includeEnd, null);
+  }
+
+  @Override
+  public HistoricalTimeSeries getHistoricalTimeSeries(String dataField, ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String resolutionKey,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd, int maxPoints) {
+    return getHistoricalTimeSeries(null, null, dataField, identifierBundle, start, includeStart, end, includeEnd, maxPoints);
+  }
+
+  private HistoricalTimeSeries getHistoricalTimeSeries(String dataSource, String dataProvider, String dataField, ExternalIdBundle identifierBundle,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd, Integer maxPoints) {
+    ArgumentChecker.notNull(dataField, "dataField");
+    ArgumentChecker.notNull(identifierBundle, "identifierBundle");
+    return doGetHistoricalTimeSeries(find(identifierBundle, dataSource, dataProvider, dataField), start, includeStart, end, includeEnd, maxPoints);
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(String dataField, ExternalIdBundle identifierBundle, String resolutionKey) {
+    return toLatestDataPoint(getHistoricalTimeSeries(dataField, identifierBundle, resolutionKey));
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(String dataField, ExternalIdBundle identifierBundle, String resolutionKey,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return toLatestDataPoint(getHistoricalTimeSeries(dataField, identifierBundle, resolutionKey, start, includeStart, end, includeEnd));
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(String dataField, ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String resolutionKey) {
+    return toLatestDataPoint(getHistoricalTimeSeries(dataField, identifierBundle, resolutionKey));
+  }
+
+  @Override
+  public Pair<LocalDate, Double> getLatestDataPoint(String dataField, ExternalIdBundle identifierBundle, LocalDate identifierValidityDate, String resolutionKey,
+      LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    return toLatestDataPoint(getHistoricalTimeSeries(dataField, identifierBundle, resolutionKey, start, includeStart, end, includeEnd));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public Map<ExternalIdBundle, HistoricalTimeSeries> getHistoricalTimeSeries(Set<ExternalIdBundle> identifierSet, String dataSource, String dataProvider,
+      String dataField, LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd) {
+    ArgumentChecker.notNull(identifierSet, "identifierSet");
+    Map<ExternalIdBundle, HistoricalTimeSeries> result = Maps.newHashMapWithExpectedSize(identifierSet.size());
+    for (ExternalIdBundle identifierBundle : identifierSet) {
+      // a bundle that is not found maps to null, as in the other sources
+      result.put(identifierBundle, getHistoricalTimeSeries(identifierBundle, dataSource, dataProvider, dataField, start, includeStart, end, includeEnd));
+    }
+    return result;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public ExternalIdBundle getExternalIdBundle(UniqueId uniqueId) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    IndexEntry entry = _store.get(uniqueId.getObjectId());
+    return entry != null ? entry.getExternalIdBundle() : null;
+  }
+
+  @Override
+  public ChangeManager changeManager() {
+    return DummyChangeManager.INSTANCE;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Finds the first series in the store matching the identifiers and descriptive fields.
+   *
+   * @param identifierBundle  the identifiers, any of which may match, not null
+   * @param dataSource  the data source, null to match any
+   * @param dataProvider  the data provider, null to match any
+   * @param dataField  the data field, null to match any
+   * @return the entry, null if not found
+   */
+  private IndexEntry find(ExternalIdBundle identifierBundle, String dataSource, String dataProvider, String dataField) {
+    for (ExternalId externalId : identifierBundle) {
+      for (IndexEntry entry : _store.get(externalId)) {
+        if (matches(dataSource, entry.getDataSource()) && matches(dataProvider, entry.getDataProvider()) && matches(dataField, entry.getDataField())) {
+          return entry;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean matches(String requested, String stored) {
+    return requested == null || requested.equals(stored);
+  }
+
+  private HistoricalTimeSeries doGetHistoricalTimeSeries(IndexEntry entry, LocalDate start, boolean includeStart, LocalDate end, boolean includeEnd, Integer maxPoints) {
+    if (entry == null) {
+      return null;
+    }
+    if (maxPoints != null && maxPoints == 0) {
+      return new SimpleHistoricalTimeSeries(entry.getUniqueId(), ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+    }
+    LocalDateDoubleTimeSeries ts = _store.getTimeSeries(entry);
+    if (start != null || end != null) {
+      int startTime = (start != null ? LocalDateToIntConverter.convertToInt(start) + (includeStart ? 0 : 1) : Integer.MIN_VALUE);
+      // an end of Integer.MIN_VALUE selects to the end of the series
+      int endTime = (end != null ? LocalDateToIntConverter.convertToInt(end) + (includeEnd ? 1 : 0) : Integer.MIN_VALUE);
+      ts = ts.subSeriesFast(startTime, endTime);
+    }
+    if (maxPoints != null) {
+      if (maxPoints > 0 && maxPoints < ts.size()) {
+        ts = ts.head(maxPoints);
+      } else if (maxPoints < 0 && -maxPoints < ts.size()) {
+        ts = ts.tail(-maxPoints);
+      }
+    }
+    return new SimpleHistoricalTimeSeries(entry.getUniqueId(), ts);
+  }
+
+  private static Pair<LocalDate, Double> toLatestDataPoint(HistoricalTimeSeries hts) {
+    if (hts == null || hts.getTimeSeries().isEmpty()) {
+      return null;
+    }
+    LocalDateDoubleTimeSeries ts = hts.getTimeSeries();
+    return new ObjectsPair<LocalDate, Double>(ts.getLatestTime(), ts.getLatestValue());
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + _store.getDirectory() + "]";
+  }
+
+}
@@ -0,0 +1,414 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.historicaltimeseries.impl;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.timeseries.date.localdate.MappedLocalDateDoubleTimeSeries;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * A read-only store of time-series held in memory-mapped files.
+ * <p>
+ * The store is populated by {@link MappedHistoricalTimeSeriesStoreWriter}.
+ * The index is read into memory when the store is opened, while the data points are mapped
+ * and returned as {@link MappedLocalDateDoubleTimeSeries} views without copying.
+ * As the data is shared through the operating system page cache, many processes on the same
+ * machine can open one store without each holding its own copy of the history.
+ * <p>
+ * The store reflects the files at the time it was opened; open a new instance to see a rebuilt store.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public class MappedHistoricalTimeSeriesStore {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(MappedHistoricalTimeSeriesStore.class);
+
+  /**
+   * The name of the data file within the store directory.
+   */
+  static final String DATA_FILE_NAME = "hts.data";
+  /**
+   * The name of the index file within the store directory.
+   */
+  static final String INDEX_FILE_NAME = "hts.index";
+  /**
+   * The file marker, "OGTS".
+   */
+  static final int MAGIC = 0x4F475453;
+  /**
+   * The file format version.
+   */
+  static final int VERSION = 1;
+  /**
+   * The size of the data file header, keeping the series aligned.
+   */
+  static final int DATA_HEADER_SIZE = 16;
+  /**
+   * The maximum size of a single mapped region of the data file.
+   */
+  private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+  /**
+   * The directory of the store.
+   */
+  private final File _directory;
+  /**
+   * The byte order of the data file.
+   */
+  private final ByteOrder _byteOrder;
+  /**
+   * The index entries, in data file order.
+   */
+  private final List<IndexEntry> _entries;
+  /**
+   * The index entries by object identifier.
+   */
+  private final Map<ObjectId, IndexEntry> _entriesByObjectId;
+  /**
+   * The index entries by external identifier.
+   */
+  private final ImmutableListMultimap<ExternalId, IndexEntry> _entriesByExternalId;
+  /**
+   * The data file offset at which each mapped segment starts.
+   */
+  private final long[] _segmentStarts;
+  /**
+   * The mapped segments of the data file.
+   */
+  private final ByteBuffer[] _segments;
+
+  /**
+   * Opens the store in a directory.
+   *
+   * @param directory  the store directory, not null
+   */
+  public MappedHistoricalTimeSeriesStore(File directory) {
+    ArgumentChecker.notNull(directory, "directory");
+    _directory = directory;
+    File indexFile = new File(directory, INDEX_FILE_NAME);
+    File dataFile = new File(directory, DATA_FILE_NAME);
+    long generation;
+    boolean bigEndian;
+    List<IndexEntry> entries;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+      checkHeader(in.readInt(), in.readInt(), indexFile);
+      generation = in.readLong();
+      bigEndian = in.readBoolean();
+      int count = in.readInt();
+      entries = Lists.newArrayListWithCapacity(count);
+      for (int i = 0; i < count; i++) {
+        UniqueId uniqueId = UniqueId.parse(in.readUTF());
+        int idCount = in.readInt();
+        List<ExternalId> ids = Lists.newArrayListWithCapacity(idCount);
+        for (int j = 0; j < idCount; j++) {
+          ids.add(ExternalId.parse(in.readUTF()));
+        }
+        String dataSource = readNullableUTF(in);
+        String dataProvider = readNullableUTF(in);
+        String dataField = readNullableUTF(in);
+        long offset = in.readLong();
+        int size = in.readInt();
+        entries.add(new IndexEntry(uniqueId, ExternalIdBundle.of(ids), dataSource, dataProvider, dataField, offset, size));
+      }
+    } catch (IOException ex) {
+      throw new OpenGammaRuntimeException("Unable to read time-series store index " + indexFile, ex);
+    }
+    _byteOrder = bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    _entries = entries;
+    ImmutableMap.Builder<ObjectId, IndexEntry> byObjectId = ImmutableMap.builder();
+    ImmutableListMultimap.Builder<ExternalId, IndexEntry> byExternalId = ImmutableListMultimap.builder();
+    for (IndexEntry entry : entries) {
+      byObjectId.put(entry.getUniqueId().getObjectId(), entry);
+      for (ExternalId externalId : entry.getExternalIdBundle()) {
+        byExternalId.put(externalId, entry);
+      }
+    }
+    _entriesByObjectId = byObjectId.build();
+    _entriesByExternalId = byExternalId.build();
+
+    // map the data in segments, never splitting a series across two segments
+    List<Long> segmentStarts = Lists.newArrayList();
+    List<Long> segmentEnds = Lists.newArrayList();
+    for (IndexEntry entry : entries) {
+      long end = entry.getOffset() + entry.getByteLength();
+      int last = segmentStarts.size() - 1;
+      if (last >= 0 && end - segmentStarts.get(last) <= MAX_SEGMENT_SIZE) {
+        segmentEnds.set(last, end);
+      } else {
+        if (entry.getByteLength() > Integer.MAX_VALUE) {
+          throw new OpenGammaRuntimeException("Time-series " + entry.getUniqueId() + " is too large to map");
+        }
+        segmentStarts.add(entry.getOffset());
+        segmentEnds.add(end);
+      }
+    }
+    _segmentStarts = new long[segmentStarts.size()];
+    _segments = new ByteBuffer[segmentStarts.size()];
+    try (RandomAccessFile file = new RandomAccessFile(dataFile, "r")) {
+      FileChannel channel = file.getChannel();
+      ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+        // read until full
+      }
+      header.flip();
+      checkHeader(header.getInt(), header.getInt(), dataFile);
+      if (header.getLong() != generation) {
+        throw new OpenGammaRuntimeException("Time-series store index and data files do not match in " + directory + ", store may be being rebuilt");
+      }
+      for (int i = 0; i < _segments.length; i++) {
+        _segmentStarts[i] = segmentStarts.get(i);
+        _segments[i] = channel.map(MapMode.READ_ONLY, segmentStarts.get(i), segmentEnds.get(i) - segmentStarts.get(i));
+      }
+    } catch (IOException ex) {
+      throw new OpenGammaRuntimeException("Unable to map time-series store data " + dataFile, ex);
+    }
+    s_logger.info("Opened time-series store {} with {} series in {} segments", directory, entries.size(), _segments.length);
+  }
+
+  private static void checkHeader(int magic, int version, File file) {
+    if (magic != MAGIC) {
+      throw new OpenGammaRuntimeException("File is not a time-series store file: " + file);
+    }
+    if (version != VERSION) {
+      throw new OpenGammaRuntimeException("Unsupported time-series store version " + version + " in " + file);
+    }
+  }
+
+  private static String readNullableUTF(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  /**
+   * Rounds a length in bytes up to the alignment of the data file.
+   *
+   * @param length  the length
+   * @return the aligned length
+   */
+  static int align(int length) {
+    return (length + 7) & ~7;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the directory of the store.
+   *
+   * @return the directory, not null
+   */
+  public File getDirectory() {
+    return _directory;
+  }
+
+  /**
+   * Gets the number of time-series in the store.
+   *
+   * @return the number of series
+   */
+  public int size() {
+    return _entries.size();
+  }
+
+  /**
+   * Gets all the index entries, in the order they were written.
+   *
+   * @return the entries, not null
+   */
+  public List<IndexEntry> getEntries() {
+    return _entries;
+  }
+
+  /**
+   * Gets the entry for a time-series by object identifier.
+   *
+   * @param objectId  the object identifier, not null
+   * @return the entry, null if not found
+   */
+  public IndexEntry get(ObjectId objectId) {
+    ArgumentChecker.notNull(objectId, "objectId");
+    return _entriesByObjectId.get(objectId);
+  }
+
+  /**
+   * Gets the entries for the time-series having an external identifier.
+   *
+   * @param externalId  the external identifier, not null
+   * @return the entries, in the order they were written, not null
+   */
+  public Collection<IndexEntry> get(ExternalId externalId) {
+    ArgumentChecker.notNull(externalId, "externalId");
+    return _entriesByExternalId.get(externalId);
+  }
+
+  /**
+   * Gets the data points of a time-series as a view of the mapped data.
+   *
+   * @param entry  the entry from this store, not null
+   * @return the time-series, not null
+   */
+  public MappedLocalDateDoubleTimeSeries getTimeSeries(IndexEntry entry) {
+    ArgumentChecker.notNull(entry, "entry");
+    int segmentIndex = Arrays.binarySearch(_segmentStarts, entry.getOffset());
+    if (segmentIndex < 0) {
+      segmentIndex = -(segmentIndex + 1) - 1;
+    }
+    ByteBuffer segment = _segments[segmentIndex].duplicate();
+    int start = (int) (entry.getOffset() - _segmentStarts[segmentIndex]);
+    int size = entry.getSize();
+    int datesEnd = start + align(size * 4);
+    segment.limit(start + size * 4).position(start);
+    IntBuffer dates = segment.slice().order(_byteOrder).asIntBuffer();
+    segment.limit(datesEnd + size * 8).position(datesEnd);
+    DoubleBuffer values = segment.slice().order(_byteOrder).asDoubleBuffer();
+    return MappedLocalDateDoubleTimeSeries.of(dates, values);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + _directory + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The index entry describing a single time-series in the store.
+   */
+  public static final class IndexEntry {
+
+    /**
+     * The unique identifier.
+     */
+    private final UniqueId _uniqueId;
+    /**
+     * The external identifiers.
+     */
+    private final ExternalIdBundle _externalIdBundle;
+    /**
+     * The data source, may be null.
+     */
+    private final String _dataSource;
+    /**
+     * The data provider, may be null.
+     */
+    private final String _dataProvider;
+    /**
+     * The data field, may be null.
+     */
+    private final String _dataField;
+    /**
+     * The offset of the series in the data file.
+     */
+    private final long _offset;
+    /**
+     * The number of data points.
+     */
+    private final int _size;
+
+    IndexEntry(UniqueId uniqueId, ExternalIdBundle externalIdBundle, String dataSource, String dataProvider, String dataField, long offset, int size) {
+      _uniqueId = uniqueId;
+      _externalIdBundle = externalIdBundle;
+      _dataSource = dataSource;
+      _dataProvider = dataProvider;
+      _dataField = dataField;
+      _offset = offset;
+      _size = size;
+    }
+
+    /**
+     * Gets the unique identifier of the series.
+     *
+     * @return the unique identifier, not null
+     */
+    public UniqueId getUniqueId() {
+      return _uniqueId;
+    }
+
+    /**
+     * Gets the external identifiers of the series.
+     *
+     * @return the bundle, not null
+     */
+    public ExternalIdBundle getExternalIdBundle() {
+      return _externalIdBundle;
+    }
+
+    /**
+     * Gets the data source of the series.
+     *
+     * @return the data source, null if not known
+     */
+    public String getDataSource() {
+      return _dataSource;
+    }
+
+    /**
+     * Gets the data provider of the series.
+     *
+     * @return the data provider, null if not known
+     */
+    public String getDataProvider() {
+      return _dataProvider;
+    }
+
+    /**
+     * Gets the data field of the series.
+     *
+     * @return the data field, null if not known
+     */
+    public String getDataField() {
+      return _dataField;
+    }
+
+    /**
+     * Gets the number of data points in the series.
+     *
+     * @return the size
+     */
+    public int getSize() {
+      return _size;
+    }
+
+    long getOffset() {
+      return _offset;
+    }
+
+    long getByteLength() {
+      return align(_size * 4) + _size * 8L;
+    }
+
+    @Override
+    public String toString() {
+      return "IndexEntry[" + _uniqueId + ", " + _externalIdBundle + ", " + _dataField + "]";
+    }
+  }
+
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.historicaltimeseries.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.collect.Lists;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Writes a store of time-series for reading by {@link MappedHistoricalTimeSeriesStore}.
+ * <p>
+ * The data file holds, for each series, the dates as {@code int} values in the format
+ * of {@code LocalDateToIntConverter} followed by the values as {@code double} values,
+ * both in the native byte order and aligned to eight bytes.
+ * The index file is written once all series have been added, and maps the identifiers
+ * and descriptive fields of each series to its location in the data file.
+ * <p>
+ * Both files are written under temporary names and renamed into place on {@link #commit()},
+ * so a store may be rebuilt in the same directory while other processes have the previous
+ * version mapped. Closing the writer without a commit deletes the temporary files and leaves
+ * any previous store in place, so a failed load does not replace a good store. The files share a generation token that readers check, so a reader opening
+ * the store between the two renames fails rather than mixing the old index with the new data.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class MappedHistoricalTimeSeriesStoreWriter implements Closeable {
+
+  /**
+   * The directory of the store.
+   */
+  private final File _directory;
+  /**
+   * The temporary data file.
+   */
+  private final File _dataFile;
+  /**
+   * The temporary index file.
+   */
+  private final File _indexFile;
+  /**
+   * The data file channel.
+   */
+  private final FileChannel _dataChannel;
+  /**
+   * The token shared by the data and index files of this store.
+   */
+  private final long _generation = UUID.randomUUID().getMostSignificantBits();
+  /**
+   * The index entries added so far.
+   */
+  private final List<MappedHistoricalTimeSeriesStore.IndexEntry> _entries = Lists.newArrayList();
+  /**
+   * The position in the data file of the next series.
+   */
+  private long _position;
+  /**
+   * Whether the writer has been closed.
+   */
+  private boolean _closed;
+
+  /**
+   * Creates a writer that will replace any store in the directory when committed.
+   *
+   * @param directory  the store directory, created if necessary, not null
+   */
+  @SuppressWarnings("resource")
+  public MappedHistoricalTimeSeriesStoreWriter(File directory) {
+    ArgumentChecker.notNull(directory, "directory");
+    if (directory.isDirectory() == false && directory.mkdirs() == false) {
+      throw new OpenGammaRuntimeException("Unable to create time-series store directory " + directory);
+    }
+    _directory = directory;
+    _dataFile = new File(directory, MappedHistoricalTimeSeriesStore.DATA_FILE_NAME + ".tmp");
+    _indexFile = new File(directory, MappedHistoricalTimeSeriesStore.INDEX_FILE_NAME + ".tmp");
+    try {
+      _dataChannel = new RandomAccessFile(_dataFile, "rw").getChannel();
+      _dataChannel.truncate(0);
+      ByteBuffer header = ByteBuffer.allocate(MappedHistoricalTimeSeriesStore.DATA_HEADER_SIZE);
+      header.putInt(MappedHistoricalTimeSeriesStore.MAGIC);
+      header.putInt(MappedHistoricalTimeSeriesStore.VERSION);
+      header.putLong(_generation);
+      header.flip();
+      writeFully(header);
+    } catch (IOException ex) {
+      throw new OpenGammaRuntimeException("Unable to create time-series store data file " + _dataFile, ex);
+    }
+    _position = MappedHistoricalTimeSeriesStore.DATA_HEADER_SIZE;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a time-series to the store.
+   * <p>
+   * The unique identifier is stored as given, but the store looks series up by object identifier.
+   *
+   * @param uniqueId  the unique identifier of the series, not null
+   * @param externalIdBundle  the external identifiers of the series, not null
+   * @param dataSource  the data source, null if not known
+   * @param dataProvider  the data provider, null if not known
+   * @param dataField  the data field, null if not known
+   * @param timeSeries  the time-series, not null
+   */
+  public void add(UniqueId uniqueId, ExternalIdBundle externalIdBundle, String dataSource, String dataProvider, String dataField, LocalDateDoubleTimeSeries timeSeries) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    ArgumentChecker.notNull(externalIdBundle, "externalIdBundle");
+    ArgumentChecker.notNull(timeSeries, "timeSeries");
+    if (_closed) {
+      throw new IllegalStateException("Writer has been closed");
+    }
+    int size = timeSeries.size();
+    int datesLength = MappedHistoricalTimeSeriesStore.align(size * 4);
+    ByteBuffer buffer = ByteBuffer.allocate(datesLength + size * 8).order(ByteOrder.nativeOrder());
+    buffer.asIntBuffer().put(timeSeries.timesArrayFast());
+    buffer.position(datesLength);
+    buffer.asDoubleBuffer().put(timeSeries.valuesArrayFast());
+    buffer.position(0);
+    try {
+      writeFully(buffer);
+    } catch (IOException ex) {
+      throw new OpenGammaRuntimeException("Unable to write time-series " + uniqueId + " to " + _dataFile, ex);
+    }
+    _entries.add(new MappedHistoricalTimeSeriesStore.IndexEntry(uniqueId, externalIdBundle, dataSource, dataProvider, dataField, _position, size));
+    _position += buffer.capacity();
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      _dataChannel.write(buffer);
+    }
+  }
+
+  /**
+   * Gets the number of time-series added so far.
+   *
+   * @return the number of series
+   */
+  public int size() {
+    return _entries.size();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Writes the index and moves the completed store into place, closing the writer.
+   */
+  public void commit() {
+    if (_closed) {
+      throw new IllegalStateException("Writer has been closed");
+    }
+    _closed = true;
+    try {
+      _dataChannel.force(false);
+      _dataChannel.close();
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(_indexFile)))) {
+        out.writeInt(MappedHistoricalTimeSeriesStore.MAGIC);
+        out.writeInt(MappedHistoricalTimeSeriesStore.VERSION);
+        out.writeLong(_generation);
+        out.writeBoolean(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN);
+        out.writeInt(_entries.size());
+        for (MappedHistoricalTimeSeriesStore.IndexEntry entry : _entries) {
+          out.writeUTF(entry.getUniqueId().toString());
+          out.writeInt(entry.getExternalIdBundle().size());
+          for (ExternalId externalId : entry.getExternalIdBundle()) {
+            out.writeUTF(externalId.toString());
+          }
+          writeNullableUTF(out, entry.getDataSource());
+          writeNullableUTF(out, entry.getDataProvider());
+          writeNullableUTF(out, entry.getDataField());
+          out.writeLong(entry.getOffset());
+          out.writeInt(entry.getSize());
+        }
+      }
+      // readers check the generation, so a data file and index from different runs are never combined
+      Files.move(_dataFile.toPath(), new File(_directory, MappedHistoricalTimeSeriesStore.DATA_FILE_NAME).toPath(),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      Files.move(_indexFile.toPath(), new File(_directory, MappedHistoricalTimeSeriesStore.INDEX_FILE_NAME).toPath(),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException ex) {
+      discard();
+      throw new OpenGammaRuntimeException("Unable to complete time-series store in " + _directory, ex);
+    }
+  }
+
+  /**
+   * Closes the writer, discarding the series added unless {@link #commit()} has been called.
+   */
+  @Override
+  public void close() {
+    if (_closed) {
+      return;
+    }
+    _closed = true;
+    discard();
+  }
+
+  private void discard() {
+    IOUtils.closeQuietly(_dataChannel);
+    FileUtils.deleteQuietly(_dataFile);
+    FileUtils.deleteQuietly(_indexFile);
+  }
+
+  private static void writeNullableUTF(DataOutputStream out, String str) throws IOException {
+    out.writeBoolean(str != null);
+    if (str != null) {
+      out.writeUTF(str);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + _directory + "]";
+  }
+
+}
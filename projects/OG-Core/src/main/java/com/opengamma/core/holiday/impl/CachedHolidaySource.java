@@ -11,6 +11,9 @@ import java.util.concurrent.ConcurrentMap;
 import org.threeten.bp.LocalDate;
 
 import com.opengamma.core.AbstractSource;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeProvider;
+import com.opengamma.core.change.DummyChangeManager;
 import com.opengamma.core.holiday.Holiday;
 import com.opengamma.core.holiday.HolidaySource;
 import com.opengamma.core.holiday.HolidayType;
@@ -30,7 +33,7 @@ import com.opengamma.util.money.Currency;
  * A cached {@link HolidaySource} using a concurrent hash map and no eviction policy. This is better than having no cache but is not very efficient. Also does not listen for changes to the underlying
  * data.
  */
-public class CachedHolidaySource extends AbstractSource<Holiday> implements HolidaySource {
+public class CachedHolidaySource extends AbstractSource<Holiday> implements HolidaySource, ChangeProvider {
 
   private static final Object NULL = new Object();
 
@@ -50,6 +53,15 @@ public class CachedHolidaySource extends AbstractSource<Holiday> implements Holi
     return _underlying;
   }
 
+  @Override
+  public ChangeManager changeManager() {
+    if (getUnderlying() instanceof ChangeProvider) {
+      return ((ChangeProvider) getUnderlying()).changeManager();
+    } else {
+      return DummyChangeManager.INSTANCE;
+    }
+  }
+
   @SuppressWarnings("unchecked")
   protected <T> T getOrThrow(final Object o) {
     if (o instanceof RuntimeException) {
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.historicaltimeseries.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.File;
+import java.util.Map;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeries;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.timeseries.date.localdate.MappedLocalDateDoubleTimeSeries;
+import com.opengamma.util.test.TestGroup;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * Test.
+ */
+@Test(groups = TestGroup.UNIT)
+public class MappedHistoricalTimeSeriesSourceTest {
+
+  private static final UniqueId UID1 = UniqueId.of("Test", "1", "v1");
+  private static final UniqueId UID2 = UniqueId.of("Test", "2", "v1");
+  private static final UniqueId UID3 = UniqueId.of("Test", "3", "v1");
+  private static final ExternalIdBundle BUNDLE1 = ExternalIdBundle.of(ExternalId.of("A", "1"), ExternalId.of("B", "1"));
+  private static final ExternalIdBundle BUNDLE2 = ExternalIdBundle.of(ExternalId.of("A", "2"));
+
+  private File _directory;
+  private LocalDateDoubleTimeSeries _ts1;
+  private LocalDateDoubleTimeSeries _ts2;
+  private MappedHistoricalTimeSeriesSource _source;
+
+  @BeforeClass
+  public void setUpClass() {
+    _directory = new File(System.getProperty("java.io.tmpdir"), "MappedHistoricalTimeSeriesSourceTest-" + System.nanoTime());
+    _ts1 = series(LocalDate.of(2013, 6, 3), 10, 1.0);
+    _ts2 = series(LocalDate.of(2013, 6, 3), 7, 2.0);
+    try (MappedHistoricalTimeSeriesStoreWriter writer = new MappedHistoricalTimeSeriesStoreWriter(_directory)) {
+      writer.add(UID1, BUNDLE1, "SOURCE", "PROVIDER", "CLOSE", _ts1);
+      writer.add(UID2, BUNDLE2, "SOURCE", "PROVIDER", "CLOSE", _ts2);
+      writer.add(UID3, BUNDLE2, "SOURCE", "PROVIDER", "VOLUME", ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+      writer.commit();
+    }
+    _source = new MappedHistoricalTimeSeriesSource(new MappedHistoricalTimeSeriesStore(_directory));
+  }
+
+  @AfterClass
+  public void tearDownClass() {
+    for (File file : _directory.listFiles()) {
+      file.delete();
+    }
+    _directory.delete();
+  }
+
+  private static LocalDateDoubleTimeSeries series(LocalDate start, int size, double base) {
+    LocalDateDoubleTimeSeriesBuilder builder = ImmutableLocalDateDoubleTimeSeries.builder();
+    for (int i = 0; i < size; i++) {
+      builder.put(start.plusDays(i), base + i);
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_store() {
+    MappedHistoricalTimeSeriesStore store = _source.getStore();
+    assertEquals(3, store.size());
+    assertEquals(UID2, store.get(UID2.getObjectId()).getUniqueId());
+    assertEquals(2, store.get(ExternalId.of("A", "2")).size());
+    assertEquals(0, store.get(ExternalId.of("A", "3")).size());
+  }
+
+  public void test_getByUniqueId() {
+    HistoricalTimeSeries hts = _source.getHistoricalTimeSeries(UniqueId.of("Test", "1"));
+    assertEquals(UID1, hts.getUniqueId());
+    assertTrue(hts.getTimeSeries() instanceof MappedLocalDateDoubleTimeSeries);
+    assertEquals(_ts1, hts.getTimeSeries());
+    assertEquals(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES, _source.getHistoricalTimeSeries(UID3).getTimeSeries());
+    assertNull(_source.getHistoricalTimeSeries(UniqueId.of("Test", "4")));
+    assertEquals(BUNDLE1, _source.getExternalIdBundle(UID1));
+  }
+
+  public void test_getByUniqueId_range() {
+    LocalDate start = LocalDate.of(2013, 6, 4);
+    LocalDate end = LocalDate.of(2013, 6, 8);
+    assertEquals(_ts1.subSeries(start, true, end, true), _source.getHistoricalTimeSeries(UID1, start, true, end, true).getTimeSeries());
+    assertEquals(_ts1.subSeries(start, false, end, false), _source.getHistoricalTimeSeries(UID1, start, false, end, false).getTimeSeries());
+    assertEquals(_ts1.subSeries(start, true, LocalDate.MAX, true), _source.getHistoricalTimeSeries(UID1, start, true, null, true).getTimeSeries());
+    assertEquals(_ts1.subSeries(LocalDate.MIN, true, end, true), _source.getHistoricalTimeSeries(UID1, null, true, end, true).getTimeSeries());
+  }
+
+  public void test_getByUniqueId_maxPoints() {
+    LocalDate start = LocalDate.of(2013, 6, 4);
+    assertEquals(_ts1.subSeries(start, true, LocalDate.MAX, true).head(3), _source.getHistoricalTimeSeries(UID1, start, true, null, true, 3).getTimeSeries());
+    assertEquals(_ts1.tail(2), _source.getHistoricalTimeSeries(UID1, null, true, null, true, -2).getTimeSeries());
+    assertEquals(_ts1, _source.getHistoricalTimeSeries(UID1, null, true, null, true, 100).getTimeSeries());
+    HistoricalTimeSeries none = _source.getHistoricalTimeSeries(UID1, null, true, null, true, 0);
+    assertEquals(UID1, none.getUniqueId());
+    assertEquals(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES, none.getTimeSeries());
+    assertEquals(0, _source.getHistoricalTimeSeries(BUNDLE1, "SOURCE", "PROVIDER", "CLOSE", null, true, null, true, 0).getTimeSeries().size());
+  }
+
+  public void test_getLatestDataPoint() {
+    Pair<LocalDate, Double> latest = _source.getLatestDataPoint(UID2);
+    assertEquals(_ts2.getLatestTime(), latest.getFirst());
+    assertEquals(_ts2.getLatestValue(), latest.getSecond());
+    assertNull(_source.getLatestDataPoint(UID3));
+  }
+
+  public void test_getByExternalIds() {
+    assertEquals(UID1, _source.getHistoricalTimeSeries(ExternalIdBundle.of(ExternalId.of("B", "1")), "SOURCE", "PROVIDER", "CLOSE").getUniqueId());
+    assertEquals(UID3, _source.getHistoricalTimeSeries(BUNDLE2, null, null, "VOLUME").getUniqueId());
+    assertNull(_source.getHistoricalTimeSeries(BUNDLE2, "OTHER", null, "CLOSE"));
+    assertEquals(UID2, _source.getHistoricalTimeSeries("CLOSE", BUNDLE2, null).getUniqueId());
+    assertNull(_source.getHistoricalTimeSeries("OPEN", BUNDLE2, null));
+  }
+
+  public void test_getBulk() {
+    ExternalIdBundle missing = ExternalIdBundle.of(ExternalId.of("A", "3"));
+    Map<ExternalIdBundle, HistoricalTimeSeries> result = _source.getHistoricalTimeSeries(
+        ImmutableSet.of(BUNDLE1, BUNDLE2, missing), "SOURCE", "PROVIDER", "CLOSE", null, true, null, true);
+    assertEquals(3, result.size());
+    assertEquals(_ts1, result.get(BUNDLE1).getTimeSeries());
+    assertEquals(_ts2, result.get(BUNDLE2).getTimeSeries());
+    assertTrue(result.containsKey(missing));
+    assertNull(result.get(missing));
+  }
+
+  public void test_rebuildWhileMapped() {
+    File directory = new File(System.getProperty("java.io.tmpdir"), "MappedHistoricalTimeSeriesSourceTest-" + System.nanoTime());
+    try {
+      try (MappedHistoricalTimeSeriesStoreWriter writer = new MappedHistoricalTimeSeriesStoreWriter(directory)) {
+        writer.add(UID1, BUNDLE1, null, null, null, _ts1);
+        writer.commit();
+      }
+      MappedHistoricalTimeSeriesStore original = new MappedHistoricalTimeSeriesStore(directory);
+      try (MappedHistoricalTimeSeriesStoreWriter writer = new MappedHistoricalTimeSeriesStoreWriter(directory)) {
+        writer.add(UID1, BUNDLE1, null, null, null, _ts2);
+        writer.commit();
+      }
+      assertEquals(_ts1, original.getTimeSeries(original.get(UID1.getObjectId())));
+      MappedHistoricalTimeSeriesStore rebuilt = new MappedHistoricalTimeSeriesStore(directory);
+      assertEquals(_ts2, rebuilt.getTimeSeries(rebuilt.get(UID1.getObjectId())));
+    } finally {
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  public void test_closeWithoutCommit() {
+    File directory = new File(System.getProperty("java.io.tmpdir"), "MappedHistoricalTimeSeriesSourceTest-" + System.nanoTime());
+    try {
+      try (MappedHistoricalTimeSeriesStoreWriter writer = new MappedHistoricalTimeSeriesStoreWriter(directory)) {
+        writer.add(UID1, BUNDLE1, null, null, null, _ts1);
+        writer.commit();
+      }
+      // a load that fails before the commit leaves the previous store in place
+      try (MappedHistoricalTimeSeriesStoreWriter writer = new MappedHistoricalTimeSeriesStoreWriter(directory)) {
+        writer.add(UID2, BUNDLE2, null, null, null, _ts2);
+      }
+      assertEquals(2, directory.listFiles().length);
+      MappedHistoricalTimeSeriesStore store = new MappedHistoricalTimeSeriesStore(directory);
+      assertEquals(1, store.size());
+      assertEquals(_ts1, store.getTimeSeries(store.get(UID1.getObjectId())));
+    } finally {
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void test_addAfterCommit() {
+    File directory = new File(System.getProperty("java.io.tmpdir"), "MappedHistoricalTimeSeriesSourceTest-" + System.nanoTime());
+    try {
+      try (MappedHistoricalTimeSeriesStoreWriter writer = new MappedHistoricalTimeSeriesStoreWriter(directory)) {
+        writer.commit();
+        writer.add(UID1, BUNDLE1, null, null, null, _ts1);
+      }
+    } finally {
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+}
@@ -5,6 +5,7 @@
  */
 package com.opengamma.financial;
 
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurveBuilder;
 import com.opengamma.core.config.ConfigSource;
 import com.opengamma.core.exchange.ExchangeSource;
 import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
@@ -13,6 +14,7 @@ import com.opengamma.core.organization.OrganizationSource;
 import com.opengamma.core.region.RegionSource;
 import com.opengamma.core.security.SecuritySource;
 import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.financial.analytics.conversion.InstrumentConversionCache;
 import com.opengamma.financial.analytics.ircurve.InterpolatedYieldCurveDefinitionSource;
 import com.opengamma.financial.analytics.ircurve.InterpolatedYieldCurveSpecificationBuilder;
 import com.opengamma.financial.analytics.ircurve.calcconfig.CurveCalculationConfigSource;
@@ -114,6 +116,16 @@ public final class OpenGammaCompilationContext {
    * The name under which an instance of {@link PnLRequirementsGatherer} should be bound.
    */
   public static final String PNL_REQUIREMENTS_GATHERER_NAME = "pnlRequirementsGatherer";
+  /**
+   * The name under which an instance of {@link ISDACompliantCreditCurveBuilder} should be bound. The credit functions share the builder, so
+   * that a caching builder can reuse the calibrated curves across trades and cycles.
+   */
+  public static final String CREDIT_CURVE_BUILDER_NAME = "creditCurveBuilder";
+  /**
+   * The name under which an instance of {@link InstrumentConversionCache} should be bound. The fixed income functions share the cache, so
+   * that each trade or security is converted once across functions and cycles.
+   */
+  public static final String INSTRUMENT_CONVERSION_CACHE_NAME = "instrumentConversionCache";
 
   /**
    * Restricted constructor.
@@ -378,6 +390,46 @@ public final class OpenGammaCompilationContext {
     set(compilationContext, PNL_REQUIREMENTS_GATHERER_NAME, pnlRequirementsGatherer);
   }
 
+  /**
+   * Gets an {@code ISDACompliantCreditCurveBuilder} from the context.
+   *
+   * @param compilationContext the context to examine, not null
+   * @return the credit curve builder, null if not found
+   */
+  public static ISDACompliantCreditCurveBuilder getCreditCurveBuilder(final FunctionCompilationContext compilationContext) {
+    return get(compilationContext, CREDIT_CURVE_BUILDER_NAME);
+  }
+
+  /**
+   * Stores an {@code ISDACompliantCreditCurveBuilder} in the context.
+   *
+   * @param compilationContext the context to store in, not null
+   * @param creditCurveBuilder the credit curve builder to store, not null
+   */
+  public static void setCreditCurveBuilder(final FunctionCompilationContext compilationContext, final ISDACompliantCreditCurveBuilder creditCurveBuilder) {
+    set(compilationContext, CREDIT_CURVE_BUILDER_NAME, creditCurveBuilder);
+  }
+
+  /**
+   * Gets an {@code InstrumentConversionCache} from the context.
+   *
+   * @param compilationContext the context to examine, not null
+   * @return the instrument conversion cache, null if not found
+   */
+  public static InstrumentConversionCache getInstrumentConversionCache(final FunctionCompilationContext compilationContext) {
+    return get(compilationContext, INSTRUMENT_CONVERSION_CACHE_NAME);
+  }
+
+  /**
+   * Stores an {@code InstrumentConversionCache} in the context.
+   *
+   * @param compilationContext the context to store in, not null
+   * @param instrumentConversionCache the instrument conversion cache to store, not null
+   */
+  public static void setInstrumentConversionCache(final FunctionCompilationContext compilationContext, final InstrumentConversionCache instrumentConversionCache) {
+    set(compilationContext, INSTRUMENT_CONVERSION_CACHE_NAME, instrumentConversionCache);
+  }
+
   /**
    * @deprecated [PLAT-2782] interim measure to request data via function inputs, or targets
    */
@@ -5,6 +5,8 @@
  */
 package com.opengamma.financial;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.core.config.ConfigSource;
 import com.opengamma.core.exchange.ExchangeSource;
 import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
@@ -98,6 +100,12 @@ public final class OpenGammaExecutionContext {
    */
   public static final String VIEW_PROCESSOR_NAME = "viewProcessor";
 
+  /**
+   * The name under which a {@link ForkJoinPool} should be bound. Functions may use the pool to split their own work, such as batches of
+   * independent calibrations, and should fall back to the calling thread when it is not bound.
+   */
+  public static final String FORK_JOIN_POOL_NAME = "forkJoinPool";
+
   private static final String CURRENCY_PAIRS_SOURCE = "currencyPairsSource";
 
   /**
@@ -347,6 +355,26 @@ public final class OpenGammaExecutionContext {
     context.put(VIEW_PROCESSOR_NAME, viewProcessor);
   }
 
+  /**
+   * Gets a {@code ForkJoinPool} from the context.
+   * 
+   * @param context the context to examine, not null
+   * @return the value, null if not found
+   */
+  public static ForkJoinPool getForkJoinPool(final FunctionExecutionContext context) {
+    return (ForkJoinPool) context.get(FORK_JOIN_POOL_NAME);
+  }
+
+  /**
+   * Stores a {@code ForkJoinPool} in the context.
+   * 
+   * @param context the context to store in, modified, not null
+   * @param pool the value to store, not null
+   */
+  public static void setForkJoinPool(final FunctionExecutionContext context, final ForkJoinPool pool) {
+    context.put(FORK_JOIN_POOL_NAME, pool);
+  }
+
   /**
    * @deprecated [PLAT-2782] interim measure to move away from direct use of a config source
    */
@@ -12,6 +12,7 @@ import com.opengamma.core.holiday.HolidaySource;
 import com.opengamma.core.id.ExternalSchemes;
 import com.opengamma.core.region.Region;
 import com.opengamma.core.region.RegionSource;
+import com.opengamma.financial.convention.CompiledCalendarCache;
 import com.opengamma.financial.convention.HolidaySourceCalendarAdapter;
 import com.opengamma.financial.convention.calendar.Calendar;
 import com.opengamma.id.ExternalId;
@@ -20,10 +21,27 @@ import com.opengamma.util.money.Currency;
 /**
  * Utilities and constants for {@code Calendar}.
  * <p>
+ * The calendars are compiled to bitsets by a shared {@link CompiledCalendarCache}, so that repeated working day checks on the same
+ * regions or currencies do not call the holiday source again. The cache subscribes to the change manager of each holiday source
+ * that provides one and discards the compiled calendars when the holidays change.
+ * <p>
  * This is a thread-safe static utility class.
  */
 public class CalendarUtils {
 
+  /**
+   * The first year compiled by the shared cache.
+   */
+  public static final int COMPILED_FIRST_YEAR = 1970;
+  /**
+   * The last year compiled by the shared cache.
+   */
+  public static final int COMPILED_LAST_YEAR = 2100;
+  /**
+   * The shared cache of compiled calendars.
+   */
+  private static final CompiledCalendarCache s_compiledCalendars = new CompiledCalendarCache(COMPILED_FIRST_YEAR, COMPILED_LAST_YEAR);
+
   /**
    * Restricted constructor.
    */
@@ -32,6 +50,15 @@ public class CalendarUtils {
   }
 
   //-------------------------------------------------------------------------
+  /**
+   * Gets the shared cache of compiled calendars.
+   *
+   * @return the cache, not null
+   */
+  public static CompiledCalendarCache getCompiledCalendarCache() {
+    return s_compiledCalendars;
+  }
+
   public static Calendar getCalendar(final RegionSource regionSource, final HolidaySource holidaySource,
       final ExternalId regionId) {
     if (regionId.isScheme(ExternalSchemes.FINANCIAL) && regionId.getValue().contains("+")) {
@@ -40,14 +67,14 @@ public class CalendarUtils {
       for (final String region : regions) {
         resultRegions.add(regionSource.getHighestLevelRegion(ExternalSchemes.financialRegionId(region)));
       }
-      return new HolidaySourceCalendarAdapter(holidaySource, resultRegions.toArray(new Region[] {}));
+      return s_compiledCalendars.getCompiledCalendar(new HolidaySourceCalendarAdapter(holidaySource, resultRegions.toArray(new Region[] {})));
     }
     final Region region = regionSource.getHighestLevelRegion(regionId); // we've checked that they are the same.
-    return new HolidaySourceCalendarAdapter(holidaySource, region);
+    return s_compiledCalendars.getCompiledCalendar(new HolidaySourceCalendarAdapter(holidaySource, region));
   }
 
   public static Calendar getCalendar(final HolidaySource holidaySource, final Currency... currencies) {
-    return new HolidaySourceCalendarAdapter(holidaySource, currencies);
+    return s_compiledCalendars.getCompiledCalendar(new HolidaySourceCalendarAdapter(holidaySource, currencies));
   }
 
 }
@@ -0,0 +1,358 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.analytics.conversion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZonedDateTime;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.opengamma.analytics.financial.instrument.InstrumentDefinition;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeListener;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeProvider;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeries;
+import com.opengamma.core.position.Trade;
+import com.opengamma.core.security.Security;
+import com.opengamma.core.security.SecuritySource;
+import com.opengamma.core.value.MarketDataRequirementNames;
+import com.opengamma.financial.analytics.timeseries.HistoricalTimeSeriesBundle;
+import com.opengamma.financial.security.FinancialSecurity;
+import com.opengamma.financial.security.FinancialSecurityVisitor;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Cache of the conversions of trades and securities to {@link InstrumentDefinition} and of these definitions to {@link InstrumentDerivative},
+ * reused from one calculation cycle to the next.
+ * <p>
+ * A definition is cached against the versioned unique identifiers of the trade and of its security: a new version of either is converted
+ * again, and only the latest version of an object is kept. Targets without a versioned unique identifier are always converted.
+ * <p>
+ * The derivative is cached against the definition, the valuation time and the state of the fixing series used by the conversion: the
+ * identifier, the size and the latest point of each {@link MarketDataRequirementNames#MARKET_VALUE} series of the time series bundle.
+ * The derivative is converted again when the valuation time changes or when a new fixing is published for the instrument, and is
+ * otherwise reused by the cycles that value the instrument at the same time.
+ * <p>
+ * One instance is created by the engine and bound in the function compilation context, so that the functions using it share the
+ * conversions. The number of trades and securities cached is bounded, the least recently used being discarded first.
+ * The cached conversions must always come from equivalent converters. The definitions also depend on the holidays, regions and conventions.
+ * The cache subscribes to the change managers of these sources, and any change discards all the conversions. It subscribes separately to
+ * the security source, a security change only discarding the conversions of that security and of the trades in it.
+ * {@link #shutdown()} removes the subscriptions.
+ * <p>
+ * This class is thread-safe.
+ */
+public class InstrumentConversionCache implements ChangeListener {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(InstrumentConversionCache.class);
+  /**
+   * The default maximum number of trades and securities cached.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+  /**
+   * A cache that keeps no conversions, for functions that have no shared cache in their compilation context.
+   */
+  public static final InstrumentConversionCache NONE = new InstrumentConversionCache(0);
+
+  /**
+   * The conversions, keyed by object identifier of the trade or security.
+   */
+  private final Cache<ObjectId, Entry> _entries;
+  /**
+   * The change managers of the sources that discard all the conversions.
+   */
+  private final Set<ChangeManager> _subscriptions = Collections.newSetFromMap(new ConcurrentHashMap<ChangeManager, Boolean>());
+  /**
+   * The change managers of the security sources.
+   */
+  private final Set<ChangeManager> _securitySubscriptions = Collections.newSetFromMap(new ConcurrentHashMap<ChangeManager, Boolean>());
+  /**
+   * The listener discarding the conversions of changed securities.
+   */
+  private final ChangeListener _securityListener = new ChangeListener() {
+    @Override
+    public void entityChanged(final ChangeEvent event) {
+      invalidate(event.getObjectId());
+    }
+  };
+
+  /**
+   * Creates an instance with the default maximum size.
+   */
+  public InstrumentConversionCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param maximumSize  the maximum number of trades and securities cached, zero to cache nothing
+   */
+  public InstrumentConversionCache(final int maximumSize) {
+    ArgumentChecker.notNegative(maximumSize, "maximumSize");
+    _entries = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  /**
+   * Subscribes to the changes of a security source.
+   * <p>
+   * A change to a security discards the conversions of that security and of the trades in it.
+   * This has no effect if the cache is already subscribed to the change manager of the source, or if this is {@link #NONE}.
+   *
+   * @param securitySource  the security source, null ignored
+   */
+  public void subscribeSecurities(final SecuritySource securitySource) {
+    if (securitySource == null || this == NONE) {
+      return;
+    }
+    final ChangeManager changeManager = securitySource.changeManager();
+    if (_securitySubscriptions.add(changeManager)) {
+      changeManager.addChangeListener(_securityListener);
+    }
+  }
+
+  /**
+   * Subscribes to the changes of a source of the conversions, such as a holiday, region or convention source, if it provides them.
+   * <p>
+   * Any change discards all the conversions.
+   * This has no effect if the source is not a {@link ChangeProvider}, if the cache is already subscribed to its change manager or if this is {@link #NONE}.
+   *
+   * @param source  the source, null ignored
+   */
+  public void subscribe(final Object source) {
+    if (source instanceof ChangeProvider && this != NONE) {
+      final ChangeManager changeManager = ((ChangeProvider) source).changeManager();
+      if (_subscriptions.add(changeManager)) {
+        changeManager.addChangeListener(this);
+      }
+    }
+  }
+
+  /**
+   * Returns the definition of a trade, converting it if the trade or its security have changed.
+   *
+   * @param trade  the trade, not null
+   * @param converter  the trade converter, not null
+   * @return the definition
+   */
+  public InstrumentDefinition<?> getDefinition(final Trade trade, final TradeConverter converter) {
+    ArgumentChecker.notNull(trade, "trade");
+    ArgumentChecker.notNull(converter, "converter");
+    final UniqueId tradeId = trade.getUniqueId();
+    final UniqueId securityId = trade.getSecurity().getUniqueId();
+    if (!isVersioned(tradeId) || !isVersioned(securityId)) {
+      return converter.convert(trade);
+    }
+    final Entry entry = _entries.getIfPresent(tradeId.getObjectId());
+    if (entry != null && entry.matches(tradeId, securityId)) {
+      return entry._definition;
+    }
+    final InstrumentDefinition<?> definition = converter.convert(trade);
+    store(tradeId, securityId, definition);
+    return definition;
+  }
+
+  /**
+   * Returns the definition of a security, converting it if the security has changed.
+   *
+   * @param security  the security, not null
+   * @param converter  the security converter, not null
+   * @return the definition
+   */
+  public InstrumentDefinition<?> getDefinition(final FinancialSecurity security, final FinancialSecurityVisitor<InstrumentDefinition<?>> converter) {
+    ArgumentChecker.notNull(security, "security");
+    ArgumentChecker.notNull(converter, "converter");
+    final UniqueId securityId = security.getUniqueId();
+    if (!isVersioned(securityId)) {
+      return security.accept(converter);
+    }
+    final Entry entry = _entries.getIfPresent(securityId.getObjectId());
+    if (entry != null && entry.matches(securityId, securityId)) {
+      return entry._definition;
+    }
+    final InstrumentDefinition<?> definition = security.accept(converter);
+    store(securityId, securityId, definition);
+    return definition;
+  }
+
+  /**
+   * Returns the derivative of a definition, converting it if the definition, the valuation time or the fixings have changed.
+   * The definition must have been returned by this cache for the derivative to be cached.
+   *
+   * @param target  the trade or security whose definition is converted, not null
+   * @param security  the security, not null
+   * @param definition  the definition, not null
+   * @param now  the valuation time, not null
+   * @param timeSeries  the fixing time series, may be null
+   * @param converter  the definition converter, not null
+   * @return the derivative
+   */
+  public InstrumentDerivative getDerivative(final UniqueId target, final Security security, final InstrumentDefinition<?> definition, final ZonedDateTime now,
+      final HistoricalTimeSeriesBundle timeSeries, final FixedIncomeConverterDataProvider converter) {
+    ArgumentChecker.notNull(security, "security");
+    ArgumentChecker.notNull(definition, "definition");
+    ArgumentChecker.notNull(now, "now");
+    ArgumentChecker.notNull(converter, "converter");
+    final Entry entry = isVersioned(target) ? _entries.getIfPresent(target.getObjectId()) : null;
+    if (entry == null || entry._definition != definition) {
+      return converter.convert(security, definition, now, timeSeries);
+    }
+    final List<Object> fixings = getFixingState(timeSeries);
+    final Derivative cached = entry._derivative;
+    if (cached != null && cached._now.equals(now) && cached._fixings.equals(fixings)) {
+      return cached._derivative;
+    }
+    final InstrumentDerivative derivative = converter.convert(security, definition, now, timeSeries);
+    entry._derivative = new Derivative(now, fixings, derivative);
+    return derivative;
+  }
+
+  /**
+   * Discards all the conversions.
+   */
+  public void invalidate() {
+    _entries.invalidateAll();
+  }
+
+  /**
+   * Discards the conversions of a trade or security and of the trades in a security.
+   *
+   * @param objectId  the object identifier of the trade or security, not null
+   */
+  public void invalidate(final ObjectId objectId) {
+    ArgumentChecker.notNull(objectId, "objectId");
+    _entries.invalidate(objectId);
+    final Iterator<Entry> iterator = _entries.asMap().values().iterator();
+    while (iterator.hasNext()) {
+      if (objectId.equals(iterator.next()._securityId.getObjectId())) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of cached definitions.
+   *
+   * @return the number of definitions
+   */
+  public int size() {
+    return (int) _entries.size();
+  }
+
+  /**
+   * Removes the subscriptions to the change managers and discards all the conversions.
+   */
+  public void shutdown() {
+    for (final ChangeManager changeManager : _subscriptions) {
+      changeManager.removeChangeListener(this);
+    }
+    _subscriptions.clear();
+    for (final ChangeManager changeManager : _securitySubscriptions) {
+      changeManager.removeChangeListener(_securityListener);
+    }
+    _securitySubscriptions.clear();
+    invalidate();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Discards all the conversions when a source of the conversions changes.
+   *
+   * @param event  the change event
+   */
+  @Override
+  public void entityChanged(final ChangeEvent event) {
+    s_logger.debug("{} changed, discarding {} instrument conversions", event.getObjectId(), _entries.size());
+    invalidate();
+  }
+
+  //-------------------------------------------------------------------------
+  private void store(final UniqueId targetId, final UniqueId securityId, final InstrumentDefinition<?> definition) {
+    if (definition != null) {
+      _entries.put(targetId.getObjectId(), new Entry(targetId, securityId, definition));
+    }
+  }
+
+  private static boolean isVersioned(final UniqueId uniqueId) {
+    return uniqueId != null && uniqueId.isVersioned();
+  }
+
+  /**
+   * Gets the state of the fixing series: the identifier, size, latest date and latest value of each series, in the bundle order.
+   *
+   * @param timeSeries  the time series, may be null
+   * @return the state, not null
+   */
+  private static List<Object> getFixingState(final HistoricalTimeSeriesBundle timeSeries) {
+    if (timeSeries == null) {
+      return Collections.emptyList();
+    }
+    final List<Object> state = new ArrayList<>();
+    final Iterator<HistoricalTimeSeries> iterator = timeSeries.iterator(MarketDataRequirementNames.MARKET_VALUE);
+    while (iterator.hasNext()) {
+      final HistoricalTimeSeries series = iterator.next();
+      final LocalDateDoubleTimeSeries ts = series.getTimeSeries();
+      state.add(series.getUniqueId());
+      state.add(ts.size());
+      if (!ts.isEmpty()) {
+        state.add(ts.getLatestTimeFast());
+        state.add(ts.getLatestValueFast());
+      }
+    }
+    return state;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The conversions of one version of a trade or security.
+   */
+  private static final class Entry {
+    private final UniqueId _targetId;
+    private final UniqueId _securityId;
+    private final InstrumentDefinition<?> _definition;
+    private volatile Derivative _derivative;
+
+    private Entry(final UniqueId targetId, final UniqueId securityId, final InstrumentDefinition<?> definition) {
+      _targetId = targetId;
+      _securityId = securityId;
+      _definition = definition;
+    }
+
+    private boolean matches(final UniqueId targetId, final UniqueId securityId) {
+      return _targetId.equals(targetId) && _securityId.equals(securityId);
+    }
+  }
+
+  /**
+   * A derivative with the valuation time and fixings it was converted with.
+   */
+  private static final class Derivative {
+    private final ZonedDateTime _now;
+    private final List<Object> _fixings;
+    private final InstrumentDerivative _derivative;
+
+    private Derivative(final ZonedDateTime now, final List<Object> fixings, final InstrumentDerivative derivative) {
+      _now = now;
+      _fixings = fixings;
+      _derivative = derivative;
+    }
+  }
+
+}
@@ -9,6 +9,11 @@ import org.threeten.bp.LocalDate;
 import org.threeten.bp.Period;
 import org.threeten.bp.ZonedDateTime;
 
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.FastCreditCurveBuilder;
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurveBuilder;
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.SpreadSensitivityCalculator;
+import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.financial.OpenGammaCompilationContext;
 import com.opengamma.util.time.Tenor;
 
 /**
@@ -16,6 +21,26 @@ import com.opengamma.util.time.Tenor;
  */
 public class CreditFunctionUtils {
 
+  /**
+   * Gets the credit curve builder shared by the credit functions from the compilation context.
+   * A builder that does not memoise its curves is returned if none is bound.
+   * @param context The compilation context, not null
+   * @return The credit curve builder, not null
+   */
+  public static ISDACompliantCreditCurveBuilder getCreditCurveBuilder(final FunctionCompilationContext context) {
+    final ISDACompliantCreditCurveBuilder builder = OpenGammaCompilationContext.getCreditCurveBuilder(context);
+    return builder != null ? builder : new FastCreditCurveBuilder();
+  }
+
+  /**
+   * Gets a spread sensitivity calculator that calibrates its base and bumped curves with the shared credit curve builder.
+   * @param context The compilation context, not null
+   * @return The spread sensitivity calculator, not null
+   */
+  public static SpreadSensitivityCalculator getSpreadSensitivityCalculator(final FunctionCompilationContext context) {
+    return new SpreadSensitivityCalculator(getCreditCurveBuilder(context), false);
+  }
+
   @SuppressWarnings("rawtypes")
   public static Tenor[] getTenors(final Comparable[] xs) {
     final Tenor[] tenors = new Tenor[xs.length];
@@ -22,8 +22,8 @@ import com.opengamma.analytics.financial.credit.calibratehazardratecurve.ISDAHaz
 import com.opengamma.analytics.financial.credit.creditdefaultswap.definition.legacy.LegacyVanillaCreditDefaultSwapDefinition;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.CDSAnalytic;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.CDSAnalyticFactory;
-import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.FastCreditCurveBuilder;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurve;
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurveBuilder;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantYieldCurve;
 import com.opengamma.analytics.financial.credit.hazardratecurve.HazardRateCurve;
 import com.opengamma.analytics.financial.credit.isdayieldcurve.ISDADateCurve;
@@ -74,7 +74,12 @@ import com.opengamma.util.time.Tenor;
 public class ISDACDSHazardRateCurveFunction extends ISDAHazardRateCurveFunction {
   private static final BusinessDayConvention FOLLOWING = BusinessDayConventionFactory.INSTANCE.getBusinessDayConvention("Following");
   private static final ISDAHazardRateCurveCalculator CALCULATOR = new ISDAHazardRateCurveCalculator();
-  private static final FastCreditCurveBuilder CREDIT_CURVE_BUILDER = new FastCreditCurveBuilder();
+  private ISDACompliantCreditCurveBuilder _creditCurveBuilder;
+
+  @Override
+  public void init(final FunctionCompilationContext context) {
+    _creditCurveBuilder = CreditFunctionUtils.getCreditCurveBuilder(context);
+  }
 
   @Override
   public Set<ComputedValue> execute(final FunctionExecutionContext executionContext, final FunctionInputs inputs, final ComputationTarget target,
@@ -137,9 +142,9 @@ public class ISDACDSHazardRateCurveFunction extends ISDAHazardRateCurveFunction
     final ISDACompliantCreditCurve curve;
 
     if (IMMDateGenerator.isIMMDate(cds.getMaturityDate())) {
-      curve = CREDIT_CURVE_BUILDER.calibrateCreditCurve(pricingCDS, spread, yieldCurve);
+      curve = _creditCurveBuilder.calibrateCreditCurve(pricingCDS, spread, yieldCurve);
     } else {
-      curve = CREDIT_CURVE_BUILDER.calibrateCreditCurve(creditAnalytics, marketSpreads, yieldCurve);
+      curve = _creditCurveBuilder.calibrateCreditCurve(creditAnalytics, marketSpreads, yieldCurve);
     }
     final ValueSpecification spec = new ValueSpecification(ValueRequirementNames.HAZARD_RATE_CURVE, target.toSpecification(), properties);
     return Collections.singleton(new ComputedValue(spec, curve));
@@ -40,6 +40,7 @@ import com.opengamma.engine.value.ValueRequirementNames;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.financial.OpenGammaCompilationContext;
 import com.opengamma.financial.analytics.LocalDateLabelledMatrix1D;
+import com.opengamma.financial.analytics.model.credit.CreditFunctionUtils;
 import com.opengamma.financial.analytics.model.credit.CreditInstrumentPropertyNamesAndValues;
 import com.opengamma.financial.analytics.model.credit.CreditSecurityToIdentifierVisitor;
 import com.opengamma.financial.security.FinancialSecurity;
@@ -48,12 +49,17 @@ import com.opengamma.financial.security.FinancialSecurity;
  * 
  */
 public class StandardVanillaBucketedCS01CDSFunction extends StandardVanillaCS01CDSFunction {
-  private static final SpreadSensitivityCalculator CALCULATOR = new SpreadSensitivityCalculator();
+  private SpreadSensitivityCalculator _calculator;
 
   public StandardVanillaBucketedCS01CDSFunction() {
     super(ValueRequirementNames.BUCKETED_CS01);
   }
 
+  @Override
+  public void init(final FunctionCompilationContext context) {
+    _calculator = CreditFunctionUtils.getSpreadSensitivityCalculator(context);
+  }
+
   @Override
   protected Set<ComputedValue> getComputedValue(final CreditDefaultSwapDefinition definition,
                                                 final ISDACompliantYieldCurve yieldCurve,
@@ -66,12 +72,12 @@ public class StandardVanillaBucketedCS01CDSFunction extends StandardVanillaCS01C
                                                 ISDACompliantCreditCurve hazardCurve, CDSAnalytic analytic) {
     //TODO: bump type
     Double bump = Double.valueOf(Iterables.getOnlyElement(properties.getValues(CreditInstrumentPropertyNamesAndValues.PROPERTY_SPREAD_CURVE_BUMP)));
-    final LocalDateLabelledMatrix1D cs01Matrix = getBucketedCS01(definition, yieldCurve, times, hazardCurve, analytic, bump * 1e-4);
+    final LocalDateLabelledMatrix1D cs01Matrix = getBucketedCS01(_calculator, definition, yieldCurve, times, hazardCurve, analytic, bump * 1e-4);
     final ValueSpecification spec = new ValueSpecification(ValueRequirementNames.BUCKETED_CS01, target.toSpecification(), properties);
     return Collections.singleton(new ComputedValue(spec, cs01Matrix));
   }
 
-  public static LocalDateLabelledMatrix1D getBucketedCS01(CreditDefaultSwapDefinition definition,
+  public static LocalDateLabelledMatrix1D getBucketedCS01(SpreadSensitivityCalculator calculator, CreditDefaultSwapDefinition definition,
                                                     ISDACompliantYieldCurve yieldCurve,
                                                     ZonedDateTime[] times,
                                                     ISDACompliantCreditCurve hazardCurve, CDSAnalytic analytic, double bump) {
@@ -89,10 +95,10 @@ public class StandardVanillaBucketedCS01CDSFunction extends StandardVanillaCS01C
     double[] cs01Values;
     if (definition instanceof StandardCreditDefaultSwapDefinition) {
       StandardCreditDefaultSwapDefinition cds = (StandardCreditDefaultSwapDefinition) definition;
-      cs01Values = CALCULATOR.bucketedCS01FromCreditCurve(analytic, getCoupon(definition), buckets, yieldCurve, hazardCurve, bump);
+      cs01Values = calculator.bucketedCS01FromCreditCurve(analytic, getCoupon(definition), buckets, yieldCurve, hazardCurve, bump);
     } else if (definition instanceof LegacyCreditDefaultSwapDefinition) {
       LegacyCreditDefaultSwapDefinition cds = (LegacyCreditDefaultSwapDefinition) definition;
-      cs01Values = CALCULATOR.bucketedCS01FromCreditCurve(analytic, getCoupon(definition), buckets, yieldCurve, hazardCurve, bump);
+      cs01Values = calculator.bucketedCS01FromCreditCurve(analytic, getCoupon(definition), buckets, yieldCurve, hazardCurve, bump);
     } else {
       throw new OpenGammaRuntimeException("Unknown cds type " + definition.getClass().getSimpleName());
     }
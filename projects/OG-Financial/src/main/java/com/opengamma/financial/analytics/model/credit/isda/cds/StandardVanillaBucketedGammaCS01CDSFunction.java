@@ -28,7 +28,6 @@ import com.opengamma.analytics.financial.credit.creditdefaultswap.definition.van
 import com.opengamma.analytics.financial.credit.creditdefaultswap.greeks.vanilla.isda.ISDACreditDefaultSwapBucketedGammaCS01Calculator;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.CDSAnalytic;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.CDSAnalyticFactory;
-import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.FastCreditCurveBuilder;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurve;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurveBuilder;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantYieldCurve;
@@ -43,6 +42,7 @@ import com.opengamma.engine.value.ValueRequirementNames;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.financial.OpenGammaCompilationContext;
 import com.opengamma.financial.analytics.LocalDateLabelledMatrix1D;
+import com.opengamma.financial.analytics.model.credit.CreditFunctionUtils;
 import com.opengamma.financial.analytics.model.credit.CreditInstrumentPropertyNamesAndValues;
 import com.opengamma.financial.analytics.model.credit.CreditSecurityToIdentifierVisitor;
 import com.opengamma.financial.security.FinancialSecurity;
@@ -53,12 +53,17 @@ import com.opengamma.financial.security.FinancialSecurity;
 public class StandardVanillaBucketedGammaCS01CDSFunction extends StandardVanillaCS01CDSFunction {
   private static final ISDACreditDefaultSwapBucketedGammaCS01Calculator CALCULATOR = new ISDACreditDefaultSwapBucketedGammaCS01Calculator();
   private static final CreditSpreadBumpersNew SPREAD_BUMPER = new CreditSpreadBumpersNew();
-  private static ISDACompliantCreditCurveBuilder CURVE_BUILDER = new FastCreditCurveBuilder();
+  private ISDACompliantCreditCurveBuilder _curveBuilder;
 
   public StandardVanillaBucketedGammaCS01CDSFunction() {
     super(ValueRequirementNames.BUCKETED_GAMMA_CS01);
   }
 
+  @Override
+  public void init(final FunctionCompilationContext context) {
+    _curveBuilder = CreditFunctionUtils.getCreditCurveBuilder(context);
+  }
+
   @Override
   protected Set<ComputedValue> getComputedValue(final CreditDefaultSwapDefinition definition,
                                                 final ISDACompliantYieldCurve yieldCurve,
@@ -74,7 +79,8 @@ public class StandardVanillaBucketedGammaCS01CDSFunction extends StandardVanilla
     //final PriceType priceType = PriceType.valueOf(Iterables.getOnlyElement(properties.getValues(CreditInstrumentPropertyNamesAndValues.PROPERTY_CDS_PRICE_TYPE)));
     final double[] gammaCS01 = new double[marketSpreads.length];
     final LocalDate[] dates = new LocalDate[marketSpreads.length];
-    bucketedGammaCS01(definition,
+    bucketedGammaCS01(_curveBuilder,
+                      definition,
                       yieldCurve,
                       times,
                       marketSpreads,
@@ -89,7 +95,8 @@ public class StandardVanillaBucketedGammaCS01CDSFunction extends StandardVanilla
     return Collections.singleton(new ComputedValue(spec, cs01Matrix));
   }
 
-  public static void bucketedGammaCS01(CreditDefaultSwapDefinition definition,
+  public static void bucketedGammaCS01(ISDACompliantCreditCurveBuilder curveBuilder,
+                                 CreditDefaultSwapDefinition definition,
                                  ISDACompliantYieldCurve yieldCurve,
                                  ZonedDateTime[] times,
                                  double[] marketSpreads,
@@ -112,8 +119,8 @@ public class StandardVanillaBucketedGammaCS01CDSFunction extends StandardVanilla
     for (int i = 0; i < times.length; i++) {
       final double[] bumpedUpRates = SPREAD_BUMPER.getBumpedCreditSpreads(marketSpreads, i, spreadCurveBump * 1e-4, spreadBumpType);
       final double[] bumpedDownRates = SPREAD_BUMPER.getBumpedCreditSpreads(marketSpreads, i, -spreadCurveBump * 1e-4, spreadBumpType);
-      final ISDACompliantCreditCurve bumpedUpCreditCurve = CURVE_BUILDER.calibrateCreditCurve(buckets, bumpedUpRates, yieldCurve);
-      final ISDACompliantCreditCurve bumpedDownCreditCurve = CURVE_BUILDER.calibrateCreditCurve(buckets, bumpedDownRates, yieldCurve);
+      final ISDACompliantCreditCurve bumpedUpCreditCurve = curveBuilder.calibrateCreditCurve(buckets, bumpedUpRates, yieldCurve);
+      final ISDACompliantCreditCurve bumpedDownCreditCurve = curveBuilder.calibrateCreditCurve(buckets, bumpedDownRates, yieldCurve);
       final double pv = StandardVanillaPresentValueCDSFunction.presentValue(definition, yieldCurve, hazardCurve, analytic);
       final double bumpedUpPresentValue = StandardVanillaPresentValueCDSFunction.presentValue(definition, yieldCurve, bumpedUpCreditCurve, analytic);
       final double bumpedDownPresentValue = StandardVanillaPresentValueCDSFunction.presentValue(definition, yieldCurve, bumpedDownCreditCurve, analytic);
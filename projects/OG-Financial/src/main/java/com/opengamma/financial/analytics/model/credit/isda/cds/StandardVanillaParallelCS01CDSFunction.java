@@ -24,23 +24,30 @@ import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanill
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.SpreadSensitivityCalculator;
 import com.opengamma.analytics.financial.model.BumpType;
 import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.function.FunctionCompilationContext;
 import com.opengamma.engine.function.FunctionInputs;
 import com.opengamma.engine.value.ComputedValue;
 import com.opengamma.engine.value.ValueProperties;
 import com.opengamma.engine.value.ValueRequirementNames;
 import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.financial.analytics.model.credit.CreditFunctionUtils;
 import com.opengamma.financial.analytics.model.credit.CreditInstrumentPropertyNamesAndValues;
 
 /**
  * 
  */
 public class StandardVanillaParallelCS01CDSFunction extends StandardVanillaCS01CDSFunction {
-  private static final SpreadSensitivityCalculator CALCULATOR = new SpreadSensitivityCalculator();
+  private SpreadSensitivityCalculator _calculator;
 
   public StandardVanillaParallelCS01CDSFunction() {
     super(ValueRequirementNames.CS01);
   }
 
+  @Override
+  public void init(final FunctionCompilationContext context) {
+    _calculator = CreditFunctionUtils.getSpreadSensitivityCalculator(context);
+  }
+
   @Override
   protected Set<ComputedValue> getComputedValue(final CreditDefaultSwapDefinition definition,
                                                 final ISDACompliantYieldCurve yieldCurve,
@@ -53,19 +60,19 @@ public class StandardVanillaParallelCS01CDSFunction extends StandardVanillaCS01C
                                                 ISDACompliantCreditCurve hazardCurve, CDSAnalytic analytic) {
     //TODO: bump type
     Double bump = Double.valueOf(Iterables.getOnlyElement(properties.getValues(CreditInstrumentPropertyNamesAndValues.PROPERTY_SPREAD_CURVE_BUMP)));
-    double cs01 = parallelCS01(definition, yieldCurve, times, marketSpreads, analytic, bump * 1e-4);
+    double cs01 = parallelCS01(_calculator, definition, yieldCurve, times, marketSpreads, analytic, bump * 1e-4);
 
     final ValueSpecification spec = new ValueSpecification(ValueRequirementNames.CS01, target.toSpecification(), properties);
     return Collections.singleton(new ComputedValue(spec, cs01));
   }
 
-  public static double parallelCS01(CreditDefaultSwapDefinition definition,
+  public static double parallelCS01(SpreadSensitivityCalculator calculator, CreditDefaultSwapDefinition definition,
                              ISDACompliantYieldCurve yieldCurve,
                              ZonedDateTime[] times, double[] marketSpreads, CDSAnalytic analytic, double fracBump) {
     double cs01;
     if (definition instanceof StandardCreditDefaultSwapDefinition) {
       StandardCreditDefaultSwapDefinition cds = (StandardCreditDefaultSwapDefinition) definition;
-      cs01 = CALCULATOR.parallelCS01(analytic, new QuotedSpread(cds.getQuotedSpread() * 1e-4, getCoupon(cds.getPremiumLegCoupon())), yieldCurve, fracBump);
+      cs01 = calculator.parallelCS01(analytic, new QuotedSpread(cds.getQuotedSpread() * 1e-4, getCoupon(cds.getPremiumLegCoupon())), yieldCurve, fracBump);
     } else if (definition instanceof LegacyCreditDefaultSwapDefinition) {
       final CDSAnalyticFactory analyticFactory = new CDSAnalyticFactory(definition.getRecoveryRate(), definition.getCouponFrequency().getPeriod())
           .with(definition.getBusinessDayAdjustmentConvention())
@@ -76,7 +83,7 @@ public class StandardVanillaParallelCS01CDSFunction extends StandardVanillaCS01C
         tenors[i] = Period.between(definition.getStartDate().toLocalDate(), times[i].toLocalDate()).withDays(0);
       }
       CDSAnalytic[] pillars = analyticFactory.makeIMMCDS(definition.getStartDate().toLocalDate(), tenors);
-      cs01 = CALCULATOR.parallelCS01FromParSpreads(analytic,
+      cs01 = calculator.parallelCS01FromParSpreads(analytic,
                                                    ((LegacyCreditDefaultSwapDefinition) definition).getParSpread() * 1e-4,
                                                    yieldCurve,
                                                    pillars,
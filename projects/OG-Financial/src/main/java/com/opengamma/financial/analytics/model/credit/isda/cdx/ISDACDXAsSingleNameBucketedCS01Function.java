@@ -40,6 +40,7 @@ import com.opengamma.engine.value.ValueRequirementNames;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.financial.OpenGammaCompilationContext;
 import com.opengamma.financial.analytics.LocalDateLabelledMatrix1D;
+import com.opengamma.financial.analytics.model.credit.CreditFunctionUtils;
 import com.opengamma.financial.analytics.model.credit.CreditInstrumentPropertyNamesAndValues;
 import com.opengamma.financial.analytics.model.credit.CreditSecurityToIdentifierVisitor;
 import com.opengamma.financial.analytics.model.credit.isda.cds.StandardVanillaBucketedCS01CDSFunction;
@@ -51,12 +52,17 @@ import com.opengamma.financial.security.FinancialSecurity;
  * 
  */
 public class ISDACDXAsSingleNameBucketedCS01Function extends ISDACDXAsSingleNameCS01Function {
-  private static final SpreadSensitivityCalculator CALCULATOR = new SpreadSensitivityCalculator();
+  private SpreadSensitivityCalculator _calculator;
 
   public ISDACDXAsSingleNameBucketedCS01Function() {
     super(ValueRequirementNames.BUCKETED_CS01);
   }
 
+  @Override
+  public void init(final FunctionCompilationContext context) {
+    _calculator = CreditFunctionUtils.getSpreadSensitivityCalculator(context);
+  }
+
   @Override
   protected Set<ComputedValue> getComputedValue(final CreditDefaultSwapDefinition definition,
                                                 final ISDACompliantYieldCurve yieldCurve,
@@ -71,7 +77,7 @@ public class ISDACDXAsSingleNameBucketedCS01Function extends ISDACDXAsSingleName
 
     //TODO: bump type
     Double bump = Double.valueOf(Iterables.getOnlyElement(properties.getValues(CreditInstrumentPropertyNamesAndValues.PROPERTY_SPREAD_CURVE_BUMP)));
-    final LocalDateLabelledMatrix1D cs01Matrix = StandardVanillaBucketedCS01CDSFunction.getBucketedCS01(definition, yieldCurve, times, hazardCurve, analytic, bump * 1e-4);
+    final LocalDateLabelledMatrix1D cs01Matrix = StandardVanillaBucketedCS01CDSFunction.getBucketedCS01(_calculator, definition, yieldCurve, times, hazardCurve, analytic, bump * 1e-4);
     final ValueSpecification spec = new ValueSpecification(ValueRequirementNames.BUCKETED_CS01, target.toSpecification(), properties);
     return Collections.singleton(new ComputedValue(spec, cs01Matrix));
   }
@@ -54,6 +54,7 @@ import com.opengamma.engine.value.ValueRequirementNames;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.financial.analytics.TenorLabelledMatrix1D;
 import com.opengamma.financial.analytics.model.cds.ISDAFunctionConstants;
+import com.opengamma.financial.analytics.model.credit.CreditFunctionUtils;
 import com.opengamma.financial.analytics.model.credit.CreditSecurityToRecoveryRateVisitor;
 import com.opengamma.financial.analytics.model.credit.SpreadCurveFunctions;
 import com.opengamma.financial.credit.CdsRecoveryRateIdentifier;
@@ -87,13 +88,14 @@ public class ISDACompliantCDSFunction extends NonCompiledInvoker {
   private RegionSource _regionSource;
   private static final PointsUpFrontConverter POINTS_UP_FRONT_CONVERTER = new PointsUpFrontConverter();
   protected static final AnalyticCDSPricer PRICER = new AnalyticCDSPricer();
-  public static final SpreadSensitivityCalculator CALCULATOR = new SpreadSensitivityCalculator();
+  private SpreadSensitivityCalculator _calculator;
 
   @Override
   public void init(final FunctionCompilationContext context) {
     // using hardcoded region and calendar for now
     _holidaySource = new WeekendHolidaySource(); //OpenGammaCompilationContext.getHolidaySource(context);
     _regionSource = new TestRegionSource(getTestRegion()); //OpenGammaCompilationContext.getRegionSource(context);
+    _calculator = CreditFunctionUtils.getSpreadSensitivityCalculator(context);
     //_converter = new CreditDefaultSwapSecurityConverterDeprecated(holidaySource, regionSource);
   }
 
@@ -368,9 +370,9 @@ public class ISDACompliantCDSFunction extends NonCompiledInvoker {
     //TODO: Check quote.getCoupon() is spread value for IMM & 0.01 (or 0.05) for non IMM
     double[] cs01Values;
     if (quote instanceof ParSpread) {
-      cs01Values = CALCULATOR.bucketedCS01FromCreditCurve(analytic, quote.getCoupon(), buckets, yieldCurve, creditCurve, ONE_BPS);
+      cs01Values = _calculator.bucketedCS01FromCreditCurve(analytic, quote.getCoupon(), buckets, yieldCurve, creditCurve, ONE_BPS);
     } else {
-      cs01Values = CALCULATOR.bucketedCS01FromCreditCurve(analytic, quote.getCoupon()/*coupon * ONE_BPS*/, buckets, yieldCurve, creditCurve, ONE_BPS);
+      cs01Values = _calculator.bucketedCS01FromCreditCurve(analytic, quote.getCoupon()/*coupon * ONE_BPS*/, buckets, yieldCurve, creditCurve, ONE_BPS);
     }
     for (int i = 0; i < cs01Values.length; i++) {
       cs01Values[i] *= notional * ONE_BPS;
@@ -381,7 +383,7 @@ public class ISDACompliantCDSFunction extends NonCompiledInvoker {
   public double getParallelCS01(CDSQuoteConvention quote, CDSAnalytic analytic, ISDACompliantYieldCurve yieldCurve, double notional, CDSAnalytic[] pillars, double[] pillarSpreads) {
     double cs01;
     if (quote instanceof ParSpread) {
-      cs01 = CALCULATOR.parallelCS01FromParSpreads(analytic,
+      cs01 = _calculator.parallelCS01FromParSpreads(analytic,
                                                quote.getCoupon(), // ParSpread
                                                yieldCurve,
                                                pillars,
@@ -389,7 +391,7 @@ public class ISDACompliantCDSFunction extends NonCompiledInvoker {
                                                ONE_BPS,
                                                BumpType.ADDITIVE);
     } else {
-      cs01 = CALCULATOR.parallelCS01(analytic, quote, yieldCurve, ONE_BPS);
+      cs01 = _calculator.parallelCS01(analytic, quote, yieldCurve, ONE_BPS);
     }
     return Double.valueOf(cs01 * notional * ONE_BPS);
   }
@@ -24,8 +24,8 @@ import com.opengamma.analytics.financial.credit.creditdefaultswap.definition.leg
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.CDSAnalytic;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.CDSAnalyticFactory;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.CDSQuoteConvention;
-import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.FastCreditCurveBuilder;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurve;
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantCreditCurveBuilder;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDACompliantYieldCurve;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ParSpread;
 import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.PointsUpFront;
@@ -54,6 +54,7 @@ import com.opengamma.engine.value.ValueRequirementNames;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.financial.analytics.conversion.CreditDefaultSwapSecurityConverterDeprecated;
 import com.opengamma.financial.analytics.model.cds.ISDAFunctionConstants;
+import com.opengamma.financial.analytics.model.credit.CreditFunctionUtils;
 import com.opengamma.financial.analytics.model.credit.CreditSecurityToRecoveryRateVisitor;
 import com.opengamma.financial.analytics.model.credit.IMMDateGenerator;
 import com.opengamma.financial.analytics.model.credit.SpreadCurveFunctions;
@@ -78,10 +79,10 @@ public class ISDACompliantCreditCurveFunction extends AbstractFunction.NonCompil
 
   /** String representation of fixed pillars used for non IMM */
   public static final String NON_IMM_PILLAR_TENORS = "P6M,P1Y,P2Y,P3Y,P4Y,P5Y,P7Y,P10Y";
-  private static final FastCreditCurveBuilder CREDIT_CURVE_BUILDER = new FastCreditCurveBuilder();
   private static final PointsUpFrontConverter POINTS_UP_FRONT_CONVERTER = new PointsUpFrontConverter();
   private HolidaySource _holidaySource;
   private RegionSource _regionSource;
+  private ISDACompliantCreditCurveBuilder _creditCurveBuilder;
 
   public static CreditCurveIdentifier getSpreadCurveIdentifier(final CreditDefaultSwapSecurity cds) {
     return getCreditCurveIdentifier(cds, "");
@@ -158,6 +159,7 @@ public class ISDACompliantCreditCurveFunction extends AbstractFunction.NonCompil
     // using hardcoded region and calendar for now
     _holidaySource = new WeekendHolidaySource(); //OpenGammaCompilationContext.getHolidaySource(context);
     _regionSource = new TestRegionSource(); //OpenGammaCompilationContext.getRegionSource(context);
+    _creditCurveBuilder = CreditFunctionUtils.getCreditCurveBuilder(context);
   }
 
   @Override
@@ -248,7 +250,7 @@ public class ISDACompliantCreditCurveFunction extends AbstractFunction.NonCompil
                                                                        recoveryRate);
         creditAnalytics[i] = security.accept(curveVisitor);
       }
-      creditCurve = CREDIT_CURVE_BUILDER.calibrateCreditCurve(pricingCDS, quotedSpread, yieldCurve);
+      creditCurve = _creditCurveBuilder.calibrateCreditCurve(pricingCDS, quotedSpread, yieldCurve);
 
     } else {
       // non IMM date - pillars set to fixed set
@@ -284,7 +286,7 @@ public class ISDACompliantCreditCurveFunction extends AbstractFunction.NonCompil
                                                                        pillarDates[i].toLocalDate(), recoveryRate);
         creditAnalytics[i] = security.accept(curveVisitor);
       }
-      creditCurve = CREDIT_CURVE_BUILDER.calibrateCreditCurve(creditAnalytics, quotes, yieldCurve);
+      creditCurve = _creditCurveBuilder.calibrateCreditCurve(creditAnalytics, quotes, yieldCurve);
     }
 
 
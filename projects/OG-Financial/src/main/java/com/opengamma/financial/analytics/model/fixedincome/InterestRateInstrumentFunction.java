@@ -42,6 +42,7 @@ import com.opengamma.financial.OpenGammaExecutionContext;
 import com.opengamma.financial.analytics.conversion.CashSecurityConverter;
 import com.opengamma.financial.analytics.conversion.FRASecurityConverterDeprecated;
 import com.opengamma.financial.analytics.conversion.FixedIncomeConverterDataProvider;
+import com.opengamma.financial.analytics.conversion.InstrumentConversionCache;
 import com.opengamma.financial.analytics.conversion.InterestRateFutureSecurityConverterDeprecated;
 import com.opengamma.financial.analytics.conversion.SwapSecurityConverterDeprecated;
 import com.opengamma.financial.analytics.conversion.SwapSecurityUtils;
@@ -77,6 +78,7 @@ public abstract class InterestRateInstrumentFunction extends AbstractFunction.No
   private FixedIncomeConverterDataProvider _definitionConverter;
   private final String _valueRequirementName;
   private FinancialSecurityVisitor<InstrumentDefinition<?>> _visitor;
+  private InstrumentConversionCache _conversionCache = InstrumentConversionCache.NONE;
 
   public InterestRateInstrumentFunction(final String valueRequirementName) {
     ArgumentChecker.notNull(valueRequirementName, "value requirement name");
@@ -96,6 +98,8 @@ public abstract class InterestRateInstrumentFunction extends AbstractFunction.No
     _visitor = FinancialSecurityVisitorAdapter.<InstrumentDefinition<?>>builder().cashSecurityVisitor(cashConverter).fraSecurityVisitor(fraConverter)
         .swapSecurityVisitor(swapConverter).interestRateFutureSecurityVisitor(irFutureConverter).create();
     _definitionConverter = new FixedIncomeConverterDataProvider(conventionSource, timeSeriesResolver);
+    final InstrumentConversionCache conversionCache = OpenGammaCompilationContext.getInstrumentConversionCache(context);
+    _conversionCache = conversionCache != null ? conversionCache : InstrumentConversionCache.NONE;
     ConfigDBCurveCalculationConfigSource.reinitOnChanges(context, this);
   }
 
@@ -124,7 +128,7 @@ public abstract class InterestRateInstrumentFunction extends AbstractFunction.No
     final String[] yieldCurveNames = numCurveNames == 1 ? new String[] {fullCurveNames[0], fullCurveNames[0] } : fullCurveNames;
     final String[] curveNamesForSecurity = FixedIncomeInstrumentCurveExposureHelper.getCurveNamesForSecurity(security, yieldCurveNames[0], yieldCurveNames[1]);
     final YieldCurveBundle bundle = YieldCurveFunctionUtils.getAllYieldCurves(inputs, curveCalculationConfig, curveCalculationConfigSource);
-    final InstrumentDefinition<?> definition = security.accept(_visitor);
+    final InstrumentDefinition<?> definition = _conversionCache.getDefinition(security, _visitor);
     if (definition == null) {
       throw new OpenGammaRuntimeException("Definition for security " + security + " was null");
     }
@@ -188,7 +192,7 @@ public abstract class InterestRateInstrumentFunction extends AbstractFunction.No
     final Set<ValueRequirement> requirements = new HashSet<>();
     requirements.addAll(YieldCurveFunctionUtils.getCurveRequirements(curveCalculationConfig, curveCalculationConfigSource));
     try {
-      final Set<ValueRequirement> timeSeriesRequirements = getDerivativeTimeSeriesRequirements(security, security.accept(_visitor), _definitionConverter);
+      final Set<ValueRequirement> timeSeriesRequirements = getDerivativeTimeSeriesRequirements(security, _conversionCache.getDefinition(security, _visitor), _definitionConverter);
       if (timeSeriesRequirements == null) {
         return null;
       }
@@ -52,6 +52,7 @@ import com.opengamma.financial.analytics.conversion.FXForwardSecurityConverter;
 import com.opengamma.financial.analytics.conversion.FederalFundsFutureTradeConverter;
 import com.opengamma.financial.analytics.conversion.FixedIncomeConverterDataProvider;
 import com.opengamma.financial.analytics.conversion.FutureTradeConverter;
+import com.opengamma.financial.analytics.conversion.InstrumentConversionCache;
 import com.opengamma.financial.analytics.conversion.NonDeliverableFXForwardSecurityConverter;
 import com.opengamma.financial.analytics.conversion.SwapSecurityConverter;
 import com.opengamma.financial.analytics.conversion.TradeConverter;
@@ -88,6 +89,8 @@ public abstract class MultiCurvePricingFunction extends AbstractFunction {
   /** The logger */
   private static final Logger s_logger = LoggerFactory.getLogger(MultiCurvePricingFunction.class);
   private final String[] _valueRequirements;
+  /** The conversions of the targets, shared with the other functions through the compilation context */
+  private InstrumentConversionCache _conversionCache = InstrumentConversionCache.NONE;
 
   /**
    * @param valueRequirements The value requirements, not null
@@ -99,6 +102,8 @@ public abstract class MultiCurvePricingFunction extends AbstractFunction {
 
   @Override
   public void init(final FunctionCompilationContext context) {
+    final InstrumentConversionCache conversionCache = OpenGammaCompilationContext.getInstrumentConversionCache(context);
+    _conversionCache = conversionCache != null ? conversionCache : InstrumentConversionCache.NONE;
     ConfigDocumentWatchSetProvider.reinitOnChanges(context, null, ExposureFunctions.class);
   }
 
@@ -144,6 +149,14 @@ public abstract class MultiCurvePricingFunction extends AbstractFunction {
     return new FixedIncomeConverterDataProvider(conventionBundleSource, timeSeriesResolver);
   }
 
+  /**
+   * Gets the cache of the conversions of the targets to definitions and derivatives.
+   * @return The cache
+   */
+  protected InstrumentConversionCache getConversionCache() {
+    return _conversionCache;
+  }
+
   /**
    * Base compiled function for all multi-curve pricing and risk functions.
    */
@@ -293,12 +306,12 @@ public abstract class MultiCurvePricingFunction extends AbstractFunction {
     }
 
     /**
-     * Gets an {@link InstrumentDefinition} given a target.
+     * Gets an {@link InstrumentDefinition} given a target. The definition is reused while the trade and its security do not change.
      * @param target The target, not null
      * @return An instrument definition
      */
     protected InstrumentDefinition<?> getDefinitionFromTarget(final ComputationTarget target) {
-      return _tradeToDefinitionConverter.convert(target.getTrade());
+      return _conversionCache.getDefinition(target.getTrade(), _tradeToDefinitionConverter);
     }
 
     /**
@@ -315,7 +328,7 @@ public abstract class MultiCurvePricingFunction extends AbstractFunction {
     }
 
     /**
-     * Gets an {@link InstrumentDerivative}.
+     * Gets an {@link InstrumentDerivative}. The derivative is reused while the definition, the valuation time and the fixings do not change.
      * @param target The target, not null
      * @param now The valuation time, not null
      * @param timeSeries The conversion time series bundle, not null but may be empty
@@ -324,7 +337,8 @@ public abstract class MultiCurvePricingFunction extends AbstractFunction {
      */
     protected InstrumentDerivative getDerivative(final ComputationTarget target, final ZonedDateTime now, final HistoricalTimeSeriesBundle timeSeries,
         final InstrumentDefinition<?> definition) {
-      return _definitionToDerivativeConverter.convert(target.getTrade().getSecurity(), definition, now, timeSeries);
+      return _conversionCache.getDerivative(target.getTrade().getUniqueId(), target.getTrade().getSecurity(), definition, now, timeSeries,
+          _definitionToDerivativeConverter);
     }
 
     /**
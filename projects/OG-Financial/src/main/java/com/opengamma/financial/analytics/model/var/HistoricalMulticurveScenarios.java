@@ -0,0 +1,270 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.analytics.model.var;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.instrument.index.IndexON;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountAddZeroSpreadCurve;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldCurve;
+import com.opengamma.analytics.financial.provider.calculator.discounting.CompiledCashFlowPortfolio;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.financial.var.EmpiricalDistributionVaRParameters;
+import com.opengamma.analytics.financial.var.HistoricalSimulationVaRCalculator;
+import com.opengamma.analytics.financial.var.HistoricalVaRCalculationResult;
+import com.opengamma.analytics.math.curve.ConstantDoublesCurve;
+import com.opengamma.analytics.math.curve.DoublesCurve;
+import com.opengamma.analytics.math.curve.InterpolatedDoublesCurve;
+import com.opengamma.analytics.math.function.Function1D;
+import com.opengamma.analytics.math.interpolation.CombinedInterpolatorExtrapolatorFactory;
+import com.opengamma.analytics.math.interpolation.Interpolator1D;
+import com.opengamma.analytics.math.interpolation.Interpolator1DFactory;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeries;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * Historical scenarios of a multi-curve provider, built from the time series of the curve node rates and of the exchange rates.
+ * <p>
+ * The series are loaded once from a {@link HistoricalTimeSeriesSource} and aligned on their common dates. The scenario of index i
+ * applies the moves between the aligned dates i and i + 1 to the base provider: the absolute change of the node rates, interpolated
+ * linearly between the node times and flat outside, is added to the zero rates of the curve with that name; the exchange rates are
+ * multiplied by the relative change of their series. The scenarios are built on demand, so that they can be revalued and discarded
+ * one at a time by the {@link HistoricalSimulationVaRCalculator}.
+ */
+public class HistoricalMulticurveScenarios {
+  /** The interpolator of the node rate changes. */
+  private static final Interpolator1D INTERPOLATOR = CombinedInterpolatorExtrapolatorFactory.getInterpolator(Interpolator1DFactory.LINEAR,
+      Interpolator1DFactory.FLAT_EXTRAPOLATOR, Interpolator1DFactory.FLAT_EXTRAPOLATOR);
+
+  private final MulticurveProviderDiscount _base;
+  private final LocalDate[] _dates;
+  private final List<CurveMoves> _curves;
+  private final List<FxMoves> _fxRates;
+
+  /**
+   * Loads the time series of the scenarios.
+   *
+   * @param base  the base multi-curve provider, not null
+   * @param source  the time series source, not null
+   * @param dataSource  the data source, not null
+   * @param dataProvider  the data provider, not null
+   * @param dataField  the data field, not null
+   * @param curveNodes  the identifiers of the node rate series of each curve, keyed by curve name then by node time, not null
+   * @param fxRates  the identifiers of the exchange rate series, keyed by currency pair, a rate being the amount of the second currency
+   *  for one unit of the first, not null
+   * @param start  the start date of the series, inclusive, not null
+   * @param end  the end date of the series, inclusive, not null
+   * @return the scenarios, not null
+   */
+  public static HistoricalMulticurveScenarios of(final MulticurveProviderDiscount base, final HistoricalTimeSeriesSource source, final String dataSource,
+      final String dataProvider, final String dataField, final Map<String, ? extends SortedMap<Double, ExternalIdBundle>> curveNodes,
+      final Map<Pair<Currency, Currency>, ExternalIdBundle> fxRates, final LocalDate start, final LocalDate end) {
+    ArgumentChecker.notNull(base, "base");
+    ArgumentChecker.notNull(source, "source");
+    ArgumentChecker.notNull(curveNodes, "curve nodes");
+    ArgumentChecker.notNull(fxRates, "FX rates");
+    ArgumentChecker.notNull(start, "start");
+    ArgumentChecker.notNull(end, "end");
+    final List<LocalDateDoubleTimeSeries> series = new ArrayList<>();
+    for (final SortedMap<Double, ExternalIdBundle> nodes : curveNodes.values()) {
+      ArgumentChecker.notEmpty(nodes, "curve nodes");
+      for (final ExternalIdBundle id : nodes.values()) {
+        series.add(load(source, id, dataSource, dataProvider, dataField, start, end));
+      }
+    }
+    for (final ExternalIdBundle id : fxRates.values()) {
+      series.add(load(source, id, dataSource, dataProvider, dataField, start, end));
+    }
+    ArgumentChecker.isTrue(series.size() > 0, "no time series");
+    LocalDateDoubleTimeSeries intersection = series.get(0);
+    for (final LocalDateDoubleTimeSeries ts : series) {
+      intersection = intersection.intersectionFirstValue(ts);
+    }
+    if (intersection.size() < 2) {
+      throw new OpenGammaRuntimeException("Fewer than two common dates in the time series between " + start + " and " + end);
+    }
+    int loopts = 0;
+    final List<CurveMoves> curves = new ArrayList<>();
+    for (final Map.Entry<String, ? extends SortedMap<Double, ExternalIdBundle>> entry : curveNodes.entrySet()) {
+      final int nbNodes = entry.getValue().size();
+      final double[] times = new double[nbNodes];
+      final double[][] rates = new double[nbNodes][];
+      int loopnode = 0;
+      for (final Double time : entry.getValue().keySet()) {
+        times[loopnode] = time;
+        rates[loopnode++] = series.get(loopts++).intersectionFirstValue(intersection).valuesArrayFast();
+      }
+      curves.add(new CurveMoves(entry.getKey(), times, rates));
+    }
+    final List<FxMoves> fx = new ArrayList<>();
+    for (final Pair<Currency, Currency> pair : fxRates.keySet()) {
+      fx.add(new FxMoves(pair.getFirst(), pair.getSecond(), series.get(loopts++).intersectionFirstValue(intersection).valuesArrayFast()));
+    }
+    return new HistoricalMulticurveScenarios(base, intersection.timesArray(), curves, fx);
+  }
+
+  private static LocalDateDoubleTimeSeries load(final HistoricalTimeSeriesSource source, final ExternalIdBundle id, final String dataSource,
+      final String dataProvider, final String dataField, final LocalDate start, final LocalDate end) {
+    final HistoricalTimeSeries hts = source.getHistoricalTimeSeries(id, dataSource, dataProvider, dataField, start, true, end, true);
+    if (hts == null) {
+      throw new OpenGammaRuntimeException("Could not get " + dataField + " time series for " + id);
+    }
+    return hts.getTimeSeries();
+  }
+
+  private HistoricalMulticurveScenarios(final MulticurveProviderDiscount base, final LocalDate[] dates, final List<CurveMoves> curves, final List<FxMoves> fxRates) {
+    _base = base;
+    _dates = dates;
+    _curves = curves;
+    _fxRates = fxRates;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of scenarios, one less than the number of aligned dates.
+   *
+   * @return the number of scenarios
+   */
+  public int getNumberOfScenarios() {
+    return _dates.length - 1;
+  }
+
+  /**
+   * Gets the date of a scenario, the end date of its moves.
+   *
+   * @param scenario  the scenario index
+   * @return the date, not null
+   */
+  public LocalDate getScenarioDate(final int scenario) {
+    ArgumentChecker.isTrue(scenario >= 0 && scenario < getNumberOfScenarios(), "scenario {} out of range", scenario);
+    return _dates[scenario + 1];
+  }
+
+  /**
+   * Builds the multi-curve provider of a scenario.
+   *
+   * @param scenario  the scenario index
+   * @return the provider, not null
+   */
+  public MulticurveProviderDiscount getScenario(final int scenario) {
+    ArgumentChecker.isTrue(scenario >= 0 && scenario < getNumberOfScenarios(), "scenario {} out of range", scenario);
+    final MulticurveProviderDiscount result = _base.copy();
+    for (final CurveMoves curve : _curves) {
+      final YieldCurve spread = YieldCurve.from(curve.getSpread(scenario));
+      for (final Map.Entry<Currency, YieldAndDiscountCurve> entry : _base.getDiscountingCurves().entrySet()) {
+        if (entry.getValue().getName().equals(curve._name)) {
+          result.replaceCurve(entry.getKey(), new YieldAndDiscountAddZeroSpreadCurve(curve._name, false, entry.getValue(), spread));
+        }
+      }
+      for (final Map.Entry<IborIndex, YieldAndDiscountCurve> entry : _base.getForwardIborCurves().entrySet()) {
+        if (entry.getValue().getName().equals(curve._name)) {
+          result.replaceCurve(entry.getKey(), new YieldAndDiscountAddZeroSpreadCurve(curve._name, false, entry.getValue(), spread));
+        }
+      }
+      for (final Map.Entry<IndexON, YieldAndDiscountCurve> entry : _base.getForwardONCurves().entrySet()) {
+        if (entry.getValue().getName().equals(curve._name)) {
+          result.replaceCurve(entry.getKey(), new YieldAndDiscountAddZeroSpreadCurve(curve._name, false, entry.getValue(), spread));
+        }
+      }
+    }
+    for (final FxMoves fx : _fxRates) {
+      final double move = fx._rates[scenario + 1] / fx._rates[scenario];
+      result.getFxRates().updateRates(fx._ccy1, fx._ccy2, _base.getFxRate(fx._ccy1, fx._ccy2) * move);
+    }
+    return result;
+  }
+
+  /**
+   * Gets the profit and loss of a portfolio in each scenario, in one currency.
+   *
+   * @param portfolio  the portfolio, not null
+   * @param ccy  the currency of the profit and loss, not null
+   * @return the function computing the profit and loss of the scenario of a given index, not null
+   */
+  public Function1D<Integer, Double> getProfitAndLoss(final CompiledCashFlowPortfolio portfolio, final Currency ccy) {
+    ArgumentChecker.notNull(portfolio, "portfolio");
+    ArgumentChecker.notNull(ccy, "currency");
+    final double basePv = _base.getFxRates().convert(portfolio.presentValue(_base), ccy).getAmount();
+    return new Function1D<Integer, Double>() {
+      @Override
+      public Double evaluate(final Integer scenario) {
+        final MulticurveProviderDiscount multicurve = getScenario(scenario);
+        return multicurve.getFxRates().convert(portfolio.presentValue(multicurve), ccy).getAmount() - basePv;
+      }
+    };
+  }
+
+  /**
+   * Computes the value at risk of a portfolio by full revaluation in all the scenarios.
+   *
+   * @param portfolio  the portfolio, not null
+   * @param ccy  the currency of the profit and loss, not null
+   * @param parameters  the VaR parameters, not null
+   * @param pool  the fork/join pool used to revalue the scenarios in parallel, null for sequential revaluation
+   * @return the value at risk and expected shortfall, not null
+   */
+  public HistoricalVaRCalculationResult getValueAtRisk(final CompiledCashFlowPortfolio portfolio, final Currency ccy,
+      final EmpiricalDistributionVaRParameters parameters, final ForkJoinPool pool) {
+    return new HistoricalSimulationVaRCalculator(pool).evaluate(parameters, getNumberOfScenarios(), getProfitAndLoss(portfolio, ccy));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The aligned node rates of a curve.
+   */
+  private static final class CurveMoves {
+    private final String _name;
+    private final double[] _times;
+    private final double[][] _rates;
+
+    private CurveMoves(final String name, final double[] times, final double[][] rates) {
+      _name = name;
+      _times = times;
+      _rates = rates;
+    }
+
+    private DoublesCurve getSpread(final int scenario) {
+      final double[] changes = new double[_times.length];
+      for (int loopnode = 0; loopnode < _times.length; loopnode++) {
+        changes[loopnode] = _rates[loopnode][scenario + 1] - _rates[loopnode][scenario];
+      }
+      if (changes.length == 1) {
+        return ConstantDoublesCurve.from(changes[0]);
+      }
+      return InterpolatedDoublesCurve.fromSorted(_times, changes, INTERPOLATOR);
+    }
+  }
+
+  /**
+   * The aligned rates of a currency pair.
+   */
+  private static final class FxMoves {
+    private final Currency _ccy1;
+    private final Currency _ccy2;
+    private final double[] _rates;
+
+    private FxMoves(final Currency ccy1, final Currency ccy2, final double[] rates) {
+      _ccy1 = ccy1;
+      _ccy2 = ccy2;
+      _rates = rates;
+    }
+  }
+
+}
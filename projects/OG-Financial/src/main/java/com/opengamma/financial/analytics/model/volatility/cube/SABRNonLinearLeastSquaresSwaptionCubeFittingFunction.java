@@ -9,6 +9,7 @@ import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 
 import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -18,6 +19,7 @@ import org.threeten.bp.Period;
 import com.google.common.collect.Sets;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.analytics.financial.model.volatility.smile.fitting.SABRModelFitter;
+import com.opengamma.analytics.financial.model.volatility.smile.fitting.SmileModelFitterCache;
 import com.opengamma.analytics.financial.model.volatility.smile.function.SABRHaganVolatilityFunction;
 import com.opengamma.analytics.math.interpolation.FlatExtrapolator1D;
 import com.opengamma.analytics.math.interpolation.GridInterpolator2D;
@@ -41,6 +43,7 @@ import com.opengamma.engine.value.ValuePropertyNames;
 import com.opengamma.engine.value.ValueRequirement;
 import com.opengamma.engine.value.ValueRequirementNames;
 import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.financial.OpenGammaExecutionContext;
 import com.opengamma.financial.analytics.model.volatility.SmileFittingPropertyNamesAndValues;
 import com.opengamma.financial.analytics.model.volatility.cube.fitted.FittedSmileDataPoints;
 import com.opengamma.financial.analytics.volatility.fittedresults.SABRFittedSurfaces;
@@ -48,6 +51,7 @@ import com.opengamma.id.ExternalId;
 import com.opengamma.util.time.Tenor;
 import com.opengamma.util.tuple.DoublesPair;
 import com.opengamma.util.tuple.Pair;
+import com.opengamma.util.tuple.Triple;
 
 /**
  *
@@ -57,6 +61,9 @@ public class SABRNonLinearLeastSquaresSwaptionCubeFittingFunction extends Abstra
   private static final BitSet FIXED = new BitSet();
   private static final SABRHaganVolatilityFunction SABR_FUNCTION = new SABRHaganVolatilityFunction();
   private static final DoubleMatrix1D SABR_INITIAL_VALUES = new DoubleMatrix1D(new double[] {0.05, 0.5, 0.7, 0.3 });
+  /** The smiles are not refitted if no volatility has moved by more than this (0.1bp) and the forward by less than FORWARD_TOLERANCE */
+  private static final double VOL_TOLERANCE = 1e-5;
+  private static final double FORWARD_TOLERANCE = 1e-6;
   private static final LinearInterpolator1D LINEAR = (LinearInterpolator1D) Interpolator1DFactory.getInterpolator(Interpolator1DFactory.LINEAR);
   private static final FlatExtrapolator1D FLAT = new FlatExtrapolator1D();
   private static final GridInterpolator2D INTERPOLATOR = new GridInterpolator2D(LINEAR, LINEAR, FLAT, FLAT);
@@ -65,6 +72,10 @@ public class SABRNonLinearLeastSquaresSwaptionCubeFittingFunction extends Abstra
     FIXED.set(1);
   }
 
+  /** The last fit of each smile, by currency, cube name and swap maturity/swaption expiry */
+  private final SmileModelFitterCache<Triple<String, String, Pair<Tenor, Tenor>>> _fitCache =
+      new SmileModelFitterCache<>(VOL_TOLERANCE, FORWARD_TOLERANCE);
+
   @Override
   public Set<ComputedValue> execute(final FunctionExecutionContext executionContext, final FunctionInputs inputs, final ComputationTarget target, final Set<ValueRequirement> desiredValues) {
     final String currency = target.getValue(PrimitiveComputationTargetType.CURRENCY).getCode();
@@ -86,18 +97,10 @@ public class SABRNonLinearLeastSquaresSwaptionCubeFittingFunction extends Abstra
     final SortedMap<Tenor, SortedMap<Tenor, Pair<double[], double[]>>> smiles = volatilityCubeData.getSmiles();
     final SortedMap<Tenor, SortedMap<Tenor, ExternalId[]>> smileIds = volatilityCubeData.getSmileIds();
     final SortedMap<Tenor, SortedMap<Tenor, Double[]>> smileRelativeStrikes = volatilityCubeData.getSmileRelativeStrikes();
-    final DoubleArrayList swapMaturitiesList = new DoubleArrayList();
-    final DoubleArrayList swaptionExpiriesList = new DoubleArrayList();
-    final DoubleArrayList alphaList = new DoubleArrayList();
-    final DoubleArrayList betaList = new DoubleArrayList();
-    final DoubleArrayList nuList = new DoubleArrayList();
-    final DoubleArrayList rhoList = new DoubleArrayList();
-    final DoubleArrayList chiSqList = new DoubleArrayList();
-    final Map<DoublesPair, DoubleMatrix2D> inverseJacobians = new HashMap<>();
-    final Map<Pair<Tenor, Tenor>, ExternalId[]> fittedSmileIds = new HashMap<>();
-    final Map<Pair<Tenor, Tenor>, Double[]> fittedRelativeStrikes = new HashMap<>();
+    final Map<Triple<String, String, Pair<Tenor, Tenor>>, SABRModelFitter> fitters = new LinkedHashMap<>();
+    final Map<Pair<Tenor, Tenor>, ExternalId[]> smileExternalIds = new HashMap<>();
+    final Map<Pair<Tenor, Tenor>, Double[]> smileRelStrikes = new HashMap<>();
     for (final Map.Entry<Tenor, SortedMap<Tenor, Pair<double[], double[]>>> swapMaturityEntry : smiles.entrySet()) {
-      final double maturity = getTime(swapMaturityEntry.getKey());
       for (final Map.Entry<Tenor, Pair<double[], double[]>> swaptionExpiryEntry : swapMaturityEntry.getValue().entrySet()) {
         final double swaptionExpiry = getTime(swaptionExpiryEntry.getKey());
         final double[] strikes = swaptionExpiryEntry.getValue().getFirst();
@@ -128,23 +131,44 @@ public class SABRNonLinearLeastSquaresSwaptionCubeFittingFunction extends Abstra
             errors[k] = ERROR;
           }
           if (strikes.length > 4 && forward > 0) { //don't fit those smiles with insufficient data
-            final LeastSquareResultsWithTransform fittedResult = new SABRModelFitter(forward, strikes, swaptionExpiry, blackVols, errors, SABR_FUNCTION).solve(SABR_INITIAL_VALUES, FIXED);
-            final DoubleMatrix1D parameters = fittedResult.getModelParameters();
-            swapMaturitiesList.add(maturity);
-            swaptionExpiriesList.add(swaptionExpiry);
-            alphaList.add(parameters.getEntry(0));
-            betaList.add(parameters.getEntry(1));
-            rhoList.add(parameters.getEntry(2));
-            nuList.add(parameters.getEntry(3));
-            final DoublesPair expiryMaturityPair = new DoublesPair(swaptionExpiry, maturity);
-            inverseJacobians.put(expiryMaturityPair, fittedResult.getModelParameterSensitivityToData());
-            chiSqList.add(fittedResult.getChiSq());
-            fittedSmileIds.put(tenorPair, externalIds);
-            fittedRelativeStrikes.put(tenorPair, relativeStrikes);
+            fitters.put(Triple.of(currency, cubeName, tenorPair), new SABRModelFitter(forward, strikes, swaptionExpiry, blackVols, errors, SABR_FUNCTION));
+            smileExternalIds.put(tenorPair, externalIds);
+            smileRelStrikes.put(tenorPair, relativeStrikes);
           }
         }
       }
     }
+    // the smiles are independent: fit them together, starting from their previous fits
+    final Map<Triple<String, String, Pair<Tenor, Tenor>>, LeastSquareResultsWithTransform> fittedResults = _fitCache.solve(fitters, SABR_INITIAL_VALUES, FIXED,
+        OpenGammaExecutionContext.getForkJoinPool(executionContext));
+    final DoubleArrayList swapMaturitiesList = new DoubleArrayList();
+    final DoubleArrayList swaptionExpiriesList = new DoubleArrayList();
+    final DoubleArrayList alphaList = new DoubleArrayList();
+    final DoubleArrayList betaList = new DoubleArrayList();
+    final DoubleArrayList nuList = new DoubleArrayList();
+    final DoubleArrayList rhoList = new DoubleArrayList();
+    final DoubleArrayList chiSqList = new DoubleArrayList();
+    final Map<DoublesPair, DoubleMatrix2D> inverseJacobians = new HashMap<>();
+    final Map<Pair<Tenor, Tenor>, ExternalId[]> fittedSmileIds = new HashMap<>();
+    final Map<Pair<Tenor, Tenor>, Double[]> fittedRelativeStrikes = new HashMap<>();
+    for (final Map.Entry<Triple<String, String, Pair<Tenor, Tenor>>, LeastSquareResultsWithTransform> entry : fittedResults.entrySet()) {
+      final Pair<Tenor, Tenor> tenorPair = entry.getKey().getThird();
+      final double maturity = getTime(tenorPair.getFirst());
+      final double swaptionExpiry = getTime(tenorPair.getSecond());
+      final LeastSquareResultsWithTransform fittedResult = entry.getValue();
+      final DoubleMatrix1D parameters = fittedResult.getModelParameters();
+      swapMaturitiesList.add(maturity);
+      swaptionExpiriesList.add(swaptionExpiry);
+      alphaList.add(parameters.getEntry(0));
+      betaList.add(parameters.getEntry(1));
+      rhoList.add(parameters.getEntry(2));
+      nuList.add(parameters.getEntry(3));
+      final DoublesPair expiryMaturityPair = new DoublesPair(swaptionExpiry, maturity);
+      inverseJacobians.put(expiryMaturityPair, fittedResult.getModelParameterSensitivityToData());
+      chiSqList.add(fittedResult.getChiSq());
+      fittedSmileIds.put(tenorPair, smileExternalIds.get(tenorPair));
+      fittedRelativeStrikes.put(tenorPair, smileRelStrikes.get(tenorPair));
+    }
     if (swapMaturitiesList.size() < 5) { //don't have sufficient fits to construct a surface
       throw new OpenGammaRuntimeException("Could not construct SABR parameter surfaces; have under 5 surface points");
     }
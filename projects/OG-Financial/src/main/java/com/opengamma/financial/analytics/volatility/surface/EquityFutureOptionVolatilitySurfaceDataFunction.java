@@ -44,6 +44,7 @@ import com.opengamma.financial.analytics.model.equity.EquitySecurityUtils;
 import com.opengamma.util.time.Tenor;
 import com.opengamma.util.tuple.Pair;
 
+import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 
 /**
@@ -238,10 +239,16 @@ public class EquityFutureOptionVolatilitySurfaceDataFunction extends AbstractFun
     if (specification.getSurfaceInstrumentProvider() instanceof CallPutSurfaceInstrumentProvider) {
       callAboveStrike = ((CallPutSurfaceInstrumentProvider<?, ?>) specification.getSurfaceInstrumentProvider()).useCallAboveStrike();
     }
-    // Remove empties, convert expiries from number to years, and imply vols
-    final Map<Pair<Double, Double>, Double> volValues = new HashMap<>();
-    final DoubleArrayList tList = new DoubleArrayList();
-    final DoubleArrayList kList = new DoubleArrayList();
+    if (!(surfaceQuoteType.equals(SurfaceAndCubeQuoteType.CALL_STRIKE) || surfaceQuoteType.equals(SurfaceAndCubeQuoteType.PUT_STRIKE)
+        || surfaceQuoteType.equals(SurfaceAndCubeQuoteType.CALL_AND_PUT_STRIKE))) {
+      throw new OpenGammaRuntimeException("Cannot handle surface quote type " + surfaceQuoteType);
+    }
+    // Remove empties and convert expiries from number to years
+    final DoubleArrayList quoteTs = new DoubleArrayList();
+    final DoubleArrayList quoteKs = new DoubleArrayList();
+    final DoubleArrayList quoteForwards = new DoubleArrayList();
+    final DoubleArrayList quotePrices = new DoubleArrayList();
+    final BooleanArrayList quoteIsCall = new BooleanArrayList();
     for (final Pair<Integer, Tenor> nthExpiry : rawSurface.getXs()) {
       final double t = FutureOptionExpiries.EQUITY_FUTURE.getFutureOptionTtm(nthExpiry.getFirst(), valDate, nthExpiry.getSecond()); //TODO need information about expiry calculator
       final double forward = forwardCurve.getForward(t);
@@ -249,27 +256,42 @@ public class EquityFutureOptionVolatilitySurfaceDataFunction extends AbstractFun
         for (final Double strike : rawSurface.getYs()) {
           final Double price = rawSurface.getVolatility(nthExpiry, strike);
           if (price != null) {
-            try {
-              final double vol;
-              if (surfaceQuoteType.equals(SurfaceAndCubeQuoteType.CALL_STRIKE)) {
-                vol = BlackFormulaRepository.impliedVolatility(price, forward, strike, t, true);
-              } else if (surfaceQuoteType.equals(SurfaceAndCubeQuoteType.PUT_STRIKE)) {
-                vol = BlackFormulaRepository.impliedVolatility(price, forward, strike, t, false);
-              } else if (surfaceQuoteType.equals(SurfaceAndCubeQuoteType.CALL_AND_PUT_STRIKE)) {
-                final boolean isCall = strike > callAboveStrike ? true : false;
-                vol = BlackFormulaRepository.impliedVolatility(price, forward, strike, t, isCall);
-              } else {
-                throw new OpenGammaRuntimeException("Cannot handle surface quote type " + surfaceQuoteType);
-              }
-              tList.add(t);
-              kList.add(strike);
-              volValues.put(Pair.of(t, strike), vol);
-            } catch (final Exception e) {
+            final boolean isCall;
+            if (surfaceQuoteType.equals(SurfaceAndCubeQuoteType.CALL_STRIKE)) {
+              isCall = true;
+            } else if (surfaceQuoteType.equals(SurfaceAndCubeQuoteType.PUT_STRIKE)) {
+              isCall = false;
+            } else {
+              isCall = strike > callAboveStrike ? true : false;
             }
+            quoteTs.add(t);
+            quoteKs.add(strike);
+            quoteForwards.add(forward);
+            quotePrices.add(price);
+            quoteIsCall.add(isCall);
           }
         }
       }
     }
+    // Imply the vols of the whole surface at once; the quotes without an implied vol are dropped
+    final int nQuotes = quotePrices.size();
+    final double[] ts = quoteTs.toDoubleArray();
+    final double[] ks = quoteKs.toDoubleArray();
+    final double[] vols = new double[nQuotes];
+    final boolean[] failed = new boolean[nQuotes];
+    BlackFormulaRepository.impliedVolatilities(quotePrices.toDoubleArray(), quoteForwards.toDoubleArray(), ks, ts, quoteIsCall.toBooleanArray(), vols, failed);
+    final Map<Pair<Double, Double>, Double> volValues = new HashMap<>();
+    final DoubleArrayList tList = new DoubleArrayList();
+    final DoubleArrayList kList = new DoubleArrayList();
+    for (int i = 0; i < nQuotes; i++) {
+      if (!failed[i]) {
+        final Double t = ts[i];
+        final Double strike = ks[i];
+        tList.add(t);
+        kList.add(strike);
+        volValues.put(Pair.of(t, strike), vols[i]);
+      }
+    }
     final VolatilitySurfaceData<Double, Double> stdVolSurface = new VolatilitySurfaceData<>(rawSurface.getDefinitionName(), rawSurface.getSpecificationName(), rawSurface.getTarget(),
         tList.toArray(new Double[0]), kList.toArray(new Double[0]), volValues);
     return stdVolSurface;
@@ -5,9 +5,11 @@
  */
 package com.opengamma.financial.analytics.volatility.surface;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -53,6 +55,7 @@ import com.opengamma.id.UniqueId;
 import com.opengamma.util.money.Currency;
 import com.opengamma.util.tuple.Pair;
 
+import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 
 /**
@@ -299,10 +302,16 @@ public class EquityOptionVolatilitySurfaceDataFunction extends AbstractFunction.
     if (isAmerican) {
       americanModel = new BjerksundStenslandModel();
     }
-    // Main loop: Remove empties, convert expiries from number to years, and imply vols
+    // Main loop: Remove empties, convert expiries from number to years, and imply vols. European vols are implied for the whole surface at once.
     final Map<Pair<Double, Double>, Double> volValues = new HashMap<>();
     final DoubleArrayList tList = new DoubleArrayList();
     final DoubleArrayList kList = new DoubleArrayList();
+    final List<Object> quoteXs = new ArrayList<>();
+    final DoubleArrayList quoteTs = new DoubleArrayList();
+    final DoubleArrayList quoteKs = new DoubleArrayList();
+    final DoubleArrayList quoteForwards = new DoubleArrayList();
+    final DoubleArrayList quotePrices = new DoubleArrayList();
+    final BooleanArrayList quoteIsCall = new BooleanArrayList();
     final Object[] xs = rawSurface.getXs();
     for (final Object x : xs) {
       Double t;
@@ -319,38 +328,64 @@ public class EquityOptionVolatilitySurfaceDataFunction extends AbstractFunction.
       for (final Double strike : ysAsDoubles) {
         final Double price = rawSurface.getVolatility(x, strike);
         if (price != null) {
-          try {
-            if (quoteTypeIsCallPutStrike) {
-              optionIsCall = strike > callAboveStrike ? true : false;
-            }
-            final double vol;
-            if (isAmerican) {
-              vol = americanModel.impliedVolatility(price, spot, strike, -Math.log(zerobond) / t, Math.log(forward / spot) / t, t, optionIsCall);
-            } else {
-              final double fwdPrice = price / zerobond;
-              vol = BlackFormulaRepository.impliedVolatility(fwdPrice, forward, strike, t, optionIsCall);
-            }
-            tList.add(t);
-            kList.add(strike);
-            volValues.put(Pair.of(t, strike), vol);
-          } catch (final Exception e) {
-            LocalDate expiry = null;
-            if (x instanceof Number) {
-              expiry = FutureOptionExpiries.EQUITY.getFutureOptionExpiry(((Number) x).intValue(), valDate);
-            } else if (x instanceof LocalDate) {
-              expiry = (LocalDate) x;
+          if (quoteTypeIsCallPutStrike) {
+            optionIsCall = strike > callAboveStrike ? true : false;
+          }
+          if (isAmerican) {
+            try {
+              final double vol = americanModel.impliedVolatility(price, spot, strike, -Math.log(zerobond) / t, Math.log(forward / spot) / t, t, optionIsCall);
+              tList.add(t);
+              kList.add(strike);
+              volValues.put(Pair.of(t, strike), vol);
+            } catch (final Exception e) {
+              logLiquidityProblem(valDate, x, strike);
             }
-            s_logger.info("Liquidity problem: input price, forward and zero bond imply negative volatility at strike, {}, and expiry, {}",
-                strike, expiry);
+          } else {
+            quoteXs.add(x);
+            quoteTs.add(t);
+            quoteKs.add(strike);
+            quoteForwards.add(forward);
+            quotePrices.add(price / zerobond);
+            quoteIsCall.add(optionIsCall);
           }
         }
       }
     }
+    final int nQuotes = quotePrices.size();
+    if (nQuotes > 0) {
+      final double[] vols = new double[nQuotes];
+      final boolean[] failed = new boolean[nQuotes];
+      final double[] ts = quoteTs.toDoubleArray();
+      final double[] ks = quoteKs.toDoubleArray();
+      BlackFormulaRepository.impliedVolatilities(quotePrices.toDoubleArray(), quoteForwards.toDoubleArray(), ks, ts, quoteIsCall.toBooleanArray(), vols, failed);
+      for (int i = 0; i < nQuotes; i++) {
+        if (failed[i]) {
+          logLiquidityProblem(valDate, quoteXs.get(i), ks[i]);
+        } else {
+          final Double t = ts[i];
+          final Double strike = ks[i];
+          tList.add(t);
+          kList.add(strike);
+          volValues.put(Pair.of(t, strike), vols[i]);
+        }
+      }
+    }
     final VolatilitySurfaceData<Double, Double> stdVolSurface = new VolatilitySurfaceData<>(rawSurface.getDefinitionName(), rawSurface.getSpecificationName(), rawSurface.getTarget(),
         tList.toArray(new Double[0]), kList.toArray(new Double[0]), volValues);
     return stdVolSurface;
   }
 
+  private static void logLiquidityProblem(final LocalDate valDate, final Object x, final double strike) {
+    LocalDate expiry = null;
+    if (x instanceof Number) {
+      expiry = FutureOptionExpiries.EQUITY.getFutureOptionExpiry(((Number) x).intValue(), valDate);
+    } else if (x instanceof LocalDate) {
+      expiry = (LocalDate) x;
+    }
+    s_logger.info("Liquidity problem: input price, forward and zero bond imply negative volatility at strike, {}, and expiry, {}",
+        strike, expiry);
+  }
+
   private static Double[] getYs(final Object ys) {
     if (ys instanceof Double[]) {
       return (Double[]) ys;
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.convention;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeListener;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeProvider;
+import com.opengamma.core.holiday.HolidaySource;
+import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.CompiledCalendar;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Cache of {@link CompiledCalendar} instances, typically of {@link HolidaySourceCalendarAdapter} calendars.
+ * <p>
+ * The calendars are compiled on a fixed range of years and looked up by equality of the underlying calendar, so that all the adapters
+ * on the same holiday source and the same regions, exchange or currencies share the compiled bitsets. The number of compiled calendars
+ * is bounded, the least recently used being discarded first, so that calendars of holiday sources that are no longer used do not
+ * accumulate. The cache listens for changes:
+ * it subscribes to the change manager of each holiday source that it compiles calendars from, and every holiday change discards the
+ * compiled calendars. A compiled calendar is never modified, so the calendars compiled after a change are new instances.
+ * <p>
+ * This class is thread-safe.
+ */
+public class CompiledCalendarCache implements ChangeListener {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(CompiledCalendarCache.class);
+  /**
+   * The default maximum number of compiled calendars.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+  /**
+   * The first compiled year.
+   */
+  private final int _firstYear;
+  /**
+   * The last compiled year.
+   */
+  private final int _lastYear;
+  /**
+   * The compiled calendars, keyed by underlying calendar.
+   */
+  private final Cache<Calendar, CompiledCalendar> _calendars;
+  /**
+   * The change managers subscribed to, held weakly so that discarded holiday sources can be garbage collected.
+   */
+  private final Set<ChangeManager> _subscriptions = Collections.newSetFromMap(new MapMaker().weakKeys().<ChangeManager, Boolean>makeMap());
+
+  /**
+   * Creates an instance with the default maximum size.
+   *
+   * @param firstYear  the first year to compile
+   * @param lastYear  the last year to compile, not before the first year
+   */
+  public CompiledCalendarCache(final int firstYear, final int lastYear) {
+    this(firstYear, lastYear, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param firstYear  the first year to compile
+   * @param lastYear  the last year to compile, not before the first year
+   * @param maximumSize  the maximum number of compiled calendars, positive
+   */
+  public CompiledCalendarCache(final int firstYear, final int lastYear, final int maximumSize) {
+    ArgumentChecker.isTrue(firstYear <= lastYear, "first year {} after last year {}", firstYear, lastYear);
+    ArgumentChecker.notNegativeOrZero(maximumSize, "maximumSize");
+    _firstYear = firstYear;
+    _lastYear = lastYear;
+    _calendars = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the first compiled year.
+   *
+   * @return the year
+   */
+  public int getFirstYear() {
+    return _firstYear;
+  }
+
+  /**
+   * Gets the last compiled year.
+   *
+   * @return the year
+   */
+  public int getLastYear() {
+    return _lastYear;
+  }
+
+  /**
+   * Returns the compiled version of a calendar.
+   *
+   * @param calendar  the calendar, not null
+   * @return the compiled calendar, not null
+   */
+  public CompiledCalendar getCompiledCalendar(final Calendar calendar) {
+    ArgumentChecker.notNull(calendar, "calendar");
+    if (calendar instanceof CompiledCalendar) {
+      return (CompiledCalendar) calendar;
+    }
+    CompiledCalendar compiled = _calendars.getIfPresent(calendar);
+    if (compiled == null) {
+      if (calendar instanceof HolidaySourceCalendarAdapter) {
+        subscribe(((HolidaySourceCalendarAdapter) calendar).getHolidaySource());
+      }
+      compiled = new CompiledCalendar(calendar, _firstYear, _lastYear);
+      final CompiledCalendar existing = _calendars.asMap().putIfAbsent(calendar, compiled);
+      if (existing != null) {
+        compiled = existing;
+      }
+    }
+    return compiled;
+  }
+
+  /**
+   * Returns the union of the compiled versions of calendars: a day is a working day if it is a working day in all the calendars.
+   *
+   * @param calendars  the calendars, not null or empty
+   * @return the compiled union, not null
+   */
+  public CompiledCalendar getCompiledUnion(final Calendar... calendars) {
+    ArgumentChecker.notEmpty(calendars, "calendars");
+    final CompiledCalendar[] compiled = new CompiledCalendar[calendars.length];
+    for (int i = 0; i < calendars.length; i++) {
+      compiled[i] = getCompiledCalendar(calendars[i]);
+    }
+    return CompiledCalendar.union(compiled);
+  }
+
+  /**
+   * Subscribes to the changes of a holiday source, if it provides them.
+   * <p>
+   * This is called automatically for the holiday source of each adapter compiled, and has no effect if the cache
+   * is already subscribed to the change manager of the source.
+   *
+   * @param holidaySource  the holiday source, not null
+   */
+  public void subscribe(final HolidaySource holidaySource) {
+    ArgumentChecker.notNull(holidaySource, "holidaySource");
+    if (holidaySource instanceof ChangeProvider) {
+      final ChangeManager changeManager = ((ChangeProvider) holidaySource).changeManager();
+      if (_subscriptions.add(changeManager)) {
+        changeManager.addChangeListener(this);
+      }
+    }
+  }
+
+  /**
+   * Discards all the compiled calendars.
+   */
+  public void invalidate() {
+    _calendars.invalidateAll();
+  }
+
+  /**
+   * Gets the number of compiled calendars.
+   *
+   * @return the number of calendars
+   */
+  public int size() {
+    return (int) _calendars.size();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Discards all the compiled calendars when a holiday changes.
+   *
+   * @param event  the change event
+   */
+  @Override
+  public void entityChanged(final ChangeEvent event) {
+    s_logger.debug("Holiday {} changed, discarding {} compiled calendars", event.getObjectId(), _calendars.size());
+    invalidate();
+  }
+
+}
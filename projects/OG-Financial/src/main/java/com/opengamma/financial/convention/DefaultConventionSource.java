@@ -7,6 +7,8 @@ package com.opengamma.financial.convention;
 
 import com.google.common.collect.Iterables;
 import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeProvider;
 import com.opengamma.id.ExternalId;
 import com.opengamma.id.ExternalIdBundle;
 import com.opengamma.id.UniqueId;
@@ -16,7 +18,7 @@ import com.opengamma.util.ArgumentChecker;
  * Default implementation of {@link ConventionSource} that uses an underlying {@link ConventionMaster}
  * as a data source.
  */
-public class DefaultConventionSource implements ConventionSource {
+public class DefaultConventionSource implements ConventionSource, ChangeProvider {
   /** The convention master */
   private final ConventionMaster _conventionMaster;
 
@@ -28,6 +30,11 @@ public class DefaultConventionSource implements ConventionSource {
     _conventionMaster = conventionMaster;
   }
 
+  @Override
+  public ChangeManager changeManager() {
+    return _conventionMaster.changeManager();
+  }
+
   @Override
   public Convention getConvention(final ExternalId identifier) {
     final ConventionSearchResult result = _conventionMaster.searchConvention(new ConventionSearchRequest(identifier));
@@ -13,6 +13,9 @@ import net.sf.ehcache.Element;
 
 import com.google.common.collect.MapMaker;
 import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeProvider;
+import com.opengamma.core.change.DummyChangeManager;
 import com.opengamma.id.ExternalId;
 import com.opengamma.id.ExternalIdBundle;
 import com.opengamma.id.UniqueId;
@@ -22,7 +25,7 @@ import com.opengamma.util.ehcache.EHCacheUtils;
 /**
  * A cached form of {@link ConventionSource}.
  */
-public class EHCachingConventionSource implements ConventionSource {
+public class EHCachingConventionSource implements ConventionSource, ChangeProvider {
 
   private static final String CONVENTION_CACHE_NAME = "convention";
 
@@ -50,6 +53,15 @@ public class EHCachingConventionSource implements ConventionSource {
     return _cacheManager;
   }
 
+  @Override
+  public ChangeManager changeManager() {
+    if (getUnderlying() instanceof ChangeProvider) {
+      return ((ChangeProvider) getUnderlying()).changeManager();
+    } else {
+      return DummyChangeManager.INSTANCE;
+    }
+  }
+
   /**
    * Call this at the end of a unit test run to clear the state of EHCache. It should not be part of a generic lifecycle method.
    */
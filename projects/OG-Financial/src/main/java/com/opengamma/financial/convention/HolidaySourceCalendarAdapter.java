@@ -70,6 +70,15 @@ public class HolidaySourceCalendarAdapter implements Calendar, Serializable {
     this(holidaySource, new Currency[] {currency });
   }
 
+  /**
+   * Gets the holiday source.
+   *
+   * @return the holiday source, not null
+   */
+  public HolidaySource getHolidaySource() {
+    return _holidaySource;
+  }
+
   @Override
   public String getConventionName() {
     switch (_type) {
@@ -148,7 +157,7 @@ public class HolidaySourceCalendarAdapter implements Calendar, Serializable {
     result = prime * result + ((_currencies == null) ? 0 : _currencies.hashCode());
     result = prime * result + ((_exchange == null) ? 0 : _exchange.hashCode());
     result = prime * result + _holidaySource.hashCode();
-    result = prime * result + _regions.hashCode();
+    result = prime * result + ((_regions == null) ? 0 : _regions.hashCode());
     result = prime * result + ((_type == null) ? 0 : _type.hashCode());
     return result;
   }
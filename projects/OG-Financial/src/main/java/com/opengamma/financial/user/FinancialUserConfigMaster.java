@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -79,6 +80,11 @@ public class FinancialUserConfigMaster extends AbstractFinancialUserMaster<Confi
     return _changeProvidingMaster.get(uniqueIds);
   }
 
+  @Override
+  public Map<ObjectId, ConfigDocument> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    return _underlyingConfigMaster.get(objectIds, versionCorrection);
+  }
+
   @Override
   public void remove(ObjectIdentifiable objectIdentifiable) {
     _changeProvidingMaster.remove(objectIdentifiable);
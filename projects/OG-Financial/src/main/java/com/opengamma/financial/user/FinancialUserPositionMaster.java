@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -77,6 +78,11 @@ public class FinancialUserPositionMaster extends AbstractFinancialUserMaster<Pos
     return _changeProvidingMaster.get(uniqueIds);
   }
 
+  @Override
+  public Map<ObjectId, PositionDocument> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    return _underlying.get(objectIds, versionCorrection);
+  }
+
   @Override
   public void remove(ObjectIdentifiable oid) {
     _changeProvidingMaster.remove(oid);
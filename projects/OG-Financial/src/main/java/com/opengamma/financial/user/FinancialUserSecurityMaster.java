@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -78,6 +79,11 @@ public class FinancialUserSecurityMaster extends AbstractFinancialUserMaster<Sec
     return _changeProvidingMaster.get(uniqueIds);
   }
 
+  @Override
+  public Map<ObjectId, SecurityDocument> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    return _underlying.get(objectIds, versionCorrection);
+  }
+
   @Override
   public void remove(ObjectIdentifiable oid) {
     _changeProvidingMaster.remove(oid);
@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.analytics.conversion;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.ZonedDateTime;
+
+import com.opengamma.analytics.financial.instrument.InstrumentDefinition;
+import com.opengamma.analytics.financial.instrument.cash.CashDefinition;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.core.historicaltimeseries.impl.SimpleHistoricalTimeSeries;
+import com.opengamma.core.security.Security;
+import com.opengamma.core.value.MarketDataRequirementNames;
+import com.opengamma.financial.analytics.timeseries.HistoricalTimeSeriesBundle;
+import com.opengamma.financial.convention.DefaultConventionBundleSource;
+import com.opengamma.financial.convention.InMemoryConventionBundleMaster;
+import com.opengamma.financial.convention.daycount.DayCountFactory;
+import com.opengamma.financial.security.FinancialSecurityVisitorAdapter;
+import com.opengamma.financial.security.cash.CashSecurity;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesResolutionResult;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesResolver;
+import com.opengamma.master.holiday.impl.InMemoryHolidayMaster;
+import com.opengamma.master.holiday.impl.MasterHolidaySource;
+import com.opengamma.master.security.impl.InMemorySecurityMaster;
+import com.opengamma.master.security.impl.MasterSecuritySource;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.test.TestGroup;
+import com.opengamma.util.time.DateUtils;
+
+/**
+ * Test {@link InstrumentConversionCache}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class InstrumentConversionCacheTest {
+
+  private static final ZonedDateTime NOW = DateUtils.getUTCDate(2013, 9, 10);
+  private static final ExternalIdBundle INDEX = ExternalIdBundle.of(ExternalId.of("Test", "Index"));
+  private static final UniqueId SERIES_ID = UniqueId.of("Hts", "1", "1");
+
+  private static CashSecurity security(final String version) {
+    final CashSecurity security = new CashSecurity(Currency.USD, ExternalId.of("Region", "US"), NOW, NOW.plusMonths(3),
+        DayCountFactory.INSTANCE.getDayCount("Act/360"), 0.01, 1000000);
+    security.setUniqueId(version == null ? UniqueId.of("Sec", "1") : UniqueId.of("Sec", "1", version));
+    return security;
+  }
+
+  private static HistoricalTimeSeriesBundle fixings(final LocalDate... dates) {
+    final double[] values = new double[dates.length];
+    for (int i = 0; i < dates.length; i++) {
+      values[i] = 0.01 * (i + 1);
+    }
+    final HistoricalTimeSeriesBundle bundle = new HistoricalTimeSeriesBundle();
+    bundle.add(MarketDataRequirementNames.MARKET_VALUE, INDEX, new SimpleHistoricalTimeSeries(SERIES_ID, ImmutableLocalDateDoubleTimeSeries.of(dates, values)));
+    return bundle;
+  }
+
+  public void testDefinition() {
+    final CountingConverters converters = new CountingConverters();
+    final InstrumentConversionCache cache = new InstrumentConversionCache();
+    final InstrumentDefinition<?> definition = cache.getDefinition(security("1"), converters);
+    assertSame(definition, cache.getDefinition(security("1"), converters));
+    assertEquals(1, converters._definitions);
+    assertEquals(1, cache.size());
+    final InstrumentDefinition<?> newVersion = cache.getDefinition(security("2"), converters);
+    assertNotSame(definition, newVersion);
+    assertEquals(2, converters._definitions);
+    assertEquals(1, cache.size());
+  }
+
+  public void testUnversioned() {
+    final CountingConverters converters = new CountingConverters();
+    final InstrumentConversionCache cache = new InstrumentConversionCache();
+    assertNotSame(cache.getDefinition(security(null), converters), cache.getDefinition(security(null), converters));
+    assertEquals(2, converters._definitions);
+    assertEquals(0, cache.size());
+  }
+
+  public void testDerivative() {
+    final CountingConverters converters = new CountingConverters();
+    final InstrumentConversionCache cache = new InstrumentConversionCache();
+    final CashSecurity security = security("1");
+    final InstrumentDefinition<?> definition = cache.getDefinition(security, converters);
+    final FixedIncomeConverterDataProvider provider = converters.getDataProvider();
+    final LocalDate date1 = LocalDate.of(2013, 9, 6);
+    final LocalDate date2 = LocalDate.of(2013, 9, 9);
+    final InstrumentDerivative derivative = cache.getDerivative(security.getUniqueId(), security, definition, NOW, fixings(date1), provider);
+    assertSame(derivative, cache.getDerivative(security.getUniqueId(), security, definition, NOW, fixings(date1), converters.getDataProvider()));
+    assertEquals(1, converters._derivatives);
+    // new fixing
+    cache.getDerivative(security.getUniqueId(), security, definition, NOW, fixings(date1, date2), provider);
+    assertEquals(2, converters._derivatives);
+    // new valuation time
+    cache.getDerivative(security.getUniqueId(), security, definition, NOW.plusHours(1), fixings(date1, date2), provider);
+    assertEquals(3, converters._derivatives);
+    // definition not from the cache
+    cache.getDerivative(security.getUniqueId(), security, security.accept(converters), NOW.plusHours(1), fixings(date1, date2), provider);
+    assertEquals(4, converters._derivatives);
+  }
+
+  public void testChange() {
+    final CountingConverters converters = new CountingConverters();
+    final InstrumentConversionCache cache = new InstrumentConversionCache();
+    cache.getDefinition(security("1"), converters);
+    cache.entityChanged(new ChangeEvent(ChangeType.CHANGED, ObjectId.of("Test", "1"), Instant.now(), null, Instant.now()));
+    assertEquals(0, cache.size());
+    cache.getDefinition(security("1"), converters);
+    assertEquals(2, converters._definitions);
+  }
+
+  public void testSubscribe() {
+    final CountingConverters converters = new CountingConverters();
+    final InstrumentConversionCache cache = new InstrumentConversionCache();
+    final InMemorySecurityMaster securityMaster = new InMemorySecurityMaster();
+    final InMemoryHolidayMaster holidayMaster = new InMemoryHolidayMaster();
+    cache.subscribeSecurities(new MasterSecuritySource(securityMaster));
+    cache.subscribe(new MasterHolidaySource(holidayMaster));
+    cache.subscribe(new MasterHolidaySource(holidayMaster));
+    cache.subscribe(null);
+    final CashSecurity other = security("1");
+    other.setUniqueId(UniqueId.of("Sec", "2", "1"));
+    cache.getDefinition(security("1"), converters);
+    cache.getDefinition(other, converters);
+    assertEquals(2, cache.size());
+    // a security change only discards that security
+    securityMaster.changeManager().entityChanged(ChangeType.CHANGED, ObjectId.of("Sec", "1"), Instant.now(), null, Instant.now());
+    assertEquals(1, cache.size());
+    cache.getDefinition(other, converters);
+    assertEquals(2, converters._definitions);
+    // a holiday change discards everything
+    cache.getDefinition(security("1"), converters);
+    holidayMaster.changeManager().entityChanged(ChangeType.CHANGED, ObjectId.of("Hol", "1"), Instant.now(), null, Instant.now());
+    assertEquals(0, cache.size());
+  }
+
+  public void testMaximumSize() {
+    final CountingConverters converters = new CountingConverters();
+    final InstrumentConversionCache cache = new InstrumentConversionCache(2);
+    for (int i = 0; i < 4; i++) {
+      final CashSecurity security = security("1");
+      security.setUniqueId(UniqueId.of("Sec", Integer.toString(i), "1"));
+      cache.getDefinition(security, converters);
+    }
+    assertTrue(cache.size() <= 2);
+  }
+
+  public void testNone() {
+    final CountingConverters converters = new CountingConverters();
+    final InMemoryHolidayMaster holidayMaster = new InMemoryHolidayMaster();
+    InstrumentConversionCache.NONE.subscribe(new MasterHolidaySource(holidayMaster));
+    assertNotSame(InstrumentConversionCache.NONE.getDefinition(security("1"), converters), InstrumentConversionCache.NONE.getDefinition(security("1"), converters));
+    assertEquals(0, InstrumentConversionCache.NONE.size());
+  }
+
+  public void testShutdown() {
+    final CountingConverters converters = new CountingConverters();
+    final InstrumentConversionCache cache = new InstrumentConversionCache();
+    final InMemorySecurityMaster securityMaster = new InMemorySecurityMaster();
+    final InMemoryHolidayMaster holidayMaster = new InMemoryHolidayMaster();
+    cache.subscribeSecurities(new MasterSecuritySource(securityMaster));
+    cache.subscribe(new MasterHolidaySource(holidayMaster));
+    cache.shutdown();
+    cache.getDefinition(security("1"), converters);
+    securityMaster.changeManager().entityChanged(ChangeType.CHANGED, ObjectId.of("Sec", "1"), Instant.now(), null, Instant.now());
+    holidayMaster.changeManager().entityChanged(ChangeType.CHANGED, ObjectId.of("Hol", "1"), Instant.now(), null, Instant.now());
+    assertEquals(1, cache.size());
+  }
+
+  //-------------------------------------------------------------------------
+  private static final class CountingConverters extends FinancialSecurityVisitorAdapter<InstrumentDefinition<?>> {
+    private int _definitions;
+    private int _derivatives;
+
+    @Override
+    public InstrumentDefinition<?> visitCashSecurity(final CashSecurity security) {
+      _definitions++;
+      return new CashDefinition(security.getCurrency(), security.getStart(), security.getMaturity(), security.getAmount(), security.getRate(), 0.25);
+    }
+
+    private FixedIncomeConverterDataProvider getDataProvider() {
+      final HistoricalTimeSeriesResolver resolver = new HistoricalTimeSeriesResolver() {
+        @Override
+        public HistoricalTimeSeriesResolutionResult resolve(final ExternalIdBundle identifierBundle, final LocalDate identifierValidityDate, final String dataSource,
+            final String dataProvider, final String dataField, final String resolutionKey) {
+          return null;
+        }
+      };
+      return new FixedIncomeConverterDataProvider(new DefaultConventionBundleSource(new InMemoryConventionBundleMaster()), resolver) {
+        @Override
+        public InstrumentDerivative convert(final Security security, final InstrumentDefinition<?> definition, final ZonedDateTime now,
+            final HistoricalTimeSeriesBundle timeSeries) {
+          _derivatives++;
+          return definition.toDerivative(now);
+        }
+      };
+    }
+  }
+
+}
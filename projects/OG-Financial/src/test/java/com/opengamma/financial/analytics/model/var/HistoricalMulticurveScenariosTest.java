@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.analytics.model.var;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.analytics.financial.forex.method.FXMatrix;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.PaymentFixed;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldCurve;
+import com.opengamma.analytics.financial.provider.calculator.discounting.CompiledCashFlowPortfolio;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.financial.var.EmpiricalDistributionVaRParameters;
+import com.opengamma.analytics.financial.var.HistoricalVaRCalculationResult;
+import com.opengamma.analytics.financial.var.HistoricalVaREstimator;
+import com.opengamma.analytics.math.curve.ConstantDoublesCurve;
+import com.opengamma.analytics.math.function.Function1D;
+import com.opengamma.core.historicaltimeseries.impl.MockHistoricalTimeSeriesSource;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.test.TestGroup;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * Test {@link HistoricalMulticurveScenarios}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class HistoricalMulticurveScenariosTest {
+
+  private static final String SOURCE = "Source";
+  private static final String PROVIDER = "Provider";
+  private static final String FIELD = "Market_Value";
+  private static final double RATE = 0.01;
+  private static final double FX = 1.30;
+  private static final int NB_DATES = 101;
+  private static final LocalDate START = LocalDate.of(2013, 1, 1);
+  private static final ExternalIdBundle NODE_1Y = ExternalIdBundle.of(ExternalId.of("Test", "EUR1Y"));
+  private static final ExternalIdBundle NODE_5Y = ExternalIdBundle.of(ExternalId.of("Test", "EUR5Y"));
+  private static final ExternalIdBundle EURUSD = ExternalIdBundle.of(ExternalId.of("Test", "EURUSD"));
+  private static final MockHistoricalTimeSeriesSource HTS_SOURCE = new MockHistoricalTimeSeriesSource();
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+  private static final double[] NODE_RATES = new double[NB_DATES];
+  private static final double[] FX_RATES = new double[NB_DATES];
+  static {
+    final LocalDate[] dates = new LocalDate[NB_DATES];
+    for (int i = 0; i < NB_DATES; i++) {
+      dates[i] = START.plusDays(i);
+      NODE_RATES[i] = 0.02 + 0.001 * Math.sin(i);
+      FX_RATES[i] = 1.25 + 0.01 * Math.cos(i);
+    }
+    HTS_SOURCE.storeHistoricalTimeSeries(NODE_1Y, SOURCE, PROVIDER, FIELD, ImmutableLocalDateDoubleTimeSeries.of(dates, NODE_RATES));
+    HTS_SOURCE.storeHistoricalTimeSeries(NODE_5Y, SOURCE, PROVIDER, FIELD, ImmutableLocalDateDoubleTimeSeries.of(dates, NODE_RATES));
+    HTS_SOURCE.storeHistoricalTimeSeries(EURUSD, SOURCE, PROVIDER, FIELD, ImmutableLocalDateDoubleTimeSeries.of(dates, FX_RATES));
+  }
+  private static final MulticurveProviderDiscount BASE = new MulticurveProviderDiscount(new FXMatrix(Currency.EUR, Currency.USD, FX));
+  static {
+    BASE.setCurve(Currency.EUR, new YieldCurve("EUR Dsc", ConstantDoublesCurve.from(RATE)));
+    BASE.setCurve(Currency.USD, new YieldCurve("USD Dsc", ConstantDoublesCurve.from(RATE)));
+  }
+  private static final double TIME = 2.0;
+  private static final double AMOUNT = 1000000;
+  private static final CompiledCashFlowPortfolio PORTFOLIO = CompiledCashFlowPortfolio.of(new PaymentFixed(Currency.EUR, TIME, AMOUNT));
+  private static final EmpiricalDistributionVaRParameters PARAMETERS = new EmpiricalDistributionVaRParameters(1, 1, 0.95);
+  private static final double EPS = 1e-7;
+
+  private static HistoricalMulticurveScenarios scenarios(final ExternalIdBundle node) {
+    final SortedMap<Double, ExternalIdBundle> nodes = new TreeMap<>();
+    nodes.put(1.0, NODE_1Y);
+    nodes.put(5.0, node);
+    final Map<Pair<Currency, Currency>, ExternalIdBundle> fxRates = new HashMap<>();
+    fxRates.put(Pair.of(Currency.EUR, Currency.USD), EURUSD);
+    return HistoricalMulticurveScenarios.of(BASE, HTS_SOURCE, SOURCE, PROVIDER, FIELD, Collections.singletonMap("EUR Dsc", nodes), fxRates,
+        START, START.plusDays(NB_DATES));
+  }
+
+  public void testScenarios() {
+    final HistoricalMulticurveScenarios scenarios = scenarios(NODE_5Y);
+    assertEquals(NB_DATES - 1, scenarios.getNumberOfScenarios());
+    for (int i = 0; i < scenarios.getNumberOfScenarios(); i++) {
+      assertEquals(START.plusDays(i + 1), scenarios.getScenarioDate(i));
+      final MulticurveProviderDiscount scenario = scenarios.getScenario(i);
+      final double shift = NODE_RATES[i + 1] - NODE_RATES[i];
+      assertEquals(Math.exp(-(RATE + shift) * TIME), scenario.getDiscountFactor(Currency.EUR, TIME), EPS);
+      assertEquals(Math.exp(-RATE * TIME), scenario.getDiscountFactor(Currency.USD, TIME), EPS);
+      assertEquals(FX * FX_RATES[i + 1] / FX_RATES[i], scenario.getFxRate(Currency.EUR, Currency.USD), EPS);
+    }
+    assertEquals(FX, BASE.getFxRate(Currency.EUR, Currency.USD), EPS);
+  }
+
+  public void testValueAtRisk() {
+    final HistoricalMulticurveScenarios scenarios = scenarios(NODE_5Y);
+    final Function1D<Integer, Double> pnl = scenarios.getProfitAndLoss(PORTFOLIO, Currency.USD);
+    final HistoricalVaREstimator estimator = new HistoricalVaREstimator(PARAMETERS, scenarios.getNumberOfScenarios());
+    final double basePv = AMOUNT * Math.exp(-RATE * TIME) * FX;
+    for (int i = 0; i < scenarios.getNumberOfScenarios(); i++) {
+      final double pv = AMOUNT * Math.exp(-(RATE + NODE_RATES[i + 1] - NODE_RATES[i]) * TIME) * FX * FX_RATES[i + 1] / FX_RATES[i];
+      assertEquals(pv - basePv, pnl.evaluate(i), 1e-4);
+      estimator.add(pv - basePv);
+    }
+    final HistoricalVaRCalculationResult expected = estimator.getResult();
+    final HistoricalVaRCalculationResult sequential = scenarios.getValueAtRisk(PORTFOLIO, Currency.USD, PARAMETERS, null);
+    final HistoricalVaRCalculationResult parallel = scenarios.getValueAtRisk(PORTFOLIO, Currency.USD, PARAMETERS, POOL);
+    assertEquals(expected.getVaRValue(), sequential.getVaRValue(), 1e-4);
+    assertEquals(expected.getExpectedShortfall(), sequential.getExpectedShortfall(), 1e-4);
+    assertEquals(sequential.getVaRValue(), parallel.getVaRValue(), EPS);
+    assertEquals(sequential.getExpectedShortfall(), parallel.getExpectedShortfall(), EPS);
+  }
+
+  @Test(expectedExceptions = OpenGammaRuntimeException.class)
+  public void testMissingSeries() {
+    scenarios(ExternalIdBundle.of(ExternalId.of("Test", "Missing")));
+  }
+
+  @AfterClass
+  public void tearDown() {
+    POOL.shutdown();
+  }
+
+}
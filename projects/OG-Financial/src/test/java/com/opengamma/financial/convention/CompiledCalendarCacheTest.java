@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.convention;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.Period;
+
+import com.opengamma.analytics.financial.credit.StubType;
+import com.opengamma.analytics.financial.credit.creditdefaultswap.pricing.vanilla.isdanew.ISDAPremiumLegSchedule;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.core.holiday.HolidaySource;
+import com.opengamma.core.holiday.impl.WeekendHolidaySource;
+import com.opengamma.financial.convention.businessday.BusinessDayConvention;
+import com.opengamma.financial.convention.businessday.BusinessDayConventionFactory;
+import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.CompiledCalendar;
+import com.opengamma.id.ObjectId;
+import com.opengamma.master.holiday.HolidayDocument;
+import com.opengamma.master.holiday.ManageableHoliday;
+import com.opengamma.master.holiday.impl.InMemoryHolidayMaster;
+import com.opengamma.master.holiday.impl.MasterHolidaySource;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test {@link CompiledCalendarCache}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class CompiledCalendarCacheTest {
+
+  private static final HolidaySource HOLIDAYS = new WeekendHolidaySource();
+
+  public void testCompile() {
+    final CompiledCalendarCache cache = new CompiledCalendarCache(2000, 2020);
+    final CompiledCalendar usd = cache.getCompiledCalendar(new HolidaySourceCalendarAdapter(HOLIDAYS, Currency.USD));
+    assertSame(usd, cache.getCompiledCalendar(new HolidaySourceCalendarAdapter(HOLIDAYS, Currency.USD)));
+    assertSame(usd, cache.getCompiledCalendar(usd));
+    assertNotSame(usd, cache.getCompiledCalendar(new HolidaySourceCalendarAdapter(HOLIDAYS, Currency.EUR)));
+    assertEquals(2, cache.size());
+    assertEquals(2000, usd.getFirstYear());
+    assertEquals(2020, usd.getLastYear());
+    assertTrue(usd.isWorkingDay(LocalDate.of(2013, 9, 6)));
+    assertFalse(usd.isWorkingDay(LocalDate.of(2013, 9, 7)));
+    assertEquals(LocalDate.of(2013, 9, 9), usd.getNextWorkingDay(LocalDate.of(2013, 9, 6)));
+  }
+
+  public void testUnion() {
+    final CompiledCalendarCache cache = new CompiledCalendarCache(2000, 2020);
+    final Calendar usd = new HolidaySourceCalendarAdapter(HOLIDAYS, Currency.USD);
+    final Calendar eur = new HolidaySourceCalendarAdapter(HOLIDAYS, Currency.EUR);
+    final CompiledCalendar union = cache.getCompiledUnion(usd, eur);
+    assertEquals(2, cache.size());
+    for (LocalDate date = LocalDate.of(2013, 1, 1); date.getYear() == 2013; date = date.plusDays(1)) {
+      assertEquals(usd.isWorkingDay(date) && eur.isWorkingDay(date), union.isWorkingDay(date));
+    }
+  }
+
+  public void testMaximumSize() {
+    final CompiledCalendarCache cache = new CompiledCalendarCache(2000, 2020, 2);
+    for (final Currency currency : Arrays.asList(Currency.USD, Currency.EUR, Currency.GBP, Currency.JPY)) {
+      cache.getCompiledCalendar(new HolidaySourceCalendarAdapter(HOLIDAYS, currency));
+    }
+    assertTrue(cache.size() <= 2);
+  }
+
+  public void testInvalidate() {
+    final CompiledCalendarCache cache = new CompiledCalendarCache(2000, 2020);
+    final CompiledCalendar usd = cache.getCompiledCalendar(new HolidaySourceCalendarAdapter(HOLIDAYS, Currency.USD));
+    cache.entityChanged(new ChangeEvent(ChangeType.CHANGED, ObjectId.of("Test", "1"), Instant.now(), null, Instant.now()));
+    assertEquals(0, cache.size());
+    assertNotSame(usd, cache.getCompiledCalendar(new HolidaySourceCalendarAdapter(HOLIDAYS, Currency.USD)));
+  }
+
+  public void testInternedSchedulesAfterInvalidate() {
+    final CompiledCalendarCache cache = new CompiledCalendarCache(2000, 2020);
+    final Calendar usd = new HolidaySourceCalendarAdapter(HOLIDAYS, Currency.USD);
+    final BusinessDayConvention following = BusinessDayConventionFactory.INSTANCE.getBusinessDayConvention("Following");
+    final LocalDate startDate = LocalDate.of(2013, 3, 20);
+    final LocalDate endDate = LocalDate.of(2018, 6, 20);
+    final ISDAPremiumLegSchedule schedule = ISDAPremiumLegSchedule.of(startDate, endDate, Period.ofMonths(3), StubType.FRONTSHORT, following,
+        cache.getCompiledCalendar(usd), true);
+    assertSame(schedule, ISDAPremiumLegSchedule.of(startDate, endDate, Period.ofMonths(3), StubType.FRONTSHORT, following, cache.getCompiledCalendar(usd), true));
+    cache.invalidate();
+    assertNotSame(schedule, ISDAPremiumLegSchedule.of(startDate, endDate, Period.ofMonths(3), StubType.FRONTSHORT, following, cache.getCompiledCalendar(usd), true));
+  }
+
+  public void testHolidaySourceChange() {
+    final CompiledCalendarCache cache = new CompiledCalendarCache(2000, 2020);
+    final InMemoryHolidayMaster master = new InMemoryHolidayMaster();
+    master.add(new HolidayDocument(new ManageableHoliday(Currency.USD, Arrays.asList(LocalDate.of(2013, 7, 4)))));
+    final HolidaySource source = new MasterHolidaySource(master);
+    final CompiledCalendar usd = cache.getCompiledCalendar(new HolidaySourceCalendarAdapter(source, Currency.USD));
+    assertFalse(usd.isWorkingDay(LocalDate.of(2013, 7, 4)));
+    cache.getCompiledCalendar(new HolidaySourceCalendarAdapter(source, Currency.EUR));
+    assertEquals(2, cache.size());
+    master.add(new HolidayDocument(new ManageableHoliday(Currency.GBP, Arrays.asList(LocalDate.of(2013, 8, 26)))));
+    assertEquals(0, cache.size());
+  }
+
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.integration.tool.hts;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.OptionBuilder;
+import org.apache.commons.cli.Options;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Instant;
+
+import com.google.common.collect.Lists;
+import com.opengamma.component.tool.AbstractTool;
+import com.opengamma.core.historicaltimeseries.impl.MappedHistoricalTimeSeriesStoreWriter;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.integration.tool.IntegrationToolContext;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesGetFilter;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesInfoDocument;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesInfoSearchRequest;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesMaster;
+import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeries;
+import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeriesInfo;
+import com.opengamma.master.historicaltimeseries.impl.HistoricalTimeSeriesInfoSearchIterator;
+import com.opengamma.scripts.Scriptable;
+
+/**
+ * Tool to build a memory-mapped time-series store from the time-series master.
+ * <p>
+ * The store is read by {@code MappedHistoricalTimeSeriesSource}, allowing many processes on
+ * one machine to share read-mostly history through the operating system page cache.
+ * The data points are fetched from the master in batches, all at the same version-correction.
+ */
+@Scriptable
+public class MappedHistoricalTimeSeriesStoreTool extends AbstractTool<IntegrationToolContext> {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(MappedHistoricalTimeSeriesStoreTool.class);
+
+  /** Command line option. */
+  private static final String DIRECTORY_OPTION = "directory";
+  /** Command line option. */
+  private static final String DATA_SOURCE_OPTION = "dataSource";
+  /** Command line option. */
+  private static final String DATA_PROVIDER_OPTION = "dataProvider";
+  /** Command line option. */
+  private static final String DATA_FIELD_OPTION = "dataField";
+  /** The number of series to fetch from the master at once. */
+  private static final int BATCH_SIZE = 500;
+
+  /**
+   * Main method to run the tool.
+   *
+   * @param args the command line arguments
+   */
+  public static void main(String[] args) {  // CSIGNORE
+    boolean success = new MappedHistoricalTimeSeriesStoreTool().initAndRun(args, IntegrationToolContext.class);
+    System.exit(success ? 0 : 1);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected void doRun() throws Exception {
+    HistoricalTimeSeriesMaster htsMaster = getToolContext().getHistoricalTimeSeriesMaster();
+    if (htsMaster == null) {
+      s_logger.warn("Historical timeseries master is missing in toolContext");
+      return;
+    }
+    CommandLine commandLine = getCommandLine();
+    File directory = new File(commandLine.getOptionValue(DIRECTORY_OPTION));
+    HistoricalTimeSeriesInfoSearchRequest request = new HistoricalTimeSeriesInfoSearchRequest();
+    request.setDataSource(commandLine.getOptionValue(DATA_SOURCE_OPTION));
+    request.setDataProvider(commandLine.getOptionValue(DATA_PROVIDER_OPTION));
+    request.setDataField(commandLine.getOptionValue(DATA_FIELD_OPTION));
+    VersionCorrection versionCorrection = VersionCorrection.LATEST.withLatestFixed(Instant.now());
+    request.setVersionCorrection(versionCorrection);
+
+    try (MappedHistoricalTimeSeriesStoreWriter writer = new MappedHistoricalTimeSeriesStoreWriter(directory)) {
+      List<ManageableHistoricalTimeSeriesInfo> batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+      for (HistoricalTimeSeriesInfoDocument infoDoc : HistoricalTimeSeriesInfoSearchIterator.iterable(htsMaster, request)) {
+        batch.add(infoDoc.getInfo());
+        if (batch.size() == BATCH_SIZE) {
+          writeBatch(htsMaster, versionCorrection, batch, writer);
+        }
+      }
+      writeBatch(htsMaster, versionCorrection, batch, writer);
+      writer.commit();
+      s_logger.info("Wrote {} time-series to {}", writer.size(), directory);
+    }
+  }
+
+  private static void writeBatch(HistoricalTimeSeriesMaster htsMaster, VersionCorrection versionCorrection,
+      List<ManageableHistoricalTimeSeriesInfo> batch, MappedHistoricalTimeSeriesStoreWriter writer) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    List<ObjectId> objectIds = Lists.newArrayListWithCapacity(batch.size());
+    for (ManageableHistoricalTimeSeriesInfo info : batch) {
+      objectIds.add(info.getTimeSeriesObjectId());
+    }
+    Map<ObjectId, ManageableHistoricalTimeSeries> series = htsMaster.getTimeSeries(objectIds, versionCorrection, HistoricalTimeSeriesGetFilter.ofAll());
+    for (ManageableHistoricalTimeSeriesInfo info : batch) {
+      ManageableHistoricalTimeSeries hts = series.get(info.getTimeSeriesObjectId());
+      if (hts == null) {
+        s_logger.warn("No data points found for time-series {}", info.getUniqueId());
+        continue;
+      }
+      writer.add(info.getUniqueId(), info.getExternalIdBundle().toBundle(), info.getDataSource(), info.getDataProvider(), info.getDataField(), hts.getTimeSeries());
+    }
+    batch.clear();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected Options createOptions(boolean mandatoryConfigResource) {
+    Options options = super.createOptions(mandatoryConfigResource);
+    options.addOption(createDirectoryOption());
+    options.addOption(createFilterOption(DATA_SOURCE_OPTION, "s", "Only load series from this data source"));
+    options.addOption(createFilterOption(DATA_PROVIDER_OPTION, "p", "Only load series from this data provider"));
+    options.addOption(createFilterOption(DATA_FIELD_OPTION, "f", "Only load series for this data field"));
+    return options;
+  }
+
+  private static Option createDirectoryOption() {
+    OptionBuilder.withLongOpt(DIRECTORY_OPTION);
+    OptionBuilder.withDescription("Directory to write the store to");
+    OptionBuilder.hasArg();
+    OptionBuilder.withArgName("directory");
+    OptionBuilder.isRequired();
+    return OptionBuilder.create("d");
+  }
+
+  private static Option createFilterOption(String longOpt, String opt, String description) {
+    OptionBuilder.withLongOpt(longOpt);
+    OptionBuilder.withDescription(description);
+    OptionBuilder.hasArg();
+    OptionBuilder.withArgName(longOpt);
+    return OptionBuilder.create(opt);
+  }
+
+}
@@ -6,8 +6,10 @@
 package com.opengamma.master;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.google.common.collect.Maps;
 import com.opengamma.DataNotFoundException;
 import com.opengamma.core.AbstractSource;
 import com.opengamma.core.ObjectChangeListener;
@@ -149,6 +151,22 @@ public abstract class AbstractMasterSource<V extends UniqueIdentifiable, D exten
     return (V) getMaster().get(objectId, versionCorrection).getValue();
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public Map<UniqueId, V> get(Collection<UniqueId> uniqueIds) {
+    ArgumentChecker.notNull(uniqueIds, "uniqueIds");
+    if (getVersionCorrection() != null) {
+      // the override is applied to each identifier in turn
+      return super.get(uniqueIds);
+    }
+    final Map<UniqueId, ? extends D> documents = getMaster().get(uniqueIds);
+    final Map<UniqueId, V> result = Maps.newHashMapWithExpectedSize(documents.size());
+    for (Map.Entry<UniqueId, ? extends D> entry : documents.entrySet()) {
+      result.put(entry.getKey(), (V) entry.getValue().getValue());
+    }
+    return result;
+  }
+
   public V getFirstObject(Collection<? extends V> objects) {
     return objects.isEmpty() ? null : objects.iterator().next();
   }
@@ -537,13 +537,46 @@ public abstract class CombinedMaster<D extends AbstractDocument, M extends Abstr
   
   @Override
   public Map<UniqueId, D> get(Collection<UniqueId> uniqueIds) {
+    // one bulk call for each scheme
     Map<UniqueId, D> map = newHashMap();
-    for (UniqueId uniqueId : uniqueIds) {
-      map.put(uniqueId, get(uniqueId));
+    for (Map.Entry<String, List<UniqueId>> entry : groupByScheme(uniqueIds).entrySet()) {
+      final List<UniqueId> schemeIds = entry.getValue();
+      final M master = getMasterByScheme(entry.getKey());
+      if (master != null) {
+        map.putAll(master.get(schemeIds));
+      } else {
+        map.putAll((new Try<Map<UniqueId, D>>() {
+          @Override
+          public Map<UniqueId, D> tryMaster(final M master) {
+            return master.get(schemeIds);
+          }
+        }).each(entry.getKey()));
+      }
     }
     return map;
   }
 
+  /**
+   * Groups identifiers by scheme, allowing one bulk call to be made to each master.
+   * 
+   * @param <T>  the type of the identifier
+   * @param ids  the identifiers to group, not null
+   * @return the identifiers keyed by scheme, not null
+   */
+  protected static <T extends ObjectIdentifiable> Map<String, List<T>> groupByScheme(Collection<T> ids) {
+    Map<String, List<T>> idsByScheme = newHashMap();
+    for (T id : ids) {
+      final String scheme = id.getObjectId().getScheme();
+      List<T> schemeIds = idsByScheme.get(scheme);
+      if (schemeIds == null) {
+        schemeIds = new ArrayList<T>();
+        idsByScheme.put(scheme, schemeIds);
+      }
+      schemeIds.add(id);
+    }
+    return idsByScheme;
+  }
+
   /**
    * Resets the paging on a search request back to ALL and returns
    * the configured {@link PagingRequest}. This is useful for 
@@ -28,6 +28,7 @@ import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdSupplier;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.util.ArgumentChecker;
 
 /**
@@ -189,8 +190,33 @@ public abstract class SimpleAbstractInMemoryMaster<D extends AbstractDocument>
   public Map<UniqueId, D> get(Collection<UniqueId> uniqueIds) {
     Map<UniqueId, D> resultMap = newHashMap();
     for (UniqueId uniqueId : uniqueIds) {
-      D doc = get(uniqueId);
-      resultMap.put(uniqueId, doc);
+      try {
+        D doc = get(uniqueId);
+        resultMap.put(uniqueId, doc);
+      } catch (DataNotFoundException ex) {
+        // missing from the map
+      }
+    }
+    return resultMap;
+  }
+
+  /**
+   * Gets documents by object identifier and version-correction.
+   * <p>
+   * Documents that are not in the store are absent from the result.
+   *
+   * @param objectIds  the object identifiers to query, not null
+   * @param versionCorrection  the version-correction locator to search at, not null
+   * @return the map of results, not null
+   */
+  public Map<ObjectId, D> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    Map<ObjectId, D> resultMap = newHashMap();
+    for (ObjectId objectId : objectIds) {
+      if (_store.containsKey(objectId)) {
+        resultMap.put(objectId, get(objectId, versionCorrection));
+      }
     }
     return resultMap;
   }
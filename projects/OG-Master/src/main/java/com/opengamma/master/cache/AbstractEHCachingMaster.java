@@ -5,6 +5,7 @@
  */
 package com.opengamma.master.cache;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,6 +34,7 @@ import com.opengamma.core.change.BasicChangeManager;
 import com.opengamma.core.change.ChangeEvent;
 import com.opengamma.core.change.ChangeListener;
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ExternalId;
 import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
@@ -73,6 +75,8 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
   private final ChangeManager _changeManager;
   /** The document cache indexed by UniqueId. */
   private final Ehcache _uidToDocumentCache;
+  /** The document and search index by ObjectId, VersionCorrection and ExternalId. */
+  private final MasterQueryCache<D> _queryCache;
 
   /**
    * Creates an instance over an underlying source specifying the cache manager.
@@ -101,6 +105,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
                                                   new UidToDocumentCacheEntryFactory<>(_underlying));
     getCacheManager().replaceCacheWithDecoratedCache(_cacheManager.getCache(name + CACHE_NAME_SUFFIX),
                                                      getUidToDocumentCache());
+    _queryCache = new MasterQueryCache<>(_underlying);
 
     // Listen to change events from underlying, clean this cache accordingly and relay events to our change listeners
     _changeManager = new BasicChangeManager();
@@ -111,6 +116,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
         final Instant versionFrom = event.getVersionFrom();
         final Instant versionTo = event.getVersionTo();
         cleanCaches(oid, versionFrom, versionTo);
+        _queryCache.entityChanged(event);
         _changeManager.entityChanged(event.getType(), event.getObjectId(),
             event.getVersionFrom(), event.getVersionTo(), event.getVersionInstant());
       }
@@ -153,6 +159,13 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
     ArgumentChecker.notNull(objectId, "objectId");
     ArgumentChecker.notNull(versionCorrection, "versionCorrection");
 
+    // Look up in the version-correction index first
+    D indexed = getQueryCache().get(objectId.getObjectId(), versionCorrection);
+    if (indexed != null) {
+      return indexed;
+    }
+    final long generation = getQueryCache().getGeneration();
+
     // Search through attributes for specified oid, versions/corrections
     Results results = getUidToDocumentCache().createQuery()
         .includeKeys().includeValues()
@@ -186,6 +199,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
       }
 
       // Return cached value
+      getQueryCache().put(result, generation);
       return result;
 
     // No cached document found, fetch from underlying by oid/vc instead
@@ -196,6 +210,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
 
       // Explicitly insert in cache
       getUidToDocumentCache().put(new Element(result.getUniqueId(), result));
+      getQueryCache().put(result, generation);
 
       return result;
 
@@ -235,20 +250,88 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
     }
   }
 
+  @SuppressWarnings("unchecked")
   @Override
   public Map<UniqueId, D> get(Collection<UniqueId> uniqueIds) {
     ArgumentChecker.notNull(uniqueIds, "uniqueIds");
 
+    // Serve what is cached, without self-populating one document at a time
     Map<UniqueId, D> result = new HashMap<>();
+    List<UniqueId> misses = new ArrayList<>();
     for (UniqueId uniqueId : uniqueIds) {
+      Element element = getUidToDocumentCache().getQuiet(uniqueId);
+      if (element != null && element.getObjectValue() != null) {
+        result.put(uniqueId, (D) element.getObjectValue());
+      } else {
+        misses.add(uniqueId);
+      }
+    }
+
+    // Fetch the rest from underlying in one call and explicitly insert in cache
+    if (misses.size() > 0) {
+      for (Map.Entry<UniqueId, D> entry : _underlying.get(misses).entrySet()) {
+        getUidToDocumentCache().put(new Element(entry.getKey(), entry.getValue()));
+        result.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets documents by object identifier and version-correction.
+   * <p>
+   * Documents in the version-correction index are served from the cache and the
+   * remainder are fetched using {@link #getFromUnderlying(Collection, VersionCorrection)}.
+   *
+   * @param objectIds  the object identifiers to query, not null
+   * @param versionCorrection  the version-correction locator to search at, not null
+   * @return the map of results, if there is no data for an identifier it will be missing from the map, not null
+   */
+  public Map<ObjectId, D> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+
+    Map<ObjectId, D> result = new HashMap<>();
+    List<ObjectId> misses = new ArrayList<>();
+    for (ObjectId objectId : objectIds) {
+      D indexed = getQueryCache().get(objectId, versionCorrection);
+      if (indexed != null) {
+        result.put(objectId, indexed);
+      } else {
+        misses.add(objectId);
+      }
+    }
+    if (misses.size() > 0) {
+      final long generation = getQueryCache().getGeneration();
+      for (Map.Entry<ObjectId, D> entry : getFromUnderlying(misses, versionCorrection).entrySet()) {
+        D document = entry.getValue();
+        getUidToDocumentCache().put(new Element(document.getUniqueId(), document));
+        getQueryCache().put(document, generation);
+        result.put(entry.getKey(), document);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets documents by object identifier and version-correction from the underlying master.
+   * <p>
+   * This implementation makes one call to the underlying master for each identifier.
+   * Subclasses whose underlying master has a bulk form should override this.
+   *
+   * @param objectIds  the object identifiers to query, not null
+   * @param versionCorrection  the version-correction locator to search at, not null
+   * @return the map of results, if there is no data for an identifier it will be missing from the map, not null
+   */
+  protected Map<ObjectId, D> getFromUnderlying(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    Map<ObjectId, D> result = new HashMap<>();
+    for (ObjectId objectId : objectIds) {
       try {
-        D object = get(uniqueId);
-        result.put(uniqueId, object);
+        result.put(objectId, _underlying.get(objectId, versionCorrection));
       } catch (DataNotFoundException ex) {
         // do nothing
       }
     }
-
     return result;
   }
 
@@ -264,6 +347,9 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
     // Store document in UniqueId cache
     getUidToDocumentCache().put(new Element(result.getUniqueId(), result));
 
+    // Flush searches the new document may match
+    getQueryCache().invalidate(result);
+
     return result;
   }
 
@@ -277,6 +363,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
 
     // Update document in underlying master
     D result = getUnderlying().update(document);
+    getQueryCache().invalidate(result);
 
     // Store document in UniqueId cache
     getUidToDocumentCache().put(new Element(result.getUniqueId(), result));
@@ -290,6 +377,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
 
     // Remove document from underlying master
     getUnderlying().remove(objectId);
+    getQueryCache().invalidate(objectId.getObjectId(), Collections.<ExternalId>emptySet());
 
     // Adjust version/correction validity of latest version in Oid cache
     // Note: cleanCaches is already triggered by underlying master, so this is probably redundant
@@ -306,6 +394,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
 
     // Correct document in underlying master
     D result = getUnderlying().correct(document);
+    getQueryCache().invalidate(result);
 
     // Store latest correction in UniqueId cache
     getUidToDocumentCache().put(new Element(result.getUniqueId(), result));
@@ -323,6 +412,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
 
     // Replace version in underlying master
     List<UniqueId> results = getUnderlying().replaceVersion(uniqueId, replacementDocuments);
+    invalidateQueryCache(uniqueId.getObjectId(), replacementDocuments);
 
     // Don't cache replacementDocuments, whose version, correction instants may have been altered by underlying master
 
@@ -339,6 +429,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
 
     // Replace all versions in underlying master
     List<UniqueId> results = getUnderlying().replaceAllVersions(objectId, replacementDocuments);
+    invalidateQueryCache(objectId.getObjectId(), replacementDocuments);
 
     // Don't cache replacementDocuments, whose version, correction instants may have been altered by underlying master
 
@@ -355,6 +446,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
 
     // Replace versions in underlying master
     List<UniqueId> results = getUnderlying().replaceVersions(objectId, replacementDocuments);
+    invalidateQueryCache(objectId.getObjectId(), replacementDocuments);
 
     // Don't cache replacementDocuments, whose version, correction instants may have been altered by underlying master
 
@@ -410,6 +502,15 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
     }
   }
 
+  private void invalidateQueryCache(ObjectId objectId, List<D> replacementDocuments) {
+    getQueryCache().invalidate(objectId, Collections.<ExternalId>emptySet());
+    for (D document : replacementDocuments) {
+      if (document.getValue() != null) {
+        getQueryCache().invalidate(document);
+      }
+    }
+  }
+
   /**
    * Call this at the end of a unit test run to clear the state of EHCache.
    * It should not be part of a generic lifecycle method.
@@ -417,6 +518,7 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
   public void shutdown() {
     getUnderlying().changeManager().removeChangeListener(_changeListener);
     getCacheManager().removeCache(getUidToDocumentCache().getName());
+    getQueryCache().clear();
   }
 
   //-------------------------------------------------------------------------
@@ -448,6 +550,15 @@ public abstract class AbstractEHCachingMaster<D extends AbstractDocument> implem
     return _uidToDocumentCache;
   }
 
+  /**
+   * Gets the document and search index by ObjectId, VersionCorrection and ExternalId.
+   *
+   * @return the index, not null
+   */
+  protected MasterQueryCache<D> getQueryCache() {
+    return _queryCache;
+  }
+
   @Override
   public ChangeManager changeManager() {
     return _changeManager;
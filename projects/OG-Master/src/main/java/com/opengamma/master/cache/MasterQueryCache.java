@@ -0,0 +1,461 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.joda.beans.JodaBeanUtils;
+import org.threeten.bp.Instant;
+
+import com.opengamma.DataNotFoundException;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.id.ExternalBundleIdentifiable;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdSearch;
+import com.opengamma.id.ExternalIdSearchType;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueIdentifiable;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.AbstractDocument;
+import com.opengamma.master.AbstractMaster;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.tuple.ObjectsPair;
+
+/**
+ * An in-memory index of master documents and external identifier search results, used by the caching masters
+ * to answer "latest" and "as of" lookups without querying the underlying master.
+ * <p>
+ * Documents are indexed by object identifier and located by their version and correction windows, so any
+ * version-correction falling within a cached window is a hit. Search results are keyed by the external identifier
+ * search and version-correction, and indexed both by the identifiers searched for and the objects returned.
+ * <p>
+ * A change to an object removes its cached versions and any search that returned it or may now return it,
+ * leaving entries for other objects in place. The searches an added or changed object may now match are only known from
+ * its latest identifiers, which are not read on the thread delivering the change: the object is recorded and its latest
+ * version is fetched by the next search of the cache, see {@link #search}. Entries are only stored if no change to the objects and identifiers
+ * they involve has been seen since the caller began fetching them from the underlying master, see {@link #getGeneration()}.
+ * When the number of cached objects and searches exceeds the maximum the least recently used are evicted.
+ *
+ * @param <D> the document type
+ */
+public class MasterQueryCache<D extends AbstractDocument> {
+
+  /** The default maximum number of entries. */
+  public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+  /** The underlying master, used to find the identifiers of changed documents on the next search. */
+  private final AbstractMaster<D> _underlying;
+  /** The maximum number of cached objects and searches. */
+  private final int _maxEntries;
+  /** The cached versions of each object, guarded by this. */
+  private final Map<ObjectId, List<D>> _documentsByObjectId = new HashMap<>();
+  /** The cached search results, guarded by this. */
+  private final Map<ObjectsPair<ExternalIdSearch, VersionCorrection>, List<D>> _searches = new HashMap<>();
+  /** The cached searches that returned each object, guarded by this. */
+  private final Map<ObjectId, Set<ObjectsPair<ExternalIdSearch, VersionCorrection>>> _searchesByObjectId = new HashMap<>();
+  /** The cached searches that specified each identifier, guarded by this. */
+  private final Map<ExternalId, Set<ObjectsPair<ExternalIdSearch, VersionCorrection>>> _searchesByExternalId = new HashMap<>();
+  /** The object identifiers and search keys of the entries, least recently used first, guarded by this. */
+  private final LinkedHashMap<Object, Boolean> _usage = new LinkedHashMap<>(16, 0.75f, true);
+  /** The generation at which each object and identifier was last invalidated, oldest first, guarded by this. */
+  private final LinkedHashMap<Object, Long> _invalidations = new LinkedHashMap<>();
+  /** The latest generation of the invalidations no longer recorded, guarded by this. */
+  private long _forgottenGeneration;
+  /** The generation at which a change to unknown identifiers was last seen, guarded by this. */
+  private long _searchesInvalidatedGeneration;
+  /** The objects added or changed whose identifiers are not yet checked against the searches, with the generation of the change, guarded by this. */
+  private final Map<ObjectId, Long> _pendingChanges = new HashMap<>();
+  /** The generation, incremented on every invalidation. */
+  private final AtomicLong _generation = new AtomicLong();
+
+  /**
+   * Creates an instance.
+   *
+   * @param underlying  the underlying master, not null
+   */
+  public MasterQueryCache(final AbstractMaster<D> underlying) {
+    this(underlying, DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param underlying  the underlying master, not null
+   * @param maxEntries  the maximum number of cached objects and searches, positive
+   */
+  public MasterQueryCache(final AbstractMaster<D> underlying, final int maxEntries) {
+    ArgumentChecker.notNull(underlying, "underlying");
+    ArgumentChecker.notNegativeOrZero(maxEntries, "maxEntries");
+    _underlying = underlying;
+    _maxEntries = maxEntries;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the current generation.
+   * <p>
+   * This must be read before fetching from the underlying master and passed when storing the result.
+   *
+   * @return the generation
+   */
+  public long getGeneration() {
+    return _generation.get();
+  }
+
+  /**
+   * Gets a copy of the cached document for an object at a version-correction.
+   *
+   * @param objectId  the object identifier, not null
+   * @param versionCorrection  the version-correction, not null
+   * @return the document, null if not cached
+   */
+  public D get(final ObjectId objectId, final VersionCorrection versionCorrection) {
+    final List<D> versions;
+    synchronized (this) {
+      versions = _documentsByObjectId.get(objectId);
+      if (versions == null) {
+        return null;
+      }
+      _usage.get(objectId);
+    }
+    final VersionCorrection resolved = versionCorrection.withLatestFixed(Instant.now());
+    for (D document : versions) {
+      if (isValid(document, resolved)) {
+        return JodaBeanUtils.clone(document);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Stores a document fetched from the underlying master.
+   *
+   * @param document  the document, not null
+   * @param generation  the generation read before the document was fetched
+   */
+  public synchronized void put(final D document, final long generation) {
+    final ObjectId objectId = document.getObjectId();
+    if (objectId == null || isInvalidatedSince(objectId, generation)) {
+      return;
+    }
+    final List<D> existing = _documentsByObjectId.get(objectId);
+    final List<D> versions = new ArrayList<>();
+    if (existing != null) {
+      for (D version : existing) {
+        if (!version.getUniqueId().equals(document.getUniqueId())) {
+          versions.add(version);
+        }
+      }
+    }
+    versions.add(JodaBeanUtils.clone(document));
+    _documentsByObjectId.put(objectId, Collections.unmodifiableList(versions));
+    _usage.put(objectId, Boolean.TRUE);
+    checkSize();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks if the results of an external identifier search can be cached.
+   * <p>
+   * Searches for objects without identifiers cannot be invalidated precisely and are not cached.
+   *
+   * @param search  the search, null returns false
+   * @return true if the search can be cached
+   */
+  public static boolean isCacheable(final ExternalIdSearch search) {
+    return search != null && search.getSearchType() != ExternalIdSearchType.NONE && search.size() > 0;
+  }
+
+  /**
+   * Gets copies of the cached results of an external identifier search.
+   * <p>
+   * The latest versions of the objects added or changed since the previous search are first fetched from the
+   * underlying master, to discard the searches they may now match.
+   *
+   * @param search  the search, not null
+   * @param versionCorrection  the version-correction of the search, not null
+   * @return the documents, null if not cached
+   */
+  public List<D> search(final ExternalIdSearch search, final VersionCorrection versionCorrection) {
+    checkPendingChanges();
+    final ObjectsPair<ExternalIdSearch, VersionCorrection> key = ObjectsPair.of(search, versionCorrection);
+    final List<D> documents;
+    synchronized (this) {
+      documents = _searches.get(key);
+      if (documents == null) {
+        return null;
+      }
+      _usage.get(key);
+    }
+    final List<D> result = new ArrayList<>(documents.size());
+    for (D document : documents) {
+      result.add(JodaBeanUtils.clone(document));
+    }
+    return result;
+  }
+
+  /**
+   * Stores the results of an external identifier search fetched from the underlying master.
+   *
+   * @param search  the search, not null
+   * @param versionCorrection  the version-correction of the search, not null
+   * @param documents  the documents found, not null
+   * @param generation  the generation read before the search was run
+   */
+  public synchronized void putSearch(final ExternalIdSearch search, final VersionCorrection versionCorrection, final List<D> documents, final long generation) {
+    if (!isCacheable(search) || generation < _searchesInvalidatedGeneration) {
+      return;
+    }
+    for (ExternalId externalId : search) {
+      if (isInvalidatedSince(externalId, generation)) {
+        return;
+      }
+    }
+    for (D document : documents) {
+      if (isInvalidatedSince(document.getObjectId(), generation)) {
+        return;
+      }
+    }
+    // the search is mutable, so key on a copy
+    final ExternalIdSearch searchCopy = new ExternalIdSearch(search.getExternalIds(), search.getSearchType());
+    final ObjectsPair<ExternalIdSearch, VersionCorrection> key = ObjectsPair.of(searchCopy, versionCorrection);
+    removeSearch(key);
+    final List<D> copies = new ArrayList<>(documents.size());
+    for (D document : documents) {
+      copies.add(JodaBeanUtils.clone(document));
+      addToIndex(_searchesByObjectId, document.getObjectId(), key);
+    }
+    for (ExternalId externalId : searchCopy) {
+      addToIndex(_searchesByExternalId, externalId, key);
+    }
+    _searches.put(key, Collections.unmodifiableList(copies));
+    _usage.put(key, Boolean.TRUE);
+    checkSize();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Invalidates the entries affected by a change event from the underlying master.
+   * <p>
+   * The cached versions of the object and the searches that returned it are discarded. The underlying master
+   * is not read: if the object was added or changed, any search being fetched is treated as affected, and
+   * the searches it may now match are found by the next call to {@link #search}.
+   *
+   * @param event  the change event, not null
+   */
+  public synchronized void entityChanged(final ChangeEvent event) {
+    final ObjectId objectId = event.getObjectId();
+    invalidate(objectId, Collections.<ExternalId>emptySet());
+    if (event.getType() != ChangeType.REMOVED) {
+      final long generation = _generation.get();
+      _searchesInvalidatedGeneration = generation;
+      if (!_searches.isEmpty()) {
+        _pendingChanges.put(objectId, generation);
+        if (_pendingChanges.size() > _maxEntries) {
+          removeAllSearches();
+        }
+      }
+    }
+  }
+
+  /**
+   * Invalidates the entries affected by a document written through to the underlying master.
+   *
+   * @param document  the document as written, not null
+   */
+  public void invalidate(final D document) {
+    invalidate(document.getObjectId(), getExternalIds(document.getValue()));
+  }
+
+  /**
+   * Invalidates the cached versions of an object and the searches it may affect.
+   *
+   * @param objectId  the object identifier, not null
+   * @param externalIds  the current identifiers of the object, not null
+   */
+  public synchronized void invalidate(final ObjectId objectId, final Iterable<ExternalId> externalIds) {
+    final long generation = _generation.incrementAndGet();
+    recordInvalidation(objectId, generation);
+    for (ExternalId externalId : externalIds) {
+      recordInvalidation(externalId, generation);
+    }
+    removeDocuments(objectId);
+    removeSearches(objectId, externalIds);
+  }
+
+  /**
+   * Clears all entries.
+   */
+  public synchronized void clear() {
+    _forgottenGeneration = _generation.incrementAndGet();
+    _searchesInvalidatedGeneration = _forgottenGeneration;
+    _invalidations.clear();
+    _documentsByObjectId.clear();
+    _searches.clear();
+    _searchesByObjectId.clear();
+    _searchesByExternalId.clear();
+    _pendingChanges.clear();
+    _usage.clear();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Discards the searches that the objects added or changed since the previous search may now match.
+   * <p>
+   * The latest versions are fetched without holding the lock. A pending object is only forgotten once
+   * its searches are discarded, and if it has not changed again since it was fetched.
+   */
+  private void checkPendingChanges() {
+    final Map<ObjectId, Long> pending;
+    synchronized (this) {
+      if (_pendingChanges.isEmpty()) {
+        return;
+      }
+      pending = new HashMap<>(_pendingChanges);
+    }
+    for (Map.Entry<ObjectId, Long> entry : pending.entrySet()) {
+      final ObjectId objectId = entry.getKey();
+      Iterable<ExternalId> externalIds = Collections.emptySet();
+      try {
+        externalIds = getExternalIds(_underlying.get(objectId, VersionCorrection.LATEST).getValue());
+      } catch (DataNotFoundException ex) {
+        // removed since the change, so matches no search
+      }
+      synchronized (this) {
+        removeSearches(objectId, externalIds);
+        if (entry.getValue().equals(_pendingChanges.get(objectId))) {
+          _pendingChanges.remove(objectId);
+        }
+      }
+    }
+  }
+
+  private void removeSearches(final ObjectId objectId, final Iterable<ExternalId> externalIds) {
+    final Set<ObjectsPair<ExternalIdSearch, VersionCorrection>> affected = new HashSet<>();
+    final Set<ObjectsPair<ExternalIdSearch, VersionCorrection>> byObject = _searchesByObjectId.get(objectId);
+    if (byObject != null) {
+      affected.addAll(byObject);
+    }
+    for (ExternalId externalId : externalIds) {
+      final Set<ObjectsPair<ExternalIdSearch, VersionCorrection>> byExternalId = _searchesByExternalId.get(externalId);
+      if (byExternalId != null) {
+        affected.addAll(byExternalId);
+      }
+    }
+    for (ObjectsPair<ExternalIdSearch, VersionCorrection> key : affected) {
+      removeSearch(key);
+    }
+  }
+
+  private void removeAllSearches() {
+    for (ObjectsPair<ExternalIdSearch, VersionCorrection> key : new ArrayList<>(_searches.keySet())) {
+      removeSearch(key);
+    }
+    _pendingChanges.clear();
+  }
+
+  private static Iterable<ExternalId> getExternalIds(final UniqueIdentifiable value) {
+    if (value instanceof ExternalBundleIdentifiable && ((ExternalBundleIdentifiable) value).getExternalIdBundle() != null) {
+      return ((ExternalBundleIdentifiable) value).getExternalIdBundle();
+    }
+    return Collections.emptySet();
+  }
+
+  private static boolean isValid(final AbstractDocument document, final VersionCorrection versionCorrection) {
+    return isWithin(versionCorrection.getVersionAsOf(), document.getVersionFromInstant(), document.getVersionToInstant()) &&
+        isWithin(versionCorrection.getCorrectedTo(), document.getCorrectionFromInstant(), document.getCorrectionToInstant());
+  }
+
+  private static boolean isWithin(final Instant instant, final Instant from, final Instant to) {
+    return (from == null || !instant.isBefore(from)) && (to == null || instant.isBefore(to));
+  }
+
+  private boolean isInvalidatedSince(final Object key, final long generation) {
+    final Long invalidated = _invalidations.get(key);
+    return generation < _forgottenGeneration || (invalidated != null && generation < invalidated);
+  }
+
+  private void recordInvalidation(final Object key, final long generation) {
+    // re-insert so the record order stays the order of invalidation
+    _invalidations.remove(key);
+    _invalidations.put(key, generation);
+    // a fetch that started before a forgotten invalidation is conservatively treated as stale
+    final Iterator<Map.Entry<Object, Long>> it = _invalidations.entrySet().iterator();
+    while (_invalidations.size() > _maxEntries) {
+      _forgottenGeneration = it.next().getValue();
+      it.remove();
+    }
+  }
+
+  private void removeDocuments(final ObjectId objectId) {
+    _documentsByObjectId.remove(objectId);
+    _usage.remove(objectId);
+  }
+
+  private void removeSearch(final ObjectsPair<ExternalIdSearch, VersionCorrection> key) {
+    final List<D> documents = _searches.remove(key);
+    if (documents == null) {
+      return;
+    }
+    _usage.remove(key);
+    for (D document : documents) {
+      removeFromIndex(_searchesByObjectId, document.getObjectId(), key);
+    }
+    for (ExternalId externalId : key.getFirst()) {
+      removeFromIndex(_searchesByExternalId, externalId, key);
+    }
+  }
+
+  private static <K> void addToIndex(final Map<K, Set<ObjectsPair<ExternalIdSearch, VersionCorrection>>> index, final K indexKey,
+      final ObjectsPair<ExternalIdSearch, VersionCorrection> key) {
+    Set<ObjectsPair<ExternalIdSearch, VersionCorrection>> keys = index.get(indexKey);
+    if (keys == null) {
+      keys = new HashSet<>();
+      index.put(indexKey, keys);
+    }
+    keys.add(key);
+  }
+
+  private static <K> void removeFromIndex(final Map<K, Set<ObjectsPair<ExternalIdSearch, VersionCorrection>>> index, final K indexKey,
+      final ObjectsPair<ExternalIdSearch, VersionCorrection> key) {
+    final Set<ObjectsPair<ExternalIdSearch, VersionCorrection>> keys = index.get(indexKey);
+    if (keys != null) {
+      keys.remove(key);
+      if (keys.isEmpty()) {
+        index.remove(indexKey);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void checkSize() {
+    while (_usage.size() > _maxEntries) {
+      final Object eldest = _usage.keySet().iterator().next();
+      if (eldest instanceof ObjectId) {
+        removeDocuments((ObjectId) eldest);
+      } else {
+        removeSearch((ObjectsPair<ExternalIdSearch, VersionCorrection>) eldest);
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + _underlying + "]";
+  }
+
+}
@@ -5,6 +5,12 @@
  */
 package com.opengamma.master.config;
 
+import java.util.Collection;
+import java.util.Map;
+
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.ObjectIdentifiable;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.AbstractChangeProvidingMaster;
 import com.opengamma.util.PublicSPI;
 
@@ -51,4 +57,16 @@ public interface ConfigMaster extends AbstractChangeProvidingMaster<ConfigDocume
    */
   ConfigMetaDataResult metaData(ConfigMetaDataRequest request);
 
+  /**
+   * Gets configuration documents by object identifier and version-correction.
+   * <p>
+   * This bulk method is potentially a more efficient form of
+   * {@link #get(ObjectIdentifiable, VersionCorrection)} for multiple lookups.
+   *
+   * @param objectIds  the object identifiers to query, not null
+   * @param versionCorrection  the version-correction locator to search at, not null
+   * @return the map of results, if there is no data for an identifier it will be missing from the map, not null
+   */
+  Map<ObjectId, ConfigDocument> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection);
+
 }
@@ -6,6 +6,7 @@
 package com.opengamma.master.config.impl;
 
 import java.net.URI;
+import java.util.List;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.HEAD;
@@ -17,14 +18,21 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.FudgeMsgEnvelope;
+
 import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.config.ConfigDocument;
 import com.opengamma.master.config.ConfigMaster;
 import com.opengamma.master.config.ConfigMetaDataRequest;
 import com.opengamma.master.config.ConfigMetaDataResult;
 import com.opengamma.master.config.ConfigSearchRequest;
 import com.opengamma.master.config.ConfigSearchResult;
+import com.opengamma.master.impl.BulkGetRestUtils;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.fudgemsg.FudgeMapWrapper;
 import com.opengamma.util.rest.AbstractDataResource;
 import com.opengamma.util.rest.RestUtils;
 
@@ -98,6 +106,24 @@ public class DataConfigMasterResource extends AbstractDataResource {
     return responseCreatedFudge(createdUri, result);
   }
 
+  @POST
+  @Path("configUniqueIdGets")
+  public Response getBulk(FudgeMsgEnvelope request) {
+    // non-ideal variant using POST
+    List<UniqueId> uniqueIds = BulkGetRestUtils.decodeUniqueIds(request.getMessage());
+    return responseOkFudge(FudgeMapWrapper.of(getConfigMaster().get(uniqueIds)));
+  }
+
+  @POST
+  @Path("configObjectIdGets")
+  public Response getBulkByObjectId(FudgeMsgEnvelope request) {
+    // non-ideal variant using POST
+    FudgeMsg msg = request.getMessage();
+    List<ObjectId> objectIds = BulkGetRestUtils.decodeObjectIds(msg);
+    VersionCorrection versionCorrection = BulkGetRestUtils.decodeVersionCorrection(msg);
+    return responseOkFudge(FudgeMapWrapper.of(getConfigMaster().get(objectIds, versionCorrection)));
+  }
+
   //-------------------------------------------------------------------------
   @Path("configs/{configId}")
   public DataConfigResource findConfig(@PathParam("configId") String idStr) {
@@ -143,4 +169,26 @@ public class DataConfigMasterResource extends AbstractDataResource {
     return bld.build();
   }
 
+  /**
+   * Builds a URI for the bulk retrieval of configs by unique identifier.
+   * 
+   * @param baseUri  the base URI, not null
+   * @return the URI, not null
+   */
+  public static URI uriGetBulk(URI baseUri) {
+    UriBuilder bld = UriBuilder.fromUri(baseUri).path("configUniqueIdGets");
+    return bld.build();
+  }
+
+  /**
+   * Builds a URI for the bulk retrieval of configs by object identifier.
+   * 
+   * @param baseUri  the base URI, not null
+   * @return the URI, not null
+   */
+  public static URI uriGetBulkByObjectId(URI baseUri) {
+    UriBuilder bld = UriBuilder.fromUri(baseUri).path("configObjectIdGets");
+    return bld.build();
+  }
+
 }
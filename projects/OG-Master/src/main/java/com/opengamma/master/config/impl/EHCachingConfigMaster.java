@@ -6,13 +6,17 @@
 package com.opengamma.master.config.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.joda.beans.Bean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.AbstractSearchRequest;
 import com.opengamma.master.cache.AbstractEHCachingMaster;
 import com.opengamma.master.cache.EHCachingSearchCache;
@@ -141,6 +145,11 @@ public class EHCachingConfigMaster extends AbstractEHCachingMaster<ConfigDocumen
     return ((ConfigMaster) getUnderlying()).metaData(request);
   }
 
+  @Override
+  protected Map<ObjectId, ConfigDocument> getFromUnderlying(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    return ((ConfigMaster) getUnderlying()).get(objectIds, versionCorrection);
+  }
+
   @Override
   public <R> ConfigHistoryResult<R> history(ConfigHistoryRequest<R> request) {
 
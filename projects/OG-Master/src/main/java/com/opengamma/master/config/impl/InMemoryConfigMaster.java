@@ -360,7 +360,24 @@ public class InMemoryConfigMaster implements ConfigMaster {
   public Map<UniqueId, ConfigDocument> get(final Collection<UniqueId> uniqueIds) {
     final Map<UniqueId, ConfigDocument> resultMap = newHashMap();
     for (final UniqueId uniqueId : uniqueIds) {
-      resultMap.put(uniqueId, _store.get(uniqueId.getObjectId()));
+      final ConfigDocument document = _store.get(uniqueId.getObjectId());
+      if (document != null) {
+        resultMap.put(uniqueId, document);
+      }
+    }
+    return resultMap;
+  }
+
+  @Override
+  public Map<ObjectId, ConfigDocument> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    final Map<ObjectId, ConfigDocument> resultMap = newHashMap();
+    for (final ObjectId objectId : objectIds) {
+      final ConfigDocument document = _store.get(objectId);
+      if (document != null) {
+        resultMap.put(objectId, document);
+      }
     }
     return resultMap;
   }
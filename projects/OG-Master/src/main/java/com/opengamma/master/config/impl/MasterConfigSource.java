@@ -196,6 +196,16 @@ public class MasterConfigSource extends AbstractSource<ConfigItem<?>> implements
     return map;
   }
 
+  @Override
+  public Map<ObjectId, ConfigItem<?>> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    final Map<ObjectId, ConfigDocument> result = getMaster().get(objectIds, versionCorrection);
+    final Map<ObjectId, ConfigItem<?>> map = newHashMap();
+    for (final Map.Entry<ObjectId, ConfigDocument> entry : result.entrySet()) {
+      map.put(entry.getKey(), entry.getValue().getConfig());
+    }
+    return map;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public String toString() {
@@ -6,9 +6,12 @@
 package com.opengamma.master.config.impl;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -91,6 +94,17 @@ public class RemoteConfigMaster
     return accessRemote(uri).get(ConfigDocument.class);
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public Map<UniqueId, ConfigDocument> get(final Collection<UniqueId> uniqueIds) {
+    return getBulk(DataConfigMasterResource.uriGetBulk(getBaseUri()), uniqueIds);
+  }
+
+  @Override
+  public Map<ObjectId, ConfigDocument> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    return getBulk(DataConfigMasterResource.uriGetBulkByObjectId(getBaseUri()), objectIds, versionCorrection);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public ConfigDocument add(final ConfigDocument document) {
@@ -5,10 +5,14 @@
  */
 package com.opengamma.master.historicaltimeseries;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.threeten.bp.LocalDate;
 
 import com.opengamma.DataNotFoundException;
 import com.opengamma.core.change.ChangeProvider;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -114,6 +118,21 @@ public interface HistoricalTimeSeriesMaster extends AbstractChangeProvidingMaste
    */
   ManageableHistoricalTimeSeries getTimeSeries(ObjectIdentifiable objectId, VersionCorrection versionCorrection, HistoricalTimeSeriesGetFilter filter);
 
+  /**
+   * Returns a subset of the data points of many time-series, or the entire series.
+   * <p>
+   * This is equivalent to calling {@link #getTimeSeries(ObjectIdentifiable, VersionCorrection, HistoricalTimeSeriesGetFilter)}
+   * for each object identifier, but allows an implementation to fetch the series together.
+   * A time-series that cannot be found is absent from the result rather than causing an exception.
+   * 
+   * @param objectIds  the time-series data points object identifiers, not null
+   * @param versionCorrection  the version-correction locator to search at, not null
+   * @param filter  the time-series subset filter, applied to each series, not null
+   * @return the filtered subset of time-series data points keyed by object identifier, not null
+   * @throws IllegalArgumentException if the request is invalid
+   */
+  Map<ObjectId, ManageableHistoricalTimeSeries> getTimeSeries(Collection<ObjectId> objectIds, VersionCorrection versionCorrection, HistoricalTimeSeriesGetFilter filter);
+
   //-------------------------------------------------------------------------
   /**
    * Adds to the time-series by appending new data points.
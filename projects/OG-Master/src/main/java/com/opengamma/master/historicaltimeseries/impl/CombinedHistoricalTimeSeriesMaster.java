@@ -5,12 +5,17 @@
  */
 package com.opengamma.master.historicaltimeseries.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.threeten.bp.LocalDate;
 
 import com.opengamma.core.change.AggregatingChangeManager;
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -148,6 +153,31 @@ public class CombinedHistoricalTimeSeriesMaster extends CombinedMaster<Historica
     });
   }
 
+  @Override
+  public Map<ObjectId, ManageableHistoricalTimeSeries> getTimeSeries(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection, final HistoricalTimeSeriesGetFilter filter) {
+    // one bulk call for each scheme
+    final Map<String, List<ObjectId>> objectIdsByScheme = new HashMap<String, List<ObjectId>>();
+    for (ObjectId objectId : objectIds) {
+      List<ObjectId> schemeIds = objectIdsByScheme.get(objectId.getScheme());
+      if (schemeIds == null) {
+        schemeIds = new ArrayList<ObjectId>();
+        objectIdsByScheme.put(objectId.getScheme(), schemeIds);
+      }
+      schemeIds.add(objectId);
+    }
+    final Map<ObjectId, ManageableHistoricalTimeSeries> result = new HashMap<ObjectId, ManageableHistoricalTimeSeries>();
+    for (Map.Entry<String, List<ObjectId>> entry : objectIdsByScheme.entrySet()) {
+      final List<ObjectId> schemeIds = entry.getValue();
+      result.putAll(apply(entry.getKey(), new Try<Map<ObjectId, ManageableHistoricalTimeSeries>>() {
+        @Override
+        public Map<ObjectId, ManageableHistoricalTimeSeries> tryMaster(HistoricalTimeSeriesMaster master) {
+          return master.getTimeSeries(schemeIds, versionCorrection, filter);
+        }
+      }));
+    }
+    return result;
+  }
+
   @Override
   public UniqueId updateTimeSeriesDataPoints(final ObjectIdentifiable objectId, final LocalDateDoubleTimeSeries series) {
     return apply(objectId.getObjectId().getScheme(), new Try<UniqueId>() {
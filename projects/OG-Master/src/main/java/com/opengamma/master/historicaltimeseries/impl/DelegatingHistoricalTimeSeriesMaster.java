@@ -7,6 +7,7 @@ package com.opengamma.master.historicaltimeseries.impl;
 
 import static com.google.common.collect.Maps.newHashMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -245,6 +246,29 @@ public class DelegatingHistoricalTimeSeriesMaster extends UniqueIdSchemeDelegato
     return chooseDelegate(objectId.getObjectId().getScheme()).getTimeSeries(objectId, versionCorrection, filter);
   }
 
+  @Override
+  public Map<ObjectId, ManageableHistoricalTimeSeries> getTimeSeries(Collection<ObjectId> objectIds, VersionCorrection versionCorrection, HistoricalTimeSeriesGetFilter filter) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    ArgumentChecker.notNull(filter, "filter");
+    // one bulk call for each delegate
+    Map<HistoricalTimeSeriesMaster, List<ObjectId>> objectIdsByDelegate = newHashMap();
+    for (ObjectId objectId : objectIds) {
+      HistoricalTimeSeriesMaster delegate = chooseDelegate(objectId.getScheme());
+      List<ObjectId> delegateIds = objectIdsByDelegate.get(delegate);
+      if (delegateIds == null) {
+        delegateIds = new ArrayList<ObjectId>();
+        objectIdsByDelegate.put(delegate, delegateIds);
+      }
+      delegateIds.add(objectId);
+    }
+    Map<ObjectId, ManageableHistoricalTimeSeries> resultMap = newHashMap();
+    for (Map.Entry<HistoricalTimeSeriesMaster, List<ObjectId>> entry : objectIdsByDelegate.entrySet()) {
+      resultMap.putAll(entry.getKey().getTimeSeries(entry.getValue(), versionCorrection, filter));
+    }
+    return resultMap;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public UniqueId updateTimeSeriesDataPoints(ObjectIdentifiable objectId, LocalDateDoubleTimeSeries series) {
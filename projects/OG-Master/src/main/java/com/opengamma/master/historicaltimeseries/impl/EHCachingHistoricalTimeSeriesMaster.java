@@ -6,16 +6,29 @@
 package com.opengamma.master.historicaltimeseries.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.CopyStrategyConfiguration;
 
 import org.joda.beans.Bean;
+import org.joda.beans.JodaBeanUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.threeten.bp.Duration;
 import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDate;
 
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeListener;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -35,6 +48,7 @@ import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
 import com.opengamma.util.paging.Paging;
 import com.opengamma.util.paging.PagingRequest;
 import com.opengamma.util.tuple.ObjectsPair;
+import com.opengamma.util.tuple.Triple;
 
 /**
  * A cache decorating a {@code HistoricalTimeSeriesMaster}, mainly intended to reduce the frequency and repetition of queries to
@@ -46,6 +60,13 @@ public class EHCachingHistoricalTimeSeriesMaster extends AbstractEHCachingMaster
 
   /** Logger. */
   private static final Logger s_logger = LoggerFactory.getLogger(EHCachingHistoricalTimeSeriesMaster.class);
+  /** Cache name. */
+  private static final String DATA_POINTS_CACHE_NAME_SUFFIX = "HistoricalTimeSeriesDataPoints";
+  /**
+   * The minimum age of a version-correction for its data points to be cached.
+   * A write can be recorded at an instant slightly before it becomes visible, so recent instants are not cached.
+   */
+  static final Duration DATA_POINTS_CACHE_MARGIN = Duration.ofMinutes(1);
 
   /** The document search cache */
   private EHCachingSearchCache _documentSearchCache;
@@ -53,6 +74,12 @@ public class EHCachingHistoricalTimeSeriesMaster extends AbstractEHCachingMaster
   /** The history search cache */
   private EHCachingSearchCache _historySearchCache;
 
+  /** The data points cache, keyed by object identifier, version-correction and filter */
+  private final Ehcache _dataPointsCache;
+
+  /** Listens for changes in the underlying master, evicting the data points of changed series */
+  private final ChangeListener _dataPointsChangeListener;
+
   /**
    * Creates an instance over an underlying master specifying the cache manager.
    *
@@ -97,6 +124,29 @@ public class EHCachingHistoricalTimeSeriesMaster extends AbstractEHCachingMaster
       }
     });
 
+    // Create the data points cache
+    if (cacheManager.getCache(name + DATA_POINTS_CACHE_NAME_SUFFIX) == null) {
+      // If cache config not found, set up programmatically
+      s_logger.warn("Could not load a cache configuration for " + name + DATA_POINTS_CACHE_NAME_SUFFIX
+                  + ", building a default configuration programmatically instead");
+      CacheConfiguration cacheConfiguration = new CacheConfiguration(name + DATA_POINTS_CACHE_NAME_SUFFIX, 1000);
+      CopyStrategyConfiguration copyStrategyConfiguration = new CopyStrategyConfiguration();
+      copyStrategyConfiguration.setClass("com.opengamma.master.cache.JodaBeanCopyStrategy");
+      cacheConfiguration.addCopyStrategy(copyStrategyConfiguration);
+      cacheConfiguration.setCopyOnRead(true);
+      cacheConfiguration.setCopyOnWrite(true);
+      cacheConfiguration.setStatistics(true);
+      cacheManager.addCache(new Cache(cacheConfiguration));
+    }
+    _dataPointsCache = cacheManager.getCache(name + DATA_POINTS_CACHE_NAME_SUFFIX);
+    _dataPointsChangeListener = new ChangeListener() {
+      @Override
+      public void entityChanged(ChangeEvent event) {
+        cleanDataPointsCache(event.getObjectId());
+      }
+    };
+    underlying.changeManager().addChangeListener(_dataPointsChangeListener);
+
     // Prime document search cache
     HistoricalTimeSeriesInfoSearchRequest defaultSearch = new HistoricalTimeSeriesInfoSearchRequest();
     _documentSearchCache.prefetch(defaultSearch, PagingRequest.FIRST_PAGE);
@@ -170,7 +220,83 @@ public class EHCachingHistoricalTimeSeriesMaster extends AbstractEHCachingMaster
   public ManageableHistoricalTimeSeries getTimeSeries(ObjectIdentifiable objectId,
                                                       VersionCorrection versionCorrection,
                                                       HistoricalTimeSeriesGetFilter filter) {
-    return ((HistoricalTimeSeriesMaster) getUnderlying()).getTimeSeries(objectId, versionCorrection, filter);  // TODO
+    if (isCacheable(versionCorrection) == false) {
+      return ((HistoricalTimeSeriesMaster) getUnderlying()).getTimeSeries(objectId, versionCorrection, filter);
+    }
+    Object key = dataPointsCacheKey(objectId.getObjectId(), versionCorrection, filter);
+    Element element = _dataPointsCache.get(key);
+    if (element != null) {
+      return (ManageableHistoricalTimeSeries) element.getObjectValue();
+    }
+    ManageableHistoricalTimeSeries result = ((HistoricalTimeSeriesMaster) getUnderlying()).getTimeSeries(objectId, versionCorrection, filter);
+    _dataPointsCache.put(new Element(key, result));
+    return result;
+  }
+
+  @Override
+  public Map<ObjectId, ManageableHistoricalTimeSeries> getTimeSeries(Collection<ObjectId> objectIds,
+                                                                     VersionCorrection versionCorrection,
+                                                                     HistoricalTimeSeriesGetFilter filter) {
+    if (isCacheable(versionCorrection) == false) {
+      return ((HistoricalTimeSeriesMaster) getUnderlying()).getTimeSeries(objectIds, versionCorrection, filter);
+    }
+
+    // Serve what is cached, then fetch all the misses from the underlying master at once
+    Map<ObjectId, ManageableHistoricalTimeSeries> result = new HashMap<>();
+    List<ObjectId> misses = new ArrayList<>();
+    for (ObjectId objectId : objectIds) {
+      Element element = _dataPointsCache.get(dataPointsCacheKey(objectId, versionCorrection, filter));
+      if (element != null) {
+        result.put(objectId, (ManageableHistoricalTimeSeries) element.getObjectValue());
+      } else {
+        misses.add(objectId);
+      }
+    }
+    if (misses.size() > 0) {
+      Map<ObjectId, ManageableHistoricalTimeSeries> fetched = ((HistoricalTimeSeriesMaster) getUnderlying()).getTimeSeries(misses, versionCorrection, filter);
+      for (Map.Entry<ObjectId, ManageableHistoricalTimeSeries> entry : fetched.entrySet()) {
+        _dataPointsCache.put(new Element(dataPointsCacheKey(entry.getKey(), versionCorrection, filter), entry.getValue()));
+      }
+      result.putAll(fetched);
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether data points at a version-correction can be cached.
+   * <p>
+   * The data points at a version-correction fixed in the past do not change, as updates
+   * and corrections are recorded at a later instant. A write may become visible shortly after
+   * its recorded instant though, so only version-corrections older than a safety margin are cached.
+   * Entries are also evicted when the underlying master reports a change to the series.
+   *
+   * @param versionCorrection  the version-correction, not null
+   * @return true if cacheable
+   */
+  private static boolean isCacheable(VersionCorrection versionCorrection) {
+    if (versionCorrection.containsLatest()) {
+      return false;
+    }
+    Instant now = Instant.now().minus(DATA_POINTS_CACHE_MARGIN);
+    return versionCorrection.getVersionAsOf().isAfter(now) == false && versionCorrection.getCorrectedTo().isAfter(now) == false;
+  }
+
+  /**
+   * Removes all cached data points of a series.
+   *
+   * @param objectId  the object identifier of the changed series, not null
+   */
+  private void cleanDataPointsCache(ObjectId objectId) {
+    for (Object key : _dataPointsCache.getKeys()) {
+      if (objectId.equals(((Triple<?, ?, ?>) key).getFirst())) {
+        _dataPointsCache.remove(key);
+      }
+    }
+  }
+
+  private static Object dataPointsCacheKey(ObjectId objectId, VersionCorrection versionCorrection, HistoricalTimeSeriesGetFilter filter) {
+    // the filter is mutable, so the key holds a copy
+    return Triple.of(objectId, versionCorrection, JodaBeanUtils.clone(filter));
   }
 
   @Override
@@ -216,4 +342,11 @@ public class EHCachingHistoricalTimeSeriesMaster extends AbstractEHCachingMaster
     return ((HistoricalTimeSeriesMaster) getUnderlying()).metaData(request);
   }
 
+  @Override
+  public void shutdown() {
+    super.shutdown();
+    getUnderlying().changeManager().removeChangeListener(_dataPointsChangeListener);
+    getCacheManager().removeCache(_dataPointsCache.getName());
+  }
+
 }
@@ -5,6 +5,8 @@
  */
 package com.opengamma.master.historicaltimeseries.impl;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,6 +33,7 @@ import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesInfoDocumen
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesMaster;
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesResolutionResult;
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesResolver;
+import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeries;
 import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeriesInfo;
 import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
 import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
@@ -463,10 +466,41 @@ public class MasterHistoricalTimeSeriesSource
       Set<ExternalIdBundle> identifierSet, String dataSource, String dataProvider, String dataField, LocalDate start,
       boolean includeStart, LocalDate end, boolean includeEnd) {
     ArgumentChecker.notNull(identifierSet, "identifierSet");
+    ArgumentChecker.notNull(dataSource, "dataSource");
+    ArgumentChecker.notNull(dataField, "field");
+    if (start != null && !includeStart) {
+      start = start.plusDays(1);
+    }
+    if (end != null && !includeEnd) {
+      end = end.minusDays(1);
+    }
+    // resolve each bundle, then fetch the data points of all the resolved series together
+    final LocalDate identifierValidityDate = LocalDate.now(getClock());
+    final Map<ExternalIdBundle, HistoricalTimeSeriesResolutionResult> resolved = Maps.newHashMap();
+    final Set<ObjectId> objectIds = new HashSet<ObjectId>();
+    for (ExternalIdBundle externalIdBundle : identifierSet) {
+      HistoricalTimeSeriesResolutionResult resolutionResult = getResolver().resolve(externalIdBundle, identifierValidityDate, dataSource, dataProvider, dataField, null);
+      if (resolutionResult != null) {
+        resolved.put(externalIdBundle, resolutionResult);
+        objectIds.add(resolutionResult.getHistoricalTimeSeriesInfo().getTimeSeriesObjectId());
+      }
+    }
+    VersionCorrection vc = getVersionCorrection();  // lock against change
+    vc = Objects.firstNonNull(vc, VersionCorrection.LATEST);
+    final Map<ObjectId, ManageableHistoricalTimeSeries> series = objectIds.isEmpty() ?
+        Collections.<ObjectId, ManageableHistoricalTimeSeries>emptyMap() :
+        getMaster().getTimeSeries(objectIds, vc, HistoricalTimeSeriesGetFilter.ofRange(start, end));
     Map<ExternalIdBundle, HistoricalTimeSeries> result = Maps.newHashMap();
     for (ExternalIdBundle externalIdBundle : identifierSet) {
-      HistoricalTimeSeries historicalTimeSeries = getHistoricalTimeSeries(externalIdBundle, dataSource, dataProvider, dataField, start, includeStart, end, includeEnd);
-      result.put(externalIdBundle, historicalTimeSeries);
+      HistoricalTimeSeriesResolutionResult resolutionResult = resolved.get(externalIdBundle);
+      HistoricalTimeSeries hts = null;
+      if (resolutionResult != null) {
+        hts = series.get(resolutionResult.getHistoricalTimeSeriesInfo().getTimeSeriesObjectId());
+        if (resolutionResult.getAdjuster() != null) {
+          hts = resolutionResult.getAdjuster().adjust(resolutionResult.getHistoricalTimeSeriesInfo().getExternalIdBundle().toBundle(), hts);
+        }
+      }
+      result.put(externalIdBundle, hts);
     }
     return result;
   }
@@ -10,6 +10,7 @@ import java.util.Collections;
 import org.threeten.bp.DayOfWeek;
 import org.threeten.bp.LocalDate;
 
+import com.opengamma.core.change.ChangeProvider;
 import com.opengamma.core.holiday.Holiday;
 import com.opengamma.core.holiday.HolidaySource;
 import com.opengamma.core.holiday.HolidayType;
@@ -32,7 +33,7 @@ import com.opengamma.util.money.Currency;
 @PublicSPI
 public class MasterHolidaySource
     extends AbstractMasterSource<Holiday, HolidayDocument, HolidayMaster>
-    implements HolidaySource {
+    implements HolidaySource, ChangeProvider {
 
   /**
    * Creates an instance with an underlying master which does not override versions.
@@ -13,12 +13,17 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import com.opengamma.DataNotFoundException;
 import com.opengamma.core.change.BasicChangeManager;
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.AbstractDocument;
 import com.opengamma.master.AbstractMaster;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.fudgemsg.FudgeMapWrapper;
 
 /**
  * Abstract base class for remote masters.
@@ -80,10 +85,43 @@ public abstract class AbstractRemoteDocumentMaster<D extends AbstractDocument>
   public Map<UniqueId, D> get(Collection<UniqueId> uniqueIds) {
     Map<UniqueId, D> resultMap = newHashMap();
     for (UniqueId uniqueId : uniqueIds) {
-      D doc = get(uniqueId);
-      resultMap.put(uniqueId, doc);
+      try {
+        D doc = get(uniqueId);
+        resultMap.put(uniqueId, doc);
+      } catch (DataNotFoundException ex) {
+        // missing from the map
+      }
     }
     return resultMap;
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Fetches many documents by unique identifier in one request.
+   *
+   * @param uri  the URI of the bulk get resource, not null
+   * @param uniqueIds  the unique identifiers, not null
+   * @return the documents found, keyed by unique identifier, not null
+   */
+  @SuppressWarnings("unchecked")
+  protected Map<UniqueId, D> getBulk(final URI uri, final Collection<UniqueId> uniqueIds) {
+    ArgumentChecker.notNull(uniqueIds, "uniqueIds");
+    return accessRemote(uri).post(FudgeMapWrapper.class, BulkGetRestUtils.encodeUniqueIds(uniqueIds)).getMap();
+  }
+
+  /**
+   * Fetches many documents by object identifier and version-correction in one request.
+   *
+   * @param uri  the URI of the bulk get resource, not null
+   * @param objectIds  the object identifiers, not null
+   * @param versionCorrection  the version-correction locator, not null
+   * @return the documents found, keyed by object identifier, not null
+   */
+  @SuppressWarnings("unchecked")
+  protected Map<ObjectId, D> getBulk(final URI uri, final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    return accessRemote(uri).post(FudgeMapWrapper.class, BulkGetRestUtils.encodeObjectIds(objectIds, versionCorrection)).getMap();
+  }
+
 }
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.fudgemsg.FudgeField;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeSerializer;
+
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+
+/**
+ * Utilities for the messages sent by remote masters to fetch many documents in one request.
+ * <p>
+ * The identifiers are sent as repeated {@code id} fields, with an optional {@code versionCorrection} field.
+ * <p>
+ * This is a thread-safe static utility class.
+ */
+public final class BulkGetRestUtils {
+
+  /** Field name. */
+  private static final String ID_FIELD = "id";
+  /** Field name. */
+  private static final String VERSION_CORRECTION_FIELD = "versionCorrection";
+
+  /**
+   * Restricted constructor.
+   */
+  private BulkGetRestUtils() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Builds the message for the bulk retrieval of documents by unique identifier.
+   *
+   * @param uniqueIds  the unique identifiers, not null
+   * @return the message, not null
+   */
+  public static FudgeMsg encodeUniqueIds(final Collection<UniqueId> uniqueIds) {
+    ArgumentChecker.notNull(uniqueIds, "uniqueIds");
+    final FudgeSerializer serializer = new FudgeSerializer(OpenGammaFudgeContext.getInstance());
+    final MutableFudgeMsg msg = serializer.newMessage();
+    for (UniqueId uniqueId : uniqueIds) {
+      serializer.addToMessage(msg, ID_FIELD, null, uniqueId);
+    }
+    return msg;
+  }
+
+  /**
+   * Builds the message for the bulk retrieval of documents by object identifier.
+   *
+   * @param objectIds  the object identifiers, not null
+   * @param versionCorrection  the version-correction locator, not null
+   * @return the message, not null
+   */
+  public static FudgeMsg encodeObjectIds(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    final FudgeSerializer serializer = new FudgeSerializer(OpenGammaFudgeContext.getInstance());
+    final MutableFudgeMsg msg = serializer.newMessage();
+    for (ObjectId objectId : objectIds) {
+      serializer.addToMessage(msg, ID_FIELD, null, objectId);
+    }
+    serializer.addToMessage(msg, VERSION_CORRECTION_FIELD, null, versionCorrection);
+    return msg;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Decodes the unique identifiers from a bulk retrieval message.
+   *
+   * @param msg  the message, not null
+   * @return the unique identifiers, not null
+   */
+  public static List<UniqueId> decodeUniqueIds(final FudgeMsg msg) {
+    return decodeIds(msg, UniqueId.class);
+  }
+
+  /**
+   * Decodes the object identifiers from a bulk retrieval message.
+   *
+   * @param msg  the message, not null
+   * @return the object identifiers, not null
+   */
+  public static List<ObjectId> decodeObjectIds(final FudgeMsg msg) {
+    return decodeIds(msg, ObjectId.class);
+  }
+
+  /**
+   * Decodes the version-correction from a bulk retrieval message.
+   *
+   * @param msg  the message, not null
+   * @return the version-correction, not null
+   */
+  public static VersionCorrection decodeVersionCorrection(final FudgeMsg msg) {
+    ArgumentChecker.notNull(msg, "msg");
+    final FudgeField field = msg.getByName(VERSION_CORRECTION_FIELD);
+    ArgumentChecker.isTrue(field != null, "Missing versionCorrection");
+    return new FudgeDeserializer(OpenGammaFudgeContext.getInstance()).fieldValueToObject(VersionCorrection.class, field);
+  }
+
+  private static <T> List<T> decodeIds(final FudgeMsg msg, final Class<T> type) {
+    ArgumentChecker.notNull(msg, "msg");
+    final FudgeDeserializer deserializer = new FudgeDeserializer(OpenGammaFudgeContext.getInstance());
+    final List<T> ids = new ArrayList<>();
+    for (FudgeField field : msg.getAllByName(ID_FIELD)) {
+      ids.add(deserializer.fieldValueToObject(type, field));
+    }
+    return ids;
+  }
+
+}
@@ -5,8 +5,14 @@
  */
 package com.opengamma.master.position;
 
+import java.util.Collection;
+import java.util.Map;
+
 import com.opengamma.DataNotFoundException;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.AbstractChangeProvidingMaster;
 import com.opengamma.util.PublicSPI;
 
@@ -52,4 +58,16 @@ public interface PositionMaster extends AbstractChangeProvidingMaster<PositionDo
    */
   ManageableTrade getTrade(UniqueId tradeId);
 
+  /**
+   * Gets positions by object identifier and version-correction.
+   * <p>
+   * This bulk method is potentially a more efficient form of
+   * {@link #get(ObjectIdentifiable, VersionCorrection)} for multiple lookups.
+   *
+   * @param objectIds  the object identifiers to query, not null
+   * @param versionCorrection  the version-correction locator to search at, not null
+   * @return the map of results, if there is no data for an identifier it will be missing from the map, not null
+   */
+  Map<ObjectId, PositionDocument> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection);
+
 }
@@ -5,11 +5,16 @@
  */
 package com.opengamma.master.position.impl;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.collect.Lists;
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.AbstractDocumentsResult;
 import com.opengamma.master.CombinedMaster;
 import com.opengamma.master.position.ManageableTrade;
@@ -93,4 +98,25 @@ public class CombinedPositionMaster extends CombinedMaster<PositionDocument, Pos
     return null;
   }
 
+  @Override
+  public Map<ObjectId, PositionDocument> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    // one bulk call for each scheme
+    final Map<ObjectId, PositionDocument> result = new HashMap<ObjectId, PositionDocument>();
+    for (Map.Entry<String, List<ObjectId>> entry : groupByScheme(objectIds).entrySet()) {
+      final List<ObjectId> schemeIds = entry.getValue();
+      final PositionMaster master = getMasterByScheme(entry.getKey());
+      if (master != null) {
+        result.putAll(master.get(schemeIds, versionCorrection));
+      } else {
+        result.putAll((new Try<Map<ObjectId, PositionDocument>>() {
+          @Override
+          public Map<ObjectId, PositionDocument> tryMaster(final PositionMaster master) {
+            return master.get(schemeIds, versionCorrection);
+          }
+        }).each(entry.getKey()));
+      }
+    }
+    return result;
+  }
+
 }
@@ -6,6 +6,7 @@
 package com.opengamma.master.position.impl;
 
 import java.net.URI;
+import java.util.List;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.HEAD;
@@ -17,12 +18,19 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.FudgeMsgEnvelope;
+
 import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.impl.BulkGetRestUtils;
 import com.opengamma.master.position.PositionDocument;
 import com.opengamma.master.position.PositionMaster;
 import com.opengamma.master.position.PositionSearchRequest;
 import com.opengamma.master.position.PositionSearchResult;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.fudgemsg.FudgeMapWrapper;
 import com.opengamma.util.rest.AbstractDataResource;
 
 /**
@@ -86,6 +94,24 @@ public class DataPositionMasterResource extends AbstractDataResource {
     return responseCreatedFudge(createdUri, result);
   }
 
+  @POST
+  @Path("positionUniqueIdGets")
+  public Response getBulk(FudgeMsgEnvelope request) {
+    // non-ideal variant using POST
+    List<UniqueId> uniqueIds = BulkGetRestUtils.decodeUniqueIds(request.getMessage());
+    return responseOkFudge(FudgeMapWrapper.of(getPositionMaster().get(uniqueIds)));
+  }
+
+  @POST
+  @Path("positionObjectIdGets")
+  public Response getBulkByObjectId(FudgeMsgEnvelope request) {
+    // non-ideal variant using POST
+    FudgeMsg msg = request.getMessage();
+    List<ObjectId> objectIds = BulkGetRestUtils.decodeObjectIds(msg);
+    VersionCorrection versionCorrection = BulkGetRestUtils.decodeVersionCorrection(msg);
+    return responseOkFudge(FudgeMapWrapper.of(getPositionMaster().get(objectIds, versionCorrection)));
+  }
+
   //-------------------------------------------------------------------------
   @Path("positions/{positionId}")
   public DataPositionResource findPosition(@PathParam("positionId") String idStr) {
@@ -122,4 +148,26 @@ public class DataPositionMasterResource extends AbstractDataResource {
     return bld.build();
   }
 
+  /**
+   * Builds a URI for the bulk retrieval of positions by unique identifier.
+   * 
+   * @param baseUri  the base URI, not null
+   * @return the URI, not null
+   */
+  public static URI uriGetBulk(URI baseUri) {
+    UriBuilder bld = UriBuilder.fromUri(baseUri).path("positionUniqueIdGets");
+    return bld.build();
+  }
+
+  /**
+   * Builds a URI for the bulk retrieval of positions by object identifier.
+   * 
+   * @param baseUri  the base URI, not null
+   * @return the URI, not null
+   */
+  public static URI uriGetBulkByObjectId(URI baseUri) {
+    UriBuilder bld = UriBuilder.fromUri(baseUri).path("positionObjectIdGets");
+    return bld.build();
+  }
+
 }
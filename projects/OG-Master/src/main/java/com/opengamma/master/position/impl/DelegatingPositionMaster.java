@@ -7,7 +7,9 @@ package com.opengamma.master.position.impl;
 
 import static com.google.common.collect.Maps.newHashMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -179,10 +181,41 @@ public class DelegatingPositionMaster extends UniqueIdSchemeDelegator<PositionMa
   
   @Override
   public Map<UniqueId, PositionDocument> get(Collection<UniqueId> uniqueIds) {
-    Map<UniqueId, PositionDocument> resultMap = newHashMap();
+    ArgumentChecker.notNull(uniqueIds, "uniqueIds");
+    Map<PositionMaster, List<UniqueId>> delegateIds = new IdentityHashMap<PositionMaster, List<UniqueId>>();
     for (UniqueId uniqueId : uniqueIds) {
-      PositionDocument doc = get(uniqueId);
-      resultMap.put(uniqueId, doc);
+      PositionMaster delegate = chooseDelegate(uniqueId.getScheme());
+      List<UniqueId> ids = delegateIds.get(delegate);
+      if (ids == null) {
+        ids = new ArrayList<UniqueId>();
+        delegateIds.put(delegate, ids);
+      }
+      ids.add(uniqueId);
+    }
+    Map<UniqueId, PositionDocument> resultMap = newHashMap();
+    for (Map.Entry<PositionMaster, List<UniqueId>> entry : delegateIds.entrySet()) {
+      resultMap.putAll(entry.getKey().get(entry.getValue()));
+    }
+    return resultMap;
+  }
+
+  @Override
+  public Map<ObjectId, PositionDocument> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    Map<PositionMaster, List<ObjectId>> delegateIds = new IdentityHashMap<PositionMaster, List<ObjectId>>();
+    for (ObjectId objectId : objectIds) {
+      PositionMaster delegate = chooseDelegate(objectId.getScheme());
+      List<ObjectId> ids = delegateIds.get(delegate);
+      if (ids == null) {
+        ids = new ArrayList<ObjectId>();
+        delegateIds.put(delegate, ids);
+      }
+      ids.add(objectId);
+    }
+    Map<ObjectId, PositionDocument> resultMap = newHashMap();
+    for (Map.Entry<PositionMaster, List<ObjectId>> entry : delegateIds.entrySet()) {
+      resultMap.putAll(entry.getKey().get(entry.getValue(), versionCorrection));
     }
     return resultMap;
   }
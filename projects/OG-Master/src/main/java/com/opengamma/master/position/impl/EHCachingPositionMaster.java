@@ -6,13 +6,16 @@
 package com.opengamma.master.position.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.joda.beans.Bean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.threeten.bp.Instant;
 
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.cache.AbstractEHCachingMaster;
@@ -101,6 +104,11 @@ public class EHCachingPositionMaster extends AbstractEHCachingMaster<PositionDoc
     return ((PositionMaster) getUnderlying()).getTrade(tradeId);
   }
 
+  @Override
+  protected Map<ObjectId, PositionDocument> getFromUnderlying(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    return ((PositionMaster) getUnderlying()).get(objectIds, versionCorrection);
+  }
+
   @Override
   public PositionSearchResult search(PositionSearchRequest request) {
     // Ensure that the relevant prefetch range is cached, otherwise fetch and cache any missing sub-ranges in background
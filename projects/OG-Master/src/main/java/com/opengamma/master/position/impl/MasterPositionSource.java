@@ -7,8 +7,10 @@ package com.opengamma.master.position.impl;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.opengamma.DataNotFoundException;
 import com.opengamma.core.change.ChangeProvider;
 import com.opengamma.core.position.Position;
@@ -23,7 +25,7 @@ import com.opengamma.master.position.ManageableTrade;
 import com.opengamma.master.position.PositionDocument;
 import com.opengamma.master.position.PositionMaster;
 import com.opengamma.master.position.PositionSearchRequest;
-import com.opengamma.master.position.PositionSearchResult;
+import com.opengamma.master.security.ManageableSecurityLink;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.PublicSPI;
 
@@ -105,14 +107,42 @@ public class MasterPositionSource extends AbstractMasterPositionSource implement
     return new ChangeProvider[] {getPortfolioMaster(), getPositionMaster()};
   }
 
+  /**
+   * Loads the positions referenced by a portfolio.
+   * <p>
+   * The positions are fetched using the bulk get of the position master rather than a search.
+   * Equal security links are replaced by a single shared instance so that each distinct security
+   * need only be resolved once for the whole portfolio.
+   * 
+   * @param positionSearch  the search populated with the position identifiers and version-correction, not null
+   * @return the positions, not null
+   */
   @Override
   protected Collection<Position> positions(PositionSearchRequest positionSearch) {
-    List<Position> result = Lists.newArrayList();
-    final PositionSearchResult positions = getPositionMaster().search(positionSearch);
-    for (final PositionDocument position : positions.getDocuments()) {
-      result.add(position.getPosition().toPosition());
+    final Map<ObjectId, PositionDocument> documents = getPositionMaster().get(positionSearch.getPositionObjectIds(), positionSearch.getVersionCorrection());
+    final Map<ManageableSecurityLink, ManageableSecurityLink> securityLinks = Maps.newHashMap();
+    final List<Position> result = Lists.newArrayListWithCapacity(documents.size());
+    for (final PositionDocument document : documents.values()) {
+      final ManageablePosition position = document.getPosition();
+      position.setSecurityLink(sharedSecurityLink(securityLinks, position.getSecurityLink()));
+      for (final ManageableTrade trade : position.getTrades()) {
+        trade.setSecurityLink(sharedSecurityLink(securityLinks, trade.getSecurityLink()));
+      }
+      result.add(position.toPosition());
     }
     return result;
   }
 
+  private static ManageableSecurityLink sharedSecurityLink(final Map<ManageableSecurityLink, ManageableSecurityLink> securityLinks, final ManageableSecurityLink link) {
+    if (link == null) {
+      return null;
+    }
+    final ManageableSecurityLink shared = securityLinks.get(link);
+    if (shared != null) {
+      return shared;
+    }
+    securityLinks.put(link, link);
+    return link;
+  }
+
 }
@@ -6,9 +6,12 @@
 package com.opengamma.master.position.impl;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -81,6 +84,17 @@ public class RemotePositionMaster
     return accessRemote(uri).get(PositionDocument.class);
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public Map<UniqueId, PositionDocument> get(final Collection<UniqueId> uniqueIds) {
+    return getBulk(DataPositionMasterResource.uriGetBulk(getBaseUri()), uniqueIds);
+  }
+
+  @Override
+  public Map<ObjectId, PositionDocument> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    return getBulk(DataPositionMasterResource.uriGetBulkByObjectId(getBaseUri()), objectIds, versionCorrection);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public PositionDocument add(final PositionDocument document) {
@@ -5,6 +5,12 @@
  */
 package com.opengamma.master.security;
 
+import java.util.Collection;
+import java.util.Map;
+
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.ObjectIdentifiable;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.AbstractChangeProvidingMaster;
 import com.opengamma.util.PublicSPI;
 
@@ -47,4 +53,16 @@ public interface SecurityMaster extends AbstractChangeProvidingMaster<SecurityDo
    */
   SecurityHistoryResult history(SecurityHistoryRequest request);
 
+  /**
+   * Gets securities by object identifier and version-correction.
+   * <p>
+   * This bulk method is potentially a more efficient form of
+   * {@link #get(ObjectIdentifiable, VersionCorrection)} for multiple lookups.
+   *
+   * @param objectIds  the object identifiers to query, not null
+   * @param versionCorrection  the version-correction locator to search at, not null
+   * @return the map of results, if there is no data for an identifier it will be missing from the map, not null
+   */
+  Map<ObjectId, SecurityDocument> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection);
+
 }
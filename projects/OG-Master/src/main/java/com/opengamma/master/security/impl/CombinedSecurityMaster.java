@@ -5,10 +5,15 @@
  */
 package com.opengamma.master.security.impl;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.collect.Lists;
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.AbstractDocumentsResult;
 import com.opengamma.master.CombinedMaster;
 import com.opengamma.master.security.SecurityDocument;
@@ -93,4 +98,25 @@ public class CombinedSecurityMaster extends CombinedMaster<SecurityDocument, Sec
     }).each(request.getObjectId().getScheme());
   }
 
+  @Override
+  public Map<ObjectId, SecurityDocument> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    // one bulk call for each scheme
+    final Map<ObjectId, SecurityDocument> result = new HashMap<ObjectId, SecurityDocument>();
+    for (Map.Entry<String, List<ObjectId>> entry : groupByScheme(objectIds).entrySet()) {
+      final List<ObjectId> schemeIds = entry.getValue();
+      final SecurityMaster master = getMasterByScheme(entry.getKey());
+      if (master != null) {
+        result.putAll(master.get(schemeIds, versionCorrection));
+      } else {
+        result.putAll((new Try<Map<ObjectId, SecurityDocument>>() {
+          @Override
+          public Map<ObjectId, SecurityDocument> tryMaster(final SecurityMaster master) {
+            return master.get(schemeIds, versionCorrection);
+          }
+        }).each(entry.getKey()));
+      }
+    }
+    return result;
+  }
+
 }
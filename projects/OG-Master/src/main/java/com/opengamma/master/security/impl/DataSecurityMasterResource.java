@@ -6,6 +6,7 @@
 package com.opengamma.master.security.impl;
 
 import java.net.URI;
+import java.util.List;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.HEAD;
@@ -17,7 +18,13 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.FudgeMsgEnvelope;
+
 import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.impl.BulkGetRestUtils;
 import com.opengamma.master.security.SecurityDocument;
 import com.opengamma.master.security.SecurityMaster;
 import com.opengamma.master.security.SecurityMetaDataRequest;
@@ -25,6 +32,7 @@ import com.opengamma.master.security.SecurityMetaDataResult;
 import com.opengamma.master.security.SecuritySearchRequest;
 import com.opengamma.master.security.SecuritySearchResult;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.fudgemsg.FudgeMapWrapper;
 import com.opengamma.util.rest.AbstractDataResource;
 import com.opengamma.util.rest.RestUtils;
 
@@ -97,6 +105,24 @@ public class DataSecurityMasterResource extends AbstractDataResource {
     return responseCreatedFudge(createdUri, result);
   }
 
+  @POST
+  @Path("securityUniqueIdGets")
+  public Response getBulk(FudgeMsgEnvelope request) {
+    // non-ideal variant using POST
+    List<UniqueId> uniqueIds = BulkGetRestUtils.decodeUniqueIds(request.getMessage());
+    return responseOkFudge(FudgeMapWrapper.of(getSecurityMaster().get(uniqueIds)));
+  }
+
+  @POST
+  @Path("securityObjectIdGets")
+  public Response getBulkByObjectId(FudgeMsgEnvelope request) {
+    // non-ideal variant using POST
+    FudgeMsg msg = request.getMessage();
+    List<ObjectId> objectIds = BulkGetRestUtils.decodeObjectIds(msg);
+    VersionCorrection versionCorrection = BulkGetRestUtils.decodeVersionCorrection(msg);
+    return responseOkFudge(FudgeMapWrapper.of(getSecurityMaster().get(objectIds, versionCorrection)));
+  }
+
   //-------------------------------------------------------------------------
   @Path("securities/{securityId}")
   public DataSecurityResource findSecurity(@PathParam("securityId") String idStr) {
@@ -142,4 +168,26 @@ public class DataSecurityMasterResource extends AbstractDataResource {
     return bld.build();
   }
 
+  /**
+   * Builds a URI for the bulk retrieval of securities by unique identifier.
+   * 
+   * @param baseUri  the base URI, not null
+   * @return the URI, not null
+   */
+  public static URI uriGetBulk(URI baseUri) {
+    UriBuilder bld = UriBuilder.fromUri(baseUri).path("securityUniqueIdGets");
+    return bld.build();
+  }
+
+  /**
+   * Builds a URI for the bulk retrieval of securities by object identifier.
+   * 
+   * @param baseUri  the base URI, not null
+   * @return the URI, not null
+   */
+  public static URI uriGetBulkByObjectId(URI baseUri) {
+    UriBuilder bld = UriBuilder.fromUri(baseUri).path("securityObjectIdGets");
+    return bld.build();
+  }
+
 }
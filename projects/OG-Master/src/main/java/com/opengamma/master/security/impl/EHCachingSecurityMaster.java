@@ -6,17 +6,21 @@
 package com.opengamma.master.security.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.joda.beans.Bean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.threeten.bp.Instant;
 
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.cache.AbstractEHCachingMaster;
 import com.opengamma.master.cache.EHCachingSearchCache;
+import com.opengamma.master.cache.MasterQueryCache;
 import com.opengamma.master.security.SecurityDocument;
 import com.opengamma.master.security.SecurityHistoryRequest;
 import com.opengamma.master.security.SecurityHistoryResult;
@@ -101,6 +105,11 @@ public class EHCachingSecurityMaster extends AbstractEHCachingMaster<SecurityDoc
 
   @Override
   public SecuritySearchResult search(SecuritySearchRequest request) {
+    // Serve plain identifier searches, such as those from a security source, from the query cache
+    if (isExternalIdSearchOnly(request)) {
+      return searchByExternalIds(request);
+    }
+
     // Ensure that the relevant prefetch range is cached, otherwise fetch and cache any missing sub-ranges in background
     _documentSearchCache.prefetch(EHCachingSearchCache.withPagingRequest(request, null), request.getPagingRequest());
 
@@ -147,6 +156,35 @@ public class EHCachingSecurityMaster extends AbstractEHCachingMaster<SecurityDoc
     return result;
   }
 
+  /**
+   * Checks if a search request is unpaged and only restricted by external identifiers and version-correction.
+   *
+   * @param request  the search request, not null
+   * @return true if the request can be answered from the query cache
+   */
+  private static boolean isExternalIdSearchOnly(SecuritySearchRequest request) {
+    if (request.getClass() != SecuritySearchRequest.class || !MasterQueryCache.isCacheable(request.getExternalIdSearch())) {
+      return false;
+    }
+    SecuritySearchRequest template = new SecuritySearchRequest();
+    template.setExternalIdSearch(request.getExternalIdSearch());
+    template.setVersionCorrection(request.getVersionCorrection());
+    return template.equals(request);
+  }
+
+  private SecuritySearchResult searchByExternalIds(SecuritySearchRequest request) {
+    List<SecurityDocument> documents = getQueryCache().search(request.getExternalIdSearch(), request.getVersionCorrection());
+    if (documents == null) {
+      long generation = getQueryCache().getGeneration();
+      documents = ((SecurityMaster) getUnderlying()).search(request).getDocuments();
+      getQueryCache().putSearch(request.getExternalIdSearch(), request.getVersionCorrection(), documents, generation);
+    }
+    SecuritySearchResult result = new SecuritySearchResult(documents);
+    result.setPaging(Paging.of(request.getPagingRequest(), documents.size()));
+    result.setVersionCorrection(request.getVersionCorrection().withLatestFixed(Instant.now()));
+    return result;
+  }
+
   @Override
   public SecurityHistoryResult history(SecurityHistoryRequest request) {
 
@@ -173,4 +211,9 @@ public class EHCachingSecurityMaster extends AbstractEHCachingMaster<SecurityDoc
     return ((SecurityMaster) getUnderlying()).metaData(request);
   }
 
+  @Override
+  protected Map<ObjectId, SecurityDocument> getFromUnderlying(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    return ((SecurityMaster) getUnderlying()).get(objectIds, versionCorrection);
+  }
+
 }
@@ -9,11 +9,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 
+import com.google.common.collect.Maps;
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.core.security.AbstractSecuritySource;
 import com.opengamma.core.security.Security;
 import com.opengamma.core.security.SecuritySource;
 import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.AbstractMasterSource;
 import com.opengamma.master.security.ManageableSecurity;
@@ -51,6 +53,20 @@ public class MasterSecuritySource extends AbstractMasterSource<Security, Securit
     super(master, versionCorrection);
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public Map<ObjectId, Security> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    final VersionCorrection overrideVersionCorrection = getVersionCorrection();
+    final Map<ObjectId, SecurityDocument> documents = getMaster().get(objectIds, overrideVersionCorrection != null ? overrideVersionCorrection : versionCorrection);
+    final Map<ObjectId, Security> result = Maps.newHashMapWithExpectedSize(documents.size());
+    for (Map.Entry<ObjectId, SecurityDocument> entry : documents.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().getSecurity());
+    }
+    return result;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public Collection<Security> get(final ExternalIdBundle bundle) {
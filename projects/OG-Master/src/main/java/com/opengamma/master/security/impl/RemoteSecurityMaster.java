@@ -6,9 +6,12 @@
 package com.opengamma.master.security.impl;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -90,6 +93,17 @@ public class RemoteSecurityMaster
     return accessRemote(uri).get(SecurityDocument.class);
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public Map<UniqueId, SecurityDocument> get(final Collection<UniqueId> uniqueIds) {
+    return getBulk(DataSecurityMasterResource.uriGetBulk(getBaseUri()), uniqueIds);
+  }
+
+  @Override
+  public Map<ObjectId, SecurityDocument> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    return getBulk(DataSecurityMasterResource.uriGetBulkByObjectId(getBaseUri()), objectIds, versionCorrection);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public SecurityDocument add(final SecurityDocument document) {
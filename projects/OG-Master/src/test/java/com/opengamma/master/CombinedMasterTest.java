@@ -11,12 +11,14 @@ import static org.testng.AssertJUnit.assertTrue;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.mockito.Mockito;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
@@ -288,13 +290,17 @@ public class CombinedMasterTest {
   public void get() {
     ArrayList<UniqueId> getList = Lists.newArrayList(u1, u2);
     
-    when(m1.get(u2)).thenThrow(new IllegalArgumentException());
+    when(m1.get(ImmutableList.of(u2))).thenThrow(new IllegalArgumentException());
+    when(m2.get(ImmutableList.of(u2))).thenReturn(ImmutableMap.of(u2, d2));
     
     cMaster.get(getList);
-    cMaster.get(getList);
+    Map<UniqueId, HolidayDocument> result = cMaster.get(getList);
     
-    verify(m1, times(2)).get(u1);
-    verify(m2, times(2)).get(u2);
+    // one bulk call for each scheme, to the master that accepted the scheme
+    verify(m1, times(2)).get(ImmutableList.of(u1));
+    verify(m1, times(1)).get(ImmutableList.of(u2));
+    verify(m2, times(2)).get(ImmutableList.of(u2));
+    assertEquals(ImmutableMap.of(u2, d2), result);
   }
 
   @Test
@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.cache;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeListener;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ExternalIdSearch;
+import com.opengamma.id.ExternalIdSearchType;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.ObjectIdSupplier;
+import com.opengamma.id.ObjectIdentifiable;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.security.ManageableSecurity;
+import com.opengamma.master.security.SecurityDocument;
+import com.opengamma.master.security.SecuritySearchRequest;
+import com.opengamma.master.security.impl.InMemorySecurityMaster;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test {@link MasterQueryCache}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class MasterQueryCacheTest {
+
+  private static final ExternalId ID1 = ExternalId.of("A", "1");
+  private static final ExternalId ID2 = ExternalId.of("A", "2");
+  private static final Instant T1 = Instant.parse("2010-01-01T00:00:00Z");
+  private static final Instant T2 = Instant.parse("2011-01-01T00:00:00Z");
+  private static final Instant T3 = Instant.parse("2012-01-01T00:00:00Z");
+
+  private InMemorySecurityMaster _master;
+  private MasterQueryCache<SecurityDocument> _cache;
+
+  @BeforeMethod
+  public void setUp() {
+    _master = new InMemorySecurityMaster(new ObjectIdSupplier("Test"));
+    _cache = new MasterQueryCache<>(_master);
+    _master.changeManager().addChangeListener(new ChangeListener() {
+      @Override
+      public void entityChanged(ChangeEvent event) {
+        _cache.entityChanged(event);
+      }
+    });
+  }
+
+  private static SecurityDocument document(String version, Instant versionFrom, Instant versionTo, Instant correctionFrom, Instant correctionTo) {
+    return document("A", version, versionFrom, versionTo, correctionFrom, correctionTo);
+  }
+
+  private static SecurityDocument document(String value, String version, Instant versionFrom, Instant versionTo, Instant correctionFrom, Instant correctionTo) {
+    SecurityDocument doc = new SecurityDocument(new ManageableSecurity(UniqueId.of("Test", value, version), value, "MANAGEABLE", ExternalIdBundle.of(ID1)));
+    doc.setVersionFromInstant(versionFrom);
+    doc.setVersionToInstant(versionTo);
+    doc.setCorrectionFromInstant(correctionFrom);
+    doc.setCorrectionToInstant(correctionTo);
+    return doc;
+  }
+
+  private SecurityDocument add(ExternalId id) {
+    return _master.add(new SecurityDocument(new ManageableSecurity(null, id.getValue(), "MANAGEABLE", ExternalIdBundle.of(id))));
+  }
+
+  private List<SecurityDocument> search(ExternalIdSearch search) {
+    long generation = _cache.getGeneration();
+    SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setExternalIdSearch(search);
+    List<SecurityDocument> documents = _master.search(request).getDocuments();
+    _cache.putSearch(search, VersionCorrection.LATEST, documents, generation);
+    return documents;
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_get_versionCorrectionWindows() {
+    ObjectId oid = ObjectId.of("Test", "A");
+    _cache.put(document("1", T1, T2, T1, T3), 0);
+    _cache.put(document("2", T1, T2, T3, null), 0);
+    _cache.put(document("3", T2, null, T2, null), 0);
+    assertEquals("1", _cache.get(oid, VersionCorrection.of(T1, T2)).getUniqueId().getVersion());
+    assertEquals("2", _cache.get(oid, VersionCorrection.of(T1, T3)).getUniqueId().getVersion());
+    assertEquals("2", _cache.get(oid, VersionCorrection.ofVersionAsOf(T1)).getUniqueId().getVersion());
+    assertEquals("3", _cache.get(oid, VersionCorrection.LATEST).getUniqueId().getVersion());
+    assertNull(_cache.get(oid, VersionCorrection.of(T2, T1)));
+    assertNull(_cache.get(ObjectId.of("Test", "B"), VersionCorrection.LATEST));
+  }
+
+  public void test_get_returnsCopy() {
+    ObjectId oid = ObjectId.of("Test", "A");
+    _cache.put(document("1", null, null, null, null), 0);
+    _cache.get(oid, VersionCorrection.LATEST).getSecurity().setName("Changed");
+    assertEquals("A", _cache.get(oid, VersionCorrection.LATEST).getSecurity().getName());
+  }
+
+  public void test_put_staleGeneration() {
+    long generation = _cache.getGeneration();
+    _cache.invalidate(ObjectId.of("Test", "A"), Collections.<ExternalId>emptySet());
+    _cache.put(document("1", null, null, null, null), generation);
+    assertNull(_cache.get(ObjectId.of("Test", "A"), VersionCorrection.LATEST));
+  }
+
+  public void test_put_otherObjectChanged() {
+    long generation = _cache.getGeneration();
+    _cache.invalidate(ObjectId.of("Test", "B"), Collections.<ExternalId>emptySet());
+    _cache.put(document("1", null, null, null, null), generation);
+    assertNotNull(_cache.get(ObjectId.of("Test", "A"), VersionCorrection.LATEST));
+  }
+
+  public void test_put_forgottenInvalidation() {
+    MasterQueryCache<SecurityDocument> cache = new MasterQueryCache<>(_master, 1);
+    long generation = cache.getGeneration();
+    cache.invalidate(ObjectId.of("Test", "A"), Collections.<ExternalId>emptySet());
+    cache.invalidate(ObjectId.of("Test", "B"), Collections.<ExternalId>emptySet());
+    // the invalidation of A is no longer recorded, so the fetch is treated as stale
+    cache.put(document("1", null, null, null, null), generation);
+    assertNull(cache.get(ObjectId.of("Test", "A"), VersionCorrection.LATEST));
+    cache.put(document("1", null, null, null, null), cache.getGeneration());
+    assertNotNull(cache.get(ObjectId.of("Test", "A"), VersionCorrection.LATEST));
+  }
+
+  public void test_update_invalidatesObject() {
+    SecurityDocument doc = add(ID1);
+    _cache.put(doc, _cache.getGeneration());
+    assertNotNull(_cache.get(doc.getObjectId(), VersionCorrection.LATEST));
+    SecurityDocument other = add(ID2);
+    _cache.put(other, _cache.getGeneration());
+    assertNotNull(_cache.get(doc.getObjectId(), VersionCorrection.LATEST));
+    _master.update(_master.get(doc.getUniqueId()));
+    assertNull(_cache.get(doc.getObjectId(), VersionCorrection.LATEST));
+    assertNotNull(_cache.get(other.getObjectId(), VersionCorrection.LATEST));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_search_invalidatedByChangeToResult() {
+    SecurityDocument doc = add(ID1);
+    SecurityDocument other = add(ID2);
+    ExternalIdSearch search = new ExternalIdSearch(ID1);
+    assertEquals(1, search(search).size());
+    assertEquals(doc, _cache.search(new ExternalIdSearch(ID1), VersionCorrection.LATEST).get(0));
+    _master.update(_master.get(other.getUniqueId()));
+    assertNotNull(_cache.search(search, VersionCorrection.LATEST));
+    _master.remove(doc.getObjectId());
+    assertNull(_cache.search(search, VersionCorrection.LATEST));
+  }
+
+  public void test_search_invalidatedByNewMatch() {
+    add(ID1);
+    ExternalIdSearch search = new ExternalIdSearch(ID2);
+    assertTrue(search(search).isEmpty());
+    assertTrue(_cache.search(search, VersionCorrection.LATEST).isEmpty());
+    add(ID1);
+    assertNotNull(_cache.search(search, VersionCorrection.LATEST));
+    add(ID2);
+    assertNull(_cache.search(search, VersionCorrection.LATEST));
+    assertEquals(1, search(search).size());
+  }
+
+  public void test_putSearch_staleGeneration() {
+    SecurityDocument doc = add(ID1);
+    ExternalIdSearch search = new ExternalIdSearch(ID1);
+    search(search);
+    long generation = _cache.getGeneration();
+    _cache.invalidate(doc);
+    _cache.putSearch(search, VersionCorrection.LATEST, Collections.singletonList(doc), generation);
+    assertNull(_cache.search(search, VersionCorrection.LATEST));
+    _cache.putSearch(new ExternalIdSearch(ID2), VersionCorrection.LATEST, Collections.<SecurityDocument>emptyList(), generation);
+    assertNotNull(_cache.search(new ExternalIdSearch(ID2), VersionCorrection.LATEST));
+  }
+
+  public void test_putSearch_changeWhileNoSearchesCached() {
+    long generation = _cache.getGeneration();
+    // the identifiers of the new object are not looked up, so a search in flight may have missed it
+    add(ID1);
+    _cache.putSearch(new ExternalIdSearch(ID1), VersionCorrection.LATEST, Collections.<SecurityDocument>emptyList(), generation);
+    assertNull(_cache.search(new ExternalIdSearch(ID1), VersionCorrection.LATEST));
+  }
+
+  public void test_entityChanged_masterReadOnNextSearch() {
+    final int[] gets = new int[1];
+    InMemorySecurityMaster master = new InMemorySecurityMaster(new ObjectIdSupplier("Test")) {
+      @Override
+      public SecurityDocument get(ObjectIdentifiable objectId, VersionCorrection versionCorrection) {
+        gets[0]++;
+        return super.get(objectId, versionCorrection);
+      }
+    };
+    final MasterQueryCache<SecurityDocument> cache = new MasterQueryCache<>(master);
+    master.changeManager().addChangeListener(new ChangeListener() {
+      @Override
+      public void entityChanged(ChangeEvent event) {
+        cache.entityChanged(event);
+      }
+    });
+    SecurityDocument doc = master.add(new SecurityDocument(new ManageableSecurity(null, "1", "MANAGEABLE", ExternalIdBundle.of(ID1))));
+    cache.putSearch(new ExternalIdSearch(ID2), VersionCorrection.LATEST, Collections.<SecurityDocument>emptyList(), cache.getGeneration());
+    master.add(new SecurityDocument(new ManageableSecurity(null, "2", "MANAGEABLE", ExternalIdBundle.of(ID2))));
+    master.remove(doc.getObjectId());
+    assertEquals(0, gets[0]);
+    assertNull(cache.search(new ExternalIdSearch(ID2), VersionCorrection.LATEST));
+    assertEquals(1, gets[0]);
+    assertNull(cache.search(new ExternalIdSearch(ID2), VersionCorrection.LATEST));
+    assertEquals(1, gets[0]);
+  }
+
+  public void test_entityChanged_removedBeforeNextSearch() {
+    SecurityDocument doc = add(ID1);
+    search(new ExternalIdSearch(ID2));
+    _cache.entityChanged(new ChangeEvent(ChangeType.CHANGED, doc.getObjectId(), Instant.now(), null, Instant.now()));
+    _master.remove(doc.getObjectId());
+    assertNotNull(_cache.search(new ExternalIdSearch(ID2), VersionCorrection.LATEST));
+  }
+
+  public void test_search_keyIsCopied() {
+    add(ID1);
+    ExternalIdSearch search = new ExternalIdSearch(ID1);
+    search(search);
+    search.addExternalId(ID2);
+    assertNull(_cache.search(search, VersionCorrection.LATEST));
+    assertNotNull(_cache.search(new ExternalIdSearch(ID1), VersionCorrection.LATEST));
+  }
+
+  public void test_isCacheable() {
+    assertTrue(MasterQueryCache.isCacheable(new ExternalIdSearch(ID1)));
+    assertFalse(MasterQueryCache.isCacheable(null));
+    assertFalse(MasterQueryCache.isCacheable(new ExternalIdSearch()));
+    assertFalse(MasterQueryCache.isCacheable(new ExternalIdSearch(Collections.singleton(ID1), ExternalIdSearchType.NONE)));
+  }
+
+  public void test_maxEntries_leastRecentlyUsedEvicted() {
+    MasterQueryCache<SecurityDocument> cache = new MasterQueryCache<>(_master, 2);
+    cache.put(document("A", "1", T1, T2, null, null), 0);
+    cache.put(document("A", "2", T2, null, null, null), 0);
+    cache.put(document("B", "1", null, null, null, null), 0);
+    assertNotNull(cache.get(ObjectId.of("Test", "A"), VersionCorrection.ofVersionAsOf(T1)));
+    cache.put(document("C", "1", null, null, null, null), 0);
+    assertNotNull(cache.get(ObjectId.of("Test", "A"), VersionCorrection.LATEST));
+    assertNull(cache.get(ObjectId.of("Test", "B"), VersionCorrection.LATEST));
+    assertNotNull(cache.get(ObjectId.of("Test", "C"), VersionCorrection.LATEST));
+  }
+
+  public void test_maxEntries_searchEvicted() {
+    SecurityDocument doc = add(ID1);
+    MasterQueryCache<SecurityDocument> cache = new MasterQueryCache<>(_master, 2);
+    cache.putSearch(new ExternalIdSearch(ID1), VersionCorrection.LATEST, Collections.singletonList(doc), 0);
+    cache.put(document("A", "1", null, null, null, null), 0);
+    cache.put(document("B", "1", null, null, null, null), 0);
+    assertNull(cache.search(new ExternalIdSearch(ID1), VersionCorrection.LATEST));
+    assertNotNull(cache.get(ObjectId.of("Test", "A"), VersionCorrection.LATEST));
+    // the evicted search no longer indexes the object
+    cache.invalidate(doc.getObjectId(), Collections.<ExternalId>emptySet());
+    assertNotNull(cache.get(ObjectId.of("Test", "B"), VersionCorrection.LATEST));
+  }
+
+}
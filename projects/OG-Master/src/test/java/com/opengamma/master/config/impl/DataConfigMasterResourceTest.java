@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.config.impl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+
+import org.fudgemsg.FudgeMsgEnvelope;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.core.config.impl.ConfigItem;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.config.ConfigDocument;
+import com.opengamma.master.config.ConfigMaster;
+import com.opengamma.master.impl.BulkGetRestUtils;
+import com.opengamma.util.fudgemsg.FudgeMapWrapper;
+import com.opengamma.util.test.TestGroup;
+import com.sun.jersey.api.client.ClientResponse.Status;
+
+/**
+ * Test.
+ */
+@Test(groups = TestGroup.UNIT)
+public class DataConfigMasterResourceTest {
+
+  private static final UniqueId UID = UniqueId.of("Test", "A", "B");
+  private ConfigMaster _underlying;
+  private DataConfigMasterResource _resource;
+
+  @BeforeMethod
+  public void setUp() {
+    _underlying = mock(ConfigMaster.class);
+    _resource = new DataConfigMasterResource(_underlying);
+  }
+
+  private static ConfigDocument document() {
+    ConfigDocument doc = new ConfigDocument(ConfigItem.of(ExternalId.of("C", "D"), "Name"));
+    doc.setUniqueId(UID);
+    return doc;
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void testGetBulk() {
+    final List<UniqueId> uniqueIds = ImmutableList.of(UID, UniqueId.of("Test", "C"));
+    final Map<UniqueId, ConfigDocument> result = ImmutableMap.of(UID, document());
+    when(_underlying.get(uniqueIds)).thenReturn(result);
+
+    // the request message is built in the same way as by the remote master
+    Response test = _resource.getBulk(new FudgeMsgEnvelope(BulkGetRestUtils.encodeUniqueIds(uniqueIds)));
+    assertEquals(Status.OK.getStatusCode(), test.getStatus());
+    assertEquals(result, ((FudgeMapWrapper) test.getEntity()).getMap());
+  }
+
+  @Test
+  public void testGetBulkByObjectId() {
+    final List<ObjectId> objectIds = ImmutableList.of(UID.getObjectId(), ObjectId.of("Test", "C"));
+    final VersionCorrection vc = VersionCorrection.ofVersionAsOf(Instant.ofEpochSecond(1000));
+    final Map<ObjectId, ConfigDocument> result = ImmutableMap.of(UID.getObjectId(), document());
+    when(_underlying.get(objectIds, vc)).thenReturn(result);
+
+    Response test = _resource.getBulkByObjectId(new FudgeMsgEnvelope(BulkGetRestUtils.encodeObjectIds(objectIds, vc)));
+    assertEquals(Status.OK.getStatusCode(), test.getStatus());
+    assertEquals(result, ((FudgeMapWrapper) test.getEntity()).getMap());
+  }
+
+}
@@ -12,18 +12,30 @@ import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertSame;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
+import org.fudgemsg.FudgeMsgEnvelope;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesGetFilter;
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesInfoDocument;
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesMaster;
+import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeries;
 import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeriesInfo;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.util.fudgemsg.FudgeMapWrapper;
 import com.opengamma.util.test.TestGroup;
 import com.sun.jersey.api.client.ClientResponse.Status;
 
@@ -71,4 +83,22 @@ public class DataHistoricalTimeSeriesMasterResourceTest {
     assertEquals(ObjectId.of("Test", "A"), test.getUrlId());
   }
 
+  @Test
+  public void testGetTimeSeriesBulk() {
+    final List<ObjectId> objectIds = ImmutableList.of(ObjectId.of("Test", "A"), ObjectId.of("Test", "B"));
+    final VersionCorrection vc = VersionCorrection.ofVersionAsOf(Instant.ofEpochSecond(1000));
+    final HistoricalTimeSeriesGetFilter filter = HistoricalTimeSeriesGetFilter.ofRange(LocalDate.of(2012, 1, 1), LocalDate.of(2012, 12, 31));
+    final ManageableHistoricalTimeSeries series = new ManageableHistoricalTimeSeries();
+    series.setUniqueId(UniqueId.of("Test", "A", "1"));
+    series.setTimeSeries(ImmutableLocalDateDoubleTimeSeries.of(LocalDate.of(2012, 6, 1), 1.5d));
+    final Map<ObjectId, ManageableHistoricalTimeSeries> result = ImmutableMap.of(ObjectId.of("Test", "A"), series);
+    when(_underlying.getTimeSeries(objectIds, vc, filter)).thenReturn(result);
+    
+    // the request message is built in the same way as by the remote master
+    final FudgeMsgEnvelope request = new FudgeMsgEnvelope(DataHistoricalTimeSeriesMasterResource.uriGetTimeSeriesBulkData(objectIds, vc, filter));
+    Response test = _resource.getTimeSeriesBulk(request);
+    assertEquals(Status.OK.getStatusCode(), test.getStatus());
+    assertEquals(result, ((FudgeMapWrapper) test.getEntity()).getMap());
+  }
+
 }
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.historicaltimeseries.impl;
+
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Map;
+
+import net.sf.ehcache.CacheManager;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ExternalIdBundleWithDates;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.ObjectIdSupplier;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesGetFilter;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesInfoDocument;
+import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeries;
+import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeriesInfo;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.util.ehcache.EHCacheUtils;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test the data points cache of {@link EHCachingHistoricalTimeSeriesMaster}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class EHCachingHistoricalTimeSeriesMasterTest {
+
+  private static final HistoricalTimeSeriesGetFilter FILTER = HistoricalTimeSeriesGetFilter.ofRange(null, null);
+  private static final LocalDate DATE1 = LocalDate.of(2013, 1, 2);
+  private static final LocalDate DATE2 = LocalDate.of(2013, 1, 3);
+
+  private CacheManager _cacheManager;
+  private InMemoryHistoricalTimeSeriesMaster _underlying;
+  private EHCachingHistoricalTimeSeriesMaster _cachingMaster;
+  private ObjectId _oid1;
+  private ObjectId _oid2;
+
+  @BeforeClass
+  public void setUpClass() {
+    _cacheManager = EHCacheUtils.createTestCacheManager(EHCachingHistoricalTimeSeriesMasterTest.class);
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    EHCacheUtils.clear(_cacheManager);
+    _underlying = spy(new InMemoryHistoricalTimeSeriesMaster(new ObjectIdSupplier("Test")));
+    _oid1 = addSeries("A");
+    _oid2 = addSeries("B");
+    _cachingMaster = new EHCachingHistoricalTimeSeriesMaster("test", _underlying, _cacheManager);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _cachingMaster.shutdown();
+  }
+
+  @AfterClass
+  public void tearDownClass() {
+    EHCacheUtils.shutdownQuiet(_cacheManager);
+  }
+
+  private ObjectId addSeries(String id) {
+    ManageableHistoricalTimeSeriesInfo info = new ManageableHistoricalTimeSeriesInfo();
+    info.setName("Name" + id);
+    info.setDataField("DF");
+    info.setDataSource("DS");
+    info.setDataProvider("DP");
+    info.setObservationTime("OT");
+    info.setExternalIdBundle(ExternalIdBundleWithDates.of(ExternalIdBundle.of("A", id)));
+    ObjectId objectId = _underlying.add(new HistoricalTimeSeriesInfoDocument(info)).getInfo().getTimeSeriesObjectId();
+    _underlying.updateTimeSeriesDataPoints(objectId, ImmutableLocalDateDoubleTimeSeries.of(DATE1, 1d));
+    return objectId;
+  }
+
+  private static VersionCorrection past() {
+    Instant instant = Instant.now().minus(EHCachingHistoricalTimeSeriesMaster.DATA_POINTS_CACHE_MARGIN).minusSeconds(60);
+    return VersionCorrection.of(instant, instant);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_getTimeSeries_past_cached() {
+    VersionCorrection vc = past();
+    ManageableHistoricalTimeSeries first = _cachingMaster.getTimeSeries(_oid1, vc, FILTER);
+    ManageableHistoricalTimeSeries second = _cachingMaster.getTimeSeries(_oid1, vc, FILTER);
+    verify(_underlying, times(1)).getTimeSeries(_oid1, vc, FILTER);
+    assertEquals(first, second);
+    assertEquals(ImmutableLocalDateDoubleTimeSeries.of(DATE1, 1d), second.getTimeSeries());
+  }
+
+  public void test_getTimeSeries_filterPartOfKey() {
+    VersionCorrection vc = past();
+    HistoricalTimeSeriesGetFilter filter = HistoricalTimeSeriesGetFilter.ofRange(DATE2, null);
+    _cachingMaster.getTimeSeries(_oid1, vc, FILTER);
+    ManageableHistoricalTimeSeries test = _cachingMaster.getTimeSeries(_oid1, vc, filter);
+    verify(_underlying, times(1)).getTimeSeries(_oid1, vc, FILTER);
+    verify(_underlying, times(1)).getTimeSeries(_oid1, vc, filter);
+    assertEquals(0, test.getTimeSeries().size());
+  }
+
+  public void test_getTimeSeries_latest_notCached() {
+    _cachingMaster.getTimeSeries(_oid1, VersionCorrection.LATEST, FILTER);
+    _cachingMaster.getTimeSeries(_oid1, VersionCorrection.LATEST, FILTER);
+    verify(_underlying, times(2)).getTimeSeries(_oid1, VersionCorrection.LATEST, FILTER);
+  }
+
+  public void test_getTimeSeries_withinMargin_notCached() {
+    Instant instant = Instant.now().minusSeconds(1);
+    VersionCorrection vc = VersionCorrection.of(instant, instant);
+    _cachingMaster.getTimeSeries(_oid1, vc, FILTER);
+    _cachingMaster.getTimeSeries(_oid1, vc, FILTER);
+    verify(_underlying, times(2)).getTimeSeries(_oid1, vc, FILTER);
+  }
+
+  public void test_getTimeSeries_evictedOnChange() {
+    VersionCorrection vc = past();
+    _cachingMaster.getTimeSeries(_oid1, vc, FILTER);
+    _cachingMaster.getTimeSeries(_oid2, vc, FILTER);
+    // the in-memory master ignores the version-correction, so the new point becomes visible once evicted
+    _underlying.updateTimeSeriesDataPoints(_oid1, ImmutableLocalDateDoubleTimeSeries.of(DATE2, 2d));
+    ManageableHistoricalTimeSeries test1 = _cachingMaster.getTimeSeries(_oid1, vc, FILTER);
+    ManageableHistoricalTimeSeries test2 = _cachingMaster.getTimeSeries(_oid2, vc, FILTER);
+    verify(_underlying, times(2)).getTimeSeries(_oid1, vc, FILTER);
+    verify(_underlying, times(1)).getTimeSeries(_oid2, vc, FILTER);
+    assertEquals(2, test1.getTimeSeries().size());
+    assertEquals(1, test2.getTimeSeries().size());
+  }
+
+  public void test_getTimeSeries_bulk_fetchesMisses() {
+    VersionCorrection vc = past();
+    _cachingMaster.getTimeSeries(_oid1, vc, FILTER);
+    Map<ObjectId, ManageableHistoricalTimeSeries> test = _cachingMaster.getTimeSeries(ImmutableList.of(_oid1, _oid2), vc, FILTER);
+    verify(_underlying, times(1)).getTimeSeries(ImmutableList.of(_oid2), vc, FILTER);
+    assertEquals(2, test.size());
+    assertEquals(ImmutableLocalDateDoubleTimeSeries.of(DATE1, 1d), test.get(_oid1).getTimeSeries());
+    assertEquals(ImmutableLocalDateDoubleTimeSeries.of(DATE1, 1d), test.get(_oid2).getTimeSeries());
+    // both series are now cached
+    _cachingMaster.getTimeSeries(ImmutableList.of(_oid1, _oid2), vc, FILTER);
+    verify(_underlying, times(1)).getTimeSeries(_oid1, vc, FILTER);
+    verify(_underlying, times(1)).getTimeSeries(ImmutableList.of(_oid2), vc, FILTER);
+  }
+
+}
@@ -6,11 +6,14 @@
 package com.opengamma.master.historicaltimeseries.impl;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertSame;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -24,6 +27,7 @@ import com.opengamma.id.ExternalIdBundleWithDates;
 import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdSupplier;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesGetFilter;
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesInfoDocument;
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesInfoSearchRequest;
@@ -327,6 +331,23 @@ public class InMemoryHistoricalTimeSeriesMasterTest {
     assertEquals(expected, test2.getTimeSeries());
   }
 
+  public void test_points_getBulk() {
+    LocalDate[] dates = {LocalDate.of(2011, 1, 1), LocalDate.of(2011, 1, 2), LocalDate.of(2011, 1, 3)};
+    double[] values = {1.1d, 2.2d, 3.3d};
+    LocalDateDoubleTimeSeries input = ImmutableLocalDateDoubleTimeSeries.of(dates, values);
+    testPopulated.updateTimeSeriesDataPoints(doc1.getUniqueId(), input);
+    
+    ObjectId oid1 = doc1.getUniqueId().getObjectId();
+    ObjectId oid2 = doc2.getUniqueId().getObjectId();
+    ObjectId oid3 = ObjectId.of("Test", "999");
+    HistoricalTimeSeriesGetFilter filter = HistoricalTimeSeriesGetFilter.ofRange(LocalDate.of(2011, 1, 2), null);
+    Map<ObjectId, ManageableHistoricalTimeSeries> test = testPopulated.getTimeSeries(Arrays.asList(oid1, oid2, oid3), VersionCorrection.LATEST, filter);
+    assertEquals(2, test.size());
+    assertEquals(input.subSeries(LocalDate.of(2011, 1, 2), LocalDate.of(2011, 1, 4)), test.get(oid1).getTimeSeries());
+    assertEquals(0, test.get(oid2).getTimeSeries().size());
+    assertFalse(test.containsKey(oid3));
+  }
+
   public void test_points_getFilter() {
     
     // Set up HTS for comparison purposes
@@ -6,19 +6,29 @@
 package com.opengamma.master.historicaltimeseries.impl;
 
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.Map;
+import java.util.Set;
 
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.threeten.bp.LocalDate;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.opengamma.core.historicaltimeseries.HistoricalTimeSeries;
 import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesGetFilter;
@@ -43,10 +53,13 @@ public class MasterHistoricalTimeSeriesSourceTest {
 
   private static final String TEST_CONFIG = "TEST_CONFIG";
   private static final UniqueId UID = UniqueId.of("A", "1");
+  private static final UniqueId UID2 = UniqueId.of("A", "2");
   private static final String CLOSE_DATA_FIELD = "CLOSE";
   private static final String CMPL_DATA_PROVIDER = "CMPL";
   private static final String BBG_DATA_SOURCE = "BLOOMBERG";
   private static final ExternalIdBundle IDENTIFIERS = ExternalIdBundle.of("A", "B");
+  private static final ExternalIdBundle IDENTIFIERS2 = ExternalIdBundle.of("A", "C");
+  private static final ExternalIdBundle IDENTIFIERS_UNKNOWN = ExternalIdBundle.of("A", "D");
   
   private HistoricalTimeSeriesMaster _mockMaster;
   private HistoricalTimeSeriesResolver _mockResolver;
@@ -198,6 +211,45 @@ public class MasterHistoricalTimeSeriesSourceTest {
     assertEquals(hts.getTimeSeries().values(), test.getTimeSeries().values());
   }
 
+  public void getHistoricalTimeSeriesBulkByExternalIds() throws Exception {
+    final LocalDate start = LocalDate.of(2012, 1, 1);
+    final LocalDate end = LocalDate.of(2013, 1, 1);
+    when(_mockResolver.resolve(IDENTIFIERS, LocalDate.now(), BBG_DATA_SOURCE, CMPL_DATA_PROVIDER, CLOSE_DATA_FIELD, null)).thenReturn(resolution(UID));
+    when(_mockResolver.resolve(IDENTIFIERS2, LocalDate.now(), BBG_DATA_SOURCE, CMPL_DATA_PROVIDER, CLOSE_DATA_FIELD, null)).thenReturn(resolution(UID2));
+    
+    ManageableHistoricalTimeSeries hts = new ManageableHistoricalTimeSeries();
+    hts.setUniqueId(UID);
+    hts.setTimeSeries(randomTimeSeries());
+    ManageableHistoricalTimeSeries hts2 = new ManageableHistoricalTimeSeries();
+    hts2.setUniqueId(UID2);
+    hts2.setTimeSeries(randomTimeSeries());
+    Set<ObjectId> objectIds = ImmutableSet.of(UID.getObjectId(), UID2.getObjectId());
+    HistoricalTimeSeriesGetFilter filter = HistoricalTimeSeriesGetFilter.ofRange(start, end.minusDays(1));
+    when(_mockMaster.getTimeSeries(objectIds, VersionCorrection.LATEST, filter)).thenReturn(
+        ImmutableMap.of(UID.getObjectId(), hts, UID2.getObjectId(), hts2));
+    
+    Map<ExternalIdBundle, HistoricalTimeSeries> test = _tsSource.getHistoricalTimeSeries(
+        ImmutableSet.of(IDENTIFIERS, IDENTIFIERS2, IDENTIFIERS_UNKNOWN), BBG_DATA_SOURCE, CMPL_DATA_PROVIDER, CLOSE_DATA_FIELD, start, true, end, false);
+    // all the resolved series are fetched by a single call to the master
+    verify(_mockMaster, times(1)).getTimeSeries(objectIds, VersionCorrection.LATEST, filter);
+    verify(_mockMaster, never()).getTimeSeries(any(ObjectIdentifiable.class), any(VersionCorrection.class), any(HistoricalTimeSeriesGetFilter.class));
+    
+    assertEquals(3, test.size());
+    assertEquals(UID, test.get(IDENTIFIERS).getUniqueId());
+    assertEquals(hts.getTimeSeries(), test.get(IDENTIFIERS).getTimeSeries());
+    assertEquals(UID2, test.get(IDENTIFIERS2).getUniqueId());
+    assertEquals(hts2.getTimeSeries(), test.get(IDENTIFIERS2).getTimeSeries());
+    assertEquals(true, test.containsKey(IDENTIFIERS_UNKNOWN));
+    assertNull(test.get(IDENTIFIERS_UNKNOWN));
+  }
+
+  private HistoricalTimeSeriesResolutionResult resolution(UniqueId uniqueId) {
+    ManageableHistoricalTimeSeriesInfo info = new ManageableHistoricalTimeSeriesInfo();
+    info.setUniqueId(uniqueId);
+    info.setTimeSeriesObjectId(uniqueId.getObjectId());
+    return new HistoricalTimeSeriesResolutionResult(info);
+  }
+
   private LocalDateDoubleTimeSeries randomTimeSeries() {
     return RandomTimeSeriesGenerator.makeRandomTimeSeries(200);
   }
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.position.impl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.position.PositionDocument;
+import com.opengamma.master.position.PositionMaster;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test {@link DelegatingPositionMaster}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class DelegatingPositionMasterTest {
+
+  private static final ObjectId DEFAULT_OID1 = ObjectId.of("Default", "A");
+  private static final ObjectId DEFAULT_OID2 = ObjectId.of("Default", "B");
+  private static final ObjectId DELEGATE_OID = ObjectId.of("Delegate-Sub", "A");
+  private static final VersionCorrection VC = VersionCorrection.LATEST;
+
+  private PositionMaster _defaultMaster;
+  private PositionMaster _delegateMaster;
+  private DelegatingPositionMaster _master;
+
+  @BeforeMethod
+  public void setUp() {
+    _defaultMaster = mock(PositionMaster.class);
+    _delegateMaster = mock(PositionMaster.class);
+    when(_defaultMaster.changeManager()).thenReturn(new BasicChangeManager());
+    when(_delegateMaster.changeManager()).thenReturn(new BasicChangeManager());
+    _master = new DelegatingPositionMaster(_defaultMaster, ImmutableMap.of("Delegate", _delegateMaster));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_get_objectIds_oneCallPerDelegate() {
+    PositionDocument doc1 = new PositionDocument();
+    PositionDocument doc2 = new PositionDocument();
+    PositionDocument doc3 = new PositionDocument();
+    when(_defaultMaster.get(ImmutableList.of(DEFAULT_OID1, DEFAULT_OID2), VC)).thenReturn(ImmutableMap.of(DEFAULT_OID1, doc1, DEFAULT_OID2, doc2));
+    when(_delegateMaster.get(ImmutableList.of(DELEGATE_OID), VC)).thenReturn(ImmutableMap.of(DELEGATE_OID, doc3));
+
+    Map<ObjectId, PositionDocument> test = _master.get(ImmutableList.of(DEFAULT_OID1, DELEGATE_OID, DEFAULT_OID2), VC);
+    assertEquals(ImmutableMap.of(DEFAULT_OID1, doc1, DEFAULT_OID2, doc2, DELEGATE_OID, doc3), test);
+    verify(_defaultMaster, times(1)).get(ImmutableList.of(DEFAULT_OID1, DEFAULT_OID2), VC);
+    verify(_delegateMaster, times(1)).get(ImmutableList.of(DELEGATE_OID), VC);
+  }
+
+  public void test_get_uniqueIds_oneCallPerDelegate() {
+    UniqueId defaultUid = UniqueId.of(DEFAULT_OID1, "1");
+    UniqueId delegateUid1 = UniqueId.of(DELEGATE_OID, "1");
+    UniqueId delegateUid2 = UniqueId.of(DELEGATE_OID, "2");
+    PositionDocument doc1 = new PositionDocument();
+    PositionDocument doc2 = new PositionDocument();
+    when(_defaultMaster.get(ImmutableList.of(defaultUid))).thenReturn(ImmutableMap.of(defaultUid, doc1));
+    when(_delegateMaster.get(ImmutableList.of(delegateUid1, delegateUid2))).thenReturn(ImmutableMap.of(delegateUid2, doc2));
+
+    Map<UniqueId, PositionDocument> test = _master.get(ImmutableList.of(delegateUid1, defaultUid, delegateUid2));
+    assertEquals(ImmutableMap.of(defaultUid, doc1, delegateUid2, doc2), test);
+    verify(_defaultMaster, times(1)).get(ImmutableList.of(defaultUid));
+    verify(_delegateMaster, times(1)).get(ImmutableList.of(delegateUid1, delegateUid2));
+  }
+
+}
@@ -11,12 +11,19 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertSame;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.Instant;
 import org.threeten.bp.OffsetDateTime;
+import org.threeten.bp.ZoneOffset;
 
 import com.opengamma.core.position.Portfolio;
 import com.opengamma.core.position.PortfolioNode;
@@ -24,6 +31,7 @@ import com.opengamma.core.position.Position;
 import com.opengamma.core.position.Trade;
 import com.opengamma.id.ExternalId;
 import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.portfolio.ManageablePortfolio;
@@ -34,8 +42,6 @@ import com.opengamma.master.position.ManageablePosition;
 import com.opengamma.master.position.ManageableTrade;
 import com.opengamma.master.position.PositionDocument;
 import com.opengamma.master.position.PositionMaster;
-import com.opengamma.master.position.PositionSearchRequest;
-import com.opengamma.master.position.PositionSearchResult;
 import com.opengamma.master.security.ManageableSecurityLink;
 import com.opengamma.util.test.TestGroup;
 
@@ -119,18 +125,14 @@ public class MasterPositionSourceTest {
     manPos.setUniqueId(UID4);
     manPos.addTrade(manTrade);
     PositionDocument posDoc = new PositionDocument(manPos);
-    PositionSearchRequest posRequest = new PositionSearchRequest();
-    posRequest.addPositionObjectId(UID4);
-    posRequest.setVersionCorrection(VC);
-    PositionSearchResult posResult = new PositionSearchResult();
-    posResult.getDocuments().add(posDoc);
+    Set<ObjectId> posIds = Collections.singleton(UID4.getObjectId());
     
     when(mockPortfolio.get(UID)).thenReturn(prtDoc);
-    when(mockPosition.search(posRequest)).thenReturn(posResult);
+    when(mockPosition.get(posIds, VC)).thenReturn(Collections.singletonMap(UID4.getObjectId(), posDoc));
     MasterPositionSource test = new MasterPositionSource(mockPortfolio, mockPosition);
     Portfolio testResult = test.getPortfolio(UID, VC);
     verify(mockPortfolio, times(1)).get(UID);
-    verify(mockPosition, times(1)).search(posRequest);
+    verify(mockPosition, times(1)).get(posIds, VC);
     
     assertEquals(UID, testResult.getUniqueId());
     assertEquals("Hello", testResult.getName());
@@ -155,6 +157,37 @@ public class MasterPositionSourceTest {
     assertEquals(ExternalIdBundle.of("CC", "DD"), trade.getSecurityLink().getExternalId());
   }
 
+  public void test_getPortfolio_sharedSecurityLinks() throws Exception {
+    PortfolioMaster mockPortfolio = mock(PortfolioMaster.class);
+    PositionMaster mockPosition = mock(PositionMaster.class);
+    
+    ManageablePortfolioNode manNode = example(true);
+    manNode.addPosition(UID5);
+    ManageablePortfolio manPrt = new ManageablePortfolio("Hello", manNode);
+    manPrt.setUniqueId(UID);
+    
+    ManageablePosition manPos1 = new ManageablePosition(BigDecimal.ONE, ExternalId.of("AA", "BB"));
+    manPos1.setUniqueId(UID4);
+    manPos1.addTrade(new ManageableTrade(BigDecimal.ONE, ExternalId.of("AA", "BB"), NOW.atOffset(ZoneOffset.UTC).toLocalDate(), null, ExternalId.of("CPARTY", "C100")));
+    ManageablePosition manPos2 = new ManageablePosition(BigDecimal.TEN, ExternalId.of("AA", "BB"));
+    manPos2.setUniqueId(UID5);
+    Map<ObjectId, PositionDocument> posDocs = new HashMap<ObjectId, PositionDocument>();
+    posDocs.put(UID4.getObjectId(), new PositionDocument(manPos1));
+    posDocs.put(UID5.getObjectId(), new PositionDocument(manPos2));
+    
+    when(mockPortfolio.get(UID)).thenReturn(new PortfolioDocument(manPrt));
+    when(mockPosition.get(new HashSet<ObjectId>(posDocs.keySet()), VC)).thenReturn(posDocs);
+    MasterPositionSource test = new MasterPositionSource(mockPortfolio, mockPosition);
+    Portfolio testResult = test.getPortfolio(UID, VC);
+    
+    Position pos1 = testResult.getRootNode().getChildNodes().get(0).getPositions().get(0);
+    Position pos2 = testResult.getRootNode().getPositions().get(0);
+    assertEquals(UID4, pos1.getUniqueId());
+    assertEquals(UID5, pos2.getUniqueId());
+    assertSame(pos1.getSecurityLink(), pos2.getSecurityLink());
+    assertSame(pos1.getSecurityLink(), pos1.getTrades().iterator().next().getSecurityLink());
+  }
+
   //-------------------------------------------------------------------------
   public void test_getPortfolioNode_UniqueId() throws Exception {
     PortfolioMaster mockPortfolio = mock(PortfolioMaster.class);
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.security.impl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.security.SecurityDocument;
+import com.opengamma.master.security.SecurityMaster;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test {@link CombinedSecurityMaster}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class CombinedSecurityMasterTest {
+
+  private static final ObjectId OID1A = ObjectId.of("Scheme1", "A");
+  private static final ObjectId OID1B = ObjectId.of("Scheme1", "B");
+  private static final ObjectId OID2 = ObjectId.of("Scheme2", "A");
+  private static final VersionCorrection VC = VersionCorrection.LATEST;
+
+  private SecurityMaster _master1;
+  private SecurityMaster _master2;
+  private CombinedSecurityMaster _combined;
+
+  @BeforeMethod
+  public void setUp() {
+    _master1 = mock(SecurityMaster.class);
+    _master2 = mock(SecurityMaster.class);
+    _combined = new CombinedSecurityMaster(ImmutableList.of(_master1, _master2));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_get_objectIds_oneCallPerScheme() {
+    SecurityDocument doc1A = new SecurityDocument();
+    SecurityDocument doc1B = new SecurityDocument();
+    SecurityDocument doc2 = new SecurityDocument();
+    when(_master1.get(ImmutableList.of(OID1A, OID1B), VC)).thenReturn(ImmutableMap.of(OID1A, doc1A, OID1B, doc1B));
+    when(_master1.get(ImmutableList.of(OID2), VC)).thenThrow(new IllegalArgumentException());
+    when(_master2.get(ImmutableList.of(OID2), VC)).thenReturn(ImmutableMap.of(OID2, doc2));
+
+    Map<ObjectId, SecurityDocument> test = _combined.get(ImmutableList.of(OID1A, OID2, OID1B), VC);
+    assertEquals(ImmutableMap.of(OID1A, doc1A, OID1B, doc1B, OID2, doc2), test);
+    verify(_master1, times(1)).get(ImmutableList.of(OID1A, OID1B), VC);
+    verify(_master2, times(1)).get(ImmutableList.of(OID2), VC);
+  }
+
+  public void test_get_objectIds_schemeRemembered() {
+    when(_master1.get(ImmutableList.of(OID2), VC)).thenThrow(new IllegalArgumentException());
+    _combined.get(ImmutableList.of(OID2), VC);
+    _combined.get(ImmutableList.of(OID2), VC);
+    verify(_master1, times(1)).get(ImmutableList.of(OID2), VC);
+    verify(_master2, times(2)).get(ImmutableList.of(OID2), VC);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_get_objectIds_noMasterAccepts() {
+    when(_master1.get(ImmutableList.of(OID2), VC)).thenThrow(new IllegalArgumentException());
+    when(_master2.get(ImmutableList.of(OID2), VC)).thenThrow(new IllegalArgumentException());
+    _combined.get(ImmutableList.of(OID2), VC);
+  }
+
+}
@@ -12,19 +12,28 @@ import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertSame;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
+import org.fudgemsg.FudgeMsgEnvelope;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.opengamma.id.ExternalIdBundle;
 import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.impl.BulkGetRestUtils;
 import com.opengamma.master.security.ManageableSecurity;
 import com.opengamma.master.security.SecurityDocument;
 import com.opengamma.master.security.SecurityMaster;
+import com.opengamma.util.fudgemsg.FudgeMapWrapper;
 import com.opengamma.util.test.TestGroup;
 import com.sun.jersey.api.client.ClientResponse.Status;
 
@@ -69,4 +78,32 @@ public class DataSecurityMasterResourceTest {
     assertEquals(ObjectId.of("Test", "A"), test.getUrlId());
   }
 
+  @Test
+  public void testGetBulk() {
+    final List<UniqueId> uniqueIds = ImmutableList.of(UID, UniqueId.of("Test", "C"));
+    final SecurityDocument doc = new SecurityDocument(new ManageableSecurity(UID, "Name", "Type", ExternalIdBundle.of("C", "D")));
+    doc.setUniqueId(UID);
+    final Map<UniqueId, SecurityDocument> result = ImmutableMap.of(UID, doc);
+    when(_underlying.get(uniqueIds)).thenReturn(result);
+
+    // the request message is built in the same way as by the remote master
+    Response test = _resource.getBulk(new FudgeMsgEnvelope(BulkGetRestUtils.encodeUniqueIds(uniqueIds)));
+    assertEquals(Status.OK.getStatusCode(), test.getStatus());
+    assertEquals(result, ((FudgeMapWrapper) test.getEntity()).getMap());
+  }
+
+  @Test
+  public void testGetBulkByObjectId() {
+    final List<ObjectId> objectIds = ImmutableList.of(UID.getObjectId(), ObjectId.of("Test", "C"));
+    final VersionCorrection vc = VersionCorrection.ofVersionAsOf(Instant.ofEpochSecond(1000));
+    final SecurityDocument doc = new SecurityDocument(new ManageableSecurity(UID, "Name", "Type", ExternalIdBundle.of("C", "D")));
+    doc.setUniqueId(UID);
+    final Map<ObjectId, SecurityDocument> result = ImmutableMap.of(UID.getObjectId(), doc);
+    when(_underlying.get(objectIds, vc)).thenReturn(result);
+
+    Response test = _resource.getBulkByObjectId(new FudgeMsgEnvelope(BulkGetRestUtils.encodeObjectIds(objectIds, vc)));
+    assertEquals(Status.OK.getStatusCode(), test.getStatus());
+    assertEquals(result, ((FudgeMapWrapper) test.getEntity()).getMap());
+  }
+
 }
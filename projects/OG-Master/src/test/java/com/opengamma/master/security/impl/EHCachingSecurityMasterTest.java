@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.security.impl;
+
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.util.Map;
+
+import net.sf.ehcache.CacheManager;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ExternalIdSearch;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.ObjectIdSupplier;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.security.ManageableSecurity;
+import com.opengamma.master.security.SecurityDocument;
+import com.opengamma.master.security.SecuritySearchRequest;
+import com.opengamma.master.security.SecuritySearchResult;
+import com.opengamma.util.ehcache.EHCacheUtils;
+import com.opengamma.util.paging.PagingRequest;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test the query cache paths of {@link EHCachingSecurityMaster}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class EHCachingSecurityMasterTest {
+
+  private static final ExternalId ID1 = ExternalId.of("A", "1");
+  private static final ExternalId ID2 = ExternalId.of("A", "2");
+
+  private CacheManager _cacheManager;
+  private InMemorySecurityMaster _underlying;
+  private EHCachingSecurityMaster _cachingMaster;
+  private SecurityDocument _doc1;
+
+  @BeforeClass
+  public void setUpClass() {
+    _cacheManager = EHCacheUtils.createTestCacheManager(EHCachingSecurityMasterTest.class);
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    EHCacheUtils.clear(_cacheManager);
+    _underlying = spy(new InMemorySecurityMaster(new ObjectIdSupplier("Test")));
+    _doc1 = add(ID1);
+    _cachingMaster = new EHCachingSecurityMaster("test", _underlying, _cacheManager);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _cachingMaster.shutdown();
+  }
+
+  @AfterClass
+  public void tearDownClass() {
+    EHCacheUtils.shutdownQuiet(_cacheManager);
+  }
+
+  private SecurityDocument add(ExternalId id) {
+    return _underlying.add(new SecurityDocument(new ManageableSecurity(null, id.getValue(), "MANAGEABLE", ExternalIdBundle.of(id))));
+  }
+
+  private static SecuritySearchRequest searchRequest(ExternalId id) {
+    SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setExternalIdSearch(new ExternalIdSearch(id));
+    return request;
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_get_objectId_indexed() {
+    ObjectId oid = _doc1.getObjectId();
+    SecurityDocument first = _cachingMaster.get(oid, VersionCorrection.LATEST);
+    SecurityDocument second = _cachingMaster.get(oid, VersionCorrection.LATEST);
+    // any version-correction within the cached windows is also a hit
+    Instant now = Instant.now();
+    SecurityDocument asOf = _cachingMaster.get(oid, VersionCorrection.of(now, now));
+    verify(_underlying, times(1)).get(oid, VersionCorrection.LATEST);
+    verify(_underlying, times(0)).get(oid, VersionCorrection.of(now, now));
+    assertEquals(_doc1, first);
+    assertEquals(_doc1, second);
+    assertEquals(_doc1, asOf);
+  }
+
+  public void test_get_objectId_returnsCopy() {
+    ObjectId oid = _doc1.getObjectId();
+    _cachingMaster.get(oid, VersionCorrection.LATEST).getSecurity().setName("Changed");
+    assertEquals(ID1.getValue(), _cachingMaster.get(oid, VersionCorrection.LATEST).getSecurity().getName());
+  }
+
+  public void test_get_objectId_invalidatedByUpdate() {
+    ObjectId oid = _doc1.getObjectId();
+    _cachingMaster.get(oid, VersionCorrection.LATEST);
+    SecurityDocument doc = _underlying.get(_doc1.getUniqueId());
+    doc.getSecurity().setName("Updated");
+    _cachingMaster.update(doc);
+    assertEquals("Updated", _cachingMaster.get(oid, VersionCorrection.LATEST).getSecurity().getName());
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_get_objectIds_onlyMissesFromUnderlying() {
+    SecurityDocument doc2 = add(ID2);
+    ObjectId oid1 = _doc1.getObjectId();
+    ObjectId oid2 = doc2.getObjectId();
+    _cachingMaster.get(oid1, VersionCorrection.LATEST);
+
+    Map<ObjectId, SecurityDocument> first = _cachingMaster.get(ImmutableList.of(oid1, oid2), VersionCorrection.LATEST);
+    Map<ObjectId, SecurityDocument> second = _cachingMaster.get(ImmutableList.of(oid1, oid2), VersionCorrection.LATEST);
+    // the bulk miss populates the query cache, so the second call is served entirely from the cache
+    verify(_underlying, times(1)).get(ImmutableList.of(oid2), VersionCorrection.LATEST);
+    verify(_underlying, times(0)).get(ImmutableList.of(oid1, oid2), VersionCorrection.LATEST);
+    assertEquals(2, first.size());
+    assertEquals(_doc1, first.get(oid1));
+    assertEquals(doc2, first.get(oid2));
+    assertEquals(first, second);
+  }
+
+  public void test_get_uniqueIds_onlyMissesFromUnderlying() {
+    SecurityDocument doc2 = add(ID2);
+    UniqueId uid1 = _doc1.getUniqueId();
+    UniqueId uid2 = doc2.getUniqueId();
+    _cachingMaster.get(uid1);
+
+    Map<UniqueId, SecurityDocument> test = _cachingMaster.get(ImmutableList.of(uid1, uid2));
+    verify(_underlying, times(0)).get(ImmutableList.of(uid1, uid2));
+    assertEquals(2, test.size());
+    assertEquals(_doc1, test.get(uid1));
+    assertEquals(doc2, test.get(uid2));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_search_externalIdOnly_cached() {
+    SecuritySearchRequest request = searchRequest(ID1);
+    SecuritySearchResult first = _cachingMaster.search(request);
+    SecuritySearchResult second = _cachingMaster.search(searchRequest(ID1));
+    verify(_underlying, times(1)).search(request);
+    assertEquals(1, first.getDocuments().size());
+    assertEquals(_doc1, second.getFirstDocument());
+    assertEquals(PagingRequest.ALL, second.getPaging().getRequest());
+    assertEquals(1, second.getPaging().getTotalItems());
+    assertNotNull(second.getVersionCorrection().getVersionAsOf());
+  }
+
+  public void test_search_externalIdOnly_invalidatedByNewMatch() {
+    SecuritySearchRequest request = searchRequest(ID2);
+    assertEquals(0, _cachingMaster.search(request).getDocuments().size());
+    SecurityDocument doc2 = add(ID2);
+    SecuritySearchResult result = _cachingMaster.search(request);
+    verify(_underlying, times(2)).search(request);
+    assertEquals(doc2, result.getFirstDocument());
+  }
+
+  public void test_search_otherCriteria_notShortcut() {
+    SecuritySearchRequest request = searchRequest(ID1);
+    request.setName(ID1.getValue());
+    assertEquals(_doc1, _cachingMaster.search(request).getFirstDocument());
+    // the named search differs from the identifier-only template, so it does not populate the query cache
+    _cachingMaster.search(searchRequest(ID1));
+    _cachingMaster.search(searchRequest(ID1));
+    verify(_underlying, times(1)).search(searchRequest(ID1));
+  }
+
+  public void test_search_paged_notShortcut() {
+    SecuritySearchRequest request = searchRequest(ID1);
+    request.setPagingRequest(PagingRequest.ofPage(1, 10));
+    SecuritySearchResult result = _cachingMaster.search(request);
+    assertEquals(PagingRequest.ofPage(1, 10), result.getPaging().getRequest());
+    assertEquals(1, result.getPaging().getTotalItems());
+    assertEquals(_doc1, result.getFirstDocument());
+    _cachingMaster.search(searchRequest(ID1));
+    verify(_underlying, times(1)).search(searchRequest(ID1));
+  }
+
+}
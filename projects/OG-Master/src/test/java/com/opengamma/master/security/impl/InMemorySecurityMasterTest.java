@@ -10,7 +10,9 @@ import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertSame;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -22,6 +24,7 @@ import com.opengamma.id.ExternalIdBundle;
 import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdSupplier;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.security.ManageableSecurity;
 import com.opengamma.master.security.SecurityDocument;
 import com.opengamma.master.security.SecuritySearchRequest;
@@ -172,6 +175,16 @@ public class InMemorySecurityMasterTest {
     assertSame(doc2, testPopulated.get(doc2.getUniqueId()));
   }
 
+  public void test_get_bulk_populatedMaster() {
+    Map<UniqueId, SecurityDocument> byUniqueId = testPopulated.get(Arrays.asList(doc1.getUniqueId(), OTHER_UID));
+    assertEquals(1, byUniqueId.size());
+    assertSame(doc1, byUniqueId.get(doc1.getUniqueId()));
+    Map<ObjectId, SecurityDocument> byObjectId = testPopulated.get(Arrays.asList(doc1.getObjectId(), doc2.getObjectId(), OTHER_UID.getObjectId()), VersionCorrection.LATEST);
+    assertEquals(2, byObjectId.size());
+    assertSame(doc1, byObjectId.get(doc1.getObjectId()));
+    assertSame(doc2, byObjectId.get(doc2.getObjectId()));
+  }
+
   //-------------------------------------------------------------------------
   public void test_add_emptyMaster() {
     SecurityDocument doc = new SecurityDocument();
@@ -8,6 +8,7 @@ package com.opengamma.masterdb;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
@@ -161,6 +162,36 @@ public abstract class AbstractDbMaster {
     return getJdbcTemplate().getJdbcOperations().queryForObject(getDialect().sqlNextSequenceValueSelect(sequenceName), Long.class);
   }
 
+  /**
+   * Gets a number of database ids.
+   * <p>
+   * A single query is used where the dialect supports it, otherwise the
+   * sequence is queried once per id. The ids are not necessarily contiguous.
+   * 
+   * @param sequenceName  the name of the sequence to query, not null
+   * @param count  the number of ids to get, not negative
+   * @return the database ids, not null
+   */
+  protected long[] nextIds(String sequenceName, int count) {
+    ArgumentChecker.notNegative(count, "count");
+    final long[] ids = new long[count];
+    final String sql = (count > 1 ? getDialect().sqlNextSequenceValuesSelect(sequenceName, count) : null);
+    if (sql != null) {
+      final List<Long> values = getJdbcTemplate().getJdbcOperations().queryForList(sql, Long.class);
+      if (values.size() != count) {
+        throw new IllegalStateException("Sequence " + sequenceName + " returned " + values.size() + " values, expected " + count);
+      }
+      for (int i = 0; i < count; i++) {
+        ids[i] = values.get(i);
+      }
+    } else {
+      for (int i = 0; i < count; i++) {
+        ids[i] = nextId(sequenceName);
+      }
+    }
+    return ids;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the clock that determines the current time.
@@ -9,11 +9,15 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.opengamma.lambdava.streams.Lambdava.functional;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
@@ -61,6 +65,10 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
 
   /** Logger. */
   private static final Logger s_logger = LoggerFactory.getLogger(AbstractDocumentDbMaster.class);
+  /**
+   * The maximum number of identifiers in the {@code IN} list of one bulk get query.
+   */
+  protected static final int BULK_BATCH_SIZE = 1000;
 
   /**
    * The change manager.
@@ -73,6 +81,8 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
   // -----------------------------------------------------------------
   private Timer _getByOidInstantsTimer = new Timer();
   private Timer _getByIdTimer = new Timer();
+  private Timer _getByOidsInstantsTimer = new Timer();
+  private Timer _getByIdsTimer = new Timer();
   private Timer _historyTimer = new Timer();
   private Timer _searchTimer = new Timer();
   private Timer _addTimer = new Timer();
@@ -97,6 +107,8 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
   public void registerMetrics(MetricRegistry summaryRegistry, MetricRegistry detailedRegistry, String namePrefix) {
     _getByOidInstantsTimer = summaryRegistry.timer(namePrefix + ".getByOidInstants");
     _getByIdTimer = summaryRegistry.timer(namePrefix + ".getById");
+    _getByOidsInstantsTimer = summaryRegistry.timer(namePrefix + ".getByOidsInstants");
+    _getByIdsTimer = summaryRegistry.timer(namePrefix + ".getByIds");
     _historyTimer = summaryRegistry.timer(namePrefix + ".history");
     _searchTimer = summaryRegistry.timer(namePrefix + ".search");
     _addTimer = summaryRegistry.timer(namePrefix + ".add");
@@ -248,6 +260,134 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     return args;
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Performs a standard bulk get by unique identifier, handling exact version or latest.
+   * <p>
+   * Versioned identifiers are loaded using the {@code GetByIds} query and unversioned
+   * identifiers using the {@code GetByOidsInstants} query, each with an {@code IN} list
+   * of at most {@link #BULK_BATCH_SIZE} identifiers per query.
+   * The extractors accumulate state so two are needed, one for each kind of query.
+   *
+   * @param uniqueIds  the unique identifiers, not null
+   * @param extractor  the extractor to use for versioned identifiers, not null
+   * @param latestExtractor  the extractor to use for unversioned identifiers, not null
+   * @return the documents keyed by requested identifier, missing documents are absent, not null
+   */
+  protected Map<UniqueId, D> doGetBulk(
+    final Collection<UniqueId> uniqueIds, final ResultSetExtractor<List<D>> extractor,
+    final ResultSetExtractor<List<D>> latestExtractor) {
+    ArgumentChecker.notNull(uniqueIds, "uniqueIds");
+    ArgumentChecker.notNull(extractor, "extractor");
+    ArgumentChecker.notNull(latestExtractor, "latestExtractor");
+    s_logger.debug("getBulk {}", uniqueIds);
+
+    final Map<Long, List<UniqueId>> uniqueIdsByRowId = new LinkedHashMap<Long, List<UniqueId>>();
+    final Map<ObjectId, List<UniqueId>> uniqueIdsByObjectId = new LinkedHashMap<ObjectId, List<UniqueId>>();
+    for (final UniqueId uniqueId : uniqueIds) {
+      checkScheme(uniqueId);
+      if (uniqueId.isVersioned()) {
+        addToList(uniqueIdsByRowId, extractRowId(uniqueId), uniqueId);
+      } else {
+        addToList(uniqueIdsByObjectId, uniqueId.getObjectId(), uniqueId);
+      }
+    }
+    final Map<UniqueId, D> result = new HashMap<UniqueId, D>();
+    if (uniqueIdsByRowId.size() > 0) {
+      Timer.Context context = _getByIdsTimer.time();
+      try {
+        final List<Long> rowIds = new ArrayList<Long>(uniqueIdsByRowId.keySet());
+        for (int start = 0; start < rowIds.size(); start += BULK_BATCH_SIZE) {
+          final List<Long> batch = rowIds.subList(start, Math.min(start + BULK_BATCH_SIZE, rowIds.size()));
+          final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
+            .addValue("sql_doc_ids", StringUtils.join(batch, ", "));
+          final String sql = getElSqlBundle().getSql("GetByIds", args);
+          for (final D doc : getDbConnector().getJdbcTemplate().query(sql, args, extractor)) {
+            final long docOid = extractOid(doc.getUniqueId());
+            for (final UniqueId uniqueId : uniqueIdsByRowId.get(extractRowId(doc.getUniqueId()))) {
+              // the object identifier must match as well as the row, as per GetById
+              if (extractOid(uniqueId) == docOid) {
+                result.put(uniqueId, doc);
+              }
+            }
+          }
+        }
+      } finally {
+        context.stop();
+      }
+    }
+    if (uniqueIdsByObjectId.size() > 0) {
+      final Map<ObjectId, D> latest = doGetBulkByOidInstants(uniqueIdsByObjectId.keySet(), VersionCorrection.LATEST, latestExtractor);
+      for (final Map.Entry<ObjectId, D> entry : latest.entrySet()) {
+        for (final UniqueId uniqueId : uniqueIdsByObjectId.get(entry.getKey())) {
+          result.put(uniqueId, entry.getValue());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Performs a standard bulk get by object identifier at instants.
+   * <p>
+   * The documents are loaded using the {@code GetByOidsInstants} query with an {@code IN}
+   * list of at most {@link #BULK_BATCH_SIZE} object identifiers per query.
+   *
+   * @param objectIds  the object identifiers, not null
+   * @param versionCorrection  the version-correction locator, not null
+   * @param extractor  the extractor to use, not null
+   * @return the documents keyed by requested identifier, missing documents are absent, not null
+   */
+  protected Map<ObjectId, D> doGetBulkByOidInstants(
+    final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection,
+    final ResultSetExtractor<List<D>> extractor) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    ArgumentChecker.notNull(extractor, "extractor");
+    s_logger.debug("getBulkByOidInstants {}", objectIds);
+
+    // several object identifiers may refer to the same row, such as with and without a version
+    final Map<Long, List<ObjectId>> objectIdsByOid = new LinkedHashMap<Long, List<ObjectId>>();
+    for (final ObjectId objectId : objectIds) {
+      checkScheme(objectId);
+      addToList(objectIdsByOid, extractOid(objectId), objectId);
+    }
+    final Map<ObjectId, D> result = new HashMap<ObjectId, D>();
+    if (objectIdsByOid.isEmpty()) {
+      return result;
+    }
+    Timer.Context context = _getByOidsInstantsTimer.time();
+    try {
+      final VersionCorrection vc = (versionCorrection.containsLatest() ? versionCorrection.withLatestFixed(now()) : versionCorrection);
+      final List<Long> oids = new ArrayList<Long>(objectIdsByOid.keySet());
+      for (int start = 0; start < oids.size(); start += BULK_BATCH_SIZE) {
+        final List<Long> batch = oids.subList(start, Math.min(start + BULK_BATCH_SIZE, oids.size()));
+        final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
+          .addValue("sql_doc_oids", StringUtils.join(batch, ", "))
+          .addTimestamp("version_as_of", vc.getVersionAsOf())
+          .addTimestamp("corrected_to", vc.getCorrectedTo());
+        final String sql = getElSqlBundle().getSql("GetByOidsInstants", args);
+        for (final D doc : getDbConnector().getJdbcTemplate().query(sql, args, extractor)) {
+          for (final ObjectId objectId : objectIdsByOid.get(extractOid(doc.getUniqueId()))) {
+            result.put(objectId, doc);
+          }
+        }
+      }
+      return result;
+    } finally {
+      context.stop();
+    }
+  }
+
+  private static <K, V> void addToList(final Map<K, List<V>> map, final K key, final V value) {
+    List<V> list = map.get(key);
+    if (list == null) {
+      list = new ArrayList<V>(1);
+      map.put(key, list);
+    }
+    list.add(value);
+  }
+
   //-------------------------------------------------------------------------
 
   /**
@@ -1014,7 +1154,11 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
   public Map<UniqueId, D> get(final Collection<UniqueId> uniqueIds) {
     final Map<UniqueId, D> map = newHashMap();
     for (final UniqueId uniqueId : uniqueIds) {
-      map.put(uniqueId, get(uniqueId));
+      try {
+        map.put(uniqueId, get(uniqueId));
+      } catch (DataNotFoundException ex) {
+        // missing from the map
+      }
     }
     return map;
   }
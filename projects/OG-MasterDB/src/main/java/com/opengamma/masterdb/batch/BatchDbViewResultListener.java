@@ -5,6 +5,7 @@
  */
 package com.opengamma.masterdb.batch;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.Map;
 
@@ -29,6 +30,9 @@ import com.opengamma.util.ArgumentChecker;
 
 /**
  * View result listener implementation for batch runs.
+ * <p>
+ * The results are written to the batch database and, optionally, exported to
+ * columnar files using {@link BatchResultFileWriter}.
  */
 public class BatchDbViewResultListener extends AbstractViewResultListener {
 
@@ -36,13 +40,27 @@ public class BatchDbViewResultListener extends AbstractViewResultListener {
   
   private final BatchRunWriter _batchRunWriter;
   private final UserPrincipal _user;
+  private final File _exportDirectory;
   private final Map<UniqueId, RiskRun> _riskRuns = Maps.newConcurrentMap();
+  private final Map<UniqueId, BatchResultFileWriter> _exportWriters = Maps.newConcurrentMap();
 
   public BatchDbViewResultListener(BatchRunWriter batchRunWriter, UserPrincipal user) {
+    this(batchRunWriter, user, null);
+  }
+
+  /**
+   * Creates an instance that also exports the results of each run to columnar files.
+   * 
+   * @param batchRunWriter  the batch writer, not null
+   * @param user  the user, not null
+   * @param exportDirectory  the directory to export into, with a sub-directory for each run, null to not export
+   */
+  public BatchDbViewResultListener(BatchRunWriter batchRunWriter, UserPrincipal user, File exportDirectory) {
     ArgumentChecker.notNull(batchRunWriter, "batchRunWriter");
     ArgumentChecker.notNull(user, "user");
     _batchRunWriter = batchRunWriter;
     _user = user;
+    _exportDirectory = exportDirectory;
   }
 
   private RiskRun getRiskRun(ViewComputationResultModel fullFragment, ViewDeltaResultModel deltaFragment) {
@@ -61,6 +79,20 @@ public class BatchDbViewResultListener extends AbstractViewResultListener {
     return cycleId;
   }
 
+  /**
+   * Gets the directory the results of a cycle are exported to.
+   * <p>
+   * A risk run may be reused by later cycles, so the cycle identifier is part of the name.
+   *
+   * @param exportDirectory  the root export directory, not null
+   * @param riskRun  the risk run, not null
+   * @param cycleId  the view cycle identifier, not null
+   * @return the directory, not null
+   */
+  static File getExportDirectory(File exportDirectory, RiskRun riskRun, UniqueId cycleId) {
+    return new File(exportDirectory, "run-" + riskRun.getId() + "-" + cycleId.toString().replaceAll("[^A-Za-z0-9._-]", "_"));
+  }
+
   @Override
   public UserPrincipal getUser() {
     return _user;
@@ -79,6 +111,15 @@ public class BatchDbViewResultListener extends AbstractViewResultListener {
                     riskRun.getId(), cycleMetadata.getViewCycleId());
     } catch (Exception e) {
       s_logger.error("Failed to write start of batch job. No results will be recorded.", e);
+      return;
+    }
+    if (_exportDirectory != null) {
+      try {
+        RiskRun riskRun = _riskRuns.get(cycleMetadata.getViewCycleId());
+        _exportWriters.put(cycleMetadata.getViewCycleId(), new BatchResultFileWriter(getExportDirectory(_exportDirectory, riskRun, cycleMetadata.getViewCycleId())));
+      } catch (Exception e) {
+        s_logger.error("Failed to start export of batch job. No results will be exported.", e);
+      }
     }
   }
 
@@ -92,6 +133,17 @@ public class BatchDbViewResultListener extends AbstractViewResultListener {
     } catch (Exception e) {
       s_logger.error("Failed to write end of batch job. Job will appear incomplete.", e);
     }
+    if (_exportDirectory != null) {
+      try {
+        BatchResultFileWriter exportWriter = _exportWriters.remove(getCycleId(fullResult, deltaResult));
+        if (exportWriter != null) {
+          exportWriter.close();
+          s_logger.info("Batch results exported to {}", exportWriter.getDirectory());
+        }
+      } catch (Exception e) {
+        s_logger.error("Failed to complete export of batch job", e);
+      }
+    }
   }
 
   @Override
@@ -108,11 +160,21 @@ public class BatchDbViewResultListener extends AbstractViewResultListener {
     } catch (Exception e) {
       s_logger.error("Error writing batch result fragment", e);
     }
+    BatchResultFileWriter exportWriter = _exportWriters.get(getCycleId(fullFragment, deltaFragment));
+    if (exportWriter != null) {
+      try {
+        exportWriter.addJobResults(fullFragment);
+      } catch (Exception e) {
+        s_logger.error("Error exporting batch result fragment", e);
+      }
+    }
   }
 
   @Override
   public void cycleExecutionFailed(ViewCycleExecutionOptions executionOptions, Exception exception) {
     s_logger.error("Batch cycle execution failed", exception);
+    // the failed cycle is not known, so every export in progress is abandoned
+    abortExports();
     // TODO there's no way of knowing which cycle has failed, need an extra parameter. PLAT-4173
     /*if (getRiskRun() == null) {
       s_logger.warn("Skipping writing batch cycle failure due to earlier failure to write start of batch job");
@@ -124,4 +186,37 @@ public class BatchDbViewResultListener extends AbstractViewResultListener {
       s_logger.error("Error writing batch cycle failure", e);
     }*/
   }
+
+  @Override
+  public void processCompleted() {
+    abortExports();
+  }
+
+  @Override
+  public void processTerminated(boolean executionInterrupted) {
+    abortExports();
+  }
+
+  @Override
+  public void clientShutdown(Exception e) {
+    abortExports();
+  }
+
+  /**
+   * Abandons the exports of cycles that have not completed, deleting their incomplete files.
+   */
+  private void abortExports() {
+    for (UniqueId cycleId : _exportWriters.keySet()) {
+      BatchResultFileWriter exportWriter = _exportWriters.remove(cycleId);
+      if (exportWriter != null) {
+        try {
+          exportWriter.abort();
+          s_logger.warn("Batch results export to {} abandoned, cycle ID {}", exportWriter.getDirectory(), cycleId);
+        } catch (Exception e) {
+          s_logger.error("Failed to abandon export of batch job", e);
+        }
+      }
+    }
+  }
+
 }
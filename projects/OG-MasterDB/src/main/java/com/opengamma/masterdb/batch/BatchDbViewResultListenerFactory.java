@@ -5,6 +5,8 @@
  */
 package com.opengamma.masterdb.batch;
 
+import java.io.File;
+
 import com.opengamma.batch.BatchRunWriter;
 import com.opengamma.engine.view.listener.ViewResultListener;
 import com.opengamma.engine.view.listener.ViewResultListenerFactory;
@@ -16,10 +18,11 @@ import com.opengamma.livedata.UserPrincipal;
 public class BatchDbViewResultListenerFactory implements ViewResultListenerFactory {
 
   private BatchRunWriter _batchRunWriter;
+  private File _exportDirectory;
 
   @Override
   public ViewResultListener createViewResultListener(UserPrincipal user) {
-    return new BatchDbViewResultListener(_batchRunWriter, user);
+    return new BatchDbViewResultListener(_batchRunWriter, user, _exportDirectory);
   }
 
   public BatchRunWriter getBatchRunMaster() {
@@ -29,4 +32,24 @@ public class BatchDbViewResultListenerFactory implements ViewResultListenerFacto
   public void setBatchRunMaster(BatchRunWriter batchRunWriter) {
     this._batchRunWriter = batchRunWriter;
   }
+
+  /**
+   * Gets the directory that batch results are exported to as columnar files.
+   * 
+   * @return the directory, null if results are not exported
+   */
+  public File getExportDirectory() {
+    return _exportDirectory;
+  }
+
+  /**
+   * Sets the directory that batch results are exported to as columnar files.
+   * <p>
+   * Each run is exported to its own sub-directory by {@link BatchResultFileWriter}.
+   * 
+   * @param exportDirectory  the directory, null to not export results
+   */
+  public void setExportDirectory(File exportDirectory) {
+    _exportDirectory = exportDirectory;
+  }
 }
@@ -0,0 +1,342 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.batch;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Reads a columnar binary file of batch results written by {@link BatchResultFileWriter}.
+ * <p>
+ * The dictionaries are loaded when the file is opened and the blocks are then scanned in order.
+ * Each call to {@link #nextBlock()} loads the columns of the next block, which are indices
+ * into the dictionaries together with the values.
+ * The column arrays are reused between blocks and only the first {@link #getBlockSize()} entries are valid.
+ * <p>
+ * The value properties are in the form understood by {@code ValueProperties.parse}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class BatchResultFileReader implements Closeable {
+
+  /**
+   * The file.
+   */
+  private final File _file;
+  /**
+   * The input stream positioned at the next block.
+   */
+  private final DataInputStream _in;
+  /**
+   * The calculation configuration name.
+   */
+  private final String _calculationConfiguration;
+  /**
+   * The target types, indexed in the same way as the target identifiers.
+   */
+  private final List<String> _targetTypes;
+  /**
+   * The target unique identifiers, empty for the null target.
+   */
+  private final List<String> _targets;
+  /**
+   * The value names.
+   */
+  private final List<String> _valueNames;
+  /**
+   * The value properties.
+   */
+  private final List<String> _valueProperties;
+  /**
+   * The number of rows in the current block.
+   */
+  private int _blockSize;
+  /**
+   * Whether the end of the blocks has been reached.
+   */
+  private boolean _ended;
+  private int[] _targetColumn = new int[0];
+  private int[] _valueNameColumn = new int[0];
+  private int[] _valuePropertiesColumn = new int[0];
+  private double[] _valueColumn = new double[0];
+
+  /**
+   * Opens a file for reading.
+   *
+   * @param file  the file, not null
+   * @return the reader, not null
+   */
+  public static BatchResultFileReader open(final File file) {
+    ArgumentChecker.notNull(file, "file");
+    return new BatchResultFileReader(file);
+  }
+
+  /**
+   * Lists the files written to a directory by {@link BatchResultFileWriter}, one per calculation configuration.
+   *
+   * @param directory  the directory, not null
+   * @return the files, in the order they were created, not null
+   */
+  public static List<File> listFiles(final File directory) {
+    ArgumentChecker.notNull(directory, "directory");
+    final List<File> files = new ArrayList<>();
+    final File[] contents = directory.listFiles();
+    if (contents != null) {
+      for (File file : contents) {
+        if (file.isFile() && file.getName().endsWith(BatchResultFileWriter.FILE_SUFFIX)) {
+          files.add(file);
+        }
+      }
+    }
+    Collections.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(final File file1, final File file2) {
+        final int cmp = Long.compare(fileIndex(file1), fileIndex(file2));
+        return (cmp != 0 ? cmp : file1.getName().compareTo(file2.getName()));
+      }
+    });
+    return files;
+  }
+
+  /**
+   * Gets the index of a file written by {@link BatchResultFileWriter}.
+   * <p>
+   * The index is compared numerically, so that {@code results-10} follows {@code results-2}.
+   *
+   * @param file  the file, not null
+   * @return the index, {@code Long.MAX_VALUE} if the name is not in the expected form
+   */
+  private static long fileIndex(final File file) {
+    final String name = file.getName();
+    if (name.startsWith(BatchResultFileWriter.FILE_PREFIX) && name.endsWith(BatchResultFileWriter.FILE_SUFFIX)) {
+      final String index = name.substring(BatchResultFileWriter.FILE_PREFIX.length(), name.length() - BatchResultFileWriter.FILE_SUFFIX.length());
+      if (index.length() > 0 && index.length() < 19 && StringUtils.isNumeric(index)) {
+        return Long.parseLong(index);
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  private BatchResultFileReader(final File file) {
+    _file = file;
+    final List<String> targetTypes = new ArrayList<>();
+    final List<String> targets = new ArrayList<>();
+    final List<String> valueNames = new ArrayList<>();
+    final List<String> valueProperties = new ArrayList<>();
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      if (raf.length() < 12) {
+        throw new OpenGammaRuntimeException("Invalid batch result file " + file);
+      }
+      raf.seek(raf.length() - 12);
+      final long dictionaryOffset = raf.readLong();
+      if (raf.readInt() != BatchResultFileWriter.MAGIC) {
+        throw new OpenGammaRuntimeException("Incomplete batch result file " + file);
+      }
+      raf.seek(dictionaryOffset);
+      final int targetCount = raf.readInt();
+      for (int i = 0; i < targetCount; i++) {
+        targetTypes.add(readString(raf));
+        targets.add(readString(raf));
+      }
+      readStrings(raf, valueNames);
+      readStrings(raf, valueProperties);
+    } catch (IOException ex) {
+      throw new OpenGammaRuntimeException("Unable to read batch result file " + file, ex);
+    }
+    _targetTypes = Collections.unmodifiableList(targetTypes);
+    _targets = Collections.unmodifiableList(targets);
+    _valueNames = Collections.unmodifiableList(valueNames);
+    _valueProperties = Collections.unmodifiableList(valueProperties);
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (in.readInt() != BatchResultFileWriter.MAGIC) {
+        throw new OpenGammaRuntimeException("Invalid batch result file " + file);
+      }
+      final int version = in.readInt();
+      if (version != BatchResultFileWriter.VERSION) {
+        throw new OpenGammaRuntimeException("Unsupported batch result file version " + version + " in " + file);
+      }
+      _calculationConfiguration = readString(in);
+      _in = in;
+    } catch (IOException ex) {
+      IOUtils.closeQuietly(in);
+      throw new OpenGammaRuntimeException("Unable to read batch result file " + file, ex);
+    } catch (RuntimeException ex) {
+      IOUtils.closeQuietly(in);
+      throw ex;
+    }
+  }
+
+  private static void readStrings(final RandomAccessFile raf, final List<String> strings) throws IOException {
+    final int count = raf.readInt();
+    for (int i = 0; i < count; i++) {
+      strings.add(readString(raf));
+    }
+  }
+
+  private static String readString(final DataInput in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, BatchResultFileWriter.UTF8);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the calculation configuration name.
+   *
+   * @return the name, not null
+   */
+  public String getCalculationConfiguration() {
+    return _calculationConfiguration;
+  }
+
+  /**
+   * Gets the dictionary of target types, indexed in the same way as {@link #getTargets()}.
+   *
+   * @return the target types, not null
+   */
+  public List<String> getTargetTypes() {
+    return _targetTypes;
+  }
+
+  /**
+   * Gets the dictionary of target unique identifiers.
+   * <p>
+   * The unique identifier of the null target is the empty string.
+   *
+   * @return the target unique identifiers, not null
+   */
+  public List<String> getTargets() {
+    return _targets;
+  }
+
+  /**
+   * Gets the dictionary of value names.
+   *
+   * @return the value names, not null
+   */
+  public List<String> getValueNames() {
+    return _valueNames;
+  }
+
+  /**
+   * Gets the dictionary of value properties.
+   *
+   * @return the value properties, not null
+   */
+  public List<String> getValueProperties() {
+    return _valueProperties;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Loads the next block of rows.
+   *
+   * @return true if a block was loaded, false at the end of the file
+   */
+  public boolean nextBlock() {
+    if (_ended) {
+      return false;
+    }
+    try {
+      final int rows = _in.readInt();
+      if (rows > _valueColumn.length) {
+        _targetColumn = new int[rows];
+        _valueNameColumn = new int[rows];
+        _valuePropertiesColumn = new int[rows];
+        _valueColumn = new double[rows];
+      }
+      readInts(_targetColumn, rows);
+      readInts(_valueNameColumn, rows);
+      readInts(_valuePropertiesColumn, rows);
+      for (int i = 0; i < rows; i++) {
+        _valueColumn[i] = _in.readDouble();
+      }
+      _blockSize = rows;
+      _ended = (rows == 0);
+      return rows > 0;
+    } catch (IOException ex) {
+      throw new OpenGammaRuntimeException("Unable to read batch result file " + _file, ex);
+    }
+  }
+
+  private void readInts(final int[] column, final int rows) throws IOException {
+    for (int i = 0; i < rows; i++) {
+      column[i] = _in.readInt();
+    }
+  }
+
+  /**
+   * Gets the number of rows in the current block.
+   *
+   * @return the number of rows
+   */
+  public int getBlockSize() {
+    return _blockSize;
+  }
+
+  /**
+   * Gets the target column of the current block, as indices into {@link #getTargets()}.
+   *
+   * @return the column, not null
+   */
+  public int[] getTargetColumn() {
+    return _targetColumn;
+  }
+
+  /**
+   * Gets the value name column of the current block, as indices into {@link #getValueNames()}.
+   *
+   * @return the column, not null
+   */
+  public int[] getValueNameColumn() {
+    return _valueNameColumn;
+  }
+
+  /**
+   * Gets the value properties column of the current block, as indices into {@link #getValueProperties()}.
+   *
+   * @return the column, not null
+   */
+  public int[] getValuePropertiesColumn() {
+    return _valuePropertiesColumn;
+  }
+
+  /**
+   * Gets the value column of the current block.
+   *
+   * @return the column, not null
+   */
+  public double[] getValueColumn() {
+    return _valueColumn;
+  }
+
+  /**
+   * Closes the file.
+   */
+  @Override
+  public void close() {
+    IOUtils.closeQuietly(_in);
+  }
+
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.CountingOutputStream;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.calcnode.InvocationResult;
+import com.opengamma.engine.calcnode.MissingValue;
+import com.opengamma.engine.value.ComputedValueResult;
+import com.opengamma.engine.view.ViewCalculationResultModel;
+import com.opengamma.engine.view.ViewComputationResultModel;
+import com.opengamma.financial.conversion.ResultConverter;
+import com.opengamma.financial.conversion.ResultConverterCache;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Writes the results of a batch run to columnar binary files.
+ * <p>
+ * This is an alternative to the normalised {@code rsk_value} table of {@link DbBatchWriter},
+ * intended for aggregation and reporting that scans every value of a run.
+ * The results are partitioned by calculation configuration, with one file per configuration
+ * in the output directory. Each file holds blocks of rows as primitive columns, with the
+ * targets, value names and value properties dictionary encoded.
+ * <p>
+ * Only successful results that can be converted to doubles are written, in the same way
+ * as {@link DbBatchWriter} writes successes. Failures remain available from the database.
+ * <p>
+ * The file layout, with all numbers big-endian, is:
+ * <ul>
+ * <li>header - the magic number, the format version and the calculation configuration name
+ * <li>blocks - each a row count followed by the target, value name and value properties index
+ *  columns as ints and the value column as doubles
+ * <li>an end marker - a row count of zero
+ * <li>dictionaries - the target types and unique identifiers, the value names and the value properties
+ * <li>trailer - the file offset of the dictionaries and the magic number
+ * </ul>
+ * Strings are written as a length followed by UTF-8 bytes.
+ * <p>
+ * This class is thread-safe.
+ */
+public class BatchResultFileWriter implements Closeable {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(BatchResultFileWriter.class);
+
+  /**
+   * The file name prefix, followed by the index of the calculation configuration in the order written.
+   */
+  public static final String FILE_PREFIX = "results-";
+  /**
+   * The file name suffix.
+   */
+  public static final String FILE_SUFFIX = ".ogbr";
+  /**
+   * The default number of rows in a block.
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 65536;
+  /**
+   * The magic number at the start and end of a file.
+   */
+  static final int MAGIC = 0x4F474252;
+  /**
+   * The format version.
+   */
+  static final int VERSION = 1;
+  /**
+   * The encoding of strings.
+   */
+  static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The output directory.
+   */
+  private final File _directory;
+  /**
+   * The number of rows in a block.
+   */
+  private final int _blockSize;
+  /**
+   * The converters from values to doubles.
+   */
+  private final ResultConverterCache _resultConverterCache = new ResultConverterCache();
+  /**
+   * The partitions keyed by calculation configuration name.
+   */
+  private final Map<String, Partition> _partitions = new LinkedHashMap<>();
+  /**
+   * Whether the writer is closed.
+   */
+  private boolean _closed;
+
+  /**
+   * Creates an instance writing blocks of the default size.
+   *
+   * @param directory  the output directory, created if necessary, not null
+   */
+  public BatchResultFileWriter(final File directory) {
+    this(directory, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Creates an instance.
+   * <p>
+   * The directory must not already contain batch results, as they would be overwritten.
+   *
+   * @param directory  the output directory, created if necessary, not null
+   * @param blockSize  the number of rows in a block, greater than zero
+   */
+  public BatchResultFileWriter(final File directory, final int blockSize) {
+    ArgumentChecker.notNull(directory, "directory");
+    ArgumentChecker.notNegativeOrZero(blockSize, "blockSize");
+    if (directory.isDirectory() == false && directory.mkdirs() == false) {
+      throw new OpenGammaRuntimeException("Unable to create directory " + directory);
+    }
+    if (BatchResultFileReader.listFiles(directory).isEmpty() == false) {
+      throw new OpenGammaRuntimeException("Directory " + directory + " already contains batch results");
+    }
+    _directory = directory;
+    _blockSize = blockSize;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the output directory.
+   *
+   * @return the directory, not null
+   */
+  public File getDirectory() {
+    return _directory;
+  }
+
+  /**
+   * Adds a fragment of results from the batch run.
+   *
+   * @param result  the results, not null
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized void addJobResults(final ViewComputationResultModel result) {
+    ArgumentChecker.notNull(result, "result");
+    if (_closed) {
+      throw new IllegalStateException("Writer is closed");
+    }
+    for (String calcConfigName : result.getCalculationConfigurationNames()) {
+      final ViewCalculationResultModel calcResult = result.getCalculationResult(calcConfigName);
+      final Partition partition = getPartition(calcConfigName);
+      for (ComputationTargetSpecification targetSpec : calcResult.getAllTargets()) {
+        final int target = partition.target(targetSpec);
+        for (ComputedValueResult computedValue : calcResult.getAllValues(targetSpec)) {
+          if (computedValue.getInvocationResult() != InvocationResult.SUCCESS || computedValue.getValue() instanceof MissingValue) {
+            continue;
+          }
+          final ResultConverter<Object> resultConverter;
+          try {
+            resultConverter = (ResultConverter<Object>) _resultConverterCache.getConverter(computedValue.getValue());
+          } catch (IllegalArgumentException ex) {
+            s_logger.debug("No converter for value of type {} for {}", computedValue.getValue().getClass(), computedValue.getSpecification());
+            continue;
+          }
+          final int properties = partition.valueProperties(computedValue.getSpecification().getProperties().toString());
+          final Map<String, Double> values = resultConverter.convert(computedValue.getSpecification().getValueName(), computedValue.getValue());
+          for (Map.Entry<String, Double> entry : values.entrySet()) {
+            if (entry.getValue() != null) {
+              partition.add(target, partition.valueName(entry.getKey()), properties, entry.getValue());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes the writer, completing the files.
+   */
+  @Override
+  public synchronized void close() {
+    if (_closed) {
+      return;
+    }
+    _closed = true;
+    OpenGammaRuntimeException failure = null;
+    for (Partition partition : _partitions.values()) {
+      try {
+        partition.close();
+      } catch (RuntimeException ex) {
+        failure = (failure == null ? new OpenGammaRuntimeException("Unable to complete batch result files", ex) : failure);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Abandons the writer, deleting the incomplete files.
+   * <p>
+   * This is used when the batch run fails, as files without a trailer cannot be read.
+   * The output directory is also deleted if nothing else is in it.
+   */
+  public synchronized void abort() {
+    _closed = true;
+    for (Partition partition : _partitions.values()) {
+      partition.abort();
+    }
+    _partitions.clear();
+    if (_directory.delete() == false) {
+      s_logger.debug("Batch result directory {} not deleted", _directory);
+    }
+  }
+
+  private Partition getPartition(final String calcConfigName) {
+    Partition partition = _partitions.get(calcConfigName);
+    if (partition == null) {
+      partition = new Partition(new File(_directory, FILE_PREFIX + _partitions.size() + FILE_SUFFIX), calcConfigName, _blockSize);
+      _partitions.put(calcConfigName, partition);
+    }
+    return partition;
+  }
+
+  static void writeString(final DataOutputStream out, final String str) throws IOException {
+    final byte[] bytes = str.getBytes(UTF8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The file of one calculation configuration.
+   */
+  private static final class Partition {
+    private final File _file;
+    private final CountingOutputStream _counter;
+    private final DataOutputStream _out;
+    private final Map<ComputationTargetSpecification, Integer> _targets = new HashMap<>();
+    private final List<ComputationTargetSpecification> _targetList = new ArrayList<>();
+    private final Map<String, Integer> _valueNames = new HashMap<>();
+    private final List<String> _valueNameList = new ArrayList<>();
+    private final Map<String, Integer> _valueProperties = new HashMap<>();
+    private final List<String> _valuePropertiesList = new ArrayList<>();
+    private final int[] _targetColumn;
+    private final int[] _valueNameColumn;
+    private final int[] _valuePropertiesColumn;
+    private final double[] _valueColumn;
+    private int _rows;
+
+    Partition(final File file, final String calcConfigName, final int blockSize) {
+      _file = file;
+      _targetColumn = new int[blockSize];
+      _valueNameColumn = new int[blockSize];
+      _valuePropertiesColumn = new int[blockSize];
+      _valueColumn = new double[blockSize];
+      try {
+        _counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        _out = new DataOutputStream(_counter);
+        _out.writeInt(MAGIC);
+        _out.writeInt(VERSION);
+        writeString(_out, calcConfigName);
+      } catch (IOException ex) {
+        throw new OpenGammaRuntimeException("Unable to create batch result file " + file, ex);
+      }
+    }
+
+    int target(final ComputationTargetSpecification targetSpec) {
+      Integer index = _targets.get(targetSpec);
+      if (index == null) {
+        index = _targetList.size();
+        _targets.put(targetSpec, index);
+        _targetList.add(targetSpec);
+      }
+      return index;
+    }
+
+    int valueName(final String valueName) {
+      return index(_valueNames, _valueNameList, valueName);
+    }
+
+    int valueProperties(final String valueProperties) {
+      return index(_valueProperties, _valuePropertiesList, valueProperties);
+    }
+
+    private static int index(final Map<String, Integer> map, final List<String> list, final String str) {
+      Integer index = map.get(str);
+      if (index == null) {
+        index = list.size();
+        map.put(str, index);
+        list.add(str);
+      }
+      return index;
+    }
+
+    void add(final int target, final int valueName, final int valueProperties, final double value) {
+      _targetColumn[_rows] = target;
+      _valueNameColumn[_rows] = valueName;
+      _valuePropertiesColumn[_rows] = valueProperties;
+      _valueColumn[_rows] = value;
+      if (++_rows == _valueColumn.length) {
+        writeBlock();
+      }
+    }
+
+    private void writeBlock() {
+      try {
+        _out.writeInt(_rows);
+        for (int i = 0; i < _rows; i++) {
+          _out.writeInt(_targetColumn[i]);
+        }
+        for (int i = 0; i < _rows; i++) {
+          _out.writeInt(_valueNameColumn[i]);
+        }
+        for (int i = 0; i < _rows; i++) {
+          _out.writeInt(_valuePropertiesColumn[i]);
+        }
+        for (int i = 0; i < _rows; i++) {
+          _out.writeDouble(_valueColumn[i]);
+        }
+        _rows = 0;
+      } catch (IOException ex) {
+        throw new OpenGammaRuntimeException("Unable to write batch result file " + _file, ex);
+      }
+    }
+
+    void close() {
+      try {
+        if (_rows > 0) {
+          writeBlock();
+        }
+        _out.writeInt(0);
+        _out.flush();
+        final long dictionaryOffset = _counter.getCount();
+        _out.writeInt(_targetList.size());
+        for (ComputationTargetSpecification targetSpec : _targetList) {
+          writeString(_out, targetSpec.getType().toString());
+          writeString(_out, targetSpec.getUniqueId() != null ? targetSpec.getUniqueId().toString() : "");
+        }
+        _out.writeInt(_valueNameList.size());
+        for (String valueName : _valueNameList) {
+          writeString(_out, valueName);
+        }
+        _out.writeInt(_valuePropertiesList.size());
+        for (String valueProperties : _valuePropertiesList) {
+          writeString(_out, valueProperties);
+        }
+        _out.writeLong(dictionaryOffset);
+        _out.writeInt(MAGIC);
+        _out.flush();
+      } catch (IOException ex) {
+        throw new OpenGammaRuntimeException("Unable to complete batch result file " + _file, ex);
+      } finally {
+        IOUtils.closeQuietly(_out);
+      }
+    }
+
+    void abort() {
+      IOUtils.closeQuietly(_out);
+      if (_file.delete() == false) {
+        s_logger.warn("Unable to delete incomplete batch result file {}", _file);
+      }
+    }
+  }
+
+}
@@ -92,6 +92,34 @@ public class DbBatchMaster extends AbstractDbMaster implements BatchMasterWriter
     setElSqlBundle(_dbBatchWriter.getElSqlBundle());
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of threads writing risk values.
+   *
+   * @return the number of writer threads, zero if values are written on the calling thread
+   */
+  public int getWriterThreads() {
+    return _dbBatchWriter.getWriterThreads();
+  }
+
+  /**
+   * Sets the number of threads writing risk values.
+   * <p>
+   * See {@link DbBatchWriter#setWriterThreads(int)} for details of the parallel mode.
+   *
+   * @param writerThreads  the number of writer threads, not negative
+   */
+  public void setWriterThreads(final int writerThreads) {
+    _dbBatchWriter.setWriterThreads(writerThreads);
+  }
+
+  /**
+   * Stops the risk value writer threads, if any.
+   */
+  public void shutdown() {
+    _dbBatchWriter.shutdown();
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public RiskRun getRiskRun(final ObjectId uniqueId) {
@@ -388,6 +416,11 @@ public class DbBatchMaster extends AbstractDbMaster implements BatchMasterWriter
   //-------------------------------------------------------------------------
   @Override
   public void addJobResults(final ObjectId riskRunId, final ViewComputationResultModel result) {
+    if (_dbBatchWriter.getWriterThreads() > 0) {
+      // the writer manages its own transactions so that no connection is held while the writer threads run
+      _dbBatchWriter.addJobResultsInParallel(riskRunId, result);
+      return;
+    }
     getTransactionTemplateRetrying(getMaxRetries()).execute(new TransactionCallback<Void>() {
       @Override
       public Void doInTransaction(final TransactionStatus status) {
@@ -17,13 +17,19 @@ import java.io.Serializable;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.StringUtils;
 import org.hibernate.Criteria;
@@ -47,10 +53,12 @@ import org.threeten.bp.Instant;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.opengamma.DataNotFoundException;
+import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.batch.RunCreationMode;
 import com.opengamma.batch.SnapshotMode;
 import com.opengamma.batch.domain.CalculationConfiguration;
@@ -91,6 +99,7 @@ import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.masterdb.AbstractDbMaster;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.NamedThreadPoolFactory;
 import com.opengamma.util.db.DbConnector;
 import com.opengamma.util.db.DbDateUtils;
 import com.opengamma.util.db.DbMapSqlParameterSource;
@@ -121,6 +130,21 @@ public class DbBatchWriter extends AbstractDbMaster {
    * The set of types to skip when encountered in market data because they already belong to a snapshot.
    */
   private static final Set<Class<?>> SKIP_MARKET_DATA_WRITE_TYPES = ImmutableSet.<Class<?>>of(SnapshotDataBundle.class);
+  /**
+   * The number of risk ids allocated from the sequence at a time when writing in parallel.
+   */
+  private static final int RISK_ID_BLOCK_SIZE = 1000;
+  /**
+   * The columns of a risk value row, in the order used by the multi-row insert.
+   */
+  private static final String[] RISK_VALUE_COLUMNS = {
+    "id", "calculation_configuration_id", "name", "value_specification_id", "function_unique_id",
+    "computation_target_id", "run_id", "value", "eval_instant", "compute_node_id"};
+  /**
+   * The number of rows in each multi-row risk value insert.
+   * This keeps the number of parameters well within the limits of the supported databases.
+   */
+  private static final int RISK_VALUE_ROWS_PER_INSERT = 100;
 
   private final Map<String, Long> _calculationConfigurations = newConcurrentMap();
   private final Map<ValueRequirement, Long> _riskValueRequirements = newConcurrentMap();
@@ -130,6 +154,8 @@ public class DbBatchWriter extends AbstractDbMaster {
   private final Map<Long, RiskRun> _riskRunsByIds = newConcurrentMap();
   private final Map<Long, Map<Pair<Long, Long>, StatusEntry>> _statusCacheByRunId = newConcurrentMap();
   private final Map<Long, Map<ComputeFailureKey, ComputeFailure>> _computeFailureCacheByRunId = newConcurrentMap();
+  private final Map<String, Long> _functionUniqueIds = newConcurrentMap();
+  private final Map<String, Long> _computeNodeIds = newConcurrentMap();
 
   /** Logger. */
   private static final Logger s_logger = LoggerFactory.getLogger(DbBatchWriter.class);
@@ -139,6 +165,22 @@ public class DbBatchWriter extends AbstractDbMaster {
    * The Result converter cache.
    */
   private ResultConverterCache _resultConverterCache;
+  /**
+   * The number of threads writing risk values, zero to write them on the calling thread.
+   */
+  private int _writerThreads;
+  /**
+   * The executor running the risk value writers, null if not writing in parallel.
+   */
+  private ExecutorService _writerExecutor;
+  /**
+   * The block of pre-allocated risk ids.
+   */
+  private long[] _riskIds = new long[0];
+  /**
+   * The index of the next unused id in the block of risk ids.
+   */
+  private int _riskIdIndex;
 
   /**
    * Creates an instance.
@@ -152,6 +194,65 @@ public class DbBatchWriter extends AbstractDbMaster {
     setElSqlBundle(ElSqlBundle.of(dbConnector.getDialect().getElSqlConfig(), DbBatchWriter.class));
   }
 
+  /**
+   * Gets the number of threads writing risk values.
+   *
+   * @return the number of writer threads, zero if values are written on the calling thread
+   */
+  public int getWriterThreads() {
+    return _writerThreads;
+  }
+
+  /**
+   * Sets the number of threads writing risk values.
+   * <p>
+   * The default of zero writes each fragment of results in a single batch within the caller's transaction.
+   * A positive number selects the high-throughput mode, intended for large end-of-day runs.
+   * Risk ids are allocated from the sequence in blocks and the risk values of each fragment are
+   * partitioned across the writer threads, which use multi-row inserts where the database supports them.
+   * In this mode fragments must be written using {@link #addJobResultsInParallel(ObjectId, ViewComputationResultModel)},
+   * which does not use the caller's transaction. Each writer thread uses its own connection from the pool.
+   *
+   * @param writerThreads  the number of writer threads, not negative
+   */
+  public synchronized void setWriterThreads(final int writerThreads) {
+    ArgumentChecker.notNegative(writerThreads, "writerThreads");
+    shutdown();
+    _writerThreads = writerThreads;
+    _writerExecutor = (writerThreads > 0 ? Executors.newFixedThreadPool(writerThreads, new NamedThreadPoolFactory("DbBatchWriter")) : null);
+  }
+
+  /**
+   * Stops the risk value writer threads, if any.
+   * <p>
+   * Fragments can no longer be written in parallel until the number of writer threads is set again.
+   */
+  public synchronized void shutdown() {
+    if (_writerExecutor != null) {
+      _writerExecutor.shutdown();
+      _writerExecutor = null;
+    }
+    _writerThreads = 0;
+  }
+
+  /**
+   * Gets the next id for a risk row.
+   * <p>
+   * When writing in parallel the ids are allocated from the sequence in blocks.
+   *
+   * @return the id
+   */
+  protected synchronized long nextRiskId() {
+    if (_writerThreads == 0) {
+      return nextId(RSK_SEQUENCE_NAME);
+    }
+    if (_riskIdIndex == _riskIds.length) {
+      _riskIds = nextIds(RSK_SEQUENCE_NAME, RISK_ID_BLOCK_SIZE);
+      _riskIdIndex = 0;
+    }
+    return _riskIds[_riskIdIndex++];
+  }
+
   public RiskRun getRiskRunById(final Long id) {
     return getHibernateTemplate().execute(new HibernateCallback<RiskRun>() {
       @Override
@@ -885,7 +986,55 @@ public class DbBatchWriter extends AbstractDbMaster {
   }
 
   //-------------------------------------------------------------------------
-  @SuppressWarnings("unchecked")
+  /**
+   * Creates the function and compute node rows referenced by a fragment of results.
+   * <p>
+   * This is needed before writing the fragment with parallel writers, which can only see committed rows.
+   * The identifiers are cached for use when building the rows of the fragment.
+   *
+   * @param resultModel  the results, not null
+   */
+  private void prepareJobResultsInTransaction(ViewComputationResultModel resultModel) {
+    ArgumentChecker.notNull(resultModel, "resultModel");
+    final Set<String> functionUniqueIds = newHashSet();
+    final Set<String> computeNodeIds = newHashSet();
+    for (ViewResultEntry entry : resultModel.getAllResults()) {
+      final ComputedValueResult computedValue = entry.getComputedValue();
+      functionUniqueIds.add(computedValue.getSpecification().getFunctionUniqueId());
+      computeNodeIds.add(computedValue.getComputeNodeId());
+    }
+    for (String functionUniqueId : functionUniqueIds) {
+      _functionUniqueIds.put(functionUniqueId, getFunctionUniqueIdInTransaction(functionUniqueId).getId());
+    }
+    for (String computeNodeId : computeNodeIds) {
+      _computeNodeIds.put(computeNodeId, getOrCreateComputeNode(computeNodeId).getId());
+    }
+  }
+
+  private long getFunctionUniqueId(final Map<String, Long> functionUniqueIds, final String functionUniqueId) {
+    Long id = functionUniqueIds.get(functionUniqueId);
+    if (id == null) {
+      id = _functionUniqueIds.get(functionUniqueId);
+      if (id == null) {
+        id = getFunctionUniqueIdInTransaction(functionUniqueId).getId();
+      }
+      functionUniqueIds.put(functionUniqueId, id);
+    }
+    return id;
+  }
+
+  private long getComputeNodeId(final Map<String, Long> computeNodeIds, final String computeNodeId) {
+    Long id = computeNodeIds.get(computeNodeId);
+    if (id == null) {
+      id = _computeNodeIds.get(computeNodeId);
+      if (id == null) {
+        id = getOrCreateComputeNode(computeNodeId).getId();
+      }
+      computeNodeIds.put(computeNodeId, id);
+    }
+    return id;
+  }
+
   public synchronized void addJobResultsInTransaction(TransactionStatus transactionStatus, ObjectId runId, ViewComputationResultModel resultModel) {
     ArgumentChecker.notNull(runId, "runId");
     ArgumentChecker.notNull(resultModel, "resultModel");
@@ -894,25 +1043,137 @@ public class DbBatchWriter extends AbstractDbMaster {
     ArgumentChecker.notNull(riskRunId, "riskRunId");
 
     Map<ComputeFailureKey, ComputeFailure> computeFailureCache = _computeFailureCacheByRunId.get(riskRunId);
-    Map<Pair<Long, Long>, StatusEntry> statusCache = _statusCacheByRunId.get(riskRunId);
+    addComputedMarketDataInTransaction(riskRunId, resultModel);
 
-    Map<ValueSpecification, BatchResultWriterFailure> errorCache = populateErrorCache(computeFailureCache, resultModel.getAllResults());
-    
+    for (JobResultRows rows : getJobResultRows(riskRunId, resultModel)) {
+      Object preSuccessSavepoint = transactionStatus.createSavepoint();
+      try {
+        getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertRiskSuccess"), rows._successes.toArray(new SqlParameterSource[rows._successes.size()]));
+      } catch (Exception e) {
+        s_logger.error("Failed to write successful calculations to batch database. Converting to failures.", e);
+        transactionStatus.rollbackToSavepoint(preSuccessSavepoint);
+        if (!rows._successes.isEmpty()) {
+          convertSuccessesToFailures(computeFailureCache, rows._successes, e, rows._failures, rows._failureReasons);
+          rows._failedTargets.addAll(rows._successfulTargets);
+          rows._successes.clear();
+          rows._successfulTargets.clear();
+          rows._targetProperties.clear();
+        }
+      }
+      addJobResultRowsInTransaction(transactionStatus, riskRunId, rows);
+    }
+  }
+
+  /**
+   * Adds a fragment of results using the writer threads.
+   * <p>
+   * The function and compute node rows are created, and the rows to write are built, in a first transaction.
+   * The risk values are then written by the writer threads before any other row of the fragment,
+   * with no connection held by the calling thread, and the remaining rows are written in a final transaction.
+   * Writing the values is idempotent, see {@link #insertRiskValuesInParallel(List)}, and the values
+   * written are deleted again if the final transaction fails.
+   *
+   * @param runId  the risk run, not null
+   * @param resultModel  the results, not null
+   */
+  public synchronized void addJobResultsInParallel(final ObjectId runId, final ViewComputationResultModel resultModel) {
+    ArgumentChecker.notNull(runId, "runId");
+    ArgumentChecker.notNull(resultModel, "resultModel");
+    ArgumentChecker.isTrue(_writerThreads > 0, "No writer threads");
+    final long riskRunId = extractOid(runId);
+    final Map<ComputeFailureKey, ComputeFailure> computeFailureCache = _computeFailureCacheByRunId.get(riskRunId);
+
+    final List<JobResultRows> jobResultRows = getTransactionTemplateRetrying(getMaxRetries()).execute(new TransactionCallback<List<JobResultRows>>() {
+      @Override
+      public List<JobResultRows> doInTransaction(final TransactionStatus status) {
+        prepareJobResultsInTransaction(resultModel);
+        return getJobResultRows(riskRunId, resultModel);
+      }
+    });
+
+    final List<SqlParameterSource> written = newArrayList();
+    for (JobResultRows rows : jobResultRows) {
+      final Set<Long> failedTargetIds = newHashSet();
+      for (Pair<List<SqlParameterSource>, Exception> failedPartition : insertRiskValuesInParallel(rows._successes)) {
+        s_logger.error("Failed to write successful calculations to batch database. Converting to failures.", failedPartition.getSecond());
+        convertSuccessesToFailures(computeFailureCache, failedPartition.getFirst(), failedPartition.getSecond(), rows._failures, rows._failureReasons);
+        for (SqlParameterSource success : failedPartition.getFirst()) {
+          failedTargetIds.add(getComputationTargetId(success));
+        }
+      }
+      for (SqlParameterSource success : rows._successes) {
+        if (!failedTargetIds.contains(getComputationTargetId(success))) {
+          written.add(success);
+        }
+      }
+      if (!failedTargetIds.isEmpty()) {
+        for (Iterator<ComputationTargetSpecification> it = rows._successfulTargets.iterator(); it.hasNext(); ) {
+          final ComputationTargetSpecification targetSpec = it.next();
+          if (failedTargetIds.contains(_computationTargets.get(targetSpec))) {
+            it.remove();
+            rows._failedTargets.add(targetSpec);
+          }
+        }
+        for (Iterator<SqlParameterSource> it = rows._targetProperties.iterator(); it.hasNext(); ) {
+          if (failedTargetIds.contains(it.next().getValue("target_id"))) {
+            it.remove();
+          }
+        }
+      }
+    }
+
+    try {
+      getTransactionTemplateRetrying(getMaxRetries()).execute(new TransactionCallback<Void>() {
+        @Override
+        public Void doInTransaction(final TransactionStatus status) {
+          addComputedMarketDataInTransaction(riskRunId, resultModel);
+          for (JobResultRows rows : jobResultRows) {
+            addJobResultRowsInTransaction(status, riskRunId, rows);
+          }
+          return null;
+        }
+      });
+    } catch (RuntimeException ex) {
+      s_logger.error("Failed to write results to batch database. Deleting the risk values written.", ex);
+      getTransactionTemplateRetrying(getMaxRetries()).execute(new TransactionCallback<Void>() {
+        @Override
+        public Void doInTransaction(final TransactionStatus status) {
+          deleteRiskValues(written);
+          return null;
+        }
+      });
+      throw ex;
+    }
+  }
+
+  private void addComputedMarketDataInTransaction(final long riskRunId, final ViewComputationResultModel resultModel) {
     RiskRun run = _riskRunsByIds.get(riskRunId);
     if (run.getSnapshotMode().equals(SnapshotMode.WRITE_THROUGH)) {
       addComputedValuesToMarketDataInTransaction(run.getMarketData().getObjectId(), resultModel.getAllMarketData());
     }
+  }
 
+  /**
+   * Builds the rows to write for a fragment of results, one entry per calculation configuration.
+   *
+   * @param riskRunId  the risk run id
+   * @param resultModel  the results, not null
+   * @return the rows, not null
+   */
+  @SuppressWarnings("unchecked")
+  private List<JobResultRows> getJobResultRows(final long riskRunId, final ViewComputationResultModel resultModel) {
+    Map<ComputeFailureKey, ComputeFailure> computeFailureCache = _computeFailureCacheByRunId.get(riskRunId);
+    Map<Pair<Long, Long>, StatusEntry> statusCache = _statusCacheByRunId.get(riskRunId);
+
+    Map<ValueSpecification, BatchResultWriterFailure> errorCache = populateErrorCache(computeFailureCache, resultModel.getAllResults());
+    Map<String, Long> functionUniqueIds = newHashMap();
+    Map<String, Long> computeNodeIds = newHashMap();
+
+    final List<JobResultRows> result = newArrayList();
     for (String calcConfigName : resultModel.getCalculationConfigurationNames()) {
       ViewCalculationResultModel viewCalculationResultModel = resultModel.getCalculationResult(calcConfigName);
       
-      final Set<ComputationTargetSpecification> successfulTargets = newHashSet();
-      final Set<ComputationTargetSpecification> failedTargets = newHashSet();
-
-      List<SqlParameterSource> targetProperties = newArrayList();
-      List<SqlParameterSource> successes = newArrayList();
-      List<SqlParameterSource> failures = newArrayList();
-      List<SqlParameterSource> failureReasons = newArrayList();
+      final JobResultRows rows = new JobResultRows(calcConfigName);
 
       Instant evalInstant = Instant.now();
 
@@ -937,8 +1198,8 @@ public class DbBatchWriter extends AbstractDbMaster {
             continue;
           }
           final long valueSpecificationId = _riskValueSpecifications.get(specification);
-          final long functionUniqueId = getFunctionUniqueIdInTransaction(specification.getFunctionUniqueId()).getId();
-          final long computeNodeId = getOrCreateComputeNode(computedValue.getComputeNodeId()).getId();
+          final long functionUniqueId = getFunctionUniqueId(functionUniqueIds, specification.getFunctionUniqueId());
+          final long computeNodeId = getComputeNodeId(computeNodeIds, computedValue.getComputeNodeId());
           
           if (resultConverter != null && computedValue.getInvocationResult() == InvocationResult.SUCCESS) {
             s_logger.debug("Writing value {} for value spec {}", computedValue.getValue(), specification);
@@ -946,33 +1207,33 @@ public class DbBatchWriter extends AbstractDbMaster {
             for (Map.Entry<String, Double> valueEntry : valueAsDoublesMap.entrySet()) {
               final String valueName = valueEntry.getKey();
               final Double doubleValue = ensureDatabasePrecision(valueEntry.getValue());
-              final long successId = nextId(RSK_SEQUENCE_NAME);
-              successes.add(getSuccessArgs(successId, riskRunId, evalInstant, calcConfId, computationTargetId, valueSpecificationId, functionUniqueId, computeNodeId, valueName, doubleValue));
+              final long successId = nextRiskId();
+              rows._successes.add(getSuccessArgs(successId, riskRunId, evalInstant, calcConfId, computationTargetId, valueSpecificationId, functionUniqueId, computeNodeId, valueName, doubleValue));
             }
           } else {
             s_logger.info("Writing failure for {} with invocation result {}, {} ",
                 newArray(computedValue.getSpecification(), computedValue.getInvocationResult(), computedValue.getAggregatedExecutionLog()));
             specFailures = true;
             
-            final long failureId = nextId(RSK_SEQUENCE_NAME);
-            failures.add(getFailureArgs(failureId, riskRunId, evalInstant, calcConfId, computationTargetId, valueSpecificationId, functionUniqueId, computeNodeId, specification.getValueName()));
+            final long failureId = nextRiskId();
+            rows._failures.add(getFailureArgs(failureId, riskRunId, evalInstant, calcConfId, computationTargetId, valueSpecificationId, functionUniqueId, computeNodeId, specification.getValueName()));
 
             BatchResultWriterFailure cachedFailure = errorCache.get(specification);
             if (cachedFailure != null) {
               for (long computeFailureId : cachedFailure.getComputeFailureIds()) {
                 ArgumentChecker.notNull(computeFailureId, "computeFailureId");
-                final long failureReasonId = nextId(RSK_SEQUENCE_NAME);
-                failureReasons.add(getFailureReasonArgs(failureReasonId, failureId, computeFailureId));
+                final long failureReasonId = nextRiskId();
+                rows._failureReasons.add(getFailureReasonArgs(failureReasonId, failureId, computeFailureId));
               }
             }       
           }
         }
         StatusEntry.Status status = getStatus(statusCache, calcConfigName, targetSpec);
         if (specFailures || status == StatusEntry.Status.FAILURE) {
-          successfulTargets.remove(targetSpec);
-          failedTargets.add(targetSpec);
+          rows._successfulTargets.remove(targetSpec);
+          rows._failedTargets.add(targetSpec);
         } else {
-          successfulTargets.add(targetSpec);
+          rows._successfulTargets.add(targetSpec);
         }
 
         // storing target data
@@ -982,71 +1243,210 @@ public class DbBatchWriter extends AbstractDbMaster {
           Bean bean = (Bean) targetValue;
           for (String propertyName : bean.propertyNames()) {
             Property<Object> property = bean.property(propertyName);
-            final long targetPropertyId = nextId(RSK_SEQUENCE_NAME);
-            targetProperties.add(getTargetPropertyArgs(targetPropertyId, computationTargetId, propertyName, property.get() == null ? "NULL" : property.get().toString()));
+            final long targetPropertyId = nextRiskId();
+            rows._targetProperties.add(getTargetPropertyArgs(targetPropertyId, computationTargetId, propertyName, property.get() == null ? "NULL" : property.get().toString()));
           }
         }
       }
 
-      if (successes.isEmpty()
-        && failures.isEmpty()
-        && failureReasons.isEmpty()
-        && successfulTargets.isEmpty()
-        && failedTargets.isEmpty()) {
+      if (rows._successes.isEmpty()
+        && rows._failures.isEmpty()
+        && rows._failureReasons.isEmpty()
+        && rows._successfulTargets.isEmpty()
+        && rows._failedTargets.isEmpty()) {
         s_logger.debug("Nothing to write to DB for {}", resultModel);
-        return;
+        return result;
       }
+      result.add(rows);
+    }
+    return result;
+  }
 
-      Object preSuccessSavepoint = transactionStatus.createSavepoint();
-      try {
-        getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertRiskSuccess"), successes.toArray(new DbMapSqlParameterSource[successes.size()]));
-      } catch (Exception e) {
-        s_logger.error("Failed to write successful calculations to batch database. Converting to failures.", e);
-        transactionStatus.rollbackToSavepoint(preSuccessSavepoint);
-        if (!successes.isEmpty()) {
-          String exceptionClass = e.getClass().getName();
-          String exceptionMsg = e.getMessage();
-          final StringBuilder buffer = new StringBuilder();
-          for (StackTraceElement element : e.getStackTrace()) {
-            buffer.append(element.toString()).append("\n");
-          }
-          final String stackTrace = buffer.toString();
-          for (SqlParameterSource success : successes) {
-            failures.add(convertSuccessToFailure(success));
-            final long failureId = getId(success);
-            final long functionId = getFunctionId(success);
-            ComputeFailureKey computeFailureKey = new ComputeFailureKey(String.valueOf(functionId), exceptionClass, exceptionMsg, stackTrace);
-            ComputeFailure computeFailure = getComputeFailureFromDb(computeFailureCache, computeFailureKey);
-            final long failureReasonId = nextId(RSK_SEQUENCE_NAME);
-            failureReasons.add(getFailureReasonArgs(failureReasonId, failureId, computeFailure.getId()));
-          }
-          failedTargets.addAll(successfulTargets);
-          successes.clear();
-          successfulTargets.clear();
-          targetProperties.clear();
-        }
+  /**
+   * Writes the rows of a calculation configuration, other than the risk values, in the current transaction.
+   *
+   * @param transactionStatus  the transaction, not null
+   * @param riskRunId  the risk run id
+   * @param rows  the rows, not null
+   */
+  private void addJobResultRowsInTransaction(final TransactionStatus transactionStatus, final long riskRunId, final JobResultRows rows) {
+    Map<Pair<Long, Long>, StatusEntry> statusCache = _statusCacheByRunId.get(riskRunId);
+    Object preTargetPropertiesFailureSavepoint = transactionStatus.createSavepoint();
+    try {
+      getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertTargetProperties"), rows._targetProperties.toArray(new SqlParameterSource[rows._targetProperties.size()]));
+    } catch (Exception e) {
+      s_logger.error("Failed to write target properties to batch database", e);
+      transactionStatus.rollbackToSavepoint(preTargetPropertiesFailureSavepoint);
+    }
+    Object preFailureSavepoint = transactionStatus.createSavepoint();
+    try {
+      getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertRiskFailure"), rows._failures.toArray(new SqlParameterSource[rows._failures.size()]));
+      getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertRiskFailureReason"), rows._failureReasons.toArray(new SqlParameterSource[rows._failureReasons.size()]));
+    } catch (Exception e) {
+      s_logger.error("Failed to write failures to batch database", e);
+      transactionStatus.rollbackToSavepoint(preFailureSavepoint);
+    }
+
+    updateStatusEntries(riskRunId, statusCache, rows._calcConfigName, StatusEntry.Status.SUCCESS, rows._successfulTargets);
+    updateStatusEntries(riskRunId, statusCache, rows._calcConfigName, StatusEntry.Status.FAILURE, rows._failedTargets);
+  }
+
+  private void convertSuccessesToFailures(Map<ComputeFailureKey, ComputeFailure> computeFailureCache, Collection<SqlParameterSource> successes, Exception cause,
+      List<SqlParameterSource> failures, List<SqlParameterSource> failureReasons) {
+    String exceptionClass = cause.getClass().getName();
+    String exceptionMsg = cause.getMessage();
+    final StringBuilder buffer = new StringBuilder();
+    for (StackTraceElement element : cause.getStackTrace()) {
+      buffer.append(element.toString()).append("\n");
+    }
+    final String stackTrace = buffer.toString();
+    for (SqlParameterSource success : successes) {
+      failures.add(convertSuccessToFailure(success));
+      final long failureId = getId(success);
+      final long functionId = getFunctionId(success);
+      ComputeFailureKey computeFailureKey = new ComputeFailureKey(String.valueOf(functionId), exceptionClass, exceptionMsg, stackTrace);
+      ComputeFailure computeFailure = getComputeFailureFromDb(computeFailureCache, computeFailureKey);
+      final long failureReasonId = nextRiskId();
+      failureReasons.add(getFailureReasonArgs(failureReasonId, failureId, computeFailure.getId()));
+    }
+  }
+
+  /**
+   * Writes risk values using the writer threads.
+   * <p>
+   * The values are split by computation target into one partition per thread and each partition
+   * is written in its own transaction. A partition first deletes any values already written for its
+   * run, calculation configuration, target and value specification, so writing the same results again,
+   * for example after a failure, does not duplicate them.
+   *
+   * @param values  the risk value rows, not null
+   * @return the partitions that could not be written, with the cause, not null
+   */
+  protected List<Pair<List<SqlParameterSource>, Exception>> insertRiskValuesInParallel(final List<SqlParameterSource> values) {
+    final List<Pair<List<SqlParameterSource>, Exception>> failed = newArrayList();
+    if (values.isEmpty()) {
+      return failed;
+    }
+    final Map<Long, List<SqlParameterSource>> valuesByTarget = Maps.newLinkedHashMap();
+    for (SqlParameterSource value : values) {
+      final Long targetId = getComputationTargetId(value);
+      List<SqlParameterSource> targetValues = valuesByTarget.get(targetId);
+      if (targetValues == null) {
+        targetValues = newArrayList();
+        valuesByTarget.put(targetId, targetValues);
       }
-      Object preTargetPropertiesFailureSavepoint = transactionStatus.createSavepoint();
-      try {
-        getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertTargetProperties"), targetProperties.toArray(new DbMapSqlParameterSource[targetProperties.size()]));
-      } catch (Exception e) {
-        s_logger.error("Failed to write target properties to batch database", e);
-        transactionStatus.rollbackToSavepoint(preTargetPropertiesFailureSavepoint);
+      targetValues.add(value);
+    }
+    final int partitionSize = (values.size() + _writerThreads - 1) / _writerThreads;
+    final List<List<SqlParameterSource>> partitions = newArrayList();
+    List<SqlParameterSource> partition = newArrayList();
+    for (List<SqlParameterSource> targetValues : valuesByTarget.values()) {
+      partition.addAll(targetValues);
+      if (partition.size() >= partitionSize) {
+        partitions.add(partition);
+        partition = newArrayList();
       }
-      Object preFailureSavepoint = transactionStatus.createSavepoint();
+    }
+    if (!partition.isEmpty()) {
+      partitions.add(partition);
+    }
+    final List<Future<?>> futures = newArrayList();
+    for (final List<SqlParameterSource> rows : partitions) {
+      futures.add(_writerExecutor.submit(new Runnable() {
+        @Override
+        public void run() {
+          getTransactionTemplateRetrying(getMaxRetries()).execute(new TransactionCallback<Void>() {
+            @Override
+            public Void doInTransaction(final TransactionStatus status) {
+              deleteRiskValues(rows);
+              insertRiskValues(rows);
+              return null;
+            }
+          });
+        }
+      }));
+    }
+    for (int i = 0; i < futures.size(); i++) {
       try {
-        getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertRiskFailure"), failures.toArray(new DbMapSqlParameterSource[failures.size()]));
-        getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertRiskFailureReason"), failureReasons.toArray(new DbMapSqlParameterSource[failureReasons.size()]));
-      } catch (Exception e) {
-        s_logger.error("Failed to write failures to batch database", e);
-        transactionStatus.rollbackToSavepoint(preFailureSavepoint);
+        futures.get(i).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new OpenGammaRuntimeException("Interrupted while writing risk values", e);
+      } catch (ExecutionException e) {
+        final Exception cause = (e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        failed.add(Pair.<List<SqlParameterSource>, Exception>of(partitions.get(i), cause));
       }
+    }
+    return failed;
+  }
 
-      updateStatusEntries(riskRunId, statusCache, calcConfigName, StatusEntry.Status.SUCCESS, successfulTargets);
-      updateStatusEntries(riskRunId, statusCache, calcConfigName, StatusEntry.Status.FAILURE, failedTargets);
+  /**
+   * Deletes the risk values with the same run, calculation configuration, target and value specification
+   * as the specified rows in the current transaction.
+   *
+   * @param values  the risk value rows, not null
+   */
+  protected void deleteRiskValues(final List<SqlParameterSource> values) {
+    final Map<List<Object>, SqlParameterSource> keys = Maps.newLinkedHashMap();
+    for (SqlParameterSource value : values) {
+      final List<Object> key = Arrays.asList(value.getValue("run_id"), value.getValue("calculation_configuration_id"),
+          value.getValue("computation_target_id"), value.getValue("value_specification_id"));
+      if (!keys.containsKey(key)) {
+        keys.put(key, value);
+      }
+    }
+    if (keys.size() > 0) {
+      getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("DeleteRiskSuccess"), keys.values().toArray(new SqlParameterSource[keys.size()]));
     }
   }
 
+  /**
+   * Writes risk values in the current transaction.
+   * <p>
+   * Multi-row inserts are used where the database supports them.
+   *
+   * @param values  the risk value rows, not null
+   */
+  protected void insertRiskValues(final List<SqlParameterSource> values) {
+    if (getDialect().isMultiRowInsertSupported() == false) {
+      getJdbcTemplate().batchUpdate(getElSqlBundle().getSql("InsertRiskSuccess"), values.toArray(new SqlParameterSource[values.size()]));
+      return;
+    }
+    final List<Object[]> fullInserts = newArrayList();
+    for (List<SqlParameterSource> rows : Lists.partition(values, RISK_VALUE_ROWS_PER_INSERT)) {
+      final Object[] args = new Object[rows.size() * RISK_VALUE_COLUMNS.length];
+      int i = 0;
+      for (SqlParameterSource row : rows) {
+        for (String column : RISK_VALUE_COLUMNS) {
+          args[i++] = row.getValue(column);
+        }
+      }
+      if (rows.size() == RISK_VALUE_ROWS_PER_INSERT) {
+        fullInserts.add(args);
+      } else {
+        getJdbcTemplate().getJdbcOperations().update(sqlInsertRiskValues(rows.size()), args);
+      }
+    }
+    if (fullInserts.size() > 0) {
+      getJdbcTemplate().getJdbcOperations().batchUpdate(sqlInsertRiskValues(RISK_VALUE_ROWS_PER_INSERT), fullInserts);
+    }
+  }
+
+  /**
+   * Gets the SQL to insert a number of risk value rows in one statement.
+   * <p>
+   * This is too complex for the elsql mechanism alone.
+   *
+   * @param rowCount  the number of rows
+   * @return the SQL, not null
+   */
+  protected String sqlInsertRiskValues(final int rowCount) {
+    final String row = "(" + StringUtils.repeat("?, ", RISK_VALUE_COLUMNS.length - 1) + "?)";
+    final List<String> rows = Collections.nCopies(rowCount, row);
+    final DbMapSqlParameterSource args = new DbMapSqlParameterSource().addValue("sql_rows", StringUtils.join(rows, ", "));
+    return getElSqlBundle().getSql("InsertRiskSuccessMultiRow", args);
+  }
+
   private long getFunctionId(SqlParameterSource args) {
     return (Long) args.getValue("function_unique_id");
   }
@@ -1055,6 +1455,10 @@ public class DbBatchWriter extends AbstractDbMaster {
     return (Long) args.getValue("id");
   }
 
+  private long getComputationTargetId(SqlParameterSource args) {
+    return (Long) args.getValue("computation_target_id");
+  }
+
   private DbMapSqlParameterSource getFailureReasonArgs(long failureReasonId, long failureId, long computeFailureId) {
     final DbMapSqlParameterSource args = new DbMapSqlParameterSource();
     args.addValue("id", failureReasonId);
@@ -1161,7 +1565,7 @@ public class DbBatchWriter extends AbstractDbMaster {
         params.addValue("status", statusEntry.getStatus().ordinal());
         updates.add(params);
       } else {
-        final long statusId = nextId(RSK_SEQUENCE_NAME);
+        final long statusId = nextRiskId();
 
         final DbMapSqlParameterSource insertArgs = new DbMapSqlParameterSource();
         insertArgs.addValue("ID", statusId);
@@ -1406,5 +1810,22 @@ public class DbBatchWriter extends AbstractDbMaster {
       _computeFailureIds.addAll(computeFailureIds);
     }
   }
-  
+
+  /**
+   * The rows to write for the results of one calculation configuration in a fragment.
+   */
+  private static final class JobResultRows {
+    private final String _calcConfigName;
+    private final Set<ComputationTargetSpecification> _successfulTargets = newHashSet();
+    private final Set<ComputationTargetSpecification> _failedTargets = newHashSet();
+    private final List<SqlParameterSource> _targetProperties = newArrayList();
+    private final List<SqlParameterSource> _successes = newArrayList();
+    private final List<SqlParameterSource> _failures = newArrayList();
+    private final List<SqlParameterSource> _failureReasons = newArrayList();
+
+    private JobResultRows(final String calcConfigName) {
+      _calcConfigName = calcConfigName;
+    }
+  }
+
 }
@@ -11,8 +11,10 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.fudgemsg.FudgeContext;
 import org.fudgemsg.FudgeMsg;
@@ -123,6 +125,22 @@ import com.opengamma.util.paging.PagingRequest;
     return doGetByOidInstants(objectId, versionCorrection, new ConfigDocumentExtractor(), "Config");
   }
 
+  @Override
+  public Map<UniqueId, ConfigDocument> get(Collection<UniqueId> uniqueIds) {
+    return doGetBulk(uniqueIds, new ConfigDocumentExtractor(), new ConfigDocumentExtractor());
+  }
+
+  /**
+   * Gets documents by object identifier and version-correction.
+   * 
+   * @param objectIds  the object identifiers to query, not null
+   * @param versionCorrection  the version-correction locator to search at, not null
+   * @return the map of results, if there is no data for an identifier it will be missing from the map, not null
+   */
+  public Map<ObjectId, ConfigDocument> get(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+    return doGetBulkByOidInstants(objectIds, versionCorrection, new ConfigDocumentExtractor());
+  }
+
   @Override
   protected void mergeNonUpdatedFields(ConfigDocument newDocument, ConfigDocument oldDocument) {
     if (newDocument.getConfig() == null) {
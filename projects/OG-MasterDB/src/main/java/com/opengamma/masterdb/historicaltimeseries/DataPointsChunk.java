@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.historicaltimeseries;
+
+import java.util.concurrent.TimeUnit;
+
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.CompactEncoding;
+
+/**
+ * A chunk of time-series data points, stored compressed as a single binary value.
+ * <p>
+ * The points of a chunk usually share the version and correction instants of the chunk.
+ * A chunk compacted from successive insertions instead holds the version instant of each point,
+ * the correction instant of an inserted point being its version instant.
+ * <p>
+ * The chunk is stored by column, first the dates then the values then the versions, if any.
+ * Each date is stored as the number of days from the previous date, with a flag marking the
+ * points that have been removed. Each value is stored as the bitwise XOR with the previous value,
+ * without its leading and trailing zero bytes, so that a series of equal or close values takes
+ * one or a few bytes per point. Removed points have no value. The numbers are written
+ * by {@link CompactEncoding}. The versions are stored as runs
+ * of points sharing the same instant, each run being its length and the number of microseconds
+ * from the previous run.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class DataPointsChunk {
+
+  /**
+   * The dates, as epoch days, in ascending order.
+   */
+  private final int[] _dates;
+  /**
+   * The values, undefined for removed points.
+   */
+  private final double[] _values;
+  /**
+   * The flags marking the removed points.
+   */
+  private final boolean[] _removed;
+  /**
+   * The version instants, as epoch microseconds, null if the points share the version of the chunk.
+   */
+  private final long[] _versions;
+
+  /**
+   * Creates an instance whose points share the version of the chunk.
+   *
+   * @param dates  the dates, as epoch days, in strictly ascending order, not null
+   * @param values  the values, undefined for removed points, not null
+   * @param removed  the flags marking the removed points, not null
+   */
+  DataPointsChunk(final int[] dates, final double[] values, final boolean[] removed) {
+    this(dates, values, removed, null);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param dates  the dates, as epoch days, in strictly ascending order, not null
+   * @param values  the values, undefined for removed points, not null
+   * @param removed  the flags marking the removed points, not null
+   * @param versions  the version instants of the points, as epoch microseconds, null if the points share the version of the chunk
+   */
+  DataPointsChunk(final int[] dates, final double[] values, final boolean[] removed, final long[] versions) {
+    ArgumentChecker.notNull(dates, "dates");
+    ArgumentChecker.notNull(values, "values");
+    ArgumentChecker.notNull(removed, "removed");
+    ArgumentChecker.isTrue(dates.length == values.length && dates.length == removed.length, "dates, values and removed flags must have the same length");
+    ArgumentChecker.isTrue(versions == null || versions.length == dates.length, "dates and versions must have the same length");
+    for (int i = 1; i < dates.length; i++) {
+      ArgumentChecker.isTrue(dates[i] > dates[i - 1], "dates must be in strictly ascending order");
+    }
+    _dates = dates;
+    _values = values;
+    _removed = removed;
+    _versions = versions;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Decodes a chunk.
+   *
+   * @param bytes  the encoded chunk, not null
+   * @return the chunk, not null
+   */
+  static DataPointsChunk decode(final byte[] bytes) {
+    ArgumentChecker.notNull(bytes, "bytes");
+    final CompactEncoding.Reader in = new CompactEncoding.Reader(bytes);
+    try {
+      final long header = in.readVarLong();
+      final int size = (int) (header >>> 1);
+      final int[] dates = new int[size];
+      final double[] values = new double[size];
+      final boolean[] removed = new boolean[size];
+      long date = 0;
+      for (int i = 0; i < size; i++) {
+        final long delta = in.readVarLong();
+        date += CompactEncoding.unZigZag(delta >>> 1);
+        dates[i] = (int) date;
+        removed[i] = (delta & 1) != 0;
+      }
+      for (int i = 0; i < size; i++) {
+        if (removed[i] == false) {
+          values[i] = in.readXorDouble();
+        }
+      }
+      long[] versions = null;
+      if ((header & 1) != 0) {
+        versions = new long[size];
+        long version = 0;
+        int i = 0;
+        while (i < size) {
+          final int run = (int) in.readVarLong();
+          version += in.readSignedVarLong();
+          if (run <= 0 || run > size - i) {
+            throw new OpenGammaRuntimeException("Invalid data points chunk, invalid run of versions");
+          }
+          for (int j = 0; j < run; j++) {
+            versions[i++] = version;
+          }
+        }
+      }
+      if (in.remaining() != 0) {
+        throw new OpenGammaRuntimeException("Invalid data points chunk, " + in.remaining() + " unread bytes");
+      }
+      return new DataPointsChunk(dates, values, removed, versions);
+    } catch (IllegalArgumentException ex) {
+      throw new OpenGammaRuntimeException("Invalid data points chunk, " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Encodes the chunk.
+   *
+   * @return the encoded chunk, not null
+   */
+  byte[] encode() {
+    final CompactEncoding.Writer out = new CompactEncoding.Writer(4 + 4 * _dates.length);
+    out.writeVarLong(((long) _dates.length << 1) | (_versions != null ? 1 : 0));
+    long previousDate = 0;
+    for (int i = 0; i < _dates.length; i++) {
+      out.writeVarLong((CompactEncoding.zigZag(_dates[i] - previousDate) << 1) | (_removed[i] ? 1 : 0));
+      previousDate = _dates[i];
+    }
+    for (int i = 0; i < _dates.length; i++) {
+      if (_removed[i] == false) {
+        out.writeXorDouble(_values[i]);
+      }
+    }
+    if (_versions != null) {
+      long previousVersion = 0;
+      int i = 0;
+      while (i < _versions.length) {
+        int run = 1;
+        while (i + run < _versions.length && _versions[i + run] == _versions[i]) {
+          run++;
+        }
+        out.writeVarLong(run);
+        out.writeSignedVarLong(_versions[i] - previousVersion);
+        previousVersion = _versions[i];
+        i += run;
+      }
+    }
+    return out.toByteArray();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of points, including the removed points.
+   *
+   * @return the number of points
+   */
+  int size() {
+    return _dates.length;
+  }
+
+  /**
+   * Gets the date of a point.
+   *
+   * @param index  the index of the point
+   * @return the date, as an epoch day
+   */
+  int getDate(final int index) {
+    return _dates[index];
+  }
+
+  /**
+   * Gets the date of a point.
+   *
+   * @param index  the index of the point
+   * @return the date, not null
+   */
+  LocalDate getLocalDate(final int index) {
+    return LocalDate.ofEpochDay(_dates[index]);
+  }
+
+  /**
+   * Gets the value of a point.
+   *
+   * @param index  the index of the point
+   * @return the value, undefined if the point has been removed
+   */
+  double getValue(final int index) {
+    return _values[index];
+  }
+
+  /**
+   * Checks if a point has been removed.
+   *
+   * @param index  the index of the point
+   * @return true if the point has been removed
+   */
+  boolean isRemoved(final int index) {
+    return _removed[index];
+  }
+
+  /**
+   * Checks if the chunk holds the version instant of each point.
+   *
+   * @return true if the points have their own version instants, false if they share the version of the chunk
+   */
+  boolean hasVersions() {
+    return _versions != null;
+  }
+
+  /**
+   * Gets the version instant of a point, as epoch microseconds.
+   *
+   * @param index  the index of the point
+   * @return the version instant, as epoch microseconds
+   * @throws IllegalStateException if the points share the version of the chunk
+   */
+  long getVersion(final int index) {
+    if (_versions == null) {
+      throw new IllegalStateException("Data points share the version of the chunk");
+    }
+    return _versions[index];
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Converts an instant to epoch microseconds, as held by a chunk.
+   * <p>
+   * The nanoseconds beyond the microsecond are dropped, the precision of the database timestamps.
+   *
+   * @param instant  the instant, not null
+   * @return the epoch microseconds
+   */
+  static long toEpochMicros(final Instant instant) {
+    return TimeUnit.SECONDS.toMicros(instant.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(instant.getNano());
+  }
+
+  /**
+   * Converts epoch microseconds, as held by a chunk, to an instant.
+   *
+   * @param epochMicros  the epoch microseconds
+   * @return the instant, not null
+   */
+  static Instant ofEpochMicros(final long epochMicros) {
+    return Instant.ofEpochSecond(epochMicros / 1000000L, (epochMicros % 1000000L) * 1000L);
+  }
+
+}
@@ -0,0 +1,651 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.historicaltimeseries;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.support.SqlLobValue;
+import org.springframework.jdbc.support.lob.LobHandler;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.elsql.ElSqlBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesGetFilter;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.util.db.DbDateUtils;
+import com.opengamma.util.db.DbMapSqlParameterSource;
+
+/**
+ * A worker that stores the data points of the time-series master as compressed chunks.
+ * <p>
+ * Each insertion or correction writes one chunk per calendar year of the points it contains,
+ * as a single binary value holding the dates and values by column, see {@link DataPointsChunk}.
+ * The chunks are bitemporally versioned in the same way as the points of the row storage.
+ * A chunk of inserted points has equal version and correction instants. A chunk of corrected
+ * or removed points has the version instant of the points it corrects, the removed points being
+ * flagged in the chunk. The points are read by decoding the matching chunks in correction order,
+ * the points of a later chunk replacing those of the same date in an earlier one.
+ * <p>
+ * Inserted points of the same year as the trailing chunk of inserted points are appended to it,
+ * so that regular updates of a few points do not store a chunk each. Such a compacted chunk keeps
+ * the instants of its first points and holds the version instant of each point, its points being
+ * visible from their own version instant. A request for the last points only decodes the chunks
+ * of the latest dates.
+ * <p>
+ * The SQL is stored externally in {@code DbHistoricalTimeSeriesChunkedDataPointsWorker.elsql}.
+ * It redefines the queries of the row storage used by the superclass against the chunk table.
+ * <p>
+ * This class is mutable but must be treated as immutable after configuration.
+ */
+public class DbHistoricalTimeSeriesChunkedDataPointsWorker extends DbHistoricalTimeSeriesDataPointsWorker {
+
+  /**
+   * Orders chunks by correction instant then first date, the order the points of a later chunk
+   * replace those of the same date in an earlier one.
+   */
+  private static final Comparator<StoredChunk> CORRECTION_ORDER = new Comparator<StoredChunk>() {
+    @Override
+    public int compare(final StoredChunk chunk1, final StoredChunk chunk2) {
+      final int cmp = chunk1.getCorrInstant().compareTo(chunk2.getCorrInstant());
+      return cmp != 0 ? cmp : Integer.compare(chunk1.getChunk().getDate(0), chunk2.getChunk().getDate(0));
+    }
+  };
+
+  /**
+   * The external SQL bundle.
+   */
+  private final ElSqlBundle _elSqlBundle;
+
+  /**
+   * Creates an instance.
+   *
+   * @param master  the database master, not null
+   */
+  public DbHistoricalTimeSeriesChunkedDataPointsWorker(final DbHistoricalTimeSeriesMaster master) {
+    super(master);
+    _elSqlBundle = ElSqlBundle.of(master.getDbConnector().getDialect().getElSqlConfig(), DbHistoricalTimeSeriesChunkedDataPointsWorker.class);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public ElSqlBundle getElSqlBundle() {
+    return _elSqlBundle;
+  }
+
+  @Override
+  protected DbMapSqlParameterSource addVersionCorrection(final DbMapSqlParameterSource args, final VersionCorrection vc) {
+    // the points of a compacted chunk are visible at the earlier of the version and correction instants
+    final Instant visible = vc.getVersionAsOf().isBefore(vc.getCorrectedTo()) ? vc.getVersionAsOf() : vc.getCorrectedTo();
+    return super.addVersionCorrection(args, vc).addTimestamp("visible_instant", visible);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected LocalDateDoubleTimeSeries selectDataPoints(final DbMapSqlParameterSource args, final HistoricalTimeSeriesGetFilter filter) {
+    final int startDate = toStartDate(filter.getEarliestDate());
+    final int endDate = toEndDate(filter.getLatestDate());
+    final long visible = getVisibleInstant(args);
+    if (filter.getMaxPoints() != null && filter.getMaxPoints() < 0) {
+      // only the chunks of the latest dates are decoded
+      final String sql = getElSqlBundle().getSql("SelectLatestDataPointChunks", args);
+      return getJdbcTemplate().query(sql, args, new LatestDataPointsExtractor(startDate, endDate, visible, -filter.getMaxPoints()));
+    }
+    final String sql = getElSqlBundle().getSql("SelectDataPointChunks", args);
+    final List<StoredChunk> chunks = getJdbcTemplate().query(sql, args, new DataPointChunksExtractor());
+    return mergeChunks(chunks, startDate, endDate, visible, filter.getMaxPoints());
+  }
+
+  @Override
+  protected Map<Long, LocalDateDoubleTimeSeries> selectDataPointsBulk(final DbMapSqlParameterSource args, final Collection<Long> oids, final HistoricalTimeSeriesGetFilter filter) {
+    // the number of points is limited after decoding, so all the series are read by a single query
+    args.addValue("sql_doc_oids", StringUtils.join(oids, ", "));
+    final String sql = getElSqlBundle().getSql("SelectDataPointChunksBulk", args);
+    final int startDate = toStartDate(filter.getEarliestDate());
+    final int endDate = toEndDate(filter.getLatestDate());
+    return getJdbcTemplate().query(sql, args, new DataPointChunksBulkExtractor(startDate, endDate, getVisibleInstant(args), filter.getMaxPoints()));
+  }
+
+  /**
+   * Merges the chunks of one series into the data points in a date range.
+   *
+   * @param chunks  the chunks in correction order, not null
+   * @param startDate  the start date, as an epoch day, inclusive
+   * @param endDate  the end date, as an epoch day, inclusive
+   * @param visible  the instant the points of a compacted chunk are visible at, as epoch microseconds
+   * @param maxPoints  the maximum number of points, the first points if positive and the last if negative, null for all
+   * @return the data points, not null
+   */
+  private static LocalDateDoubleTimeSeries mergeChunks(final List<StoredChunk> chunks, final int startDate, final int endDate, final long visible, final Integer maxPoints) {
+    int total = 0;
+    for (StoredChunk chunk : chunks) {
+      total += chunk.getChunk().size();
+    }
+    // chunks usually follow each other, such as successive updates, and are simply appended
+    // a chunk overlapping an earlier one, such as a correction, requires a merge by date
+    int[] dates = new int[total];
+    double[] values = new double[total];
+    boolean[] removed = new boolean[total];
+    int size = 0;
+    SortedMap<Integer, Double> merged = null;
+    for (StoredChunk stored : chunks) {
+      final DataPointsChunk chunk = stored.getChunk();
+      for (int i = 0; i < chunk.size(); i++) {
+        final int date = chunk.getDate(i);
+        if (date < startDate || date > endDate || stored.isVisible(i, visible) == false) {
+          continue;
+        }
+        if (merged == null && (size == 0 || date > dates[size - 1])) {
+          dates[size] = date;
+          values[size] = chunk.getValue(i);
+          removed[size] = chunk.isRemoved(i);
+          size++;
+        } else {
+          if (merged == null) {
+            merged = new TreeMap<Integer, Double>();
+            for (int j = 0; j < size; j++) {
+              merged.put(dates[j], removed[j] ? null : values[j]);
+            }
+          }
+          merged.put(date, chunk.isRemoved(i) ? null : chunk.getValue(i));
+        }
+      }
+    }
+    if (merged != null) {
+      size = 0;
+      for (Entry<Integer, Double> entry : merged.entrySet()) {
+        dates[size] = entry.getKey();
+        removed[size] = entry.getValue() == null;
+        values[size] = removed[size] ? 0 : entry.getValue();
+        size++;
+      }
+    }
+    // drop the removed points and limit the number of points
+    final LocalDate[] resultDates = new LocalDate[size];
+    final double[] resultValues = new double[size];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (removed[i] == false) {
+        resultDates[count] = LocalDate.ofEpochDay(dates[i]);
+        resultValues[count] = values[i];
+        count++;
+      }
+    }
+    int from = 0;
+    int to = count;
+    if (maxPoints != null) {
+      if (maxPoints > 0) {
+        to = Math.min(count, maxPoints);
+      } else {
+        from = Math.max(0, count + maxPoints);
+      }
+    }
+    return ImmutableLocalDateDoubleTimeSeries.of(Arrays.copyOfRange(resultDates, from, to), Arrays.copyOfRange(resultValues, from, to));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected UniqueId insertDataPoints(final UniqueId uniqueId, final LocalDateDoubleTimeSeries series, final Instant now) {
+    final long docOid = extractOid(uniqueId);
+    SortedMap<Integer, Double> points = toPoints(series);
+    // the points of the same year as the trailing chunk of inserted points are appended to it,
+    // so that regular small updates do not store a chunk each
+    final StoredChunk trailing = selectTrailingChunk(docOid);
+    if (trailing != null) {
+      final int end = (int) LocalDate.of(trailing.getYear() + 1, 1, 1).toEpochDay();
+      final SortedMap<Integer, Double> appended = points.headMap(end);
+      if (appended.isEmpty() == false) {
+        updateTrailingChunk(docOid, trailing, appended, now);
+        points = points.tailMap(end);
+      }
+    }
+    if (points.isEmpty() == false) {
+      final Map<Instant, SortedMap<Integer, Double>> pointsByVersion = new TreeMap<Instant, SortedMap<Integer, Double>>();
+      pointsByVersion.put(now, points);
+      insertDataPointChunks(docOid, pointsByVersion, now);
+    }
+    return createTimeSeriesUniqueId(docOid, now, now);
+  }
+
+  @Override
+  protected UniqueId correctDataPoints(final UniqueId uniqueId, final LocalDateDoubleTimeSeries series, final Instant now) {
+    final long docOid = extractOid(uniqueId);
+    final SortedMap<Integer, Double> points = toPoints(series);
+    final SortedMap<Integer, Instant> versions = selectOriginalVersions(docOid, points.firstKey(), points.lastKey());
+    insertDataPointChunks(docOid, groupByVersion(points, versions, now), now);
+    return resolveObjectId(uniqueId, VersionCorrection.of(now, now));
+  }
+
+  @Override
+  protected UniqueId removeDataPoints(final UniqueId uniqueId, final LocalDate fromDateInclusive, final LocalDate toDateInclusive, final Instant now) {
+    final long docOid = extractOid(uniqueId);
+    final int startDate = toStartDate(fromDateInclusive);
+    final int endDate = toEndDate(toDateInclusive);
+    final SortedMap<Integer, Instant> versions = selectOriginalVersions(docOid, startDate, endDate);
+    // a null value marks a removed point
+    final SortedMap<Integer, Double> points = new TreeMap<Integer, Double>();
+    for (Integer date : versions.keySet()) {
+      points.put(date, null);
+    }
+    insertDataPointChunks(docOid, groupByVersion(points, versions, now), now);
+    return resolveObjectId(uniqueId, VersionCorrection.of(now, now));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Converts the time-series to points keyed by epoch day.
+   *
+   * @param series  the time-series data points, not empty, not null
+   * @return the points, not null
+   */
+  private SortedMap<Integer, Double> toPoints(final LocalDateDoubleTimeSeries series) {
+    final SortedMap<Integer, Double> points = new TreeMap<Integer, Double>();
+    for (Entry<LocalDate, Double> entry : series) {
+      LocalDate date = entry.getKey();
+      Double value = entry.getValue();
+      if (date == null || value == null) {
+        throw new IllegalArgumentException("Time-series must not contain a null value");
+      }
+      points.put((int) date.toEpochDay(), value);
+    }
+    return points;
+  }
+
+  /**
+   * Converts a start date to an epoch day.
+   *
+   * @param date  the start date, inclusive, null for the far past
+   * @return the epoch day
+   */
+  private static int toStartDate(final LocalDate date) {
+    return date != null ? (int) date.toEpochDay() : Integer.MIN_VALUE;
+  }
+
+  /**
+   * Converts an end date to an epoch day.
+   *
+   * @param date  the end date, inclusive, null for the far future
+   * @return the epoch day
+   */
+  private static int toEndDate(final LocalDate date) {
+    return date != null ? (int) date.toEpochDay() : Integer.MAX_VALUE;
+  }
+
+  /**
+   * Gets the instant the points of a compacted chunk are visible at.
+   *
+   * @param args  the query arguments, including the version-correction instants, not null
+   * @return the instant, as epoch microseconds
+   */
+  private static long getVisibleInstant(final DbMapSqlParameterSource args) {
+    return DataPointsChunk.toEpochMicros(DbDateUtils.fromSqlTimestamp((Timestamp) args.getValue("visible_instant")));
+  }
+
+  /**
+   * Selects the original version instant of the points in a date range.
+   * <p>
+   * The original version instant of a point is the earliest version instant at which
+   * a chunk of inserted points holds its date, whatever the correction instant.
+   *
+   * @param docOid  the document object identifier
+   * @param startDate  the start date, as an epoch day, inclusive
+   * @param endDate  the end date, as an epoch day, inclusive
+   * @return the original version instant keyed by epoch day, not null
+   */
+  private SortedMap<Integer, Instant> selectOriginalVersions(final long docOid, final int startDate, final int endDate) {
+    final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
+      .addValue("doc_oid", docOid)
+      .addValue("start_date", DbDateUtils.toSqlDateNullFarPast(startDate != Integer.MIN_VALUE ? LocalDate.ofEpochDay(startDate) : null))
+      .addValue("end_date", DbDateUtils.toSqlDateNullFarFuture(endDate != Integer.MAX_VALUE ? LocalDate.ofEpochDay(endDate) : null));
+    final String sql = getElSqlBundle().getSql("SelectOriginalDataPointChunks", args);
+    final List<StoredChunk> chunks = getJdbcTemplate().query(sql, args, new DataPointChunksExtractor());
+    final SortedMap<Integer, Instant> versions = new TreeMap<Integer, Instant>();
+    for (StoredChunk stored : chunks) {
+      final DataPointsChunk chunk = stored.getChunk();
+      for (int i = 0; i < chunk.size(); i++) {
+        final int date = chunk.getDate(i);
+        if (date >= startDate && date <= endDate && versions.containsKey(date) == false) {
+          versions.put(date, stored.getVersion(i));
+        }
+      }
+    }
+    return versions;
+  }
+
+  /**
+   * Groups the points by their original version instant.
+   *
+   * @param points  the points keyed by epoch day, not null
+   * @param versions  the original version instants keyed by epoch day, not null
+   * @param now  the version instant of the points not previously stored, not null
+   * @return the points keyed by version instant, not null
+   */
+  private Map<Instant, SortedMap<Integer, Double>> groupByVersion(final SortedMap<Integer, Double> points, final SortedMap<Integer, Instant> versions, final Instant now) {
+    final Map<Instant, SortedMap<Integer, Double>> pointsByVersion = new TreeMap<Instant, SortedMap<Integer, Double>>();
+    for (Entry<Integer, Double> entry : points.entrySet()) {
+      Instant version = versions.get(entry.getKey());
+      if (version == null) {
+        version = now;
+      }
+      SortedMap<Integer, Double> versionPoints = pointsByVersion.get(version);
+      if (versionPoints == null) {
+        versionPoints = new TreeMap<Integer, Double>();
+        pointsByVersion.put(version, versionPoints);
+      }
+      versionPoints.put(entry.getKey(), entry.getValue());
+    }
+    return pointsByVersion;
+  }
+
+  /**
+   * Inserts the points as one chunk per version instant and year.
+   *
+   * @param docOid  the document object identifier
+   * @param pointsByVersion  the points keyed by version instant then epoch day, a null value marking a removed point, not null
+   * @param corrInstant  the correction instant, not null
+   */
+  private void insertDataPointChunks(final long docOid, final Map<Instant, SortedMap<Integer, Double>> pointsByVersion, final Instant corrInstant) {
+    final LobHandler lobHandler = getDialect().getLobHandler();
+    final List<DbMapSqlParameterSource> argsList = new ArrayList<DbMapSqlParameterSource>();
+    for (Entry<Instant, SortedMap<Integer, Double>> versionEntry : pointsByVersion.entrySet()) {
+      final SortedMap<Integer, Double> points = versionEntry.getValue();
+      final int[] dates = new int[points.size()];
+      final double[] values = new double[points.size()];
+      final boolean[] removed = new boolean[points.size()];
+      int size = 0;
+      for (Entry<Integer, Double> entry : points.entrySet()) {
+        dates[size] = entry.getKey();
+        removed[size] = entry.getValue() == null;
+        values[size] = removed[size] ? 0 : entry.getValue();
+        size++;
+      }
+      int start = 0;
+      while (start < size) {
+        final int year = LocalDate.ofEpochDay(dates[start]).getYear();
+        final int end = (int) LocalDate.of(year + 1, 1, 1).toEpochDay();
+        int next = start;
+        while (next < size && dates[next] < end) {
+          next++;
+        }
+        final DataPointsChunk chunk = new DataPointsChunk(
+            Arrays.copyOfRange(dates, start, next), Arrays.copyOfRange(values, start, next), Arrays.copyOfRange(removed, start, next));
+        final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
+          .addValue("doc_oid", docOid)
+          .addValue("chunk_year", year)
+          .addTimestamp("ver_instant", versionEntry.getKey())
+          .addTimestamp("corr_instant", corrInstant)
+          .addDate("first_date", chunk.getLocalDate(0))
+          .addDate("last_date", chunk.getLocalDate(chunk.size() - 1))
+          .addValue("point_count", chunk.size())
+          .addValue("points", new SqlLobValue(chunk.encode(), lobHandler), Types.BLOB);
+        argsList.add(args);
+        start = next;
+      }
+    }
+    final String sqlInsert = getElSqlBundle().getSql("InsertDataPointChunk");
+    getJdbcTemplate().batchUpdate(sqlInsert, argsList.toArray(new DbMapSqlParameterSource[argsList.size()]));
+  }
+
+  /**
+   * Selects the trailing chunk of inserted points of a series.
+   * <p>
+   * This is the chunk holding the latest date, if it is a chunk of inserted points.
+   *
+   * @param docOid  the document object identifier
+   * @return the chunk, null if none
+   */
+  private StoredChunk selectTrailingChunk(final long docOid) {
+    final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
+      .addValue("doc_oid", docOid);
+    final String sql = getElSqlBundle().getSql("SelectTrailingDataPointChunk", args);
+    final List<StoredChunk> chunks = getJdbcTemplate().query(sql, args, new DataPointChunksExtractor());
+    if (chunks.isEmpty() || chunks.get(0).isInserted() == false) {
+      return null;
+    }
+    return chunks.get(0);
+  }
+
+  /**
+   * Appends points to the trailing chunk of inserted points of a series.
+   * <p>
+   * The chunk keeps its instants, those of its first points, and holds the version instant of each point.
+   *
+   * @param docOid  the document object identifier
+   * @param trailing  the trailing chunk, not null
+   * @param appended  the points after those of the chunk and of the same year, keyed by epoch day, not empty, not null
+   * @param now  the version instant of the appended points, not null
+   */
+  private void updateTrailingChunk(final long docOid, final StoredChunk trailing, final SortedMap<Integer, Double> appended, final Instant now) {
+    final DataPointsChunk previous = trailing.getChunk();
+    final int size = previous.size() + appended.size();
+    final int[] dates = new int[size];
+    final double[] values = new double[size];
+    final boolean[] removed = new boolean[size];
+    final long[] versions = new long[size];
+    for (int i = 0; i < previous.size(); i++) {
+      dates[i] = previous.getDate(i);
+      values[i] = previous.getValue(i);
+      removed[i] = previous.isRemoved(i);
+      versions[i] = DataPointsChunk.toEpochMicros(trailing.getVersion(i));
+    }
+    int index = previous.size();
+    for (Entry<Integer, Double> entry : appended.entrySet()) {
+      dates[index] = entry.getKey();
+      values[index] = entry.getValue();
+      versions[index] = DataPointsChunk.toEpochMicros(now);
+      index++;
+    }
+    final DataPointsChunk chunk = new DataPointsChunk(dates, values, removed, versions);
+    final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
+      .addValue("doc_oid", docOid)
+      .addValue("chunk_year", trailing.getYear())
+      .addTimestamp("ver_instant", trailing.getVerInstant())
+      .addTimestamp("corr_instant", trailing.getCorrInstant())
+      .addTimestamp("last_ver_instant", now)
+      .addTimestamp("last_corr_instant", now)
+      .addDate("last_date", chunk.getLocalDate(size - 1))
+      .addValue("point_count", size)
+      .addValue("previous_point_count", previous.size())
+      .addValue("points", new SqlLobValue(chunk.encode(), getDialect().getLobHandler()), Types.BLOB);
+    final String sqlUpdate = getElSqlBundle().getSql("UpdateDataPointChunk", args);
+    final int rowsUpdated = getJdbcTemplate().update(sqlUpdate, args);
+    if (rowsUpdated != 1) {
+      throw new IncorrectUpdateSemanticsDataAccessException("Update trailing data points chunk failed, rows updated: " + rowsUpdated);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * A chunk read from the database with its instants.
+   */
+  private static final class StoredChunk {
+    private final Instant _verInstant;
+    private final Instant _corrInstant;
+    private final DataPointsChunk _chunk;
+
+    StoredChunk(final Instant verInstant, final Instant corrInstant, final DataPointsChunk chunk) {
+      _verInstant = verInstant;
+      _corrInstant = corrInstant;
+      _chunk = chunk;
+    }
+
+    Instant getVerInstant() {
+      return _verInstant;
+    }
+
+    Instant getCorrInstant() {
+      return _corrInstant;
+    }
+
+    DataPointsChunk getChunk() {
+      return _chunk;
+    }
+
+    int getYear() {
+      return _chunk.getLocalDate(0).getYear();
+    }
+
+    boolean isInserted() {
+      return _verInstant.equals(_corrInstant);
+    }
+
+    Instant getVersion(final int index) {
+      return _chunk.hasVersions() ? DataPointsChunk.ofEpochMicros(_chunk.getVersion(index)) : _verInstant;
+    }
+
+    boolean isVisible(final int index, final long visible) {
+      return _chunk.hasVersions() == false || _chunk.getVersion(index) <= visible;
+    }
+  }
+
+  /**
+   * Reads a chunk from an SQL row.
+   *
+   * @param rs  the result set, positioned at the row, not null
+   * @param lobHandler  the handler of the binary values, not null
+   * @return the chunk, not null
+   * @throws SQLException if an error occurs
+   */
+  private static StoredChunk readChunk(final ResultSet rs, final LobHandler lobHandler) throws SQLException {
+    final Instant verInstant = DbDateUtils.fromSqlTimestamp(rs.getTimestamp("VER_INSTANT"));
+    final Instant corrInstant = DbDateUtils.fromSqlTimestamp(rs.getTimestamp("CORR_INSTANT"));
+    return new StoredChunk(verInstant, corrInstant, DataPointsChunk.decode(lobHandler.getBlobAsBytes(rs, "POINTS")));
+  }
+
+  /**
+   * Mapper from SQL rows to the chunks.
+   */
+  private final class DataPointChunksExtractor implements ResultSetExtractor<List<StoredChunk>> {
+    @Override
+    public List<StoredChunk> extractData(final ResultSet rs) throws SQLException, DataAccessException {
+      final LobHandler lobHandler = getDialect().getLobHandler();
+      final List<StoredChunk> chunks = new ArrayList<StoredChunk>();
+      while (rs.next()) {
+        chunks.add(readChunk(rs, lobHandler));
+      }
+      return chunks;
+    }
+  }
+
+  /**
+   * Mapper from SQL rows ordered by series to the data points of each series.
+   * <p>
+   * The chunks of a series are merged as soon as its last row is read,
+   * so only the chunks of one series are held at a time.
+   */
+  private final class DataPointChunksBulkExtractor implements ResultSetExtractor<Map<Long, LocalDateDoubleTimeSeries>> {
+    private final int _startDate;
+    private final int _endDate;
+    private final long _visible;
+    private final Integer _maxPoints;
+
+    DataPointChunksBulkExtractor(final int startDate, final int endDate, final long visible, final Integer maxPoints) {
+      _startDate = startDate;
+      _endDate = endDate;
+      _visible = visible;
+      _maxPoints = maxPoints;
+    }
+
+    @Override
+    public Map<Long, LocalDateDoubleTimeSeries> extractData(final ResultSet rs) throws SQLException, DataAccessException {
+      final LobHandler lobHandler = getDialect().getLobHandler();
+      final Map<Long, LocalDateDoubleTimeSeries> result = new HashMap<Long, LocalDateDoubleTimeSeries>();
+      final List<StoredChunk> chunks = new ArrayList<StoredChunk>();
+      Long oid = null;
+      while (rs.next()) {
+        final long rowOid = rs.getLong("DOC_OID");
+        if (oid != null && oid != rowOid) {
+          result.put(oid, mergeChunks(chunks, _startDate, _endDate, _visible, _maxPoints));
+          chunks.clear();
+        }
+        oid = rowOid;
+        chunks.add(readChunk(rs, lobHandler));
+      }
+      if (oid != null) {
+        result.put(oid, mergeChunks(chunks, _startDate, _endDate, _visible, _maxPoints));
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Mapper from SQL rows ordered by descending last date to the last data points.
+   * <p>
+   * The rows are decoded until the chunks already read hold enough points after the last date
+   * of the next row, as the chunks not read cannot hold a point after that date.
+   */
+  private final class LatestDataPointsExtractor implements ResultSetExtractor<LocalDateDoubleTimeSeries> {
+    private final int _startDate;
+    private final int _endDate;
+    private final long _visible;
+    private final int _count;
+
+    LatestDataPointsExtractor(final int startDate, final int endDate, final long visible, final int count) {
+      _startDate = startDate;
+      _endDate = endDate;
+      _visible = visible;
+      _count = count;
+    }
+
+    @Override
+    public LocalDateDoubleTimeSeries extractData(final ResultSet rs) throws SQLException, DataAccessException {
+      final LobHandler lobHandler = getDialect().getLobHandler();
+      final List<StoredChunk> chunks = new ArrayList<StoredChunk>();
+      int startDate = _startDate;
+      while (rs.next()) {
+        final int lastDate = (int) DbDateUtils.fromSqlDateAllowNull(rs.getDate("LAST_DATE")).toEpochDay();
+        if (lastDate < _endDate && hasCount(chunks, lastDate + 1)) {
+          startDate = Math.max(startDate, lastDate + 1);
+          break;
+        }
+        chunks.add(readChunk(rs, lobHandler));
+      }
+      Collections.sort(chunks, CORRECTION_ORDER);
+      return mergeChunks(chunks, startDate, _endDate, _visible, -_count);
+    }
+
+    private boolean hasCount(final List<StoredChunk> chunks, final int fromDate) {
+      final int startDate = Math.max(_startDate, fromDate);
+      // the points of the chunks bound the merged points, which are only counted if enough
+      int bound = 0;
+      for (StoredChunk stored : chunks) {
+        final DataPointsChunk chunk = stored.getChunk();
+        for (int i = chunk.size() - 1; i >= 0 && chunk.getDate(i) >= startDate; i--) {
+          if (chunk.getDate(i) <= _endDate && chunk.isRemoved(i) == false && stored.isVisible(i, _visible)) {
+            bound++;
+          }
+        }
+      }
+      if (bound < _count) {
+        return false;
+      }
+      final List<StoredChunk> sorted = new ArrayList<StoredChunk>(chunks);
+      Collections.sort(sorted, CORRECTION_ORDER);
+      return mergeChunks(sorted, startDate, _endDate, _visible, null).size() >= _count;
+    }
+  }
+
+}
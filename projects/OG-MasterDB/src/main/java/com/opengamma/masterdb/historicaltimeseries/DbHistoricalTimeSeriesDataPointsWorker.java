@@ -11,10 +11,14 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
@@ -30,6 +34,7 @@ import com.opengamma.DataNotFoundException;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.core.change.ChangeType;
 import com.opengamma.elsql.ElSqlBundle;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -66,6 +71,10 @@ public class DbHistoricalTimeSeriesDataPointsWorker extends AbstractDbMaster {
    * The prefix used for data point unique identifiers.
    */
   protected static final String DATA_POINT_PREFIX = "DP";
+  /**
+   * The maximum number of series read by one bulk query.
+   */
+  private static final int BULK_BATCH_SIZE = 1000;
 
   /**
    * The master.
@@ -101,6 +110,19 @@ public class DbHistoricalTimeSeriesDataPointsWorker extends AbstractDbMaster {
     return getMaster().getElSqlBundle();
   }
 
+  /**
+   * Adds the version-correction arguments of a query.
+   * 
+   * @param args  the query arguments to add to, not null
+   * @param vc  the version-correction, with the latest fixed, not null
+   * @return the query arguments, not null
+   */
+  protected DbMapSqlParameterSource addVersionCorrection(final DbMapSqlParameterSource args, final VersionCorrection vc) {
+    return args
+      .addTimestamp("version_as_of_instant", vc.getVersionAsOf())
+      .addTimestamp("corrected_to_instant", vc.getCorrectedTo());
+  }
+
   //-------------------------------------------------------------------------
   
   public ManageableHistoricalTimeSeries getTimeSeries(ObjectIdentifiable objectId, VersionCorrection versionCorrection, HistoricalTimeSeriesGetFilter filter) {
@@ -109,10 +131,8 @@ public class DbHistoricalTimeSeriesDataPointsWorker extends AbstractDbMaster {
     final VersionCorrection vc = versionCorrection.withLatestFixed(now());
 
     // Set up the basic query arguments
-    final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
+    final DbMapSqlParameterSource args = addVersionCorrection(new DbMapSqlParameterSource(), vc)
       .addValue("doc_oid", oid)
-      .addTimestamp("version_as_of_instant", vc.getVersionAsOf())
-      .addTimestamp("corrected_to_instant", vc.getCorrectedTo())
       .addValue("start_date", DbDateUtils.toSqlDateNullFarPast(filter.getEarliestDate()))
       .addValue("end_date", DbDateUtils.toSqlDateNullFarFuture(filter.getLatestDate()));
     final NamedParameterJdbcOperations namedJdbc = getDbConnector().getJdbcTemplate();
@@ -135,6 +155,30 @@ public class DbHistoricalTimeSeriesDataPointsWorker extends AbstractDbMaster {
       }
     }
 
+    // Zero datapoints requested
+    if (filter.getMaxPoints() != null && filter.getMaxPoints() == 0) {
+      result.setTimeSeries(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+      return result;
+    }
+
+    // Get the actual data points and attach to the Manageable HTS
+    if (filter.getLatestDate() == null || filter.getEarliestDate() == null || !filter.getLatestDate().isBefore(filter.getEarliestDate())) {
+      result.setTimeSeries(selectDataPoints(args, filter));
+    } else {
+      //TODO: this is a hack, most of the places that call with this condition want some kind of metadata, which it would be cheaper for us to expose specifically
+      result.setTimeSeries(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+    }
+    return result;
+  }
+
+  /**
+   * Selects the data points matching the filter.
+   * 
+   * @param args  the query arguments, including the object identifier, the version-correction instants and the date range, not null
+   * @param filter  the filter, with a non-zero maximum number of points if any, not null
+   * @return the data points, not null
+   */
+  protected LocalDateDoubleTimeSeries selectDataPoints(final DbMapSqlParameterSource args, final HistoricalTimeSeriesGetFilter filter) {
     // Set up query arguments to limit the number of points to return
     if (filter.getMaxPoints() == null) {
       // return all points (limit all)
@@ -143,24 +187,117 @@ public class DbHistoricalTimeSeriesDataPointsWorker extends AbstractDbMaster {
       // return first few points
       args.addValue("paging_fetch", filter.getMaxPoints());
       args.addValue("order", "ASC");
-    } else if (filter.getMaxPoints() < 0) {
+    } else {
       // return last few points
       args.addValue("paging_fetch", -filter.getMaxPoints());
       args.addValue("order", "DESC");
-    } else {
-      // Zero datapoints requested
-      result.setTimeSeries(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
-      return result;
     }
+    final String sqlPoints = getElSqlBundle().getSql("SelectDataPoints", args);
+    return getDbConnector().getJdbcTemplate().query(sqlPoints, args, new DataPointsExtractor());
+  }
 
-    // Get the actual data points and attach to the Manageable HTS
-    if (filter.getLatestDate() == null || filter.getEarliestDate() == null || !filter.getLatestDate().isBefore(filter.getEarliestDate())) {
-      final String sqlPoints = getElSqlBundle().getSql("SelectDataPoints", args);
-      final LocalDateDoubleTimeSeries series = namedJdbc.query(sqlPoints, args, new DataPointsExtractor());
-      result.setTimeSeries(series);
-    } else {
-      //TODO: this is a hack, most of the places that call with this condition want some kind of metadata, which it would be cheaper for us to expose specifically
-      result.setTimeSeries(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+  //-------------------------------------------------------------------------
+  public Map<ObjectId, ManageableHistoricalTimeSeries> getTimeSeries(Collection<ObjectId> objectIds, VersionCorrection versionCorrection, HistoricalTimeSeriesGetFilter filter) {
+    ArgumentChecker.notNull(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    ArgumentChecker.notNull(filter, "filter");
+    final VersionCorrection vc = versionCorrection.withLatestFixed(now());
+    
+    // Several object identifiers may refer to the same series, such as with and without the data point prefix
+    final Map<Long, List<ObjectId>> objectIdsByOid = new LinkedHashMap<Long, List<ObjectId>>();
+    for (ObjectId objectId : objectIds) {
+      final long oid = extractOid(objectId);
+      List<ObjectId> ids = objectIdsByOid.get(oid);
+      if (ids == null) {
+        ids = new ArrayList<ObjectId>(1);
+        objectIdsByOid.put(oid, ids);
+      }
+      ids.add(objectId);
+    }
+    final List<Long> oids = new ArrayList<Long>(objectIdsByOid.keySet());
+    final Map<ObjectId, ManageableHistoricalTimeSeries> result = new HashMap<ObjectId, ManageableHistoricalTimeSeries>();
+    for (int start = 0; start < oids.size(); start += BULK_BATCH_SIZE) {
+      final List<Long> batch = oids.subList(start, Math.min(start + BULK_BATCH_SIZE, oids.size()));
+      for (Entry<Long, ManageableHistoricalTimeSeries> entry : getTimeSeriesBatch(batch, vc, filter).entrySet()) {
+        for (ObjectId objectId : objectIdsByOid.get(entry.getKey())) {
+          result.put(objectId, entry.getValue());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets a batch of time-series using one query for each step rather than one per series.
+   * 
+   * @param oids  the document object identifiers, not empty, not null
+   * @param vc  the version-correction, with the latest fixed, not null
+   * @param filter  the filter, not null
+   * @return the time-series keyed by document object identifier, series that never existed are absent, not null
+   */
+  private Map<Long, ManageableHistoricalTimeSeries> getTimeSeriesBatch(List<Long> oids, VersionCorrection vc, HistoricalTimeSeriesGetFilter filter) {
+    final DbMapSqlParameterSource args = addVersionCorrection(new DbMapSqlParameterSource(), vc)
+      .addValue("sql_doc_oids", StringUtils.join(oids, ", "))
+      .addValue("start_date", DbDateUtils.toSqlDateNullFarPast(filter.getEarliestDate()))
+      .addValue("end_date", DbDateUtils.toSqlDateNullFarFuture(filter.getLatestDate()));
+    final NamedParameterJdbcOperations namedJdbc = getDbConnector().getJdbcTemplate();
+    
+    // Get version metadata from the data-points of all the series
+    final String sqlVersion = getElSqlBundle().getSql("SelectDataPointsVersionBulk", args);
+    final Map<Long, ManageableHistoricalTimeSeries> result = namedJdbc.query(sqlVersion, args, new ManageableHTSBulkExtractor());
+    
+    // Get the actual data points of the series that have some
+    if (result.isEmpty() == false) {
+      if ((filter.getMaxPoints() != null && filter.getMaxPoints() == 0) ||
+          (filter.getLatestDate() != null && filter.getEarliestDate() != null && filter.getLatestDate().isBefore(filter.getEarliestDate()))) {
+        for (ManageableHistoricalTimeSeries hts : result.values()) {
+          hts.setTimeSeries(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+        }
+      } else {
+        final Map<Long, LocalDateDoubleTimeSeries> points = selectDataPointsBulk(args, result.keySet(), filter);
+        for (Entry<Long, ManageableHistoricalTimeSeries> entry : result.entrySet()) {
+          final LocalDateDoubleTimeSeries series = points.get(entry.getKey());
+          entry.getValue().setTimeSeries(series != null ? series : ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+        }
+      }
+    }
+    
+    // No data-points were found for the others, check if the time-series docs exist or existed at some point
+    if (result.size() < oids.size()) {
+      final List<Long> missing = new ArrayList<Long>(oids);
+      missing.removeAll(result.keySet());
+      args.addValue("sql_doc_oids", StringUtils.join(missing, ", "));
+      final String sqlExists = getElSqlBundle().getSql("SelectExistentialBulk", args);
+      final Map<Long, ManageableHistoricalTimeSeries> existing = namedJdbc.query(sqlExists, args, new ManageableHTSBulkExtractor());
+      for (ManageableHistoricalTimeSeries hts : existing.values()) {
+        hts.setTimeSeries(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+      }
+      result.putAll(existing);
+    }
+    return result;
+  }
+
+  /**
+   * Selects the data points of many series matching the filter.
+   * <p>
+   * All the points are read by a single query unless the number of points is limited,
+   * in which case the series are read one at a time.
+   * 
+   * @param args  the query arguments, including the version-correction instants and the date range, not null
+   * @param oids  the document object identifiers, not empty, not null
+   * @param filter  the filter, with a non-zero maximum number of points if any, not null
+   * @return the data points keyed by document object identifier, series without points may be absent, not null
+   */
+  protected Map<Long, LocalDateDoubleTimeSeries> selectDataPointsBulk(final DbMapSqlParameterSource args, final Collection<Long> oids, final HistoricalTimeSeriesGetFilter filter) {
+    if (filter.getMaxPoints() == null) {
+      args.addValue("sql_doc_oids", StringUtils.join(oids, ", "));
+      final String sqlPoints = getElSqlBundle().getSql("SelectDataPointsBulk", args);
+      return getDbConnector().getJdbcTemplate().query(sqlPoints, args, new DataPointsBulkExtractor());
+    }
+    final Map<Long, LocalDateDoubleTimeSeries> result = new HashMap<Long, LocalDateDoubleTimeSeries>();
+    for (Long oid : oids) {
+      args.addValue("doc_oid", oid);
+      result.put(oid, selectDataPoints(args, filter));
     }
     return result;
   }
@@ -399,10 +536,8 @@ public class DbHistoricalTimeSeriesDataPointsWorker extends AbstractDbMaster {
     checkScheme(objectId);
     final long oid = extractOid(objectId);
     versionCorrection = versionCorrection.withLatestFixed(now());
-    final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
-      .addValue("doc_oid", oid)
-      .addTimestamp("version_as_of_instant", versionCorrection.getVersionAsOf())
-      .addTimestamp("corrected_to_instant", versionCorrection.getCorrectedTo());
+    final DbMapSqlParameterSource args = addVersionCorrection(new DbMapSqlParameterSource(), versionCorrection)
+      .addValue("doc_oid", oid);
     final NamedParameterJdbcOperations namedJdbc = getDbConnector().getJdbcTemplate();
     final UniqueIdExtractor extractor = new UniqueIdExtractor(oid);
     final String sql = getElSqlBundle().getSql("SelectUniqueIdByVersionCorrection", args);
@@ -441,6 +576,49 @@ public class DbHistoricalTimeSeriesDataPointsWorker extends AbstractDbMaster {
     }
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Mapper from SQL rows ordered by series to a LocalDateDoubleTimeSeries for each series.
+   */
+  protected final class DataPointsBulkExtractor implements ResultSetExtractor<Map<Long, LocalDateDoubleTimeSeries>> {
+    @Override
+    public Map<Long, LocalDateDoubleTimeSeries> extractData(final ResultSet rs) throws SQLException, DataAccessException {
+      final Map<Long, LocalDateDoubleTimeSeries> result = new HashMap<Long, LocalDateDoubleTimeSeries>();
+      List<LocalDate> dates = new ArrayList<LocalDate>(256);
+      List<Double> values = new ArrayList<Double>(256);
+      Long oid = null;
+      LocalDate last = null;
+      while (rs.next()) {
+        final long rowOid = rs.getLong("DOC_OID");
+        if (oid == null || oid != rowOid) {
+          if (oid != null) {
+            result.put(oid, ImmutableLocalDateDoubleTimeSeries.of(dates, values));
+            dates = new ArrayList<LocalDate>(256);
+            values = new ArrayList<Double>(256);
+          }
+          oid = rowOid;
+          last = null;
+        }
+        LocalDate date = DbDateUtils.fromSqlDateAllowNull(rs.getDate("POINT_DATE"));
+        if (date.equals(last) == false) {
+          last = date;
+          Double value = (Double) rs.getObject("POINT_VALUE");
+          if (value != null) {
+            dates.add(date);
+            values.add(value);
+          }
+        } else {
+          // The data points query should return no more than one value per date
+          throw new OpenGammaRuntimeException("Unexpected duplicate data point entry");
+        }
+      }
+      if (oid != null) {
+        result.put(oid, ImmutableLocalDateDoubleTimeSeries.of(dates, values));
+      }
+      return result;
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Mapper from SQL rows to a UniqueId.
@@ -494,5 +672,33 @@ public class DbHistoricalTimeSeriesDataPointsWorker extends AbstractDbMaster {
     }
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Mapper from SQL rows to a ManageableHistoricalTimeSeries for each series.
+   * The first row of each series is used.
+   */
+  protected final class ManageableHTSBulkExtractor implements ResultSetExtractor<Map<Long, ManageableHistoricalTimeSeries>> {
+    @Override
+    public Map<Long, ManageableHistoricalTimeSeries> extractData(final ResultSet rs) throws SQLException, DataAccessException {
+      final Map<Long, ManageableHistoricalTimeSeries> result = new HashMap<Long, ManageableHistoricalTimeSeries>();
+      while (rs.next()) {
+        final long oid = rs.getLong("DOC_OID");
+        if (result.containsKey(oid)) {
+          continue;
+        }
+        Timestamp ver = rs.getTimestamp("max_ver_instant");
+        Timestamp corr = rs.getTimestamp("max_corr_instant");
+        Instant verInstant = ver != null ? DbDateUtils.fromSqlTimestamp(ver) : null;
+        Instant corrInstant = (corr != null ? DbDateUtils.fromSqlTimestamp(corr) : verInstant);
+        ManageableHistoricalTimeSeries hts = new ManageableHistoricalTimeSeries();
+        hts.setUniqueId(createTimeSeriesUniqueId(oid, verInstant, corrInstant));
+        hts.setVersionInstant(verInstant);
+        hts.setCorrectionInstant(corrInstant);
+        result.put(oid, hts);
+      }
+      return result;
+    }
+  }
+
 
 }
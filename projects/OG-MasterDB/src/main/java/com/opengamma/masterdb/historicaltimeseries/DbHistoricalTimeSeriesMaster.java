@@ -9,7 +9,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -129,6 +131,20 @@ public class DbHistoricalTimeSeriesMaster extends AbstractDocumentDbMaster<Histo
    * @param dbConnector  the database connector, not null
    */
   public DbHistoricalTimeSeriesMaster(final DbConnector dbConnector) {
+    this(dbConnector, false);
+  }
+
+  /**
+   * Creates an instance, choosing how the data points are stored.
+   * <p>
+   * The data points are either stored as one row per point, or as compressed chunks
+   * of points, see {@link DbHistoricalTimeSeriesChunkedDataPointsWorker}.
+   * The two storages use separate tables and are not interchangeable on an existing database.
+   *
+   * @param dbConnector  the database connector, not null
+   * @param chunkedDataPoints  true to store the data points as compressed chunks, false to store them as rows
+   */
+  public DbHistoricalTimeSeriesMaster(final DbConnector dbConnector, final boolean chunkedDataPoints) {
     super(dbConnector, IDENTIFIER_SCHEME_DEFAULT);
     setElSqlBundle(ElSqlBundle.of(dbConnector.getDialect().getElSqlConfig(), DbHistoricalTimeSeriesMaster.class));
     _nameTable = new NamedDimensionDbTable(dbConnector, "name", "hts_name", "hts_dimension_seq");
@@ -136,7 +152,7 @@ public class DbHistoricalTimeSeriesMaster extends AbstractDocumentDbMaster<Histo
     _dataSourceTable = new NamedDimensionDbTable(dbConnector, "data_source", "hts_data_source", "hts_dimension_seq");
     _dataProviderTable = new NamedDimensionDbTable(dbConnector, "data_provider", "hts_data_provider", "hts_dimension_seq");
     _observationTimeTable = new NamedDimensionDbTable(dbConnector, "observation_time", "hts_observation_time", "hts_dimension_seq");
-    _dataPointsWorker = new DbHistoricalTimeSeriesDataPointsWorker(this);
+    _dataPointsWorker = chunkedDataPoints ? new DbHistoricalTimeSeriesChunkedDataPointsWorker(this) : new DbHistoricalTimeSeriesDataPointsWorker(this);
   }
 
   @Override
@@ -471,6 +487,13 @@ public class DbHistoricalTimeSeriesMaster extends AbstractDocumentDbMaster<Histo
     }
   }
 
+  @Override
+  public Map<ObjectId, ManageableHistoricalTimeSeries> getTimeSeries(Collection<ObjectId> objectIds, VersionCorrection versionCorrection, HistoricalTimeSeriesGetFilter filter) {
+    try (Timer.Context context = _getTimeSeriesTimer.time()) {
+      return getDataPointsWorker().getTimeSeries(objectIds, versionCorrection, filter);
+    }
+  }
+
   //-------------------------------------------------------------------------
 
   @Override
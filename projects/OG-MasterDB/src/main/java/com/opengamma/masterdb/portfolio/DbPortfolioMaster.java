@@ -14,6 +14,7 @@ import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.Stack;
@@ -162,13 +163,36 @@ public class DbPortfolioMaster
   //-------------------------------------------------------------------------
   @Override
   public PortfolioDocument get(final UniqueId uniqueId) {
-    return doGet(uniqueId, new PortfolioDocumentExtractor(true, true), "Portfolio");
+    return getAttributes(doGet(uniqueId, new PortfolioDocumentExtractor(true, false, true), "Portfolio"));
   }
 
   //-------------------------------------------------------------------------
   @Override
   public PortfolioDocument get(final ObjectIdentifiable objectId, final VersionCorrection versionCorrection) {
-    return doGetByOidInstants(objectId, versionCorrection, new PortfolioDocumentExtractor(true, true), "Portfolio");
+    return getAttributes(doGetByOidInstants(objectId, versionCorrection, new PortfolioDocumentExtractor(true, false, true), "Portfolio"));
+  }
+
+  /**
+   * Loads the portfolio attributes into a document fetched without them.
+   * <p>
+   * The attributes are queried separately from the node tree as joining them
+   * would repeat every node and position row once per attribute.
+   * 
+   * @param document the document, not null
+   * @return the document, not null
+   */
+  protected PortfolioDocument getAttributes(final PortfolioDocument document) {
+    final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
+        .addValue("doc_id", extractRowId(document.getUniqueId()));
+    final String sql = getElSqlBundle().getSql("GetAttributes", args);
+    for (final Map<String, Object> row : getJdbcTemplate().queryForList(sql, args)) {
+      final String prtAttrKey = (String) row.get("PRT_ATTR_KEY");
+      final String prtAttrValue = (String) row.get("PRT_ATTR_VALUE");
+      if (prtAttrKey != null && prtAttrValue != null) {
+        document.getPortfolio().addAttribute(prtAttrKey, prtAttrValue);
+      }
+    }
+    return document;
   }
 
   //-------------------------------------------------------------------------
@@ -337,7 +361,7 @@ public class DbPortfolioMaster
         .addValue("node_oid", extractOid(uniqueId))
         .addTimestamp("version_as_of_instant", Objects.firstNonNull(versionAsOf, now))
         .addTimestamp("corrected_to_instant", Objects.firstNonNull(correctedTo, now));
-    final PortfolioDocumentExtractor extractor = new PortfolioDocumentExtractor(true, false);
+    final PortfolioDocumentExtractor extractor = new PortfolioDocumentExtractor(true, false, false);
     final NamedParameterJdbcOperations namedJdbc = getDbConnector().getJdbcTemplate();
     final String sql = getElSqlBundle().getSql("GetNodeByOidInstants", args);
     final List<PortfolioDocument> docs = namedJdbc.query(sql, args, extractor);
@@ -357,7 +381,7 @@ public class DbPortfolioMaster
     s_logger.debug("getNodeById {}", uniqueId);
     final DbMapSqlParameterSource args = new DbMapSqlParameterSource()
         .addValue("node_id", extractRowId(uniqueId));
-    final PortfolioDocumentExtractor extractor = new PortfolioDocumentExtractor(true, false);
+    final PortfolioDocumentExtractor extractor = new PortfolioDocumentExtractor(true, false, false);
     final NamedParameterJdbcOperations namedJdbc = getDbConnector().getJdbcTemplate();
     final String sql = getElSqlBundle().getSql("GetNodeById", args);
     final List<PortfolioDocument> docs = namedJdbc.query(sql, args, extractor);
@@ -373,6 +397,7 @@ public class DbPortfolioMaster
    */
   protected final class PortfolioDocumentExtractor implements ResultSetExtractor<List<PortfolioDocument>> {
     private final boolean _includePosition;
+    private final boolean _includeAttributes;
     private final boolean _complete;
     private long _lastPortfolioId = -1;
     private long _lastNodeId = -1;
@@ -383,7 +408,12 @@ public class DbPortfolioMaster
     private final Stack<LongObjectPair<ManageablePortfolioNode>> _nodes = new Stack<LongObjectPair<ManageablePortfolioNode>>();
 
     public PortfolioDocumentExtractor(boolean includePositions, boolean complete) {
+      this(includePositions, true, complete);
+    }
+
+    public PortfolioDocumentExtractor(boolean includePositions, boolean includeAttributes, boolean complete) {
       _includePosition = includePositions;
+      _includeAttributes = includeAttributes;
       _complete = complete;
     }
 
@@ -413,10 +443,12 @@ public class DbPortfolioMaster
           }
         }
 
-        final String prtAttrKey = rs.getString("PRT_ATTR_KEY");
-        final String prtAttrValue = rs.getString("PRT_ATTR_VALUE");
-        if (prtAttrKey != null && prtAttrValue != null) {
-          _portfolio.addAttribute(prtAttrKey, prtAttrValue);
+        if (_includeAttributes) {
+          final String prtAttrKey = rs.getString("PRT_ATTR_KEY");
+          final String prtAttrValue = rs.getString("PRT_ATTR_VALUE");
+          if (prtAttrKey != null && prtAttrValue != null) {
+            _portfolio.addAttribute(prtAttrKey, prtAttrValue);
+          }
         }
       }
       return _documents;
@@ -205,6 +205,17 @@ public class DbPositionMaster extends AbstractDocumentDbMaster<PositionDocument>
     return doGetByOidInstants(objectId, versionCorrection, new PositionDocumentExtractor(), "Position");
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public Map<UniqueId, PositionDocument> get(final Collection<UniqueId> uniqueIds) {
+    return doGetBulk(uniqueIds, new PositionDocumentExtractor(), new PositionDocumentExtractor());
+  }
+
+  @Override
+  public Map<ObjectId, PositionDocument> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    return doGetBulkByOidInstants(objectIds, versionCorrection, new PositionDocumentExtractor());
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public PositionHistoryResult history(final PositionHistoryRequest request) {
@@ -10,11 +10,13 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -27,6 +29,7 @@ import org.springframework.jdbc.support.lob.LobHandler;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.opengamma.elsql.ElSqlBundle;
 import com.opengamma.id.ExternalId;
 import com.opengamma.id.ExternalIdBundle;
@@ -262,6 +265,33 @@ public class DbSecurityMaster
     return doc;
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public Map<UniqueId, SecurityDocument> get(final Collection<UniqueId> uniqueIds) {
+    final Map<UniqueId, SecurityDocument> result = doGetBulk(uniqueIds, new SecurityDocumentExtractor(), new SecurityDocumentExtractor());
+    loadDetail(getDetailProvider(), distinctDocuments(result));
+    return result;
+  }
+
+  @Override
+  public Map<ObjectId, SecurityDocument> get(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    final Map<ObjectId, SecurityDocument> result = doGetBulkByOidInstants(objectIds, versionCorrection, new SecurityDocumentExtractor());
+    loadDetail(getDetailProvider(), distinctDocuments(result));
+    return result;
+  }
+
+  /**
+   * Gets the distinct documents of a bulk get, where several identifiers may refer to one document.
+   * 
+   * @param result  the bulk get result, not null
+   * @return the distinct documents, not null
+   */
+  private static List<SecurityDocument> distinctDocuments(final Map<?, SecurityDocument> result) {
+    final Set<SecurityDocument> docs = Sets.newIdentityHashSet();
+    docs.addAll(result.values());
+    return new ArrayList<SecurityDocument>(docs);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public SecurityHistoryResult history(final SecurityHistoryRequest request) {
@@ -0,0 +1,17 @@
+START TRANSACTION;
+  UPDATE hts_schema_version SET version_value='46' WHERE version_key='schema_patch';
+
+  CREATE TABLE hts_point_chunk (
+      doc_oid bigint NOT NULL,
+      chunk_year int NOT NULL,
+      ver_instant timestamp without time zone NOT NULL,
+      corr_instant timestamp without time zone NOT NULL,
+      last_ver_instant timestamp without time zone NOT NULL,
+      last_corr_instant timestamp without time zone NOT NULL,
+      first_date date NOT NULL,
+      last_date date NOT NULL,
+      point_count int NOT NULL,
+      points blob NOT NULL,
+      PRIMARY KEY (doc_oid, chunk_year, ver_instant, corr_instant)
+  );
+COMMIT;
\ No newline at end of file
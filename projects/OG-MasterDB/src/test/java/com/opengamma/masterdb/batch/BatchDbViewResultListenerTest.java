@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.batch;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+import com.opengamma.batch.BatchRunWriter;
+import com.opengamma.batch.RunCreationMode;
+import com.opengamma.batch.SnapshotMode;
+import com.opengamma.batch.domain.RiskRun;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.calcnode.InvocationResult;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValueResult;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.AggregatedExecutionLog;
+import com.opengamma.engine.view.cycle.ViewCycleMetadata;
+import com.opengamma.engine.view.impl.InMemoryViewComputationResultModel;
+import com.opengamma.id.UniqueId;
+import com.opengamma.livedata.UserPrincipal;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test the export of results by {@link BatchDbViewResultListener}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class BatchDbViewResultListenerTest {
+
+  private static final UniqueId CYCLE_ID = UniqueId.of("Cycle", "1");
+  private static final ComputationTargetSpecification TARGET = new ComputationTargetSpecification(ComputationTargetType.SECURITY, UniqueId.of("Sec", "1"));
+
+  private File _directory;
+  private BatchRunWriter _batchRunWriter;
+  private RiskRun _riskRun;
+  private ViewCycleMetadata _cycleMetadata;
+  private BatchDbViewResultListener _listener;
+
+  @BeforeMethod
+  public void setUp() {
+    _directory = Files.createTempDir();
+    _riskRun = new RiskRun();
+    _riskRun.setId(12);
+    _cycleMetadata = mock(ViewCycleMetadata.class);
+    when(_cycleMetadata.getViewCycleId()).thenReturn(CYCLE_ID);
+    _batchRunWriter = mock(BatchRunWriter.class);
+    when(_batchRunWriter.startRiskRun(_cycleMetadata, Collections.<String, String>emptyMap(), RunCreationMode.CREATE_NEW, SnapshotMode.WRITE_THROUGH)).thenReturn(_riskRun);
+    _listener = new BatchDbViewResultListener(_batchRunWriter, UserPrincipal.getTestUser(), _directory);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(_directory);
+  }
+
+  private static InMemoryViewComputationResultModel fragment() {
+    InMemoryViewComputationResultModel fragment = new InMemoryViewComputationResultModel();
+    fragment.setViewCycleId(CYCLE_ID);
+    ValueSpecification spec = new ValueSpecification("PV", TARGET, ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+    fragment.addValue("Default", new ComputedValueResult(spec, 1.5d, AggregatedExecutionLog.EMPTY, "node", null, InvocationResult.SUCCESS));
+    return fragment;
+  }
+
+  private File runDirectory() {
+    return BatchDbViewResultListener.getExportDirectory(_directory, _riskRun, CYCLE_ID);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_export_cycleCompleted() {
+    _listener.cycleStarted(_cycleMetadata);
+    InMemoryViewComputationResultModel fragment = fragment();
+    _listener.cycleFragmentCompleted(fragment, null);
+    _listener.cycleCompleted(fragment, null);
+    verify(_batchRunWriter, times(1)).addJobResults(_riskRun.getObjectId(), fragment);
+    verify(_batchRunWriter, times(1)).endRiskRun(_riskRun.getObjectId());
+
+    List<File> files = BatchResultFileReader.listFiles(runDirectory());
+    assertEquals(1, files.size());
+    try (BatchResultFileReader reader = BatchResultFileReader.open(files.get(0))) {
+      assertEquals("Default", reader.getCalculationConfiguration());
+      assertEquals(true, reader.nextBlock());
+      assertEquals(1, reader.getBlockSize());
+      assertEquals(1.5d, reader.getValueColumn()[0], 0d);
+    }
+  }
+
+  public void test_export_runReused() {
+    _listener.cycleStarted(_cycleMetadata);
+    InMemoryViewComputationResultModel fragment = fragment();
+    _listener.cycleFragmentCompleted(fragment, null);
+    _listener.cycleCompleted(fragment, null);
+
+    UniqueId cycleId2 = UniqueId.of("Cycle", "2");
+    ViewCycleMetadata cycleMetadata2 = mock(ViewCycleMetadata.class);
+    when(cycleMetadata2.getViewCycleId()).thenReturn(cycleId2);
+    when(_batchRunWriter.startRiskRun(cycleMetadata2, Collections.<String, String>emptyMap(), RunCreationMode.CREATE_NEW, SnapshotMode.WRITE_THROUGH)).thenReturn(_riskRun);
+    _listener.cycleStarted(cycleMetadata2);
+    InMemoryViewComputationResultModel fragment2 = fragment();
+    fragment2.setViewCycleId(cycleId2);
+    _listener.cycleFragmentCompleted(fragment2, null);
+    _listener.cycleExecutionFailed(null, new RuntimeException());
+
+    assertFalse(BatchDbViewResultListener.getExportDirectory(_directory, _riskRun, cycleId2).exists());
+    assertEquals(1, BatchResultFileReader.listFiles(runDirectory()).size());
+  }
+
+  public void test_export_cycleExecutionFailed() {
+    _listener.cycleStarted(_cycleMetadata);
+    _listener.cycleFragmentCompleted(fragment(), null);
+    assertEquals(1, runDirectory().list().length);
+    _listener.cycleExecutionFailed(null, new RuntimeException());
+    assertFalse(runDirectory().exists());
+  }
+
+  public void test_export_processTerminated() {
+    _listener.cycleStarted(_cycleMetadata);
+    _listener.cycleFragmentCompleted(fragment(), null);
+    _listener.processTerminated(true);
+    assertFalse(runDirectory().exists());
+  }
+
+}
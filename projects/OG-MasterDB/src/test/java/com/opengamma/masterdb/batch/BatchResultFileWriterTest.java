@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.batch;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.calcnode.InvocationResult;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValueResult;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.AggregatedExecutionLog;
+import com.opengamma.engine.view.impl.InMemoryViewComputationResultModel;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test {@link BatchResultFileWriter} and {@link BatchResultFileReader}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class BatchResultFileWriterTest {
+
+  private static final ComputationTargetSpecification TARGET1 = new ComputationTargetSpecification(ComputationTargetType.SECURITY, UniqueId.of("Sec", "1"));
+  private static final ComputationTargetSpecification TARGET2 = new ComputationTargetSpecification(ComputationTargetType.SECURITY, UniqueId.of("Sec", "2"));
+  private static final ValueProperties PROPERTIES = ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get();
+
+  private File _directory;
+
+  @BeforeMethod
+  public void setUp() {
+    _directory = Files.createTempDir();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(_directory);
+  }
+
+  private static ComputedValueResult result(String valueName, ComputationTargetSpecification target, Object value, InvocationResult invocationResult) {
+    return new ComputedValueResult(new ValueSpecification(valueName, target, PROPERTIES), value, AggregatedExecutionLog.EMPTY, "node", null, invocationResult);
+  }
+
+  private static Map<String, Double> readAll(BatchResultFileReader reader) {
+    Map<String, Double> values = new HashMap<>();
+    while (reader.nextBlock()) {
+      for (int i = 0; i < reader.getBlockSize(); i++) {
+        String key = reader.getTargets().get(reader.getTargetColumn()[i]) + " " + reader.getValueNames().get(reader.getValueNameColumn()[i]);
+        assertEquals(PROPERTIES.toString(), reader.getValueProperties().get(reader.getValuePropertiesColumn()[i]));
+        values.put(key, reader.getValueColumn()[i]);
+      }
+    }
+    return values;
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_roundTrip_partitionedByCalcConfig() {
+    BatchResultFileWriter writer = new BatchResultFileWriter(_directory, 2);
+    InMemoryViewComputationResultModel fragment1 = new InMemoryViewComputationResultModel();
+    fragment1.addValue("Default", result("PV", TARGET1, 1.5d, InvocationResult.SUCCESS));
+    fragment1.addValue("Default", result("PV", TARGET2, 2.5d, InvocationResult.SUCCESS));
+    fragment1.addValue("Default", result("Delta", TARGET2, new DoubleMatrix1D(new double[] {3d, 4d}), InvocationResult.SUCCESS));
+    fragment1.addValue("Other", result("PV", TARGET1, 5d, InvocationResult.SUCCESS));
+    writer.addJobResults(fragment1);
+    InMemoryViewComputationResultModel fragment2 = new InMemoryViewComputationResultModel();
+    fragment2.addValue("Default", result("Vega", TARGET1, 6d, InvocationResult.SUCCESS));
+    fragment2.addValue("Default", result("Gamma", TARGET1, 7d, InvocationResult.FUNCTION_THREW_EXCEPTION));
+    fragment2.addValue("Default", result("Theta", TARGET1, "NotConvertible", InvocationResult.SUCCESS));
+    writer.addJobResults(fragment2);
+    writer.close();
+
+    List<File> files = BatchResultFileReader.listFiles(_directory);
+    assertEquals(2, files.size());
+    try (BatchResultFileReader reader = BatchResultFileReader.open(files.get(0))) {
+      assertEquals("Default", reader.getCalculationConfiguration());
+      assertEquals(2, reader.getTargets().size());
+      assertEquals("SECURITY", reader.getTargetTypes().get(0));
+      Map<String, Double> values = readAll(reader);
+      assertEquals(5, values.size());
+      assertEquals(1.5d, values.get("Sec~1 PV"));
+      assertEquals(2.5d, values.get("Sec~2 PV"));
+      assertEquals(3d, values.get("Sec~2 Delta[0]"));
+      assertEquals(4d, values.get("Sec~2 Delta[1]"));
+      assertEquals(6d, values.get("Sec~1 Vega"));
+      assertFalse(reader.nextBlock());
+    }
+    try (BatchResultFileReader reader = BatchResultFileReader.open(files.get(1))) {
+      assertEquals("Other", reader.getCalculationConfiguration());
+      Map<String, Double> values = readAll(reader);
+      assertEquals(1, values.size());
+      assertEquals(5d, values.get("Sec~1 PV"));
+    }
+  }
+
+  public void test_empty() {
+    BatchResultFileWriter writer = new BatchResultFileWriter(_directory);
+    InMemoryViewComputationResultModel fragment = new InMemoryViewComputationResultModel();
+    fragment.addValue("Default", result("PV", TARGET1, 7d, InvocationResult.MISSING_INPUTS));
+    writer.addJobResults(fragment);
+    writer.close();
+    try (BatchResultFileReader reader = BatchResultFileReader.open(BatchResultFileReader.listFiles(_directory).get(0))) {
+      assertEquals(1, reader.getTargets().size());
+      assertTrue(reader.getValueNames().isEmpty());
+      assertFalse(reader.nextBlock());
+    }
+  }
+
+  public void test_listFiles_orderWritten() {
+    BatchResultFileWriter writer = new BatchResultFileWriter(_directory);
+    for (int i = 0; i < 12; i++) {
+      InMemoryViewComputationResultModel fragment = new InMemoryViewComputationResultModel();
+      fragment.addValue("Config" + i, result("PV", TARGET1, (double) i, InvocationResult.SUCCESS));
+      writer.addJobResults(fragment);
+    }
+    writer.close();
+    List<File> files = BatchResultFileReader.listFiles(_directory);
+    assertEquals(12, files.size());
+    for (int i = 0; i < 12; i++) {
+      try (BatchResultFileReader reader = BatchResultFileReader.open(files.get(i))) {
+        assertEquals("Config" + i, reader.getCalculationConfiguration());
+      }
+    }
+  }
+
+  public void test_abort() {
+    File directory = new File(_directory, "run");
+    BatchResultFileWriter writer = new BatchResultFileWriter(directory);
+    InMemoryViewComputationResultModel fragment = new InMemoryViewComputationResultModel();
+    fragment.addValue("Default", result("PV", TARGET1, 1d, InvocationResult.SUCCESS));
+    writer.addJobResults(fragment);
+    writer.abort();
+    assertFalse(directory.exists());
+  }
+
+  @Test(expectedExceptions = OpenGammaRuntimeException.class)
+  public void test_constructor_existingResults() {
+    BatchResultFileWriter writer = new BatchResultFileWriter(_directory);
+    InMemoryViewComputationResultModel fragment = new InMemoryViewComputationResultModel();
+    fragment.addValue("Default", result("PV", TARGET1, 1d, InvocationResult.SUCCESS));
+    writer.addJobResults(fragment);
+    writer.close();
+    new BatchResultFileWriter(_directory);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void test_addJobResults_closed() {
+    BatchResultFileWriter writer = new BatchResultFileWriter(_directory);
+    writer.close();
+    writer.addJobResults(new InMemoryViewComputationResultModel());
+  }
+
+}
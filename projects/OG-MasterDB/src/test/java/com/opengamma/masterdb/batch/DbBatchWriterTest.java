@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallback;
 import org.testng.annotations.Factory;
@@ -33,6 +34,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.opengamma.DataNotFoundException;
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
 import com.opengamma.batch.RunCreationMode;
 import com.opengamma.batch.SnapshotMode;
 import com.opengamma.batch.domain.FunctionUniqueId;
@@ -74,6 +76,7 @@ import com.opengamma.util.test.TestGroup;
 @Test(groups = TestGroup.UNIT_DB)
 public class DbBatchWriterTest extends AbstractDbBatchTest {
 
+  private MapComputationTargetResolver _computationTargetResolver;
   private DbBatchMaster _batchMaster;
   private DbBatchWriter _batchWriter;
   private ViewCycleMetadata _cycleMetadataStub;
@@ -90,6 +93,7 @@ public class DbBatchWriterTest extends AbstractDbBatchTest {
   @Override
   protected void doSetUp() {
     MapComputationTargetResolver computationTargetResolver = new MapComputationTargetResolver();
+    _computationTargetResolver = computationTargetResolver;
     _batchMaster = new DbBatchMaster(getDbConnector(), computationTargetResolver);
     _batchWriter = new DbBatchWriter(_batchMaster.getDbConnector(), computationTargetResolver);
 
@@ -561,5 +565,91 @@ public class DbBatchWriterTest extends AbstractDbBatchTest {
     ViewResultEntry resultEntry = Iterables.getOnlyElement(resultEntries);
     assertEquals(0d, resultEntry.getComputedValue().getValue());
   }
-  
+
+  //-------------------------------------------------------------------------
+  private static DoubleMatrix1D vector(final int size) {
+    final double[] data = new double[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = i;
+    }
+    return new DoubleMatrix1D(data);
+  }
+
+  private int countRows(final String table, final RiskRun run) {
+    return getDbConnector().getJdbcOperations().queryForObject("SELECT COUNT(*) FROM " + table + " WHERE run_id = ?", Integer.class, run.getId());
+  }
+
+  @Test
+  public void addJobResultsWithWriterThreads() {
+    _batchMaster.setWriterThreads(2);
+    try {
+      _batchMaster.createMarketData(_cycleMetadataStub.getMarketDataSnapshotId());
+      final RiskRun run = _batchMaster.startRiskRun(_cycleMetadataStub, Maps.<String, String>newHashMap(), RunCreationMode.AUTO, SnapshotMode.PREPARED);
+      final InMemoryViewComputationResultModel result = new InMemoryViewComputationResultModel();
+      // more rows than fit in one multi-row insert
+      result.addValue("config_1", new ComputedValueResult(_specification, vector(250), AggregatedExecutionLog.EMPTY, "someComputeNode", null, InvocationResult.SUCCESS));
+      _batchMaster.addJobResults(run.getObjectId(), result);
+
+      final List<ViewResultEntry> resultEntries = _batchMaster.getBatchValues(run.getObjectId(), PagingRequest.ALL).getFirst();
+      assertEquals(250, resultEntries.size());
+      final Map<String, Object> values = newHashMap();
+      for (ViewResultEntry entry : resultEntries) {
+        values.put(entry.getComputedValue().getSpecification().getValueName(), entry.getComputedValue().getValue());
+      }
+      for (int i = 0; i < 250; i++) {
+        assertEquals((double) i, values.get("FAIR_VALUE[" + i + "]"));
+      }
+      assertEquals(0, countRows("rsk_failure", run));
+    } finally {
+      _batchMaster.shutdown();
+    }
+  }
+
+  @Test
+  public void addJobResultsWithWriterThreadsTwice() {
+    _batchMaster.setWriterThreads(2);
+    try {
+      _batchMaster.createMarketData(_cycleMetadataStub.getMarketDataSnapshotId());
+      final RiskRun run = _batchMaster.startRiskRun(_cycleMetadataStub, Maps.<String, String>newHashMap(), RunCreationMode.AUTO, SnapshotMode.PREPARED);
+      final InMemoryViewComputationResultModel result = new InMemoryViewComputationResultModel();
+      result.addValue("config_1", new ComputedValueResult(_specification, vector(3), AggregatedExecutionLog.EMPTY, "someComputeNode", null, InvocationResult.SUCCESS));
+      _batchMaster.addJobResults(run.getObjectId(), result);
+      // writing the same results again replaces the values rather than duplicating them
+      _batchMaster.addJobResults(run.getObjectId(), result);
+
+      assertEquals(3, countRows("rsk_value", run));
+    } finally {
+      _batchMaster.shutdown();
+    }
+  }
+
+  @Test
+  public void addJobResultsWithWriterThreadsFailedPartition() {
+    final DbBatchWriter writer = new DbBatchWriter(getDbConnector(), _computationTargetResolver) {
+      @Override
+      protected void insertRiskValues(final List<SqlParameterSource> values) {
+        throw new IllegalStateException("Insert failed");
+      }
+    };
+    writer.setWriterThreads(2);
+    try {
+      _batchMaster.createMarketData(_cycleMetadataStub.getMarketDataSnapshotId());
+      final RiskRun run = getDbConnector().getTransactionTemplate().execute(new TransactionCallback<RiskRun>() {
+        @Override
+        public RiskRun doInTransaction(final TransactionStatus status) {
+          return writer.startBatchInTransaction(_cycleMetadataStub, Maps.<String, String>newHashMap(), RunCreationMode.AUTO, SnapshotMode.PREPARED);
+        }
+      });
+      final InMemoryViewComputationResultModel result = new InMemoryViewComputationResultModel();
+      result.addValue("config_1", new ComputedValueResult(_specification, vector(3), AggregatedExecutionLog.EMPTY, "someComputeNode", null, InvocationResult.SUCCESS));
+      writer.addJobResultsInParallel(run.getObjectId(), result);
+
+      // the values that could not be written are converted to failures
+      assertEquals(0, countRows("rsk_value", run));
+      assertEquals(3, countRows("rsk_failure", run));
+    } finally {
+      writer.shutdown();
+    }
+  }
+
 }
@@ -6,8 +6,12 @@
 package com.opengamma.masterdb.config;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -16,7 +20,9 @@ import org.testng.annotations.Test;
 
 import com.opengamma.DataNotFoundException;
 import com.opengamma.id.ExternalId;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.config.ConfigDocument;
 import com.opengamma.util.test.DbTest;
 import com.opengamma.util.test.TestGroup;
@@ -103,4 +109,27 @@ public class QueryConfigDbConfigMasterWorkerGetTest extends AbstractDbConfigMast
     }
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_getConfig_bulk_uniqueIds() {
+    UniqueId notFound = UniqueId.of("DbCfg", "0");
+    Map<UniqueId, ConfigDocument> test = _cfgMaster.get(Arrays.asList(UniqueId.of("DbCfg", "101", "0"), UniqueId.of("DbCfg", "201", "0"), UniqueId.of("DbCfg", "201"), notFound));
+    assertEquals(3, test.size());
+    assert101(test.get(UniqueId.of("DbCfg", "101", "0")));
+    assert201(test.get(UniqueId.of("DbCfg", "201", "0")));
+    assert202(test.get(UniqueId.of("DbCfg", "201")));
+    assertFalse(test.containsKey(notFound));
+  }
+
+  @Test
+  public void test_getConfig_bulk_objectIds() {
+    ObjectId notFound = ObjectId.of("DbCfg", "0");
+    Map<ObjectId, ConfigDocument> test = _cfgMaster.get(Arrays.asList(ObjectId.of("DbCfg", "101"), ObjectId.of("DbCfg", "102"), ObjectId.of("DbCfg", "201"), notFound), VersionCorrection.LATEST);
+    assertEquals(3, test.size());
+    assert101(test.get(ObjectId.of("DbCfg", "101")));
+    assert102(test.get(ObjectId.of("DbCfg", "102")));
+    assert202(test.get(ObjectId.of("DbCfg", "201")));
+    assertFalse(test.containsKey(notFound));
+  }
+
 }
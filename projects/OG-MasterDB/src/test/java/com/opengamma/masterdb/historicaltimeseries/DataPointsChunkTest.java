@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.historicaltimeseries;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test DataPointsChunk.
+ */
+@Test(groups = TestGroup.UNIT)
+public class DataPointsChunkTest {
+
+  @Test
+  public void test_roundTrip() {
+    int[] dates = {(int) LocalDate.of(1900, 1, 1).toEpochDay(), -1, 0, 1, 2, 10, 10000, (int) LocalDate.of(2999, 12, 31).toEpochDay()};
+    double[] values = {1.5d, -1.5d, 0d, -0d, Double.NaN, Double.POSITIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE};
+    boolean[] removed = new boolean[dates.length];
+    assertRoundTrip(new DataPointsChunk(dates, values, removed));
+  }
+
+  @Test
+  public void test_roundTrip_removed() {
+    int[] dates = {15000, 15001, 15002, 15005, 15006};
+    double[] values = {1.25d, 0d, 1.25d, 0d, 1.5d};
+    boolean[] removed = {false, true, false, true, false};
+    DataPointsChunk test = assertRoundTrip(new DataPointsChunk(dates, values, removed));
+    assertEquals(LocalDate.ofEpochDay(15001), test.getLocalDate(1));
+    assertTrue(test.isRemoved(1));
+    assertTrue(test.isRemoved(3));
+  }
+
+  @Test
+  public void test_roundTrip_empty() {
+    DataPointsChunk test = assertRoundTrip(new DataPointsChunk(new int[0], new double[0], new boolean[0]));
+    assertEquals(0, test.size());
+  }
+
+  @Test
+  public void test_compression() {
+    int size = 250;
+    int[] dates = new int[size];
+    double[] values = new double[size];
+    for (int i = 0; i < size; i++) {
+      dates[i] = 15000 + i + 2 * (i / 5);
+      values[i] = 100d + (i % 10) * 0.25d;
+    }
+    byte[] bytes = new DataPointsChunk(dates, values, new boolean[size]).encode();
+    // one byte per date, at most four bytes per value
+    assertTrue(bytes.length < 5 * size);
+    assertRoundTrip(new DataPointsChunk(dates, values, new boolean[size]));
+  }
+
+  @Test
+  public void test_roundTrip_versions() {
+    int[] dates = {15000, 15001, 15002, 15005, 15006};
+    double[] values = {1.25d, 0d, 1.25d, 1.5d, 1.5d};
+    boolean[] removed = {false, true, false, false, false};
+    long[] versions = {1356998400000000L, 1356998400000000L, 1357084800123000L, 1357171200000001L, 1357171200000001L};
+    DataPointsChunk test = assertRoundTrip(new DataPointsChunk(dates, values, removed, versions));
+    assertTrue(test.hasVersions());
+    for (int i = 0; i < versions.length; i++) {
+      assertEquals(versions[i], test.getVersion(i));
+    }
+    assertFalse(DataPointsChunk.decode(new DataPointsChunk(dates, values, removed).encode()).hasVersions());
+  }
+
+  @Test
+  public void test_epochMicros() {
+    Instant instant = Instant.ofEpochSecond(1357084800L, 123456789);
+    assertEquals(1357084800123456L, DataPointsChunk.toEpochMicros(instant));
+    assertEquals(Instant.ofEpochSecond(1357084800L, 123456000), DataPointsChunk.ofEpochMicros(1357084800123456L));
+    assertEquals(Instant.ofEpochSecond(-2L, 999999000), DataPointsChunk.ofEpochMicros(-1000001L));
+    assertEquals(-1000001L, DataPointsChunk.toEpochMicros(Instant.ofEpochSecond(-2L, 999999000)));
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void test_getVersion_shared() {
+    new DataPointsChunk(new int[] {1}, new double[1], new boolean[1]).getVersion(0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_constructor_notAscending() {
+    new DataPointsChunk(new int[] {2, 1}, new double[2], new boolean[2]);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_constructor_differentLengths() {
+    new DataPointsChunk(new int[] {1, 2}, new double[1], new boolean[2]);
+  }
+
+  @Test(expectedExceptions = OpenGammaRuntimeException.class)
+  public void test_decode_truncated() {
+    byte[] bytes = new DataPointsChunk(new int[] {1, 2}, new double[] {1.5d, 2.5d}, new boolean[2]).encode();
+    DataPointsChunk.decode(Arrays.copyOf(bytes, bytes.length - 1));
+  }
+
+  @Test(expectedExceptions = OpenGammaRuntimeException.class)
+  public void test_decode_trailing() {
+    byte[] bytes = new DataPointsChunk(new int[] {1, 2}, new double[] {1.5d, 2.5d}, new boolean[2]).encode();
+    DataPointsChunk.decode(Arrays.copyOf(bytes, bytes.length + 1));
+  }
+
+  //-------------------------------------------------------------------------
+  private static DataPointsChunk assertRoundTrip(final DataPointsChunk chunk) {
+    DataPointsChunk test = DataPointsChunk.decode(chunk.encode());
+    assertEquals(chunk.size(), test.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      assertEquals(chunk.getDate(i), test.getDate(i));
+      assertEquals(chunk.isRemoved(i), test.isRemoved(i));
+      if (chunk.isRemoved(i) == false) {
+        assertEquals(Double.doubleToRawLongBits(chunk.getValue(i)), Double.doubleToRawLongBits(test.getValue(i)));
+      }
+      if (chunk.hasVersions()) {
+        assertEquals(chunk.getVersion(i), test.getVersion(i));
+      }
+    }
+    return test;
+  }
+
+}
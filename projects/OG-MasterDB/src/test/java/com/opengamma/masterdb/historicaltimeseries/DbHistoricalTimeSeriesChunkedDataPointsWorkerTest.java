@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.historicaltimeseries;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundleWithDates;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesGetFilter;
+import com.opengamma.master.historicaltimeseries.HistoricalTimeSeriesInfoDocument;
+import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeries;
+import com.opengamma.master.historicaltimeseries.ManageableHistoricalTimeSeriesInfo;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.util.test.AbstractDbTest;
+import com.opengamma.util.test.DbTest;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests DbHistoricalTimeSeriesMaster storing the data points as compressed chunks.
+ */
+@Test(groups = TestGroup.UNIT_DB)
+public class DbHistoricalTimeSeriesChunkedDataPointsWorkerTest extends AbstractDbTest {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(DbHistoricalTimeSeriesChunkedDataPointsWorkerTest.class);
+
+  private DbHistoricalTimeSeriesMaster _htsMaster;
+  private ObjectId _objectId;
+
+  @Factory(dataProvider = "databases", dataProviderClass = DbTest.class)
+  public DbHistoricalTimeSeriesChunkedDataPointsWorkerTest(String databaseType, String databaseVersion) {
+    super(databaseType, databaseVersion);
+    s_logger.info("running testcases for {}", databaseType);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected void doSetUp() {
+    _htsMaster = new DbHistoricalTimeSeriesMaster(getDbConnector(), true);
+    ManageableHistoricalTimeSeriesInfo info = new ManageableHistoricalTimeSeriesInfo();
+    info.setName("Chunked");
+    info.setDataField("DF");
+    info.setDataSource("DS");
+    info.setDataProvider("DP");
+    info.setObservationTime("OT");
+    info.setExternalIdBundle(ExternalIdBundleWithDates.of(ExternalId.of("A", "B").toBundle()));
+    _objectId = _htsMaster.add(new HistoricalTimeSeriesInfoDocument(info)).getObjectId();
+  }
+
+  @Override
+  protected void doTearDown() {
+    _htsMaster = null;
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_getDataPointsWorker() {
+    assertTrue(_htsMaster.getDataPointsWorker() instanceof DbHistoricalTimeSeriesChunkedDataPointsWorker);
+  }
+
+  @Test
+  public void test_empty() {
+    ManageableHistoricalTimeSeries test = _htsMaster.getTimeSeries(_objectId, VersionCorrection.LATEST);
+    assertEquals(0, test.getTimeSeries().size());
+  }
+
+  @Test
+  public void test_update_acrossYears() {
+    LocalDateDoubleTimeSeries series = series(LocalDate.of(2011, 12, 30), 600, 1.5d);
+    UniqueId uniqueId = _htsMaster.updateTimeSeriesDataPoints(_objectId, series);
+
+    ManageableHistoricalTimeSeries test = _htsMaster.getTimeSeries(uniqueId);
+    assertEquals(uniqueId, test.getUniqueId());
+    assertEquals(series, test.getTimeSeries());
+
+    LocalDate start = LocalDate.of(2012, 3, 1);
+    LocalDate end = LocalDate.of(2013, 2, 1);
+    test = _htsMaster.getTimeSeries(uniqueId, HistoricalTimeSeriesGetFilter.ofRange(start, end));
+    assertEquals(series.subSeries(start, true, end, true), test.getTimeSeries());
+    test = _htsMaster.getTimeSeries(uniqueId, HistoricalTimeSeriesGetFilter.ofRange(start, end, 3));
+    assertEquals(series.subSeries(start, true, end, true).head(3), test.getTimeSeries());
+    test = _htsMaster.getTimeSeries(uniqueId, HistoricalTimeSeriesGetFilter.ofRange(start, end, -3));
+    assertEquals(series.subSeries(start, true, end, true).tail(3), test.getTimeSeries());
+  }
+
+  @Test
+  public void test_update_append() {
+    LocalDateDoubleTimeSeries first = series(LocalDate.of(2012, 1, 1), 10, 1d);
+    LocalDateDoubleTimeSeries second = series(LocalDate.of(2012, 1, 11), 10, 2d);
+    UniqueId firstId = _htsMaster.updateTimeSeriesDataPoints(_objectId, first);
+    UniqueId secondId = _htsMaster.updateTimeSeriesDataPoints(_objectId, second);
+
+    assertEquals(first, _htsMaster.getTimeSeries(firstId).getTimeSeries());
+    assertEquals(first.unionAdd(second), _htsMaster.getTimeSeries(secondId).getTimeSeries());
+    assertEquals(first.unionAdd(second), _htsMaster.getTimeSeries(_objectId, VersionCorrection.LATEST).getTimeSeries());
+  }
+
+  @Test
+  public void test_update_compacted() {
+    LocalDateDoubleTimeSeries first = series(LocalDate.of(2012, 12, 27), 3, 1d);
+    LocalDateDoubleTimeSeries second = series(LocalDate.of(2012, 12, 30), 1, 2d);
+    LocalDateDoubleTimeSeries third = series(LocalDate.of(2012, 12, 31), 3, 3d);
+    UniqueId firstId = _htsMaster.updateTimeSeriesDataPoints(_objectId, first);
+    UniqueId secondId = _htsMaster.updateTimeSeriesDataPoints(_objectId, second);
+    assertEquals(1, countChunks());
+    UniqueId thirdId = _htsMaster.updateTimeSeriesDataPoints(_objectId, third);
+    // the points of the next year are in a chunk of their own
+    assertEquals(2, countChunks());
+
+    // the points appended to a chunk keep their own version
+    ManageableHistoricalTimeSeries test = _htsMaster.getTimeSeries(firstId);
+    assertEquals(firstId, test.getUniqueId());
+    assertEquals(first, test.getTimeSeries());
+    test = _htsMaster.getTimeSeries(secondId);
+    assertEquals(secondId, test.getUniqueId());
+    assertEquals(first.unionAdd(second), test.getTimeSeries());
+    test = _htsMaster.getTimeSeries(_objectId, VersionCorrection.LATEST);
+    assertEquals(thirdId, test.getUniqueId());
+    assertEquals(first.unionAdd(second).unionAdd(third), test.getTimeSeries());
+
+    // a corrected point of a compacted chunk keeps the version it was appended at
+    UniqueId correctedId = _htsMaster.correctTimeSeriesDataPoints(_objectId, ImmutableLocalDateDoubleTimeSeries.of(LocalDate.of(2012, 12, 30), 5d));
+    test = _htsMaster.getTimeSeries(_objectId, VersionCorrection.of(_htsMaster.getTimeSeries(secondId).getVersionInstant(), _htsMaster.getTimeSeries(correctedId).getCorrectionInstant()));
+    assertEquals(4, test.getTimeSeries().size());
+    assertEquals(5d, test.getTimeSeries().getValue(LocalDate.of(2012, 12, 30)), 0d);
+  }
+
+  @Test
+  public void test_get_latestPoints() {
+    LocalDateDoubleTimeSeries series = series(LocalDate.of(2011, 12, 30), 600, 1.5d);
+    _htsMaster.updateTimeSeriesDataPoints(_objectId, series);
+    HistoricalTimeSeriesGetFilter filter = HistoricalTimeSeriesGetFilter.ofRange(null, null, -3);
+    assertEquals(series.tail(3), _htsMaster.getTimeSeries(_objectId, VersionCorrection.LATEST, filter).getTimeSeries());
+
+    // the points removed from the latest chunk are replaced by those of the earlier chunks
+    LocalDate removeFrom = LocalDate.of(2012, 12, 31);
+    UniqueId removedId = _htsMaster.removeTimeSeriesDataPoints(_objectId, removeFrom, null);
+    LocalDateDoubleTimeSeries expected = series.subSeries(series.getEarliestTime(), removeFrom);
+    assertEquals(expected.tail(3), _htsMaster.getTimeSeries(removedId, filter).getTimeSeries());
+    UniqueId correctedId = _htsMaster.correctTimeSeriesDataPoints(_objectId, ImmutableLocalDateDoubleTimeSeries.of(LocalDate.of(2012, 12, 29), 7d));
+    LocalDateDoubleTimeSeries test = _htsMaster.getTimeSeries(correctedId, filter).getTimeSeries();
+    assertEquals(expected.tail(3).getTimeAtIndex(0), test.getTimeAtIndex(0));
+    assertEquals(7d, test.getValue(LocalDate.of(2012, 12, 29)), 0d);
+    test = _htsMaster.getTimeSeries(correctedId, HistoricalTimeSeriesGetFilter.ofRange(LocalDate.of(2012, 6, 1), LocalDate.of(2012, 6, 30), -2)).getTimeSeries();
+    assertEquals(series.subSeries(LocalDate.of(2012, 6, 1), true, LocalDate.of(2012, 6, 30), true).tail(2), test);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_update_beforeLatest() {
+    _htsMaster.updateTimeSeriesDataPoints(_objectId, series(LocalDate.of(2012, 1, 1), 10, 1d));
+    _htsMaster.updateTimeSeriesDataPoints(_objectId, series(LocalDate.of(2012, 1, 5), 10, 1d));
+  }
+
+  @Test
+  public void test_correct() {
+    LocalDateDoubleTimeSeries series = series(LocalDate.of(2012, 12, 30), 5, 1d);
+    UniqueId insertedId = _htsMaster.updateTimeSeriesDataPoints(_objectId, series);
+    LocalDate[] dates = {LocalDate.of(2012, 12, 31), LocalDate.of(2013, 1, 5)};
+    double[] values = {10d, 20d};
+    UniqueId correctedId = _htsMaster.correctTimeSeriesDataPoints(_objectId, ImmutableLocalDateDoubleTimeSeries.of(dates, values));
+
+    assertEquals(series, _htsMaster.getTimeSeries(insertedId).getTimeSeries());
+    LocalDateDoubleTimeSeries test = _htsMaster.getTimeSeries(correctedId).getTimeSeries();
+    assertEquals(6, test.size());
+    assertEquals(1d, test.getValue(LocalDate.of(2012, 12, 30)), 0d);
+    assertEquals(10d, test.getValue(LocalDate.of(2012, 12, 31)), 0d);
+    assertEquals(1d, test.getValue(LocalDate.of(2013, 1, 1)), 0d);
+    assertEquals(20d, test.getValue(LocalDate.of(2013, 1, 5)), 0d);
+
+    // the corrected point keeps its original version, the inserted point is versioned at the correction
+    VersionCorrection insertedVersion = VersionCorrection.of(_htsMaster.getTimeSeries(insertedId).getVersionInstant(), _htsMaster.getTimeSeries(correctedId).getCorrectionInstant());
+    test = _htsMaster.getTimeSeries(_objectId, insertedVersion).getTimeSeries();
+    assertEquals(5, test.size());
+    assertEquals(10d, test.getValue(LocalDate.of(2012, 12, 31)), 0d);
+  }
+
+  @Test
+  public void test_remove() {
+    LocalDateDoubleTimeSeries series = series(LocalDate.of(2012, 12, 25), 20, 1d);
+    UniqueId insertedId = _htsMaster.updateTimeSeriesDataPoints(_objectId, series);
+    LocalDate start = LocalDate.of(2012, 12, 28);
+    LocalDate end = LocalDate.of(2013, 1, 3);
+    UniqueId removedId = _htsMaster.removeTimeSeriesDataPoints(_objectId, start, end);
+
+    assertEquals(series, _htsMaster.getTimeSeries(insertedId).getTimeSeries());
+    LocalDateDoubleTimeSeries test = _htsMaster.getTimeSeries(removedId).getTimeSeries();
+    assertEquals(series.subSeries(series.getEarliestTime(), start).unionAdd(series.subSeries(end.plusDays(1), true, series.getLatestTime(), true)), test);
+
+    // a removed point can be corrected back
+    UniqueId correctedId = _htsMaster.correctTimeSeriesDataPoints(_objectId, ImmutableLocalDateDoubleTimeSeries.of(start, 5d));
+    test = _htsMaster.getTimeSeries(correctedId).getTimeSeries();
+    assertEquals(14, test.size());
+    assertEquals(5d, test.getValue(start), 0d);
+  }
+
+  //-------------------------------------------------------------------------
+  private int countChunks() {
+    return getDbConnector().getJdbcOperations().queryForObject("SELECT COUNT(*) FROM hts_point_chunk WHERE doc_oid = " + _objectId.getValue(), Integer.class);
+  }
+
+  private static LocalDateDoubleTimeSeries series(final LocalDate start, final int size, final double value) {
+    final LocalDate[] dates = new LocalDate[size];
+    final double[] values = new double[size];
+    for (int i = 0; i < size; i++) {
+      dates[i] = start.plusDays(i);
+      values[i] = value + (i % 7) * 0.25d;
+    }
+    return ImmutableLocalDateDoubleTimeSeries.of(dates, values);
+  }
+
+}
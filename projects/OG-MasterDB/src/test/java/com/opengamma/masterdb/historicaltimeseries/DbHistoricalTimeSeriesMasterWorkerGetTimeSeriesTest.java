@@ -6,8 +6,12 @@
 package com.opengamma.masterdb.historicaltimeseries;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.Factory;
@@ -266,6 +270,34 @@ public class DbHistoricalTimeSeriesMasterWorkerGetTimeSeriesTest extends Abstrac
     assertEquals(3.21d, timeSeries.getValueAtIndex(0), 0.0001d);
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_get_bulk() {
+    ObjectId oid101 = ObjectId.of("DbHts", "DP101");
+    ObjectId oid102 = ObjectId.of("DbHts", "DP102");
+    ObjectId oid0 = ObjectId.of("DbHts", "DP0");
+    VersionCorrection vc = VersionCorrection.of(_version2Instant.plusSeconds(1), _version3Instant.plusSeconds(1));
+    HistoricalTimeSeriesGetFilter filter = HistoricalTimeSeriesGetFilter.ofRange(LocalDate.of(2011, 1, 2), null);
+    Map<ObjectId, ManageableHistoricalTimeSeries> test = _htsMaster.getTimeSeries(Arrays.asList(oid101, oid102, oid0), vc, filter);
+    assertEquals(2, test.size());
+    assertEquals(_htsMaster.getTimeSeries(oid101, vc, filter), test.get(oid101));
+    assertEquals(oid102, test.get(oid102).getUniqueId().getObjectId());
+    assertEquals(0, test.get(oid102).getTimeSeries().size());
+    assertFalse(test.containsKey(oid0));
+  }
+
+  @Test
+  public void test_get_bulk_nPointsFromLatest() {
+    ObjectId oid101 = ObjectId.of("DbHts", "DP101");
+    ObjectId oid102 = ObjectId.of("DbHts", "DP102");
+    VersionCorrection vc = VersionCorrection.of(_version2Instant.plusSeconds(1), _version3Instant.plusSeconds(1));
+    HistoricalTimeSeriesGetFilter filter = HistoricalTimeSeriesGetFilter.ofLatestPoint();
+    Map<ObjectId, ManageableHistoricalTimeSeries> test = _htsMaster.getTimeSeries(Arrays.asList(oid101, oid102), vc, filter);
+    assertEquals(2, test.size());
+    assertEquals(_htsMaster.getTimeSeries(oid101, vc, filter), test.get(oid101));
+    assertEquals(0, test.get(oid102).getTimeSeries().size());
+  }
+
   //-------------------------------------------------------------------------
   @Test
   public void test_toString() {
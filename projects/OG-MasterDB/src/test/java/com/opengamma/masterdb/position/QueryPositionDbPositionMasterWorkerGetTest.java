@@ -5,13 +5,21 @@
  */
 package com.opengamma.masterdb.position;
 
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import java.util.Arrays;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
 
 import com.opengamma.DataNotFoundException;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.position.PositionDocument;
 import com.opengamma.util.test.DbTest;
 import com.opengamma.util.test.TestGroup;
@@ -91,4 +99,27 @@ public class QueryPositionDbPositionMasterWorkerGetTest extends AbstractDbPositi
     assert222(test);
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_getPosition_bulk_uniqueIds() {
+    UniqueId notFound = UniqueId.of("DbPos", "0");
+    Map<UniqueId, PositionDocument> test = _posMaster.get(Arrays.asList(UniqueId.of("DbPos", "121", "0"), UniqueId.of("DbPos", "221", "0"), UniqueId.of("DbPos", "221"), notFound));
+    assertEquals(3, test.size());
+    assert121(test.get(UniqueId.of("DbPos", "121", "0")));
+    assert221(test.get(UniqueId.of("DbPos", "221", "0")));
+    assert222(test.get(UniqueId.of("DbPos", "221")));
+    assertFalse(test.containsKey(notFound));
+  }
+
+  @Test
+  public void test_getPosition_bulk_objectIds() {
+    ObjectId notFound = ObjectId.of("DbPos", "0");
+    Map<ObjectId, PositionDocument> test = _posMaster.get(Arrays.asList(ObjectId.of("DbPos", "121"), ObjectId.of("DbPos", "122"), ObjectId.of("DbPos", "221"), notFound), VersionCorrection.LATEST);
+    assertEquals(3, test.size());
+    assert121(test.get(ObjectId.of("DbPos", "121")));
+    assert122(test.get(ObjectId.of("DbPos", "122")));
+    assert222(test.get(ObjectId.of("DbPos", "221")));
+    assertFalse(test.containsKey(notFound));
+  }
+
 }
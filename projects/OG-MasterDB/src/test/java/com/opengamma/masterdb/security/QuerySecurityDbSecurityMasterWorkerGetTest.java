@@ -5,13 +5,21 @@
  */
 package com.opengamma.masterdb.security;
 
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import java.util.Arrays;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
 
 import com.opengamma.DataNotFoundException;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.security.SecurityDocument;
 import com.opengamma.util.test.DbTest;
 import com.opengamma.util.test.TestGroup;
@@ -91,4 +99,27 @@ public class QuerySecurityDbSecurityMasterWorkerGetTest extends AbstractDbSecuri
     assert202(test);
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_getSecurity_bulk_uniqueIds() {
+    UniqueId notFound = UniqueId.of("DbSec", "0");
+    Map<UniqueId, SecurityDocument> test = _secMaster.get(Arrays.asList(UniqueId.of("DbSec", "101", "0"), UniqueId.of("DbSec", "201", "0"), UniqueId.of("DbSec", "201"), notFound));
+    assertEquals(3, test.size());
+    assert101(test.get(UniqueId.of("DbSec", "101", "0")));
+    assert201(test.get(UniqueId.of("DbSec", "201", "0")));
+    assert202(test.get(UniqueId.of("DbSec", "201")));
+    assertFalse(test.containsKey(notFound));
+  }
+
+  @Test
+  public void test_getSecurity_bulk_objectIds() {
+    ObjectId notFound = ObjectId.of("DbSec", "0");
+    Map<ObjectId, SecurityDocument> test = _secMaster.get(Arrays.asList(ObjectId.of("DbSec", "101"), ObjectId.of("DbSec", "102"), ObjectId.of("DbSec", "201"), notFound), VersionCorrection.LATEST);
+    assertEquals(3, test.size());
+    assert101(test.get(ObjectId.of("DbSec", "101")));
+    assert102(test.get(ObjectId.of("DbSec", "102")));
+    assert202(test.get(ObjectId.of("DbSec", "201")));
+    assertFalse(test.containsKey(notFound));
+  }
+
 }
@@ -0,0 +1,556 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.timeseries.date.localdate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.opengamma.timeseries.DoubleTimeSeriesOperators;
+import com.opengamma.timeseries.DoubleTimeSeriesOperators.BinaryOperator;
+import com.opengamma.timeseries.DoubleTimeSeriesOperators.UnaryOperator;
+import com.opengamma.timeseries.TimeSeriesException;
+
+/**
+ * A lazy expression over {@code LocalDateDoubleTimeSeries} that is evaluated in a single pass.
+ * <p>
+ * Chaining operations such as {@code a.subtract(b).divide(b).log().multiply(100)} on the
+ * series themselves aligns the dates and allocates new arrays at each step.
+ * The same chain built as an expression records the operations instead, and {@link #evaluate()}
+ * then aligns all the input series once and computes each result value by applying the
+ * whole chain, writing only the final times and values arrays.
+ * <p>
+ * The result is the same as applying the operations in turn on the series.
+ * Binary operations between series use the intersection of the dates, as per
+ * {@link LocalDateDoubleTimeSeries#operate(com.opengamma.timeseries.date.DateDoubleTimeSeries, BinaryOperator)},
+ * so the result contains the dates present in every input.
+ * A lagged input, see {@link #of(LocalDateDoubleTimeSeries, int)}, behaves as
+ * {@link LocalDateDoubleTimeSeries#lag(int)} without copying the series.
+ * <p>
+ * Many independent expressions, such as the returns of each of a set of risk factors,
+ * can be evaluated in parallel using {@link #evaluate(List, ExecutorService)}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public abstract class LocalDateDoubleTimeSeriesExpression {
+
+  /**
+   * Restricted constructor.
+   */
+  LocalDateDoubleTimeSeriesExpression() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an expression for an input series.
+   *
+   * @param series  the series, not null
+   * @return the expression, not null
+   */
+  public static LocalDateDoubleTimeSeriesExpression of(LocalDateDoubleTimeSeries series) {
+    return of(series, 0);
+  }
+
+  /**
+   * Obtains an expression for an input series lagged by a number of points.
+   * <p>
+   * As per {@link LocalDateDoubleTimeSeries#lag(int)}, a positive lag pairs each date
+   * with the value of the previous point, so {@code of(ts).divide(of(ts, 1))} is the
+   * ratio of each value to the value before it.
+   *
+   * @param series  the series, not null
+   * @param lag  the number of points to lag by
+   * @return the expression, not null
+   */
+  public static LocalDateDoubleTimeSeriesExpression of(LocalDateDoubleTimeSeries series, int lag) {
+    Objects.requireNonNull(series, "series");
+    return new Input(series, lag);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Applies a unary operator to each value.
+   *
+   * @param operator  the operator, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression operate(UnaryOperator operator) {
+    Objects.requireNonNull(operator, "operator");
+    return new Unary(this, operator);
+  }
+
+  /**
+   * Applies a binary operator to each value and a constant.
+   *
+   * @param other  the constant second parameter of the operator
+   * @param operator  the operator, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression operate(double other, BinaryOperator operator) {
+    Objects.requireNonNull(operator, "operator");
+    return new Scalar(this, other, operator);
+  }
+
+  /**
+   * Applies a binary operator to the values of this and another expression on their common dates.
+   *
+   * @param other  the expression providing the second parameter of the operator, not null
+   * @param operator  the operator, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression operate(LocalDateDoubleTimeSeriesExpression other, BinaryOperator operator) {
+    Objects.requireNonNull(other, "other");
+    Objects.requireNonNull(operator, "operator");
+    return new Binary(this, other, operator);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a constant to each value.
+   *
+   * @param amountToAdd  the amount to add
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression add(double amountToAdd) {
+    return operate(amountToAdd, DoubleTimeSeriesOperators.ADD_OPERATOR);
+  }
+
+  /**
+   * Adds the values of another expression on the common dates.
+   *
+   * @param other  the expression to add, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression add(LocalDateDoubleTimeSeriesExpression other) {
+    return operate(other, DoubleTimeSeriesOperators.ADD_OPERATOR);
+  }
+
+  /**
+   * Subtracts a constant from each value.
+   *
+   * @param amountToSubtract  the amount to subtract
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression subtract(double amountToSubtract) {
+    return operate(amountToSubtract, DoubleTimeSeriesOperators.SUBTRACT_OPERATOR);
+  }
+
+  /**
+   * Subtracts the values of another expression on the common dates.
+   *
+   * @param other  the expression to subtract, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression subtract(LocalDateDoubleTimeSeriesExpression other) {
+    return operate(other, DoubleTimeSeriesOperators.SUBTRACT_OPERATOR);
+  }
+
+  /**
+   * Multiplies each value by a constant.
+   *
+   * @param amountToMultiplyBy  the amount to multiply by
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression multiply(double amountToMultiplyBy) {
+    return operate(amountToMultiplyBy, DoubleTimeSeriesOperators.MULTIPLY_OPERATOR);
+  }
+
+  /**
+   * Multiplies by the values of another expression on the common dates.
+   *
+   * @param other  the expression to multiply by, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression multiply(LocalDateDoubleTimeSeriesExpression other) {
+    return operate(other, DoubleTimeSeriesOperators.MULTIPLY_OPERATOR);
+  }
+
+  /**
+   * Divides each value by a constant.
+   *
+   * @param amountToDivideBy  the amount to divide by
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression divide(double amountToDivideBy) {
+    return operate(amountToDivideBy, DoubleTimeSeriesOperators.DIVIDE_OPERATOR);
+  }
+
+  /**
+   * Divides by the values of another expression on the common dates.
+   *
+   * @param other  the expression to divide by, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression divide(LocalDateDoubleTimeSeriesExpression other) {
+    return operate(other, DoubleTimeSeriesOperators.DIVIDE_OPERATOR);
+  }
+
+  /**
+   * Raises each value to a power.
+   *
+   * @param power  the power
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression power(double power) {
+    return operate(power, DoubleTimeSeriesOperators.POWER_OPERATOR);
+  }
+
+  /**
+   * Takes the minimum of the values of this and another expression on the common dates.
+   *
+   * @param other  the other expression, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression minimum(LocalDateDoubleTimeSeriesExpression other) {
+    return operate(other, DoubleTimeSeriesOperators.MINIMUM_OPERATOR);
+  }
+
+  /**
+   * Takes the maximum of the values of this and another expression on the common dates.
+   *
+   * @param other  the other expression, not null
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression maximum(LocalDateDoubleTimeSeriesExpression other) {
+    return operate(other, DoubleTimeSeriesOperators.MAXIMUM_OPERATOR);
+  }
+
+  /**
+   * Negates each value.
+   *
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression negate() {
+    return operate(DoubleTimeSeriesOperators.NEGATE_OPERATOR);
+  }
+
+  /**
+   * Takes the reciprocal of each value.
+   *
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression reciprocal() {
+    return operate(DoubleTimeSeriesOperators.RECIPROCAL_OPERATOR);
+  }
+
+  /**
+   * Takes the natural logarithm of each value.
+   *
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression log() {
+    return operate(DoubleTimeSeriesOperators.LOG_OPERATOR);
+  }
+
+  /**
+   * Takes the base 10 logarithm of each value.
+   *
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression log10() {
+    return operate(DoubleTimeSeriesOperators.LOG10_OPERATOR);
+  }
+
+  /**
+   * Takes the absolute value of each value.
+   *
+   * @return the expression, not null
+   */
+  public LocalDateDoubleTimeSeriesExpression abs() {
+    return operate(DoubleTimeSeriesOperators.ABS_OPERATOR);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Evaluates the expression.
+   *
+   * @return the resulting series, not null
+   */
+  public LocalDateDoubleTimeSeries evaluate() {
+    // fetch the arrays of each distinct series once, even if used in several inputs
+    Map<LocalDateDoubleTimeSeries, SeriesArrays> arrays = new IdentityHashMap<>();
+    List<Column> columns = new ArrayList<>();
+    Node root = bind(arrays, columns);
+    int[] times = align(columns);
+    double[] values = new double[times.length];
+    for (int row = 0; row < values.length; row++) {
+      values[row] = root.value(row);
+    }
+    return new ImmutableLocalDateDoubleTimeSeries(times, values);
+  }
+
+  /**
+   * Evaluates a list of independent expressions, in parallel if an executor is provided.
+   *
+   * @param expressions  the expressions, not null
+   * @param executor  the executor to evaluate the expressions with, null to evaluate them in the calling thread
+   * @return the resulting series, in the order of the expressions, not null
+   */
+  public static List<LocalDateDoubleTimeSeries> evaluate(List<? extends LocalDateDoubleTimeSeriesExpression> expressions, ExecutorService executor) {
+    Objects.requireNonNull(expressions, "expressions");
+    List<LocalDateDoubleTimeSeries> results = new ArrayList<>(expressions.size());
+    if (executor == null || expressions.size() < 2) {
+      for (LocalDateDoubleTimeSeriesExpression expression : expressions) {
+        results.add(expression.evaluate());
+      }
+      return results;
+    }
+    List<Callable<LocalDateDoubleTimeSeries>> tasks = new ArrayList<>(expressions.size());
+    for (final LocalDateDoubleTimeSeriesExpression expression : expressions) {
+      tasks.add(new Callable<LocalDateDoubleTimeSeries>() {
+        @Override
+        public LocalDateDoubleTimeSeries call() {
+          return expression.evaluate();
+        }
+      });
+    }
+    try {
+      for (Future<LocalDateDoubleTimeSeries> future : executor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TimeSeriesException(ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new TimeSeriesException(ex.getCause());
+    }
+    return results;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates the evaluation tree for this expression, registering the input columns.
+   *
+   * @param arrays  the arrays of the series seen so far, not null
+   * @param columns  the columns, added to, not null
+   * @return the evaluation node, not null
+   */
+  abstract Node bind(Map<LocalDateDoubleTimeSeries, SeriesArrays> arrays, List<Column> columns);
+
+  /**
+   * Aligns the columns on their common dates, setting the row indices of each column.
+   *
+   * @param columns  the columns, not empty
+   * @return the common dates, not null
+   */
+  private static int[] align(List<Column> columns) {
+    Column first = columns.get(0);
+    boolean identical = true;
+    for (Column column : columns) {
+      identical &= (column._times == first._times && column._timesStart == first._timesStart && column._length == first._length);
+    }
+    if (identical) {
+      // common case of one series, or series already aligned by an earlier calculation
+      if (first._timesStart == 0 && first._length == first._times.length) {
+        return first._times;
+      }
+      return Arrays.copyOfRange(first._times, first._timesStart, first._timesStart + first._length);
+    }
+    int count = columns.size();
+    int maxRows = Integer.MAX_VALUE;
+    for (Column column : columns) {
+      maxRows = Math.min(maxRows, column._length);
+    }
+    int[] times = new int[maxRows];
+    int[] positions = new int[count];
+    for (Column column : columns) {
+      column._rows = new int[maxRows];
+    }
+    int rows = 0;
+    outer:
+    while (true) {
+      // find the latest of the current dates, then move every column up to it
+      int target = Integer.MIN_VALUE;
+      for (int i = 0; i < count; i++) {
+        Column column = columns.get(i);
+        if (positions[i] >= column._length) {
+          break outer;
+        }
+        target = Math.max(target, column._times[column._timesStart + positions[i]]);
+      }
+      boolean matched = true;
+      for (int i = 0; i < count; i++) {
+        Column column = columns.get(i);
+        while (positions[i] < column._length && column._times[column._timesStart + positions[i]] < target) {
+          positions[i]++;
+        }
+        if (positions[i] >= column._length) {
+          break outer;
+        }
+        matched &= (column._times[column._timesStart + positions[i]] == target);
+      }
+      if (matched) {
+        times[rows] = target;
+        for (int i = 0; i < count; i++) {
+          columns.get(i)._rows[rows] = positions[i]++;
+        }
+        rows++;
+      }
+    }
+    return Arrays.copyOf(times, rows);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The times and values arrays of an input series.
+   */
+  static final class SeriesArrays {
+    private final int[] _times;
+    private final double[] _values;
+
+    SeriesArrays(LocalDateDoubleTimeSeries series) {
+      if (series instanceof AbstractLocalDateDoubleTimeSeries) {
+        // implementations are immutable, so the internal arrays can be read directly
+        AbstractLocalDateDoubleTimeSeries abstractSeries = (AbstractLocalDateDoubleTimeSeries) series;
+        _times = abstractSeries.timesArrayFast0();
+        _values = abstractSeries.valuesArrayFast0();
+      } else {
+        _times = series.timesArrayFast();
+        _values = series.valuesArrayFast();
+      }
+    }
+  }
+
+  /**
+   * A node of an evaluation tree, returning the value for a row of the aligned inputs.
+   */
+  abstract static class Node {
+    abstract double value(int row);
+  }
+
+  /**
+   * An input column, holding its alignment for the duration of one evaluation.
+   */
+  static final class Column extends Node {
+    private final int[] _times;
+    private final int _timesStart;
+    private final double[] _values;
+    private final int _valuesStart;
+    private final int _length;
+    /** The position in the column of each aligned row, null if the rows are the positions. */
+    private int[] _rows;
+
+    Column(SeriesArrays arrays, int lag) {
+      int size = arrays._times.length;
+      _times = arrays._times;
+      _values = arrays._values;
+      _length = Math.max(size - Math.abs(lag), 0);
+      _timesStart = Math.min(Math.max(lag, 0), size);
+      _valuesStart = Math.min(Math.max(-lag, 0), size);
+    }
+
+    @Override
+    double value(int row) {
+      return _values[_valuesStart + (_rows != null ? _rows[row] : row)];
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  private static final class Input extends LocalDateDoubleTimeSeriesExpression {
+    private final LocalDateDoubleTimeSeries _series;
+    private final int _lag;
+
+    Input(LocalDateDoubleTimeSeries series, int lag) {
+      _series = series;
+      _lag = lag;
+    }
+
+    @Override
+    Node bind(Map<LocalDateDoubleTimeSeries, SeriesArrays> arrays, List<Column> columns) {
+      SeriesArrays seriesArrays = arrays.get(_series);
+      if (seriesArrays == null) {
+        seriesArrays = new SeriesArrays(_series);
+        arrays.put(_series, seriesArrays);
+      }
+      Column column = new Column(seriesArrays, _lag);
+      columns.add(column);
+      return column;
+    }
+  }
+
+  private static final class Unary extends LocalDateDoubleTimeSeriesExpression {
+    private final LocalDateDoubleTimeSeriesExpression _operand;
+    private final UnaryOperator _operator;
+
+    Unary(LocalDateDoubleTimeSeriesExpression operand, UnaryOperator operator) {
+      _operand = operand;
+      _operator = operator;
+    }
+
+    @Override
+    Node bind(Map<LocalDateDoubleTimeSeries, SeriesArrays> arrays, List<Column> columns) {
+      final Node operand = _operand.bind(arrays, columns);
+      final UnaryOperator operator = _operator;
+      return new Node() {
+        @Override
+        double value(int row) {
+          return operator.operate(operand.value(row));
+        }
+      };
+    }
+  }
+
+  private static final class Scalar extends LocalDateDoubleTimeSeriesExpression {
+    private final LocalDateDoubleTimeSeriesExpression _operand;
+    private final double _other;
+    private final BinaryOperator _operator;
+
+    Scalar(LocalDateDoubleTimeSeriesExpression operand, double other, BinaryOperator operator) {
+      _operand = operand;
+      _other = other;
+      _operator = operator;
+    }
+
+    @Override
+    Node bind(Map<LocalDateDoubleTimeSeries, SeriesArrays> arrays, List<Column> columns) {
+      final Node operand = _operand.bind(arrays, columns);
+      final double other = _other;
+      final BinaryOperator operator = _operator;
+      return new Node() {
+        @Override
+        double value(int row) {
+          return operator.operate(operand.value(row), other);
+        }
+      };
+    }
+  }
+
+  private static final class Binary extends LocalDateDoubleTimeSeriesExpression {
+    private final LocalDateDoubleTimeSeriesExpression _first;
+    private final LocalDateDoubleTimeSeriesExpression _second;
+    private final BinaryOperator _operator;
+
+    Binary(LocalDateDoubleTimeSeriesExpression first, LocalDateDoubleTimeSeriesExpression second, BinaryOperator operator) {
+      _first = first;
+      _second = second;
+      _operator = operator;
+    }
+
+    @Override
+    Node bind(Map<LocalDateDoubleTimeSeries, SeriesArrays> arrays, List<Column> columns) {
+      final Node first = _first.bind(arrays, columns);
+      final Node second = _second.bind(arrays, columns);
+      final BinaryOperator operator = _operator;
+      return new Node() {
+        @Override
+        double value(int row) {
+          return operator.operate(first.value(row), second.value(row));
+        }
+      };
+    }
+  }
+
+}
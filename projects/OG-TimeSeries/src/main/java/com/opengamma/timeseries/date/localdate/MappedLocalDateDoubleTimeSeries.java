@@ -0,0 +1,289 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.timeseries.date.localdate;
+
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.timeseries.DoubleTimeSeriesOperators.BinaryOperator;
+import com.opengamma.timeseries.DoubleTimeSeriesOperators.UnaryOperator;
+
+/**
+ * Immutable implementation of {@code LocalDateDoubleTimeSeries} that views
+ * dates and values held in buffers, typically regions of a memory-mapped file.
+ * <p>
+ * Point access, sub-series, head and tail read directly from the buffers without copying.
+ * Operations that produce new values return an {@link ImmutableLocalDateDoubleTimeSeries}.
+ * The buffers must not be modified once the view has been created.
+ * When serialized, the series is written as an {@code ImmutableLocalDateDoubleTimeSeries}.
+ */
+public final class MappedLocalDateDoubleTimeSeries
+    extends AbstractLocalDateDoubleTimeSeries
+    implements LocalDateDoubleTimeSeries, Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The times in the series, from index zero to the limit.
+   */
+  private final IntBuffer _times;
+  /**
+   * The values in the series, from index zero to the limit.
+   */
+  private final DoubleBuffer _values;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a time-series viewing the remaining elements of matching buffers of dates and values.
+   * <p>
+   * The dates must be in the format of {@link LocalDateToIntConverter} and be ordered.
+   * The ordering is not validated, as that would require reading the whole buffer.
+   * The position and limit of the buffers passed in are not altered.
+   *
+   * @param dates  the date buffer, not null
+   * @param values  the value buffer, not null
+   * @return the time-series, not null
+   */
+  public static MappedLocalDateDoubleTimeSeries of(IntBuffer dates, DoubleBuffer values) {
+    Objects.requireNonNull(dates, "dates");
+    Objects.requireNonNull(values, "values");
+    if (dates.remaining() != values.remaining()) {
+      throw new IllegalArgumentException("Buffers are of different sizes: " + dates.remaining() + ", " + values.remaining());
+    }
+    return new MappedLocalDateDoubleTimeSeries(dates.slice(), values.slice());
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param times  the times, not null
+   * @param values  the values, not null
+   */
+  private MappedLocalDateDoubleTimeSeries(IntBuffer times, DoubleBuffer values) {
+    _times = times;
+    _values = values;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  int[] timesArrayFast0() {
+    int[] times = new int[_times.limit()];
+    _times.duplicate().get(times);
+    return times;
+  }
+
+  @Override
+  double[] valuesArrayFast0() {
+    double[] values = new double[_values.limit()];
+    _values.duplicate().get(values);
+    return values;
+  }
+
+  @Override
+  LocalDateDoubleTimeSeries newInstanceFast(int[] times, double[] values) {
+    return new ImmutableLocalDateDoubleTimeSeries(times, values);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int size() {
+    return _times.limit();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean containsTime(int date) {
+    return binarySearch(date) >= 0;
+  }
+
+  @Override
+  public Double getValue(int date) {
+    int binarySearch = binarySearch(date);
+    if (binarySearch >= 0) {
+      return _values.get(binarySearch);
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public int getTimeAtIndexFast(int index) {
+    return _times.get(index);
+  }
+
+  @Override
+  public double getValueAtIndexFast(int index) {
+    return _values.get(index);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int getEarliestTimeFast() {
+    if (isEmpty()) {
+      throw new NoSuchElementException("Series is empty");
+    }
+    return _times.get(0);
+  }
+
+  @Override
+  public double getEarliestValueFast() {
+    if (isEmpty()) {
+      throw new NoSuchElementException("Series is empty");
+    }
+    return _values.get(0);
+  }
+
+  @Override
+  public int getLatestTimeFast() {
+    if (isEmpty()) {
+      throw new NoSuchElementException("Series is empty");
+    }
+    return _times.get(_times.limit() - 1);
+  }
+
+  @Override
+  public double getLatestValueFast() {
+    if (isEmpty()) {
+      throw new NoSuchElementException("Series is empty");
+    }
+    return _values.get(_values.limit() - 1);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int[] timesArrayFast() {
+    return timesArrayFast0();
+  }
+
+  @Override
+  public double[] valuesArrayFast() {
+    return valuesArrayFast0();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDateDoubleTimeSeries subSeriesFast(int startTime, int endTime) {
+    if (isEmpty()) {
+      return ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES;
+    }
+    int size = size();
+    int startPos = binarySearch(startTime);
+    int endPos = (endTime == Integer.MIN_VALUE) ? size : binarySearch(endTime);
+    startPos = startPos >= 0 ? startPos : -(startPos + 1);
+    endPos = endPos >= 0 ? endPos : -(endPos + 1);
+    if (endPos > size) {
+      endPos = size;
+    }
+    if (endPos < startPos) {
+      endPos = startPos;
+    }
+    return slice(startPos, endPos);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDateDoubleTimeSeries head(int numItems) {
+    if (numItems >= size()) {
+      return this;
+    }
+    return slice(0, numItems);
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries tail(int numItems) {
+    int size = size();
+    if (numItems >= size) {
+      return this;
+    }
+    return slice(size - numItems, size);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public ImmutableLocalDateDoubleTimeSeries newInstance(LocalDate[] dates, Double[] values) {
+    return ImmutableLocalDateDoubleTimeSeries.of(dates, values);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDateDoubleTimeSeries operate(UnaryOperator operator) {
+    double[] valuesArray = valuesArrayFast0();
+    for (int i = 0; i < valuesArray.length; i++) {
+      valuesArray[i] = operator.operate(valuesArray[i]);
+    }
+    return new ImmutableLocalDateDoubleTimeSeries(timesArrayFast0(), valuesArray);
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries operate(double other, BinaryOperator operator) {
+    double[] valuesArray = valuesArrayFast0();
+    for (int i = 0; i < valuesArray.length; i++) {
+      valuesArray[i] = operator.operate(valuesArray[i], other);
+    }
+    return new ImmutableLocalDateDoubleTimeSeries(timesArrayFast0(), valuesArray);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDateDoubleTimeSeriesBuilder toBuilder() {
+    return ImmutableLocalDateDoubleTimeSeries.builder().putAll(this);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Searches the times for the specified date, as per {@code Arrays.binarySearch}.
+   *
+   * @param date  the date to find
+   * @return the index if found, otherwise {@code -(insertion point) - 1}
+   */
+  private int binarySearch(int date) {
+    int low = 0;
+    int high = _times.limit() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midVal = _times.get(mid);
+      if (midVal < date) {
+        low = mid + 1;
+      } else if (midVal > date) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Creates a view of part of this series without copying.
+   *
+   * @param startPos  the start index, inclusive
+   * @param endPos  the end index, exclusive
+   * @return the view, not null
+   */
+  private MappedLocalDateDoubleTimeSeries slice(int startPos, int endPos) {
+    IntBuffer times = _times.duplicate();
+    times.position(startPos).limit(endPos);
+    DoubleBuffer values = _values.duplicate();
+    values.position(startPos).limit(endPos);
+    return new MappedLocalDateDoubleTimeSeries(times.slice(), values.slice());
+  }
+
+  /**
+   * Replaces the buffer-backed view with a standard series when serialized.
+   *
+   * @return the series to serialize, not null
+   */
+  private Object writeReplace() {
+    return new ImmutableLocalDateDoubleTimeSeries(timesArrayFast0(), valuesArrayFast0());
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.timeseries.date.localdate;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
+
+/**
+ * Test.
+ */
+@Test(groups = "unit")
+public class LocalDateDoubleTimeSeriesExpressionTest {
+
+  private static final LocalDate START = LocalDate.of(2013, 1, 1);
+
+  private static LocalDateDoubleTimeSeries series(int size, int step, double base) {
+    LocalDateDoubleTimeSeriesBuilder builder = ImmutableLocalDateDoubleTimeSeries.builder();
+    for (int i = 0; i < size; i++) {
+      builder.put(START.plusDays(i * step), base + i * 0.5 + (i % 3));
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_chain_matchesStepwise() {
+    LocalDateDoubleTimeSeries a = series(40, 1, 100);
+    LocalDateDoubleTimeSeries b = series(20, 2, 50);
+    LocalDateDoubleTimeSeries expected = a.subtract(b).divide(b).log().multiply(100);
+    LocalDateDoubleTimeSeriesExpression expression = LocalDateDoubleTimeSeriesExpression.of(a)
+        .subtract(LocalDateDoubleTimeSeriesExpression.of(b))
+        .divide(LocalDateDoubleTimeSeriesExpression.of(b))
+        .log()
+        .multiply(100);
+    assertEquals(expected, expression.evaluate());
+  }
+
+  public void test_threeSeries_alignedOnce() {
+    LocalDateDoubleTimeSeries a = series(60, 1, 100);
+    LocalDateDoubleTimeSeries b = series(30, 2, 50);
+    LocalDateDoubleTimeSeries c = series(20, 3, 10);
+    LocalDateDoubleTimeSeries expected = a.add(b).maximum(c).subtract(1);
+    LocalDateDoubleTimeSeriesExpression expression = LocalDateDoubleTimeSeriesExpression.of(a)
+        .add(LocalDateDoubleTimeSeriesExpression.of(b))
+        .maximum(LocalDateDoubleTimeSeriesExpression.of(c))
+        .subtract(1);
+    LocalDateDoubleTimeSeries result = expression.evaluate();
+    assertEquals(expected, result);
+    assertEquals(10, result.size());
+  }
+
+  public void test_lag_matchesStepwise() {
+    LocalDateDoubleTimeSeries prices = series(30, 1, 100);
+    LocalDateDoubleTimeSeries expected = prices.divide(prices.lag(1)).log();
+    LocalDateDoubleTimeSeriesExpression returns = LocalDateDoubleTimeSeriesExpression.of(prices)
+        .divide(LocalDateDoubleTimeSeriesExpression.of(prices, 1))
+        .log();
+    assertEquals(expected, returns.evaluate());
+    assertEquals(prices.subtract(prices.lag(-2)), LocalDateDoubleTimeSeriesExpression.of(prices)
+        .subtract(LocalDateDoubleTimeSeriesExpression.of(prices, -2)).evaluate());
+  }
+
+  public void test_singleInput() {
+    LocalDateDoubleTimeSeries a = series(10, 1, 1);
+    assertEquals(a.abs().negate().add(3), LocalDateDoubleTimeSeriesExpression.of(a).abs().negate().add(3).evaluate());
+    assertEquals(a.lag(-3).multiply(2), LocalDateDoubleTimeSeriesExpression.of(a, -3).multiply(2).evaluate());
+  }
+
+  public void test_empty() {
+    LocalDateDoubleTimeSeries a = series(10, 1, 1);
+    assertTrue(LocalDateDoubleTimeSeriesExpression.of(a).add(LocalDateDoubleTimeSeriesExpression.of(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES)).evaluate().isEmpty());
+    assertTrue(LocalDateDoubleTimeSeriesExpression.of(a, 10).evaluate().isEmpty());
+  }
+
+  public void test_lagLargerThanSize() {
+    LocalDateDoubleTimeSeries a = series(10, 1, 1);
+    assertTrue(LocalDateDoubleTimeSeriesExpression.of(a, 12).evaluate().isEmpty());
+    assertTrue(LocalDateDoubleTimeSeriesExpression.of(a, -12).evaluate().isEmpty());
+    assertTrue(LocalDateDoubleTimeSeriesExpression.of(a).subtract(LocalDateDoubleTimeSeriesExpression.of(a, 12)).evaluate().isEmpty());
+  }
+
+  public void test_evaluate_parallel() throws Exception {
+    List<LocalDateDoubleTimeSeriesExpression> expressions = new ArrayList<>();
+    List<LocalDateDoubleTimeSeries> expected = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      LocalDateDoubleTimeSeries prices = series(100 + i, 1, 10 + i);
+      expressions.add(LocalDateDoubleTimeSeriesExpression.of(prices).divide(LocalDateDoubleTimeSeriesExpression.of(prices, 1)).subtract(1));
+      expected.add(prices.divide(prices.lag(1)).subtract(1));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      assertEquals(expected, LocalDateDoubleTimeSeriesExpression.evaluate(expressions, executor));
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(expected, LocalDateDoubleTimeSeriesExpression.evaluate(expressions, null));
+  }
+
+}
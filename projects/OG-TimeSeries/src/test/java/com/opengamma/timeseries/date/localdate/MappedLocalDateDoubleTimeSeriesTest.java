@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.timeseries.date.localdate;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.timeseries.DoubleTimeSeries;
+
+/**
+ * Test.
+ */
+@Test(groups = "unit")
+public class MappedLocalDateDoubleTimeSeriesTest extends LocalDateDoubleTimeSeriesTest {
+
+  @Override
+  protected LocalDateDoubleTimeSeries createEmptyTimeSeries() {
+    return mapped(ImmutableLocalDateDoubleTimeSeries.EMPTY_SERIES);
+  }
+
+  protected LocalDateDoubleTimeSeries createStandardTimeSeries() {
+    return (LocalDateDoubleTimeSeries) super.createStandardTimeSeries();
+  }
+
+  @Override
+  protected LocalDateDoubleTimeSeries createTimeSeries(LocalDate[] times, double[] values) {
+    return mapped(ImmutableLocalDateDoubleTimeSeries.of(times, values));
+  }
+
+  @Override
+  protected LocalDateDoubleTimeSeries createTimeSeries(List<LocalDate> times, List<Double> values) {
+    return mapped(ImmutableLocalDateDoubleTimeSeries.of(times, values));
+  }
+
+  @Override
+  protected LocalDateDoubleTimeSeries createTimeSeries(DoubleTimeSeries<LocalDate> dts) {
+    return mapped(ImmutableLocalDateDoubleTimeSeries.from(dts));
+  }
+
+  private static MappedLocalDateDoubleTimeSeries mapped(LocalDateDoubleTimeSeries ts) {
+    int[] times = ts.timesArrayFast();
+    double[] values = ts.valuesArrayFast();
+    IntBuffer timesBuffer = ByteBuffer.allocateDirect(times.length * 4).asIntBuffer();
+    timesBuffer.put(times).flip();
+    DoubleBuffer valuesBuffer = ByteBuffer.allocateDirect(values.length * 8).asDoubleBuffer();
+    valuesBuffer.put(values).flip();
+    return MappedLocalDateDoubleTimeSeries.of(timesBuffer, valuesBuffer);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_of_bufferPosition() {
+    IntBuffer timesBuffer = IntBuffer.wrap(new int[] {20120629, 20120630, 20120701});
+    DoubleBuffer valuesBuffer = DoubleBuffer.wrap(new double[] {1.0, 2.0, 3.0});
+    timesBuffer.position(1);
+    valuesBuffer.position(1);
+    LocalDateDoubleTimeSeries ts = MappedLocalDateDoubleTimeSeries.of(timesBuffer, valuesBuffer);
+    assertEquals(ts.size(), 2);
+    assertEquals(ts.getTimeAtIndex(0), LocalDate.of(2012, 6, 30));
+    assertEquals(ts.getValueAtIndex(1), 3.0);
+    assertEquals(timesBuffer.position(), 1);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_of_mismatchedBuffers() {
+    MappedLocalDateDoubleTimeSeries.of(IntBuffer.wrap(new int[] {20120630}), DoubleBuffer.wrap(new double[0]));
+  }
+
+  public void test_subSeries_isView() {
+    LocalDateDoubleTimeSeries ts = createStandardTimeSeries();
+    LocalDateDoubleTimeSeries sub = ts.subSeries(ts.getTimeAtIndex(1), ts.getTimeAtIndex(4));
+    assertTrue(sub instanceof MappedLocalDateDoubleTimeSeries);
+    assertEquals(sub.size(), 3);
+    assertTrue(ts.head(2) instanceof MappedLocalDateDoubleTimeSeries);
+    assertTrue(ts.tail(2) instanceof MappedLocalDateDoubleTimeSeries);
+    assertEquals(ts.tail(2).getLatestValueFast(), ts.getLatestValueFast());
+  }
+
+  public void test_headTail_moreThanSize() {
+    LocalDateDoubleTimeSeries ts = createStandardTimeSeries();
+    assertSame(ts, ts.head(ts.size() + 1));
+    assertSame(ts, ts.tail(ts.size() + 1));
+    LocalDateDoubleTimeSeries empty = createEmptyTimeSeries();
+    assertEquals(empty.head(3).size(), 0);
+    assertEquals(empty.tail(3).size(), 0);
+  }
+
+  public void test_serialization() throws Exception {
+    LocalDateDoubleTimeSeries ts = createStandardTimeSeries();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+      out.writeObject(ts);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      Object read = in.readObject();
+      assertTrue(read instanceof ImmutableLocalDateDoubleTimeSeries);
+      assertEquals(ts, read);
+    }
+  }
+
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.util;
+
+import java.util.Arrays;
+
+/**
+ * Compact binary encodings of related numbers, such as the times and values of a time-series.
+ * <p>
+ * Integers are written as variable length integers of seven bits per byte, least significant first.
+ * Signed integers are zig-zag encoded first, so that small negative numbers are also short.
+ * <p>
+ * Doubles are written as the bitwise XOR with the previous double written, as a control byte
+ * holding the number of leading zero bytes and the number of meaningful bytes, followed by
+ * the meaningful bytes. A double equal to the previous one takes a single byte and a series
+ * of close doubles takes a few bytes each.
+ * <p>
+ * This is a thread-safe static utility class, whose writer and reader are not thread-safe.
+ */
+public final class CompactEncoding {
+
+  /**
+   * Restricted constructor.
+   */
+  private CompactEncoding() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Zig-zag encodes a signed integer, so that small negative numbers become small positive numbers.
+   *
+   * @param value  the value
+   * @return the encoded value
+   */
+  public static long zigZag(final long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  /**
+   * Decodes a zig-zag encoded integer.
+   *
+   * @param value  the encoded value
+   * @return the value
+   */
+  public static long unZigZag(final long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Growable buffer of compactly encoded numbers.
+   */
+  public static final class Writer {
+    private byte[] _bytes;
+    private int _size;
+    private long _previousBits;
+
+    /**
+     * Creates an instance.
+     *
+     * @param capacity  the initial capacity in bytes, greater than zero
+     */
+    public Writer(final int capacity) {
+      ArgumentChecker.notNegativeOrZero(capacity, "capacity");
+      _bytes = new byte[capacity];
+    }
+
+    /**
+     * Writes an unsigned variable length integer.
+     *
+     * @param value  the value, treated as unsigned
+     */
+    public void writeVarLong(final long value) {
+      long remaining = value;
+      while ((remaining & ~0x7FL) != 0) {
+        write((int) ((remaining & 0x7F) | 0x80));
+        remaining >>>= 7;
+      }
+      write((int) remaining);
+    }
+
+    /**
+     * Writes a signed variable length integer.
+     *
+     * @param value  the value
+     */
+    public void writeSignedVarLong(final long value) {
+      writeVarLong(zigZag(value));
+    }
+
+    /**
+     * Writes a double as the XOR with the previous double written by this writer.
+     *
+     * @param value  the value
+     */
+    public void writeXorDouble(final double value) {
+      final long bits = Double.doubleToRawLongBits(value);
+      final long xor = bits ^ _previousBits;
+      _previousBits = bits;
+      if (xor == 0) {
+        write(0);
+        return;
+      }
+      final int leading = Long.numberOfLeadingZeros(xor) / 8;
+      final int trailing = Long.numberOfTrailingZeros(xor) / 8;
+      final int meaningful = 8 - leading - trailing;
+      write((leading << 4) | meaningful);
+      for (int j = meaningful - 1; j >= 0; j--) {
+        write((int) (xor >>> (8 * (trailing + j))));
+      }
+    }
+
+    private void write(final int b) {
+      if (_size == _bytes.length) {
+        _bytes = Arrays.copyOf(_bytes, _bytes.length * 2);
+      }
+      _bytes[_size++] = (byte) b;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the number of bytes
+     */
+    public int size() {
+      return _size;
+    }
+
+    /**
+     * Gets the bytes written.
+     *
+     * @return a copy of the bytes, not null
+     */
+    public byte[] toByteArray() {
+      return Arrays.copyOf(_bytes, _size);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Reader of numbers written by {@link Writer}.
+   * <p>
+   * The read methods throw {@code IllegalArgumentException} if the bytes are invalid.
+   */
+  public static final class Reader {
+    private final byte[] _bytes;
+    private int _position;
+    private long _previousBits;
+
+    /**
+     * Creates an instance.
+     *
+     * @param bytes  the encoded bytes, not null
+     */
+    public Reader(final byte[] bytes) {
+      ArgumentChecker.notNull(bytes, "bytes");
+      _bytes = bytes;
+    }
+
+    /**
+     * Reads an unsigned variable length integer.
+     *
+     * @return the value, treated as unsigned
+     */
+    public long readVarLong() {
+      long value = 0;
+      int shift = 0;
+      int b;
+      do {
+        if (shift > 63) {
+          throw new IllegalArgumentException("Invalid variable length integer");
+        }
+        b = read();
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+
+    /**
+     * Reads a signed variable length integer.
+     *
+     * @return the value
+     */
+    public long readSignedVarLong() {
+      return unZigZag(readVarLong());
+    }
+
+    /**
+     * Reads a double written as the XOR with the previous double.
+     *
+     * @return the value
+     */
+    public double readXorDouble() {
+      final int control = read();
+      if (control != 0) {
+        final int leading = control >>> 4;
+        final int meaningful = control & 0xF;
+        if (meaningful == 0 || leading + meaningful > 8) {
+          throw new IllegalArgumentException("Invalid encoded double");
+        }
+        long xor = 0;
+        for (int j = 0; j < meaningful; j++) {
+          xor = (xor << 8) | read();
+        }
+        _previousBits ^= xor << (8 * (8 - leading - meaningful));
+      }
+      return Double.longBitsToDouble(_previousBits);
+    }
+
+    private int read() {
+      if (_position >= _bytes.length) {
+        throw new IllegalArgumentException("Unexpected end of encoded data");
+      }
+      return _bytes[_position++] & 0xFF;
+    }
+
+    /**
+     * Gets the number of bytes not yet read.
+     *
+     * @return the number of bytes
+     */
+    public int remaining() {
+      return _bytes.length - _position;
+    }
+  }
+
+}
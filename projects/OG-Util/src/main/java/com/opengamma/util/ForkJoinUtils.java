@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Utility methods for splitting work over a fork/join pool.
+ * <p>
+ * This is a thread-safe static utility class.
+ */
+public final class ForkJoinUtils {
+
+  /**
+   * Restricted constructor.
+   */
+  private ForkJoinUtils() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * A unit of work identified by its index.
+   */
+  public interface IndexedTask {
+
+    /**
+     * Performs the work for one index.
+     *
+     * @param index  the index, from zero to the task count exclusive
+     */
+    void execute(int index);
+
+  }
+
+  /**
+   * Performs a number of independent tasks, in parallel if a pool is provided.
+   * <p>
+   * Each index from zero to the count exclusive is passed to the task exactly once.
+   * The tasks run on the calling thread, in index order, if the pool is null or there is only one task.
+   * Otherwise they are forked on the pool and this method returns when all have completed.
+   * An exception thrown by a task is rethrown to the caller.
+   *
+   * @param pool  the pool, null to run on the calling thread
+   * @param count  the number of tasks, not negative
+   * @param task  the task, not null
+   */
+  public static void invokeAll(final ForkJoinPool pool, final int count, final IndexedTask task) {
+    ArgumentChecker.notNegative(count, "count");
+    ArgumentChecker.notNull(task, "task");
+    if (pool == null || count < 2) {
+      for (int i = 0; i < count; i++) {
+        task.execute(i);
+      }
+      return;
+    }
+    final List<RecursiveAction> actions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final int index = i;
+      actions.add(new RecursiveAction() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+          task.execute(index);
+        }
+      });
+    }
+    pool.invoke(new RecursiveAction() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected void compute() {
+        invokeAll(actions);
+      }
+    });
+  }
+
+}
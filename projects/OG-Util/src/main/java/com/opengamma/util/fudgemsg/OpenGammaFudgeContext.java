@@ -38,6 +38,7 @@ import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
 import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
 import com.opengamma.timeseries.precise.zdt.ImmutableZonedDateTimeDoubleTimeSeries;
+import com.opengamma.util.fudgemsg.timeseries.DoubleTimeSeriesFudgeBuilder;
 
 /**
  * Provides a shared singleton {@code FudgeContext} for use throughout OpenGamma.
@@ -45,9 +46,20 @@ import com.opengamma.timeseries.precise.zdt.ImmutableZonedDateTimeDoubleTimeSeri
  * The {@code FudgeContext} is a low-level object necessary to use the Fudge messaging system.
  * Providing the context to Fudge on demand would clutter code and configuration.
  * This class instead provides a singleton that can be used whenever necessary.
+ * <p>
+ * Time-series are written in the compact form of {@link DoubleTimeSeriesFudgeBuilder} if the
+ * {@link #COMPACT_TIME_SERIES_PROPERTY} system property is set to true.
  */
 public final class OpenGammaFudgeContext {
 
+  /**
+   * The system property enabling the compact encoding of time-series, false by default.
+   * <p>
+   * The compact form is always read, but versions that predate it cannot read it, so the property
+   * should be set on both ends, the servers and their clients, once they have all been upgraded.
+   */
+  public static final String COMPACT_TIME_SERIES_PROPERTY = "opengamma.fudge.compactTimeSeries";
+
   /** Logger. */
   private static final Logger s_logger = LoggerFactory.getLogger(OpenGammaFudgeContext.class);
 
@@ -119,10 +131,27 @@ public final class OpenGammaFudgeContext {
       td.registerClassRename("com.opengamma.id.IdentifierWithDates", ExternalIdWithDates.class);
       td.registerClassRename("com.opengamma.id.ObjectIdentifier", ObjectId.class);
       td.registerClassRename("com.opengamma.id.UniqueIdentifier", UniqueId.class);
+      
+      registerTimeSeriesEncoding(fudgeContext);
       return fudgeContext;
     }
   }
 
+  /**
+   * Registers the compact time-series encoding in a context if enabled by the {@link #COMPACT_TIME_SERIES_PROPERTY} system property.
+   * 
+   * @param fudgeContext  the context, not null
+   * @return true if the compact encoding was registered
+   */
+  static boolean registerTimeSeriesEncoding(FudgeContext fudgeContext) {
+    if (Boolean.getBoolean(COMPACT_TIME_SERIES_PROPERTY)) {
+      s_logger.info("Writing time-series in compact form, as set by system property {}", COMPACT_TIME_SERIES_PROPERTY);
+      DoubleTimeSeriesFudgeBuilder.registerCompactEncoding(fudgeContext);
+      return true;
+    }
+    return false;
+  }
+
   //-------------------------------------------------------------------------
   // handle non-existent classpath directory entries
   private static final class OGFileUrlType implements UrlType {
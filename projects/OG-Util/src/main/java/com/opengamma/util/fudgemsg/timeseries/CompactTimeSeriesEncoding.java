@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.util.fudgemsg.timeseries;
+
+import com.opengamma.util.CompactEncoding;
+
+/**
+ * Compact binary encodings of the times and values of a time-series, written by {@link CompactEncoding}.
+ * <p>
+ * Times are encoded as the first time, the first delta and then the change in delta
+ * between each pair of points, each as a signed variable length integer.
+ * Regularly spaced times, such as daily instants, therefore take a byte per point,
+ * and most dates in {@code LocalDateToIntConverter} form also take one byte.
+ * <p>
+ * Values are encoded by XOR with the previous value, storing only the bytes that changed.
+ * Repeated values take a single byte and slowly moving values take substantially less than eight bytes.
+ */
+final class CompactTimeSeriesEncoding {
+
+  /**
+   * Restricted constructor.
+   */
+  private CompactTimeSeriesEncoding() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Encodes dates in {@code LocalDateToIntConverter} form.
+   *
+   * @param dates  the ordered dates, not null
+   * @return the encoded bytes, not null
+   */
+  static byte[] encodeDates(int[] dates) {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(dates.length + 8);
+    long previous = 0;
+    long previousDelta = 0;
+    for (int i = 0; i < dates.length; i++) {
+      long delta = (long) dates[i] - previous;
+      out.writeSignedVarLong(delta - previousDelta);
+      previous = dates[i];
+      previousDelta = delta;
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes dates encoded by {@link #encodeDates(int[])}.
+   *
+   * @param bytes  the encoded bytes, not null
+   * @param count  the number of dates
+   * @return the dates, not null
+   */
+  static int[] decodeDates(byte[] bytes, int count) {
+    CompactEncoding.Reader in = new CompactEncoding.Reader(bytes);
+    int[] dates = new int[count];
+    long previous = 0;
+    long previousDelta = 0;
+    for (int i = 0; i < count; i++) {
+      long delta = previousDelta + in.readSignedVarLong();
+      previous += delta;
+      dates[i] = (int) previous;
+      previousDelta = delta;
+    }
+    return dates;
+  }
+
+  /**
+   * Encodes instants in epoch nanoseconds.
+   *
+   * @param instants  the ordered instants, not null
+   * @return the encoded bytes, not null
+   */
+  static byte[] encodeInstants(long[] instants) {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(instants.length + 16);
+    long previous = 0;
+    long previousDelta = 0;
+    for (int i = 0; i < instants.length; i++) {
+      // wrapping arithmetic is reversed exactly by the decoder
+      long delta = instants[i] - previous;
+      out.writeSignedVarLong(delta - previousDelta);
+      previous = instants[i];
+      previousDelta = delta;
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes instants encoded by {@link #encodeInstants(long[])}.
+   *
+   * @param bytes  the encoded bytes, not null
+   * @param count  the number of instants
+   * @return the instants, not null
+   */
+  static long[] decodeInstants(byte[] bytes, int count) {
+    CompactEncoding.Reader in = new CompactEncoding.Reader(bytes);
+    long[] instants = new long[count];
+    long previous = 0;
+    long previousDelta = 0;
+    for (int i = 0; i < count; i++) {
+      long delta = previousDelta + in.readSignedVarLong();
+      previous += delta;
+      instants[i] = previous;
+      previousDelta = delta;
+    }
+    return instants;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Encodes values by XOR with the previous value.
+   *
+   * @param values  the values, not null
+   * @return the encoded bytes, not null
+   */
+  static byte[] encodeValues(double[] values) {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(values.length * 4 + 8);
+    for (int i = 0; i < values.length; i++) {
+      out.writeXorDouble(values[i]);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes values encoded by {@link #encodeValues(double[])}.
+   *
+   * @param bytes  the encoded bytes, not null
+   * @param count  the number of values
+   * @return the values, not null
+   */
+  static double[] decodeValues(byte[] bytes, int count) {
+    CompactEncoding.Reader in = new CompactEncoding.Reader(bytes);
+    double[] values = new double[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = in.readXorDouble();
+    }
+    return values;
+  }
+
+}
@@ -5,11 +5,13 @@
  */
 package com.opengamma.util.fudgemsg.timeseries;
 
+import org.fudgemsg.FudgeContext;
 import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 import org.fudgemsg.mapping.FudgeBuilder;
 import org.fudgemsg.mapping.FudgeBuilderFor;
 import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeObjectDictionary;
 import org.fudgemsg.mapping.FudgeSerializer;
 import org.fudgemsg.wire.types.FudgeWireType;
 import org.threeten.bp.LocalDate;
@@ -19,14 +21,25 @@ import org.threeten.bp.ZoneOffset;
 import com.opengamma.timeseries.DoubleTimeSeries;
 import com.opengamma.timeseries.date.DateDoubleTimeSeries;
 import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
 import com.opengamma.timeseries.date.localdate.LocalDateToIntConverter;
 import com.opengamma.timeseries.precise.PreciseDoubleTimeSeries;
 import com.opengamma.timeseries.precise.instant.ImmutableInstantDoubleTimeSeries;
+import com.opengamma.timeseries.precise.instant.InstantDoubleTimeSeries;
 import com.opengamma.timeseries.precise.zdt.ImmutableZonedDateTimeDoubleTimeSeries;
 import com.opengamma.timeseries.precise.zdt.ZonedDateTimeDoubleTimeSeries;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
 
 /**
  * Fudge message encoder/decoder (builder) for DoubleTimeSeries
+ * <p>
+ * Series are written as plain arrays by default, as understood by earlier versions.
+ * A compact form, with the times delta encoded and the values XOR encoded, see {@link CompactTimeSeriesEncoding},
+ * is written by a builder created to do so. It can be enabled for a Fudge context once all readers
+ * of its messages understand it, see {@link #registerCompactEncoding(FudgeContext)}. The shared context
+ * does so when the {@link OpenGammaFudgeContext#COMPACT_TIME_SERIES_PROPERTY} system property is set.
+ * Both forms, and the older formats, are always read.
  */
 @FudgeBuilderFor(DoubleTimeSeries.class)
 public class DoubleTimeSeriesFudgeBuilder implements FudgeBuilder<DoubleTimeSeries<?>> {
@@ -39,12 +52,92 @@ public class DoubleTimeSeriesFudgeBuilder implements FudgeBuilder<DoubleTimeSeri
   public static final String VALUES = "values";
   /** Field name. */
   public static final String ZONE = "zone";
+  /** Field name. */
+  public static final String COUNT = "count";
+  /** Field name. */
+  public static final String COMPACT_DATES = "compactDates";
+  /** Field name. */
+  public static final String COMPACT_INSTANTS = "compactInstants";
+  /** Field name. */
+  public static final String COMPACT_VALUES = "compactValues";
+  /**
+   * The smallest series written in compact form, below which the saving is negligible.
+   */
+  private static final int COMPACT_MIN_SIZE = 8;
 
   /**
    * Singleton instance.
    */
   static final DoubleTimeSeriesFudgeBuilder INSTANCE = new DoubleTimeSeriesFudgeBuilder();
 
+  /**
+   * Whether to write the compact form.
+   */
+  private final boolean _compact;
+
+  /**
+   * Creates a builder writing plain arrays.
+   */
+  public DoubleTimeSeriesFudgeBuilder() {
+    this(false);
+  }
+
+  /**
+   * Creates a builder.
+   * 
+   * @param compact  true to write the compact form, false to write plain arrays
+   */
+  public DoubleTimeSeriesFudgeBuilder(boolean compact) {
+    _compact = compact;
+  }
+
+  /**
+   * Registers builders writing the compact form for all the time-series types in a Fudge context.
+   * <p>
+   * This replaces the builders found by annotation, which write plain arrays.
+   * It should only be used once every reader of the messages understands the compact form.
+   * 
+   * @param context  the Fudge context, not null
+   */
+  public static void registerCompactEncoding(FudgeContext context) {
+    ArgumentChecker.notNull(context, "context");
+    DoubleTimeSeriesFudgeBuilder builder = new DoubleTimeSeriesFudgeBuilder(true);
+    FudgeObjectDictionary dictionary = context.getObjectDictionary();
+    addBuilder(dictionary, DoubleTimeSeries.class, builder);
+    addBuilder(dictionary, DateDoubleTimeSeries.class, builder);
+    addBuilder(dictionary, LocalDateDoubleTimeSeries.class, builder);
+    addBuilder(dictionary, ImmutableLocalDateDoubleTimeSeries.class, builder);
+    addBuilder(dictionary, PreciseDoubleTimeSeries.class, builder);
+    addBuilder(dictionary, InstantDoubleTimeSeries.class, builder);
+    addBuilder(dictionary, ImmutableInstantDoubleTimeSeries.class, builder);
+    addBuilder(dictionary, ZonedDateTimeDoubleTimeSeries.class, builder);
+    addBuilder(dictionary, ImmutableZonedDateTimeDoubleTimeSeries.class, builder);
+  }
+
+  private static <T> void addBuilder(FudgeObjectDictionary dictionary, Class<T> type, final DoubleTimeSeriesFudgeBuilder builder) {
+    dictionary.addBuilder(type, new FudgeBuilder<T>() {
+      @Override
+      public MutableFudgeMsg buildMessage(FudgeSerializer serializer, T object) {
+        return builder.buildMessage(serializer, (DoubleTimeSeries<?>) object);
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public T buildObject(FudgeDeserializer deserializer, FudgeMsg message) {
+        return (T) builder.buildObject(deserializer, message);
+      }
+    });
+  }
+
+  /**
+   * Checks whether this builder writes the compact form.
+   * 
+   * @return true if the compact form is written
+   */
+  public boolean isCompact() {
+    return _compact;
+  }
+
   @Override
   public MutableFudgeMsg buildMessage(FudgeSerializer serializer, DoubleTimeSeries<?> object) {
     final MutableFudgeMsg message = serializer.newMessage();
@@ -62,21 +155,50 @@ public class DoubleTimeSeriesFudgeBuilder implements FudgeBuilder<DoubleTimeSeri
   }
 
   void buildMessage(final MutableFudgeMsg message, DateDoubleTimeSeries<?> series) {
-    message.add(DATES, null, FudgeWireType.INT_ARRAY, series.timesArrayFast());
-    message.add(VALUES, null, FudgeWireType.DOUBLE_ARRAY, series.valuesArrayFast());
+    if (isCompact(series)) {
+      message.add(COUNT, null, FudgeWireType.INT, series.size());
+      message.add(COMPACT_DATES, null, FudgeWireType.BYTE_ARRAY, CompactTimeSeriesEncoding.encodeDates(series.timesArrayFast()));
+      buildCompactValues(message, series.valuesArrayFast());
+    } else {
+      message.add(DATES, null, FudgeWireType.INT_ARRAY, series.timesArrayFast());
+      message.add(VALUES, null, FudgeWireType.DOUBLE_ARRAY, series.valuesArrayFast());
+    }
   }
 
   void buildMessage(final MutableFudgeMsg message, PreciseDoubleTimeSeries<?> series) {
-    message.add(INSTANTS, null, FudgeWireType.LONG_ARRAY, series.timesArrayFast());
-    message.add(VALUES, null, FudgeWireType.DOUBLE_ARRAY, series.valuesArrayFast());
+    buildInstants(message, series);
   }
 
   void buildMessage(final MutableFudgeMsg message, ZonedDateTimeDoubleTimeSeries series) {
-    message.add(INSTANTS, null, FudgeWireType.LONG_ARRAY, series.timesArrayFast());
-    message.add(VALUES, null, FudgeWireType.DOUBLE_ARRAY, series.valuesArrayFast());
+    buildInstants(message, series);
     message.add(ZONE, null, FudgeWireType.STRING, series.getZone().getId());
   }
 
+  private void buildInstants(final MutableFudgeMsg message, PreciseDoubleTimeSeries<?> series) {
+    if (isCompact(series)) {
+      message.add(COUNT, null, FudgeWireType.INT, series.size());
+      message.add(COMPACT_INSTANTS, null, FudgeWireType.BYTE_ARRAY, CompactTimeSeriesEncoding.encodeInstants(series.timesArrayFast()));
+      buildCompactValues(message, series.valuesArrayFast());
+    } else {
+      message.add(INSTANTS, null, FudgeWireType.LONG_ARRAY, series.timesArrayFast());
+      message.add(VALUES, null, FudgeWireType.DOUBLE_ARRAY, series.valuesArrayFast());
+    }
+  }
+
+  private boolean isCompact(DoubleTimeSeries<?> series) {
+    return _compact && series.size() >= COMPACT_MIN_SIZE;
+  }
+
+  private static void buildCompactValues(final MutableFudgeMsg message, double[] values) {
+    // noisy values may not compress, in which case the plain array is smaller
+    byte[] compactValues = CompactTimeSeriesEncoding.encodeValues(values);
+    if (compactValues.length < values.length * 8) {
+      message.add(COMPACT_VALUES, null, FudgeWireType.BYTE_ARRAY, compactValues);
+    } else {
+      message.add(VALUES, null, FudgeWireType.DOUBLE_ARRAY, values);
+    }
+  }
+
   @Override
   public DoubleTimeSeries<?> buildObject(FudgeDeserializer deserializer, FudgeMsg message) {
     // read old LocalDateDoubleTimeSeries, see OpenGammaFudgeContext
@@ -129,10 +251,25 @@ public class DoubleTimeSeriesFudgeBuilder implements FudgeBuilder<DoubleTimeSeri
       return ImmutableZonedDateTimeDoubleTimeSeries.of(instants, values, zone);
     }
     
-    // read new format
+    // read new format, plain or compact
     int[] dates = (int[]) message.getValue(DATES);
     long[] instants = (long[]) message.getValue(INSTANTS);
     double[] values = (double[]) message.getValue(VALUES);
+    Integer count = message.getInt(COUNT);
+    if (count != null) {
+      byte[] compactDates = (byte[]) message.getValue(COMPACT_DATES);
+      byte[] compactInstants = (byte[]) message.getValue(COMPACT_INSTANTS);
+      byte[] compactValues = (byte[]) message.getValue(COMPACT_VALUES);
+      if (compactDates != null) {
+        dates = CompactTimeSeriesEncoding.decodeDates(compactDates, count);
+      }
+      if (compactInstants != null) {
+        instants = CompactTimeSeriesEncoding.decodeInstants(compactInstants, count);
+      }
+      if (compactValues != null) {
+        values = CompactTimeSeriesEncoding.decodeValues(compactValues, count);
+      }
+    }
     String zoneId = message.getString(ZONE);
     if (dates != null) {
       return ImmutableLocalDateDoubleTimeSeries.of(dates, values);
@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.util;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test {@link CompactEncoding}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class CompactEncodingTest {
+
+  private static final long[] LONGS = {0, 1, -1, 63, -64, 64, 127, 128, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+  private static final double[] DOUBLES = {0d, 0d, 1.5d, 1.5d, 1.25d, -0.0d, Double.NaN, Double.MIN_VALUE, Double.MAX_VALUE,
+    Double.NEGATIVE_INFINITY, 100.01d, 100.02d, 0d};
+
+  //-------------------------------------------------------------------------
+  public void test_zigZag() {
+    assertEquals(0, CompactEncoding.zigZag(0));
+    assertEquals(1, CompactEncoding.zigZag(-1));
+    assertEquals(2, CompactEncoding.zigZag(1));
+    for (long value : LONGS) {
+      assertEquals(value, CompactEncoding.unZigZag(CompactEncoding.zigZag(value)));
+    }
+  }
+
+  public void test_varLong_roundTrip() {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(1);
+    for (long value : LONGS) {
+      out.writeVarLong(value);
+    }
+    CompactEncoding.Reader in = new CompactEncoding.Reader(out.toByteArray());
+    for (long value : LONGS) {
+      assertEquals(value, in.readVarLong());
+    }
+    assertEquals(0, in.remaining());
+  }
+
+  public void test_varLong_size() {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(16);
+    out.writeVarLong(127);
+    assertEquals(1, out.size());
+    out.writeVarLong(128);
+    assertEquals(3, out.size());
+    out.writeVarLong(-1);
+    assertEquals(13, out.size());
+  }
+
+  public void test_signedVarLong_roundTrip() {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(8);
+    for (long value : LONGS) {
+      out.writeSignedVarLong(value);
+    }
+    CompactEncoding.Reader in = new CompactEncoding.Reader(out.toByteArray());
+    for (long value : LONGS) {
+      assertEquals(value, in.readSignedVarLong());
+    }
+    assertEquals(0, in.remaining());
+  }
+
+  public void test_signedVarLong_smallNegativeIsShort() {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(8);
+    out.writeSignedVarLong(-64);
+    assertEquals(1, out.size());
+  }
+
+  public void test_xorDouble_roundTrip() {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(8);
+    for (double value : DOUBLES) {
+      out.writeXorDouble(value);
+    }
+    CompactEncoding.Reader in = new CompactEncoding.Reader(out.toByteArray());
+    for (double value : DOUBLES) {
+      // compare bits so that -0.0 and NaN are checked exactly
+      assertEquals(Double.doubleToRawLongBits(value), Double.doubleToRawLongBits(in.readXorDouble()));
+    }
+    assertEquals(0, in.remaining());
+  }
+
+  public void test_xorDouble_repeatedIsOneByte() {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(8);
+    out.writeXorDouble(0d);
+    out.writeXorDouble(0d);
+    assertEquals(2, out.size());
+    out.writeXorDouble(1.5d);
+    int size = out.size();
+    out.writeXorDouble(1.5d);
+    assertEquals(size + 1, out.size());
+  }
+
+  //-------------------------------------------------------------------------
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_readVarLong_truncated() {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(8);
+    out.writeVarLong(Long.MAX_VALUE);
+    byte[] bytes = out.toByteArray();
+    new CompactEncoding.Reader(Arrays.copyOf(bytes, bytes.length - 1)).readVarLong();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_readVarLong_tooLong() {
+    byte[] bytes = new byte[11];
+    Arrays.fill(bytes, (byte) 0x80);
+    new CompactEncoding.Reader(bytes).readVarLong();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_readXorDouble_truncated() {
+    CompactEncoding.Writer out = new CompactEncoding.Writer(8);
+    out.writeXorDouble(Math.PI);
+    byte[] bytes = out.toByteArray();
+    new CompactEncoding.Reader(Arrays.copyOf(bytes, bytes.length - 1)).readXorDouble();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_readXorDouble_invalidControl() {
+    new CompactEncoding.Reader(new byte[] {(byte) 0x45, 1, 2, 3, 4, 5}).readXorDouble();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_reader_null() {
+    new CompactEncoding.Reader(null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_writer_zeroCapacity() {
+    new CompactEncoding.Writer(0);
+  }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.util;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test {@link ForkJoinUtils}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class ForkJoinUtilsTest {
+
+  private ForkJoinPool _pool;
+
+  @BeforeClass
+  public void setUp() {
+    _pool = new ForkJoinPool(4);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _pool.shutdown();
+  }
+
+  private static AtomicIntegerArray run(final ForkJoinPool pool, final int count) {
+    final AtomicIntegerArray calls = new AtomicIntegerArray(count);
+    ForkJoinUtils.invokeAll(pool, count, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int index) {
+        calls.incrementAndGet(index);
+      }
+    });
+    return calls;
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_invokeAll_pool() {
+    AtomicIntegerArray calls = run(_pool, 100);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(1, calls.get(i));
+    }
+  }
+
+  public void test_invokeAll_noPool() {
+    AtomicIntegerArray calls = run(null, 10);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(1, calls.get(i));
+    }
+  }
+
+  public void test_invokeAll_empty() {
+    assertEquals(0, run(_pool, 0).length());
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void test_invokeAll_exception() {
+    ForkJoinUtils.invokeAll(_pool, 4, new ForkJoinUtils.IndexedTask() {
+      @Override
+      public void execute(final int index) {
+        if (index == 2) {
+          throw new IllegalStateException();
+        }
+      }
+    });
+  }
+
+}
@@ -5,14 +5,25 @@
  */
 package com.opengamma.util.fudgemsg;
 
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertSame;
 import static org.testng.AssertJUnit.assertTrue;
 
 import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeSerializer;
 import org.testng.annotations.Test;
+import org.threeten.bp.LocalDate;
 
+import com.opengamma.timeseries.DoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeriesBuilder;
 import com.opengamma.util.paging.Paging;
+import com.opengamma.util.fudgemsg.timeseries.DoubleTimeSeriesFudgeBuilder;
 import com.opengamma.util.paging.PagingFudgeBuilder;
 import com.opengamma.util.test.TestGroup;
 
@@ -37,4 +48,26 @@ public class OpenGammaFudgeContextTest {
     assertSame(OpenGammaFudgeContext.getInstance(), OpenGammaFudgeContext.getInstance());
   }
 
+  @Test
+  public void test_timeSeriesEncoding() {
+    LocalDateDoubleTimeSeriesBuilder builder = ImmutableLocalDateDoubleTimeSeries.builder();
+    for (int i = 0; i < 100; i++) {
+      builder.put(LocalDate.of(2013, 1, 1).plusDays(i), 100 + i);
+    }
+    LocalDateDoubleTimeSeries ts = builder.build();
+    assertNotNull(new FudgeSerializer(OpenGammaFudgeContext.getInstance()).objectToFudgeMsg(ts).getByName(DoubleTimeSeriesFudgeBuilder.DATES));
+    FudgeContext plain = new FudgeContext();
+    assertFalse(OpenGammaFudgeContext.registerTimeSeriesEncoding(plain));
+    FudgeContext compact = new FudgeContext();
+    System.setProperty(OpenGammaFudgeContext.COMPACT_TIME_SERIES_PROPERTY, "true");
+    try {
+      assertTrue(OpenGammaFudgeContext.registerTimeSeriesEncoding(compact));
+    } finally {
+      System.clearProperty(OpenGammaFudgeContext.COMPACT_TIME_SERIES_PROPERTY);
+    }
+    FudgeMsg message = new FudgeSerializer(compact).objectToFudgeMsg(ts);
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.COMPACT_DATES));
+    assertEquals(ts, new FudgeDeserializer(OpenGammaFudgeContext.getInstance()).fudgeMsgToObject(DoubleTimeSeries.class, message));
+  }
+
 }
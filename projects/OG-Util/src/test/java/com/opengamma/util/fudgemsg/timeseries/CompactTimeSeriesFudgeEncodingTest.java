@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2013 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.util.fudgemsg.timeseries;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeSerializer;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import com.opengamma.timeseries.DoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.timeseries.precise.instant.ImmutableInstantDoubleTimeSeries;
+import com.opengamma.timeseries.precise.zdt.ImmutableZonedDateTimeDoubleTimeSeries;
+import com.opengamma.util.test.AbstractFudgeBuilderTestCase;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test the compact Fudge encoding of time-series.
+ */
+@Test(groups = TestGroup.UNIT)
+public class CompactTimeSeriesFudgeEncodingTest extends AbstractFudgeBuilderTestCase {
+
+  private FudgeContext _compactContext;
+
+  @BeforeClass
+  public void setUpClass() {
+    _compactContext = new FudgeContext();
+    DoubleTimeSeriesFudgeBuilder.registerCompactEncoding(_compactContext);
+  }
+
+  private FudgeMsg compactMessage(DoubleTimeSeries<?> ts) {
+    return new FudgeSerializer(_compactContext).objectToFudgeMsg(ts);
+  }
+
+  private DoubleTimeSeries<?> cycleCompact(DoubleTimeSeries<?> ts) {
+    return new FudgeDeserializer(_compactContext).fudgeMsgToObject(DoubleTimeSeries.class, compactMessage(ts));
+  }
+
+  private static LocalDateDoubleTimeSeries dailySeries(int size) {
+    LocalDateDoubleTimeSeriesBuilder builder = ImmutableLocalDateDoubleTimeSeries.builder();
+    LocalDate date = LocalDate.of(2010, 1, 4);
+    double value = 100;
+    for (int i = 0; i < size; i++) {
+      builder.put(date, value);
+      date = date.plusDays(i % 5 == 4 ? 3 : 1);
+      value = (i % 7 == 0 ? value : value + 0.25);
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_dates_roundTrip() {
+    int[] dates = dailySeries(1000).timesArrayFast();
+    byte[] encoded = CompactTimeSeriesEncoding.encodeDates(dates);
+    assertTrue(encoded.length < dates.length * 2);
+    assertTrue(Arrays.equals(dates, CompactTimeSeriesEncoding.decodeDates(encoded, dates.length)));
+    int[] extremes = new int[] {Integer.MIN_VALUE, 20130101, Integer.MAX_VALUE};
+    assertTrue(Arrays.equals(extremes, CompactTimeSeriesEncoding.decodeDates(CompactTimeSeriesEncoding.encodeDates(extremes), 3)));
+  }
+
+  public void test_instants_roundTrip() {
+    long[] instants = new long[] {Long.MIN_VALUE, -1, 0, 86_400_000_000_000L, 2 * 86_400_000_000_000L, Long.MAX_VALUE};
+    assertTrue(Arrays.equals(instants, CompactTimeSeriesEncoding.decodeInstants(CompactTimeSeriesEncoding.encodeInstants(instants), instants.length)));
+  }
+
+  public void test_values_compression() {
+    double[] values = dailySeries(1000).valuesArrayFast();
+    assertTrue(CompactTimeSeriesEncoding.encodeValues(values).length < values.length * 3);
+  }
+
+  public void test_values_roundTrip() {
+    Random random = new Random(1);
+    double[] values = new double[500];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (i % 50 == 0 ? random.nextGaussian() * 1e10 : (i % 3 == 0 ? values[Math.max(i - 1, 0)] : random.nextDouble()));
+    }
+    values[10] = Double.NaN;
+    values[11] = Double.POSITIVE_INFINITY;
+    values[12] = -0.0;
+    values[13] = Double.MIN_VALUE;
+    double[] decoded = CompactTimeSeriesEncoding.decodeValues(CompactTimeSeriesEncoding.encodeValues(values), values.length);
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(decoded[i]));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_default_plain() {
+    LocalDateDoubleTimeSeries ts = dailySeries(1000);
+    FudgeMsg message = getFudgeSerializer().objectToFudgeMsg(ts);
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.DATES));
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.VALUES));
+    assertFalse(message.hasField(DoubleTimeSeriesFudgeBuilder.COUNT));
+    assertFalse(DoubleTimeSeriesFudgeBuilder.INSTANCE.isCompact());
+    assertEquals(ts, cycleObject(DoubleTimeSeries.class, ts));
+  }
+
+  public void test_localDate_compact() {
+    LocalDateDoubleTimeSeries ts = dailySeries(1000);
+    FudgeMsg message = compactMessage(ts);
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.COMPACT_DATES));
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.COMPACT_VALUES));
+    assertNull(message.getByName(DoubleTimeSeriesFudgeBuilder.DATES));
+    assertEquals(ts, cycleCompact(ts));
+    // a reader using the default builders also reads the compact form
+    assertEquals(ts, getFudgeDeserializer().fudgeMsgToObject(DoubleTimeSeries.class, message));
+  }
+
+  public void test_localDate_incompressibleValues() {
+    Random random = new Random(2);
+    LocalDateDoubleTimeSeriesBuilder builder = ImmutableLocalDateDoubleTimeSeries.builder();
+    for (int i = 0; i < 100; i++) {
+      builder.put(LocalDate.of(2013, 1, 1).plusDays(i), Double.longBitsToDouble(random.nextLong()));
+    }
+    LocalDateDoubleTimeSeries ts = builder.build();
+    FudgeMsg message = compactMessage(ts);
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.COMPACT_DATES));
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.VALUES));
+    assertEquals(ts, cycleCompact(ts));
+  }
+
+  public void test_precise_compact() {
+    long[] instants = new long[50];
+    double[] values = new double[50];
+    for (int i = 0; i < instants.length; i++) {
+      instants[i] = Instant.parse("2013-06-01T16:00:00Z").toEpochMilli() * 1_000_000L + i * 3_600_000_000_000L;
+      values[i] = 1.5 + (i % 4);
+    }
+    ImmutableInstantDoubleTimeSeries instantTs = ImmutableInstantDoubleTimeSeries.of(instants, values);
+    assertNotNull(compactMessage(instantTs).getByName(DoubleTimeSeriesFudgeBuilder.COMPACT_INSTANTS));
+    assertEquals(instantTs, cycleCompact(instantTs));
+    ImmutableZonedDateTimeDoubleTimeSeries zdtTs = ImmutableZonedDateTimeDoubleTimeSeries.of(instants, values, ZoneId.of("Europe/London"));
+    DoubleTimeSeries<?> cycled = cycleCompact(zdtTs);
+    assertEquals(zdtTs, cycled);
+    assertEquals(ZoneId.of("Europe/London"), ((ZonedDateTime) cycled.getEarliestTime()).getZone());
+  }
+
+  public void test_small_plain() {
+    LocalDateDoubleTimeSeries ts = dailySeries(3);
+    FudgeMsg message = compactMessage(ts);
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.DATES));
+    assertEquals(ts, cycleCompact(ts));
+  }
+
+  public void test_plain_readByCompact() {
+    LocalDateDoubleTimeSeries ts = dailySeries(200);
+    FudgeMsg message = getFudgeSerializer().objectToFudgeMsg(ts);
+    assertNotNull(message.getByName(DoubleTimeSeriesFudgeBuilder.DATES));
+    assertEquals(ts, new FudgeDeserializer(_compactContext).fudgeMsgToObject(DoubleTimeSeries.class, message));
+  }
+
+}
@@ -220,6 +220,31 @@ public abstract class DbDialect {
     return "NEXT VALUE FOR " + sequenceName + " ";
   }
 
+  /**
+   * Builds SQL to query a number of values from a sequence in a single statement.
+   * <p>
+   * The SQL returns one row per value.
+   * The default implementation returns null, in which case callers should query
+   * the sequence once per value using {@link #sqlNextSequenceValueSelect(String)}.
+   * 
+   * @param sequenceName  the sequence name, not null
+   * @param count  the number of values to query, one or greater
+   * @return the SQL, not space terminated, null if not supported
+   */
+  public String sqlNextSequenceValuesSelect(final String sequenceName, final int count) {
+    return null;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks whether the database accepts an INSERT statement with more than one row in its VALUES clause.
+   * 
+   * @return true if multi-row inserts are supported
+   */
+  public boolean isMultiRowInsertSupported() {
+    return false;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Builds SQL to query the current timestamp.
@@ -56,6 +56,11 @@ public class HSQLDbDialect extends DbDialect {
     return "CALL NEXT VALUE FOR " + sequenceName;
   }
 
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
   @Override
   public String sqlSelectNow() {
     return "SELECT * FROM (VALUES(current_timestamp)) AS V(NOW_TIMESTAMP)";
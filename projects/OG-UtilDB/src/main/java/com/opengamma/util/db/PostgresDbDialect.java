@@ -57,4 +57,14 @@ public class PostgresDbDialect extends DbDialect {
     return "nextval('" + sequenceName + "')";
   }
 
+  @Override
+  public String sqlNextSequenceValuesSelect(final String sequenceName, final int count) {
+    return "SELECT nextval('" + sequenceName + "') FROM generate_series(1, " + count + ")";
+  }
+
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
 }
@@ -77,6 +77,11 @@ public class SqlServer2008DbDialect extends DbDialect {
         " WITH (READPAST); SELECT nextval = @NewSeqValue; SET NOCOUNT OFF";
   }
 
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
   @Override
   public String sqlNextSequenceValueInline(final String sequenceName) {
     throw new OpenGammaRuntimeException("sqlNextSequenceValueInline is not currently supported in the SQL Server 2008 dialect");
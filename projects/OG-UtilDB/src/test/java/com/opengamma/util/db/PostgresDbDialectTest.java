@@ -43,4 +43,8 @@ public class PostgresDbDialectTest extends DbDialectTest {
     assertEquals("nextval('MySeq')", _dialect.sqlNextSequenceValueInline("MySeq"));
   }
 
+  public void test_sqlNextSequenceValuesSelect() {
+    assertEquals("SELECT nextval('MySeq') FROM generate_series(1, 20)", _dialect.sqlNextSequenceValuesSelect("MySeq", 20));
+  }
+
 }